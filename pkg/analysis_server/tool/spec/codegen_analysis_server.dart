@@ -50,6 +50,16 @@ class CodegenAnalysisServer extends CodegenJavaVisitor {
  * @coverage dart.server
  */''');
     makeClass('public interface AnalysisServer', () {
+      //
+      // PROTOCOL_VERSION
+      //
+      publicField('PROTOCOL_VERSION', () {
+        writeln('''/**
+ * The version of the analysis server protocol this interface was generated from.
+ */''');
+        writeln('public static final String PROTOCOL_VERSION = "${api.version}";');
+      });
+
       //
       // addAnalysisServerListener(..)
       //
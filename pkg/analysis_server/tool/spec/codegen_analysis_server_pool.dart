@@ -0,0 +1,1293 @@
+// Copyright (c) 2014, the Dart project authors.  Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+/**
+ * Code generation for the file "AnalysisServerPool.java".
+ */
+library java.generator.pool;
+
+import 'api.dart';
+import 'codegen_java.dart';
+import 'codegen_java_callbacks.dart';
+import 'codegen_tools.dart';
+
+final GeneratedFile target = javaGeneratedFile(
+    'generated/java/AnalysisServerPool.java',
+    (Api api) => new CodegenAnalysisServerPool(api));
+
+/**
+ * Translate spec_input.html into AnalysisServerPool.java.
+ */
+main() {
+  target.generate();
+}
+
+/**
+ * Visitor that generates an implementation of the analysis server interface
+ * which routes each request to one or more shards.
+ */
+class CodegenAnalysisServerPool extends CodegenJavaCallbacks {
+  /**
+   * The names of the types of ids which are returned by a request and passed
+   * to other requests, such as execution context ids. Requests passing such an
+   * id are routed to the shard which returned it.
+   */
+  final Set<String> ownedIdTypes = new Set<String>();
+
+  /**
+   * The names of the types of ids which are the result of a request sent to
+   * every shard and identify a stream of notifications ending with `isLast`,
+   * such as search ids. The pool assigns its own id to each search, whether it
+   * is sent to every shard or to the shard of a file, and reports the
+   * notifications of each shard under that id.
+   */
+  final Set<String> searchIdTypes = new Set<String>();
+
+  CodegenAnalysisServerPool(Api api) : super(api) {
+    Set<String> parameterTypes = new Set<String>();
+    Set<String> streamIdTypes = new Set<String>();
+    for (Domain domain in api.domains) {
+      for (Request request in domain.requests) {
+        if (request.params != null) {
+          for (TypeObjectField field in request.params.fields) {
+            if (field.type is TypeReference) {
+              parameterTypes.add((field.type as TypeReference).typeName);
+            }
+          }
+        }
+      }
+      for (Notification notification in domain.notifications) {
+        if (notification.params != null &&
+            notification.params.getField('isLast') != null) {
+          String idType = fieldTypeName(notification.params.getField('id'));
+          if (idType != null) {
+            streamIdTypes.add(idType);
+          }
+        }
+      }
+    }
+    for (Domain domain in api.domains) {
+      for (Request request in domain.requests) {
+        String idType = resultIdType(request);
+        if (idType != null && parameterTypes.contains(idType)) {
+          ownedIdTypes.add(idType);
+        }
+      }
+    }
+    for (Domain domain in api.domains) {
+      for (Request request in domain.requests) {
+        String idType = resultIdType(request);
+        if (streamIdTypes.contains(idType) &&
+            request.result.fields.length == 1 &&
+            isBroadcast(request)) {
+          searchIdTypes.add(idType);
+        }
+      }
+    }
+  }
+
+  /**
+   * Return the name of the type referenced by [field], or `null` if [field]
+   * is `null` or its type is not a type reference.
+   */
+  String fieldTypeName(TypeObjectField field) {
+    if (field == null || field.type is! TypeReference) {
+      return null;
+    }
+    return (field.type as TypeReference).typeName;
+  }
+
+  /**
+   * Return the index of the parameter of [notification] with the given
+   * [name].
+   */
+  int fieldIndex(Notification notification, String name) {
+    return notification.params.fields
+        .indexOf(notification.params.getField(name));
+  }
+
+  /**
+   * Return the first parameter of [request] holding a single file, or `null`
+   * if there is no such parameter.
+   */
+  TypeObjectField fileParameter(Request request) {
+    if (request.params != null) {
+      for (TypeObjectField field in request.params.fields) {
+        if (isFilePath(field.type)) {
+          return field;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Return the parameter of [request] holding an id returned by a request
+   * which was routed to a single shard, or `null` if there is no such
+   * parameter.
+   */
+  TypeObjectField idParameter(Request request) {
+    if (request.params != null) {
+      for (TypeObjectField field in request.params.fields) {
+        if (ownedIdTypes.contains(fieldTypeName(field))) {
+          return field;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Return `true` if [request] is sent to every shard, because it is not
+   * about a file or an id returned by a shard.
+   */
+  bool isBroadcast(Request request) {
+    return request.longMethod != 'analysis.setAnalysisRoots' &&
+        idParameter(request) == null &&
+        fileParameter(request) == null &&
+        splitParameter(request) == null;
+  }
+
+  /**
+   * Return `true` if [notification] reports the results of a search sent to
+   * every shard.
+   */
+  bool isSearchNotification(Notification notification) {
+    return notification.params != null &&
+        notification.params.getField('isLast') != null &&
+        searchIdTypes
+            .contains(fieldTypeName(notification.params.getField('id')));
+  }
+
+  /**
+   * Return `true` if [type] is a reference to a file path.
+   */
+  bool isFilePath(TypeDecl type) {
+    return type is TypeReference && type.typeName == 'FilePath';
+  }
+
+  /**
+   * Return the name of the type of the `id` field in the result of [request],
+   * or `null` if the result has no such field.
+   */
+  String resultIdType(Request request) {
+    if (request.result == null) {
+      return null;
+    }
+    return fieldTypeName(request.result.getField('id'));
+  }
+
+  /**
+   * Return the name of the Java method splitting a value of the given [type]
+   * into one part per shard, or `null` if values of the type do not hold
+   * files.
+   */
+  String splitMethod(TypeDecl type) {
+    if (type is TypeList && isFilePath(type.itemType)) {
+      return 'splitList';
+    } else if (type is TypeMap) {
+      if (isFilePath(type.keyType)) {
+        return 'splitMapKeys';
+      }
+      if (type.valueType is TypeList &&
+          isFilePath((type.valueType as TypeList).itemType)) {
+        return 'splitMapValues';
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Return the first parameter of [request] holding several files which can
+   * be split across the shards, or `null` if there is no such parameter.
+   */
+  TypeObjectField splitParameter(Request request) {
+    if (request.params != null) {
+      for (TypeObjectField field in request.params.fields) {
+        if (splitMethod(field.type) != null) {
+          return field;
+        }
+      }
+    }
+    return null;
+  }
+
+  @override
+  void visitApi() {
+    outputHeader(javaStyle: true);
+    writeln('package com.google.dart.server.generated;');
+    writeln();
+    writeln('import com.google.dart.server.*;');
+    writeln('import com.google.dart.server.generated.callbacks.*;');
+    writeln('import org.dartlang.analysis.server.protocol.*;');
+    writeln();
+    writeln('import java.lang.reflect.InvocationHandler;');
+    writeln('import java.lang.reflect.Method;');
+    writeln('import java.util.ArrayList;');
+    writeln('import java.util.Collection;');
+    writeln('import java.util.HashMap;');
+    writeln('import java.util.LinkedHashMap;');
+    writeln('import java.util.LinkedHashSet;');
+    writeln('import java.util.List;');
+    writeln('import java.util.Map;');
+    writeln('import java.util.concurrent.ConcurrentHashMap;');
+    writeln('import java.util.concurrent.CopyOnWriteArrayList;');
+    writeln('import java.util.concurrent.atomic.AtomicInteger;');
+    writeln();
+    writeln('''/**
+ * The class {@code AnalysisServerPool} implements {@link AnalysisServer} on top of a fixed set of
+ * analysis servers (shards), each typically running in its own process, so that very large
+ * workspaces can be analyzed using more than one core.
+ * <p>
+ * The analysis roots are partitioned across the shards. A file is owned by the shard analyzing the
+ * innermost root containing it, or by a shard chosen by hashing its path if no root contains it.
+ * Requests about a file are sent to the shard owning the file, requests about several files are
+ * split by owner, requests about an execution context are sent to the shard which created it, and
+ * all the other requests are sent to every shard, their responses being merged. A request sent to
+ * several shards fails with the first error if any of them fails.
+ * <p>
+ * Notifications from all the shards are delivered to the listeners of the pool. The pool is
+ * reported as connected once every shard has connected, and as analyzing while any shard is
+ * analyzing. The results of a search are reported under a single search id, after the consumer of
+ * the search has been invoked, and as complete once every shard has completed the search.
+ * <p>
+ * Each shard assigns its own search and execution context ids, so the ids returned by two shards
+ * may be equal. The pool therefore assigns its own id to each search and execution context, and
+ * translates the ids in the requests and notifications to and from the ids of the shards.
+ * <p>
+ * Requests about an element, such as {@code search.findElementReferences}, only see the files
+ * analyzed by the shard owning the file containing the element.
+ *
+ * @coverage dart.server
+ */''');
+    makeClass('public class AnalysisServerPool implements AnalysisServer', () {
+      privateField('shards', () {
+        writeln('''/**
+ * The servers the requests are routed to.
+ */
+private final List<AnalysisServer> shards;''');
+      });
+      privateField('listeners', () {
+        writeln('''/**
+ * The listeners notified of the notifications of all the shards.
+ */
+private final List<AnalysisServerListener> listeners = new CopyOnWriteArrayList<AnalysisServerListener>();''');
+      });
+      privateField('rootOwners', () {
+        writeln('''/**
+ * A table mapping the analysis roots to the index of the shard analyzing them.
+ */
+private final Map<String, Integer> rootOwners = new HashMap<String, Integer>();''');
+      });
+      privateField('ownedIds', () {
+        writeln('''/**
+ * A table mapping the ids assigned by the pool to the ids returned by requests sent to a single
+ * shard, such as execution context ids.
+ */
+private final Map<String, ShardId> ownedIds = new ConcurrentHashMap<String, ShardId>();''');
+      });
+      privateField('nextId', () {
+        writeln('''/**
+ * The number from which the next id assigned by the pool is built.
+ */
+private final AtomicInteger nextId = new AtomicInteger();''');
+      });
+      privateField('searches', () {
+        writeln('''/**
+ * A table mapping the search ids returned by the shards to the search they are part of. The
+ * searches, {@link #bufferedDeliveries} and {@link #pendingSearchCount} are guarded by this table.
+ */
+private final Map<ShardId, Search> searches = new HashMap<ShardId, Search>();''');
+      });
+      privateField('bufferedDeliveries', () {
+        writeln('''/**
+ * The search results received before the search they are part of has been reported to its
+ * consumer, in the order in which they were received.
+ */
+private final List<SearchDelivery> bufferedDeliveries = new ArrayList<SearchDelivery>();''');
+      });
+      privateField('pendingSearchCount', () {
+        writeln('''/**
+ * The number of searches which have not been reported to their consumer yet. While there is such
+ * a search, the results with an unknown search id are buffered, as the id may
+ * be returned by a shard which has not responded yet.
+ */
+private int pendingSearchCount = 0;''');
+      });
+      privateField('connected', () {
+        writeln('''/**
+ * Whether each shard has connected, guarded by this array.
+ */
+private final boolean[] connected;''');
+      });
+      privateField('analyzing', () {
+        writeln('''/**
+ * Whether each shard was last reported as analyzing, guarded by this array.
+ */
+private final boolean[] analyzing;''');
+      });
+      privateField('reportedAnalyzing', () {
+        writeln('''/**
+ * Whether the pool was last reported as analyzing, guarded by {@link #analyzing}.
+ */
+private boolean reportedAnalyzing = false;''');
+      });
+      privateField('ShardId', () {
+        writeln('''/**
+ * An id returned by a shard, together with the index of that shard.
+ */
+private static class ShardId {
+  /**
+   * The index of the shard.
+   */
+  final int index;
+
+  /**
+   * The id returned by the shard.
+   */
+  final String id;
+
+  ShardId(int index, String id) {
+    this.index = index;
+    this.id = id;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj instanceof ShardId) {
+      ShardId other = (ShardId) obj;
+      return other.index == index && other.id.equals(id);
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    return index * 31 + id.hashCode();
+  }
+}''');
+      });
+      privateField('Join', () {
+        writeln('''/**
+ * The responses of the shards to a request sent to several shards, merged as they are received.
+ */
+private static class Join {
+  /**
+   * The merged results of the shards which have succeeded, or {@code null} if no shard has
+   * succeeded yet.
+   */
+  Object[] response;
+
+  /**
+   * The error of the first shard which has failed, or {@code null} if no shard has failed yet.
+   */
+  RequestError error;
+
+  /**
+   * The number of shards which have not responded yet.
+   */
+  private int remaining;
+
+  Join(int count) {
+    remaining = count;
+  }
+
+  /**
+   * Record the response of a shard, which is either the given results or the given error. Return
+   * {@code true} if every shard has responded.
+   */
+  synchronized boolean add(Object[] results, RequestError error) {
+    if (error != null) {
+      if (this.error == null) {
+        this.error = error;
+      }
+    } else if (response == null) {
+      response = results;
+    } else {
+      for (int i = 0; i < results.length; i++) {
+        response[i] = merge(response[i], results[i]);
+      }
+    }
+    return --remaining == 0;
+  }
+}''');
+      });
+      privateField('SearchJoin', () {
+        writeln('''/**
+ * The responses of the shards to a search.
+ */
+private static class SearchJoin {
+  /**
+   * The search ids returned by the shards which have succeeded.
+   */
+  final List<ShardId> ids = new ArrayList<ShardId>();
+
+  /**
+   * The error of the first shard which has failed, or {@code null} if no shard has failed yet.
+   */
+  RequestError error;
+
+  /**
+   * The number of shards which have not responded yet.
+   */
+  private int remaining;
+
+  SearchJoin(int count) {
+    remaining = count;
+  }
+
+  /**
+   * Record the response of the shard with the given index, which is either the given search id,
+   * {@code null} if the shard has not started a search, or the given error. Return {@code true} if
+   * every shard has responded.
+   */
+  synchronized boolean add(int index, String id, RequestError error) {
+    if (error != null) {
+      if (this.error == null) {
+        this.error = error;
+      }
+    } else if (id != null) {
+      ids.add(new ShardId(index, id));
+    }
+    return --remaining == 0;
+  }
+}''');
+      });
+      privateField('Search', () {
+        writeln('''/**
+ * A search sent to one or more shards.
+ */
+private static class Search {
+  /**
+   * The id assigned by the pool, under which the results are reported, or {@code null} if no shard
+   * has returned an id.
+   */
+  final String id;
+
+  /**
+   * The ids returned by the shards.
+   */
+  final List<ShardId> ids;
+
+  /**
+   * Whether the search has failed on a shard, so that its results are not reported.
+   */
+  final boolean cancelled;
+
+  /**
+   * Whether the search has been reported to its consumer, so that its results can be reported.
+   */
+  boolean announced = false;
+
+  /**
+   * The number of shards which have not completed the search yet.
+   */
+  int remaining;
+
+  Search(String id, List<ShardId> ids, boolean cancelled) {
+    this.id = id;
+    this.ids = ids;
+    this.cancelled = cancelled;
+    this.remaining = ids.size();
+  }
+}''');
+      });
+      privateField('SearchDelivery', () {
+        writeln('''/**
+ * The results of a search received from a shard, which are reported to the listeners of the pool
+ * under the id of the search they are part of.
+ */
+private abstract static class SearchDelivery {
+  /**
+   * The search id returned by the shard.
+   */
+  final ShardId id;
+
+  /**
+   * Whether the shard has completed the search.
+   */
+  final boolean isLast;
+
+  SearchDelivery(ShardId id, boolean isLast) {
+    this.id = id;
+    this.isLast = isLast;
+  }
+
+  /**
+   * Report the results to the listeners of the pool with the given search id and completion.
+   */
+  abstract void deliver(String searchId, boolean last);
+}''');
+      });
+      privateField('ShardListener', () {
+        writeShardListener();
+      });
+      constructor('AnalysisServerPool', () {
+        writeln('''/**
+ * Initialize a newly created pool to route requests to the given servers, which must not have been
+ * started yet.
+ */
+public AnalysisServerPool(List<AnalysisServer> shards) {
+  this.shards = new ArrayList<AnalysisServer>(shards);
+  connected = new boolean[shards.size()];
+  analyzing = new boolean[shards.size()];
+  for (int i = 0; i < this.shards.size(); i++) {
+    this.shards.get(i).addAnalysisServerListener(
+        ClientCallbacks.newListener(new ShardListener(i)));
+  }
+}''');
+      });
+      publicMethod('addAnalysisServerListener', () {
+        writeln('''@Override
+public void addAnalysisServerListener(AnalysisServerListener listener) {
+  listeners.add(listener);
+}''');
+      });
+      publicMethod('addStatusListener', () {
+        writeln('''@Override
+public void addStatusListener(AnalysisServerStatusListener listener) {
+  for (AnalysisServer shard : shards) {
+    shard.addStatusListener(listener);
+  }
+}''');
+      });
+      publicMethod('getShardCount', () {
+        writeln('''/**
+ * Return the number of servers the requests are routed to.
+ */
+public int getShardCount() {
+  return shards.size();
+}''');
+      });
+      publicMethod('isSocketOpen', () {
+        writeln('''@Override
+public boolean isSocketOpen() {
+  for (AnalysisServer shard : shards) {
+    if (!shard.isSocketOpen()) {
+      return false;
+    }
+  }
+  return true;
+}''');
+      });
+      publicMethod('removeAnalysisServerListener', () {
+        writeln('''@Override
+public void removeAnalysisServerListener(AnalysisServerListener listener) {
+  listeners.remove(listener);
+}''');
+      });
+      publicMethod('start', () {
+        writeln('''@Override
+public void start() throws Exception {
+  for (AnalysisServer shard : shards) {
+    shard.start();
+  }
+}''');
+      });
+      super.visitApi();
+      privateMethod('addOwnedId', () {
+        writeln('''/**
+ * Assign a new id to the given id returned by the shard with the given index, and return it, or
+ * return {@code null} if the given id is {@code null}.
+ */
+private String addOwnedId(int index, String id) {
+  if (id == null) {
+    return null;
+  }
+  String ownedId = newId();
+  ownedIds.put(ownedId, new ShardId(index, id));
+  return ownedId;
+}''');
+      });
+      privateMethod('announceSearch', () {
+        writeln('''/**
+ * Record that the given search has been reported to its consumer, and report the results which
+ * were buffered until then.
+ */
+private void announceSearch(Search search) {
+  synchronized (searches) {
+    search.announced = true;
+    pendingSearchCount--;
+    List<SearchDelivery> deliveries = new ArrayList<SearchDelivery>(bufferedDeliveries);
+    bufferedDeliveries.clear();
+    for (SearchDelivery delivery : deliveries) {
+      deliverSearchResults(delivery);
+    }
+  }
+}''');
+      });
+      privateMethod('assignRoots', () {
+        writeln('''/**
+ * Assign each of the given roots to a shard, keeping the shard of the roots which were already
+ * analyzed and assigning new roots to the shards with the fewest roots. Return the roots assigned
+ * to each shard.
+ */
+private List<List<String>> assignRoots(List<String> included) {
+  List<List<String>> parts = new ArrayList<List<String>>();
+  for (int i = 0; i < shards.size(); i++) {
+    parts.add(new ArrayList<String>());
+  }
+  synchronized (rootOwners) {
+    rootOwners.keySet().retainAll(included);
+    int[] rootCounts = new int[shards.size()];
+    for (Integer owner : rootOwners.values()) {
+      rootCounts[owner]++;
+    }
+    for (String root : included) {
+      Integer owner = rootOwners.get(root);
+      if (owner == null) {
+        owner = 0;
+        for (int i = 1; i < rootCounts.length; i++) {
+          if (rootCounts[i] < rootCounts[owner]) {
+            owner = i;
+          }
+        }
+        rootOwners.put(root, owner);
+        rootCounts[owner]++;
+      }
+      parts.get(owner).add(root);
+    }
+  }
+  return parts;
+}''');
+      });
+      privateMethod('countNonEmpty', () {
+        writeln('''private static int countNonEmpty(List<?> parts) {
+  int count = 0;
+  for (Object part : parts) {
+    if (!isEmpty(part)) {
+      count++;
+    }
+  }
+  return count;
+}''');
+      });
+      privateMethod('deliverSearchResults', () {
+        writeln('''/**
+ * Report the given search results to the listeners of the pool under the id of the search they are
+ * part of, or buffer them if that search has not been reported to its consumer yet. The results of
+ * a cancelled search are dropped, and so are the results with an unknown search id once no search
+ * is pending, as they are not part of a search started through the pool.
+ */
+private void deliverSearchResults(SearchDelivery delivery) {
+  synchronized (searches) {
+    Search search = searches.get(delivery.id);
+    if (search == null ? pendingSearchCount != 0 : !search.announced) {
+      bufferedDeliveries.add(delivery);
+    } else if (search != null) {
+      boolean last = delivery.isLast && finishSearch(search);
+      if (!search.cancelled) {
+        delivery.deliver(search.id, last);
+      }
+    }
+  }
+}''');
+      });
+      privateMethod('dispatch', () {
+        writeln('''/**
+ * Invoke the given method of every listener of the pool with the given arguments.
+ */
+private void dispatch(Method method, Object[] arguments) {
+  for (AnalysisServerListener listener : listeners) {
+    ClientCallbacks.invoke(method, listener, arguments);
+  }
+}''');
+      });
+      privateMethod('finishSearch', () {
+        writeln('''/**
+ * Record that a shard has completed the given search. Return {@code true} if every shard has
+ * completed it. Must be invoked while holding the lock on {@link #searches}.
+ */
+private boolean finishSearch(Search search) {
+  if (--search.remaining != 0) {
+    return false;
+  }
+  for (ShardId id : search.ids) {
+    searches.remove(id);
+  }
+  return true;
+}''');
+      });
+      privateMethod('getShard', () {
+        writeln('''private AnalysisServer getShard(String file) {
+  return shards.get(getShardIndex(file));
+}''');
+      });
+      privateMethod('getShardId', () {
+        writeln('''/**
+ * Return the id returned by a shard which the given id assigned by the pool stands for, or the
+ * given id on the first shard if the pool has not assigned it.
+ */
+private ShardId getShardId(String id) {
+  ShardId shardId = id != null ? ownedIds.get(id) : null;
+  return shardId != null ? shardId : new ShardId(0, id);
+}''');
+      });
+      privateMethod('newId', () {
+        writeln('''/**
+ * Return a new id assigned by the pool, which is distinct from every id it has assigned.
+ */
+private String newId() {
+  return String.valueOf(nextId.getAndIncrement());
+}''');
+      });
+      privateMethod('removeShardId', () {
+        writeln('''/**
+ * Forget the given id assigned by the pool, such as when the execution context it stands for is
+ * deleted, and return the id returned by a shard it stood for, as {@link #getShardId} does.
+ */
+private ShardId removeShardId(String id) {
+  ShardId shardId = id != null ? ownedIds.remove(id) : null;
+  return shardId != null ? shardId : new ShardId(0, id);
+}''');
+      });
+      privateMethod('getShardIndex', () {
+        writeln('''/**
+ * Return the index of the shard owning the given file.
+ */
+private int getShardIndex(String file) {
+  if (file == null) {
+    return 0;
+  }
+  synchronized (rootOwners) {
+    String ownerRoot = null;
+    int owner = -1;
+    for (Map.Entry<String, Integer> entry : rootOwners.entrySet()) {
+      String root = entry.getKey();
+      if (isContained(root, file) && (ownerRoot == null || root.length() > ownerRoot.length())) {
+        ownerRoot = root;
+        owner = entry.getValue();
+      }
+    }
+    if (owner != -1) {
+      return owner;
+    }
+  }
+  return (file.hashCode() & 0x7FFFFFFF) % shards.size();
+}''');
+      });
+      privateMethod('isContained', () {
+        writeln(r'''private static boolean isContained(String root, String file) {
+  if (!file.startsWith(root)) {
+    return false;
+  }
+  if (file.length() == root.length() || root.endsWith("/") || root.endsWith("\\")) {
+    return true;
+  }
+  char separator = file.charAt(root.length());
+  return separator == '/' || separator == '\\';
+}''');
+      });
+      privateMethod('isEmpty', () {
+        writeln('''private static boolean isEmpty(Object part) {
+  if (part instanceof Map) {
+    return ((Map<?, ?>) part).isEmpty();
+  }
+  return ((Collection<?>) part).isEmpty();
+}''');
+      });
+      privateMethod('joinSearch', () {
+        writeln('''/**
+ * Return the join of the responses of the given number of shards to a new search. The results of
+ * the search are buffered until the search is reported to its consumer.
+ */
+private SearchJoin joinSearch(int count) {
+  synchronized (searches) {
+    pendingSearchCount++;
+  }
+  return new SearchJoin(count);
+}''');
+      });
+      privateMethod('merge', () {
+        writeln('''/**
+ * Merge two values of the same result of a request, returned by different shards. Lists and maps
+ * are merged without duplicates, other values are taken from the first shard.
+ */
+@SuppressWarnings("unchecked")
+private static Object merge(Object first, Object second) {
+  if (first instanceof List && second instanceof List) {
+    LinkedHashSet<Object> merged = new LinkedHashSet<Object>((List<Object>) first);
+    merged.addAll((List<Object>) second);
+    return new ArrayList<Object>(merged);
+  }
+  if (first instanceof Map && second instanceof Map) {
+    Map<Object, Object> merged = new LinkedHashMap<Object, Object>((Map<Object, Object>) first);
+    for (Map.Entry<Object, Object> entry : ((Map<Object, Object>) second).entrySet()) {
+      Object value = merged.get(entry.getKey());
+      merged.put(entry.getKey(), value != null ? merge(value, entry.getValue()) : entry.getValue());
+    }
+    return merged;
+  }
+  return first != null ? first : second;
+}''');
+      });
+      privateMethod('mergeAnalysisStatus', () {
+        writeln('''/**
+ * Record the analysis status reported by the shard with the given index. Return the status if it
+ * changes the status of the pool, which is analyzing while any shard is analyzing, or {@code null}
+ * if it does not. Must be invoked while holding the lock on {@link #analyzing}.
+ */
+private AnalysisStatus mergeAnalysisStatus(int index, AnalysisStatus status) {
+  if (status == null) {
+    return null;
+  }
+  analyzing[index] = status.isAnalyzing();
+  boolean poolAnalyzing = false;
+  for (boolean shardAnalyzing : analyzing) {
+    poolAnalyzing |= shardAnalyzing;
+  }
+  if (poolAnalyzing == reportedAnalyzing) {
+    return null;
+  }
+  reportedAnalyzing = poolAnalyzing;
+  return status;
+}''');
+      });
+      privateMethod('shardConnected', () {
+        writeln('''/**
+ * Record that the shard with the given index has connected. Return {@code true} if every shard has
+ * connected, so that the connection is reported.
+ */
+private boolean shardConnected(int index) {
+  synchronized (connected) {
+    connected[index] = true;
+    for (boolean shardConnected : connected) {
+      if (!shardConnected) {
+        return false;
+      }
+    }
+    return true;
+  }
+}''');
+      });
+      privateMethod('splitList', () {
+        writeln('''private List<List<String>> splitList(List<String> files) {
+  List<List<String>> parts = new ArrayList<List<String>>();
+  for (int i = 0; i < shards.size(); i++) {
+    parts.add(new ArrayList<String>());
+  }
+  for (String file : files) {
+    parts.get(getShardIndex(file)).add(file);
+  }
+  return parts;
+}''');
+      });
+      privateMethod('splitMapKeys', () {
+        writeln('''private <V> List<Map<String, V>> splitMapKeys(Map<String, V> map) {
+  List<Map<String, V>> parts = new ArrayList<Map<String, V>>();
+  for (int i = 0; i < shards.size(); i++) {
+    parts.add(new LinkedHashMap<String, V>());
+  }
+  for (Map.Entry<String, V> entry : map.entrySet()) {
+    parts.get(getShardIndex(entry.getKey())).put(entry.getKey(), entry.getValue());
+  }
+  return parts;
+}''');
+      });
+      privateMethod('splitMapValues', () {
+        writeln('''private <K> List<Map<K, List<String>>> splitMapValues(Map<K, List<String>> map) {
+  List<Map<K, List<String>>> parts = new ArrayList<Map<K, List<String>>>();
+  for (int i = 0; i < shards.size(); i++) {
+    Map<K, List<String>> part = new LinkedHashMap<K, List<String>>();
+    for (K key : map.keySet()) {
+      part.put(key, new ArrayList<String>());
+    }
+    parts.add(part);
+  }
+  for (Map.Entry<K, List<String>> entry : map.entrySet()) {
+    for (String file : entry.getValue()) {
+      parts.get(getShardIndex(file)).get(entry.getKey()).add(file);
+    }
+  }
+  return parts;
+}''');
+      });
+      privateMethod('startSearch', () {
+        writeln('''/**
+ * Register the search whose ids have been returned by the shards, assigning it an id of the pool
+ * if any shard has returned an id. The search is cancelled if a shard has failed. Its results are
+ * buffered until {@link #announceSearch} is invoked.
+ */
+private Search startSearch(SearchJoin join) {
+  synchronized (searches) {
+    String id = join.ids.isEmpty() ? null : newId();
+    Search search = new Search(id, join.ids, join.error != null);
+    for (ShardId shardId : search.ids) {
+      searches.put(shardId, search);
+    }
+    return search;
+  }
+}''');
+      });
+    });
+  }
+
+  @override
+  void visitRequest(Request request) {
+    String methodName = '${request.domainName}_${request.method}';
+    TypeObjectField idField = idParameter(request);
+    TypeObjectField fileField = fileParameter(request);
+    TypeObjectField splitField = splitParameter(request);
+    bool recordsOwner = ownedIdTypes.contains(resultIdType(request));
+    List<String> parameters = <String>[];
+    List<String> arguments = <String>[];
+    if (request.params != null) {
+      for (TypeObjectField field in request.params.fields) {
+        parameters.add('${javaType(field.type)} ${javaName(field.name)}');
+        arguments.add(javaName(field.name));
+      }
+    }
+    String consumer = null;
+    if (request.result != null) {
+      consumer = consumerName(request);
+      parameters.add('${consumer} consumer');
+      arguments.add('consumer');
+    }
+    List<String> joinedArguments = arguments
+        .map((String argument) => argument == 'consumer'
+            ? 'ClientCallbacks.toConsumer(joined)'
+            : argument)
+        .toList();
+    publicMethod(methodName, () {
+      writeln('@Override');
+      writeln('public void ${methodName}(${parameters.join(', ')}) {');
+      indent(() {
+        if (request.longMethod == 'analysis.setAnalysisRoots') {
+          writeln('''List<List<String>> parts = assignRoots(included);
+for (int i = 0; i < shards.size(); i++) {
+  Map<String, String> shardPackageRoots = null;
+  if (packageRoots != null) {
+    shardPackageRoots = new HashMap<String, String>();
+    for (String root : parts.get(i)) {
+      if (packageRoots.containsKey(root)) {
+        shardPackageRoots.put(root, packageRoots.get(root));
+      }
+    }
+  }
+  shards.get(i).analysis_setAnalysisRoots(parts.get(i), excluded, shardPackageRoots);
+}''');
+        } else if (idField != null) {
+          String id = javaName(idField.name);
+          List<String> shardArguments = arguments
+              .map((String argument) => argument == id ? 'shardId.id' : argument)
+              .toList();
+          // Deleting the resource the id stands for makes the id unusable.
+          String lookup =
+              request.method.startsWith('delete') ? 'removeShardId' : 'getShardId';
+          writeln('ShardId shardId = ${lookup}(${id});');
+          writeln(
+              'shards.get(shardId.index).${methodName}(${shardArguments.join(', ')});');
+        } else if (fileField != null) {
+          String file = javaName(fileField.name);
+          if (recordsOwner || searchIdTypes.contains(resultIdType(request))) {
+            String callback = recordsOwner ? 'owned' : 'joined';
+            List<String> shardArguments = arguments.toList();
+            shardArguments[shardArguments.length - 1] =
+                'ClientCallbacks.toConsumer(${callback})';
+            writeln('final int index = getShardIndex(${file});');
+            if (recordsOwner) {
+              writeOwnerConsumer(request);
+            } else {
+              writeSearchConsumer(request, '1');
+            }
+            writeln(
+                'shards.get(index).${methodName}(${shardArguments.join(', ')});');
+          } else {
+            writeln('getShard(${file}).${methodName}(${arguments.join(', ')});');
+          }
+        } else if (splitField != null) {
+          String name = javaName(splitField.name);
+          List<String> shardArguments = joinedArguments
+              .map((String argument) =>
+                  argument == name ? 'parts.get(i)' : argument)
+              .toList();
+          if (splitField.optional) {
+            writeln('if (${name} == null) {');
+            indent(() {
+              if (consumer != null) {
+                writeJoinedConsumer(request, 'shards.size()');
+              }
+              writeln('for (AnalysisServer shard : shards) {');
+              writeln('  shard.${methodName}(${joinedArguments.join(', ')});');
+              writeln('}');
+              writeln('return;');
+            });
+            writeln('}');
+          }
+          writeln(
+              'List<${javaType(splitField.type)}> parts = ${splitMethod(splitField.type)}(${name});');
+          if (request.method.startsWith('set')) {
+            // Every shard needs to be told, so that it forgets the files it
+            // was previously given.
+            if (consumer != null) {
+              writeJoinedConsumer(request, 'shards.size()');
+            }
+            writeln('for (int i = 0; i < shards.size(); i++) {');
+            writeln(
+                '  shards.get(i).${methodName}(${shardArguments.join(', ')});');
+            writeln('}');
+          } else {
+            writeln('int count = countNonEmpty(parts);');
+            writeln('if (count == 0) {');
+            writeln('  shards.get(0).${methodName}(${arguments.join(', ')});');
+            writeln('  return;');
+            writeln('}');
+            if (consumer != null) {
+              writeJoinedConsumer(request, 'count');
+            }
+            writeln('for (int i = 0; i < shards.size(); i++) {');
+            writeln('  if (!isEmpty(parts.get(i))) {');
+            writeln(
+                '    shards.get(i).${methodName}(${shardArguments.join(', ')});');
+            writeln('  }');
+            writeln('}');
+          }
+        } else {
+          if (searchIdTypes.contains(resultIdType(request))) {
+            // Each shard needs its own callback, which knows the index of
+            // the shard the returned search id belongs to.
+            writeCallback(request);
+            writeln('final SearchJoin join = joinSearch(shards.size());');
+            writeln('for (int i = 0; i < shards.size(); i++) {');
+            indent(() {
+              writeln('final int index = i;');
+              writeSearchConsumer(request, null);
+              writeln('shards.get(i).${methodName}(${joinedArguments.join(', ')});');
+            });
+            writeln('}');
+          } else {
+            if (consumer != null) {
+              writeJoinedConsumer(request, 'shards.size()');
+            }
+            writeln('for (AnalysisServer shard : shards) {');
+            writeln('  shard.${methodName}(${joinedArguments.join(', ')});');
+            writeln('}');
+          }
+        }
+      });
+      writeln('}');
+    });
+  }
+
+  /**
+   * Write the declaration of the callback `callback` which passes the
+   * response to [request] to `consumer`.
+   */
+  void writeCallback(Request request) {
+    writeln(
+        'final ${callbackName(request)} callback = ClientCallbacks.toCallback(consumer);');
+  }
+
+  /**
+   * Write the declaration of the callback `joined` of the responses of
+   * [count] shards to [request], which invokes `callback` with the merged
+   * results once every shard has responded, or with the first error if a shard
+   * has failed.
+   */
+  void writeJoinedConsumer(Request request, String count) {
+    String callback = callbackName(request);
+    List<TypeObjectField> fields = request.result.fields;
+    List<String> names = <String>[];
+    List<String> results = <String>[];
+    bool unchecked = false;
+    for (int i = 0; i < fields.length; i++) {
+      String type = javaType(fields[i].type, true);
+      names.add(javaName(fields[i].name));
+      results.add('(${type}) join.response[${i}]');
+      unchecked = unchecked || type.contains('<');
+    }
+    writeCallback(request);
+    writeln('final Join join = new Join(${count});');
+    writeln('${callback} joined = new ${callback}() {');
+    indent(() {
+      writeln('@Override');
+      writeln('public void onError(RequestError requestError) {');
+      writeln('  if (join.add(null, requestError)) {');
+      writeln('    complete();');
+      writeln('  }');
+      writeln('}');
+      writeln();
+      writeln('@Override');
+      writeln('public void onResponse(${parameters(fields)}) {');
+      writeln('  if (join.add(new Object[] {${names.join(', ')}}, null)) {');
+      writeln('    complete();');
+      writeln('  }');
+      writeln('}');
+      writeln();
+      if (unchecked) {
+        writeln('@SuppressWarnings("unchecked")');
+      }
+      writeln('private void complete() {');
+      writeln('  if (join.error != null) {');
+      writeln('    callback.onError(join.error);');
+      writeln('  } else {');
+      writeln('    callback.onResponse(${results.join(', ')});');
+      writeln('  }');
+      writeln('}');
+    });
+    writeln('};');
+  }
+
+  /**
+   * Write the declaration of the callback `owned` of the response of the shard
+   * at `index` to [request], which assigns an id of the pool to the returned
+   * id before invoking `callback` with it.
+   */
+  void writeOwnerConsumer(Request request) {
+    String callback = callbackName(request);
+    List<TypeObjectField> fields = request.result.fields;
+    List<String> names = fields
+        .map((TypeObjectField field) => javaName(field.name))
+        .toList();
+    writeCallback(request);
+    writeln('${callback} owned = new ${callback}() {');
+    indent(() {
+      writeln('@Override');
+      writeln('public void onError(RequestError requestError) {');
+      writeln('  callback.onError(requestError);');
+      writeln('}');
+      writeln();
+      writeln('@Override');
+      writeln('public void onResponse(${parameters(fields)}) {');
+      writeln('  ${javaName('id')} = addOwnedId(index, ${javaName('id')});');
+      writeln('  callback.onResponse(${names.join(', ')});');
+      writeln('}');
+    });
+    writeln('};');
+  }
+
+  /**
+   * Write the declaration of the callback `joined` of the response of the
+   * shard at `index` to the search [request], which is joined by `join` with
+   * the responses of the other shards. It invokes `callback` with the id
+   * assigned by the pool once every shard has responded, or with the first
+   * error if a shard has failed. If [count] is not `null`, `callback` and
+   * `join` are declared too, for a search sent to [count] shards.
+   */
+  void writeSearchConsumer(Request request, String count) {
+    String callback = callbackName(request);
+    List<TypeObjectField> fields = request.result.fields;
+    List<TypeObjectField> others = fields
+        .where((TypeObjectField field) => field.name != 'id')
+        .toList();
+    List<String> names = others
+        .map((TypeObjectField field) => javaName(field.name))
+        .toList();
+    List<String> results = fields
+        .map((TypeObjectField field) =>
+            field.name == 'id' ? 'search.id' : javaName(field.name))
+        .toList();
+    if (count != null) {
+      writeCallback(request);
+      writeln('final SearchJoin join = joinSearch(${count});');
+    }
+    writeln('${callback} joined = new ${callback}() {');
+    indent(() {
+      writeln('@Override');
+      writeln('public void onError(RequestError requestError) {');
+      writeln('  if (join.add(index, null, requestError)) {');
+      writeln('    complete(${others.map((_) => 'null').join(', ')});');
+      writeln('  }');
+      writeln('}');
+      writeln();
+      writeln('@Override');
+      writeln('public void onResponse(${parameters(fields)}) {');
+      writeln('  if (join.add(index, ${javaName('id')}, null)) {');
+      writeln('    complete(${names.join(', ')});');
+      writeln('  }');
+      writeln('}');
+      writeln();
+      writeln('private void complete(${parameters(others)}) {');
+      writeln('''  Search search = startSearch(join);
+  try {
+    if (search.cancelled) {
+      callback.onError(join.error);
+    } else {
+      callback.onResponse(${results.join(', ')});
+    }
+  } finally {
+    announceSearch(search);
+  }
+}''');
+    });
+    writeln('};');
+  }
+
+  /**
+   * Write the handler of the notifications of each shard, which forwards them
+   * to the listeners of the pool.
+   */
+  void writeShardListener() {
+    writeln('''/**
+ * The handler of the notifications of each shard, which forwards them to the listeners of the
+ * pool.
+ */''');
+    writeln('private class ShardListener implements InvocationHandler {');
+    indent(() {
+      writeln('''/**
+ * The index of the shard.
+ */
+private final int index;
+
+ShardListener(int index) {
+  this.index = index;
+}''');
+      writeln();
+      writeln('@Override');
+      writeln(
+          'public Object invoke(Object proxy, final Method method, final Object[] arguments) {');
+      indent(() {
+        writeln('String event = ClientCallbacks.getEvent(method);');
+        String prefix = '';
+        for (Domain domain in api.domains) {
+          for (Notification notification in domain.notifications) {
+            if (notification.longEvent == 'server.connected') {
+              writeln('${prefix}if ("${notification.longEvent}".equals(event)) {');
+              writeln('  if (shardConnected(index)) {');
+              writeln('    dispatch(method, arguments);');
+              writeln('  }');
+            } else if (notification.longEvent == 'server.status') {
+              int analysis = fieldIndex(notification, 'analysis');
+              int pub = fieldIndex(notification, 'pub');
+              writeln('${prefix}if ("${notification.longEvent}".equals(event)) {');
+              writeln('  synchronized (analyzing) {');
+              writeln(
+                  '    arguments[${analysis}] = mergeAnalysisStatus(index, (AnalysisStatus) arguments[${analysis}]);');
+              writeln(
+                  '    if (arguments[${analysis}] != null || arguments[${pub}] != null) {');
+              writeln('      dispatch(method, arguments);');
+              writeln('    }');
+              writeln('  }');
+            } else if (isSearchNotification(notification)) {
+              int id = fieldIndex(notification, 'id');
+              int isLast = fieldIndex(notification, 'isLast');
+              writeln('${prefix}if ("${notification.longEvent}".equals(event)) {');
+              writeln(
+                  '  ShardId shardId = new ShardId(index, (String) arguments[${id}]);');
+              writeln(
+                  '  deliverSearchResults(new SearchDelivery(shardId, (Boolean) arguments[${isLast}]) {');
+              writeln('    @Override');
+              writeln('    void deliver(String searchId, boolean last) {');
+              writeln('      Object[] delivered = arguments.clone();');
+              writeln('      delivered[${id}] = searchId;');
+              writeln('      delivered[${isLast}] = last;');
+              writeln('      dispatch(method, delivered);');
+              writeln('    }');
+              writeln('  });');
+            } else {
+              continue;
+            }
+            prefix = '} else ';
+          }
+        }
+        writeln('} else {');
+        writeln('  dispatch(method, arguments);');
+        writeln('}');
+        writeln('return null;');
+      });
+      writeln('}');
+    });
+    writeln('}');
+  }
+}
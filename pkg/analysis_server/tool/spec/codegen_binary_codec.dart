@@ -0,0 +1,1197 @@
+// Copyright (c) 2014, the Dart project authors.  Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+/**
+ * Code generation for the files "BinaryCodec.java" and
+ * "BinaryTranscodingBridge.java".
+ */
+library java.generator.binary;
+
+import 'api.dart';
+import 'codegen_java.dart';
+import 'codegen_tools.dart';
+
+final GeneratedFile codecTarget = javaGeneratedFile(
+    'generated/java/BinaryCodec.java',
+    (Api api) => new CodegenBinaryCodec(api));
+
+final GeneratedFile bridgeTarget = javaGeneratedFile(
+    'generated/java/BinaryTranscodingBridge.java',
+    (Api api) => new CodegenBinaryTranscodingBridge(api));
+
+/**
+ * Translate spec_input.html into BinaryCodec.java and
+ * BinaryTranscodingBridge.java.
+ */
+main() {
+  codecTarget.generate();
+  bridgeTarget.generate();
+}
+
+/**
+ * Visitor that generates a binary encoding of the protocol messages, derived
+ * from the types of their parameters and results.
+ */
+class CodegenBinaryCodec extends CodegenJavaVisitor {
+  /**
+   * The number of variables declared so far in the method being generated,
+   * keyed by the base of their names.
+   */
+  final Map<String, int> variableCounts = <String, int>{};
+
+  CodegenBinaryCodec(Api api) : super(api);
+
+  /**
+   * Return `true` if the given [type] is a list of ints, encoded as a packed
+   * array.
+   */
+  bool isIntList(TypeDecl type) {
+    if (type is! TypeList) {
+      return false;
+    }
+    TypeDecl itemType =
+        resolveTypeReferenceChain((type as TypeList).itemType);
+    return itemType is TypeReference && itemType.typeName == 'int';
+  }
+
+  /**
+   * Return the name of a new variable of the method being generated.
+   */
+  String newVariable(String base) {
+    int count = variableCounts.containsKey(base) ? variableCounts[base] + 1 : 1;
+    variableCounts[base] = count;
+    return count == 1 ? base : '$base$count';
+  }
+
+  /**
+   * Return the name of the type of the parameters or result of a message,
+   * used in the names of the methods encoding and decoding them.
+   */
+  String objectName(String domainName, String name, String suffix) {
+    return camelJoin([domainName, name, suffix], doCapitalize: true);
+  }
+
+  @override
+  void visitApi() {
+    outputHeader(javaStyle: true);
+    writeln('package com.google.dart.server.generated;');
+    writeln();
+    writeln('import com.google.gson.JsonArray;');
+    writeln('import com.google.gson.JsonElement;');
+    writeln('import com.google.gson.JsonNull;');
+    writeln('import com.google.gson.JsonObject;');
+    writeln('import com.google.gson.JsonPrimitive;');
+    writeln();
+    writeln('import java.io.EOFException;');
+    writeln('import java.io.IOException;');
+    writeln('import java.io.InputStream;');
+    writeln('import java.io.OutputStream;');
+    writeln('import java.nio.charset.Charset;');
+    writeln('import java.util.ArrayList;');
+    writeln('import java.util.Arrays;');
+    writeln('import java.util.HashMap;');
+    writeln('import java.util.List;');
+    writeln('import java.util.Map;');
+    writeln();
+    writeln('''/**
+ * The class {@code BinaryCodec} encodes the JSON messages of the analysis server protocol in a
+ * compact binary form, as an optional transport for large workspaces, and decodes them back.
+ * <p>
+ * The encoding of each request, response and notification is derived from the types of its
+ * parameters and result, so that field names are never encoded. Ints are encoded as zig-zag
+ * varints, lists of ints as the varint differences between consecutive elements, and strings, such
+ * as paths and kinds, are encoded once per message and then referred to by their index in a string
+ * table. The optional fields of an object are listed in a varint mask preceding its fields. Objects
+ * whose types have no fields in the specification, such as refactoring feedback and options, are
+ * encoded as generic JSON. A message which does not conform to the specification, such as one with
+ * members or a method unknown to it, is encoded as generic JSON as a whole, so that no information
+ * is lost.
+ * <p>
+ * A response does not include its method, so it is encoded given the method of the request it
+ * answers.
+ *
+ * @coverage dart.server
+ */''');
+    makeClass('public class BinaryCodec', () {
+      publicField('FORMAT_VERSION', () {
+        writeln('''/**
+ * The version of the encoding, which is to be incremented whenever the encoding of a message of a
+ * given version of the protocol changes, so that the bytes persisted with another encoding are not
+ * decoded.
+ */
+public static final int FORMAT_VERSION = 1;''');
+      });
+      privateField('REQUEST', () {
+        writeln('''/**
+ * The kinds of messages.
+ */
+private static final int REQUEST = 0;''');
+      });
+      privateField('RESPONSE', () {
+        writeln('private static final int RESPONSE = 1;');
+      });
+      privateField('NOTIFICATION', () {
+        writeln('private static final int NOTIFICATION = 2;');
+      });
+      privateField('JSON', () {
+        writeln('private static final int JSON = 3;');
+      });
+      privateField('TAG_NULL', () {
+        writeln('''/**
+ * The tags of generic JSON values.
+ */
+private static final int TAG_NULL = 0;''');
+      });
+      privateField('TAG_FALSE', () {
+        writeln('private static final int TAG_FALSE = 1;');
+      });
+      privateField('TAG_TRUE', () {
+        writeln('private static final int TAG_TRUE = 2;');
+      });
+      privateField('TAG_INTEGER', () {
+        writeln('private static final int TAG_INTEGER = 3;');
+      });
+      privateField('TAG_DOUBLE', () {
+        writeln('private static final int TAG_DOUBLE = 4;');
+      });
+      privateField('TAG_STRING', () {
+        writeln('private static final int TAG_STRING = 5;');
+      });
+      privateField('TAG_ARRAY', () {
+        writeln('private static final int TAG_ARRAY = 6;');
+      });
+      privateField('TAG_OBJECT', () {
+        writeln('private static final int TAG_OBJECT = 7;');
+      });
+      privateField('UTF8', () {
+        writeln(
+            'private static final Charset UTF8 = Charset.forName("UTF-8");');
+      });
+      privateField('REQUESTS', () {
+        writeln('''/**
+ * The methods of the requests, encoded as their indices.
+ */''');
+        writeln('private static final String[] REQUESTS = {');
+        indentBy('    ', () {
+          for (Domain domain in api.domains) {
+            for (Request request in domain.requests) {
+              writeln('"${domain.name}.${request.method}",');
+            }
+          }
+        });
+        writeln('};');
+      });
+      privateField('NOTIFICATIONS', () {
+        writeln('''/**
+ * The events of the notifications, encoded as their indices.
+ */''');
+        writeln('private static final String[] NOTIFICATIONS = {');
+        indentBy('    ', () {
+          for (Domain domain in api.domains) {
+            for (Notification notification in domain.notifications) {
+              writeln('"${domain.name}.${notification.event}",');
+            }
+          }
+        });
+        writeln('};');
+      });
+      privateField('REQUEST_INDICES', () {
+        writeln(
+            'private static final Map<String, Integer> REQUEST_INDICES = createIndices(REQUESTS);');
+      });
+      privateField('NOTIFICATION_INDICES', () {
+        writeln(
+            'private static final Map<String, Integer> NOTIFICATION_INDICES = createIndices(NOTIFICATIONS);');
+      });
+      privateField('bytes', () {
+        writeln('''/**
+ * The bytes being encoded or decoded.
+ */
+private byte[] bytes;''');
+      });
+      privateField('position', () {
+        writeln('''/**
+ * The position of the next byte to encode or decode.
+ */
+private int position;''');
+      });
+      privateField('stringIndices', () {
+        writeln('''/**
+ * The indices in the string table of the strings encoded so far.
+ */
+private final Map<String, Integer> stringIndices = new HashMap<String, Integer>();''');
+      });
+      privateField('strings', () {
+        writeln('''/**
+ * The string table of the strings decoded so far.
+ */
+private final List<String> strings = new ArrayList<String>();''');
+      });
+      constructor('BinaryCodec', () {
+        writeln('''/**
+ * Initialize a newly created codec to decode the given bytes, or to encode if they are
+ * {@code null}.
+ */
+private BinaryCodec(byte[] bytes) {
+  this.bytes = bytes != null ? bytes : new byte[256];
+}''');
+      });
+      publicMethod('decode', () {
+        writeln('''/**
+ * Return the JSON message encoded in the given bytes.
+ *
+ * @throws IllegalArgumentException if the bytes are not a valid encoding
+ */
+public static JsonObject decode(byte[] bytes) {
+  BinaryCodec codec = new BinaryCodec(bytes);
+  try {
+    int kind = codec.readByte();
+    if (kind == REQUEST) {
+      JsonObject request = new JsonObject();
+      request.addProperty("id", codec.readString());
+      String method = REQUESTS[codec.readVarint()];
+      request.addProperty("method", method);
+      JsonObject params = codec.readParams(method);
+      if (params != null) {
+        request.add("params", params);
+      }
+      return request;
+    } else if (kind == RESPONSE) {
+      JsonObject response = new JsonObject();
+      response.addProperty("id", codec.readString());
+      String method = REQUESTS[codec.readVarint()];
+      int flags = codec.readByte();
+      if ((flags & 1) != 0) {
+        response.add("result", codec.readResult(method));
+      }
+      if ((flags & 2) != 0) {
+        response.add("error", codec.readRequestError());
+      }
+      return response;
+    } else if (kind == NOTIFICATION) {
+      JsonObject notification = new JsonObject();
+      String event = NOTIFICATIONS[codec.readVarint()];
+      notification.addProperty("event", event);
+      JsonObject params = codec.readNotificationParams(event);
+      if (params != null) {
+        notification.add("params", params);
+      }
+      return notification;
+    } else if (kind == JSON) {
+      return codec.readJson().getAsJsonObject();
+    }
+    throw new IllegalArgumentException("Unknown kind of message: " + kind);
+  } catch (IndexOutOfBoundsException exception) {
+    throw new IllegalArgumentException("Invalid message", exception);
+  }
+}''');
+      });
+      publicMethod('encodeJson', () {
+        writeln('''/**
+ * Return the encoding of the given message as generic JSON, which does not depend on the
+ * specification.
+ */
+public static byte[] encodeJson(JsonObject message) {
+  BinaryCodec codec = new BinaryCodec(null);
+  codec.writeByte(JSON);
+  codec.writeJson(message);
+  return codec.toByteArray();
+}''');
+      });
+      publicMethod('encodeNotification', () {
+        writeln('''/**
+ * Return the encoding of the given notification.
+ */
+public static byte[] encodeNotification(JsonObject notification) {
+  Integer index = NOTIFICATION_INDICES.get(getString(notification, "event"));
+  if (index != null && hasOnly(notification, "event", "params")) {
+    try {
+      BinaryCodec codec = new BinaryCodec(null);
+      codec.writeByte(NOTIFICATION);
+      codec.writeVarint(index);
+      codec.writeNotificationParams(NOTIFICATIONS[index], getObject(notification, "params"));
+      return codec.toByteArray();
+    } catch (RuntimeException exception) {
+      // the notification does not conform to the specification
+    }
+  }
+  return encodeJson(notification);
+}''');
+      });
+      publicMethod('encodeRequest', () {
+        writeln('''/**
+ * Return the encoding of the given request.
+ */
+public static byte[] encodeRequest(JsonObject request) {
+  Integer index = REQUEST_INDICES.get(getString(request, "method"));
+  if (index != null && hasOnly(request, "id", "method", "params")) {
+    try {
+      BinaryCodec codec = new BinaryCodec(null);
+      codec.writeByte(REQUEST);
+      codec.writeString(request.get("id").getAsString());
+      codec.writeVarint(index);
+      codec.writeParams(REQUESTS[index], getObject(request, "params"));
+      return codec.toByteArray();
+    } catch (RuntimeException exception) {
+      // the request does not conform to the specification
+    }
+  }
+  return encodeJson(request);
+}''');
+      });
+      publicMethod('encodeResponse', () {
+        writeln('''/**
+ * Return the encoding of the given response to a request with the given method, which may be
+ * {@code null} if it is not known.
+ */
+public static byte[] encodeResponse(JsonObject response, String method) {
+  Integer index = method != null ? REQUEST_INDICES.get(method) : null;
+  if (index != null && hasOnly(response, "id", "result", "error")) {
+    try {
+      BinaryCodec codec = new BinaryCodec(null);
+      codec.writeByte(RESPONSE);
+      codec.writeString(response.get("id").getAsString());
+      codec.writeVarint(index);
+      JsonObject result = getObject(response, "result");
+      JsonObject error = getObject(response, "error");
+      codec.writeByte((result != null ? 1 : 0) | (error != null ? 2 : 0));
+      if (result != null) {
+        codec.writeResult(method, result);
+      }
+      if (error != null) {
+        codec.writeRequestError(error);
+      }
+      return codec.toByteArray();
+    } catch (RuntimeException exception) {
+      // the response does not conform to the specification
+    }
+  }
+  return encodeJson(response);
+}''');
+      });
+      publicMethod('readFrame', () {
+        writeln('''/**
+ * Read from the given stream a message preceded by its length, as written by
+ * {@link #writeFrame(OutputStream, byte[])}. Return {@code null} if the end of the stream has been
+ * reached.
+ *
+ * @throws EOFException if the end of the stream is reached within the message
+ */
+public static byte[] readFrame(InputStream input) throws IOException {
+  int length = 0;
+  for (int shift = 0;; shift += 7) {
+    int b = input.read();
+    if (b == -1) {
+      if (shift == 0) {
+        return null;
+      }
+      throw new EOFException();
+    }
+    length |= (b & 0x7F) << shift;
+    if ((b & 0x80) == 0) {
+      break;
+    }
+  }
+  byte[] frame = new byte[length];
+  int count = 0;
+  while (count < length) {
+    int read = input.read(frame, count, length - count);
+    if (read == -1) {
+      throw new EOFException();
+    }
+    count += read;
+  }
+  return frame;
+}''');
+      });
+      publicMethod('writeFrame', () {
+        writeln('''/**
+ * Write to the given stream the given message preceded by its length as a varint.
+ */
+public static void writeFrame(OutputStream output, byte[] frame) throws IOException {
+  int length = frame.length;
+  while ((length & ~0x7F) != 0) {
+    output.write(length & 0x7F | 0x80);
+    length >>>= 7;
+  }
+  output.write(length);
+  output.write(frame);
+}''');
+      });
+      privateMethod('checkMemberCount', () {
+        writeln('''/**
+ * Check that the given object has the given number of members, so that it has no member unknown to
+ * the specification, which would be lost.
+ */
+private static void checkMemberCount(JsonObject object, int count) {
+  if (object.entrySet().size() != count) {
+    throw new IllegalArgumentException("Unexpected members");
+  }
+}''');
+      });
+      privateMethod('createIndices', () {
+        writeln('''private static Map<String, Integer> createIndices(String[] names) {
+  Map<String, Integer> indices = new HashMap<String, Integer>();
+  for (int i = 0; i < names.length; i++) {
+    indices.put(names[i], i);
+  }
+  return indices;
+}''');
+      });
+      privateMethod('ensureCapacity', () {
+        writeln('''private void ensureCapacity(int count) {
+  if (position + count > bytes.length) {
+    bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, position + count));
+  }
+}''');
+      });
+      privateMethod('getObject', () {
+        writeln('''private static JsonObject getObject(JsonObject object, String name) {
+  return isPresent(object, name) ? object.get(name).getAsJsonObject() : null;
+}''');
+      });
+      privateMethod('getString', () {
+        writeln('''private static String getString(JsonObject object, String name) {
+  JsonElement element = object.get(name);
+  return element instanceof JsonPrimitive ? element.getAsString() : null;
+}''');
+      });
+      privateMethod('hasOnly', () {
+        writeln('''/**
+ * Return {@code true} if the given object has no member other than the given ones.
+ */
+private static boolean hasOnly(JsonObject object, String... names) {
+  for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+    if (!Arrays.asList(names).contains(entry.getKey())) {
+      return false;
+    }
+  }
+  return true;
+}''');
+      });
+      privateMethod('isPresent', () {
+        writeln('''private static boolean isPresent(JsonObject object, String name) {
+  JsonElement element = object.get(name);
+  return element != null && !element.isJsonNull();
+}''');
+      });
+      privateMethod('readBoolean', () {
+        writeln('''private boolean readBoolean() {
+  return readByte() != 0;
+}''');
+      });
+      privateMethod('readByte', () {
+        writeln('''private int readByte() {
+  return bytes[position++] & 0xFF;
+}''');
+      });
+      privateMethod('readInt', () {
+        writeln('''private int readInt() {
+  int value = readVarint();
+  return value >>> 1 ^ -(value & 1);
+}''');
+      });
+      privateMethod('readIntArray', () {
+        writeln('''private JsonArray readIntArray() {
+  JsonArray array = new JsonArray();
+  int value = 0;
+  for (int count = readVarint(); count > 0; count--) {
+    value += readInt();
+    array.add(new JsonPrimitive(value));
+  }
+  return array;
+}''');
+      });
+      privateMethod('readJson', () {
+        writeln('''private JsonElement readJson() {
+  int tag = readByte();
+  switch (tag) {
+    case TAG_NULL:
+      return JsonNull.INSTANCE;
+    case TAG_FALSE:
+      return new JsonPrimitive(false);
+    case TAG_TRUE:
+      return new JsonPrimitive(true);
+    case TAG_INTEGER:
+      return new JsonPrimitive(readLong());
+    case TAG_DOUBLE:
+      return new JsonPrimitive(Double.longBitsToDouble(readLong()));
+    case TAG_STRING:
+      return new JsonPrimitive(readString());
+    case TAG_ARRAY: {
+      JsonArray array = new JsonArray();
+      for (int count = readVarint(); count > 0; count--) {
+        array.add(readJson());
+      }
+      return array;
+    }
+    case TAG_OBJECT: {
+      JsonObject object = new JsonObject();
+      for (int count = readVarint(); count > 0; count--) {
+        String name = readString();
+        object.add(name, readJson());
+      }
+      return object;
+    }
+  }
+  throw new IllegalArgumentException("Unknown tag: " + tag);
+}''');
+      });
+      privateMethod('readLong', () {
+        writeln('''private long readLong() {
+  long value = 0;
+  for (int shift = 0;; shift += 7) {
+    int b = readByte();
+    value |= (long) (b & 0x7F) << shift;
+    if ((b & 0x80) == 0) {
+      return value >>> 1 ^ -(value & 1);
+    }
+  }
+}''');
+      });
+      privateMethod('readString', () {
+        writeln('''private String readString() {
+  int index = readVarint();
+  if (index != 0) {
+    return strings.get(index - 1);
+  }
+  int length = readVarint();
+  String value = new String(bytes, position, length, UTF8);
+  position += length;
+  strings.add(value);
+  return value;
+}''');
+      });
+      privateMethod('readVarint', () {
+        writeln('''private int readVarint() {
+  int value = 0;
+  for (int shift = 0;; shift += 7) {
+    int b = readByte();
+    value |= (b & 0x7F) << shift;
+    if ((b & 0x80) == 0) {
+      return value;
+    }
+  }
+}''');
+      });
+      privateMethod('toByteArray', () {
+        writeln('''private byte[] toByteArray() {
+  return Arrays.copyOf(bytes, position);
+}''');
+      });
+      privateMethod('writeBoolean', () {
+        writeln('''private void writeBoolean(boolean value) {
+  writeByte(value ? 1 : 0);
+}''');
+      });
+      privateMethod('writeByte', () {
+        writeln('''private void writeByte(int value) {
+  ensureCapacity(1);
+  bytes[position++] = (byte) value;
+}''');
+      });
+      privateMethod('writeInt', () {
+        writeln('''private void writeInt(int value) {
+  writeVarint(value << 1 ^ value >> 31);
+}''');
+      });
+      privateMethod('writeIntArray', () {
+        writeln('''private void writeIntArray(JsonArray array) {
+  writeVarint(array.size());
+  int previous = 0;
+  for (JsonElement element : array) {
+    int value = element.getAsInt();
+    writeInt(value - previous);
+    previous = value;
+  }
+}''');
+      });
+      privateMethod('writeJson', () {
+        writeln('''private void writeJson(JsonElement element) {
+  if (element == null || element.isJsonNull()) {
+    writeByte(TAG_NULL);
+  } else if (element.isJsonArray()) {
+    JsonArray array = element.getAsJsonArray();
+    writeByte(TAG_ARRAY);
+    writeVarint(array.size());
+    for (JsonElement child : array) {
+      writeJson(child);
+    }
+  } else if (element.isJsonObject()) {
+    JsonObject object = element.getAsJsonObject();
+    writeByte(TAG_OBJECT);
+    writeVarint(object.entrySet().size());
+    for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+      writeString(entry.getKey());
+      writeJson(entry.getValue());
+    }
+  } else {
+    JsonPrimitive primitive = element.getAsJsonPrimitive();
+    if (primitive.isBoolean()) {
+      writeByte(primitive.getAsBoolean() ? TAG_TRUE : TAG_FALSE);
+    } else if (primitive.isNumber()) {
+      long value;
+      try {
+        value = Long.parseLong(primitive.getAsString());
+      } catch (NumberFormatException exception) {
+        writeByte(TAG_DOUBLE);
+        writeLong(Double.doubleToLongBits(primitive.getAsDouble()));
+        return;
+      }
+      writeByte(TAG_INTEGER);
+      writeLong(value);
+    } else {
+      writeByte(TAG_STRING);
+      writeString(primitive.getAsString());
+    }
+  }
+}''');
+      });
+      privateMethod('writeLong', () {
+        writeln('''private void writeLong(long value) {
+  value = value << 1 ^ value >> 63;
+  ensureCapacity(10);
+  while ((value & ~0x7FL) != 0) {
+    bytes[position++] = (byte) (value & 0x7F | 0x80);
+    value >>>= 7;
+  }
+  bytes[position++] = (byte) value;
+}''');
+      });
+      privateMethod('writeString', () {
+        writeln('''private void writeString(String value) {
+  Integer index = stringIndices.get(value);
+  if (index != null) {
+    writeVarint(index + 1);
+    return;
+  }
+  stringIndices.put(value, stringIndices.size());
+  byte[] utf8 = value.getBytes(UTF8);
+  writeVarint(0);
+  writeVarint(utf8.length);
+  ensureCapacity(utf8.length);
+  System.arraycopy(utf8, 0, bytes, position, utf8.length);
+  position += utf8.length;
+}''');
+      });
+      privateMethod('writeVarint', () {
+        writeln('''private void writeVarint(int value) {
+  ensureCapacity(5);
+  while ((value & ~0x7F) != 0) {
+    bytes[position++] = (byte) (value & 0x7F | 0x80);
+    value >>>= 7;
+  }
+  bytes[position++] = (byte) value;
+}''');
+      });
+      emitDispatch('Params', 'method', 'params', (Domain domain) {
+        Map<String, TypeObject> objects = <String, TypeObject>{};
+        for (Request request in domain.requests) {
+          objects['${domain.name}.${request.method}'] = request.params;
+        }
+        return objects;
+      });
+      emitDispatch('Result', 'method', 'result', (Domain domain) {
+        Map<String, TypeObject> objects = <String, TypeObject>{};
+        for (Request request in domain.requests) {
+          objects['${domain.name}.${request.method}'] = request.result;
+        }
+        return objects;
+      });
+      emitDispatch('NotificationParams', 'event', 'params', (Domain domain) {
+        Map<String, TypeObject> objects = <String, TypeObject>{};
+        for (Notification notification in domain.notifications) {
+          objects['${domain.name}.${notification.event}'] =
+              notification.params;
+        }
+        return objects;
+      });
+      for (Domain domain in api.domains) {
+        for (Request request in domain.requests) {
+          if (request.params != null) {
+            emitObjectMethods(
+                objectName(domain.name, request.method, 'params'),
+                request.params);
+          }
+          if (request.result != null) {
+            emitObjectMethods(
+                objectName(domain.name, request.method, 'result'),
+                request.result);
+          }
+        }
+        for (Notification notification in domain.notifications) {
+          if (notification.params != null) {
+            emitObjectMethods(
+                objectName(domain.name, notification.event, 'params'),
+                notification.params);
+          }
+        }
+      }
+      for (TypeDefinition typeDefinition in api.types) {
+        TypeDecl type = typeDefinition.type;
+        if (type is TypeObject && type.fields.isNotEmpty) {
+          emitObjectMethods(typeDefinition.name, type);
+        }
+      }
+    });
+  }
+
+  /**
+   * Emit the methods decoding and encoding the objects, such as parameters or
+   * results, which are associated with the methods or events of messages. The
+   * objects of the messages of a domain are returned by [getObjects], keyed by
+   * method or event, a `null` object meaning that the message has none.
+   */
+  void emitDispatch(String name, String key, String object,
+      Map<String, TypeObject> getObjects(Domain domain)) {
+    String suffix = name == 'Result' ? 'result' : 'params';
+    privateMethod('read$name', () {
+      writeln('private JsonObject read$name(String $key) {');
+      indent(() {
+        writeln('switch ($key) {');
+        indent(() {
+          for (Domain domain in api.domains) {
+            Map<String, TypeObject> objects = getObjects(domain);
+            for (String message in objects.keys) {
+              if (objects[message] != null) {
+                String messageName = message.substring(domain.name.length + 1);
+                writeln('case "$message":');
+                writeln(
+                    '  return read${objectName(domain.name, messageName, suffix)}();');
+              }
+            }
+          }
+          writeln('default:');
+          writeln('  return null;');
+        });
+        writeln('}');
+      });
+      writeln('}');
+    });
+    privateMethod('write$name', () {
+      writeln('private void write$name(String $key, JsonObject $object) {');
+      indent(() {
+        writeln('switch ($key) {');
+        indent(() {
+          for (Domain domain in api.domains) {
+            Map<String, TypeObject> objects = getObjects(domain);
+            for (String message in objects.keys) {
+              if (objects[message] != null) {
+                String messageName = message.substring(domain.name.length + 1);
+                writeln('case "$message":');
+                writeln(
+                    '  write${objectName(domain.name, messageName, suffix)}($object);');
+                writeln('  break;');
+              }
+            }
+          }
+          writeln('default:');
+          writeln('  if ($object != null) {');
+          writeln(
+              '    throw new IllegalArgumentException("Unexpected $object: " + $key);');
+          writeln('  }');
+        });
+        writeln('}');
+      });
+      writeln('}');
+    });
+  }
+
+  /**
+   * Emit the methods decoding and encoding the objects of the given [type],
+   * named after [name].
+   */
+  void emitObjectMethods(String name, TypeObject type) {
+    List<TypeObjectField> optionalFields = <TypeObjectField>[];
+    for (TypeObjectField field in type.fields) {
+      if (field.optional && field.value == null) {
+        optionalFields.add(field);
+      }
+    }
+    privateMethod('read$name', () {
+      variableCounts.clear();
+      writeln('private JsonObject read$name() {');
+      indent(() {
+        writeln('JsonObject object = new JsonObject();');
+        if (optionalFields.isNotEmpty) {
+          writeln('int mask = readVarint();');
+        }
+        for (TypeObjectField field in type.fields) {
+          if (field.value != null) {
+            writeln('object.addProperty("${field.name}", "${field.value}");');
+          } else if (field.optional) {
+            int bit = 1 << optionalFields.indexOf(field);
+            writeln('if ((mask & $bit) != 0) {');
+            indent(() {
+              String value = emitDecoding(field.type);
+              writeln('object.add("${field.name}", $value);');
+            });
+            writeln('}');
+          } else {
+            String value = emitDecoding(field.type);
+            writeln('object.add("${field.name}", $value);');
+          }
+        }
+        writeln('return object;');
+      });
+      writeln('}');
+    });
+    int requiredCount = type.fields.length - optionalFields.length;
+    privateMethod('write$name', () {
+      variableCounts.clear();
+      writeln('private void write$name(JsonObject object) {');
+      indent(() {
+        if (optionalFields.isNotEmpty) {
+          writeln('int mask = 0;');
+          for (int i = 0; i < optionalFields.length; i++) {
+            writeln('if (isPresent(object, "${optionalFields[i].name}")) {');
+            writeln('  mask |= ${1 << i};');
+            writeln('}');
+          }
+          writeln('writeVarint(mask);');
+          writeln(
+              'checkMemberCount(object, $requiredCount + Integer.bitCount(mask));');
+        } else {
+          writeln('checkMemberCount(object, $requiredCount);');
+        }
+        for (TypeObjectField field in type.fields) {
+          String value = 'object.get("${field.name}")';
+          if (field.value != null) {
+            continue;
+          } else if (field.optional) {
+            int bit = 1 << optionalFields.indexOf(field);
+            writeln('if ((mask & $bit) != 0) {');
+            indent(() {
+              emitEncoding(field.type, value);
+            });
+            writeln('}');
+          } else {
+            emitEncoding(field.type, value);
+          }
+        }
+      });
+      writeln('}');
+    });
+  }
+
+  /**
+   * Emit the statements decoding a value of the given [type], and return the
+   * expression of the decoded [JsonElement].
+   */
+  String emitDecoding(TypeDecl type) {
+    TypeDecl resolvedType = resolveTypeReferenceChain(type);
+    if (resolvedType is TypeReference) {
+      String typeName = resolvedType.typeName;
+      if (typeName == 'int') {
+        return 'new JsonPrimitive(readInt())';
+      } else if (typeName == 'long') {
+        return 'new JsonPrimitive(readLong())';
+      } else if (typeName == 'bool') {
+        return 'new JsonPrimitive(readBoolean())';
+      }
+      return 'new JsonPrimitive(readString())';
+    } else if (resolvedType is TypeEnum) {
+      return 'new JsonPrimitive(readString())';
+    } else if (resolvedType is TypeObject) {
+      if (resolvedType.fields.isEmpty) {
+        return 'readJson()';
+      }
+      return 'read${(type as TypeReference).typeName}()';
+    } else if (isIntList(resolvedType)) {
+      return 'readIntArray()';
+    } else if (resolvedType is TypeList) {
+      String array = newVariable('array');
+      String count = newVariable('count');
+      writeln('JsonArray $array = new JsonArray();');
+      writeln('for (int $count = readVarint(); $count > 0; $count--) {');
+      indent(() {
+        String value = emitDecoding(resolvedType.itemType);
+        writeln('$array.add($value);');
+      });
+      writeln('}');
+      return array;
+    } else if (resolvedType is TypeMap) {
+      String map = newVariable('map');
+      String count = newVariable('count');
+      String key = newVariable('key');
+      writeln('JsonObject $map = new JsonObject();');
+      writeln('for (int $count = readVarint(); $count > 0; $count--) {');
+      indent(() {
+        writeln('String $key = readString();');
+        String value = emitDecoding(resolvedType.valueType);
+        writeln('$map.add($key, $value);');
+      });
+      writeln('}');
+      return map;
+    } else if (resolvedType is TypeUnion) {
+      String union = newVariable('union');
+      String choice = newVariable('choice');
+      writeln('JsonElement $union;');
+      writeln('int $choice = readVarint();');
+      for (int i = 0; i < resolvedType.choices.length; i++) {
+        writeln('${i == 0 ? '' : '} else '}if ($choice == $i) {');
+        indent(() {
+          String value = emitDecoding(resolvedType.choices[i]);
+          writeln('$union = $value;');
+        });
+      }
+      writeln('} else {');
+      writeln(
+          '  throw new IllegalArgumentException("Unknown choice: " + $choice);');
+      writeln('}');
+      return union;
+    }
+    throw new Exception("Can't decode $type");
+  }
+
+  /**
+   * Emit the statements encoding the [JsonElement] expression [value] of the
+   * given [type].
+   */
+  void emitEncoding(TypeDecl type, String value) {
+    TypeDecl resolvedType = resolveTypeReferenceChain(type);
+    if (resolvedType is TypeReference) {
+      String typeName = resolvedType.typeName;
+      if (typeName == 'int') {
+        writeln('writeInt($value.getAsInt());');
+      } else if (typeName == 'long') {
+        writeln('writeLong($value.getAsLong());');
+      } else if (typeName == 'bool') {
+        writeln('writeBoolean($value.getAsBoolean());');
+      } else {
+        writeln('writeString($value.getAsString());');
+      }
+    } else if (resolvedType is TypeEnum) {
+      writeln('writeString($value.getAsString());');
+    } else if (resolvedType is TypeObject) {
+      if (resolvedType.fields.isEmpty) {
+        writeln('writeJson($value);');
+      } else {
+        String typeName = (type as TypeReference).typeName;
+        writeln('write$typeName($value.getAsJsonObject());');
+      }
+    } else if (isIntList(resolvedType)) {
+      writeln('writeIntArray($value.getAsJsonArray());');
+    } else if (resolvedType is TypeList) {
+      String array = newVariable('array');
+      String element = newVariable('element');
+      writeln('JsonArray $array = $value.getAsJsonArray();');
+      writeln('writeVarint($array.size());');
+      writeln('for (JsonElement $element : $array) {');
+      indent(() {
+        emitEncoding(resolvedType.itemType, element);
+      });
+      writeln('}');
+    } else if (resolvedType is TypeMap) {
+      String map = newVariable('map');
+      String entry = newVariable('entry');
+      writeln('JsonObject $map = $value.getAsJsonObject();');
+      writeln('writeVarint($map.entrySet().size());');
+      writeln(
+          'for (Map.Entry<String, JsonElement> $entry : $map.entrySet()) {');
+      indent(() {
+        writeln('writeString($entry.getKey());');
+        emitEncoding(resolvedType.valueType, '$entry.getValue()');
+      });
+      writeln('}');
+    } else if (resolvedType is TypeUnion) {
+      String union = newVariable('union');
+      String kind = newVariable('kind');
+      writeln('JsonObject $union = $value.getAsJsonObject();');
+      writeln(
+          'String $kind = $union.get("${resolvedType.field}").getAsString();');
+      for (int i = 0; i < resolvedType.choices.length; i++) {
+        TypeDecl choice = resolvedType.choices[i];
+        TypeObject choiceType = resolveTypeReferenceChain(choice);
+        Object choiceValue = choiceType.getField(resolvedType.field).value;
+        writeln('${i == 0 ? '' : '} else '}if ("$choiceValue".equals($kind)) {');
+        indent(() {
+          writeln('writeVarint($i);');
+          emitEncoding(choice, union);
+        });
+      }
+      writeln('} else {');
+      writeln(
+          '  throw new IllegalArgumentException("Unknown ${resolvedType.field}: " + $kind);');
+      writeln('}');
+    } else {
+      throw new Exception("Can't encode $type");
+    }
+  }
+}
+
+/**
+ * Visitor that generates a bridge between a client using the binary encoding
+ * and a server using JSON.
+ */
+class CodegenBinaryTranscodingBridge extends CodegenJavaVisitor {
+  CodegenBinaryTranscodingBridge(Api api) : super(api);
+
+  @override
+  void visitApi() {
+    outputHeader(javaStyle: true);
+    writeln('package com.google.dart.server.generated;');
+    writeln();
+    writeln('import com.google.gson.JsonElement;');
+    writeln('import com.google.gson.JsonObject;');
+    writeln('import com.google.gson.JsonParser;');
+    writeln();
+    writeln('import java.io.BufferedReader;');
+    writeln('import java.io.IOException;');
+    writeln('import java.io.InputStream;');
+    writeln('import java.io.InputStreamReader;');
+    writeln('import java.io.OutputStream;');
+    writeln('import java.io.OutputStreamWriter;');
+    writeln('import java.io.Writer;');
+    writeln('import java.nio.charset.Charset;');
+    writeln('import java.util.Map;');
+    writeln('import java.util.concurrent.ConcurrentHashMap;');
+    writeln();
+    writeln('''/**
+ * The class {@code BinaryTranscodingBridge} stands between a client using the {@link BinaryCodec}
+ * encoding and an analysis server using JSON, so that the binary encoding can be used end to end
+ * with an unmodified server. Requests read from the client as frames are written to the server as
+ * JSON lines, and the responses and notifications read from the server are written to the client as
+ * frames, each response being encoded given the method of the request it answers.
+ * <p>
+ * Run as a program, the bridge starts the server command given as arguments and bridges its
+ * standard input and output with its own, which is then the binary mode of the server.
+ *
+ * @coverage dart.server
+ */''');
+    makeClass('public class BinaryTranscodingBridge', () {
+      privateField('UTF8', () {
+        writeln(
+            'private static final Charset UTF8 = Charset.forName("UTF-8");');
+      });
+      privateField('clientInput', () {
+        writeln('''/**
+ * The stream from which the frames of the client are read.
+ */
+private final InputStream clientInput;''');
+      });
+      privateField('clientOutput', () {
+        writeln('''/**
+ * The stream to which the frames for the client are written.
+ */
+private final OutputStream clientOutput;''');
+      });
+      privateField('serverOutput', () {
+        writeln('''/**
+ * The reader from which the JSON lines of the server are read.
+ */
+private final BufferedReader serverOutput;''');
+      });
+      privateField('serverInput', () {
+        writeln('''/**
+ * The writer to which the JSON lines for the server are written.
+ */
+private final Writer serverInput;''');
+      });
+      privateField('pendingMethods', () {
+        writeln('''/**
+ * The methods of the requests which have not been answered yet, keyed by their ids.
+ */
+private final Map<String, String> pendingMethods = new ConcurrentHashMap<String, String>();''');
+      });
+      constructor('BinaryTranscodingBridge', () {
+        writeln('''/**
+ * Initialize a newly created bridge between a client using the given streams and a server using the
+ * given streams.
+ */
+public BinaryTranscodingBridge(InputStream clientInput, OutputStream clientOutput,
+    InputStream serverOutput, OutputStream serverInput) {
+  this.clientInput = clientInput;
+  this.clientOutput = clientOutput;
+  this.serverOutput = new BufferedReader(new InputStreamReader(serverOutput, UTF8));
+  this.serverInput = new OutputStreamWriter(serverInput, UTF8);
+}''');
+      });
+      publicMethod('main', () {
+        writeln('''/**
+ * Start the server command given as arguments and bridge it with the standard input and output.
+ */
+public static void main(String[] args) throws Exception {
+  if (args.length == 0) {
+    System.err.println("Usage: BinaryTranscodingBridge <server command>");
+    System.exit(1);
+  }
+  ProcessBuilder builder = new ProcessBuilder(args);
+  builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+  Process process = builder.start();
+  new BinaryTranscodingBridge(
+      System.in,
+      System.out,
+      process.getInputStream(),
+      process.getOutputStream()).run();
+  System.exit(process.waitFor());
+}''');
+      });
+      publicMethod('run', () {
+        writeln('''/**
+ * Forward the messages in both directions until the server closes its output. The requests are
+ * forwarded on a daemon thread, which closes the input of the server once the client has closed its
+ * output.
+ */
+public void run() throws IOException {
+  Thread thread = new Thread("BinaryTranscodingBridge") {
+    @Override
+    public void run() {
+      try {
+        forwardRequests();
+      } catch (IOException exception) {
+        // the client or the server has gone
+      }
+    }
+  };
+  thread.setDaemon(true);
+  thread.start();
+  forwardResponses();
+}''');
+      });
+      privateMethod('forwardRequests', () {
+        writeln('''private void forwardRequests() throws IOException {
+  while (true) {
+    byte[] frame = BinaryCodec.readFrame(clientInput);
+    if (frame == null) {
+      serverInput.close();
+      return;
+    }
+    JsonObject request = BinaryCodec.decode(frame);
+    JsonElement id = request.get("id");
+    JsonElement method = request.get("method");
+    if (id != null && method != null) {
+      pendingMethods.put(id.getAsString(), method.getAsString());
+    }
+    serverInput.write(request.toString());
+    serverInput.write('\\n');
+    serverInput.flush();
+  }
+}''');
+      });
+      privateMethod('forwardResponses', () {
+        writeln('''private void forwardResponses() throws IOException {
+  JsonParser parser = new JsonParser();
+  String line;
+  while ((line = serverOutput.readLine()) != null) {
+    if (line.trim().length() == 0) {
+      continue;
+    }
+    JsonObject message = parser.parse(line).getAsJsonObject();
+    byte[] frame;
+    if (message.has("event")) {
+      frame = BinaryCodec.encodeNotification(message);
+    } else {
+      JsonElement id = message.get("id");
+      String method = id != null ? pendingMethods.remove(id.getAsString()) : null;
+      frame = BinaryCodec.encodeResponse(message, method);
+    }
+    BinaryCodec.writeFrame(clientOutput, frame);
+    clientOutput.flush();
+  }
+}''');
+      });
+    });
+  }
+}
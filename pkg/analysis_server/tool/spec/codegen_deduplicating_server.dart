@@ -0,0 +1,437 @@
+// Copyright (c) 2014, the Dart project authors.  Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+/**
+ * Code generation for the file "DeduplicatingAnalysisServer.java".
+ */
+library java.generator.deduplicating;
+
+import 'api.dart';
+import 'codegen_java.dart';
+import 'codegen_java_callbacks.dart';
+import 'codegen_tools.dart';
+
+final GeneratedFile target = javaGeneratedFile(
+    'generated/java/DeduplicatingAnalysisServer.java',
+    (Api api) => new CodegenDeduplicatingServer(api));
+
+/**
+ * Translate spec_input.html into DeduplicatingAnalysisServer.java.
+ */
+main() {
+  target.generate();
+}
+
+/**
+ * Visitor that generates an implementation of the analysis server interface
+ * which sends a single request for identical query requests waiting for a
+ * response at the same time.
+ */
+class CodegenDeduplicatingServer extends CodegenJavaCallbacks {
+  CodegenDeduplicatingServer(Api api) : super(api);
+
+  /**
+   * Return the first parameter of [request] holding a single file, or `null`
+   * if there is no such parameter.
+   */
+  TypeObjectField fileParameter(Request request) {
+    if (request.params != null) {
+      for (TypeObjectField field in request.params.fields) {
+        if (field.type is TypeReference &&
+            (field.type as TypeReference).typeName == 'FilePath') {
+          return field;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Return `true` if identical invocations of [request] can share a response:
+   * requests getting information without changing the state of the server,
+   * except for completion requests, whose results are notified for each
+   * request, and refactoring requests, which the server tracks across
+   * requests.
+   */
+  bool isDeduplicated(Request request) {
+    return request.result != null &&
+        request.method.startsWith('get') &&
+        request.domainName != 'completion' &&
+        request.longMethod != 'edit.getRefactoring';
+  }
+
+  @override
+  void visitApi() {
+    outputHeader(javaStyle: true);
+    writeln('package com.google.dart.server.generated;');
+    writeln();
+    writeln('import com.google.common.collect.ImmutableList;');
+    writeln('import com.google.common.collect.ImmutableMap;');
+    writeln('import com.google.dart.server.*;');
+    writeln('import com.google.dart.server.generated.callbacks.*;');
+    writeln('import org.dartlang.analysis.server.protocol.*;');
+    writeln();
+    writeln('import java.nio.file.InvalidPathException;');
+    writeln('import java.nio.file.Paths;');
+    writeln('import java.util.ArrayList;');
+    writeln('import java.util.Arrays;');
+    writeln('import java.util.Collection;');
+    writeln('import java.util.HashMap;');
+    writeln('import java.util.HashSet;');
+    writeln('import java.util.Iterator;');
+    writeln('import java.util.List;');
+    writeln('import java.util.Map;');
+    writeln('import java.util.Set;');
+    writeln();
+    writeln('''/**
+ * The class {@code DeduplicatingAnalysisServer} implements {@link AnalysisServer} on top of another
+ * server, sending a single request when identical query requests, such as
+ * {@code analysis.getHover} or {@code search.getTypeHierarchy}, are made while a previous one is
+ * waiting for a response. The response is decoded once, and forwarded to the consumers of all the
+ * identical requests, in the order in which they were made. When there are several consumers, the
+ * lists and maps of the result are copied once into immutable collections shared by all of them.
+ * <p>
+ * Two requests are identical if they have the same method and equal parameters, the file paths
+ * being normalized. Requests changing the state of the server, completion requests, whose results
+ * are notified for each request, and {@code edit.getRefactoring} requests, which the server tracks
+ * across requests, are always sent. A request made after the response to an identical request has
+ * been received is sent again, and so is a request made after the content of its file, or the
+ * analysis roots or options, have changed since an identical request was sent.
+ *
+ * @coverage dart.server
+ */''');
+    makeClass('public class DeduplicatingAnalysisServer implements AnalysisServer', () {
+      privateField('server', () {
+        writeln('''/**
+ * The server the requests are sent to.
+ */
+private final AnalysisServer server;''');
+      });
+      privateField('inFlight', () {
+        writeln('''/**
+ * The requests waiting for a response which identical requests can join, keyed by the method and
+ * the normalized parameters of the requests.
+ */
+private final Map<List<Object>, FanOut> inFlight = new HashMap<List<Object>, FanOut>();''');
+      });
+      privateField('deduplicatedRequestCount', () {
+        writeln('''/**
+ * The number of requests which have not been sent because an identical request was waiting for a
+ * response, guarded by {@link #inFlight}.
+ */
+private int deduplicatedRequestCount = 0;''');
+      });
+      privateField('FanOut', () {
+        writeln('''/**
+ * A callback forwarding the response to a request to the callbacks of the identical requests made
+ * while it was waiting for a response.
+ */
+private abstract class FanOut implements RequestCallback {
+  /**
+   * The method and the normalized parameters of the request.
+   */
+  final List<Object> key;
+
+  /**
+   * The normalized path of the file the request is about, or {@code null} if it is about no
+   * particular file.
+   */
+  final String file;
+
+  /**
+   * The callbacks of the identical requests, in the order in which they were made, guarded by
+   * {@link #inFlight}.
+   */
+  final List<RequestCallback> callbacks = new ArrayList<RequestCallback>();
+
+  FanOut(List<Object> key, String file, RequestCallback callback) {
+    this.key = key;
+    this.file = file;
+    callbacks.add(callback);
+  }
+
+  @Override
+  public void onError(RequestError requestError) {
+    RuntimeException exception = null;
+    for (RequestCallback callback : complete()) {
+      try {
+        callback.onError(requestError);
+      } catch (RuntimeException e) {
+        if (exception == null) {
+          exception = e;
+        }
+      }
+    }
+    if (exception != null) {
+      throw exception;
+    }
+  }
+
+  /**
+   * Stop accepting identical requests, and return the callbacks to forward the response to, which
+   * are none if the response has already been forwarded.
+   */
+  List<RequestCallback> complete() {
+    synchronized (inFlight) {
+      if (inFlight.get(key) == this) {
+        inFlight.remove(key);
+      }
+      List<RequestCallback> result = new ArrayList<RequestCallback>(callbacks);
+      callbacks.clear();
+      return result;
+    }
+  }
+}''');
+      });
+      constructor('DeduplicatingAnalysisServer', () {
+        writeln('''/**
+ * Initialize a newly created server to send the requests to the given server.
+ */
+public DeduplicatingAnalysisServer(AnalysisServer server) {
+  this.server = server;
+}''');
+      });
+      publicMethod('addAnalysisServerListener', () {
+        writeln('''@Override
+public void addAnalysisServerListener(AnalysisServerListener listener) {
+  server.addAnalysisServerListener(listener);
+}''');
+      });
+      publicMethod('addStatusListener', () {
+        writeln('''@Override
+public void addStatusListener(AnalysisServerStatusListener listener) {
+  server.addStatusListener(listener);
+}''');
+      });
+      publicMethod('getDeduplicatedRequestCount', () {
+        writeln('''/**
+ * Return the number of requests which have not been sent because an identical request was waiting
+ * for a response.
+ */
+public int getDeduplicatedRequestCount() {
+  synchronized (inFlight) {
+    return deduplicatedRequestCount;
+  }
+}''');
+      });
+      publicMethod('isSocketOpen', () {
+        writeln('''@Override
+public boolean isSocketOpen() {
+  return server.isSocketOpen();
+}''');
+      });
+      publicMethod('removeAnalysisServerListener', () {
+        writeln('''@Override
+public void removeAnalysisServerListener(AnalysisServerListener listener) {
+  server.removeAnalysisServerListener(listener);
+}''');
+      });
+      publicMethod('start', () {
+        writeln('''@Override
+public void start() throws Exception {
+  server.start();
+}''');
+      });
+      super.visitApi();
+      privateMethod('freeze', () {
+        writeln('''/**
+ * Return an immutable copy of the given value of a result, copying the lists and the maps it
+ * contains, so that consumers sharing the result cannot modify it.
+ */
+@SuppressWarnings("unchecked")
+private static <T> T freeze(T value) {
+  if (value instanceof List<?>) {
+    ImmutableList.Builder<Object> builder = ImmutableList.builder();
+    for (Object element : (List<?>) value) {
+      builder.add(freeze(element));
+    }
+    return (T) builder.build();
+  }
+  if (value instanceof Map<?, ?>) {
+    ImmutableMap.Builder<Object, Object> builder = ImmutableMap.builder();
+    for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+      builder.put(entry.getKey(), freeze(entry.getValue()));
+    }
+    return (T) builder.build();
+  }
+  return value;
+}''');
+      });
+      privateMethod('invalidate', () {
+        writeln('''/**
+ * Stop sharing the responses to the requests waiting for a response about the given files, and
+ * about no particular file, or to all the requests if {@code files} is {@code null}, so that the
+ * identical requests made from now on are sent again.
+ */
+private void invalidate(Collection<String> files) {
+  Set<String> paths = null;
+  if (files != null) {
+    paths = new HashSet<String>();
+    for (String file : files) {
+      paths.add(normalizePath(file));
+    }
+  }
+  synchronized (inFlight) {
+    Iterator<FanOut> iterator = inFlight.values().iterator();
+    while (iterator.hasNext()) {
+      FanOut fanOut = iterator.next();
+      if (paths == null || fanOut.file == null || paths.contains(fanOut.file)) {
+        iterator.remove();
+      }
+    }
+  }
+}''');
+      });
+      privateMethod('join', () {
+        writeln('''/**
+ * Add the callbacks of the given request to an identical request waiting for a response, and
+ * return {@code false}, or record the given request as waiting for a response and return
+ * {@code true} if there is no such request, so that the request is to be sent.
+ */
+private boolean join(FanOut fanOut) {
+  synchronized (inFlight) {
+    FanOut existing = inFlight.get(fanOut.key);
+    if (existing != null) {
+      existing.callbacks.addAll(fanOut.callbacks);
+      deduplicatedRequestCount++;
+      return false;
+    }
+    inFlight.put(fanOut.key, fanOut);
+    return true;
+  }
+}''');
+      });
+      privateMethod('normalizePath', () {
+        writeln('''/**
+ * Return the given file path without redundant name elements, such as {@code .}, or the path
+ * itself if it is not a valid path.
+ */
+private static String normalizePath(String file) {
+  if (file == null) {
+    return null;
+  }
+  try {
+    return Paths.get(file).normalize().toString();
+  } catch (InvalidPathException e) {
+    return file;
+  }
+}''');
+      });
+    });
+  }
+
+  @override
+  void visitRequest(Request request) {
+    String methodName = '${request.domainName}_${request.method}';
+    List<String> parameters = <String>[];
+    List<String> arguments = <String>[];
+    List<String> keyElements = <String>['"${request.longMethod}"'];
+    TypeObjectField file = fileParameter(request);
+    if (request.params != null) {
+      for (TypeObjectField field in request.params.fields) {
+        parameters.add('${javaType(field.type)} ${javaName(field.name)}');
+        arguments.add(javaName(field.name));
+        keyElements.add(field == file ? 'path' : javaName(field.name));
+      }
+    }
+    String consumer = null;
+    if (request.result != null) {
+      consumer = consumerName(request);
+      parameters.add('${consumer} consumer');
+      arguments.add('consumer');
+    }
+    String fanOut = camelJoin([request.method, 'fan', 'out'], doCapitalize: true);
+    publicMethod(methodName, () {
+      writeln('@Override');
+      writeln('public void ${methodName}(${parameters.join(', ')}) {');
+      indent(() {
+        if (!isDeduplicated(request)) {
+          if (request.longMethod == 'analysis.updateContent') {
+            writeln('invalidate(files.keySet());');
+          } else if (request.longMethod == 'analysis.setAnalysisRoots' ||
+              request.longMethod == 'analysis.updateOptions') {
+            writeln('invalidate(null);');
+          }
+          writeln('server.${methodName}(${arguments.join(', ')});');
+          return;
+        }
+        List<String> sentArguments = arguments.toList();
+        sentArguments[sentArguments.length - 1] =
+            'ClientCallbacks.toConsumer(fanOut)';
+        String path = 'null';
+        if (file != null) {
+          path = 'path';
+          writeln('String path = normalizePath(${javaName(file.name)});');
+        }
+        writeln(
+            'List<Object> key = Arrays.<Object>asList(${keyElements.join(', ')});');
+        writeln(
+            '${fanOut} fanOut = new ${fanOut}(key, ${path}, ClientCallbacks.toCallback(consumer));');
+        writeln('if (join(fanOut)) {');
+        writeln('  server.${methodName}(${sentArguments.join(', ')});');
+        writeln('}');
+      });
+      writeln('}');
+    });
+    if (isDeduplicated(request)) {
+      privateField(fanOut, () {
+        writeFanOut(request, fanOut);
+      });
+    }
+  }
+
+  /**
+   * Write the class of the callbacks forwarding the response to [request].
+   */
+  void writeFanOut(Request request, String fanOut) {
+    String callback = callbackName(request);
+    List<TypeObjectField> fields = request.result.fields;
+    writeln('''/**
+ * A callback forwarding the response to an {@code ${request.longMethod}} request.
+ */
+private class ${fanOut} extends FanOut implements ${callback} {
+  ${fanOut}(List<Object> key, String file, ${callback} callback) {
+    super(key, file, callback);
+  }
+
+  @Override
+  public void onResponse(${parameters(fields)}) {''');
+    indent(() {
+      indent(() {
+        List<String> frozen = fields
+            .where((TypeObjectField field) => !isArray(field.type) &&
+                (field.type is TypeList || field.type is TypeMap))
+            .map((TypeObjectField field) => javaName(field.name))
+            .toList();
+        List<String> results = fields.map((TypeObjectField field) {
+          String name = javaName(field.name);
+          return isArray(field.type) ? '${name}.clone()' : name;
+        }).toList();
+        writeln('List<RequestCallback> callbacks = complete();');
+        if (frozen.isNotEmpty) {
+          writeln('if (callbacks.size() > 1) {');
+          for (String name in frozen) {
+            writeln('  ${name} = freeze(${name});');
+          }
+          writeln('}');
+        }
+        writeln('''RuntimeException exception = null;
+for (RequestCallback callback : callbacks) {
+  try {
+    ((${callback}) callback).onResponse(${results.join(', ')});
+  } catch (RuntimeException e) {
+    if (exception == null) {
+      exception = e;
+    }
+  }
+}
+if (exception != null) {
+  throw exception;
+}''');
+      });
+      writeln('}');
+    });
+    writeln('}');
+  }
+}
@@ -53,11 +53,13 @@ class CodegenJavaVisitor extends HierarchicalApiVisitor with CodeGenerator {
   static const Map<String, String> _typeRenames = const {
     'bool': 'boolean',
     'int': 'int',
+    'CompletionId': 'String',
     'ExecutionContextId': 'String',
     'FilePath': 'String',
     'DebugContextId': 'String',
     'object': 'Object',
     'Override': 'OverrideMember',
+    'SearchId': 'String',
   };
 
   _CodegenJavaState _state;
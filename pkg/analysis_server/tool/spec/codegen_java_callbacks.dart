@@ -0,0 +1,657 @@
+// Copyright (c) 2014, the Dart project authors.  Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+/**
+ * Code generation for the callback interfaces used by the classes built on
+ * top of the analysis server interface, and for the file
+ * "ClientCallbacks.java" adapting them to the consumers of the Java client.
+ */
+library java.generator.callbacks;
+
+import 'api.dart';
+import 'codegen_java.dart';
+import 'codegen_tools.dart';
+import 'from_html.dart';
+
+final String pathToGenCallbacks = 'generated/java/callbacks/';
+
+final GeneratedDirectory targetDir =
+    new GeneratedDirectory(pathToGenCallbacks, () {
+  Api api = readApi();
+  Map<String, FileContentsComputer> map =
+      new Map<String, FileContentsComputer>();
+  map['RequestCallback.java'] = () {
+    CodegenCallback visitor = new CodegenCallback(api, null);
+    return visitor.collectCode(visitor.visitApi);
+  };
+  for (Domain domain in api.domains) {
+    for (Request request in domain.requests) {
+      if (request.result != null) {
+        map['${callbackName(request)}.java'] = () {
+          CodegenCallback visitor = new CodegenCallback(api, request);
+          return visitor.collectCode(visitor.visitApi);
+        };
+      }
+    }
+  }
+  return map;
+});
+
+final GeneratedFile clientTarget = javaGeneratedFile(
+    'generated/java/ClientCallbacks.java',
+    (Api api) => new CodegenClientCallbacks(api));
+
+/**
+ * Get the name of the callback class for responses to this request.
+ */
+String callbackName(Request request) {
+  return camelJoin([request.method, 'callback'], doCapitalize: true);
+}
+
+/**
+ * Get the name of the consumer class of the Java client for responses to this
+ * request.
+ */
+String consumerName(Request request) {
+  return camelJoin([request.method, 'consumer'], doCapitalize: true);
+}
+
+/**
+ * Translate spec_input.html into the callback interfaces and
+ * ClientCallbacks.java.
+ */
+main() {
+  targetDir.generate();
+  clientTarget.generate();
+}
+
+/**
+ * Visitor that generates the interface of the callbacks receiving the
+ * responses to a request, or the interface all the callbacks extend.
+ */
+class CodegenCallback extends CodegenJavaCallbacks {
+  /**
+   * The request whose responses are received, or `null` for the interface all
+   * the callbacks extend.
+   */
+  final Request request;
+
+  CodegenCallback(Api api, this.request) : super(api);
+
+  @override
+  void visitApi() {
+    outputHeader(javaStyle: true);
+    writeln('package com.google.dart.server.generated.callbacks;');
+    writeln();
+    if (request == null) {
+      writeln('import org.dartlang.analysis.server.protocol.RequestError;');
+      writeln();
+      writeln('''/**
+ * The interface {@code RequestCallback} defines the behavior common to the objects that receive the
+ * response to a request sent by the classes built on top of {@code AnalysisServer}. Exactly one of
+ * the methods of a callback is invoked for each request: {@code onResponse} with the result of the
+ * request if it succeeds, or {@link #onError} if it fails. Callbacks are converted to and from the
+ * consumers of the client by {@code ClientCallbacks}.
+ *
+ * @coverage dart.server
+ */''');
+      makeClass('public interface RequestCallback', () {
+        publicMethod('onError', () {
+          writeln('''/**
+ * The request has failed with the given error.
+ */
+public void onError(RequestError requestError);''');
+        });
+      });
+      return;
+    }
+    String name = callbackName(request);
+    writeImports(request.result.fields);
+    writeln('''/**
+ * The interface {@code ${name}} defines the behavior of objects that
+ * receive the responses to {@code ${request.longMethod}} requests.
+ *
+ * @coverage dart.server
+ */''');
+    makeClass('public interface ${name} extends RequestCallback', () {
+      publicMethod('onResponse', () {
+        writeln('''/**
+ * The request has succeeded with the given result.
+ */''');
+        writeln(
+            'public void onResponse(${parameters(request.result.fields)});');
+      });
+    });
+  }
+}
+
+/**
+ * Visitor that generates the adapters between the callbacks and the consumers
+ * and listener of the Java client.
+ */
+class CodegenClientCallbacks extends CodegenJavaCallbacks {
+  CodegenClientCallbacks(Api api) : super(api);
+
+  /**
+   * Return the name under which [type] appears in the signature of a
+   * notification, which is its Java type, with primitive types boxed and
+   * arrays written as lists.
+   */
+  String signatureType(TypeDecl type) {
+    if (type is TypeList) {
+      return 'List<${signatureType(type.itemType)}>';
+    } else if (type is TypeMap) {
+      return 'Map<${signatureType(type.keyType)}, ${signatureType(type.valueType)}>';
+    }
+    return javaType(type, true);
+  }
+
+  @override
+  void visitApi() {
+    outputHeader(javaStyle: true);
+    writeln('package com.google.dart.server.generated;');
+    writeln();
+    writeln('import com.google.dart.server.*;');
+    writeln('import com.google.dart.server.generated.callbacks.*;');
+    writeln('import org.dartlang.analysis.server.protocol.*;');
+    writeln();
+    writeln('import java.lang.reflect.Array;');
+    writeln('import java.lang.reflect.GenericArrayType;');
+    writeln('import java.lang.reflect.InvocationHandler;');
+    writeln('import java.lang.reflect.InvocationTargetException;');
+    writeln('import java.lang.reflect.Method;');
+    writeln('import java.lang.reflect.ParameterizedType;');
+    writeln('import java.lang.reflect.Proxy;');
+    writeln('import java.lang.reflect.Type;');
+    writeln('import java.util.Arrays;');
+    writeln('import java.util.HashMap;');
+    writeln('import java.util.List;');
+    writeln('import java.util.Map;');
+    writeln('import java.util.concurrent.ConcurrentHashMap;');
+    writeln();
+    writeln('''/**
+ * The class {@code ClientCallbacks} converts the callbacks used by the classes built on top of
+ * {@link AnalysisServer} to and from the consumers and the listener of the client, which are
+ * declared in {@code com.google.dart.server}. The adapters only depend on the shape of the
+ * interfaces of the client, not on the names of their methods.
+ * <p>
+ * The client declares one consumer interface per request, named after the request. One of its
+ * methods takes a single {@link RequestError} and is invoked if the request fails. The other one
+ * receives the fields of the result of the request in the order of the specification, each list
+ * being passed either as a {@link List} or as an array. Each method of
+ * {@link AnalysisServerListener} receives the parameters of one notification in the order of the
+ * specification, which identify the notification unless another one has the same types.
+ *
+ * @coverage dart.server
+ */''');
+    makeClass('public final class ClientCallbacks', () {
+      privateField('EVENTS', () {
+        writeln('''/**
+ * A table mapping the signatures of the notifications to their events. A signature shared by
+ * several notifications is mapped to {@code null}.
+ */
+private static final Map<String, String> EVENTS = new HashMap<String, String>();''');
+        writeln();
+        writeln('static {');
+        indent(() {
+          for (Domain domain in api.domains) {
+            for (Notification notification in domain.notifications) {
+              List<String> types = <String>[];
+              if (notification.params != null) {
+                for (TypeObjectField field in notification.params.fields) {
+                  types.add(signatureType(field.type));
+                }
+              }
+              writeln(
+                  'addEvent("${notification.longEvent}", "${types.join(', ')}");');
+            }
+          }
+        });
+        writeln('}');
+      });
+      privateField('CONSUMER_METHODS', () {
+        writeln('''/**
+ * A table mapping the consumer interfaces of the client to their methods.
+ */
+private static final Map<Class<?>, ConsumerMethods> CONSUMER_METHODS = new ConcurrentHashMap<Class<?>, ConsumerMethods>();''');
+      });
+      privateField('ConsumerMethods', () {
+        writeln('''/**
+ * The methods of a consumer interface of the client.
+ */
+private static class ConsumerMethods {
+  /**
+   * The method receiving the result of the request.
+   */
+  private final Method result;
+
+  /**
+   * The method receiving the error of the request, or {@code null} if the consumer does not
+   * receive errors.
+   */
+  private final Method error;
+
+  ConsumerMethods(Method result, Method error) {
+    this.result = result;
+    this.error = error;
+  }
+
+  /**
+   * Pass the given error to the given consumer, unless it is {@code null}.
+   */
+  void deliverError(Object consumer, RequestError requestError) {
+    if (consumer != null && error != null) {
+      invoke(error, consumer, new Object[] {requestError});
+    }
+  }
+
+  /**
+   * Pass the given result values to the given consumer, unless it is {@code null}, converting
+   * the lists passed as arrays.
+   */
+  void deliverResult(Object consumer, Object... values) {
+    if (consumer != null) {
+      Class<?>[] types = result.getParameterTypes();
+      for (int i = 0; i < values.length; i++) {
+        if (types[i].isArray() && values[i] instanceof List) {
+          values[i] = toArray((List<?>) values[i], types[i].getComponentType());
+        }
+      }
+      invoke(result, consumer, values);
+    }
+  }
+}''');
+      });
+      privateField('ResultHandler', () {
+        writeln('''/**
+ * The handler of the result values passed to a consumer created by {@link #newConsumer}.
+ */
+private interface ResultHandler {
+  /**
+   * Handle the given result values, in which the lists passed as arrays have been converted.
+   */
+  void handle(Object[] values);
+}''');
+      });
+      privateField('ConsumerHandler', () {
+        writeln('''/**
+ * The handler of the invocations of a consumer created by {@link #newConsumer}.
+ */
+private static class ConsumerHandler implements InvocationHandler {
+  /**
+   * The callback the errors are passed to.
+   */
+  private final RequestCallback callback;
+
+  /**
+   * The handler the result values are passed to.
+   */
+  private final ResultHandler handler;
+
+  ConsumerHandler(RequestCallback callback, ResultHandler handler) {
+    this.callback = callback;
+    this.handler = handler;
+  }
+
+  @Override
+  public Object invoke(Object proxy, Method method, Object[] arguments) {
+    if (isErrorMethod(method)) {
+      callback.onError((RequestError) arguments[0]);
+      return null;
+    }
+    Object[] values = arguments != null ? arguments : new Object[0];
+    for (int i = 0; i < values.length; i++) {
+      Object value = values[i];
+      if (value instanceof Object[]) {
+        values[i] = Arrays.asList((Object[]) value);
+      }
+    }
+    handler.handle(values);
+    return null;
+  }
+}''');
+      });
+      privateField('ProxyHandler', () {
+        writeln('''/**
+ * The handler of the invocations of an instance created by {@link #newProxy}, which
+ * implements the methods of {@link Object} itself.
+ */
+private static class ProxyHandler implements InvocationHandler {
+  /**
+   * The handler the other invocations are passed to.
+   */
+  private final InvocationHandler handler;
+
+  ProxyHandler(InvocationHandler handler) {
+    this.handler = handler;
+  }
+
+  @Override
+  public Object invoke(Object proxy, Method method, Object[] arguments) throws Throwable {
+    if (method.getDeclaringClass() == Object.class) {
+      if (method.getName().equals("equals")) {
+        return proxy == arguments[0];
+      }
+      if (method.getName().equals("hashCode")) {
+        return System.identityHashCode(proxy);
+      }
+      return handler.toString();
+    }
+    return handler.invoke(proxy, method, arguments);
+  }
+}''');
+      });
+      constructor('ClientCallbacks', () {
+        writeln('''private ClientCallbacks() {
+}''');
+      });
+      publicMethod('getEvent', () {
+        writeln('''/**
+ * Return the event of the notification handled by the given method of a listener of the
+ * client, or {@code null} if the types of its parameters do not identify a single notification.
+ */
+public static String getEvent(Method method) {
+  StringBuilder signature = new StringBuilder();
+  for (Type type : method.getGenericParameterTypes()) {
+    if (signature.length() != 0) {
+      signature.append(", ");
+    }
+    signature.append(getTypeName(type));
+  }
+  return EVENTS.get(signature.toString());
+}''');
+      });
+      publicMethod('invoke', () {
+        writeln('''/**
+ * Invoke the given method of a consumer or a listener of the client with the given arguments. An
+ * exception thrown by the method is rethrown, wrapped if it is checked.
+ */
+public static void invoke(Method method, Object target, Object[] arguments) {
+  try {
+    method.invoke(target, arguments);
+  } catch (InvocationTargetException exception) {
+    Throwable cause = exception.getCause();
+    if (cause instanceof RuntimeException) {
+      throw (RuntimeException) cause;
+    }
+    if (cause instanceof Error) {
+      throw (Error) cause;
+    }
+    throw new RuntimeException(cause);
+  } catch (IllegalAccessException exception) {
+    throw new IllegalArgumentException("method: " + method, exception);
+  }
+}''');
+      });
+      publicMethod('newListener', () {
+        writeln('''/**
+ * Return a listener of the client which passes each notification to the given handler, along
+ * with the method of the listener it was delivered to. Use {@link #getEvent} to identify the
+ * notification.
+ */
+public static AnalysisServerListener newListener(InvocationHandler handler) {
+  return newProxy(AnalysisServerListener.class, handler);
+}''');
+      });
+      super.visitApi();
+      privateMethod('addEvent', () {
+        writeln('''private static void addEvent(String event, String signature) {
+  EVENTS.put(signature, EVENTS.containsKey(signature) ? null : event);
+}''');
+      });
+      privateMethod('getCallback', () {
+        writeln('''/**
+ * Return the callback the given consumer of the client passes the responses to, or {@code null}
+ * if the consumer was not created by {@link #newConsumer}.
+ */
+private static RequestCallback getCallback(Object consumer) {
+  if (consumer == null || !Proxy.isProxyClass(consumer.getClass())) {
+    return null;
+  }
+  InvocationHandler handler = Proxy.getInvocationHandler(consumer);
+  if (handler instanceof ProxyHandler) {
+    handler = ((ProxyHandler) handler).handler;
+    if (handler instanceof ConsumerHandler) {
+      return ((ConsumerHandler) handler).callback;
+    }
+  }
+  return null;
+}''');
+      });
+      privateMethod('getConsumerMethods', () {
+        writeln('''/**
+ * Return the methods of the given consumer interface of the client, whose result method has the
+ * given number of parameters.
+ */
+private static ConsumerMethods getConsumerMethods(Class<?> type, int resultCount) {
+  ConsumerMethods methods = CONSUMER_METHODS.get(type);
+  if (methods == null) {
+    Method result = null;
+    Method error = null;
+    for (Method method : type.getMethods()) {
+      if (isErrorMethod(method)) {
+        error = method;
+      } else if (method.getParameterTypes().length == resultCount) {
+        if (result != null) {
+          throw new IllegalArgumentException("type: " + type.getName());
+        }
+        result = method;
+      }
+    }
+    if (result == null) {
+      throw new IllegalArgumentException("type: " + type.getName());
+    }
+    methods = new ConsumerMethods(result, error);
+    CONSUMER_METHODS.put(type, methods);
+  }
+  return methods;
+}''');
+      });
+      privateMethod('getTypeName', () {
+        writeln('''/**
+ * Return the name of the given type in a signature of {@link #EVENTS}.
+ */
+private static String getTypeName(Type type) {
+  if (type instanceof ParameterizedType) {
+    ParameterizedType parameterizedType = (ParameterizedType) type;
+    StringBuilder name = new StringBuilder(getTypeName(parameterizedType.getRawType()));
+    name.append('<');
+    Type[] arguments = parameterizedType.getActualTypeArguments();
+    for (int i = 0; i < arguments.length; i++) {
+      if (i != 0) {
+        name.append(", ");
+      }
+      name.append(getTypeName(arguments[i]));
+    }
+    return name.append('>').toString();
+  }
+  if (type instanceof GenericArrayType) {
+    return "List<" + getTypeName(((GenericArrayType) type).getGenericComponentType()) + ">";
+  }
+  if (type instanceof Class) {
+    Class<?> typeClass = (Class<?>) type;
+    if (typeClass.isArray()) {
+      return "List<" + getTypeName(typeClass.getComponentType()) + ">";
+    }
+    if (typeClass == boolean.class) {
+      return "Boolean";
+    }
+    if (typeClass == int.class) {
+      return "Integer";
+    }
+    return typeClass.getSimpleName();
+  }
+  return type.toString();
+}''');
+      });
+      privateMethod('isErrorMethod', () {
+        writeln('''private static boolean isErrorMethod(Method method) {
+  Class<?>[] types = method.getParameterTypes();
+  return types.length == 1 && types[0] == RequestError.class;
+}''');
+      });
+      privateMethod('newConsumer', () {
+        writeln('''/**
+ * Return a consumer of the client of the given type, which passes an error to the given callback
+ * and the result values to the given handler.
+ */
+private static <T> T newConsumer(Class<T> type, RequestCallback callback, ResultHandler handler) {
+  return newProxy(type, new ConsumerHandler(callback, handler));
+}''');
+      });
+      privateMethod('newProxy', () {
+        writeln('''/**
+ * Return an instance of the given interface passing the invocations of its methods to the given
+ * handler. The methods of {@link Object} are implemented by the instance itself.
+ */
+private static <T> T newProxy(Class<T> type, InvocationHandler handler) {
+  Object proxy = Proxy.newProxyInstance(
+      type.getClassLoader(),
+      new Class<?>[] {type},
+      new ProxyHandler(handler));
+  return type.cast(proxy);
+}''');
+      });
+      privateMethod('toArray', () {
+        writeln('''private static Object toArray(List<?> list, Class<?> componentType) {
+  Object array = Array.newInstance(componentType, list.size());
+  for (int i = 0; i < list.size(); i++) {
+    Array.set(array, i, list.get(i));
+  }
+  return array;
+}''');
+      });
+    });
+  }
+
+  @override
+  void visitRequest(Request request) {
+    if (request.result == null) {
+      return;
+    }
+    String callback = callbackName(request);
+    String consumer = consumerName(request);
+    List<TypeObjectField> fields = request.result.fields;
+    List<String> names = <String>[];
+    List<String> values = <String>[];
+    bool unchecked = false;
+    for (int i = 0; i < fields.length; i++) {
+      String type = javaType(fields[i].type, true);
+      names.add(javaName(fields[i].name));
+      values.add('(${type}) values[${i}]');
+      unchecked = unchecked || type.contains('<');
+    }
+    publicMethod('toCallback${consumer}', () {
+      writeln('''/**
+ * Return a callback passing the responses to {@code ${request.longMethod}} requests
+ * to the given consumer of the client, or the callback the consumer was
+ * created for if it was returned by {@link #toConsumer}.
+ */''');
+      writeln('public static ${callback} toCallback(final ${consumer} consumer) {');
+      indent(() {
+        writeln('RequestCallback callback = getCallback(consumer);');
+        writeln('if (callback instanceof ${callback}) {');
+        writeln('  return (${callback}) callback;');
+        writeln('}');
+        writeln(
+            'final ConsumerMethods methods = getConsumerMethods(${consumer}.class, ${fields.length});');
+        writeln('return new ${callback}() {');
+        indent(() {
+          writeln('@Override');
+          writeln('public void onError(RequestError requestError) {');
+          writeln('  methods.deliverError(consumer, requestError);');
+          writeln('}');
+          writeln();
+          writeln('@Override');
+          writeln('public void onResponse(${parameters(fields)}) {');
+          writeln(
+              '  methods.deliverResult(consumer${names.map((String name) => ', ${name}').join()});');
+          writeln('}');
+        });
+        writeln('};');
+      });
+      writeln('}');
+    });
+    publicMethod('toConsumer${consumer}', () {
+      writeln('''/**
+ * Return a consumer of the client passing the responses to
+ * {@code ${request.longMethod}} requests to the given callback.
+ */''');
+      writeln(
+          'public static ${consumer} toConsumer(final ${callback} callback) {');
+      indent(() {
+        writeln(
+            'return newConsumer(${consumer}.class, callback, new ResultHandler() {');
+        indent(() {
+          writeln('@Override');
+          if (unchecked) {
+            writeln('@SuppressWarnings("unchecked")');
+          }
+          writeln('public void handle(Object[] values) {');
+          writeln('  callback.onResponse(${values.join(', ')});');
+          writeln('}');
+        });
+        writeln('});');
+      });
+      writeln('}');
+    });
+  }
+}
+
+/**
+ * Common functionality of the visitors generating callback interfaces.
+ */
+class CodegenJavaCallbacks extends CodegenJavaVisitor {
+  CodegenJavaCallbacks(Api api) : super(api);
+
+  /**
+   * Return the Java parameters declaring the given [fields].
+   */
+  String parameters(List<TypeObjectField> fields) {
+    return fields
+        .map((TypeObjectField field) =>
+            '${javaFieldType(field)} ${javaName(field.name)}')
+        .join(', ');
+  }
+
+  /**
+   * Write the imports of the types of the given [fields].
+   */
+  void writeImports(List<TypeObjectField> fields) {
+    Set<String> imports = new Set<String>();
+    for (TypeObjectField field in fields) {
+      _addImports(field.type, imports);
+    }
+    for (String prefix in ['org.', 'java.']) {
+      List<String> group = imports
+          .where((String name) => name.startsWith(prefix))
+          .toList();
+      if (group.isNotEmpty) {
+        group.sort();
+        for (String name in group) {
+          writeln('import ${name};');
+        }
+        writeln();
+      }
+    }
+  }
+
+  /**
+   * Add the imports needed to refer to [type] to [imports].
+   */
+  void _addImports(TypeDecl type, Set<String> imports) {
+    if (type is TypeList) {
+      if (!isArray(type)) {
+        imports.add('java.util.List');
+      }
+      _addImports(type.itemType, imports);
+    } else if (type is TypeMap) {
+      imports.add('java.util.Map');
+      _addImports(type.keyType, imports);
+      _addImports(type.valueType, imports);
+    } else if (isDeclaredInSpec(type)) {
+      imports.add('org.dartlang.analysis.server.protocol.${javaType(type)}');
+    }
+  }
+}
@@ -64,6 +64,15 @@ final GeneratedDirectory targetDir = new GeneratedDirectory(pathToGenTypes, () {
             visitor.emitType(type, doc);
           });
         };
+        if (_typesWithMutableVariants.contains(typeNameInJava)) {
+          map['Mutable${typeNameInJava}.java'] = () {
+            CodegenJavaType visitor =
+                new CodegenJavaType(api, typeNameInJava, null, true, false);
+            return visitor.collectCode(() {
+              visitor.emitMutableType(type);
+            });
+          };
+        }
       }
     }
   }
@@ -100,6 +109,18 @@ const Map<String, String> _extraMethodsOnElement = const {
   'isTopLevelOrStatic': 'TOP_LEVEL_STATIC',
 };
 
+/**
+ * The types which have many short-lived instances, for which a mutable variant
+ * is generated, so that listeners processing them transiently can reuse
+ * instances.
+ */
+const List<String> _typesWithMutableVariants = const [
+  'CompletionSuggestion',
+  'HighlightRegion',
+  'Location',
+  'SearchResult'
+];
+
 /**
  * Type references in the spec that are named something else in Java.
  */
@@ -129,6 +150,206 @@ class CodegenJavaType extends CodegenJavaVisitor {
     return camelJoin([request.method, 'consumer'], doCapitalize: true);
   }
 
+  /**
+   * Emit the mutable variant of the type, which must be an object.
+   */
+  void emitMutableType(TypeObject type) {
+    outputHeader(javaStyle: true);
+    writeln('package org.dartlang.analysis.server.protocol;');
+    writeln();
+    _writeImports();
+    String mutableName = 'Mutable$className';
+    writeln('''/**
+ * A mutable variant of {@link $className}, whose fields are decoded into an existing instance by
+ * {@link #decodeInto(JsonObject)}. Listeners which only process instances transiently, such as
+ * exporters and metrics, can reuse an instance, or the instances of a {@link Pool}, instead of
+ * allocating one for each element of a notification. The lists of an instance are reused too, so
+ * they are only valid until the instance is decoded into again or reset. An instance which needs to
+ * be kept is converted by {@link #toImmutable()}.
+ *
+ * @coverage dart.server.generated.types
+ */''');
+    writeln('@SuppressWarnings("unused")');
+    makeClass('public class $mutableName', () {
+      publicField('Pool', () {
+        writeln('''/**
+ * A pool of instances, which are decoded into again once they are released. A pool is not
+ * thread-safe.
+ */
+public static class Pool {
+  private final ArrayList<$mutableName> free = new ArrayList<$mutableName>();
+
+  /**
+   * Return an instance decoded from the given object, which should be released once processed.
+   */
+  public $mutableName decode(JsonObject jsonObject) {
+    int size = free.size();
+    $mutableName instance = size == 0 ? new $mutableName() : free.remove(size - 1);
+    return instance.decodeInto(jsonObject);
+  }
+
+  /**
+   * Add to the given list the instances decoded from the given array, which should be released once
+   * processed.
+   */
+  public void decodeArray(JsonArray jsonArray, List<$mutableName> instances) {
+    for (JsonElement element : jsonArray) {
+      instances.add(decode(element.getAsJsonObject()));
+    }
+  }
+
+  /**
+   * Release the given instance, which must not be used anymore.
+   */
+  public void release($mutableName instance) {
+    instance.reset();
+    free.add(instance);
+  }
+
+  /**
+   * Release the given instances, which must not be used anymore, and clear the given list.
+   */
+  public void releaseAll(List<$mutableName> instances) {
+    for ($mutableName instance : instances) {
+      release(instance);
+    }
+    instances.clear();
+  }
+}''');
+      });
+      for (TypeObjectField field in type.fields) {
+        String name = javaName(field.name);
+        String fieldType = javaFieldType(field);
+        privateField(name, () {
+          javadocComment(toHtmlVisitor.collectHtml(() {
+            toHtmlVisitor.translateHtml(field.html);
+          }));
+          if (_hasMutableVariant(field)) {
+            writeln('private final Mutable$fieldType $name = new Mutable$fieldType();');
+          } else {
+            writeln('private $fieldType $name;');
+          }
+        });
+        if (isList(field.type)) {
+          String itemType = javaType((field.type as TypeList).itemType);
+          privateField('${name}Buffer', () {
+            writeln('''/**
+ * The list {@link #$name} is decoded into, which is reused.
+ */''');
+            writeln(
+                'private final ArrayList<$itemType> ${name}Buffer = new ArrayList<$itemType>();');
+          });
+          privateMethod('decode${itemType}List', () {
+            String decoding = itemType == 'String'
+                ? 'element.getAsString()'
+                : '$itemType.fromJson(element.getAsJsonObject())';
+            writeln('''/**
+ * Decode the given array into the given list, which is cleared first, and return the list, or
+ * return {@code null} if there is no array.
+ */
+private static List<$itemType> decode${itemType}List(JsonElement jsonElement, ArrayList<$itemType> list) {
+  list.clear();
+  if (jsonElement == null) {
+    return null;
+  }
+  for (JsonElement element : jsonElement.getAsJsonArray()) {
+    list.add($decoding);
+  }
+  return list;
+}''');
+          });
+        }
+        publicMethod('get$name', () {
+          javadocComment(toHtmlVisitor.collectHtml(() {
+            toHtmlVisitor.translateHtml(field.html);
+          }));
+          String type = fieldType;
+          if (_hasMutableVariant(field)) {
+            type = 'Mutable$type';
+          }
+          if (type == 'boolean') {
+            writeln('public $type $name() {');
+          } else {
+            writeln('public $type get${capitalize(name)}() {');
+          }
+          writeln('  return $name;');
+          writeln('}');
+        });
+      }
+      publicMethod('decodeInto', () {
+        writeln('''/**
+ * Decode the fields of this instance from the given object, and return this instance.
+ */''');
+        writeln('public $mutableName decodeInto(JsonObject jsonObject) {');
+        indent(() {
+          for (TypeObjectField field in type.fields) {
+            String name = javaName(field.name);
+            if (_hasMutableVariant(field)) {
+              writeln(
+                  '$name.decodeInto(jsonObject.get("$name").getAsJsonObject());');
+            } else if (isList(field.type)) {
+              String itemType = javaType((field.type as TypeList).itemType);
+              writeln(
+                  '$name = decode${itemType}List(jsonObject.get("$name"), ${name}Buffer);');
+            } else {
+              write('$name = ');
+              _writeJsonDecoding(field);
+              writeln(';');
+            }
+          }
+          writeln('return this;');
+        });
+        writeln('}');
+      });
+      publicMethod('reset', () {
+        writeln('''/**
+ * Clear the fields of this instance, so that it does not retain the objects it was decoded from.
+ */''');
+        writeln('public void reset() {');
+        indent(() {
+          for (TypeObjectField field in type.fields) {
+            String name = javaName(field.name);
+            String type = javaFieldType(field);
+            if (_hasMutableVariant(field)) {
+              writeln('$name.reset();');
+            } else if (isList(field.type)) {
+              writeln('$name = null;');
+              writeln('${name}Buffer.clear();');
+            } else if (type == 'boolean') {
+              writeln('$name = false;');
+            } else if (type == 'int' || type == 'long') {
+              writeln('$name = 0;');
+            } else {
+              writeln('$name = null;');
+            }
+          }
+        });
+        writeln('}');
+      });
+      publicMethod('toImmutable', () {
+        writeln('''/**
+ * Return an immutable copy of this instance.
+ */''');
+        writeln('public $className toImmutable() {');
+        indent(() {
+          List<String> arguments = <String>[];
+          for (TypeObjectField field in type.fields) {
+            String name = javaName(field.name);
+            if (_hasMutableVariant(field)) {
+              arguments.add('$name.toImmutable()');
+            } else if (isList(field.type)) {
+              arguments.add('$name == null ? null : ImmutableList.copyOf($name)');
+            } else {
+              arguments.add(name);
+            }
+          }
+          writeln('return new $className(${arguments.join(', ')});');
+        });
+        writeln('}');
+      });
+    });
+  }
+
   void emitType(TypeDecl type, dom.Element html) {
     outputHeader(javaStyle: true);
     writeln('package org.dartlang.analysis.server.protocol;');
@@ -158,6 +379,33 @@ class CodegenJavaType extends CodegenJavaVisitor {
     }
   }
 
+  /**
+   * Return `true` if the given [field] is a required object which has a
+   * mutable variant, which a mutable object decodes into.
+   */
+  bool _hasMutableVariant(TypeObjectField field) {
+    return !field.optional &&
+        isDeclaredInSpec(field.type) &&
+        _typesWithMutableVariants.contains(javaFieldType(field));
+  }
+
+  /**
+   * Return `true` if the hash code of an object with the given [fields] is
+   * worth caching, which is the case if there are fields and they cannot be
+   * changed, either by setters or by mutating a list, a map or an array.
+   */
+  bool _cachesHashCode(List<TypeObjectField> fields) {
+    if (generateSetters || fields.isEmpty) {
+      return false;
+    }
+    for (TypeObjectField field in fields) {
+      if (isList(field.type) || isArray(field.type) || isMap(field.type)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   String _getEqualsLogicForField(TypeObjectField field, String other) {
     String name = javaName(field.name);
     if (isPrimitive(field.type) && !field.optional) {
@@ -169,6 +417,27 @@ class CodegenJavaType extends CodegenJavaVisitor {
     }
   }
 
+  /**
+   * For some [TypeObjectField] return the [String] source for the hash code of
+   * the field value, without boxing primitives.
+   */
+  String _getHashCodeLogicForField(TypeObjectField field) {
+    String name = javaName(field.name);
+    if (isPrimitive(field.type) && !field.optional) {
+      String type = javaType(field.type);
+      if (type == 'boolean') {
+        return '(${name} ? 1231 : 1237)';
+      } else if (type == 'long') {
+        return '(int) (${name} ^ (${name} >>> 32))';
+      }
+      return name;
+    } else if (isArray(field.type)) {
+      return 'Arrays.hashCode(${name})';
+    } else {
+      return '(${name} == null ? 0 : ${name}.hashCode())';
+    }
+  }
+
   /**
    * For some [TypeObjectField] return the [String] source for the field value
    * for the toString generation.
@@ -274,10 +543,14 @@ class CodegenJavaType extends CodegenJavaVisitor {
     });
   }
 
-  void _writeTypeObject(TypeDecl type, dom.Element html) {
+  /**
+   * Write the imports of the classes of an object type.
+   */
+  void _writeImports() {
     writeln('import java.util.Arrays;');
     writeln('import java.util.List;');
     writeln('import java.util.Map;');
+    writeln('import com.google.common.collect.ImmutableList;');
     writeln('import com.google.common.collect.Lists;');
     writeln('import com.google.dart.server.utilities.general.JsonUtilities;');
     writeln('import com.google.dart.server.utilities.general.ObjectUtilities;');
@@ -285,11 +558,46 @@ class CodegenJavaType extends CodegenJavaVisitor {
     writeln('import com.google.gson.JsonElement;');
     writeln('import com.google.gson.JsonObject;');
     writeln('import com.google.gson.JsonPrimitive;');
-    writeln('import org.apache.commons.lang3.builder.HashCodeBuilder;');
     writeln('import java.util.ArrayList;');
     writeln('import java.util.Iterator;');
     writeln('import org.apache.commons.lang3.StringUtils;');
     writeln();
+  }
+
+  /**
+   * For some [TypeObjectField] write out the source of the expression decoding
+   * the field from 'jsonObject'.
+   */
+  void _writeJsonDecoding(TypeObjectField field) {
+    if (field.optional) {
+      write('jsonObject.get("${javaName(field.name)}") == null ? null : ');
+    }
+    if (isDeclaredInSpec(field.type)) {
+      write('${javaFieldType(field)}.fromJson(');
+      write('jsonObject.get("${javaName(field.name)}").getAsJsonObject())');
+    } else {
+      if (isList(field.type)) {
+        if (javaFieldType(field).endsWith('<String>')) {
+          write(
+              'decodeStringList(jsonObject.get("${javaName(field.name)}").${_getAsTypeMethodName(field.type)}())');
+        } else {
+          write(
+              '${javaType((field.type as TypeList).itemType)}.fromJsonArray(jsonObject.get("${javaName(field.name)}").${_getAsTypeMethodName(field.type)}())');
+        }
+      } else if (isArray(field.type)) {
+        if (javaFieldType(field).startsWith('int')) {
+          write(
+              'JsonUtilities.decodeIntArray(jsonObject.get("${javaName(field.name)}").${_getAsTypeMethodName(field.type)}())');
+        }
+      } else {
+        write(
+            'jsonObject.get("${javaName(field.name)}").${_getAsTypeMethodName(field.type)}()');
+      }
+    }
+  }
+
+  void _writeTypeObject(TypeDecl type, dom.Element html) {
+    _writeImports();
     javadocComment(toHtmlVisitor.collectHtml(() {
       toHtmlVisitor.translateHtml(html);
       toHtmlVisitor.br();
@@ -317,7 +625,7 @@ class CodegenJavaType extends CodegenJavaVisitor {
       //
       publicField(javaName("EMPTY_LIST"), () {
         writeln(
-            'public static final List<${className}> EMPTY_LIST = Lists.newArrayList();');
+            'public static final List<${className}> EMPTY_LIST = ImmutableList.of();');
       });
 
       //
@@ -360,6 +668,16 @@ class CodegenJavaType extends CodegenJavaVisitor {
           writeln('private String file;');
         });
       }
+      bool cachesHashCode = _cachesHashCode(fields);
+      if (cachesHashCode) {
+        privateField(javaName('cachedHashCode'), () {
+          writeln('/**');
+          writeln(
+              ' * The hash code of this object, or {@code 0} if it has not been computed yet.');
+          writeln(' */');
+          writeln('private int cachedHashCode;');
+        });
+      }
 
       //
       // constructor
@@ -490,33 +808,7 @@ class CodegenJavaType extends CodegenJavaVisitor {
           indent(() {
             for (TypeObjectField field in fields) {
               write('${javaFieldType(field)} ${javaName(field.name)} = ');
-              if (field.optional) {
-                write(
-                    'jsonObject.get("${javaName(field.name)}") == null ? null : ');
-              }
-              if (isDeclaredInSpec(field.type)) {
-                write('${javaFieldType(field)}.fromJson(');
-                write(
-                    'jsonObject.get("${javaName(field.name)}").getAsJsonObject())');
-              } else {
-                if (isList(field.type)) {
-                  if (javaFieldType(field).endsWith('<String>')) {
-                    write(
-                        'JsonUtilities.decodeStringList(jsonObject.get("${javaName(field.name)}").${_getAsTypeMethodName(field.type)}())');
-                  } else {
-                    write(
-                        '${javaType((field.type as TypeList).itemType)}.fromJsonArray(jsonObject.get("${javaName(field.name)}").${_getAsTypeMethodName(field.type)}())');
-                  }
-                } else if (isArray(field.type)) {
-                  if (javaFieldType(field).startsWith('int')) {
-                    write(
-                        'JsonUtilities.decodeIntArray(jsonObject.get("${javaName(field.name)}").${_getAsTypeMethodName(field.type)}())');
-                  }
-                } else {
-                  write(
-                      'jsonObject.get("${javaName(field.name)}").${_getAsTypeMethodName(field.type)}()');
-                }
-              }
+              _writeJsonDecoding(field);
               writeln(';');
             }
             write('return new ${className}(');
@@ -545,16 +837,16 @@ class CodegenJavaType extends CodegenJavaVisitor {
   Outline outline = new Outline(parent, element, offset, length);
 
   // compute children recursively
-  List<Outline> childrenList = Lists.newArrayList();
+  ImmutableList.Builder<Outline> childrenBuilder = ImmutableList.builder();
   JsonElement childrenJsonArray = outlineObject.get("children");
   if (childrenJsonArray instanceof JsonArray) {
     Iterator<JsonElement> childrenElementIterator = ((JsonArray) childrenJsonArray).iterator();
     while (childrenElementIterator.hasNext()) {
       JsonObject childObject = childrenElementIterator.next().getAsJsonObject();
-      childrenList.add(fromJson(outline, childObject));
+      childrenBuilder.add(fromJson(outline, childObject));
     }
   }
-  outline.setChildren(childrenList);
+  outline.setChildren(childrenBuilder.build());
   return outline;
 }''');
         });
@@ -575,21 +867,39 @@ class CodegenJavaType extends CodegenJavaVisitor {
           writeln(
               'public static List<${className}> fromJsonArray(JsonArray jsonArray) {');
           indent(() {
-            writeln('if (jsonArray == null) {');
+            writeln('if (jsonArray == null || jsonArray.size() == 0) {');
             writeln('  return EMPTY_LIST;');
             writeln('}');
             writeln(
-                'ArrayList<${className}> list = new ArrayList<${className}>(jsonArray.size());');
-            writeln('Iterator<JsonElement> iterator = jsonArray.iterator();');
-            writeln('while (iterator.hasNext()) {');
-            writeln('  list.add(fromJson(iterator.next().getAsJsonObject()));');
+                'ImmutableList.Builder<${className}> builder = ImmutableList.builder();');
+            writeln('for (JsonElement element : jsonArray) {');
+            writeln('  builder.add(fromJson(element.getAsJsonObject()));');
             writeln('}');
-            writeln('return list;');
+            writeln('return builder.build();');
           });
           writeln('}');
         });
       }
 
+      //
+      // decodeStringList(JsonArray) helper
+      //
+      if (fields.any((TypeObjectField field) =>
+          isList(field.type) && javaFieldType(field).endsWith('<String>'))) {
+        privateMethod('decodeStringList', () {
+          writeln('''/**
+ * Return the strings of the given array as an immutable list.
+ */
+private static List<String> decodeStringList(JsonArray jsonArray) {
+  ImmutableList.Builder<String> builder = ImmutableList.builder();
+  for (JsonElement element : jsonArray) {
+    builder.add(element.getAsString());
+  }
+  return builder.build();
+}''');
+        });
+      }
+
       //
       // toJson() method, example:
 //      public JsonObject toJson() {
@@ -632,6 +942,12 @@ class CodegenJavaType extends CodegenJavaVisitor {
           writeln('if (obj instanceof ${className}) {');
           indent(() {
             writeln('${className} other = (${className}) obj;');
+            if (cachesHashCode) {
+              writeln(
+                  'if (cachedHashCode != 0 && other.cachedHashCode != 0 && cachedHashCode != other.cachedHashCode) {');
+              writeln('  return false;');
+              writeln('}');
+            }
             writeln('return');
             indent(() {
               List<String> equalsForField = new List<String>();
@@ -692,11 +1008,25 @@ class CodegenJavaType extends CodegenJavaVisitor {
         writeln('@Override');
         writeln('public int hashCode() {');
         indent(() {
-          writeln('HashCodeBuilder builder = new HashCodeBuilder();');
-          for (int i = 0; i < fields.length; i++) {
-            writeln("builder.append(${javaName(fields[i].name)});");
+          void writeHashCodeLogic(String initialization) {
+            writeln(initialization);
+            for (TypeObjectField field in fields) {
+              writeln(
+                  'hash = hash * 31 + ${_getHashCodeLogicForField(field)};');
+            }
+          }
+          if (cachesHashCode) {
+            writeln('int hash = cachedHashCode;');
+            writeln('if (hash == 0) {');
+            indent(() {
+              writeHashCodeLogic('hash = 1;');
+              writeln('cachedHashCode = hash;');
+            });
+            writeln('}');
+          } else {
+            writeHashCodeLogic('int hash = 1;');
           }
-          writeln('return builder.toHashCode();');
+          writeln('return hash;');
         });
         writeln('}');
       });
@@ -0,0 +1,492 @@
+// Copyright (c) 2014, the Dart project authors.  Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+/**
+ * Code generation for the file "NotificationMetrics.java".
+ */
+library java.generator.metrics;
+
+import 'api.dart';
+import 'codegen_java.dart';
+import 'codegen_tools.dart';
+
+final GeneratedFile target = javaGeneratedFile(
+    'generated/java/NotificationMetrics.java',
+    (Api api) => new CodegenNotificationMetrics(api));
+
+/**
+ * Translate spec_input.html into NotificationMetrics.java.
+ */
+main() {
+  target.generate();
+}
+
+class CodegenNotificationMetrics extends CodegenJavaVisitor {
+  CodegenNotificationMetrics(Api api) : super(api);
+
+  /**
+   * The notifications defined by the API, in the order they are declared.
+   */
+  List<Notification> get notifications {
+    List<Notification> notifications = <Notification>[];
+    for (Domain domain in api.domains) {
+      notifications.addAll(domain.notifications);
+    }
+    return notifications;
+  }
+
+  /**
+   * Return the values of the enum type with the given [typeName].
+   */
+  List<String> enumValues(String typeName) {
+    TypeEnum typeEnum = api.types[typeName].type as TypeEnum;
+    return typeEnum.values.map((TypeEnumValue value) => value.value).toList();
+  }
+
+  /**
+   * Return `true` if values of the given [type] are decoded into protocol
+   * objects, or into lists of them.
+   */
+  bool holdsObjects(TypeDecl type) {
+    if (type is TypeList) {
+      return holdsObjects(type.itemType);
+    }
+    return isDeclaredInSpec(type);
+  }
+
+  /**
+   * Return the Java expression which counts the objects produced by decoding
+   * the given notification [field], or `null` if no object is produced.
+   */
+  String objectCountExpression(TypeObjectField field) {
+    if (holdsObjects(field.type)) {
+      return 'objectCount(params.get("${field.name}"))';
+    }
+    return null;
+  }
+
+  @override
+  void visitApi() {
+    outputHeader(javaStyle: true);
+    writeln('package com.google.dart.server.generated;');
+    writeln();
+    writeln('import com.google.gson.JsonArray;');
+    writeln('import com.google.gson.JsonElement;');
+    writeln('import com.google.gson.JsonObject;');
+    writeln('import org.dartlang.analysis.server.protocol.AnalysisService;');
+    writeln();
+    writeln('import java.util.HashMap;');
+    writeln('import java.util.Map;');
+    writeln('import java.util.concurrent.ConcurrentHashMap;');
+    writeln('import java.util.concurrent.atomic.AtomicLongArray;');
+    writeln();
+    writeln('''/**
+ * The class {@code NotificationMetrics} records, for every notification defined by the analysis
+ * server protocol, the number of bytes received, the time spent decoding, the number of objects
+ * produced and the time spent in each listener. Statistics are kept per event and per file size
+ * bucket, so that expensive subscriptions can be identified for large files.
+ *
+ * @coverage dart.server
+ */''');
+    makeClass('public class NotificationMetrics', () {
+      publicField('EVENTS', () {
+        writeln('''/**
+ * The names of the notifications for which metrics are recorded.
+ */''');
+        writeln('public static final String[] EVENTS = {');
+        indent(() {
+          for (Notification notification in notifications) {
+            writeln('"${notification.longEvent}",');
+          }
+        });
+        writeln('};');
+      });
+      publicField('FILE_SIZE_LIMITS', () {
+        writeln('''/**
+ * The upper bounds (exclusive, in characters) of all but the last file size bucket.
+ */
+public static final int[] FILE_SIZE_LIMITS = {16 * 1024, 64 * 1024, 256 * 1024, 1024 * 1024};''');
+      });
+      publicField('NO_FILE_BUCKET', () {
+        writeln('''/**
+ * The index of the bucket of the notifications which are not about a single file, which follows
+ * the file size buckets.
+ */
+public static final int NO_FILE_BUCKET = FILE_SIZE_LIMITS.length + 1;''');
+      });
+      publicField('FILE_SIZE_BUCKET_COUNT', () {
+        writeln('''/**
+ * The number of buckets, including {@link #NO_FILE_BUCKET}.
+ */
+public static final int FILE_SIZE_BUCKET_COUNT = FILE_SIZE_LIMITS.length + 2;''');
+      });
+      publicField('HISTOGRAM_SIZE', () {
+        writeln('''/**
+ * The number of buckets in each histogram. Bucket {@code i} counts the values whose highest set
+ * bit is {@code i - 1}, bucket {@code 0} counts zero values.
+ */
+public static final int HISTOGRAM_SIZE = 64;''');
+      });
+      privateField('EVENT_INDEX', () {
+        writeln('''/**
+ * A table mapping the names of the notifications to their index in {@link #EVENTS}.
+ */
+private static final Map<String, Integer> EVENT_INDEX = createEventIndex();''');
+      });
+      privateField('counts', () {
+        writeln('''/**
+ * The number of notifications received, per event and file size bucket.
+ */
+private final AtomicLongArray counts = new AtomicLongArray(EVENTS.length * FILE_SIZE_BUCKET_COUNT);''');
+      });
+      privateField('bytes', () {
+        writeln('''/**
+ * The total number of bytes received, per event and file size bucket.
+ */
+private final AtomicLongArray bytes = new AtomicLongArray(EVENTS.length * FILE_SIZE_BUCKET_COUNT);''');
+      });
+      privateField('decodeNanos', () {
+        writeln('''/**
+ * The total time spent decoding, per event and file size bucket.
+ */
+private final AtomicLongArray decodeNanos = new AtomicLongArray(EVENTS.length
+    * FILE_SIZE_BUCKET_COUNT);''');
+      });
+      privateField('objects', () {
+        writeln('''/**
+ * The total number of objects produced by decoding, per event and file size bucket.
+ */
+private final AtomicLongArray objects = new AtomicLongArray(EVENTS.length * FILE_SIZE_BUCKET_COUNT);''');
+      });
+      privateField('bytesHistogram', () {
+        writeln('''/**
+ * The distribution of payload sizes, per event and file size bucket.
+ */
+private final AtomicLongArray bytesHistogram = new AtomicLongArray(EVENTS.length
+    * FILE_SIZE_BUCKET_COUNT * HISTOGRAM_SIZE);''');
+      });
+      privateField('decodeHistogram', () {
+        writeln('''/**
+ * The distribution of decoding times in nanoseconds, per event and file size bucket.
+ */
+private final AtomicLongArray decodeHistogram = new AtomicLongArray(EVENTS.length
+    * FILE_SIZE_BUCKET_COUNT * HISTOGRAM_SIZE);''');
+      });
+      privateField('listenerStatistics', () {
+        writeln('''/**
+ * A table mapping event and listener names to the listener statistics, which are the number of
+ * invocations, the total time and the distribution of times spent in the listener.
+ */
+private final ConcurrentHashMap<String, AtomicLongArray> listenerStatistics = new ConcurrentHashMap<String, AtomicLongArray>();''');
+      });
+
+      //
+      // Spec derived queries.
+      //
+      publicMethod('countObjects', () {
+        writeln('''/**
+ * Return the number of protocol objects that decoding the parameters of the given notification
+ * produces, including the objects nested in other objects, such as the children of an outline or
+ * the locations of search results. Strings, such as file paths or ids, are not counted.
+ *
+ * @param event the name of the notification, such as {@code analysis.highlights}
+ * @param params the parameters of the notification
+ */''');
+        writeln(
+            'public static int countObjects(String event, JsonObject params) {');
+        indent(() {
+          writeln('if (params == null) {');
+          writeln('  return 0;');
+          writeln('}');
+          for (Notification notification in notifications) {
+            if (notification.params == null) {
+              continue;
+            }
+            List<String> expressions = <String>[];
+            for (TypeObjectField field in notification.params.fields) {
+              String expression = objectCountExpression(field);
+              if (expression != null) {
+                expressions.add(expression);
+              }
+            }
+            if (expressions.isNotEmpty) {
+              writeln('if (event.equals("${notification.longEvent}")) {');
+              writeln('  return ${expressions.join(' + ')};');
+              writeln('}');
+            }
+          }
+          writeln('return 0;');
+        });
+        writeln('}');
+      });
+      publicMethod('getAnalysisService', () {
+        writeln('''/**
+ * Return the {@link AnalysisService} which must be subscribed to in order to receive the given
+ * notification, or {@code null} if the notification cannot be turned off by
+ * {@code analysis.setSubscriptions}.
+ *
+ * @param event the name of the notification, such as {@code analysis.highlights}
+ */''');
+        writeln('public static String getAnalysisService(String event) {');
+        indent(() {
+          List<String> services = enumValues('AnalysisService');
+          for (Notification notification in notifications) {
+            String service = notification.event.toUpperCase();
+            if (notification.domainName == 'analysis' &&
+                services.contains(service)) {
+              writeln('if (event.equals("${notification.longEvent}")) {');
+              writeln('  return AnalysisService.${service};');
+              writeln('}');
+            }
+          }
+          writeln('return null;');
+        });
+        writeln('}');
+      });
+
+      //
+      // Statistics.
+      //
+      publicMethod('fileSizeBucket', () {
+        writeln('''/**
+ * Return the index of the file size bucket for a file with the given number of characters, or
+ * {@link #NO_FILE_BUCKET} if the size is {@code -1}.
+ */
+public static int fileSizeBucket(long fileSize) {
+  if (fileSize < 0) {
+    return NO_FILE_BUCKET;
+  }
+  int bucket = 0;
+  while (bucket < FILE_SIZE_LIMITS.length && fileSize >= FILE_SIZE_LIMITS[bucket]) {
+    bucket++;
+  }
+  return bucket;
+}''');
+      });
+      publicMethod('getBytes', () {
+        writeln('''/**
+ * Return the total number of bytes received for the given event and file size bucket.
+ */
+public long getBytes(String event, int bucket) {
+  return get(bytes, event, bucket);
+}''');
+      });
+      publicMethod('getBytesHistogram', () {
+        writeln('''/**
+ * Return the distribution of payload sizes for the given event and file size bucket.
+ */
+public long[] getBytesHistogram(String event, int bucket) {
+  return getHistogram(bytesHistogram, event, bucket);
+}''');
+      });
+      publicMethod('getCount', () {
+        writeln('''/**
+ * Return the number of notifications received for the given event and file size bucket.
+ */
+public long getCount(String event, int bucket) {
+  return get(counts, event, bucket);
+}''');
+      });
+      publicMethod('getDecodeHistogram', () {
+        writeln('''/**
+ * Return the distribution of decoding times for the given event and file size bucket.
+ */
+public long[] getDecodeHistogram(String event, int bucket) {
+  return getHistogram(decodeHistogram, event, bucket);
+}''');
+      });
+      publicMethod('getDecodeNanos', () {
+        writeln('''/**
+ * Return the total time spent decoding the given event for the given file size bucket.
+ */
+public long getDecodeNanos(String event, int bucket) {
+  return get(decodeNanos, event, bucket);
+}''');
+      });
+      publicMethod('getListenerCount', () {
+        writeln('''/**
+ * Return the number of times the listener with the given name has been invoked for the event.
+ */
+public long getListenerCount(String event, String listenerName) {
+  AtomicLongArray statistics = listenerStatistics.get(listenerKey(event, listenerName));
+  return statistics != null ? statistics.get(0) : 0;
+}''');
+      });
+      publicMethod('getListenerHistogram', () {
+        writeln('''/**
+ * Return the distribution of the times spent by the listener with the given name in the event.
+ */
+public long[] getListenerHistogram(String event, String listenerName) {
+  long[] histogram = new long[HISTOGRAM_SIZE];
+  AtomicLongArray statistics = listenerStatistics.get(listenerKey(event, listenerName));
+  if (statistics != null) {
+    for (int i = 0; i < HISTOGRAM_SIZE; i++) {
+      histogram[i] = statistics.get(2 + i);
+    }
+  }
+  return histogram;
+}''');
+      });
+      publicMethod('getListenerNanos', () {
+        writeln('''/**
+ * Return the total time spent by the listener with the given name processing the event.
+ */
+public long getListenerNanos(String event, String listenerName) {
+  AtomicLongArray statistics = listenerStatistics.get(listenerKey(event, listenerName));
+  return statistics != null ? statistics.get(1) : 0;
+}''');
+      });
+      publicMethod('getObjects', () {
+        writeln('''/**
+ * Return the total number of objects produced by decoding the given event for the given file size
+ * bucket.
+ */
+public long getObjects(String event, int bucket) {
+  return get(objects, event, bucket);
+}''');
+      });
+      publicMethod('recordDecode', () {
+        writeln('''/**
+ * Record that a notification has been received and decoded.
+ *
+ * @param event the name of the notification, such as {@code analysis.navigation}
+ * @param fileSize the number of characters in the file the notification is about, or {@code -1}
+ *          if the notification is not about a single file, in which case it is counted in
+ *          {@link #NO_FILE_BUCKET}
+ * @param byteCount the number of bytes in the notification
+ * @param nanos the time spent decoding the notification
+ * @param objectCount the number of objects produced by decoding the notification
+ */
+public void recordDecode(String event, long fileSize, int byteCount, long nanos, int objectCount) {
+  Integer index = EVENT_INDEX.get(event);
+  if (index == null) {
+    return;
+  }
+  int slot = index * FILE_SIZE_BUCKET_COUNT + fileSizeBucket(fileSize);
+  counts.incrementAndGet(slot);
+  bytes.addAndGet(slot, byteCount);
+  decodeNanos.addAndGet(slot, nanos);
+  objects.addAndGet(slot, objectCount);
+  bytesHistogram.incrementAndGet(slot * HISTOGRAM_SIZE + histogramBucket(byteCount));
+  decodeHistogram.incrementAndGet(slot * HISTOGRAM_SIZE + histogramBucket(nanos));
+}''');
+      });
+      publicMethod('recordListener', () {
+        writeln('''/**
+ * Record that a listener has processed a notification.
+ *
+ * @param event the name of the notification, such as {@code analysis.navigation}
+ * @param listener the listener that processed the notification
+ * @param nanos the time spent in the listener
+ */
+public void recordListener(String event, Object listener, long nanos) {
+  String key = listenerKey(event, listener.getClass().getName());
+  AtomicLongArray statistics = listenerStatistics.get(key);
+  if (statistics == null) {
+    statistics = new AtomicLongArray(2 + HISTOGRAM_SIZE);
+    AtomicLongArray previous = listenerStatistics.putIfAbsent(key, statistics);
+    if (previous != null) {
+      statistics = previous;
+    }
+  }
+  statistics.incrementAndGet(0);
+  statistics.addAndGet(1, nanos);
+  statistics.incrementAndGet(2 + histogramBucket(nanos));
+}''');
+      });
+      publicMethod('toString', () {
+        writeln(r'''@Override
+public String toString() {
+  StringBuilder builder = new StringBuilder();
+  for (int index = 0; index < EVENTS.length; index++) {
+    for (int bucket = 0; bucket < FILE_SIZE_BUCKET_COUNT; bucket++) {
+      int slot = index * FILE_SIZE_BUCKET_COUNT + bucket;
+      long count = counts.get(slot);
+      if (count != 0) {
+        builder.append(EVENTS[index]);
+        builder.append(" [bucket=" + bucket + "]");
+        builder.append(" count=" + count);
+        builder.append(", bytes=" + bytes.get(slot));
+        builder.append(", decodeNanos=" + decodeNanos.get(slot));
+        builder.append(", objects=" + objects.get(slot));
+        builder.append("\n");
+      }
+    }
+  }
+  for (Map.Entry<String, AtomicLongArray> entry : listenerStatistics.entrySet()) {
+    builder.append(entry.getKey());
+    builder.append(" count=" + entry.getValue().get(0));
+    builder.append(", nanos=" + entry.getValue().get(1));
+    builder.append("\n");
+  }
+  return builder.toString();
+}''');
+      });
+      privateMethod('createEventIndex', () {
+        writeln('''private static Map<String, Integer> createEventIndex() {
+  Map<String, Integer> index = new HashMap<String, Integer>();
+  for (int i = 0; i < EVENTS.length; i++) {
+    index.put(EVENTS[i], i);
+  }
+  return index;
+}''');
+      });
+      privateMethod('get', () {
+        writeln('''private long get(AtomicLongArray array, String event, int bucket) {
+  Integer index = EVENT_INDEX.get(event);
+  if (index == null) {
+    return 0;
+  }
+  return array.get(index * FILE_SIZE_BUCKET_COUNT + bucket);
+}''');
+      });
+      privateMethod('getHistogram', () {
+        writeln('''private long[] getHistogram(AtomicLongArray array, String event, int bucket) {
+  long[] histogram = new long[HISTOGRAM_SIZE];
+  Integer index = EVENT_INDEX.get(event);
+  if (index != null) {
+    int offset = (index * FILE_SIZE_BUCKET_COUNT + bucket) * HISTOGRAM_SIZE;
+    for (int i = 0; i < HISTOGRAM_SIZE; i++) {
+      histogram[i] = array.get(offset + i);
+    }
+  }
+  return histogram;
+}''');
+      });
+      privateMethod('histogramBucket', () {
+        writeln('''private static int histogramBucket(long value) {
+  if (value <= 0) {
+    return 0;
+  }
+  return Math.min(HISTOGRAM_SIZE - 1, 64 - Long.numberOfLeadingZeros(value));
+}''');
+      });
+      privateMethod('listenerKey', () {
+        writeln('''private static String listenerKey(String event, String listenerName) {
+  return event + " " + listenerName;
+}''');
+      });
+      privateMethod('objectCount', () {
+        writeln('''/**
+ * Return the number of JSON objects in the given element, including the element itself and the
+ * objects nested in it. Each JSON object is decoded into a protocol object.
+ */
+private static int objectCount(JsonElement element) {
+  int count = 0;
+  if (element instanceof JsonObject) {
+    count++;
+    for (Map.Entry<String, JsonElement> entry : ((JsonObject) element).entrySet()) {
+      count += objectCount(entry.getValue());
+    }
+  } else if (element instanceof JsonArray) {
+    for (JsonElement child : (JsonArray) element) {
+      count += objectCount(child);
+    }
+  }
+  return count;
+}''');
+      });
+    });
+  }
+}
@@ -0,0 +1,551 @@
+// Copyright (c) 2014, the Dart project authors.  Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+/**
+ * Code generation for the file "PrioritizedAnalysisServer.java".
+ */
+library java.generator.prioritized;
+
+import 'api.dart';
+import 'codegen_java.dart';
+import 'codegen_java_callbacks.dart';
+import 'codegen_tools.dart';
+
+final GeneratedFile target = javaGeneratedFile(
+    'generated/java/PrioritizedAnalysisServer.java',
+    (Api api) => new CodegenPrioritizedServer(api));
+
+/**
+ * Translate spec_input.html into PrioritizedAnalysisServer.java.
+ */
+main() {
+  target.generate();
+}
+
+/**
+ * Visitor that generates an implementation of the analysis server interface
+ * which holds back background requests while interactive requests are sent
+ * immediately.
+ */
+class CodegenPrioritizedServer extends CodegenJavaCallbacks {
+  CodegenPrioritizedServer(Api api) : super(api);
+
+  /**
+   * Return the first parameter of [request] holding a single file, or `null`
+   * if there is no such parameter.
+   */
+  TypeObjectField fileParameter(Request request) {
+    if (request.params != null) {
+      for (TypeObjectField field in request.params.fields) {
+        if (field.type is TypeReference &&
+            (field.type as TypeReference).typeName == 'FilePath') {
+          return field;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Return `true` if [request] is always sent immediately: requests which
+   * change the state of the server (they have no result, or set or update
+   * something), server requests and completion requests.
+   */
+  bool isImmediate(Request request) {
+    return request.result == null ||
+        request.domainName == 'completion' ||
+        request.domainName == 'server' ||
+        request.method.startsWith('set') ||
+        request.method.startsWith('update');
+  }
+
+  @override
+  void visitApi() {
+    outputHeader(javaStyle: true);
+    writeln('package com.google.dart.server.generated;');
+    writeln();
+    writeln('import com.google.dart.server.*;');
+    writeln('import com.google.dart.server.generated.callbacks.*;');
+    writeln('import org.dartlang.analysis.server.protocol.*;');
+    writeln();
+    writeln('import java.util.ArrayList;');
+    writeln('import java.util.Collection;');
+    writeln('import java.util.HashSet;');
+    writeln('import java.util.Iterator;');
+    writeln('import java.util.LinkedList;');
+    writeln('import java.util.List;');
+    writeln('import java.util.ListIterator;');
+    writeln('import java.util.Map;');
+    writeln('import java.util.Set;');
+    writeln('import java.util.concurrent.TimeUnit;');
+    writeln();
+    writeln('''/**
+ * The class {@code PrioritizedAnalysisServer} implements {@link AnalysisServer} on top of another
+ * server, sending interactive requests immediately and holding back background requests so that
+ * no more than a fixed number of them are waiting for a response at any time.
+ * <p>
+ * Requests about one of the files passed to {@link #analysis_setPriorityFiles}, completion and
+ * server requests, and requests changing the state of the server (such as
+ * {@code analysis.updateContent}) are interactive. All the other requests, such as
+ * {@code analysis.getErrors} for a file which is not a priority file or
+ * {@code search.findMemberReferences}, are background requests, which are sent in the order in
+ * which they were made. A background request which is still queued when its file becomes a
+ * priority file is moved to the front of the queue.
+ * <p>
+ * A background request is considered complete when its response or error is received, or once it
+ * has been waiting for longer than a timeout, so that requests whose response is lost, for example
+ * because the server has disconnected, do not hold back the other requests forever. The
+ * notifications following the response of some requests, such as search results, are not waited
+ * for.
+ * <p>
+ * A queued background request about a file changed by {@code analysis.updateContent} is not sent,
+ * and fails with {@link RequestErrorCode#CONTENT_MODIFIED} like a request overtaken by a change in
+ * the server, so that no response describes content which changed after the request was made.
+ * <p>
+ * Speculative requests, such as the {@code analysis.getHover} requests of a prefetcher, are
+ * sent through the server returned by {@link #getLowPriorityServer}, which holds them back like
+ * background requests even if they are about priority files, and sends them after the other
+ * queued background requests.
+ *
+ * @coverage dart.server
+ */''');
+    makeClass('public class PrioritizedAnalysisServer implements AnalysisServer', () {
+      privateField('DEFAULT_TIMEOUT_MILLIS', () {
+        writeln('''/**
+ * The default time after which a background request which is still waiting for a response is
+ * considered complete, in milliseconds.
+ */
+private static final long DEFAULT_TIMEOUT_MILLIS = 60000;''');
+      });
+      privateField('server', () {
+        writeln('''/**
+ * The server the requests are sent to.
+ */
+private final AnalysisServer server;''');
+      });
+      privateField('maxBackgroundRequests', () {
+        writeln('''/**
+ * The maximum number of background requests waiting for a response.
+ */
+private final int maxBackgroundRequests;''');
+      });
+      privateField('timeout', () {
+        writeln('''/**
+ * The time after which a background request which is still waiting for a response is considered
+ * complete, in nanoseconds.
+ */
+private final long timeout;''');
+      });
+      privateField('queue', () {
+        writeln('''/**
+ * The background requests which have not been sent yet, in the order in which they were made.
+ */
+private final LinkedList<BackgroundRequest> queue;''');
+      });
+      privateField('priorityFiles', () {
+        writeln('''/**
+ * The files passed to the last invocation of {@link #analysis_setPriorityFiles}, guarded by
+ * {@link #queue}.
+ */
+private final Set<String> priorityFiles;''');
+      });
+      privateField('sent', () {
+        writeln('''/**
+ * The background requests waiting for a response, in the order in which they were sent, guarded
+ * by {@link #queue}.
+ */
+private final LinkedList<BackgroundRequest> sent;''');
+      });
+      privateField('lowPriority', () {
+        writeln('''/**
+ * {@code true} if this server is the low priority server of another server, with which it shares
+ * its queue, its priority files and its sent requests.
+ */
+private final boolean lowPriority;''');
+      });
+      privateField('lowPriorityServer', () {
+        writeln('''/**
+ * The server sending its requests through this server as low priority requests.
+ */
+private final PrioritizedAnalysisServer lowPriorityServer;''');
+      });
+      privateField('BackgroundRequest', () {
+        writeln('''/**
+ * A background request.
+ */
+private abstract class BackgroundRequest {
+  /**
+   * The file the request is about, or {@code null} if the request is not about a file.
+   */
+  final String file;
+
+  /**
+   * {@code true} if the request was made through the low priority server.
+   */
+  final boolean lowPriority;
+
+  /**
+   * The value of {@link System#nanoTime} when the request was sent, guarded by {@link #queue}.
+   */
+  long sendTime;
+
+  BackgroundRequest(String file) {
+    this.file = file;
+    this.lowPriority = PrioritizedAnalysisServer.this.lowPriority;
+  }
+
+  /**
+   * Record that the response or the error of the request has been received, and send the queued
+   * requests which were held back by it.
+   */
+  void complete() {
+    synchronized (queue) {
+      if (!sent.remove(this)) {
+        return;
+      }
+    }
+    sendQueued();
+  }
+
+  /**
+   * Invoke the callback of the request with the given error instead of sending the request.
+   */
+  abstract void fail(RequestError requestError);
+
+  /**
+   * Send the request to the server, invoking {@link #complete} once it has been answered.
+   */
+  abstract void send();
+}''');
+      });
+      constructor('PrioritizedAnalysisServer', () {
+        writeln('''/**
+ * Initialize a newly created server to send the requests to the given server, allowing the given
+ * number of background requests to wait for a response at any time.
+ */
+public PrioritizedAnalysisServer(AnalysisServer server, int maxBackgroundRequests) {
+  this(server, maxBackgroundRequests, DEFAULT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+}''');
+      });
+      constructor('PrioritizedAnalysisServer with timeout', () {
+        writeln('''/**
+ * Initialize a newly created server to send the requests to the given server, allowing the given
+ * number of background requests to wait for a response at any time, and considering a background
+ * request as complete once it has been waiting for a response for the given time.
+ */
+public PrioritizedAnalysisServer(AnalysisServer server, int maxBackgroundRequests, long timeout,
+    TimeUnit unit) {
+  if (maxBackgroundRequests < 1) {
+    throw new IllegalArgumentException("maxBackgroundRequests: " + maxBackgroundRequests);
+  }
+  if (timeout <= 0) {
+    throw new IllegalArgumentException("timeout: " + timeout);
+  }
+  this.server = server;
+  this.maxBackgroundRequests = maxBackgroundRequests;
+  this.timeout = unit.toNanos(timeout);
+  queue = new LinkedList<BackgroundRequest>();
+  priorityFiles = new HashSet<String>();
+  sent = new LinkedList<BackgroundRequest>();
+  lowPriority = false;
+  lowPriorityServer = new PrioritizedAnalysisServer(this);
+}''');
+      });
+      constructor('PrioritizedAnalysisServer with low priority', () {
+        writeln('''/**
+ * Initialize a newly created server to be the low priority server of the given server.
+ */
+private PrioritizedAnalysisServer(PrioritizedAnalysisServer server) {
+  this.server = server.server;
+  maxBackgroundRequests = server.maxBackgroundRequests;
+  timeout = server.timeout;
+  queue = server.queue;
+  priorityFiles = server.priorityFiles;
+  sent = server.sent;
+  lowPriority = true;
+  lowPriorityServer = this;
+}''');
+      });
+      publicMethod('addAnalysisServerListener', () {
+        writeln('''@Override
+public void addAnalysisServerListener(AnalysisServerListener listener) {
+  server.addAnalysisServerListener(listener);
+}''');
+      });
+      publicMethod('addStatusListener', () {
+        writeln('''@Override
+public void addStatusListener(AnalysisServerStatusListener listener) {
+  server.addStatusListener(listener);
+}''');
+      });
+      publicMethod('getBackgroundRequestCount', () {
+        writeln('''/**
+ * Return the number of background requests which have been sent and are waiting for a response.
+ */
+public int getBackgroundRequestCount() {
+  synchronized (queue) {
+    expireSent();
+    return sent.size();
+  }
+}''');
+      });
+      publicMethod('getLowPriorityServer', () {
+        writeln('''/**
+ * Return a server sending its requests through this server as low priority requests. The
+ * requests which would be background requests if they were made through this server, including
+ * the requests about priority files, are held back, and are sent after the other queued
+ * background requests.
+ */
+public AnalysisServer getLowPriorityServer() {
+  return lowPriorityServer;
+}''');
+      });
+      publicMethod('getQueuedRequestCount', () {
+        writeln('''/**
+ * Return the number of background requests which have not been sent yet.
+ */
+public int getQueuedRequestCount() {
+  synchronized (queue) {
+    return queue.size();
+  }
+}''');
+      });
+      publicMethod('isSocketOpen', () {
+        writeln('''@Override
+public boolean isSocketOpen() {
+  return server.isSocketOpen();
+}''');
+      });
+      publicMethod('removeAnalysisServerListener', () {
+        writeln('''@Override
+public void removeAnalysisServerListener(AnalysisServerListener listener) {
+  server.removeAnalysisServerListener(listener);
+}''');
+      });
+      publicMethod('start', () {
+        writeln('''@Override
+public void start() throws Exception {
+  server.start();
+}''');
+      });
+      super.visitApi();
+      privateMethod('enqueue', () {
+        writeln('''/**
+ * Queue the given request, after the queued low priority requests if it is a low priority
+ * request, or before them otherwise.
+ */
+private void enqueue(BackgroundRequest request) {
+  synchronized (queue) {
+    ListIterator<BackgroundRequest> iterator = queue.listIterator(queue.size());
+    if (!request.lowPriority) {
+      while (iterator.hasPrevious()) {
+        if (!iterator.previous().lowPriority) {
+          iterator.next();
+          break;
+        }
+      }
+    }
+    iterator.add(request);
+  }
+  sendQueued();
+}''');
+      });
+      privateMethod('isPriorityFile', () {
+        writeln('''/**
+ * Return {@code true} if the requests about the given file are interactive, which is never the
+ * case for the low priority server.
+ */
+private boolean isPriorityFile(String file) {
+  if (lowPriority) {
+    return false;
+  }
+  synchronized (queue) {
+    return priorityFiles.contains(file);
+  }
+}''');
+      });
+      privateMethod('expireSent', () {
+        writeln('''/**
+ * Consider as complete the background requests which have been waiting for a response for longer
+ * than the timeout. Must be invoked while holding the lock on {@link #queue}.
+ */
+private void expireSent() {
+  long now = System.nanoTime();
+  while (!sent.isEmpty() && now - sent.getFirst().sendTime >= timeout) {
+    sent.removeFirst();
+  }
+}''');
+      });
+      privateMethod('removeModified', () {
+        writeln('''/**
+ * Remove the queued background requests about the given files, whose content is being changed,
+ * and return them.
+ */
+private List<BackgroundRequest> removeModified(Collection<String> files) {
+  List<BackgroundRequest> modified = new ArrayList<BackgroundRequest>();
+  synchronized (queue) {
+    Iterator<BackgroundRequest> iterator = queue.iterator();
+    while (iterator.hasNext()) {
+      BackgroundRequest request = iterator.next();
+      if (request.file != null && files.contains(request.file)) {
+        iterator.remove();
+        modified.add(request);
+      }
+    }
+  }
+  return modified;
+}''');
+      });
+      privateMethod('sendQueued', () {
+        writeln('''/**
+ * Send the queued background requests allowed by the limit on the number of background requests.
+ */
+private void sendQueued() {
+  while (true) {
+    BackgroundRequest request;
+    synchronized (queue) {
+      expireSent();
+      if (sent.size() >= maxBackgroundRequests || queue.isEmpty()) {
+        return;
+      }
+      request = queue.removeFirst();
+      request.sendTime = System.nanoTime();
+      sent.addLast(request);
+    }
+    request.send();
+  }
+}''');
+      });
+      privateMethod('setPriorityFiles', () {
+        writeln('''/**
+ * Record the given priority files, and move the queued requests about them to the front of the
+ * queue, except for the low priority requests.
+ */
+private void setPriorityFiles(List<String> files) {
+  synchronized (queue) {
+    priorityFiles.clear();
+    priorityFiles.addAll(files);
+    List<BackgroundRequest> promoted = new ArrayList<BackgroundRequest>();
+    Iterator<BackgroundRequest> iterator = queue.iterator();
+    while (iterator.hasNext()) {
+      BackgroundRequest request = iterator.next();
+      if (request.file != null && !request.lowPriority && priorityFiles.contains(request.file)) {
+        iterator.remove();
+        promoted.add(request);
+      }
+    }
+    queue.addAll(0, promoted);
+  }
+  sendQueued();
+}''');
+      });
+    });
+  }
+
+  @override
+  void visitRequest(Request request) {
+    String methodName = '${request.domainName}_${request.method}';
+    bool immediate = isImmediate(request);
+    List<String> parameters = <String>[];
+    List<String> arguments = <String>[];
+    if (request.params != null) {
+      for (TypeObjectField field in request.params.fields) {
+        String parameter = '${javaType(field.type)} ${javaName(field.name)}';
+        parameters.add(immediate ? parameter : 'final ${parameter}');
+        arguments.add(javaName(field.name));
+      }
+    }
+    String consumer = null;
+    if (request.result != null) {
+      consumer = consumerName(request);
+      parameters.add('${consumer} consumer');
+      arguments.add('consumer');
+    }
+    publicMethod(methodName, () {
+      writeln('@Override');
+      writeln('public void ${methodName}(${parameters.join(', ')}) {');
+      indent(() {
+        if (immediate) {
+          if (request.longMethod == 'analysis.updateContent') {
+            writeln(
+                'List<BackgroundRequest> modified = removeModified(files.keySet());');
+            writeln('server.${methodName}(${arguments.join(', ')});');
+            writeln('for (BackgroundRequest request : modified) {');
+            writeln('  request.fail(new RequestError(');
+            writeln('      RequestErrorCode.CONTENT_MODIFIED,');
+            writeln('      "The content of " + request.file + " has changed",');
+            writeln('      null));');
+            writeln('}');
+            return;
+          }
+          writeln('server.${methodName}(${arguments.join(', ')});');
+          if (request.longMethod == 'analysis.setPriorityFiles') {
+            writeln('setPriorityFiles(files);');
+          }
+          return;
+        }
+        TypeObjectField fileField = fileParameter(request);
+        String file = 'null';
+        if (fileField != null) {
+          file = javaName(fileField.name);
+          writeln('if (isPriorityFile(${file})) {');
+          writeln('  server.${methodName}(${arguments.join(', ')});');
+          writeln('  return;');
+          writeln('}');
+        }
+        List<String> backgroundArguments = arguments.toList();
+        backgroundArguments[backgroundArguments.length - 1] =
+            'ClientCallbacks.toConsumer(completing)';
+        writeln(
+            'final ${callbackName(request)} callback = ClientCallbacks.toCallback(consumer);');
+        writeln('enqueue(new BackgroundRequest(${file}) {');
+        indent(() {
+          writeln('@Override');
+          writeln('void fail(RequestError requestError) {');
+          writeln('  callback.onError(requestError);');
+          writeln('}');
+          writeln();
+          writeln('@Override');
+          writeln('void send() {');
+          indent(() {
+            writeCompletingCallback(request);
+            writeln(
+                'server.${methodName}(${backgroundArguments.join(', ')});');
+          });
+          writeln('}');
+        });
+        writeln('});');
+      });
+      writeln('}');
+    });
+  }
+
+  /**
+   * Write the declaration of the callback `completing` of the response to the
+   * background [request], which records the completion of the request before
+   * invoking `callback`.
+   */
+  void writeCompletingCallback(Request request) {
+    String callback = callbackName(request);
+    List<TypeObjectField> fields = request.result.fields;
+    List<String> names = fields
+        .map((TypeObjectField field) => javaName(field.name))
+        .toList();
+    writeln('${callback} completing = new ${callback}() {');
+    indent(() {
+      writeln('@Override');
+      writeln('public void onError(RequestError requestError) {');
+      writeln('  complete();');
+      writeln('  callback.onError(requestError);');
+      writeln('}');
+      writeln();
+      writeln('@Override');
+      writeln('public void onResponse(${parameters(fields)}) {');
+      writeln('  complete();');
+      writeln('  callback.onResponse(${names.join(', ')});');
+      writeln('}');
+    });
+    writeln('};');
+  }
+}
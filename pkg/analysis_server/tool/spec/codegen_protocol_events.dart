@@ -0,0 +1,431 @@
+// Copyright (c) 2014, the Dart project authors.  Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+/**
+ * Code generation for the file "ProtocolEvents.java".
+ */
+library java.generator.events;
+
+import 'api.dart';
+import 'codegen_java.dart';
+import 'codegen_tools.dart';
+
+final GeneratedFile target = javaGeneratedFile(
+    'generated/java/ProtocolEvents.java',
+    (Api api) => new CodegenProtocolEvents(api));
+
+/**
+ * Translate spec_input.html into ProtocolEvents.java.
+ */
+main() {
+  target.generate();
+}
+
+class CodegenProtocolEvents extends CodegenJavaVisitor {
+  /**
+   * A table mapping the long names of requests and notifications to their
+   * parameters.
+   */
+  final Map<String, TypeObject> parameters = <String, TypeObject>{};
+
+  CodegenProtocolEvents(Api api) : super(api) {
+    for (Domain domain in api.domains) {
+      for (Request request in domain.requests) {
+        parameters[request.longMethod] = request.params;
+      }
+      for (Notification notification in domain.notifications) {
+        parameters[notification.longEvent] = notification.params;
+      }
+    }
+  }
+
+  /**
+   * Return the name of the parameter in [params] which holds the file the
+   * request or notification is about, or `null` if there is no such parameter.
+   */
+  String fileParameterName(TypeObject params) {
+    if (params != null) {
+      for (TypeObjectField field in params.fields) {
+        if (field.type is TypeReference &&
+            (field.type as TypeReference).typeName == 'FilePath') {
+          return field.name;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Return the name of the parameter in [params] which holds the id of the
+   * object the request or notification is about, such as a search or an
+   * execution context, or `null` if there is no such parameter.
+   */
+  String idParameterName(TypeObject params) {
+    if (params != null && params.getField('id') != null) {
+      return 'id';
+    }
+    return null;
+  }
+
+  /**
+   * Return the name of the parameter in [params] which holds the offset the
+   * request or notification is about, or `null` if there is no such parameter.
+   */
+  String offsetParameterName(TypeObject params) {
+    if (params != null) {
+      for (TypeObjectField field in params.fields) {
+        if (javaType(field.type) == 'int' &&
+            (field.name == 'offset' || field.name.endsWith('Offset'))) {
+          return field.name;
+        }
+      }
+    }
+    return null;
+  }
+
+  @override
+  void visitApi() {
+    outputHeader(javaStyle: true);
+    writeln('package com.google.dart.server.generated;');
+    writeln();
+    writeln('import com.google.gson.JsonElement;');
+    writeln('import com.google.gson.JsonObject;');
+    writeln('import com.google.gson.JsonPrimitive;');
+    writeln();
+    writeln('import jdk.jfr.Category;');
+    writeln('import jdk.jfr.DataAmount;');
+    writeln('import jdk.jfr.Description;');
+    writeln('import jdk.jfr.Event;');
+    writeln('import jdk.jfr.Label;');
+    writeln('import jdk.jfr.Name;');
+    writeln();
+    writeln('''/**
+ * The class {@code ProtocolEvents} defines the Java Flight Recorder events emitted for the
+ * lifecycle of analysis server requests and notifications: request sent, response received,
+ * decoding and listener dispatch. Each helper checks whether its event is enabled before doing any
+ * work, so the events cost nothing unless a recording is running.
+ *
+ * @coverage dart.server
+ */''');
+    makeClass('public class ProtocolEvents', () {
+      publicField('RequestSent', () {
+        writeln('''/**
+ * The event emitted when a request has been written to the server.
+ */
+@Name("org.dartlang.analysis.server.RequestSent")
+@Label("Request Sent")
+@Category({"Dart", "Analysis Server"})
+public static class RequestSent extends Event {
+  @Label("Request Id")
+  String id;
+
+  @Label("Method")
+  String method;
+
+  @Label("File")
+  String file;
+
+  @Label("Offset")
+  int offset;
+
+  @Label("Size")
+  @DataAmount
+  int bytes;
+}''');
+      });
+      publicField('ResponseReceived', () {
+        writeln('''/**
+ * The event emitted when the response to a request has been read from the server.
+ */
+@Name("org.dartlang.analysis.server.ResponseReceived")
+@Label("Response Received")
+@Category({"Dart", "Analysis Server"})
+public static class ResponseReceived extends Event {
+  @Label("Request Id")
+  String id;
+
+  @Label("Method")
+  String method;
+
+  @Label("File")
+  String file;
+
+  @Label("Offset")
+  int offset;
+
+  @Label("Error")
+  boolean error;
+
+  @Label("Size")
+  @DataAmount
+  int bytes;
+}''');
+      });
+      publicField('Decode', () {
+        writeln('''/**
+ * The event spanning the decoding of a response or notification into protocol objects.
+ */
+@Name("org.dartlang.analysis.server.Decode")
+@Label("Decode")
+@Description("Decoding of a response or notification into protocol objects")
+@Category({"Dart", "Analysis Server"})
+public static class Decode extends Event {
+  @Label("Request Id")
+  String id;
+
+  @Label("Method or Event")
+  String name;
+
+  @Label("File")
+  String file;
+
+  @Label("Offset")
+  int offset;
+
+  @Label("Size")
+  @DataAmount
+  int bytes;
+}''');
+      });
+      publicField('ListenerDispatch', () {
+        writeln('''/**
+ * The event spanning the invocation of a listener with a decoded notification.
+ */
+@Name("org.dartlang.analysis.server.ListenerDispatch")
+@Label("Listener Dispatch")
+@Category({"Dart", "Analysis Server"})
+public static class ListenerDispatch extends Event {
+  @Label("Event")
+  String name;
+
+  @Label("Id")
+  @Description("The id of the search or completion whose results are notified")
+  String id;
+
+  @Label("File")
+  String file;
+
+  @Label("Offset")
+  int offset;
+
+  @Label("Size")
+  @DataAmount
+  int bytes;
+
+  @Label("Listener")
+  String listener;
+}''');
+      });
+      publicMethod('decodeFinished', () {
+        writeln('''/**
+ * Finish the given decode event, which was returned by {@link #decodeStarted}.
+ *
+ * @param event the event to finish, may be {@code null}
+ */
+public static void decodeFinished(Decode event) {
+  if (event == null) {
+    return;
+  }
+  event.end();
+  if (event.shouldCommit()) {
+    event.commit();
+  }
+}''');
+      });
+      publicMethod('decodeStarted', () {
+        writeln('''/**
+ * Start a decode event for the given response or notification. Return the event which must be
+ * passed to {@link #decodeFinished}, or {@code null} if the event is not enabled.
+ *
+ * @param id the id of the request, or {@code null} for a notification
+ * @param name the name of the method or notification, such as {@code analysis.navigation}
+ * @param params the parameters of the notification, or of the request the response answers, which
+ *          hold the file and the offset the event is about, may be {@code null}
+ * @param byteCount the number of bytes in the response or notification
+ */
+public static Decode decodeStarted(String id, String name, JsonObject params, int byteCount) {
+  Decode event = new Decode();
+  if (!event.isEnabled()) {
+    return null;
+  }
+  event.id = id;
+  event.name = name;
+  event.file = getString(params, getFileParameterName(name));
+  event.offset = getInt(params, getOffsetParameterName(name));
+  event.bytes = byteCount;
+  event.begin();
+  return event;
+}''');
+      });
+      publicMethod('getFileParameterName', () {
+        writeln('''/**
+ * Return the name of the parameter holding the file the request or notification with the given
+ * name is about, or {@code null} if there is no such parameter.
+ */''');
+        writeln('public static String getFileParameterName(String name) {');
+        indent(() {
+          parameters.forEach((String name, TypeObject params) {
+            String parameterName = fileParameterName(params);
+            if (parameterName != null) {
+              writeln('if ("${name}".equals(name)) {');
+              writeln('  return "${parameterName}";');
+              writeln('}');
+            }
+          });
+          writeln('return null;');
+        });
+        writeln('}');
+      });
+      publicMethod('getIdParameterName', () {
+        writeln('''/**
+ * Return the name of the parameter holding the id of the object the request or notification with
+ * the given name is about, such as a search, or {@code null} if there is no such parameter.
+ */''');
+        writeln('public static String getIdParameterName(String name) {');
+        indent(() {
+          parameters.forEach((String name, TypeObject params) {
+            String parameterName = idParameterName(params);
+            if (parameterName != null) {
+              writeln('if ("${name}".equals(name)) {');
+              writeln('  return "${parameterName}";');
+              writeln('}');
+            }
+          });
+          writeln('return null;');
+        });
+        writeln('}');
+      });
+      publicMethod('getOffsetParameterName', () {
+        writeln('''/**
+ * Return the name of the parameter holding the offset the request or notification with the given
+ * name is about, or {@code null} if there is no such parameter.
+ */''');
+        writeln('public static String getOffsetParameterName(String name) {');
+        indent(() {
+          parameters.forEach((String name, TypeObject params) {
+            String parameterName = offsetParameterName(params);
+            if (parameterName != null) {
+              writeln('if ("${name}".equals(name)) {');
+              writeln('  return "${parameterName}";');
+              writeln('}');
+            }
+          });
+          writeln('return null;');
+        });
+        writeln('}');
+      });
+      publicMethod('listenerFinished', () {
+        writeln('''/**
+ * Finish the given listener dispatch event, which was returned by {@link #listenerStarted}.
+ *
+ * @param event the event to finish, may be {@code null}
+ */
+public static void listenerFinished(ListenerDispatch event) {
+  if (event == null) {
+    return;
+  }
+  event.end();
+  if (event.shouldCommit()) {
+    event.commit();
+  }
+}''');
+      });
+      publicMethod('listenerStarted', () {
+        writeln('''/**
+ * Start a listener dispatch event. Return the event which must be passed to
+ * {@link #listenerFinished}, or {@code null} if the event is not enabled.
+ *
+ * @param name the name of the notification, such as {@code analysis.navigation}
+ * @param params the parameters of the notification, may be {@code null}
+ * @param byteCount the number of bytes in the notification
+ * @param listener the listener being invoked
+ */
+public static ListenerDispatch listenerStarted(String name, JsonObject params, int byteCount,
+    Object listener) {
+  ListenerDispatch event = new ListenerDispatch();
+  if (!event.isEnabled()) {
+    return null;
+  }
+  event.name = name;
+  event.id = getString(params, getIdParameterName(name));
+  event.file = getString(params, getFileParameterName(name));
+  event.offset = getInt(params, getOffsetParameterName(name));
+  event.bytes = byteCount;
+  event.listener = listener.getClass().getName();
+  event.begin();
+  return event;
+}''');
+      });
+      publicMethod('requestSent', () {
+        writeln('''/**
+ * Emit a request sent event.
+ *
+ * @param id the id of the request
+ * @param method the name of the method, such as {@code completion.getSuggestions}
+ * @param params the parameters of the request, may be {@code null}
+ * @param byteCount the number of bytes in the request
+ */
+public static void requestSent(String id, String method, JsonObject params, int byteCount) {
+  RequestSent event = new RequestSent();
+  if (event.shouldCommit()) {
+    event.id = id;
+    event.method = method;
+    event.file = getString(params, getFileParameterName(method));
+    event.offset = getInt(params, getOffsetParameterName(method));
+    event.bytes = byteCount;
+    event.commit();
+  }
+}''');
+      });
+      publicMethod('responseReceived', () {
+        writeln('''/**
+ * Emit a response received event.
+ *
+ * @param id the id of the request
+ * @param method the name of the method of the request, may be {@code null} if unknown
+ * @param requestParams the parameters of the request, may be {@code null}
+ * @param error {@code true} if the response reports an error
+ * @param byteCount the number of bytes in the response
+ */
+public static void responseReceived(String id, String method, JsonObject requestParams,
+    boolean error, int byteCount) {
+  ResponseReceived event = new ResponseReceived();
+  if (event.shouldCommit()) {
+    event.id = id;
+    event.method = method;
+    event.file = getString(requestParams, getFileParameterName(method));
+    event.offset = getInt(requestParams, getOffsetParameterName(method));
+    event.error = error;
+    event.bytes = byteCount;
+    event.commit();
+  }
+}''');
+      });
+      privateMethod('getInt', () {
+        writeln('''private static int getInt(JsonObject params, String name) {
+  if (params == null || name == null) {
+    return -1;
+  }
+  JsonElement element = params.get(name);
+  if (element instanceof JsonPrimitive && ((JsonPrimitive) element).isNumber()) {
+    return element.getAsInt();
+  }
+  return -1;
+}''');
+      });
+      privateMethod('getString', () {
+        writeln('''private static String getString(JsonObject params, String name) {
+  if (params == null || name == null) {
+    return null;
+  }
+  JsonElement element = params.get(name);
+  if (element instanceof JsonPrimitive && ((JsonPrimitive) element).isString()) {
+    return element.getAsString();
+  }
+  return null;
+}''');
+      });
+    });
+  }
+}
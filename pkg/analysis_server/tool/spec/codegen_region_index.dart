@@ -0,0 +1,318 @@
+// Copyright (c) 2014, the Dart project authors.  Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+/**
+ * Code generation for the file "RegionIndex.java".
+ */
+library java.generator.region;
+
+import 'api.dart';
+import 'codegen_java.dart';
+import 'codegen_tools.dart';
+
+final GeneratedFile target = javaGeneratedFile(
+    'generated/java/RegionIndex.java',
+    (Api api) => new CodegenRegionIndex(api));
+
+/**
+ * Translate spec_input.html into RegionIndex.java.
+ */
+main() {
+  target.generate();
+}
+
+/**
+ * Visitor that generates an interval index over the regions reported by
+ * notifications, with a factory method for each type of region.
+ */
+class CodegenRegionIndex extends CodegenJavaVisitor {
+  /**
+   * The types of the regions reported by notifications, in the order in which
+   * they are first reported, keyed by their names.
+   */
+  final Map<String, TypeReference> regionTypes = <String, TypeReference>{};
+
+  /**
+   * The notifications reporting the regions, keyed by the names of the types
+   * of the regions.
+   */
+  final Map<String, Notification> regionNotifications =
+      <String, Notification>{};
+
+  CodegenRegionIndex(Api api) : super(api) {
+    for (Domain domain in api.domains) {
+      for (Notification notification in domain.notifications) {
+        if (notification.params == null) {
+          continue;
+        }
+        for (TypeObjectField field in notification.params.fields) {
+          if (field.type is TypeList) {
+            TypeDecl itemType = (field.type as TypeList).itemType;
+            if (isRegionType(itemType)) {
+              String typeName = (itemType as TypeReference).typeName;
+              if (!regionTypes.containsKey(typeName)) {
+                regionTypes[typeName] = itemType;
+                regionNotifications[typeName] = notification;
+              }
+            }
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Return `true` if the given [field] is an int.
+   */
+  bool isInt(TypeObjectField field) {
+    return field != null &&
+        field.type is TypeReference &&
+        (field.type as TypeReference).typeName == 'int';
+  }
+
+  /**
+   * Return `true` if the given [type] is an object with an offset and a length
+   * within the file of the notification, as opposed to within another file.
+   */
+  bool isRegionType(TypeDecl type) {
+    if (type is! TypeReference) {
+      return false;
+    }
+    TypeDefinition definition = api.types[(type as TypeReference).typeName];
+    if (definition == null || definition.type is! TypeObject) {
+      return false;
+    }
+    TypeObject object = definition.type;
+    if (!isInt(object.getField('offset')) ||
+        !isInt(object.getField('length'))) {
+      return false;
+    }
+    for (TypeObjectField field in object.fields) {
+      if (field.name.startsWith('file')) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @override
+  void visitApi() {
+    outputHeader(javaStyle: true);
+    writeln('package com.google.dart.server.generated;');
+    writeln();
+    writeln('import com.google.dart.server.utilities.source.LineIndex;');
+    writeln('import org.dartlang.analysis.server.protocol.*;');
+    writeln();
+    writeln('import java.util.ArrayList;');
+    writeln('import java.util.Arrays;');
+    writeln('import java.util.List;');
+    writeln();
+    writeln('''/**
+ * The class {@code RegionIndex} indexes the regions reported for a file by a notification, such as
+ * {@link FoldingRegion}s or {@link OverrideMember}s, so that the regions intersecting the visible
+ * lines, or the nesting depth at an offset, can be computed without scanning every region.
+ * <p>
+ * The regions are sorted by offset and form an implicit balanced binary search tree, the root of a
+ * range of the sorted regions being its middle element. Each node records the greatest end of the
+ * regions in its range, so that a query skips the subtrees which end before the queried range. An
+ * index is built in {@code O(n log n)} once per notification, and answers a query in
+ * {@code O(log n + k)} where {@code k} is the number of regions found. Indices are immutable, so
+ * they can be shared between threads.
+ * <p>
+ * A region covers the offsets from its offset, inclusive, to its offset plus its length, exclusive.
+ * A region of length zero covers its offset.
+ *
+ * @coverage dart.server
+ */''');
+    makeClass('public class RegionIndex<R>', () {
+      privateField('regions', () {
+        writeln('''/**
+ * The regions, in the order in which they were given.
+ */
+private final List<R> regions;''');
+      });
+      privateField('order', () {
+        writeln('''/**
+ * The indices of the regions in {@link #regions}, sorted by offset.
+ */
+private final int[] order;''');
+      });
+      privateField('starts', () {
+        writeln('''/**
+ * The offsets of the regions, sorted.
+ */
+private final int[] starts;''');
+      });
+      privateField('ends', () {
+        writeln('''/**
+ * The ends of the regions, in the order of {@link #starts}.
+ */
+private final int[] ends;''');
+      });
+      privateField('maxEnds', () {
+        writeln('''/**
+ * For each node, the greatest end of the regions in the range of which it is the middle element.
+ */
+private final int[] maxEnds;''');
+      });
+      constructor('RegionIndex', () {
+        writeln('''/**
+ * Initialize a newly created index of the given regions, whose offsets and lengths are given in the
+ * same order.
+ */
+public RegionIndex(List<R> regions, int[] offsets, int[] lengths) {
+  this.regions = regions;
+  int count = offsets.length;
+  long[] keys = new long[count];
+  for (int i = 0; i < count; i++) {
+    keys[i] = (long) offsets[i] << 32 | i;
+  }
+  Arrays.sort(keys);
+  order = new int[count];
+  starts = new int[count];
+  ends = new int[count];
+  for (int i = 0; i < count; i++) {
+    int index = (int) keys[i];
+    order[i] = index;
+    starts[i] = offsets[index];
+    ends[i] = offsets[index] + Math.max(lengths[index], 1);
+  }
+  maxEnds = new int[count];
+  computeMaxEnds(0, count);
+}''');
+      });
+      for (String typeName in regionTypes.keys) {
+        String javaName = javaType(regionTypes[typeName]);
+        Notification notification = regionNotifications[typeName];
+        publicMethod('for${javaName}s', () {
+          writeln('''/**
+ * Return an index of the given regions, as reported by
+ * {@code ${notification.domainName}.${notification.event}}.
+ */
+public static RegionIndex<$javaName> for${javaName}s(List<$javaName> regions) {
+  int count = regions.size();
+  int[] offsets = new int[count];
+  int[] lengths = new int[count];
+  for (int i = 0; i < count; i++) {
+    $javaName region = regions.get(i);
+    offsets[i] = region.getOffset();
+    lengths[i] = region.getLength();
+  }
+  return new RegionIndex<$javaName>(regions, offsets, lengths);
+}''');
+        });
+      }
+      publicMethod('getDepth', () {
+        writeln('''/**
+ * Return the number of regions covering the given offset, which is the nesting depth of the offset
+ * when the regions are nested, as folding regions are.
+ */
+public int getDepth(int offset) {
+  return count(0, starts.length, offset);
+}''');
+      });
+      publicMethod('getRegions', () {
+        writeln('''/**
+ * Return the regions given to the constructor.
+ */
+public List<R> getRegions() {
+  return regions;
+}
+
+/**
+ * Return the regions covering at least one offset from {@code start}, inclusive, to {@code end},
+ * exclusive, sorted by offset.
+ */
+public List<R> getRegions(int start, int end) {
+  List<R> result = new ArrayList<R>();
+  collect(0, starts.length, start, end, result);
+  return result;
+}''');
+      });
+      publicMethod('getRegionsOnLines', () {
+        writeln('''/**
+ * Return the regions covering at least one offset of the lines from {@code firstLine} to
+ * {@code lastLine}, both inclusive and one-based, of the content indexed by the given line index,
+ * sorted by offset.
+ */
+public List<R> getRegionsOnLines(LineIndex lineIndex, int firstLine, int lastLine) {
+  int start = lineIndex.getLineStart(firstLine);
+  int end = lastLine < lineIndex.getLineCount()
+      ? lineIndex.getLineStart(lastLine + 1) : lineIndex.getLength() + 1;
+  return getRegions(start, end);
+}''');
+      });
+      publicMethod('size', () {
+        writeln('''/**
+ * Return the number of regions.
+ */
+public int size() {
+  return starts.length;
+}''');
+      });
+      privateMethod('collect', () {
+        writeln('''/**
+ * Add to the given list the regions of the range from {@code low} to {@code high} of the sorted
+ * regions which cover at least one offset from {@code start} to {@code end}.
+ */
+private void collect(int low, int high, int start, int end, List<R> result) {
+  while (low < high) {
+    int middle = (low + high) >>> 1;
+    if (maxEnds[middle] <= start) {
+      return;
+    }
+    collect(low, middle, start, end, result);
+    if (starts[middle] >= end) {
+      return;
+    }
+    if (ends[middle] > start) {
+      result.add(regions.get(order[middle]));
+    }
+    low = middle + 1;
+  }
+}''');
+      });
+      privateMethod('computeMaxEnds', () {
+        writeln('''/**
+ * Compute the greatest ends of the nodes of the range from {@code low} to {@code high} of the sorted
+ * regions, and return the greatest end of the range.
+ */
+private int computeMaxEnds(int low, int high) {
+  if (low >= high) {
+    return Integer.MIN_VALUE;
+  }
+  int middle = (low + high) >>> 1;
+  int max = Math.max(ends[middle], computeMaxEnds(low, middle));
+  max = Math.max(max, computeMaxEnds(middle + 1, high));
+  maxEnds[middle] = max;
+  return max;
+}''');
+      });
+      privateMethod('count', () {
+        writeln('''/**
+ * Return the number of regions of the range from {@code low} to {@code high} of the sorted regions
+ * which cover the given offset.
+ */
+private int count(int low, int high, int offset) {
+  int result = 0;
+  while (low < high) {
+    int middle = (low + high) >>> 1;
+    if (maxEnds[middle] <= offset) {
+      break;
+    }
+    result += count(low, middle, offset);
+    if (starts[middle] > offset) {
+      break;
+    }
+    if (ends[middle] > offset) {
+      result++;
+    }
+    low = middle + 1;
+  }
+  return result;
+}''');
+      });
+    });
+  }
+}
@@ -0,0 +1,258 @@
+// Copyright (c) 2014, the Dart project authors.  Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+/**
+ * Code generation for the file "AnalysisSubscriptionManager.java".
+ */
+library java.generator.subscriptions;
+
+import 'api.dart';
+import 'codegen_java.dart';
+import 'codegen_tools.dart';
+
+final GeneratedFile target = javaGeneratedFile(
+    'generated/java/AnalysisSubscriptionManager.java',
+    (Api api) => new CodegenSubscriptionManager(api));
+
+/**
+ * Translate spec_input.html into AnalysisSubscriptionManager.java.
+ */
+main() {
+  target.generate();
+}
+
+class CodegenSubscriptionManager extends CodegenJavaVisitor {
+  CodegenSubscriptionManager(Api api) : super(api);
+
+  @override
+  void visitApi() {
+    outputHeader(javaStyle: true);
+    writeln('package com.google.dart.server.generated;');
+    writeln();
+    writeln('import org.dartlang.analysis.server.protocol.AnalysisService;');
+    writeln();
+    writeln('import java.util.ArrayList;');
+    writeln('import java.util.Arrays;');
+    writeln('import java.util.Collection;');
+    writeln('import java.util.Collections;');
+    writeln('import java.util.HashSet;');
+    writeln('import java.util.List;');
+    writeln('import java.util.Map;');
+    writeln('import java.util.Set;');
+    writeln('import java.util.TreeMap;');
+    writeln('import java.util.TreeSet;');
+    writeln('import java.util.concurrent.ScheduledExecutorService;');
+    writeln('import java.util.concurrent.ScheduledFuture;');
+    writeln('import java.util.concurrent.TimeUnit;');
+    writeln();
+    writeln('''/**
+ * The class {@code AnalysisSubscriptionManager} maintains the subscriptions and the priority files
+ * of an analysis server from the files visible in an editor, sending
+ * {@code analysis.setSubscriptions} and {@code analysis.setPriorityFiles} only when the set they
+ * replace actually changes.
+ * <p>
+ * The visible files, reported with {@link #setVisibleFiles}, are the priority files, and are
+ * subscribed to the services given to the constructor. Other files can be subscribed to a service
+ * with {@link #setSubscribedFiles}, such as the files of an outline view. The changes made within
+ * a fixed delay of the first one are coalesced, so that a burst of changes, such as switching
+ * through tabs, results in at most one request of each kind, which is not sent if the effective
+ * subscriptions or priority files are the same as the ones last sent. The changes can also be sent
+ * immediately with {@link #flush}.
+ *
+ * @coverage dart.server
+ */''');
+    makeClass('public class AnalysisSubscriptionManager', () {
+      privateField('SERVICES', () {
+        writeln('''/**
+ * The services which can be subscribed to.
+ */''');
+        TypeEnum type = api.types['AnalysisService'].type;
+        writeln(
+            'private static final Set<String> SERVICES = new HashSet<String>(Arrays.asList(');
+        for (int i = 0; i < type.values.length; i++) {
+          String separator = i < type.values.length - 1 ? ',' : '));';
+          writeln('    AnalysisService.${type.values[i].value}${separator}');
+        }
+      });
+      privateField('server', () {
+        writeln('''/**
+ * The server the requests are sent to.
+ */
+private final AnalysisServer server;''');
+      });
+      privateField('visibleServices', () {
+        writeln('''/**
+ * The services the visible files are subscribed to.
+ */
+private final Set<String> visibleServices;''');
+      });
+      privateField('executor', () {
+        writeln('''/**
+ * The executor the changes are sent by once the delay has elapsed.
+ */
+private final ScheduledExecutorService executor;''');
+      });
+      privateField('delay', () {
+        writeln('''/**
+ * The delay within which the changes are coalesced, in {@link #unit}.
+ */
+private final long delay;''');
+      });
+      privateField('unit', () {
+        writeln('''/**
+ * The unit of {@link #delay}.
+ */
+private final TimeUnit unit;''');
+      });
+      privateField('visibleFiles', () {
+        writeln('''/**
+ * The visible files.
+ */
+private Set<String> visibleFiles = new TreeSet<String>();''');
+      });
+      privateField('subscribedFiles', () {
+        writeln('''/**
+ * The files subscribed to each service with {@link #setSubscribedFiles}.
+ */
+private final Map<String, Set<String>> subscribedFiles = new TreeMap<String, Set<String>>();''');
+      });
+      privateField('sentSubscriptions', () {
+        writeln('''/**
+ * The subscriptions last sent to the server.
+ */
+private Map<String, Set<String>> sentSubscriptions = new TreeMap<String, Set<String>>();''');
+      });
+      privateField('sentPriorityFiles', () {
+        writeln('''/**
+ * The priority files last sent to the server.
+ */
+private Set<String> sentPriorityFiles = new TreeSet<String>();''');
+      });
+      privateField('flushFuture', () {
+        writeln('''/**
+ * The pending sending of the changes, or {@code null} if there is no unsent change.
+ */
+private ScheduledFuture<?> flushFuture;''');
+      });
+      privateField('flushTask', () {
+        writeln('''/**
+ * The task sending the changes.
+ */
+private final Runnable flushTask = new Runnable() {
+  @Override
+  public void run() {
+    flush();
+  }
+};''');
+      });
+      constructor('AnalysisSubscriptionManager', () {
+        writeln('''/**
+ * Initialize a newly created manager to send requests to the given server, subscribing the visible
+ * files to the given services, and coalescing the changes made within the given delay, after which
+ * they are sent by the given executor.
+ */
+public AnalysisSubscriptionManager(AnalysisServer server, Collection<String> visibleServices,
+    ScheduledExecutorService executor, long delay, TimeUnit unit) {
+  for (String service : visibleServices) {
+    checkService(service);
+  }
+  this.server = server;
+  this.visibleServices = new HashSet<String>(visibleServices);
+  this.executor = executor;
+  this.delay = delay;
+  this.unit = unit;
+}''');
+      });
+      publicMethod('flush', () {
+        writeln('''/**
+ * Send the changes which have not been sent yet, if they change the effective subscriptions or
+ * priority files.
+ */
+public synchronized void flush() {
+  if (flushFuture != null) {
+    flushFuture.cancel(false);
+    flushFuture = null;
+  }
+  Map<String, Set<String>> subscriptions = new TreeMap<String, Set<String>>();
+  for (Map.Entry<String, Set<String>> entry : subscribedFiles.entrySet()) {
+    if (!entry.getValue().isEmpty()) {
+      subscriptions.put(entry.getKey(), new TreeSet<String>(entry.getValue()));
+    }
+  }
+  if (!visibleFiles.isEmpty()) {
+    for (String service : visibleServices) {
+      Set<String> files = subscriptions.get(service);
+      if (files == null) {
+        files = new TreeSet<String>();
+        subscriptions.put(service, files);
+      }
+      files.addAll(visibleFiles);
+    }
+  }
+  if (!subscriptions.equals(sentSubscriptions)) {
+    Map<String, List<String>> request = new TreeMap<String, List<String>>();
+    for (Map.Entry<String, Set<String>> entry : subscriptions.entrySet()) {
+      request.put(entry.getKey(), new ArrayList<String>(entry.getValue()));
+    }
+    server.analysis_setSubscriptions(request);
+    sentSubscriptions = subscriptions;
+  }
+  if (!visibleFiles.equals(sentPriorityFiles)) {
+    server.analysis_setPriorityFiles(new ArrayList<String>(visibleFiles));
+    sentPriorityFiles = new TreeSet<String>(visibleFiles);
+  }
+}''');
+      });
+      publicMethod('getSubscriptions', () {
+        writeln('''/**
+ * Return the subscriptions last sent to the server.
+ */
+public synchronized Map<String, Set<String>> getSubscriptions() {
+  return Collections.unmodifiableMap(sentSubscriptions);
+}''');
+      });
+      publicMethod('setSubscribedFiles', () {
+        writeln('''/**
+ * Subscribe the given files to the given service, in addition to the visible files if the service
+ * is one of the services of the visible files.
+ */
+public synchronized void setSubscribedFiles(String service, Collection<String> files) {
+  checkService(service);
+  subscribedFiles.put(service, new TreeSet<String>(files));
+  schedule();
+}''');
+      });
+      publicMethod('setVisibleFiles', () {
+        writeln('''/**
+ * Record that the given files are the files visible in the editor.
+ */
+public synchronized void setVisibleFiles(Collection<String> files) {
+  visibleFiles = new TreeSet<String>(files);
+  schedule();
+}''');
+      });
+      privateMethod('checkService', () {
+        writeln('''/**
+ * Throw an {@link IllegalArgumentException} if the given service is not a service which can be
+ * subscribed to.
+ */
+private static void checkService(String service) {
+  if (!SERVICES.contains(service)) {
+    throw new IllegalArgumentException("service: " + service);
+  }
+}''');
+      });
+      privateMethod('schedule', () {
+        writeln('''/**
+ * Schedule the sending of the changes, unless it is already scheduled.
+ */
+private void schedule() {
+  if (flushFuture == null) {
+    flushFuture = executor.schedule(flushTask, delay, unit);
+  }
+}''');
+      });
+    });
+  }
+}
@@ -0,0 +1,684 @@
+// Copyright (c) 2014, the Dart project authors.  Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+/**
+ * Code generation for the file "SyntheticAnalysisServer.java".
+ */
+library java.generator.synthetic;
+
+import 'api.dart';
+import 'codegen_java.dart';
+import 'codegen_tools.dart';
+
+final GeneratedFile target = javaGeneratedFile(
+    'generated/java/SyntheticAnalysisServer.java',
+    (Api api) => new CodegenSyntheticServer(api));
+
+/**
+ * Translate spec_input.html into SyntheticAnalysisServer.java.
+ */
+main() {
+  target.generate();
+}
+
+/**
+ * Visitor that generates a stand-in analysis server which answers every
+ * request with synthetic, but well-formed, results.
+ */
+class CodegenSyntheticServer extends CodegenJavaVisitor {
+  /**
+   * The names of the object and enum types which appear in results and
+   * notifications, and therefore need to be synthesized.
+   */
+  final Set<String> typeNames = new Set<String>();
+
+  CodegenSyntheticServer(Api api) : super(api) {
+    for (Domain domain in api.domains) {
+      for (Request request in domain.requests) {
+        if (request.result != null) {
+          for (TypeObjectField field in request.result.fields) {
+            collectTypes(field.type);
+          }
+        }
+      }
+      for (Notification notification in domain.notifications) {
+        if (notification.params != null) {
+          for (TypeObjectField field in notification.params.fields) {
+            collectTypes(field.type);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Add the names of the object and enum types referenced by [type] to
+   * [typeNames]. Optional fields of nested objects are not synthesized, so the
+   * types they reference are not collected.
+   */
+  void collectTypes(TypeDecl type) {
+    if (type is TypeList) {
+      collectTypes(type.itemType);
+    } else if (type is TypeReference) {
+      TypeDefinition definition = api.types[type.typeName];
+      if (definition == null) {
+        return;
+      }
+      if (definition.type is TypeEnum) {
+        typeNames.add(type.typeName);
+      } else if (definition.type is TypeObject &&
+          typeNames.add(type.typeName)) {
+        for (TypeObjectField field in (definition.type as TypeObject).fields) {
+          if (!field.optional) {
+            collectTypes(field.type);
+          }
+        }
+      } else {
+        collectTypes(definition.type);
+      }
+    }
+  }
+
+  /**
+   * Return the name of the Java constant holding the values of the enum type
+   * with the given [typeName].
+   */
+  String constantName(String typeName) {
+    return typeName
+        .replaceAllMapped(
+            new RegExp('([a-z])([A-Z])'), (Match m) => '${m[1]}_${m[2]}')
+        .toUpperCase();
+  }
+
+  /**
+   * Return the name of the configuration field holding the number of elements
+   * of the top-level lists in the result of a request ([isResult] is `true`)
+   * or the parameters of a notification in the domain [domainName].
+   */
+  String countName(String domainName, bool isResult) {
+    if (domainName == 'completion') {
+      return 'suggestions';
+    }
+    if (domainName == 'search' || isResult) {
+      return 'results';
+    }
+    return 'regions';
+  }
+
+  /**
+   * Return the Java expression for a synthetic integer for the field [name],
+   * where [index] is the index of the enclosing object.
+   */
+  String intExpression(String name, String index) {
+    if (name == 'offset' || name.endsWith('Offset')) {
+      return '${index} * 10';
+    }
+    if (name == 'length' || name.endsWith('Length')) {
+      return '5';
+    }
+    if (name == 'startLine') {
+      return '${index} + 1';
+    }
+    if (name == 'startColumn') {
+      return '1';
+    }
+    return index;
+  }
+
+  /**
+   * Return the Java expression for a synthetic value of the given [type] for
+   * the field [name], where [index] is the index of the enclosing object, or
+   * `null` if no value can be synthesized.
+   */
+  String valueExpression(TypeDecl type, String name, String index) {
+    if (type is TypeReference) {
+      String typeName = type.typeName;
+      TypeDefinition definition = api.types[typeName];
+      if (typeName == 'FilePath') {
+        return 'new JsonPrimitive(file)';
+      } else if (definition != null) {
+        if (definition.type is TypeEnum) {
+          String constant = constantName(typeName);
+          return 'new JsonPrimitive(${constant}[${index} % ${constant}.length])';
+        } else if (definition.type is TypeObject) {
+          return 'synthesize${typeName}(file, ${index})';
+        } else if (typeName.endsWith('Id')) {
+          return 'new JsonPrimitive(id)';
+        }
+        return valueExpression(definition.type, name, index);
+      } else if (typeName == 'String') {
+        if (name == 'version') {
+          return 'new JsonPrimitive(VERSION)';
+        }
+        return 'new JsonPrimitive("${name}" + ${index})';
+      } else if (typeName == 'int') {
+        return 'new JsonPrimitive(${intExpression(name, index)})';
+      } else if (typeName == 'long') {
+        return 'new JsonPrimitive((long) ${index})';
+      } else if (typeName == 'bool') {
+        if (name == 'isLast') {
+          return 'new JsonPrimitive(true)';
+        }
+        return 'new JsonPrimitive(${index} % 2 == 0)';
+      } else if (typeName == 'object') {
+        return 'new JsonObject()';
+      }
+    } else if (type is TypeMap) {
+      return 'new JsonObject()';
+    }
+    return null;
+  }
+
+  @override
+  void visitApi() {
+    outputHeader(javaStyle: true);
+    writeln('package com.google.dart.server.generated;');
+    writeln();
+    writeln('import com.google.dart.server.internal.transport.MappedRingBuffer;');
+    writeln('import com.google.dart.server.internal.transport.SharedMemoryTransport;');
+    writeln('import com.google.gson.JsonArray;');
+    writeln('import com.google.gson.JsonElement;');
+    writeln('import com.google.gson.JsonObject;');
+    writeln('import com.google.gson.JsonParser;');
+    writeln('import com.google.gson.JsonPrimitive;');
+    writeln('import org.dartlang.analysis.server.protocol.RequestErrorCode;');
+    writeln();
+    writeln('import java.io.BufferedReader;');
+    writeln('import java.io.File;');
+    writeln('import java.io.IOException;');
+    writeln('import java.io.InputStream;');
+    writeln('import java.io.InputStreamReader;');
+    writeln('import java.io.PrintStream;');
+    writeln('import java.nio.charset.Charset;');
+    writeln('import java.util.ArrayList;');
+    writeln('import java.util.List;');
+    writeln('import java.util.Map;');
+    writeln('import java.util.concurrent.Executors;');
+    writeln('import java.util.concurrent.ScheduledExecutorService;');
+    writeln('import java.util.concurrent.TimeUnit;');
+    writeln();
+    writeln('''/**
+ * The class {@code SyntheticAnalysisServer} is a stand-in for the analysis server which speaks the
+ * same protocol over stdin and stdout, and answers every request with synthetic, but well-formed,
+ * results. The number of elements in results and notifications, the latency of responses and the
+ * rate of notifications are configurable, which makes it a hermetic target for throughput and
+ * stress benchmarks of the client.
+ * <p>
+ * Supported arguments are {@code --latency=<ms>}, {@code --regions=<n>} (elements per analysis
+ * notification), {@code --suggestions=<n>} (completion suggestions), {@code --results=<n>} (search
+ * results and elements of other results), {@code --nested=<n>} (elements of nested lists),
+ * {@code --notification-rate=<n>} (notifications per second for the subscribed files) and
+ * {@code --ring=<path>} (the {@link MappedRingBuffer} to which responses and notifications are
+ * written, those longer than the ring being written to stdout after an empty message, as expected
+ * by {@link SharedMemoryTransport}).
+ *
+ * @coverage dart.server
+ */''');
+    makeClass('public class SyntheticAnalysisServer', () {
+      publicField('VERSION', () {
+        writeln('''/**
+ * The version of the protocol implemented by this server.
+ */
+public static final String VERSION = "${api.version}";''');
+      });
+      List<String> sortedTypeNames = typeNames.toList();
+      sortedTypeNames.sort();
+      for (String typeName in sortedTypeNames) {
+        TypeDecl type = api.types[typeName].type;
+        if (type is TypeEnum) {
+          String constant = constantName(typeName);
+          privateField(constant, () {
+            List<String> values = type.values
+                .map((TypeEnumValue value) => '"${value.value}"')
+                .toList();
+            writeln(
+                'private static final String[] ${constant} = {${values.join(', ')}};');
+          });
+        }
+      }
+      privateField('UTF8', () {
+        writeln(
+            'private static final Charset UTF8 = Charset.forName("UTF-8");');
+      });
+      privateField('RING_TIMEOUT_SECONDS', () {
+        writeln('''/**
+ * The number of seconds to wait for free space in the ring buffer before giving up on a client
+ * which no longer reads it.
+ */
+private static final long RING_TIMEOUT_SECONDS = 60;''');
+      });
+      privateField('out', () {
+        writeln('''/**
+ * The stream responses and notifications are written to.
+ */
+private final PrintStream out;''');
+      });
+      privateField('ring', () {
+        writeln('''/**
+ * The ring buffer responses and notifications are written to, or {@code null} if they are written
+ * to {@link #out}.
+ */
+private MappedRingBuffer ring;''');
+      });
+      privateField('executor', () {
+        writeln('''/**
+ * The executor used to delay responses and to send notifications.
+ */
+private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();''');
+      });
+      privateField('subscriptions', () {
+        writeln('''/**
+ * The (service, file) pairs for which notifications are sent, as set by
+ * {@code analysis.setSubscriptions}.
+ */
+private final List<String[]> subscriptions = new ArrayList<String[]>();''');
+      });
+      privateField('latency', () {
+        writeln('''/**
+ * The number of milliseconds to wait before sending a response.
+ */
+private int latency = 0;''');
+      });
+      privateField('regions', () {
+        writeln('''/**
+ * The number of elements in the lists of analysis notifications.
+ */
+private int regions = 100;''');
+      });
+      privateField('suggestions', () {
+        writeln('''/**
+ * The number of suggestions in completion notifications.
+ */
+private int suggestions = 50;''');
+      });
+      privateField('results', () {
+        writeln('''/**
+ * The number of elements in search notifications and in the lists of results.
+ */
+private int results = 50;''');
+      });
+      privateField('nested', () {
+        writeln('''/**
+ * The number of elements in the lists of nested objects.
+ */
+private int nested = 1;''');
+      });
+      privateField('notificationRate', () {
+        writeln('''/**
+ * The number of notifications per second sent for the subscribed files.
+ */
+private int notificationRate = 0;''');
+      });
+      privateField('requestCount', () {
+        writeln('''/**
+ * The number of requests received so far.
+ */
+private int requestCount = 0;''');
+      });
+      privateField('notificationCount', () {
+        writeln('''/**
+ * The number of subscription notifications sent so far.
+ */
+private int notificationCount = 0;''');
+      });
+      constructor('SyntheticAnalysisServer', () {
+        writeln('''/**
+ * Initialize a newly created server to write responses and notifications to the given stream.
+ */
+public SyntheticAnalysisServer(PrintStream out) {
+  this.out = out;
+}''');
+      });
+      publicMethod('configure', () {
+        writeln('''/**
+ * Configure this server from the given command line arguments.
+ */
+public void configure(String[] args) {
+  for (String arg : args) {
+    int index = arg.indexOf('=');
+    if (!arg.startsWith("--") || index == -1) {
+      throw new IllegalArgumentException("Invalid argument: " + arg);
+    }
+    String name = arg.substring(2, index);
+    if (name.equals("ring")) {
+      String path = arg.substring(index + 1);
+      try {
+        ring = MappedRingBuffer.open(new File(path));
+      } catch (IOException exception) {
+        throw new IllegalArgumentException("Invalid ring buffer: " + path, exception);
+      }
+      continue;
+    }
+    int value = Integer.parseInt(arg.substring(index + 1));
+    if (name.equals("latency")) {
+      latency = value;
+    } else if (name.equals("regions")) {
+      regions = value;
+    } else if (name.equals("suggestions")) {
+      suggestions = value;
+    } else if (name.equals("results")) {
+      results = value;
+    } else if (name.equals("nested")) {
+      nested = value;
+    } else if (name.equals("notification-rate")) {
+      notificationRate = value;
+    } else {
+      throw new IllegalArgumentException("Unknown argument: " + arg);
+    }
+  }
+}''');
+      });
+      publicMethod('handleRequest', () {
+        writeln('''/**
+ * Handle the given request, scheduling its response and any notifications that follow it.
+ */
+public void handleRequest(String line) {
+  JsonObject request = new JsonParser().parse(line).getAsJsonObject();
+  final String id = request.get("id").getAsString();
+  final String method = request.get("method").getAsString();
+  JsonObject params = request.has("params") ? request.getAsJsonObject("params") : new JsonObject();
+  String file = params.has("file") ? params.get("file").getAsString() : "/synthetic/file.dart";
+  int index = requestCount++;
+  if (method.equals("analysis.setSubscriptions")) {
+    setSubscriptions(params.getAsJsonObject("subscriptions"));
+  }
+  final JsonObject response = new JsonObject();
+  response.addProperty("id", id);
+  if (isKnownRequest(method)) {
+    JsonObject result = computeResult(method, file, "id" + index, index);
+    if (result != null) {
+      response.add("result", result);
+    }
+  } else {
+    JsonObject error = new JsonObject();
+    error.addProperty("code", RequestErrorCode.UNKNOWN_REQUEST);
+    error.addProperty("message", "Unknown request: " + method);
+    response.add("error", error);
+  }
+  schedule(response, latency);
+  String event = getResultNotification(method);
+  if (event != null && response.has("result")) {
+    JsonElement resultId = response.getAsJsonObject("result").get("id");
+    if (resultId != null) {
+      JsonObject notification = new JsonObject();
+      notification.addProperty("event", event);
+      notification.add("params", synthesizeNotification(event, file, resultId.getAsString(), index));
+      schedule(notification, latency);
+    }
+  }
+  if (method.equals("server.shutdown")) {
+    executor.schedule(new Runnable() {
+      @Override
+      public void run() {
+        out.flush();
+        if (ring != null) {
+          ring.close();
+        }
+        System.exit(0);
+      }
+    }, latency, TimeUnit.MILLISECONDS);
+  }
+}''');
+      });
+      publicMethod('main', () {
+        writeln('''/**
+ * Run a synthetic server on stdin and stdout.
+ */
+public static void main(String[] args) throws Exception {
+  SyntheticAnalysisServer server = new SyntheticAnalysisServer(System.out);
+  server.configure(args);
+  server.run(System.in);
+}''');
+      });
+      publicMethod('run', () {
+        writeln('''/**
+ * Send the {@code server.connected} notification, then handle the requests read from the given
+ * stream until it is closed.
+ */
+public void run(InputStream in) throws Exception {
+  JsonObject connected = new JsonObject();
+  connected.addProperty("event", "server.connected");
+  connected.add("params", synthesizeNotification("server.connected", null, null, 0));
+  schedule(connected, 0);
+  if (notificationRate > 0) {
+    executor.scheduleAtFixedRate(new Runnable() {
+      @Override
+      public void run() {
+        sendSubscribedNotification();
+      }
+    }, 0, Math.max(1, 1000000 / notificationRate), TimeUnit.MICROSECONDS);
+  }
+  BufferedReader reader = new BufferedReader(new InputStreamReader(in, "UTF-8"));
+  String line;
+  while ((line = reader.readLine()) != null) {
+    if (line.trim().length() != 0) {
+      handleRequest(line);
+    }
+  }
+  executor.shutdown();
+  if (ring != null) {
+    executor.awaitTermination(1, TimeUnit.MINUTES);
+    ring.close();
+  }
+}''');
+      });
+      privateMethod('computeResult', () {
+        writeln(
+            'private JsonObject computeResult(String method, String file, String id, int index) {');
+        indent(() {
+          for (Domain domain in api.domains) {
+            for (Request request in domain.requests) {
+              if (request.result == null) {
+                continue;
+              }
+              writeln('if (method.equals("${request.longMethod}")) {');
+              indent(() {
+                writeln('JsonObject result = new JsonObject();');
+                for (TypeObjectField field in request.result.fields) {
+                  writeField('result', field, 'index',
+                      countName(domain.name, true));
+                }
+                writeln('return result;');
+              });
+              writeln('}');
+            }
+          }
+          writeln('return null;');
+        });
+        writeln('}');
+      });
+      privateMethod('getResultNotification', () {
+        writeln('private static String getResultNotification(String method) {');
+        indent(() {
+          for (Domain domain in api.domains) {
+            for (Request request in domain.requests) {
+              String idType = resultIdType(request);
+              if (idType == null) {
+                continue;
+              }
+              for (Notification notification in domain.notifications) {
+                if (notification.params == null) {
+                  continue;
+                }
+                TypeObjectField idField = notification.params.getField('id');
+                if (idField != null &&
+                    (idField.type as TypeReference).typeName == idType) {
+                  writeln('if (method.equals("${request.longMethod}")) {');
+                  writeln('  return "${notification.longEvent}";');
+                  writeln('}');
+                }
+              }
+            }
+          }
+          writeln('return null;');
+        });
+        writeln('}');
+      });
+      privateMethod('isKnownRequest', () {
+        writeln('private static boolean isKnownRequest(String method) {');
+        indent(() {
+          List<String> methods = <String>[];
+          for (Domain domain in api.domains) {
+            for (Request request in domain.requests) {
+              methods.add('method.equals("${request.longMethod}")');
+            }
+          }
+          writeln('return ${methods.join(' ||\n    ')};');
+        });
+        writeln('}');
+      });
+      privateMethod('schedule', () {
+        writeln('''private void schedule(final JsonObject message, int delay) {
+  executor.schedule(new Runnable() {
+    @Override
+    public void run() {
+      send(message);
+    }
+  }, delay, TimeUnit.MILLISECONDS);
+}''');
+      });
+      privateMethod('send', () {
+        writeln('''private void send(JsonObject message) {
+  String text = message.toString();
+  synchronized (out) {
+    if (ring != null) {
+      byte[] bytes = text.getBytes(UTF8);
+      boolean fits = bytes.length <= ring.getMaxMessageLength();
+      // an empty message signals that the message is written to the pipe
+      if (!ring.write(fits ? bytes : new byte[0], RING_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        System.err.println("The ring buffer is no longer read");
+        System.exit(1);
+      }
+      if (fits) {
+        return;
+      }
+    }
+    out.println(text);
+    out.flush();
+  }
+}''');
+      });
+      privateMethod('sendSubscribedNotification', () {
+        writeln('''private void sendSubscribedNotification() {
+  String[] subscription;
+  synchronized (subscriptions) {
+    if (subscriptions.isEmpty()) {
+      return;
+    }
+    subscription = subscriptions.get(notificationCount++ % subscriptions.size());
+  }
+  String event = "analysis." + subscription[0].toLowerCase();
+  JsonObject notification = new JsonObject();
+  notification.addProperty("event", event);
+  notification.add("params", synthesizeNotification(event, subscription[1], null, notificationCount));
+  send(notification);
+}''');
+      });
+      privateMethod('setSubscriptions', () {
+        writeln('''private void setSubscriptions(JsonObject services) {
+  synchronized (subscriptions) {
+    subscriptions.clear();
+    for (Map.Entry<String, JsonElement> entry : services.entrySet()) {
+      for (JsonElement file : entry.getValue().getAsJsonArray()) {
+        subscriptions.add(new String[] {entry.getKey(), file.getAsString()});
+      }
+    }
+  }
+}''');
+      });
+      privateMethod('synthesizeNotification', () {
+        writeln(
+            'private JsonObject synthesizeNotification(String event, String file, String id, int index) {');
+        indent(() {
+          for (Domain domain in api.domains) {
+            for (Notification notification in domain.notifications) {
+              writeln('if (event.equals("${notification.longEvent}")) {');
+              indent(() {
+                writeln('JsonObject params = new JsonObject();');
+                if (notification.params != null) {
+                  for (TypeObjectField field in notification.params.fields) {
+                    writeField('params', field, 'index',
+                        countName(domain.name, false));
+                  }
+                }
+                writeln('return params;');
+              });
+              writeln('}');
+            }
+          }
+          writeln('return new JsonObject();');
+        });
+        writeln('}');
+      });
+      for (String typeName in sortedTypeNames) {
+        TypeDecl type = api.types[typeName].type;
+        if (type is TypeObject) {
+          privateMethod('synthesize${typeName}', () {
+            writeln(
+                'private JsonObject synthesize${typeName}(String file, int index) {');
+            indent(() {
+              writeln('JsonObject object = new JsonObject();');
+              for (TypeObjectField field in type.fields) {
+                if (!field.optional) {
+                  writeField('object', field, 'index', 'nested');
+                }
+              }
+              writeln('return object;');
+            });
+            writeln('}');
+          });
+        }
+      }
+    });
+  }
+
+  /**
+   * Return the name of the type of the `id` field in the result of [request],
+   * or `null` if the result has no such field.
+   */
+  String resultIdType(Request request) {
+    if (request.result == null) {
+      return null;
+    }
+    TypeObjectField field = request.result.getField('id');
+    if (field == null || field.type is! TypeReference) {
+      return null;
+    }
+    return (field.type as TypeReference).typeName;
+  }
+
+  /**
+   * Write the statements adding a synthetic value for [field] to the Java
+   * object named [objectName], where [index] is the expression for the index
+   * of the object and [count] is the expression for the number of elements of
+   * lists. Lists of source edits are written in descending order of offset,
+   * like a server does so that the edits can be applied in order.
+   */
+  void writeField(
+      String objectName, TypeObjectField field, String index, String count) {
+    TypeDecl type = field.type;
+    if (type is TypeList) {
+      String value = valueExpression(type.itemType, field.name, 'i');
+      if (value == null) {
+        return;
+      }
+      String arrayName = 'jsonArray${capitalize(field.name)}';
+      writeln('JsonArray ${arrayName} = new JsonArray();');
+      TypeDecl itemType = type.itemType;
+      if (itemType is TypeReference && itemType.typeName == 'SourceEdit') {
+        writeln('for (int i = ${count} - 1; i >= 0; i--) {');
+      } else {
+        writeln('for (int i = 0; i < ${count}; i++) {');
+      }
+      writeln('  ${arrayName}.add(${value});');
+      writeln('}');
+      writeln('${objectName}.add("${field.name}", ${arrayName});');
+    } else {
+      String value = valueExpression(type, field.name, index);
+      if (value != null) {
+        writeln('${objectName}.add("${field.name}", ${value});');
+      }
+    }
+  }
+}
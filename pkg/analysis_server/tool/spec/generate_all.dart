@@ -9,10 +9,21 @@ import 'dart:io';
 import 'package:path/path.dart';
 
 import 'codegen_analysis_server.dart' as codegen_analysis_server;
+import 'codegen_analysis_server_pool.dart' as codegen_analysis_server_pool;
+import 'codegen_binary_codec.dart' as codegen_binary_codec;
 import 'codegen_dart_protocol.dart' as codegen_dart_protocol;
+import 'codegen_deduplicating_server.dart' as codegen_deduplicating_server;
 import 'codegen_inttest_methods.dart' as codegen_inttest_methods;
+import 'codegen_java_callbacks.dart' as codegen_java_callbacks;
 import 'codegen_java_types.dart' as codegen_java_types;
 import 'codegen_matchers.dart' as codegen_matchers;
+import 'codegen_notification_metrics.dart' as codegen_notification_metrics;
+import 'codegen_prioritized_server.dart' as codegen_prioritized_server;
+import 'codegen_protocol_events.dart' as codegen_protocol_events;
+import 'codegen_region_index.dart' as codegen_region_index;
+import 'codegen_snapshot_store.dart' as codegen_snapshot_store;
+import 'codegen_subscription_manager.dart' as codegen_subscription_manager;
+import 'codegen_synthetic_server.dart' as codegen_synthetic_server;
 import 'codegen_tools.dart';
 import 'to_html.dart' as to_html;
 
@@ -24,8 +35,21 @@ List<GeneratedContent> get allTargets {
   targets.add(codegen_analysis_server.target);
   targets.add(codegen_dart_protocol.target);
   targets.add(codegen_java_types.targetDir);
+  targets.add(codegen_java_callbacks.targetDir);
+  targets.add(codegen_java_callbacks.clientTarget);
   targets.add(codegen_inttest_methods.target);
   targets.add(codegen_matchers.target);
+  targets.add(codegen_notification_metrics.target);
+  targets.add(codegen_protocol_events.target);
+  targets.add(codegen_synthetic_server.target);
+  targets.add(codegen_analysis_server_pool.target);
+  targets.add(codegen_prioritized_server.target);
+  targets.add(codegen_region_index.target);
+  targets.add(codegen_binary_codec.codecTarget);
+  targets.add(codegen_binary_codec.bridgeTarget);
+  targets.add(codegen_snapshot_store.target);
+  targets.add(codegen_deduplicating_server.target);
+  targets.add(codegen_subscription_manager.target);
   targets.add(to_html.target);
   return targets;
 }
@@ -30,6 +30,11 @@ import java.util.Map;
  */
 public interface AnalysisServer {
 
+  /**
+   * The version of the analysis server protocol this interface was generated from.
+   */
+  public static final String PROTOCOL_VERSION = "1.7.0";
+
   /**
    * Add the given listener to the list of listeners that will receive notification when new
    * analysis results become available.
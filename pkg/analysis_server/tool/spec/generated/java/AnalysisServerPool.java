@@ -0,0 +1,1142 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * This file has been automatically generated.  Please do not edit it manually.
+ * To regenerate the file, use the script "pkg/analysis_server/tool/spec/generate_files".
+ */
+package com.google.dart.server.generated;
+
+import com.google.dart.server.*;
+import com.google.dart.server.generated.callbacks.*;
+import org.dartlang.analysis.server.protocol.*;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The class {@code AnalysisServerPool} implements {@link AnalysisServer} on top of a fixed set of
+ * analysis servers (shards), each typically running in its own process, so that very large
+ * workspaces can be analyzed using more than one core.
+ * <p>
+ * The analysis roots are partitioned across the shards. A file is owned by the shard analyzing the
+ * innermost root containing it, or by a shard chosen by hashing its path if no root contains it.
+ * Requests about a file are sent to the shard owning the file, requests about several files are
+ * split by owner, requests about an execution context are sent to the shard which created it, and
+ * all the other requests are sent to every shard, their responses being merged. A request sent to
+ * several shards fails with the first error if any of them fails.
+ * <p>
+ * Notifications from all the shards are delivered to the listeners of the pool. The pool is
+ * reported as connected once every shard has connected, and as analyzing while any shard is
+ * analyzing. The results of a search are reported under a single search id, after the consumer of
+ * the search has been invoked, and as complete once every shard has completed the search.
+ * <p>
+ * Each shard assigns its own search and execution context ids, so the ids returned by two shards
+ * may be equal. The pool therefore assigns its own id to each search and execution context, and
+ * translates the ids in the requests and notifications to and from the ids of the shards.
+ * <p>
+ * Requests about an element, such as {@code search.findElementReferences}, only see the files
+ * analyzed by the shard owning the file containing the element.
+ *
+ * @coverage dart.server
+ */
+public class AnalysisServerPool implements AnalysisServer {
+
+  /**
+   * The servers the requests are routed to.
+   */
+  private final List<AnalysisServer> shards;
+
+  /**
+   * The listeners notified of the notifications of all the shards.
+   */
+  private final List<AnalysisServerListener> listeners = new CopyOnWriteArrayList<AnalysisServerListener>();
+
+  /**
+   * A table mapping the analysis roots to the index of the shard analyzing them.
+   */
+  private final Map<String, Integer> rootOwners = new HashMap<String, Integer>();
+
+  /**
+   * A table mapping the ids assigned by the pool to the ids returned by requests sent to a single
+   * shard, such as execution context ids.
+   */
+  private final Map<String, ShardId> ownedIds = new ConcurrentHashMap<String, ShardId>();
+
+  /**
+   * The number from which the next id assigned by the pool is built.
+   */
+  private final AtomicInteger nextId = new AtomicInteger();
+
+  /**
+   * A table mapping the search ids returned by the shards to the search they are part of. The
+   * searches, {@link #bufferedDeliveries} and {@link #pendingSearchCount} are guarded by this table.
+   */
+  private final Map<ShardId, Search> searches = new HashMap<ShardId, Search>();
+
+  /**
+   * The search results received before the search they are part of has been reported to its
+   * consumer, in the order in which they were received.
+   */
+  private final List<SearchDelivery> bufferedDeliveries = new ArrayList<SearchDelivery>();
+
+  /**
+   * The number of searches which have not been reported to their consumer yet. While there is such
+   * a search, the results with an unknown search id are buffered, as the id may
+   * be returned by a shard which has not responded yet.
+   */
+  private int pendingSearchCount = 0;
+
+  /**
+   * Whether each shard has connected, guarded by this array.
+   */
+  private final boolean[] connected;
+
+  /**
+   * Whether each shard was last reported as analyzing, guarded by this array.
+   */
+  private final boolean[] analyzing;
+
+  /**
+   * Whether the pool was last reported as analyzing, guarded by {@link #analyzing}.
+   */
+  private boolean reportedAnalyzing = false;
+
+  /**
+   * An id returned by a shard, together with the index of that shard.
+   */
+  private static class ShardId {
+    /**
+     * The index of the shard.
+     */
+    final int index;
+
+    /**
+     * The id returned by the shard.
+     */
+    final String id;
+
+    ShardId(int index, String id) {
+      this.index = index;
+      this.id = id;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj instanceof ShardId) {
+        ShardId other = (ShardId) obj;
+        return other.index == index && other.id.equals(id);
+      }
+      return false;
+    }
+
+    @Override
+    public int hashCode() {
+      return index * 31 + id.hashCode();
+    }
+  }
+
+  /**
+   * The responses of the shards to a request sent to several shards, merged as they are received.
+   */
+  private static class Join {
+    /**
+     * The merged results of the shards which have succeeded, or {@code null} if no shard has
+     * succeeded yet.
+     */
+    Object[] response;
+
+    /**
+     * The error of the first shard which has failed, or {@code null} if no shard has failed yet.
+     */
+    RequestError error;
+
+    /**
+     * The number of shards which have not responded yet.
+     */
+    private int remaining;
+
+    Join(int count) {
+      remaining = count;
+    }
+
+    /**
+     * Record the response of a shard, which is either the given results or the given error. Return
+     * {@code true} if every shard has responded.
+     */
+    synchronized boolean add(Object[] results, RequestError error) {
+      if (error != null) {
+        if (this.error == null) {
+          this.error = error;
+        }
+      } else if (response == null) {
+        response = results;
+      } else {
+        for (int i = 0; i < results.length; i++) {
+          response[i] = merge(response[i], results[i]);
+        }
+      }
+      return --remaining == 0;
+    }
+  }
+
+  /**
+   * The responses of the shards to a search.
+   */
+  private static class SearchJoin {
+    /**
+     * The search ids returned by the shards which have succeeded.
+     */
+    final List<ShardId> ids = new ArrayList<ShardId>();
+
+    /**
+     * The error of the first shard which has failed, or {@code null} if no shard has failed yet.
+     */
+    RequestError error;
+
+    /**
+     * The number of shards which have not responded yet.
+     */
+    private int remaining;
+
+    SearchJoin(int count) {
+      remaining = count;
+    }
+
+    /**
+     * Record the response of the shard with the given index, which is either the given search id,
+     * {@code null} if the shard has not started a search, or the given error. Return {@code true} if
+     * every shard has responded.
+     */
+    synchronized boolean add(int index, String id, RequestError error) {
+      if (error != null) {
+        if (this.error == null) {
+          this.error = error;
+        }
+      } else if (id != null) {
+        ids.add(new ShardId(index, id));
+      }
+      return --remaining == 0;
+    }
+  }
+
+  /**
+   * A search sent to one or more shards.
+   */
+  private static class Search {
+    /**
+     * The id assigned by the pool, under which the results are reported, or {@code null} if no shard
+     * has returned an id.
+     */
+    final String id;
+
+    /**
+     * The ids returned by the shards.
+     */
+    final List<ShardId> ids;
+
+    /**
+     * Whether the search has failed on a shard, so that its results are not reported.
+     */
+    final boolean cancelled;
+
+    /**
+     * Whether the search has been reported to its consumer, so that its results can be reported.
+     */
+    boolean announced = false;
+
+    /**
+     * The number of shards which have not completed the search yet.
+     */
+    int remaining;
+
+    Search(String id, List<ShardId> ids, boolean cancelled) {
+      this.id = id;
+      this.ids = ids;
+      this.cancelled = cancelled;
+      this.remaining = ids.size();
+    }
+  }
+
+  /**
+   * The results of a search received from a shard, which are reported to the listeners of the pool
+   * under the id of the search they are part of.
+   */
+  private abstract static class SearchDelivery {
+    /**
+     * The search id returned by the shard.
+     */
+    final ShardId id;
+
+    /**
+     * Whether the shard has completed the search.
+     */
+    final boolean isLast;
+
+    SearchDelivery(ShardId id, boolean isLast) {
+      this.id = id;
+      this.isLast = isLast;
+    }
+
+    /**
+     * Report the results to the listeners of the pool with the given search id and completion.
+     */
+    abstract void deliver(String searchId, boolean last);
+  }
+
+  /**
+   * The handler of the notifications of each shard, which forwards them to the listeners of the
+   * pool.
+   */
+  private class ShardListener implements InvocationHandler {
+    /**
+     * The index of the shard.
+     */
+    private final int index;
+
+    ShardListener(int index) {
+      this.index = index;
+    }
+
+    @Override
+    public Object invoke(Object proxy, final Method method, final Object[] arguments) {
+      String event = ClientCallbacks.getEvent(method);
+      if ("server.connected".equals(event)) {
+        if (shardConnected(index)) {
+          dispatch(method, arguments);
+        }
+      } else if ("server.status".equals(event)) {
+        synchronized (analyzing) {
+          arguments[0] = mergeAnalysisStatus(index, (AnalysisStatus) arguments[0]);
+          if (arguments[0] != null || arguments[1] != null) {
+            dispatch(method, arguments);
+          }
+        }
+      } else if ("search.results".equals(event)) {
+        ShardId shardId = new ShardId(index, (String) arguments[0]);
+        deliverSearchResults(new SearchDelivery(shardId, (Boolean) arguments[2]) {
+          @Override
+          void deliver(String searchId, boolean last) {
+            Object[] delivered = arguments.clone();
+            delivered[0] = searchId;
+            delivered[2] = last;
+            dispatch(method, delivered);
+          }
+        });
+      } else {
+        dispatch(method, arguments);
+      }
+      return null;
+    }
+  }
+
+  /**
+   * Initialize a newly created pool to route requests to the given servers, which must not have been
+   * started yet.
+   */
+  public AnalysisServerPool(List<AnalysisServer> shards) {
+    this.shards = new ArrayList<AnalysisServer>(shards);
+    connected = new boolean[shards.size()];
+    analyzing = new boolean[shards.size()];
+    for (int i = 0; i < this.shards.size(); i++) {
+      this.shards.get(i).addAnalysisServerListener(
+          ClientCallbacks.newListener(new ShardListener(i)));
+    }
+  }
+
+  @Override
+  public void addAnalysisServerListener(AnalysisServerListener listener) {
+    listeners.add(listener);
+  }
+
+  @Override
+  public void addStatusListener(AnalysisServerStatusListener listener) {
+    for (AnalysisServer shard : shards) {
+      shard.addStatusListener(listener);
+    }
+  }
+
+  @Override
+  public void analysis_getErrors(String file, GetErrorsConsumer consumer) {
+    getShard(file).analysis_getErrors(file, consumer);
+  }
+
+  @Override
+  public void analysis_getHover(String file, int offset, GetHoverConsumer consumer) {
+    getShard(file).analysis_getHover(file, offset, consumer);
+  }
+
+  @Override
+  public void analysis_getLibraryDependencies(GetLibraryDependenciesConsumer consumer) {
+    final GetLibraryDependenciesCallback callback = ClientCallbacks.toCallback(consumer);
+    final Join join = new Join(shards.size());
+    GetLibraryDependenciesCallback joined = new GetLibraryDependenciesCallback() {
+      @Override
+      public void onError(RequestError requestError) {
+        if (join.add(null, requestError)) {
+          complete();
+        }
+      }
+
+      @Override
+      public void onResponse(List<String> libraries, Map<String, Map<String, List<String>>> packageMap) {
+        if (join.add(new Object[] {libraries, packageMap}, null)) {
+          complete();
+        }
+      }
+
+      @SuppressWarnings("unchecked")
+      private void complete() {
+        if (join.error != null) {
+          callback.onError(join.error);
+        } else {
+          callback.onResponse((List<String>) join.response[0], (Map<String, Map<String, List<String>>>) join.response[1]);
+        }
+      }
+    };
+    for (AnalysisServer shard : shards) {
+      shard.analysis_getLibraryDependencies(ClientCallbacks.toConsumer(joined));
+    }
+  }
+
+  @Override
+  public void analysis_getNavigation(String file, int offset, int length, GetNavigationConsumer consumer) {
+    getShard(file).analysis_getNavigation(file, offset, length, consumer);
+  }
+
+  @Override
+  public void analysis_reanalyze(List<String> roots) {
+    if (roots == null) {
+      for (AnalysisServer shard : shards) {
+        shard.analysis_reanalyze(roots);
+      }
+      return;
+    }
+    List<List<String>> parts = splitList(roots);
+    int count = countNonEmpty(parts);
+    if (count == 0) {
+      shards.get(0).analysis_reanalyze(roots);
+      return;
+    }
+    for (int i = 0; i < shards.size(); i++) {
+      if (!isEmpty(parts.get(i))) {
+        shards.get(i).analysis_reanalyze(parts.get(i));
+      }
+    }
+  }
+
+  @Override
+  public void analysis_setAnalysisRoots(List<String> included, List<String> excluded, Map<String, String> packageRoots) {
+    List<List<String>> parts = assignRoots(included);
+    for (int i = 0; i < shards.size(); i++) {
+      Map<String, String> shardPackageRoots = null;
+      if (packageRoots != null) {
+        shardPackageRoots = new HashMap<String, String>();
+        for (String root : parts.get(i)) {
+          if (packageRoots.containsKey(root)) {
+            shardPackageRoots.put(root, packageRoots.get(root));
+          }
+        }
+      }
+      shards.get(i).analysis_setAnalysisRoots(parts.get(i), excluded, shardPackageRoots);
+    }
+  }
+
+  @Override
+  public void analysis_setPriorityFiles(List<String> files) {
+    List<List<String>> parts = splitList(files);
+    for (int i = 0; i < shards.size(); i++) {
+      shards.get(i).analysis_setPriorityFiles(parts.get(i));
+    }
+  }
+
+  @Override
+  public void analysis_setSubscriptions(Map<String, List<String>> subscriptions) {
+    List<Map<String, List<String>>> parts = splitMapValues(subscriptions);
+    for (int i = 0; i < shards.size(); i++) {
+      shards.get(i).analysis_setSubscriptions(parts.get(i));
+    }
+  }
+
+  @Override
+  public void analysis_updateContent(Map<String, Object> files, UpdateContentConsumer consumer) {
+    List<Map<String, Object>> parts = splitMapKeys(files);
+    int count = countNonEmpty(parts);
+    if (count == 0) {
+      shards.get(0).analysis_updateContent(files, consumer);
+      return;
+    }
+    final UpdateContentCallback callback = ClientCallbacks.toCallback(consumer);
+    final Join join = new Join(count);
+    UpdateContentCallback joined = new UpdateContentCallback() {
+      @Override
+      public void onError(RequestError requestError) {
+        if (join.add(null, requestError)) {
+          complete();
+        }
+      }
+
+      @Override
+      public void onResponse() {
+        if (join.add(new Object[] {}, null)) {
+          complete();
+        }
+      }
+
+      private void complete() {
+        if (join.error != null) {
+          callback.onError(join.error);
+        } else {
+          callback.onResponse();
+        }
+      }
+    };
+    for (int i = 0; i < shards.size(); i++) {
+      if (!isEmpty(parts.get(i))) {
+        shards.get(i).analysis_updateContent(parts.get(i), ClientCallbacks.toConsumer(joined));
+      }
+    }
+  }
+
+  @Override
+  public void analysis_updateOptions(AnalysisOptions options) {
+    for (AnalysisServer shard : shards) {
+      shard.analysis_updateOptions(options);
+    }
+  }
+
+  @Override
+  public void completion_getSuggestions(String file, int offset, GetSuggestionsConsumer consumer) {
+    getShard(file).completion_getSuggestions(file, offset, consumer);
+  }
+
+  @Override
+  public void edit_format(String file, int selectionOffset, int selectionLength, int lineLength, FormatConsumer consumer) {
+    getShard(file).edit_format(file, selectionOffset, selectionLength, lineLength, consumer);
+  }
+
+  @Override
+  public void edit_getAssists(String file, int offset, int length, GetAssistsConsumer consumer) {
+    getShard(file).edit_getAssists(file, offset, length, consumer);
+  }
+
+  @Override
+  public void edit_getAvailableRefactorings(String file, int offset, int length, GetAvailableRefactoringsConsumer consumer) {
+    getShard(file).edit_getAvailableRefactorings(file, offset, length, consumer);
+  }
+
+  @Override
+  public void edit_getFixes(String file, int offset, GetFixesConsumer consumer) {
+    getShard(file).edit_getFixes(file, offset, consumer);
+  }
+
+  @Override
+  public void edit_getRefactoring(String kind, String file, int offset, int length, boolean validateOnly, RefactoringOptions options, GetRefactoringConsumer consumer) {
+    getShard(file).edit_getRefactoring(kind, file, offset, length, validateOnly, options, consumer);
+  }
+
+  @Override
+  public void edit_sortMembers(String file, SortMembersConsumer consumer) {
+    getShard(file).edit_sortMembers(file, consumer);
+  }
+
+  @Override
+  public void execution_createContext(String contextRoot, CreateContextConsumer consumer) {
+    final int index = getShardIndex(contextRoot);
+    final CreateContextCallback callback = ClientCallbacks.toCallback(consumer);
+    CreateContextCallback owned = new CreateContextCallback() {
+      @Override
+      public void onError(RequestError requestError) {
+        callback.onError(requestError);
+      }
+
+      @Override
+      public void onResponse(String id) {
+        id = addOwnedId(index, id);
+        callback.onResponse(id);
+      }
+    };
+    shards.get(index).execution_createContext(contextRoot, ClientCallbacks.toConsumer(owned));
+  }
+
+  @Override
+  public void execution_deleteContext(String id) {
+    ShardId shardId = removeShardId(id);
+    shards.get(shardId.index).execution_deleteContext(shardId.id);
+  }
+
+  @Override
+  public void execution_mapUri(String id, String file, String uri, MapUriConsumer consumer) {
+    ShardId shardId = getShardId(id);
+    shards.get(shardId.index).execution_mapUri(shardId.id, file, uri, consumer);
+  }
+
+  @Override
+  public void execution_setSubscriptions(List<String> subscriptions) {
+    for (AnalysisServer shard : shards) {
+      shard.execution_setSubscriptions(subscriptions);
+    }
+  }
+
+  /**
+   * Return the number of servers the requests are routed to.
+   */
+  public int getShardCount() {
+    return shards.size();
+  }
+
+  @Override
+  public boolean isSocketOpen() {
+    for (AnalysisServer shard : shards) {
+      if (!shard.isSocketOpen()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void removeAnalysisServerListener(AnalysisServerListener listener) {
+    listeners.remove(listener);
+  }
+
+  @Override
+  public void search_findElementReferences(String file, int offset, boolean includePotential, FindElementReferencesConsumer consumer) {
+    final int index = getShardIndex(file);
+    final FindElementReferencesCallback callback = ClientCallbacks.toCallback(consumer);
+    final SearchJoin join = joinSearch(1);
+    FindElementReferencesCallback joined = new FindElementReferencesCallback() {
+      @Override
+      public void onError(RequestError requestError) {
+        if (join.add(index, null, requestError)) {
+          complete(null);
+        }
+      }
+
+      @Override
+      public void onResponse(String id, Element element) {
+        if (join.add(index, id, null)) {
+          complete(element);
+        }
+      }
+
+      private void complete(Element element) {
+        Search search = startSearch(join);
+        try {
+          if (search.cancelled) {
+            callback.onError(join.error);
+          } else {
+            callback.onResponse(search.id, element);
+          }
+        } finally {
+          announceSearch(search);
+        }
+      }
+    };
+    shards.get(index).search_findElementReferences(file, offset, includePotential, ClientCallbacks.toConsumer(joined));
+  }
+
+  @Override
+  public void search_findMemberDeclarations(String name, FindMemberDeclarationsConsumer consumer) {
+    final FindMemberDeclarationsCallback callback = ClientCallbacks.toCallback(consumer);
+    final SearchJoin join = joinSearch(shards.size());
+    for (int i = 0; i < shards.size(); i++) {
+      final int index = i;
+      FindMemberDeclarationsCallback joined = new FindMemberDeclarationsCallback() {
+        @Override
+        public void onError(RequestError requestError) {
+          if (join.add(index, null, requestError)) {
+            complete();
+          }
+        }
+
+        @Override
+        public void onResponse(String id) {
+          if (join.add(index, id, null)) {
+            complete();
+          }
+        }
+
+        private void complete() {
+          Search search = startSearch(join);
+          try {
+            if (search.cancelled) {
+              callback.onError(join.error);
+            } else {
+              callback.onResponse(search.id);
+            }
+          } finally {
+            announceSearch(search);
+          }
+        }
+      };
+      shards.get(i).search_findMemberDeclarations(name, ClientCallbacks.toConsumer(joined));
+    }
+  }
+
+  @Override
+  public void search_findMemberReferences(String name, FindMemberReferencesConsumer consumer) {
+    final FindMemberReferencesCallback callback = ClientCallbacks.toCallback(consumer);
+    final SearchJoin join = joinSearch(shards.size());
+    for (int i = 0; i < shards.size(); i++) {
+      final int index = i;
+      FindMemberReferencesCallback joined = new FindMemberReferencesCallback() {
+        @Override
+        public void onError(RequestError requestError) {
+          if (join.add(index, null, requestError)) {
+            complete();
+          }
+        }
+
+        @Override
+        public void onResponse(String id) {
+          if (join.add(index, id, null)) {
+            complete();
+          }
+        }
+
+        private void complete() {
+          Search search = startSearch(join);
+          try {
+            if (search.cancelled) {
+              callback.onError(join.error);
+            } else {
+              callback.onResponse(search.id);
+            }
+          } finally {
+            announceSearch(search);
+          }
+        }
+      };
+      shards.get(i).search_findMemberReferences(name, ClientCallbacks.toConsumer(joined));
+    }
+  }
+
+  @Override
+  public void search_findTopLevelDeclarations(String pattern, FindTopLevelDeclarationsConsumer consumer) {
+    final FindTopLevelDeclarationsCallback callback = ClientCallbacks.toCallback(consumer);
+    final SearchJoin join = joinSearch(shards.size());
+    for (int i = 0; i < shards.size(); i++) {
+      final int index = i;
+      FindTopLevelDeclarationsCallback joined = new FindTopLevelDeclarationsCallback() {
+        @Override
+        public void onError(RequestError requestError) {
+          if (join.add(index, null, requestError)) {
+            complete();
+          }
+        }
+
+        @Override
+        public void onResponse(String id) {
+          if (join.add(index, id, null)) {
+            complete();
+          }
+        }
+
+        private void complete() {
+          Search search = startSearch(join);
+          try {
+            if (search.cancelled) {
+              callback.onError(join.error);
+            } else {
+              callback.onResponse(search.id);
+            }
+          } finally {
+            announceSearch(search);
+          }
+        }
+      };
+      shards.get(i).search_findTopLevelDeclarations(pattern, ClientCallbacks.toConsumer(joined));
+    }
+  }
+
+  @Override
+  public void search_getTypeHierarchy(String file, int offset, GetTypeHierarchyConsumer consumer) {
+    getShard(file).search_getTypeHierarchy(file, offset, consumer);
+  }
+
+  @Override
+  public void server_getVersion(GetVersionConsumer consumer) {
+    final GetVersionCallback callback = ClientCallbacks.toCallback(consumer);
+    final Join join = new Join(shards.size());
+    GetVersionCallback joined = new GetVersionCallback() {
+      @Override
+      public void onError(RequestError requestError) {
+        if (join.add(null, requestError)) {
+          complete();
+        }
+      }
+
+      @Override
+      public void onResponse(String version) {
+        if (join.add(new Object[] {version}, null)) {
+          complete();
+        }
+      }
+
+      private void complete() {
+        if (join.error != null) {
+          callback.onError(join.error);
+        } else {
+          callback.onResponse((String) join.response[0]);
+        }
+      }
+    };
+    for (AnalysisServer shard : shards) {
+      shard.server_getVersion(ClientCallbacks.toConsumer(joined));
+    }
+  }
+
+  @Override
+  public void server_setSubscriptions(List<String> subscriptions) {
+    for (AnalysisServer shard : shards) {
+      shard.server_setSubscriptions(subscriptions);
+    }
+  }
+
+  @Override
+  public void server_shutdown() {
+    for (AnalysisServer shard : shards) {
+      shard.server_shutdown();
+    }
+  }
+
+  @Override
+  public void start() throws Exception {
+    for (AnalysisServer shard : shards) {
+      shard.start();
+    }
+  }
+
+  /**
+   * Assign a new id to the given id returned by the shard with the given index, and return it, or
+   * return {@code null} if the given id is {@code null}.
+   */
+  private String addOwnedId(int index, String id) {
+    if (id == null) {
+      return null;
+    }
+    String ownedId = newId();
+    ownedIds.put(ownedId, new ShardId(index, id));
+    return ownedId;
+  }
+
+  /**
+   * Record that the given search has been reported to its consumer, and report the results which
+   * were buffered until then.
+   */
+  private void announceSearch(Search search) {
+    synchronized (searches) {
+      search.announced = true;
+      pendingSearchCount--;
+      List<SearchDelivery> deliveries = new ArrayList<SearchDelivery>(bufferedDeliveries);
+      bufferedDeliveries.clear();
+      for (SearchDelivery delivery : deliveries) {
+        deliverSearchResults(delivery);
+      }
+    }
+  }
+
+  /**
+   * Assign each of the given roots to a shard, keeping the shard of the roots which were already
+   * analyzed and assigning new roots to the shards with the fewest roots. Return the roots assigned
+   * to each shard.
+   */
+  private List<List<String>> assignRoots(List<String> included) {
+    List<List<String>> parts = new ArrayList<List<String>>();
+    for (int i = 0; i < shards.size(); i++) {
+      parts.add(new ArrayList<String>());
+    }
+    synchronized (rootOwners) {
+      rootOwners.keySet().retainAll(included);
+      int[] rootCounts = new int[shards.size()];
+      for (Integer owner : rootOwners.values()) {
+        rootCounts[owner]++;
+      }
+      for (String root : included) {
+        Integer owner = rootOwners.get(root);
+        if (owner == null) {
+          owner = 0;
+          for (int i = 1; i < rootCounts.length; i++) {
+            if (rootCounts[i] < rootCounts[owner]) {
+              owner = i;
+            }
+          }
+          rootOwners.put(root, owner);
+          rootCounts[owner]++;
+        }
+        parts.get(owner).add(root);
+      }
+    }
+    return parts;
+  }
+
+  private static int countNonEmpty(List<?> parts) {
+    int count = 0;
+    for (Object part : parts) {
+      if (!isEmpty(part)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Report the given search results to the listeners of the pool under the id of the search they are
+   * part of, or buffer them if that search has not been reported to its consumer yet. The results of
+   * a cancelled search are dropped, and so are the results with an unknown search id once no search
+   * is pending, as they are not part of a search started through the pool.
+   */
+  private void deliverSearchResults(SearchDelivery delivery) {
+    synchronized (searches) {
+      Search search = searches.get(delivery.id);
+      if (search == null ? pendingSearchCount != 0 : !search.announced) {
+        bufferedDeliveries.add(delivery);
+      } else if (search != null) {
+        boolean last = delivery.isLast && finishSearch(search);
+        if (!search.cancelled) {
+          delivery.deliver(search.id, last);
+        }
+      }
+    }
+  }
+
+  /**
+   * Invoke the given method of every listener of the pool with the given arguments.
+   */
+  private void dispatch(Method method, Object[] arguments) {
+    for (AnalysisServerListener listener : listeners) {
+      ClientCallbacks.invoke(method, listener, arguments);
+    }
+  }
+
+  /**
+   * Record that a shard has completed the given search. Return {@code true} if every shard has
+   * completed it. Must be invoked while holding the lock on {@link #searches}.
+   */
+  private boolean finishSearch(Search search) {
+    if (--search.remaining != 0) {
+      return false;
+    }
+    for (ShardId id : search.ids) {
+      searches.remove(id);
+    }
+    return true;
+  }
+
+  private AnalysisServer getShard(String file) {
+    return shards.get(getShardIndex(file));
+  }
+
+  /**
+   * Return the id returned by a shard which the given id assigned by the pool stands for, or the
+   * given id on the first shard if the pool has not assigned it.
+   */
+  private ShardId getShardId(String id) {
+    ShardId shardId = id != null ? ownedIds.get(id) : null;
+    return shardId != null ? shardId : new ShardId(0, id);
+  }
+
+  /**
+   * Return the index of the shard owning the given file.
+   */
+  private int getShardIndex(String file) {
+    if (file == null) {
+      return 0;
+    }
+    synchronized (rootOwners) {
+      String ownerRoot = null;
+      int owner = -1;
+      for (Map.Entry<String, Integer> entry : rootOwners.entrySet()) {
+        String root = entry.getKey();
+        if (isContained(root, file) && (ownerRoot == null || root.length() > ownerRoot.length())) {
+          ownerRoot = root;
+          owner = entry.getValue();
+        }
+      }
+      if (owner != -1) {
+        return owner;
+      }
+    }
+    return (file.hashCode() & 0x7FFFFFFF) % shards.size();
+  }
+
+  private static boolean isContained(String root, String file) {
+    if (!file.startsWith(root)) {
+      return false;
+    }
+    if (file.length() == root.length() || root.endsWith("/") || root.endsWith("\\")) {
+      return true;
+    }
+    char separator = file.charAt(root.length());
+    return separator == '/' || separator == '\\';
+  }
+
+  private static boolean isEmpty(Object part) {
+    if (part instanceof Map) {
+      return ((Map<?, ?>) part).isEmpty();
+    }
+    return ((Collection<?>) part).isEmpty();
+  }
+
+  /**
+   * Return the join of the responses of the given number of shards to a new search. The results of
+   * the search are buffered until the search is reported to its consumer.
+   */
+  private SearchJoin joinSearch(int count) {
+    synchronized (searches) {
+      pendingSearchCount++;
+    }
+    return new SearchJoin(count);
+  }
+
+  /**
+   * Merge two values of the same result of a request, returned by different shards. Lists and maps
+   * are merged without duplicates, other values are taken from the first shard.
+   */
+  @SuppressWarnings("unchecked")
+  private static Object merge(Object first, Object second) {
+    if (first instanceof List && second instanceof List) {
+      LinkedHashSet<Object> merged = new LinkedHashSet<Object>((List<Object>) first);
+      merged.addAll((List<Object>) second);
+      return new ArrayList<Object>(merged);
+    }
+    if (first instanceof Map && second instanceof Map) {
+      Map<Object, Object> merged = new LinkedHashMap<Object, Object>((Map<Object, Object>) first);
+      for (Map.Entry<Object, Object> entry : ((Map<Object, Object>) second).entrySet()) {
+        Object value = merged.get(entry.getKey());
+        merged.put(entry.getKey(), value != null ? merge(value, entry.getValue()) : entry.getValue());
+      }
+      return merged;
+    }
+    return first != null ? first : second;
+  }
+
+  /**
+   * Record the analysis status reported by the shard with the given index. Return the status if it
+   * changes the status of the pool, which is analyzing while any shard is analyzing, or {@code null}
+   * if it does not. Must be invoked while holding the lock on {@link #analyzing}.
+   */
+  private AnalysisStatus mergeAnalysisStatus(int index, AnalysisStatus status) {
+    if (status == null) {
+      return null;
+    }
+    analyzing[index] = status.isAnalyzing();
+    boolean poolAnalyzing = false;
+    for (boolean shardAnalyzing : analyzing) {
+      poolAnalyzing |= shardAnalyzing;
+    }
+    if (poolAnalyzing == reportedAnalyzing) {
+      return null;
+    }
+    reportedAnalyzing = poolAnalyzing;
+    return status;
+  }
+
+  /**
+   * Return a new id assigned by the pool, which is distinct from every id it has assigned.
+   */
+  private String newId() {
+    return String.valueOf(nextId.getAndIncrement());
+  }
+
+  /**
+   * Forget the given id assigned by the pool, such as when the execution context it stands for is
+   * deleted, and return the id returned by a shard it stood for, as {@link #getShardId} does.
+   */
+  private ShardId removeShardId(String id) {
+    ShardId shardId = id != null ? ownedIds.remove(id) : null;
+    return shardId != null ? shardId : new ShardId(0, id);
+  }
+
+  /**
+   * Record that the shard with the given index has connected. Return {@code true} if every shard has
+   * connected, so that the connection is reported.
+   */
+  private boolean shardConnected(int index) {
+    synchronized (connected) {
+      connected[index] = true;
+      for (boolean shardConnected : connected) {
+        if (!shardConnected) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  private List<List<String>> splitList(List<String> files) {
+    List<List<String>> parts = new ArrayList<List<String>>();
+    for (int i = 0; i < shards.size(); i++) {
+      parts.add(new ArrayList<String>());
+    }
+    for (String file : files) {
+      parts.get(getShardIndex(file)).add(file);
+    }
+    return parts;
+  }
+
+  private <V> List<Map<String, V>> splitMapKeys(Map<String, V> map) {
+    List<Map<String, V>> parts = new ArrayList<Map<String, V>>();
+    for (int i = 0; i < shards.size(); i++) {
+      parts.add(new LinkedHashMap<String, V>());
+    }
+    for (Map.Entry<String, V> entry : map.entrySet()) {
+      parts.get(getShardIndex(entry.getKey())).put(entry.getKey(), entry.getValue());
+    }
+    return parts;
+  }
+
+  private <K> List<Map<K, List<String>>> splitMapValues(Map<K, List<String>> map) {
+    List<Map<K, List<String>>> parts = new ArrayList<Map<K, List<String>>>();
+    for (int i = 0; i < shards.size(); i++) {
+      Map<K, List<String>> part = new LinkedHashMap<K, List<String>>();
+      for (K key : map.keySet()) {
+        part.put(key, new ArrayList<String>());
+      }
+      parts.add(part);
+    }
+    for (Map.Entry<K, List<String>> entry : map.entrySet()) {
+      for (String file : entry.getValue()) {
+        parts.get(getShardIndex(file)).get(entry.getKey()).add(file);
+      }
+    }
+    return parts;
+  }
+
+  /**
+   * Register the search whose ids have been returned by the shards, assigning it an id of the pool
+   * if any shard has returned an id. The search is cancelled if a shard has failed. Its results are
+   * buffered until {@link #announceSearch} is invoked.
+   */
+  private Search startSearch(SearchJoin join) {
+    synchronized (searches) {
+      String id = join.ids.isEmpty() ? null : newId();
+      Search search = new Search(id, join.ids, join.error != null);
+      for (ShardId shardId : search.ids) {
+        searches.put(shardId, search);
+      }
+      return search;
+    }
+  }
+
+}
@@ -0,0 +1,398 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * This file has been automatically generated.  Please do not edit it manually.
+ * To regenerate the file, use the script "pkg/analysis_server/tool/spec/generate_files".
+ */
+package com.google.dart.server.generated;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The class {@code AnalysisSnapshotStore} persists the latest analysis notifications received for
+ * each file, such as its outline and errors, so that an IDE can show them immediately on startup
+ * rather than waiting for the server to analyze every open file again. Each snapshot is recorded
+ * with the hash of the content of the file it was computed for, and is only returned for the same
+ * content. The notifications are returned as received, to be handled by the same code that decodes
+ * the notifications of the server, and should be replaced by the fresh ones as they arrive.
+ * <p>
+ * The store is a log in a memory-mapped file, each record holding a path, a content hash and a
+ * notification encoded by {@link BinaryCodec}. Opening a store only scans the headers of the records
+ * to index the latest record of each file and notification, the notifications being decoded when
+ * they are requested. The log is compacted in place once most of it holds replaced records. A store
+ * written for another version of the protocol, or with another encoding of {@link BinaryCodec}, is
+ * discarded.
+ *
+ * @coverage dart.server
+ */
+public class AnalysisSnapshotStore {
+
+  /**
+   * The notifications kept in a snapshot.
+   */
+  public static final List<String> EVENTS = Collections.unmodifiableList(Arrays.asList("analysis.errors", "analysis.highlights", "analysis.navigation", "analysis.outline"));
+
+  /**
+   * The version of the protocol of the notifications, which determines their encoding.
+   */
+  private static final String PROTOCOL_VERSION = "1.7.0";
+
+  /**
+   * The first four bytes of a snapshot store.
+   */
+  private static final int MAGIC = 0x534E4150;
+
+  /**
+   * The offsets of the fields of the header: the hash of the protocol version, the version of the
+   * encoding of {@link BinaryCodec}, and the end of the log, which is written after the records it
+   * covers.
+   */
+  private static final int VERSION_OFFSET = 4;
+
+  private static final int FORMAT_OFFSET = 8;
+
+  private static final int END_OFFSET = 12;
+
+  private static final int DATA_OFFSET = 16;
+
+  /**
+   * The size of the fields of a record preceding its path: its length, the hash of the content, the
+   * index of the notification, or {@code -1} if the file was removed, and the length of the path.
+   */
+  private static final int RECORD_HEADER_SIZE = 4 + 8 + 1 + 4;
+
+  private static final int INITIAL_SIZE = 1 << 20;
+
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  /**
+   * The location of the latest record of a notification for a file.
+   */
+  private static class Record {
+    private final long contentHash;
+    private final int offset;
+    private final int size;
+    private final int notificationOffset;
+
+    Record(long contentHash, int offset, int size, int notificationOffset) {
+      this.contentHash = contentHash;
+      this.offset = offset;
+      this.size = size;
+      this.notificationOffset = notificationOffset;
+    }
+  }
+
+  /**
+   * The file of the store.
+   */
+  private final File file;
+
+  private RandomAccessFile randomAccessFile;
+
+  /**
+   * The mapping of the file, which may extend beyond the end of the log.
+   */
+  private MappedByteBuffer buffer;
+
+  /**
+   * The offset following the last record.
+   */
+  private int end;
+
+  /**
+   * The number of bytes of the records which have not been replaced.
+   */
+  private int liveSize;
+
+  /**
+   * The latest records of the files, indexed by the index of their notification in {@link #EVENTS}.
+   */
+  private final Map<String, Record[]> records = new HashMap<String, Record[]>();
+
+  private AnalysisSnapshotStore(File file) {
+    this.file = file;
+  }
+
+  /**
+   * Write the changes to the disk and close this store.
+   */
+  public synchronized void close() throws IOException {
+    buffer.force();
+    randomAccessFile.close();
+  }
+
+  /**
+   * Return the paths of the files which have a snapshot.
+   */
+  public synchronized Set<String> getFiles() {
+    return new HashSet<String>(records.keySet());
+  }
+
+  /**
+   * Return the latest notification with the given event for the file with the given path, or
+   * {@code null} if there is none or if it was computed for another content.
+   */
+  public synchronized JsonObject getNotification(String event, String path, long contentHash) {
+    Record[] fileRecords = records.get(path);
+    int index = EVENTS.indexOf(event);
+    if (fileRecords == null || index == -1) {
+      return null;
+    }
+    Record record = fileRecords[index];
+    if (record == null || record.contentHash != contentHash) {
+      return null;
+    }
+    byte[] bytes = new byte[record.offset + record.size - record.notificationOffset];
+    ByteBuffer source = buffer.duplicate();
+    source.position(record.notificationOffset);
+    source.get(bytes);
+    return BinaryCodec.decode(bytes);
+  }
+
+  /**
+   * Return the latest notifications for the file with the given path which were computed for the
+   * given content, in the order of {@link #EVENTS}.
+   */
+  public synchronized List<JsonObject> getNotifications(String path, long contentHash) {
+    List<JsonObject> notifications = new ArrayList<JsonObject>();
+    for (String event : EVENTS) {
+      JsonObject notification = getNotification(event, path, contentHash);
+      if (notification != null) {
+        notifications.add(notification);
+      }
+    }
+    return notifications;
+  }
+
+  /**
+   * Return the hash of the given content of a file, as expected by this store.
+   */
+  public static long hashContent(CharSequence content) {
+    long hash = 0xcbf29ce484222325L;
+    int length = content.length();
+    for (int i = 0; i < length; i++) {
+      hash = (hash ^ content.charAt(i)) * 0x100000001b3L;
+    }
+    return hash;
+  }
+
+  /**
+   * Open the store in the given file, creating it if it does not exist or if it is not a store for
+   * the current version of the protocol and encoding of {@link BinaryCodec}.
+   */
+  public static AnalysisSnapshotStore open(File file) throws IOException {
+    AnalysisSnapshotStore store = new AnalysisSnapshotStore(file);
+    store.map();
+    return store;
+  }
+
+  /**
+   * Record the given notification as the latest one for its file, computed for the content with the
+   * given hash. Return {@code false} if the notification is not kept in a snapshot.
+   */
+  public synchronized boolean put(JsonObject notification, long contentHash) throws IOException {
+    JsonElement event = notification.get("event");
+    int index = event != null ? EVENTS.indexOf(event.getAsString()) : -1;
+    if (index == -1) {
+      return false;
+    }
+    String path = notification.getAsJsonObject("params").get("file").getAsString();
+    append(path, contentHash, index, BinaryCodec.encodeNotification(notification));
+    compactIfNeeded();
+    return true;
+  }
+
+  /**
+   * Remove the snapshot of the file with the given path, such as when the file is deleted.
+   */
+  public synchronized void remove(String path) throws IOException {
+    if (records.containsKey(path)) {
+      append(path, 0, -1, new byte[0]);
+      compactIfNeeded();
+    }
+  }
+
+  /**
+   * Append a record to the log and index it.
+   */
+  private void append(String path, long contentHash, int index, byte[] notification)
+      throws IOException {
+    byte[] pathBytes = path.getBytes(UTF8);
+    int size = RECORD_HEADER_SIZE + pathBytes.length + notification.length;
+    if (end + size > buffer.capacity()) {
+      buffer.force();
+      buffer = randomAccessFile.getChannel().map(
+          FileChannel.MapMode.READ_WRITE,
+          0,
+          Math.max(2L * buffer.capacity(), (long) end + size));
+    }
+    ByteBuffer target = buffer.duplicate();
+    target.position(end);
+    target.putInt(size - 4);
+    target.putLong(contentHash);
+    target.put((byte) index);
+    target.putInt(pathBytes.length);
+    target.put(pathBytes);
+    target.put(notification);
+    index(path, contentHash, index, end, size, end + size - notification.length);
+    end += size;
+    buffer.putInt(END_OFFSET, end);
+  }
+
+  /**
+   * Rewrite the log with only the latest records if most of it holds replaced records. The records
+   * are moved to the start of the log in place rather than into a new file replacing this one, which
+   * cannot be done on platforms where a mapped file cannot be deleted. The log is emptied on the
+   * disk before the records are moved, so that an interrupted compaction loses the snapshots rather
+   * than corrupts them.
+   */
+  private void compactIfNeeded() throws IOException {
+    int size = end - DATA_OFFSET;
+    if (size < INITIAL_SIZE || liveSize > size / 2) {
+      return;
+    }
+    byte[] live = new byte[liveSize];
+    ByteBuffer target = ByteBuffer.wrap(live);
+    for (Record[] fileRecords : records.values()) {
+      for (Record record : fileRecords) {
+        if (record != null) {
+          ByteBuffer source = buffer.duplicate();
+          source.position(record.offset);
+          source.limit(record.offset + record.size);
+          target.put(source);
+        }
+      }
+    }
+    end = DATA_OFFSET;
+    buffer.putInt(END_OFFSET, end);
+    buffer.force();
+    ByteBuffer log = buffer.duplicate();
+    log.position(DATA_OFFSET);
+    log.put(live);
+    end = DATA_OFFSET + live.length;
+    buffer.putInt(END_OFFSET, end);
+    buffer.force();
+    records.clear();
+    liveSize = 0;
+    indexRecords();
+  }
+
+  /**
+   * Index the record at the given offset, replacing the previous record of the same file and
+   * notification, or all of the records of the file if the index of the notification is {@code -1}.
+   */
+  private void index(String path, long contentHash, int index, int offset, int size,
+      int notificationOffset) {
+    Record[] fileRecords = records.get(path);
+    if (index == -1) {
+      if (fileRecords != null) {
+        for (Record record : fileRecords) {
+          if (record != null) {
+            liveSize -= record.size;
+          }
+        }
+        records.remove(path);
+      }
+      return;
+    }
+    if (fileRecords == null) {
+      fileRecords = new Record[EVENTS.size()];
+      records.put(path, fileRecords);
+    }
+    if (fileRecords[index] != null) {
+      liveSize -= fileRecords[index].size;
+    }
+    fileRecords[index] = new Record(contentHash, offset, size, notificationOffset);
+    liveSize += size;
+  }
+
+  /**
+   * Index the records of the log, truncating it before the first invalid record.
+   */
+  private void indexRecords() {
+    int offset = DATA_OFFSET;
+    while (offset < end) {
+      int size = buffer.getInt(offset) + 4;
+      int index = -2;
+      int pathLength = -1;
+      if (size >= RECORD_HEADER_SIZE && size <= end - offset) {
+        index = buffer.get(offset + 12);
+        pathLength = buffer.getInt(offset + 13);
+      }
+      if (index < -1
+          || index >= EVENTS.size()
+          || pathLength < 0
+          || pathLength > size - RECORD_HEADER_SIZE) {
+        // the log is corrupt, keep the records preceding the corruption
+        end = offset;
+        buffer.putInt(END_OFFSET, end);
+        break;
+      }
+      long contentHash = buffer.getLong(offset + 4);
+      byte[] pathBytes = new byte[pathLength];
+      ByteBuffer source = buffer.duplicate();
+      source.position(offset + RECORD_HEADER_SIZE);
+      source.get(pathBytes);
+      index(
+          new String(pathBytes, UTF8),
+          contentHash,
+          index,
+          offset,
+          size,
+          offset + RECORD_HEADER_SIZE + pathLength);
+      offset += size;
+    }
+  }
+
+  /**
+   * Map the file of this store and index its records, resetting it if it is not a valid store.
+   */
+  private void map() throws IOException {
+    randomAccessFile = new RandomAccessFile(file, "rw");
+    long length = Math.max(randomAccessFile.length(), INITIAL_SIZE);
+    buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, length);
+    liveSize = 0;
+    end = buffer.getInt(END_OFFSET);
+    if (buffer.getInt(0) != MAGIC
+        || buffer.getInt(VERSION_OFFSET) != PROTOCOL_VERSION.hashCode()
+        || buffer.getInt(FORMAT_OFFSET) != BinaryCodec.FORMAT_VERSION
+        || end < DATA_OFFSET
+        || end > length) {
+      buffer.putInt(0, MAGIC);
+      buffer.putInt(VERSION_OFFSET, PROTOCOL_VERSION.hashCode());
+      buffer.putInt(FORMAT_OFFSET, BinaryCodec.FORMAT_VERSION);
+      end = DATA_OFFSET;
+      buffer.putInt(END_OFFSET, end);
+      return;
+    }
+    indexRecords();
+  }
+
+}
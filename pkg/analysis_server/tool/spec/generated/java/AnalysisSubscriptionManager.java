@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * This file has been automatically generated.  Please do not edit it manually.
+ * To regenerate the file, use the script "pkg/analysis_server/tool/spec/generate_files".
+ */
+package com.google.dart.server.generated;
+
+import org.dartlang.analysis.server.protocol.AnalysisService;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The class {@code AnalysisSubscriptionManager} maintains the subscriptions and the priority files
+ * of an analysis server from the files visible in an editor, sending
+ * {@code analysis.setSubscriptions} and {@code analysis.setPriorityFiles} only when the set they
+ * replace actually changes.
+ * <p>
+ * The visible files, reported with {@link #setVisibleFiles}, are the priority files, and are
+ * subscribed to the services given to the constructor. Other files can be subscribed to a service
+ * with {@link #setSubscribedFiles}, such as the files of an outline view. The changes made within
+ * a fixed delay of the first one are coalesced, so that a burst of changes, such as switching
+ * through tabs, results in at most one request of each kind, which is not sent if the effective
+ * subscriptions or priority files are the same as the ones last sent. The changes can also be sent
+ * immediately with {@link #flush}.
+ *
+ * @coverage dart.server
+ */
+public class AnalysisSubscriptionManager {
+
+  /**
+   * The services which can be subscribed to.
+   */
+  private static final Set<String> SERVICES = new HashSet<String>(Arrays.asList(
+      AnalysisService.FOLDING,
+      AnalysisService.HIGHLIGHTS,
+      AnalysisService.INVALIDATE,
+      AnalysisService.NAVIGATION,
+      AnalysisService.OCCURRENCES,
+      AnalysisService.OUTLINE,
+      AnalysisService.OVERRIDES));
+
+  /**
+   * The server the requests are sent to.
+   */
+  private final AnalysisServer server;
+
+  /**
+   * The services the visible files are subscribed to.
+   */
+  private final Set<String> visibleServices;
+
+  /**
+   * The executor the changes are sent by once the delay has elapsed.
+   */
+  private final ScheduledExecutorService executor;
+
+  /**
+   * The delay within which the changes are coalesced, in {@link #unit}.
+   */
+  private final long delay;
+
+  /**
+   * The unit of {@link #delay}.
+   */
+  private final TimeUnit unit;
+
+  /**
+   * The visible files.
+   */
+  private Set<String> visibleFiles = new TreeSet<String>();
+
+  /**
+   * The files subscribed to each service with {@link #setSubscribedFiles}.
+   */
+  private final Map<String, Set<String>> subscribedFiles = new TreeMap<String, Set<String>>();
+
+  /**
+   * The subscriptions last sent to the server.
+   */
+  private Map<String, Set<String>> sentSubscriptions = new TreeMap<String, Set<String>>();
+
+  /**
+   * The priority files last sent to the server.
+   */
+  private Set<String> sentPriorityFiles = new TreeSet<String>();
+
+  /**
+   * The pending sending of the changes, or {@code null} if there is no unsent change.
+   */
+  private ScheduledFuture<?> flushFuture;
+
+  /**
+   * The task sending the changes.
+   */
+  private final Runnable flushTask = new Runnable() {
+    @Override
+    public void run() {
+      flush();
+    }
+  };
+
+  /**
+   * Initialize a newly created manager to send requests to the given server, subscribing the visible
+   * files to the given services, and coalescing the changes made within the given delay, after which
+   * they are sent by the given executor.
+   */
+  public AnalysisSubscriptionManager(AnalysisServer server, Collection<String> visibleServices,
+      ScheduledExecutorService executor, long delay, TimeUnit unit) {
+    for (String service : visibleServices) {
+      checkService(service);
+    }
+    this.server = server;
+    this.visibleServices = new HashSet<String>(visibleServices);
+    this.executor = executor;
+    this.delay = delay;
+    this.unit = unit;
+  }
+
+  /**
+   * Send the changes which have not been sent yet, if they change the effective subscriptions or
+   * priority files.
+   */
+  public synchronized void flush() {
+    if (flushFuture != null) {
+      flushFuture.cancel(false);
+      flushFuture = null;
+    }
+    Map<String, Set<String>> subscriptions = new TreeMap<String, Set<String>>();
+    for (Map.Entry<String, Set<String>> entry : subscribedFiles.entrySet()) {
+      if (!entry.getValue().isEmpty()) {
+        subscriptions.put(entry.getKey(), new TreeSet<String>(entry.getValue()));
+      }
+    }
+    if (!visibleFiles.isEmpty()) {
+      for (String service : visibleServices) {
+        Set<String> files = subscriptions.get(service);
+        if (files == null) {
+          files = new TreeSet<String>();
+          subscriptions.put(service, files);
+        }
+        files.addAll(visibleFiles);
+      }
+    }
+    if (!subscriptions.equals(sentSubscriptions)) {
+      Map<String, List<String>> request = new TreeMap<String, List<String>>();
+      for (Map.Entry<String, Set<String>> entry : subscriptions.entrySet()) {
+        request.put(entry.getKey(), new ArrayList<String>(entry.getValue()));
+      }
+      server.analysis_setSubscriptions(request);
+      sentSubscriptions = subscriptions;
+    }
+    if (!visibleFiles.equals(sentPriorityFiles)) {
+      server.analysis_setPriorityFiles(new ArrayList<String>(visibleFiles));
+      sentPriorityFiles = new TreeSet<String>(visibleFiles);
+    }
+  }
+
+  /**
+   * Return the subscriptions last sent to the server.
+   */
+  public synchronized Map<String, Set<String>> getSubscriptions() {
+    return Collections.unmodifiableMap(sentSubscriptions);
+  }
+
+  /**
+   * Subscribe the given files to the given service, in addition to the visible files if the service
+   * is one of the services of the visible files.
+   */
+  public synchronized void setSubscribedFiles(String service, Collection<String> files) {
+    checkService(service);
+    subscribedFiles.put(service, new TreeSet<String>(files));
+    schedule();
+  }
+
+  /**
+   * Record that the given files are the files visible in the editor.
+   */
+  public synchronized void setVisibleFiles(Collection<String> files) {
+    visibleFiles = new TreeSet<String>(files);
+    schedule();
+  }
+
+  /**
+   * Throw an {@link IllegalArgumentException} if the given service is not a service which can be
+   * subscribed to.
+   */
+  private static void checkService(String service) {
+    if (!SERVICES.contains(service)) {
+      throw new IllegalArgumentException("service: " + service);
+    }
+  }
+
+  /**
+   * Schedule the sending of the changes, unless it is already scheduled.
+   */
+  private void schedule() {
+    if (flushFuture == null) {
+      flushFuture = executor.schedule(flushTask, delay, unit);
+    }
+  }
+
+}
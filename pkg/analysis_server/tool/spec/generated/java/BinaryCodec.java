@@ -0,0 +1,3267 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * This file has been automatically generated.  Please do not edit it manually.
+ * To regenerate the file, use the script "pkg/analysis_server/tool/spec/generate_files".
+ */
+package com.google.dart.server.generated;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The class {@code BinaryCodec} encodes the JSON messages of the analysis server protocol in a
+ * compact binary form, as an optional transport for large workspaces, and decodes them back.
+ * <p>
+ * The encoding of each request, response and notification is derived from the types of its
+ * parameters and result, so that field names are never encoded. Ints are encoded as zig-zag
+ * varints, lists of ints as the varint differences between consecutive elements, and strings, such
+ * as paths and kinds, are encoded once per message and then referred to by their index in a string
+ * table. The optional fields of an object are listed in a varint mask preceding its fields. Objects
+ * whose types have no fields in the specification, such as refactoring feedback and options, are
+ * encoded as generic JSON. A message which does not conform to the specification, such as one with
+ * members or a method unknown to it, is encoded as generic JSON as a whole, so that no information
+ * is lost.
+ * <p>
+ * A response does not include its method, so it is encoded given the method of the request it
+ * answers.
+ *
+ * @coverage dart.server
+ */
+public class BinaryCodec {
+
+  /**
+   * The version of the encoding, which is to be incremented whenever the encoding of a message of a
+   * given version of the protocol changes, so that the bytes persisted with another encoding are not
+   * decoded.
+   */
+  public static final int FORMAT_VERSION = 1;
+
+  /**
+   * The kinds of messages.
+   */
+  private static final int REQUEST = 0;
+
+  private static final int RESPONSE = 1;
+
+  private static final int NOTIFICATION = 2;
+
+  private static final int JSON = 3;
+
+  /**
+   * The tags of generic JSON values.
+   */
+  private static final int TAG_NULL = 0;
+
+  private static final int TAG_FALSE = 1;
+
+  private static final int TAG_TRUE = 2;
+
+  private static final int TAG_INTEGER = 3;
+
+  private static final int TAG_DOUBLE = 4;
+
+  private static final int TAG_STRING = 5;
+
+  private static final int TAG_ARRAY = 6;
+
+  private static final int TAG_OBJECT = 7;
+
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  /**
+   * The methods of the requests, encoded as their indices.
+   */
+  private static final String[] REQUESTS = {
+      "server.getVersion",
+      "server.shutdown",
+      "server.setSubscriptions",
+      "analysis.getErrors",
+      "analysis.getHover",
+      "analysis.getLibraryDependencies",
+      "analysis.getNavigation",
+      "analysis.reanalyze",
+      "analysis.setAnalysisRoots",
+      "analysis.setPriorityFiles",
+      "analysis.setSubscriptions",
+      "analysis.updateContent",
+      "analysis.updateOptions",
+      "completion.getSuggestions",
+      "search.findElementReferences",
+      "search.findMemberDeclarations",
+      "search.findMemberReferences",
+      "search.findTopLevelDeclarations",
+      "search.getTypeHierarchy",
+      "edit.format",
+      "edit.getAssists",
+      "edit.getAvailableRefactorings",
+      "edit.getFixes",
+      "edit.getRefactoring",
+      "edit.sortMembers",
+      "execution.createContext",
+      "execution.deleteContext",
+      "execution.mapUri",
+      "execution.setSubscriptions",
+  };
+
+  /**
+   * The events of the notifications, encoded as their indices.
+   */
+  private static final String[] NOTIFICATIONS = {
+      "server.connected",
+      "server.error",
+      "server.status",
+      "analysis.errors",
+      "analysis.flushResults",
+      "analysis.folding",
+      "analysis.highlights",
+      "analysis.invalidate",
+      "analysis.navigation",
+      "analysis.occurrences",
+      "analysis.outline",
+      "analysis.overrides",
+      "completion.results",
+      "search.results",
+      "execution.launchData",
+  };
+
+  private static final Map<String, Integer> REQUEST_INDICES = createIndices(REQUESTS);
+
+  private static final Map<String, Integer> NOTIFICATION_INDICES = createIndices(NOTIFICATIONS);
+
+  /**
+   * The bytes being encoded or decoded.
+   */
+  private byte[] bytes;
+
+  /**
+   * The position of the next byte to encode or decode.
+   */
+  private int position;
+
+  /**
+   * The indices in the string table of the strings encoded so far.
+   */
+  private final Map<String, Integer> stringIndices = new HashMap<String, Integer>();
+
+  /**
+   * The string table of the strings decoded so far.
+   */
+  private final List<String> strings = new ArrayList<String>();
+
+  /**
+   * Initialize a newly created codec to decode the given bytes, or to encode if they are
+   * {@code null}.
+   */
+  private BinaryCodec(byte[] bytes) {
+    this.bytes = bytes != null ? bytes : new byte[256];
+  }
+
+  /**
+   * Return the JSON message encoded in the given bytes.
+   *
+   * @throws IllegalArgumentException if the bytes are not a valid encoding
+   */
+  public static JsonObject decode(byte[] bytes) {
+    BinaryCodec codec = new BinaryCodec(bytes);
+    try {
+      int kind = codec.readByte();
+      if (kind == REQUEST) {
+        JsonObject request = new JsonObject();
+        request.addProperty("id", codec.readString());
+        String method = REQUESTS[codec.readVarint()];
+        request.addProperty("method", method);
+        JsonObject params = codec.readParams(method);
+        if (params != null) {
+          request.add("params", params);
+        }
+        return request;
+      } else if (kind == RESPONSE) {
+        JsonObject response = new JsonObject();
+        response.addProperty("id", codec.readString());
+        String method = REQUESTS[codec.readVarint()];
+        int flags = codec.readByte();
+        if ((flags & 1) != 0) {
+          response.add("result", codec.readResult(method));
+        }
+        if ((flags & 2) != 0) {
+          response.add("error", codec.readRequestError());
+        }
+        return response;
+      } else if (kind == NOTIFICATION) {
+        JsonObject notification = new JsonObject();
+        String event = NOTIFICATIONS[codec.readVarint()];
+        notification.addProperty("event", event);
+        JsonObject params = codec.readNotificationParams(event);
+        if (params != null) {
+          notification.add("params", params);
+        }
+        return notification;
+      } else if (kind == JSON) {
+        return codec.readJson().getAsJsonObject();
+      }
+      throw new IllegalArgumentException("Unknown kind of message: " + kind);
+    } catch (IndexOutOfBoundsException exception) {
+      throw new IllegalArgumentException("Invalid message", exception);
+    }
+  }
+
+  /**
+   * Return the encoding of the given message as generic JSON, which does not depend on the
+   * specification.
+   */
+  public static byte[] encodeJson(JsonObject message) {
+    BinaryCodec codec = new BinaryCodec(null);
+    codec.writeByte(JSON);
+    codec.writeJson(message);
+    return codec.toByteArray();
+  }
+
+  /**
+   * Return the encoding of the given notification.
+   */
+  public static byte[] encodeNotification(JsonObject notification) {
+    Integer index = NOTIFICATION_INDICES.get(getString(notification, "event"));
+    if (index != null && hasOnly(notification, "event", "params")) {
+      try {
+        BinaryCodec codec = new BinaryCodec(null);
+        codec.writeByte(NOTIFICATION);
+        codec.writeVarint(index);
+        codec.writeNotificationParams(NOTIFICATIONS[index], getObject(notification, "params"));
+        return codec.toByteArray();
+      } catch (RuntimeException exception) {
+        // the notification does not conform to the specification
+      }
+    }
+    return encodeJson(notification);
+  }
+
+  /**
+   * Return the encoding of the given request.
+   */
+  public static byte[] encodeRequest(JsonObject request) {
+    Integer index = REQUEST_INDICES.get(getString(request, "method"));
+    if (index != null && hasOnly(request, "id", "method", "params")) {
+      try {
+        BinaryCodec codec = new BinaryCodec(null);
+        codec.writeByte(REQUEST);
+        codec.writeString(request.get("id").getAsString());
+        codec.writeVarint(index);
+        codec.writeParams(REQUESTS[index], getObject(request, "params"));
+        return codec.toByteArray();
+      } catch (RuntimeException exception) {
+        // the request does not conform to the specification
+      }
+    }
+    return encodeJson(request);
+  }
+
+  /**
+   * Return the encoding of the given response to a request with the given method, which may be
+   * {@code null} if it is not known.
+   */
+  public static byte[] encodeResponse(JsonObject response, String method) {
+    Integer index = method != null ? REQUEST_INDICES.get(method) : null;
+    if (index != null && hasOnly(response, "id", "result", "error")) {
+      try {
+        BinaryCodec codec = new BinaryCodec(null);
+        codec.writeByte(RESPONSE);
+        codec.writeString(response.get("id").getAsString());
+        codec.writeVarint(index);
+        JsonObject result = getObject(response, "result");
+        JsonObject error = getObject(response, "error");
+        codec.writeByte((result != null ? 1 : 0) | (error != null ? 2 : 0));
+        if (result != null) {
+          codec.writeResult(method, result);
+        }
+        if (error != null) {
+          codec.writeRequestError(error);
+        }
+        return codec.toByteArray();
+      } catch (RuntimeException exception) {
+        // the response does not conform to the specification
+      }
+    }
+    return encodeJson(response);
+  }
+
+  /**
+   * Read from the given stream a message preceded by its length, as written by
+   * {@link #writeFrame(OutputStream, byte[])}. Return {@code null} if the end of the stream has been
+   * reached.
+   *
+   * @throws EOFException if the end of the stream is reached within the message
+   */
+  public static byte[] readFrame(InputStream input) throws IOException {
+    int length = 0;
+    for (int shift = 0;; shift += 7) {
+      int b = input.read();
+      if (b == -1) {
+        if (shift == 0) {
+          return null;
+        }
+        throw new EOFException();
+      }
+      length |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        break;
+      }
+    }
+    byte[] frame = new byte[length];
+    int count = 0;
+    while (count < length) {
+      int read = input.read(frame, count, length - count);
+      if (read == -1) {
+        throw new EOFException();
+      }
+      count += read;
+    }
+    return frame;
+  }
+
+  /**
+   * Write to the given stream the given message preceded by its length as a varint.
+   */
+  public static void writeFrame(OutputStream output, byte[] frame) throws IOException {
+    int length = frame.length;
+    while ((length & ~0x7F) != 0) {
+      output.write(length & 0x7F | 0x80);
+      length >>>= 7;
+    }
+    output.write(length);
+    output.write(frame);
+  }
+
+  /**
+   * Check that the given object has the given number of members, so that it has no member unknown to
+   * the specification, which would be lost.
+   */
+  private static void checkMemberCount(JsonObject object, int count) {
+    if (object.entrySet().size() != count) {
+      throw new IllegalArgumentException("Unexpected members");
+    }
+  }
+
+  private static Map<String, Integer> createIndices(String[] names) {
+    Map<String, Integer> indices = new HashMap<String, Integer>();
+    for (int i = 0; i < names.length; i++) {
+      indices.put(names[i], i);
+    }
+    return indices;
+  }
+
+  private void ensureCapacity(int count) {
+    if (position + count > bytes.length) {
+      bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, position + count));
+    }
+  }
+
+  private static JsonObject getObject(JsonObject object, String name) {
+    return isPresent(object, name) ? object.get(name).getAsJsonObject() : null;
+  }
+
+  private static String getString(JsonObject object, String name) {
+    JsonElement element = object.get(name);
+    return element instanceof JsonPrimitive ? element.getAsString() : null;
+  }
+
+  /**
+   * Return {@code true} if the given object has no member other than the given ones.
+   */
+  private static boolean hasOnly(JsonObject object, String... names) {
+    for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+      if (!Arrays.asList(names).contains(entry.getKey())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isPresent(JsonObject object, String name) {
+    JsonElement element = object.get(name);
+    return element != null && !element.isJsonNull();
+  }
+
+  private JsonObject readAddContentOverlay() {
+    JsonObject object = new JsonObject();
+    object.addProperty("type", "add");
+    object.add("content", new JsonPrimitive(readString()));
+    return object;
+  }
+
+  private JsonObject readAnalysisError() {
+    JsonObject object = new JsonObject();
+    int mask = readVarint();
+    object.add("severity", new JsonPrimitive(readString()));
+    object.add("type", new JsonPrimitive(readString()));
+    object.add("location", readLocation());
+    object.add("message", new JsonPrimitive(readString()));
+    if ((mask & 1) != 0) {
+      object.add("correction", new JsonPrimitive(readString()));
+    }
+    return object;
+  }
+
+  private JsonObject readAnalysisErrorFixes() {
+    JsonObject object = new JsonObject();
+    object.add("error", readAnalysisError());
+    JsonArray array = new JsonArray();
+    for (int count = readVarint(); count > 0; count--) {
+      array.add(readSourceChange());
+    }
+    object.add("fixes", array);
+    return object;
+  }
+
+  private JsonObject readAnalysisErrorsParams() {
+    JsonObject object = new JsonObject();
+    object.add("file", new JsonPrimitive(readString()));
+    JsonArray array = new JsonArray();
+    for (int count = readVarint(); count > 0; count--) {
+      array.add(readAnalysisError());
+    }
+    object.add("errors", array);
+    return object;
+  }
+
+  private JsonObject readAnalysisFlushResultsParams() {
+    JsonObject object = new JsonObject();
+    JsonArray array = new JsonArray();
+    for (int count = readVarint(); count > 0; count--) {
+      array.add(new JsonPrimitive(readString()));
+    }
+    object.add("files", array);
+    return object;
+  }
+
+  private JsonObject readAnalysisFoldingParams() {
+    JsonObject object = new JsonObject();
+    object.add("file", new JsonPrimitive(readString()));
+    JsonArray array = new JsonArray();
+    for (int count = readVarint(); count > 0; count--) {
+      array.add(readFoldingRegion());
+    }
+    object.add("regions", array);
+    return object;
+  }
+
+  private JsonObject readAnalysisGetErrorsParams() {
+    JsonObject object = new JsonObject();
+    object.add("file", new JsonPrimitive(readString()));
+    return object;
+  }
+
+  private JsonObject readAnalysisGetErrorsResult() {
+    JsonObject object = new JsonObject();
+    JsonArray array = new JsonArray();
+    for (int count = readVarint(); count > 0; count--) {
+      array.add(readAnalysisError());
+    }
+    object.add("errors", array);
+    return object;
+  }
+
+  private JsonObject readAnalysisGetHoverParams() {
+    JsonObject object = new JsonObject();
+    object.add("file", new JsonPrimitive(readString()));
+    object.add("offset", new JsonPrimitive(readInt()));
+    return object;
+  }
+
+  private JsonObject readAnalysisGetHoverResult() {
+    JsonObject object = new JsonObject();
+    JsonArray array = new JsonArray();
+    for (int count = readVarint(); count > 0; count--) {
+      array.add(readHoverInformation());
+    }
+    object.add("hovers", array);
+    return object;
+  }
+
+  private JsonObject readAnalysisGetLibraryDependenciesResult() {
+    JsonObject object = new JsonObject();
+    JsonArray array = new JsonArray();
+    for (int count = readVarint(); count > 0; count--) {
+      array.add(new JsonPrimitive(readString()));
+    }
+    object.add("libraries", array);
+    JsonObject map = new JsonObject();
+    for (int count2 = readVarint(); count2 > 0; count2--) {
+      String key = readString();
+      JsonObject map2 = new JsonObject();
+      for (int count3 = readVarint(); count3 > 0; count3--) {
+        String key2 = readString();
+        JsonArray array2 = new JsonArray();
+        for (int count4 = readVarint(); count4 > 0; count4--) {
+          array2.add(new JsonPrimitive(readString()));
+        }
+        map2.add(key2, array2);
+      }
+      map.add(key, map2);
+    }
+    object.add("packageMap", map);
+    return object;
+  }
+
+  private JsonObject readAnalysisGetNavigationParams() {
+    JsonObject object = new JsonObject();
+    object.add("file", new JsonPrimitive(readString()));
+    object.add("offset", new JsonPrimitive(readInt()));
+    object.add("length", new JsonPrimitive(readInt()));
+    return object;
+  }
+
+  private JsonObject readAnalysisGetNavigationResult() {
+    JsonObject object = new JsonObject();
+    JsonArray array = new JsonArray();
+    for (int count = readVarint(); count > 0; count--) {
+      array.add(new JsonPrimitive(readString()));
+    }
+    object.add("files", array);
+    JsonArray array2 = new JsonArray();
+    for (int count2 = readVarint(); count2 > 0; count2--) {
+      array2.add(readNavigationTarget());
+    }
+    object.add("targets", array2);
+    JsonArray array3 = new JsonArray();
+    for (int count3 = readVarint(); count3 > 0; count3--) {
+      array3.add(readNavigationRegion());
+    }
+    object.add("regions", array3);
+    return object;
+  }
+
+  private JsonObject readAnalysisHighlightsParams() {
+    JsonObject object = new JsonObject();
+    object.add("file", new JsonPrimitive(readString()));
+    JsonArray array = new JsonArray();
+    for (int count = readVarint(); count > 0; count--) {
+      array.add(readHighlightRegion());
+    }
+    object.add("regions", array);
+    return object;
+  }
+
+  private JsonObject readAnalysisInvalidateParams() {
+    JsonObject object = new JsonObject();
+    object.add("file", new JsonPrimitive(readString()));
+    object.add("offset", new JsonPrimitive(readInt()));
+    object.add("length", new JsonPrimitive(readInt()));
+    object.add("delta", new JsonPrimitive(readInt()));
+    return object;
+  }
+
+  private JsonObject readAnalysisNavigationParams() {
+    JsonObject object = new JsonObject();
+    object.add("file", new JsonPrimitive(readString()));
+    JsonArray array = new JsonArray();
+    for (int count = readVarint(); count > 0; count--) {
+      array.add(readNavigationRegion());
+    }
+    object.add("regions", array);
+    JsonArray array2 = new JsonArray();
+    for (int count2 = readVarint(); count2 > 0; count2--) {
+      array2.add(readNavigationTarget());
+    }
+    object.add("targets", array2);
+    JsonArray array3 = new JsonArray();
+    for (int count3 = readVarint(); count3 > 0; count3--) {
+      array3.add(new JsonPrimitive(readString()));
+    }
+    object.add("files", array3);
+    return object;
+  }
+
+  private JsonObject readAnalysisOccurrencesParams() {
+    JsonObject object = new JsonObject();
+    object.add("file", new JsonPrimitive(readString()));
+    JsonArray array = new JsonArray();
+    for (int count = readVarint(); count > 0; count--) {
+      array.add(readOccurrences());
+    }
+    object.add("occurrences", array);
+    return object;
+  }
+
+  private JsonObject readAnalysisOptions() {
+    JsonObject object = new JsonObject();
+    int mask = readVarint();
+    if ((mask & 1) != 0) {
+      object.add("enableAsync", new JsonPrimitive(readBoolean()));
+    }
+    if ((mask & 2) != 0) {
+      object.add("enableDeferredLoading", new JsonPrimitive(readBoolean()));
+    }
+    if ((mask & 4) != 0) {
+      object.add("enableEnums", new JsonPrimitive(readBoolean()));
+    }
+    if ((mask & 8) != 0) {
+      object.add("enableNullAwareOperators", new JsonPrimitive(readBoolean()));
+    }
+    if ((mask & 16) != 0) {
+      object.add("generateDart2jsHints", new JsonPrimitive(readBoolean()));
+    }
+    if ((mask & 32) != 0) {
+      object.add("generateHints", new JsonPrimitive(readBoolean()));
+    }
+    if ((mask & 64) != 0) {
+      object.add("generateLints", new JsonPrimitive(readBoolean()));
+    }
+    return object;
+  }
+
+  private JsonObject readAnalysisOutlineParams() {
+    JsonObject object = new JsonObject();
+    object.add("file", new JsonPrimitive(readString()));
+    object.add("outline", readOutline());
+    return object;
+  }
+
+  private JsonObject readAnalysisOverridesParams() {
+    JsonObject object = new JsonObject();
+    object.add("file", new JsonPrimitive(readString()));
+    JsonArray array = new JsonArray();
+    for (int count = readVarint(); count > 0; count--) {
+      array.add(readOverride());
+    }
+    object.add("overrides", array);
+    return object;
+  }
+
+  private JsonObject readAnalysisReanalyzeParams() {
+    JsonObject object = new JsonObject();
+    int mask = readVarint();
+    if ((mask & 1) != 0) {
+      JsonArray array = new JsonArray();
+      for (int count = readVarint(); count > 0; count--) {
+        array.add(new JsonPrimitive(readString()));
+      }
+      object.add("roots", array);
+    }
+    return object;
+  }
+
+  private JsonObject readAnalysisSetAnalysisRootsParams() {
+    JsonObject object = new JsonObject();
+    int mask = readVarint();
+    JsonArray array = new JsonArray();
+    for (int count = readVarint(); count > 0; count--) {
+      array.add(new JsonPrimitive(readString()));
+    }
+    object.add("included", array);
+    JsonArray array2 = new JsonArray();
+    for (int count2 = readVarint(); count2 > 0; count2--) {
+      array2.add(new JsonPrimitive(readString()));
+    }
+    object.add("excluded", array2);
+    if ((mask & 1) != 0) {
+      JsonObject map = new JsonObject();
+      for (int count3 = readVarint(); count3 > 0; count3--) {
+        String key = readString();
+        map.add(key, new JsonPrimitive(readString()));
+      }
+      object.add("packageRoots", map);
+    }
+    return object;
+  }
+
+  private JsonObject readAnalysisSetPriorityFilesParams() {
+    JsonObject object = new JsonObject();
+    JsonArray array = new JsonArray();
+    for (int count = readVarint(); count > 0; count--) {
+      array.add(new JsonPrimitive(readString()));
+    }
+    object.add("files", array);
+    return object;
+  }
+
+  private JsonObject readAnalysisSetSubscriptionsParams() {
+    JsonObject object = new JsonObject();
+    JsonObject map = new JsonObject();
+    for (int count = readVarint(); count > 0; count--) {
+      String key = readString();
+      JsonArray array = new JsonArray();
+      for (int count2 = readVarint(); count2 > 0; count2--) {
+        array.add(new JsonPrimitive(readString()));
+      }
+      map.add(key, array);
+    }
+    object.add("subscriptions", map);
+    return object;
+  }
+
+  private JsonObject readAnalysisStatus() {
+    JsonObject object = new JsonObject();
+    int mask = readVarint();
+    object.add("isAnalyzing", new JsonPrimitive(readBoolean()));
+    if ((mask & 1) != 0) {
+      object.add("analysisTarget", new JsonPrimitive(readString()));
+    }
+    return object;
+  }
+
+  private JsonObject readAnalysisUpdateContentParams() {
+    JsonObject object = new JsonObject();
+    JsonObject map = new JsonObject();
+    for (int count = readVarint(); count > 0; count--) {
+      String key = readString();
+      JsonElement union;
+      int choice = readVarint();
+      if (choice == 0) {
+        union = readAddContentOverlay();
+      } else if (choice == 1) {
+        union = readChangeContentOverlay();
+      } else if (choice == 2) {
+        union = readRemoveContentOverlay();
+      } else {
+        throw new IllegalArgumentException("Unknown choice: " + choice);
+      }
+      map.add(key, union);
+    }
+    object.add("files", map);
+    return object;
+  }
+
+  private JsonObject readAnalysisUpdateContentResult() {
+    JsonObject object = new JsonObject();
+    return object;
+  }
+
+  private JsonObject readAnalysisUpdateOptionsParams() {
+    JsonObject object = new JsonObject();
+    object.add("options", readAnalysisOptions());
+    return object;
+  }
+
+  private boolean readBoolean() {
+    return readByte() != 0;
+  }
+
+  private int readByte() {
+    return bytes[position++] & 0xFF;
+  }
+
+  private JsonObject readChangeContentOverlay() {
+    JsonObject object = new JsonObject();
+    object.addProperty("type", "change");
+    JsonArray array = new JsonArray();
+    for (int count = readVarint(); count > 0; count--) {
+      array.add(readSourceEdit());
+    }
+    object.add("edits", array);
+    return object;
+  }
+
+  private JsonObject readCompletionGetSuggestionsParams() {
+    JsonObject object = new JsonObject();
+    object.add("file", new JsonPrimitive(readString()));
+    object.add("offset", new JsonPrimitive(readInt()));
+    return object;
+  }
+
+  private JsonObject readCompletionGetSuggestionsResult() {
+    JsonObject object = new JsonObject();
+    object.add("id", new JsonPrimitive(readString()));
+    return object;
+  }
+
+  private JsonObject readCompletionResultsParams() {
+    JsonObject object = new JsonObject();
+    object.add("id", new JsonPrimitive(readString()));
+    object.add("replacementOffset", new JsonPrimitive(readInt()));
+    object.add("replacementLength", new JsonPrimitive(readInt()));
+    JsonArray array = new JsonArray();
+    for (int count = readVarint(); count > 0; count--) {
+      array.add(readCompletionSuggestion());
+    }
+    object.add("results", array);
+    object.add("isLast", new JsonPrimitive(readBoolean()));
+    return object;
+  }
+
+  private JsonObject readCompletionSuggestion() {
+    JsonObject object = new JsonObject();
+    int mask = readVarint();
+    object.add("kind", new JsonPrimitive(readString()));
+    object.add("relevance", new JsonPrimitive(readInt()));
+    object.add("completion", new JsonPrimitive(readString()));
+    object.add("selectionOffset", new JsonPrimitive(readInt()));
+    object.add("selectionLength", new JsonPrimitive(readInt()));
+    object.add("isDeprecated", new JsonPrimitive(readBoolean()));
+    object.add("isPotential", new JsonPrimitive(readBoolean()));
+    if ((mask & 1) != 0) {
+      object.add("docSummary", new JsonPrimitive(readString()));
+    }
+    if ((mask & 2) != 0) {
+      object.add("docComplete", new JsonPrimitive(readString()));
+    }
+    if ((mask & 4) != 0) {
+      object.add("declaringType", new JsonPrimitive(readString()));
+    }
+    if ((mask & 8) != 0) {
+      object.add("element", readElement());
+    }
+    if ((mask & 16) != 0) {
+      object.add("returnType", new JsonPrimitive(readString()));
+    }
+    if ((mask & 32) != 0) {
+      JsonArray array = new JsonArray();
+      for (int count = readVarint(); count > 0; count--) {
+        array.add(new JsonPrimitive(readString()));
+      }
+      object.add("parameterNames", array);
+    }
+    if ((mask & 64) != 0) {
+      JsonArray array2 = new JsonArray();
+      for (int count2 = readVarint(); count2 > 0; count2--) {
+        array2.add(new JsonPrimitive(readString()));
+      }
+      object.add("parameterTypes", array2);
+    }
+    if ((mask & 128) != 0) {
+      object.add("requiredParameterCount", new JsonPrimitive(readInt()));
+    }
+    if ((mask & 256) != 0) {
+      object.add("hasNamedParameters", new JsonPrimitive(readBoolean()));
+    }
+    if ((mask & 512) != 0) {
+      object.add("parameterName", new JsonPrimitive(readString()));
+    }
+    if ((mask & 1024) != 0) {
+      object.add("parameterType", new JsonPrimitive(readString()));
+    }
+    if ((mask & 2048) != 0) {
+      object.add("importUri", new JsonPrimitive(readString()));
+    }
+    return object;
+  }
+
+  private JsonObject readEditFormatParams() {
+    JsonObject object = new JsonObject();
+    int mask = readVarint();
+    object.add("file", new JsonPrimitive(readString()));
+    object.add("selectionOffset", new JsonPrimitive(readInt()));
+    object.add("selectionLength", new JsonPrimitive(readInt()));
+    if ((mask & 1) != 0) {
+      object.add("lineLength", new JsonPrimitive(readInt()));
+    }
+    return object;
+  }
+
+  private JsonObject readEditFormatResult() {
+    JsonObject object = new JsonObject();
+    JsonArray array = new JsonArray();
+    for (int count = readVarint(); count > 0; count--) {
+      array.add(readSourceEdit());
+    }
+    object.add("edits", array);
+    object.add("selectionOffset", new JsonPrimitive(readInt()));
+    object.add("selectionLength", new JsonPrimitive(readInt()));
+    return object;
+  }
+
+  private JsonObject readEditGetAssistsParams() {
+    JsonObject object = new JsonObject();
+    object.add("file", new JsonPrimitive(readString()));
+    object.add("offset", new JsonPrimitive(readInt()));
+    object.add("length", new JsonPrimitive(readInt()));
+    return object;
+  }
+
+  private JsonObject readEditGetAssistsResult() {
+    JsonObject object = new JsonObject();
+    JsonArray array = new JsonArray();
+    for (int count = readVarint(); count > 0; count--) {
+      array.add(readSourceChange());
+    }
+    object.add("assists", array);
+    return object;
+  }
+
+  private JsonObject readEditGetAvailableRefactoringsParams() {
+    JsonObject object = new JsonObject();
+    object.add("file", new JsonPrimitive(readString()));
+    object.add("offset", new JsonPrimitive(readInt()));
+    object.add("length", new JsonPrimitive(readInt()));
+    return object;
+  }
+
+  private JsonObject readEditGetAvailableRefactoringsResult() {
+    JsonObject object = new JsonObject();
+    JsonArray array = new JsonArray();
+    for (int count = readVarint(); count > 0; count--) {
+      array.add(new JsonPrimitive(readString()));
+    }
+    object.add("kinds", array);
+    return object;
+  }
+
+  private JsonObject readEditGetFixesParams() {
+    JsonObject object = new JsonObject();
+    object.add("file", new JsonPrimitive(readString()));
+    object.add("offset", new JsonPrimitive(readInt()));
+    return object;
+  }
+
+  private JsonObject readEditGetFixesResult() {
+    JsonObject object = new JsonObject();
+    JsonArray array = new JsonArray();
+    for (int count = readVarint(); count > 0; count--) {
+      array.add(readAnalysisErrorFixes());
+    }
+    object.add("fixes", array);
+    return object;
+  }
+
+  private JsonObject readEditGetRefactoringParams() {
+    JsonObject object = new JsonObject();
+    int mask = readVarint();
+    object.add("kind", new JsonPrimitive(readString()));
+    object.add("file", new JsonPrimitive(readString()));
+    object.add("offset", new JsonPrimitive(readInt()));
+    object.add("length", new JsonPrimitive(readInt()));
+    object.add("validateOnly", new JsonPrimitive(readBoolean()));
+    if ((mask & 1) != 0) {
+      object.add("options", readJson());
+    }
+    return object;
+  }
+
+  private JsonObject readEditGetRefactoringResult() {
+    JsonObject object = new JsonObject();
+    int mask = readVarint();
+    JsonArray array = new JsonArray();
+    for (int count = readVarint(); count > 0; count--) {
+      array.add(readRefactoringProblem());
+    }
+    object.add("initialProblems", array);
+    JsonArray array2 = new JsonArray();
+    for (int count2 = readVarint(); count2 > 0; count2--) {
+      array2.add(readRefactoringProblem());
+    }
+    object.add("optionsProblems", array2);
+    JsonArray array3 = new JsonArray();
+    for (int count3 = readVarint(); count3 > 0; count3--) {
+      array3.add(readRefactoringProblem());
+    }
+    object.add("finalProblems", array3);
+    if ((mask & 1) != 0) {
+      object.add("feedback", readJson());
+    }
+    if ((mask & 2) != 0) {
+      object.add("change", readSourceChange());
+    }
+    if ((mask & 4) != 0) {
+      JsonArray array4 = new JsonArray();
+      for (int count4 = readVarint(); count4 > 0; count4--) {
+        array4.add(new JsonPrimitive(readString()));
+      }
+      object.add("potentialEdits", array4);
+    }
+    return object;
+  }
+
+  private JsonObject readEditSortMembersParams() {
+    JsonObject object = new JsonObject();
+    object.add("file", new JsonPrimitive(readString()));
+    return object;
+  }
+
+  private JsonObject readEditSortMembersResult() {
+    JsonObject object = new JsonObject();
+    object.add("edit", readSourceFileEdit());
+    return object;
+  }
+
+  private JsonObject readElement() {
+    JsonObject object = new JsonObject();
+    int mask = readVarint();
+    object.add("kind", new JsonPrimitive(readString()));
+    object.add("name", new JsonPrimitive(readString()));
+    if ((mask & 1) != 0) {
+      object.add("location", readLocation());
+    }
+    object.add("flags", new JsonPrimitive(readInt()));
+    if ((mask & 2) != 0) {
+      object.add("parameters", new JsonPrimitive(readString()));
+    }
+    if ((mask & 4) != 0) {
+      object.add("returnType", new JsonPrimitive(readString()));
+    }
+    if ((mask & 8) != 0) {
+      object.add("typeParameters", new JsonPrimitive(readString()));
+    }
+    return object;
+  }
+
+  private JsonObject readExecutableFile() {
+    JsonObject object = new JsonObject();
+    object.add("file", new JsonPrimitive(readString()));
+    object.add("kind", new JsonPrimitive(readString()));
+    return object;
+  }
+
+  private JsonObject readExecutionCreateContextParams() {
+    JsonObject object = new JsonObject();
+    object.add("contextRoot", new JsonPrimitive(readString()));
+    return object;
+  }
+
+  private JsonObject readExecutionCreateContextResult() {
+    JsonObject object = new JsonObject();
+    object.add("id", new JsonPrimitive(readString()));
+    return object;
+  }
+
+  private JsonObject readExecutionDeleteContextParams() {
+    JsonObject object = new JsonObject();
+    object.add("id", new JsonPrimitive(readString()));
+    return object;
+  }
+
+  private JsonObject readExecutionLaunchDataParams() {
+    JsonObject object = new JsonObject();
+    int mask = readVarint();
+    object.add("file", new JsonPrimitive(readString()));
+    if ((mask & 1) != 0) {
+      object.add("kind", new JsonPrimitive(readString()));
+    }
+    if ((mask & 2) != 0) {
+      JsonArray array = new JsonArray();
+      for (int count = readVarint(); count > 0; count--) {
+        array.add(new JsonPrimitive(readString()));
+      }
+      object.add("referencedFiles", array);
+    }
+    return object;
+  }
+
+  private JsonObject readExecutionMapUriParams() {
+    JsonObject object = new JsonObject();
+    int mask = readVarint();
+    object.add("id", new JsonPrimitive(readString()));
+    if ((mask & 1) != 0) {
+      object.add("file", new JsonPrimitive(readString()));
+    }
+    if ((mask & 2) != 0) {
+      object.add("uri", new JsonPrimitive(readString()));
+    }
+    return object;
+  }
+
+  private JsonObject readExecutionMapUriResult() {
+    JsonObject object = new JsonObject();
+    int mask = readVarint();
+    if ((mask & 1) != 0) {
+      object.add("file", new JsonPrimitive(readString()));
+    }
+    if ((mask & 2) != 0) {
+      object.add("uri", new JsonPrimitive(readString()));
+    }
+    return object;
+  }
+
+  private JsonObject readExecutionSetSubscriptionsParams() {
+    JsonObject object = new JsonObject();
+    JsonArray array = new JsonArray();
+    for (int count = readVarint(); count > 0; count--) {
+      array.add(new JsonPrimitive(readString()));
+    }
+    object.add("subscriptions", array);
+    return object;
+  }
+
+  private JsonObject readFoldingRegion() {
+    JsonObject object = new JsonObject();
+    object.add("kind", new JsonPrimitive(readString()));
+    object.add("offset", new JsonPrimitive(readInt()));
+    object.add("length", new JsonPrimitive(readInt()));
+    return object;
+  }
+
+  private JsonObject readHighlightRegion() {
+    JsonObject object = new JsonObject();
+    object.add("type", new JsonPrimitive(readString()));
+    object.add("offset", new JsonPrimitive(readInt()));
+    object.add("length", new JsonPrimitive(readInt()));
+    return object;
+  }
+
+  private JsonObject readHoverInformation() {
+    JsonObject object = new JsonObject();
+    int mask = readVarint();
+    object.add("offset", new JsonPrimitive(readInt()));
+    object.add("length", new JsonPrimitive(readInt()));
+    if ((mask & 1) != 0) {
+      object.add("containingLibraryPath", new JsonPrimitive(readString()));
+    }
+    if ((mask & 2) != 0) {
+      object.add("containingLibraryName", new JsonPrimitive(readString()));
+    }
+    if ((mask & 4) != 0) {
+      object.add("containingClassDescription", new JsonPrimitive(readString()));
+    }
+    if ((mask & 8) != 0) {
+      object.add("dartdoc", new JsonPrimitive(readString()));
+    }
+    if ((mask & 16) != 0) {
+      object.add("elementDescription", new JsonPrimitive(readString()));
+    }
+    if ((mask & 32) != 0) {
+      object.add("elementKind", new JsonPrimitive(readString()));
+    }
+    if ((mask & 64) != 0) {
+      object.add("parameter", new JsonPrimitive(readString()));
+    }
+    if ((mask & 128) != 0) {
+      object.add("propagatedType", new JsonPrimitive(readString()));
+    }
+    if ((mask & 256) != 0) {
+      object.add("staticType", new JsonPrimitive(readString()));
+    }
+    return object;
+  }
+
+  private int readInt() {
+    int value = readVarint();
+    return value >>> 1 ^ -(value & 1);
+  }
+
+  private JsonArray readIntArray() {
+    JsonArray array = new JsonArray();
+    int value = 0;
+    for (int count = readVarint(); count > 0; count--) {
+      value += readInt();
+      array.add(new JsonPrimitive(value));
+    }
+    return array;
+  }
+
+  private JsonElement readJson() {
+    int tag = readByte();
+    switch (tag) {
+      case TAG_NULL:
+        return JsonNull.INSTANCE;
+      case TAG_FALSE:
+        return new JsonPrimitive(false);
+      case TAG_TRUE:
+        return new JsonPrimitive(true);
+      case TAG_INTEGER:
+        return new JsonPrimitive(readLong());
+      case TAG_DOUBLE:
+        return new JsonPrimitive(Double.longBitsToDouble(readLong()));
+      case TAG_STRING:
+        return new JsonPrimitive(readString());
+      case TAG_ARRAY: {
+        JsonArray array = new JsonArray();
+        for (int count = readVarint(); count > 0; count--) {
+          array.add(readJson());
+        }
+        return array;
+      }
+      case TAG_OBJECT: {
+        JsonObject object = new JsonObject();
+        for (int count = readVarint(); count > 0; count--) {
+          String name = readString();
+          object.add(name, readJson());
+        }
+        return object;
+      }
+    }
+    throw new IllegalArgumentException("Unknown tag: " + tag);
+  }
+
+  private JsonObject readLinkedEditGroup() {
+    JsonObject object = new JsonObject();
+    JsonArray array = new JsonArray();
+    for (int count = readVarint(); count > 0; count--) {
+      array.add(readPosition());
+    }
+    object.add("positions", array);
+    object.add("length", new JsonPrimitive(readInt()));
+    JsonArray array2 = new JsonArray();
+    for (int count2 = readVarint(); count2 > 0; count2--) {
+      array2.add(readLinkedEditSuggestion());
+    }
+    object.add("suggestions", array2);
+    return object;
+  }
+
+  private JsonObject readLinkedEditSuggestion() {
+    JsonObject object = new JsonObject();
+    object.add("value", new JsonPrimitive(readString()));
+    object.add("kind", new JsonPrimitive(readString()));
+    return object;
+  }
+
+  private JsonObject readLocation() {
+    JsonObject object = new JsonObject();
+    object.add("file", new JsonPrimitive(readString()));
+    object.add("offset", new JsonPrimitive(readInt()));
+    object.add("length", new JsonPrimitive(readInt()));
+    object.add("startLine", new JsonPrimitive(readInt()));
+    object.add("startColumn", new JsonPrimitive(readInt()));
+    return object;
+  }
+
+  private long readLong() {
+    long value = 0;
+    for (int shift = 0;; shift += 7) {
+      int b = readByte();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value >>> 1 ^ -(value & 1);
+      }
+    }
+  }
+
+  private JsonObject readNavigationRegion() {
+    JsonObject object = new JsonObject();
+    object.add("offset", new JsonPrimitive(readInt()));
+    object.add("length", new JsonPrimitive(readInt()));
+    object.add("targets", readIntArray());
+    return object;
+  }
+
+  private JsonObject readNavigationTarget() {
+    JsonObject object = new JsonObject();
+    object.add("kind", new JsonPrimitive(readString()));
+    object.add("fileIndex", new JsonPrimitive(readInt()));
+    object.add("offset", new JsonPrimitive(readInt()));
+    object.add("length", new JsonPrimitive(readInt()));
+    object.add("startLine", new JsonPrimitive(readInt()));
+    object.add("startColumn", new JsonPrimitive(readInt()));
+    return object;
+  }
+
+  private JsonObject readNotificationParams(String event) {
+    switch (event) {
+      case "server.connected":
+        return readServerConnectedParams();
+      case "server.error":
+        return readServerErrorParams();
+      case "server.status":
+        return readServerStatusParams();
+      case "analysis.errors":
+        return readAnalysisErrorsParams();
+      case "analysis.flushResults":
+        return readAnalysisFlushResultsParams();
+      case "analysis.folding":
+        return readAnalysisFoldingParams();
+      case "analysis.highlights":
+        return readAnalysisHighlightsParams();
+      case "analysis.invalidate":
+        return readAnalysisInvalidateParams();
+      case "analysis.navigation":
+        return readAnalysisNavigationParams();
+      case "analysis.occurrences":
+        return readAnalysisOccurrencesParams();
+      case "analysis.outline":
+        return readAnalysisOutlineParams();
+      case "analysis.overrides":
+        return readAnalysisOverridesParams();
+      case "completion.results":
+        return readCompletionResultsParams();
+      case "search.results":
+        return readSearchResultsParams();
+      case "execution.launchData":
+        return readExecutionLaunchDataParams();
+      default:
+        return null;
+    }
+  }
+
+  private JsonObject readOccurrences() {
+    JsonObject object = new JsonObject();
+    object.add("element", readElement());
+    object.add("offsets", readIntArray());
+    object.add("length", new JsonPrimitive(readInt()));
+    return object;
+  }
+
+  private JsonObject readOutline() {
+    JsonObject object = new JsonObject();
+    int mask = readVarint();
+    object.add("element", readElement());
+    object.add("offset", new JsonPrimitive(readInt()));
+    object.add("length", new JsonPrimitive(readInt()));
+    if ((mask & 1) != 0) {
+      JsonArray array = new JsonArray();
+      for (int count = readVarint(); count > 0; count--) {
+        array.add(readOutline());
+      }
+      object.add("children", array);
+    }
+    return object;
+  }
+
+  private JsonObject readOverriddenMember() {
+    JsonObject object = new JsonObject();
+    object.add("element", readElement());
+    object.add("className", new JsonPrimitive(readString()));
+    return object;
+  }
+
+  private JsonObject readOverride() {
+    JsonObject object = new JsonObject();
+    int mask = readVarint();
+    object.add("offset", new JsonPrimitive(readInt()));
+    object.add("length", new JsonPrimitive(readInt()));
+    if ((mask & 1) != 0) {
+      object.add("superclassMember", readOverriddenMember());
+    }
+    if ((mask & 2) != 0) {
+      JsonArray array = new JsonArray();
+      for (int count = readVarint(); count > 0; count--) {
+        array.add(readOverriddenMember());
+      }
+      object.add("interfaceMembers", array);
+    }
+    return object;
+  }
+
+  private JsonObject readParams(String method) {
+    switch (method) {
+      case "server.setSubscriptions":
+        return readServerSetSubscriptionsParams();
+      case "analysis.getErrors":
+        return readAnalysisGetErrorsParams();
+      case "analysis.getHover":
+        return readAnalysisGetHoverParams();
+      case "analysis.getNavigation":
+        return readAnalysisGetNavigationParams();
+      case "analysis.reanalyze":
+        return readAnalysisReanalyzeParams();
+      case "analysis.setAnalysisRoots":
+        return readAnalysisSetAnalysisRootsParams();
+      case "analysis.setPriorityFiles":
+        return readAnalysisSetPriorityFilesParams();
+      case "analysis.setSubscriptions":
+        return readAnalysisSetSubscriptionsParams();
+      case "analysis.updateContent":
+        return readAnalysisUpdateContentParams();
+      case "analysis.updateOptions":
+        return readAnalysisUpdateOptionsParams();
+      case "completion.getSuggestions":
+        return readCompletionGetSuggestionsParams();
+      case "search.findElementReferences":
+        return readSearchFindElementReferencesParams();
+      case "search.findMemberDeclarations":
+        return readSearchFindMemberDeclarationsParams();
+      case "search.findMemberReferences":
+        return readSearchFindMemberReferencesParams();
+      case "search.findTopLevelDeclarations":
+        return readSearchFindTopLevelDeclarationsParams();
+      case "search.getTypeHierarchy":
+        return readSearchGetTypeHierarchyParams();
+      case "edit.format":
+        return readEditFormatParams();
+      case "edit.getAssists":
+        return readEditGetAssistsParams();
+      case "edit.getAvailableRefactorings":
+        return readEditGetAvailableRefactoringsParams();
+      case "edit.getFixes":
+        return readEditGetFixesParams();
+      case "edit.getRefactoring":
+        return readEditGetRefactoringParams();
+      case "edit.sortMembers":
+        return readEditSortMembersParams();
+      case "execution.createContext":
+        return readExecutionCreateContextParams();
+      case "execution.deleteContext":
+        return readExecutionDeleteContextParams();
+      case "execution.mapUri":
+        return readExecutionMapUriParams();
+      case "execution.setSubscriptions":
+        return readExecutionSetSubscriptionsParams();
+      default:
+        return null;
+    }
+  }
+
+  private JsonObject readPosition() {
+    JsonObject object = new JsonObject();
+    object.add("file", new JsonPrimitive(readString()));
+    object.add("offset", new JsonPrimitive(readInt()));
+    return object;
+  }
+
+  private JsonObject readPubStatus() {
+    JsonObject object = new JsonObject();
+    object.add("isListingPackageDirs", new JsonPrimitive(readBoolean()));
+    return object;
+  }
+
+  private JsonObject readRefactoringMethodParameter() {
+    JsonObject object = new JsonObject();
+    int mask = readVarint();
+    if ((mask & 1) != 0) {
+      object.add("id", new JsonPrimitive(readString()));
+    }
+    object.add("kind", new JsonPrimitive(readString()));
+    object.add("type", new JsonPrimitive(readString()));
+    object.add("name", new JsonPrimitive(readString()));
+    if ((mask & 2) != 0) {
+      object.add("parameters", new JsonPrimitive(readString()));
+    }
+    return object;
+  }
+
+  private JsonObject readRefactoringProblem() {
+    JsonObject object = new JsonObject();
+    int mask = readVarint();
+    object.add("severity", new JsonPrimitive(readString()));
+    object.add("message", new JsonPrimitive(readString()));
+    if ((mask & 1) != 0) {
+      object.add("location", readLocation());
+    }
+    return object;
+  }
+
+  private JsonObject readRemoveContentOverlay() {
+    JsonObject object = new JsonObject();
+    object.addProperty("type", "remove");
+    return object;
+  }
+
+  private JsonObject readRequestError() {
+    JsonObject object = new JsonObject();
+    int mask = readVarint();
+    object.add("code", new JsonPrimitive(readString()));
+    object.add("message", new JsonPrimitive(readString()));
+    if ((mask & 1) != 0) {
+      object.add("stackTrace", new JsonPrimitive(readString()));
+    }
+    return object;
+  }
+
+  private JsonObject readResult(String method) {
+    switch (method) {
+      case "server.getVersion":
+        return readServerGetVersionResult();
+      case "analysis.getErrors":
+        return readAnalysisGetErrorsResult();
+      case "analysis.getHover":
+        return readAnalysisGetHoverResult();
+      case "analysis.getLibraryDependencies":
+        return readAnalysisGetLibraryDependenciesResult();
+      case "analysis.getNavigation":
+        return readAnalysisGetNavigationResult();
+      case "analysis.updateContent":
+        return readAnalysisUpdateContentResult();
+      case "completion.getSuggestions":
+        return readCompletionGetSuggestionsResult();
+      case "search.findElementReferences":
+        return readSearchFindElementReferencesResult();
+      case "search.findMemberDeclarations":
+        return readSearchFindMemberDeclarationsResult();
+      case "search.findMemberReferences":
+        return readSearchFindMemberReferencesResult();
+      case "search.findTopLevelDeclarations":
+        return readSearchFindTopLevelDeclarationsResult();
+      case "search.getTypeHierarchy":
+        return readSearchGetTypeHierarchyResult();
+      case "edit.format":
+        return readEditFormatResult();
+      case "edit.getAssists":
+        return readEditGetAssistsResult();
+      case "edit.getAvailableRefactorings":
+        return readEditGetAvailableRefactoringsResult();
+      case "edit.getFixes":
+        return readEditGetFixesResult();
+      case "edit.getRefactoring":
+        return readEditGetRefactoringResult();
+      case "edit.sortMembers":
+        return readEditSortMembersResult();
+      case "execution.createContext":
+        return readExecutionCreateContextResult();
+      case "execution.mapUri":
+        return readExecutionMapUriResult();
+      default:
+        return null;
+    }
+  }
+
+  private JsonObject readSearchFindElementReferencesParams() {
+    JsonObject object = new JsonObject();
+    object.add("file", new JsonPrimitive(readString()));
+    object.add("offset", new JsonPrimitive(readInt()));
+    object.add("includePotential", new JsonPrimitive(readBoolean()));
+    return object;
+  }
+
+  private JsonObject readSearchFindElementReferencesResult() {
+    JsonObject object = new JsonObject();
+    int mask = readVarint();
+    if ((mask & 1) != 0) {
+      object.add("id", new JsonPrimitive(readString()));
+    }
+    if ((mask & 2) != 0) {
+      object.add("element", readElement());
+    }
+    return object;
+  }
+
+  private JsonObject readSearchFindMemberDeclarationsParams() {
+    JsonObject object = new JsonObject();
+    object.add("name", new JsonPrimitive(readString()));
+    return object;
+  }
+
+  private JsonObject readSearchFindMemberDeclarationsResult() {
+    JsonObject object = new JsonObject();
+    object.add("id", new JsonPrimitive(readString()));
+    return object;
+  }
+
+  private JsonObject readSearchFindMemberReferencesParams() {
+    JsonObject object = new JsonObject();
+    object.add("name", new JsonPrimitive(readString()));
+    return object;
+  }
+
+  private JsonObject readSearchFindMemberReferencesResult() {
+    JsonObject object = new JsonObject();
+    object.add("id", new JsonPrimitive(readString()));
+    return object;
+  }
+
+  private JsonObject readSearchFindTopLevelDeclarationsParams() {
+    JsonObject object = new JsonObject();
+    object.add("pattern", new JsonPrimitive(readString()));
+    return object;
+  }
+
+  private JsonObject readSearchFindTopLevelDeclarationsResult() {
+    JsonObject object = new JsonObject();
+    object.add("id", new JsonPrimitive(readString()));
+    return object;
+  }
+
+  private JsonObject readSearchGetTypeHierarchyParams() {
+    JsonObject object = new JsonObject();
+    object.add("file", new JsonPrimitive(readString()));
+    object.add("offset", new JsonPrimitive(readInt()));
+    return object;
+  }
+
+  private JsonObject readSearchGetTypeHierarchyResult() {
+    JsonObject object = new JsonObject();
+    int mask = readVarint();
+    if ((mask & 1) != 0) {
+      JsonArray array = new JsonArray();
+      for (int count = readVarint(); count > 0; count--) {
+        array.add(readTypeHierarchyItem());
+      }
+      object.add("hierarchyItems", array);
+    }
+    return object;
+  }
+
+  private JsonObject readSearchResult() {
+    JsonObject object = new JsonObject();
+    object.add("location", readLocation());
+    object.add("kind", new JsonPrimitive(readString()));
+    object.add("isPotential", new JsonPrimitive(readBoolean()));
+    JsonArray array = new JsonArray();
+    for (int count = readVarint(); count > 0; count--) {
+      array.add(readElement());
+    }
+    object.add("path", array);
+    return object;
+  }
+
+  private JsonObject readSearchResultsParams() {
+    JsonObject object = new JsonObject();
+    object.add("id", new JsonPrimitive(readString()));
+    JsonArray array = new JsonArray();
+    for (int count = readVarint(); count > 0; count--) {
+      array.add(readSearchResult());
+    }
+    object.add("results", array);
+    object.add("isLast", new JsonPrimitive(readBoolean()));
+    return object;
+  }
+
+  private JsonObject readServerConnectedParams() {
+    JsonObject object = new JsonObject();
+    object.add("version", new JsonPrimitive(readString()));
+    return object;
+  }
+
+  private JsonObject readServerErrorParams() {
+    JsonObject object = new JsonObject();
+    object.add("isFatal", new JsonPrimitive(readBoolean()));
+    object.add("message", new JsonPrimitive(readString()));
+    object.add("stackTrace", new JsonPrimitive(readString()));
+    return object;
+  }
+
+  private JsonObject readServerGetVersionResult() {
+    JsonObject object = new JsonObject();
+    object.add("version", new JsonPrimitive(readString()));
+    return object;
+  }
+
+  private JsonObject readServerSetSubscriptionsParams() {
+    JsonObject object = new JsonObject();
+    JsonArray array = new JsonArray();
+    for (int count = readVarint(); count > 0; count--) {
+      array.add(new JsonPrimitive(readString()));
+    }
+    object.add("subscriptions", array);
+    return object;
+  }
+
+  private JsonObject readServerStatusParams() {
+    JsonObject object = new JsonObject();
+    int mask = readVarint();
+    if ((mask & 1) != 0) {
+      object.add("analysis", readAnalysisStatus());
+    }
+    if ((mask & 2) != 0) {
+      object.add("pub", readPubStatus());
+    }
+    return object;
+  }
+
+  private JsonObject readSourceChange() {
+    JsonObject object = new JsonObject();
+    int mask = readVarint();
+    object.add("message", new JsonPrimitive(readString()));
+    JsonArray array = new JsonArray();
+    for (int count = readVarint(); count > 0; count--) {
+      array.add(readSourceFileEdit());
+    }
+    object.add("edits", array);
+    JsonArray array2 = new JsonArray();
+    for (int count2 = readVarint(); count2 > 0; count2--) {
+      array2.add(readLinkedEditGroup());
+    }
+    object.add("linkedEditGroups", array2);
+    if ((mask & 1) != 0) {
+      object.add("selection", readPosition());
+    }
+    return object;
+  }
+
+  private JsonObject readSourceEdit() {
+    JsonObject object = new JsonObject();
+    int mask = readVarint();
+    object.add("offset", new JsonPrimitive(readInt()));
+    object.add("length", new JsonPrimitive(readInt()));
+    object.add("replacement", new JsonPrimitive(readString()));
+    if ((mask & 1) != 0) {
+      object.add("id", new JsonPrimitive(readString()));
+    }
+    return object;
+  }
+
+  private JsonObject readSourceFileEdit() {
+    JsonObject object = new JsonObject();
+    object.add("file", new JsonPrimitive(readString()));
+    object.add("fileStamp", new JsonPrimitive(readLong()));
+    JsonArray array = new JsonArray();
+    for (int count = readVarint(); count > 0; count--) {
+      array.add(readSourceEdit());
+    }
+    object.add("edits", array);
+    return object;
+  }
+
+  private String readString() {
+    int index = readVarint();
+    if (index != 0) {
+      return strings.get(index - 1);
+    }
+    int length = readVarint();
+    String value = new String(bytes, position, length, UTF8);
+    position += length;
+    strings.add(value);
+    return value;
+  }
+
+  private JsonObject readTypeHierarchyItem() {
+    JsonObject object = new JsonObject();
+    int mask = readVarint();
+    object.add("classElement", readElement());
+    if ((mask & 1) != 0) {
+      object.add("displayName", new JsonPrimitive(readString()));
+    }
+    if ((mask & 2) != 0) {
+      object.add("memberElement", readElement());
+    }
+    if ((mask & 4) != 0) {
+      object.add("superclass", new JsonPrimitive(readInt()));
+    }
+    object.add("interfaces", readIntArray());
+    object.add("mixins", readIntArray());
+    object.add("subclasses", readIntArray());
+    return object;
+  }
+
+  private int readVarint() {
+    int value = 0;
+    for (int shift = 0;; shift += 7) {
+      int b = readByte();
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+  }
+
+  private byte[] toByteArray() {
+    return Arrays.copyOf(bytes, position);
+  }
+
+  private void writeAddContentOverlay(JsonObject object) {
+    checkMemberCount(object, 2);
+    writeString(object.get("content").getAsString());
+  }
+
+  private void writeAnalysisError(JsonObject object) {
+    int mask = 0;
+    if (isPresent(object, "correction")) {
+      mask |= 1;
+    }
+    writeVarint(mask);
+    checkMemberCount(object, 4 + Integer.bitCount(mask));
+    writeString(object.get("severity").getAsString());
+    writeString(object.get("type").getAsString());
+    writeLocation(object.get("location").getAsJsonObject());
+    writeString(object.get("message").getAsString());
+    if ((mask & 1) != 0) {
+      writeString(object.get("correction").getAsString());
+    }
+  }
+
+  private void writeAnalysisErrorFixes(JsonObject object) {
+    checkMemberCount(object, 2);
+    writeAnalysisError(object.get("error").getAsJsonObject());
+    JsonArray array = object.get("fixes").getAsJsonArray();
+    writeVarint(array.size());
+    for (JsonElement element : array) {
+      writeSourceChange(element.getAsJsonObject());
+    }
+  }
+
+  private void writeAnalysisErrorsParams(JsonObject object) {
+    checkMemberCount(object, 2);
+    writeString(object.get("file").getAsString());
+    JsonArray array = object.get("errors").getAsJsonArray();
+    writeVarint(array.size());
+    for (JsonElement element : array) {
+      writeAnalysisError(element.getAsJsonObject());
+    }
+  }
+
+  private void writeAnalysisFlushResultsParams(JsonObject object) {
+    checkMemberCount(object, 1);
+    JsonArray array = object.get("files").getAsJsonArray();
+    writeVarint(array.size());
+    for (JsonElement element : array) {
+      writeString(element.getAsString());
+    }
+  }
+
+  private void writeAnalysisFoldingParams(JsonObject object) {
+    checkMemberCount(object, 2);
+    writeString(object.get("file").getAsString());
+    JsonArray array = object.get("regions").getAsJsonArray();
+    writeVarint(array.size());
+    for (JsonElement element : array) {
+      writeFoldingRegion(element.getAsJsonObject());
+    }
+  }
+
+  private void writeAnalysisGetErrorsParams(JsonObject object) {
+    checkMemberCount(object, 1);
+    writeString(object.get("file").getAsString());
+  }
+
+  private void writeAnalysisGetErrorsResult(JsonObject object) {
+    checkMemberCount(object, 1);
+    JsonArray array = object.get("errors").getAsJsonArray();
+    writeVarint(array.size());
+    for (JsonElement element : array) {
+      writeAnalysisError(element.getAsJsonObject());
+    }
+  }
+
+  private void writeAnalysisGetHoverParams(JsonObject object) {
+    checkMemberCount(object, 2);
+    writeString(object.get("file").getAsString());
+    writeInt(object.get("offset").getAsInt());
+  }
+
+  private void writeAnalysisGetHoverResult(JsonObject object) {
+    checkMemberCount(object, 1);
+    JsonArray array = object.get("hovers").getAsJsonArray();
+    writeVarint(array.size());
+    for (JsonElement element : array) {
+      writeHoverInformation(element.getAsJsonObject());
+    }
+  }
+
+  private void writeAnalysisGetLibraryDependenciesResult(JsonObject object) {
+    checkMemberCount(object, 2);
+    JsonArray array = object.get("libraries").getAsJsonArray();
+    writeVarint(array.size());
+    for (JsonElement element : array) {
+      writeString(element.getAsString());
+    }
+    JsonObject map = object.get("packageMap").getAsJsonObject();
+    writeVarint(map.entrySet().size());
+    for (Map.Entry<String, JsonElement> entry : map.entrySet()) {
+      writeString(entry.getKey());
+      JsonObject map2 = entry.getValue().getAsJsonObject();
+      writeVarint(map2.entrySet().size());
+      for (Map.Entry<String, JsonElement> entry2 : map2.entrySet()) {
+        writeString(entry2.getKey());
+        JsonArray array2 = entry2.getValue().getAsJsonArray();
+        writeVarint(array2.size());
+        for (JsonElement element2 : array2) {
+          writeString(element2.getAsString());
+        }
+      }
+    }
+  }
+
+  private void writeAnalysisGetNavigationParams(JsonObject object) {
+    checkMemberCount(object, 3);
+    writeString(object.get("file").getAsString());
+    writeInt(object.get("offset").getAsInt());
+    writeInt(object.get("length").getAsInt());
+  }
+
+  private void writeAnalysisGetNavigationResult(JsonObject object) {
+    checkMemberCount(object, 3);
+    JsonArray array = object.get("files").getAsJsonArray();
+    writeVarint(array.size());
+    for (JsonElement element : array) {
+      writeString(element.getAsString());
+    }
+    JsonArray array2 = object.get("targets").getAsJsonArray();
+    writeVarint(array2.size());
+    for (JsonElement element2 : array2) {
+      writeNavigationTarget(element2.getAsJsonObject());
+    }
+    JsonArray array3 = object.get("regions").getAsJsonArray();
+    writeVarint(array3.size());
+    for (JsonElement element3 : array3) {
+      writeNavigationRegion(element3.getAsJsonObject());
+    }
+  }
+
+  private void writeAnalysisHighlightsParams(JsonObject object) {
+    checkMemberCount(object, 2);
+    writeString(object.get("file").getAsString());
+    JsonArray array = object.get("regions").getAsJsonArray();
+    writeVarint(array.size());
+    for (JsonElement element : array) {
+      writeHighlightRegion(element.getAsJsonObject());
+    }
+  }
+
+  private void writeAnalysisInvalidateParams(JsonObject object) {
+    checkMemberCount(object, 4);
+    writeString(object.get("file").getAsString());
+    writeInt(object.get("offset").getAsInt());
+    writeInt(object.get("length").getAsInt());
+    writeInt(object.get("delta").getAsInt());
+  }
+
+  private void writeAnalysisNavigationParams(JsonObject object) {
+    checkMemberCount(object, 4);
+    writeString(object.get("file").getAsString());
+    JsonArray array = object.get("regions").getAsJsonArray();
+    writeVarint(array.size());
+    for (JsonElement element : array) {
+      writeNavigationRegion(element.getAsJsonObject());
+    }
+    JsonArray array2 = object.get("targets").getAsJsonArray();
+    writeVarint(array2.size());
+    for (JsonElement element2 : array2) {
+      writeNavigationTarget(element2.getAsJsonObject());
+    }
+    JsonArray array3 = object.get("files").getAsJsonArray();
+    writeVarint(array3.size());
+    for (JsonElement element3 : array3) {
+      writeString(element3.getAsString());
+    }
+  }
+
+  private void writeAnalysisOccurrencesParams(JsonObject object) {
+    checkMemberCount(object, 2);
+    writeString(object.get("file").getAsString());
+    JsonArray array = object.get("occurrences").getAsJsonArray();
+    writeVarint(array.size());
+    for (JsonElement element : array) {
+      writeOccurrences(element.getAsJsonObject());
+    }
+  }
+
+  private void writeAnalysisOptions(JsonObject object) {
+    int mask = 0;
+    if (isPresent(object, "enableAsync")) {
+      mask |= 1;
+    }
+    if (isPresent(object, "enableDeferredLoading")) {
+      mask |= 2;
+    }
+    if (isPresent(object, "enableEnums")) {
+      mask |= 4;
+    }
+    if (isPresent(object, "enableNullAwareOperators")) {
+      mask |= 8;
+    }
+    if (isPresent(object, "generateDart2jsHints")) {
+      mask |= 16;
+    }
+    if (isPresent(object, "generateHints")) {
+      mask |= 32;
+    }
+    if (isPresent(object, "generateLints")) {
+      mask |= 64;
+    }
+    writeVarint(mask);
+    checkMemberCount(object, 0 + Integer.bitCount(mask));
+    if ((mask & 1) != 0) {
+      writeBoolean(object.get("enableAsync").getAsBoolean());
+    }
+    if ((mask & 2) != 0) {
+      writeBoolean(object.get("enableDeferredLoading").getAsBoolean());
+    }
+    if ((mask & 4) != 0) {
+      writeBoolean(object.get("enableEnums").getAsBoolean());
+    }
+    if ((mask & 8) != 0) {
+      writeBoolean(object.get("enableNullAwareOperators").getAsBoolean());
+    }
+    if ((mask & 16) != 0) {
+      writeBoolean(object.get("generateDart2jsHints").getAsBoolean());
+    }
+    if ((mask & 32) != 0) {
+      writeBoolean(object.get("generateHints").getAsBoolean());
+    }
+    if ((mask & 64) != 0) {
+      writeBoolean(object.get("generateLints").getAsBoolean());
+    }
+  }
+
+  private void writeAnalysisOutlineParams(JsonObject object) {
+    checkMemberCount(object, 2);
+    writeString(object.get("file").getAsString());
+    writeOutline(object.get("outline").getAsJsonObject());
+  }
+
+  private void writeAnalysisOverridesParams(JsonObject object) {
+    checkMemberCount(object, 2);
+    writeString(object.get("file").getAsString());
+    JsonArray array = object.get("overrides").getAsJsonArray();
+    writeVarint(array.size());
+    for (JsonElement element : array) {
+      writeOverride(element.getAsJsonObject());
+    }
+  }
+
+  private void writeAnalysisReanalyzeParams(JsonObject object) {
+    int mask = 0;
+    if (isPresent(object, "roots")) {
+      mask |= 1;
+    }
+    writeVarint(mask);
+    checkMemberCount(object, 0 + Integer.bitCount(mask));
+    if ((mask & 1) != 0) {
+      JsonArray array = object.get("roots").getAsJsonArray();
+      writeVarint(array.size());
+      for (JsonElement element : array) {
+        writeString(element.getAsString());
+      }
+    }
+  }
+
+  private void writeAnalysisSetAnalysisRootsParams(JsonObject object) {
+    int mask = 0;
+    if (isPresent(object, "packageRoots")) {
+      mask |= 1;
+    }
+    writeVarint(mask);
+    checkMemberCount(object, 2 + Integer.bitCount(mask));
+    JsonArray array = object.get("included").getAsJsonArray();
+    writeVarint(array.size());
+    for (JsonElement element : array) {
+      writeString(element.getAsString());
+    }
+    JsonArray array2 = object.get("excluded").getAsJsonArray();
+    writeVarint(array2.size());
+    for (JsonElement element2 : array2) {
+      writeString(element2.getAsString());
+    }
+    if ((mask & 1) != 0) {
+      JsonObject map = object.get("packageRoots").getAsJsonObject();
+      writeVarint(map.entrySet().size());
+      for (Map.Entry<String, JsonElement> entry : map.entrySet()) {
+        writeString(entry.getKey());
+        writeString(entry.getValue().getAsString());
+      }
+    }
+  }
+
+  private void writeAnalysisSetPriorityFilesParams(JsonObject object) {
+    checkMemberCount(object, 1);
+    JsonArray array = object.get("files").getAsJsonArray();
+    writeVarint(array.size());
+    for (JsonElement element : array) {
+      writeString(element.getAsString());
+    }
+  }
+
+  private void writeAnalysisSetSubscriptionsParams(JsonObject object) {
+    checkMemberCount(object, 1);
+    JsonObject map = object.get("subscriptions").getAsJsonObject();
+    writeVarint(map.entrySet().size());
+    for (Map.Entry<String, JsonElement> entry : map.entrySet()) {
+      writeString(entry.getKey());
+      JsonArray array = entry.getValue().getAsJsonArray();
+      writeVarint(array.size());
+      for (JsonElement element : array) {
+        writeString(element.getAsString());
+      }
+    }
+  }
+
+  private void writeAnalysisStatus(JsonObject object) {
+    int mask = 0;
+    if (isPresent(object, "analysisTarget")) {
+      mask |= 1;
+    }
+    writeVarint(mask);
+    checkMemberCount(object, 1 + Integer.bitCount(mask));
+    writeBoolean(object.get("isAnalyzing").getAsBoolean());
+    if ((mask & 1) != 0) {
+      writeString(object.get("analysisTarget").getAsString());
+    }
+  }
+
+  private void writeAnalysisUpdateContentParams(JsonObject object) {
+    checkMemberCount(object, 1);
+    JsonObject map = object.get("files").getAsJsonObject();
+    writeVarint(map.entrySet().size());
+    for (Map.Entry<String, JsonElement> entry : map.entrySet()) {
+      writeString(entry.getKey());
+      JsonObject union = entry.getValue().getAsJsonObject();
+      String kind = union.get("type").getAsString();
+      if ("add".equals(kind)) {
+        writeVarint(0);
+        writeAddContentOverlay(union.getAsJsonObject());
+      } else if ("change".equals(kind)) {
+        writeVarint(1);
+        writeChangeContentOverlay(union.getAsJsonObject());
+      } else if ("remove".equals(kind)) {
+        writeVarint(2);
+        writeRemoveContentOverlay(union.getAsJsonObject());
+      } else {
+        throw new IllegalArgumentException("Unknown type: " + kind);
+      }
+    }
+  }
+
+  private void writeAnalysisUpdateContentResult(JsonObject object) {
+    checkMemberCount(object, 0);
+  }
+
+  private void writeAnalysisUpdateOptionsParams(JsonObject object) {
+    checkMemberCount(object, 1);
+    writeAnalysisOptions(object.get("options").getAsJsonObject());
+  }
+
+  private void writeBoolean(boolean value) {
+    writeByte(value ? 1 : 0);
+  }
+
+  private void writeByte(int value) {
+    ensureCapacity(1);
+    bytes[position++] = (byte) value;
+  }
+
+  private void writeChangeContentOverlay(JsonObject object) {
+    checkMemberCount(object, 2);
+    JsonArray array = object.get("edits").getAsJsonArray();
+    writeVarint(array.size());
+    for (JsonElement element : array) {
+      writeSourceEdit(element.getAsJsonObject());
+    }
+  }
+
+  private void writeCompletionGetSuggestionsParams(JsonObject object) {
+    checkMemberCount(object, 2);
+    writeString(object.get("file").getAsString());
+    writeInt(object.get("offset").getAsInt());
+  }
+
+  private void writeCompletionGetSuggestionsResult(JsonObject object) {
+    checkMemberCount(object, 1);
+    writeString(object.get("id").getAsString());
+  }
+
+  private void writeCompletionResultsParams(JsonObject object) {
+    checkMemberCount(object, 5);
+    writeString(object.get("id").getAsString());
+    writeInt(object.get("replacementOffset").getAsInt());
+    writeInt(object.get("replacementLength").getAsInt());
+    JsonArray array = object.get("results").getAsJsonArray();
+    writeVarint(array.size());
+    for (JsonElement element : array) {
+      writeCompletionSuggestion(element.getAsJsonObject());
+    }
+    writeBoolean(object.get("isLast").getAsBoolean());
+  }
+
+  private void writeCompletionSuggestion(JsonObject object) {
+    int mask = 0;
+    if (isPresent(object, "docSummary")) {
+      mask |= 1;
+    }
+    if (isPresent(object, "docComplete")) {
+      mask |= 2;
+    }
+    if (isPresent(object, "declaringType")) {
+      mask |= 4;
+    }
+    if (isPresent(object, "element")) {
+      mask |= 8;
+    }
+    if (isPresent(object, "returnType")) {
+      mask |= 16;
+    }
+    if (isPresent(object, "parameterNames")) {
+      mask |= 32;
+    }
+    if (isPresent(object, "parameterTypes")) {
+      mask |= 64;
+    }
+    if (isPresent(object, "requiredParameterCount")) {
+      mask |= 128;
+    }
+    if (isPresent(object, "hasNamedParameters")) {
+      mask |= 256;
+    }
+    if (isPresent(object, "parameterName")) {
+      mask |= 512;
+    }
+    if (isPresent(object, "parameterType")) {
+      mask |= 1024;
+    }
+    if (isPresent(object, "importUri")) {
+      mask |= 2048;
+    }
+    writeVarint(mask);
+    checkMemberCount(object, 7 + Integer.bitCount(mask));
+    writeString(object.get("kind").getAsString());
+    writeInt(object.get("relevance").getAsInt());
+    writeString(object.get("completion").getAsString());
+    writeInt(object.get("selectionOffset").getAsInt());
+    writeInt(object.get("selectionLength").getAsInt());
+    writeBoolean(object.get("isDeprecated").getAsBoolean());
+    writeBoolean(object.get("isPotential").getAsBoolean());
+    if ((mask & 1) != 0) {
+      writeString(object.get("docSummary").getAsString());
+    }
+    if ((mask & 2) != 0) {
+      writeString(object.get("docComplete").getAsString());
+    }
+    if ((mask & 4) != 0) {
+      writeString(object.get("declaringType").getAsString());
+    }
+    if ((mask & 8) != 0) {
+      writeElement(object.get("element").getAsJsonObject());
+    }
+    if ((mask & 16) != 0) {
+      writeString(object.get("returnType").getAsString());
+    }
+    if ((mask & 32) != 0) {
+      JsonArray array = object.get("parameterNames").getAsJsonArray();
+      writeVarint(array.size());
+      for (JsonElement element : array) {
+        writeString(element.getAsString());
+      }
+    }
+    if ((mask & 64) != 0) {
+      JsonArray array2 = object.get("parameterTypes").getAsJsonArray();
+      writeVarint(array2.size());
+      for (JsonElement element2 : array2) {
+        writeString(element2.getAsString());
+      }
+    }
+    if ((mask & 128) != 0) {
+      writeInt(object.get("requiredParameterCount").getAsInt());
+    }
+    if ((mask & 256) != 0) {
+      writeBoolean(object.get("hasNamedParameters").getAsBoolean());
+    }
+    if ((mask & 512) != 0) {
+      writeString(object.get("parameterName").getAsString());
+    }
+    if ((mask & 1024) != 0) {
+      writeString(object.get("parameterType").getAsString());
+    }
+    if ((mask & 2048) != 0) {
+      writeString(object.get("importUri").getAsString());
+    }
+  }
+
+  private void writeEditFormatParams(JsonObject object) {
+    int mask = 0;
+    if (isPresent(object, "lineLength")) {
+      mask |= 1;
+    }
+    writeVarint(mask);
+    checkMemberCount(object, 3 + Integer.bitCount(mask));
+    writeString(object.get("file").getAsString());
+    writeInt(object.get("selectionOffset").getAsInt());
+    writeInt(object.get("selectionLength").getAsInt());
+    if ((mask & 1) != 0) {
+      writeInt(object.get("lineLength").getAsInt());
+    }
+  }
+
+  private void writeEditFormatResult(JsonObject object) {
+    checkMemberCount(object, 3);
+    JsonArray array = object.get("edits").getAsJsonArray();
+    writeVarint(array.size());
+    for (JsonElement element : array) {
+      writeSourceEdit(element.getAsJsonObject());
+    }
+    writeInt(object.get("selectionOffset").getAsInt());
+    writeInt(object.get("selectionLength").getAsInt());
+  }
+
+  private void writeEditGetAssistsParams(JsonObject object) {
+    checkMemberCount(object, 3);
+    writeString(object.get("file").getAsString());
+    writeInt(object.get("offset").getAsInt());
+    writeInt(object.get("length").getAsInt());
+  }
+
+  private void writeEditGetAssistsResult(JsonObject object) {
+    checkMemberCount(object, 1);
+    JsonArray array = object.get("assists").getAsJsonArray();
+    writeVarint(array.size());
+    for (JsonElement element : array) {
+      writeSourceChange(element.getAsJsonObject());
+    }
+  }
+
+  private void writeEditGetAvailableRefactoringsParams(JsonObject object) {
+    checkMemberCount(object, 3);
+    writeString(object.get("file").getAsString());
+    writeInt(object.get("offset").getAsInt());
+    writeInt(object.get("length").getAsInt());
+  }
+
+  private void writeEditGetAvailableRefactoringsResult(JsonObject object) {
+    checkMemberCount(object, 1);
+    JsonArray array = object.get("kinds").getAsJsonArray();
+    writeVarint(array.size());
+    for (JsonElement element : array) {
+      writeString(element.getAsString());
+    }
+  }
+
+  private void writeEditGetFixesParams(JsonObject object) {
+    checkMemberCount(object, 2);
+    writeString(object.get("file").getAsString());
+    writeInt(object.get("offset").getAsInt());
+  }
+
+  private void writeEditGetFixesResult(JsonObject object) {
+    checkMemberCount(object, 1);
+    JsonArray array = object.get("fixes").getAsJsonArray();
+    writeVarint(array.size());
+    for (JsonElement element : array) {
+      writeAnalysisErrorFixes(element.getAsJsonObject());
+    }
+  }
+
+  private void writeEditGetRefactoringParams(JsonObject object) {
+    int mask = 0;
+    if (isPresent(object, "options")) {
+      mask |= 1;
+    }
+    writeVarint(mask);
+    checkMemberCount(object, 5 + Integer.bitCount(mask));
+    writeString(object.get("kind").getAsString());
+    writeString(object.get("file").getAsString());
+    writeInt(object.get("offset").getAsInt());
+    writeInt(object.get("length").getAsInt());
+    writeBoolean(object.get("validateOnly").getAsBoolean());
+    if ((mask & 1) != 0) {
+      writeJson(object.get("options"));
+    }
+  }
+
+  private void writeEditGetRefactoringResult(JsonObject object) {
+    int mask = 0;
+    if (isPresent(object, "feedback")) {
+      mask |= 1;
+    }
+    if (isPresent(object, "change")) {
+      mask |= 2;
+    }
+    if (isPresent(object, "potentialEdits")) {
+      mask |= 4;
+    }
+    writeVarint(mask);
+    checkMemberCount(object, 3 + Integer.bitCount(mask));
+    JsonArray array = object.get("initialProblems").getAsJsonArray();
+    writeVarint(array.size());
+    for (JsonElement element : array) {
+      writeRefactoringProblem(element.getAsJsonObject());
+    }
+    JsonArray array2 = object.get("optionsProblems").getAsJsonArray();
+    writeVarint(array2.size());
+    for (JsonElement element2 : array2) {
+      writeRefactoringProblem(element2.getAsJsonObject());
+    }
+    JsonArray array3 = object.get("finalProblems").getAsJsonArray();
+    writeVarint(array3.size());
+    for (JsonElement element3 : array3) {
+      writeRefactoringProblem(element3.getAsJsonObject());
+    }
+    if ((mask & 1) != 0) {
+      writeJson(object.get("feedback"));
+    }
+    if ((mask & 2) != 0) {
+      writeSourceChange(object.get("change").getAsJsonObject());
+    }
+    if ((mask & 4) != 0) {
+      JsonArray array4 = object.get("potentialEdits").getAsJsonArray();
+      writeVarint(array4.size());
+      for (JsonElement element4 : array4) {
+        writeString(element4.getAsString());
+      }
+    }
+  }
+
+  private void writeEditSortMembersParams(JsonObject object) {
+    checkMemberCount(object, 1);
+    writeString(object.get("file").getAsString());
+  }
+
+  private void writeEditSortMembersResult(JsonObject object) {
+    checkMemberCount(object, 1);
+    writeSourceFileEdit(object.get("edit").getAsJsonObject());
+  }
+
+  private void writeElement(JsonObject object) {
+    int mask = 0;
+    if (isPresent(object, "location")) {
+      mask |= 1;
+    }
+    if (isPresent(object, "parameters")) {
+      mask |= 2;
+    }
+    if (isPresent(object, "returnType")) {
+      mask |= 4;
+    }
+    if (isPresent(object, "typeParameters")) {
+      mask |= 8;
+    }
+    writeVarint(mask);
+    checkMemberCount(object, 3 + Integer.bitCount(mask));
+    writeString(object.get("kind").getAsString());
+    writeString(object.get("name").getAsString());
+    if ((mask & 1) != 0) {
+      writeLocation(object.get("location").getAsJsonObject());
+    }
+    writeInt(object.get("flags").getAsInt());
+    if ((mask & 2) != 0) {
+      writeString(object.get("parameters").getAsString());
+    }
+    if ((mask & 4) != 0) {
+      writeString(object.get("returnType").getAsString());
+    }
+    if ((mask & 8) != 0) {
+      writeString(object.get("typeParameters").getAsString());
+    }
+  }
+
+  private void writeExecutableFile(JsonObject object) {
+    checkMemberCount(object, 2);
+    writeString(object.get("file").getAsString());
+    writeString(object.get("kind").getAsString());
+  }
+
+  private void writeExecutionCreateContextParams(JsonObject object) {
+    checkMemberCount(object, 1);
+    writeString(object.get("contextRoot").getAsString());
+  }
+
+  private void writeExecutionCreateContextResult(JsonObject object) {
+    checkMemberCount(object, 1);
+    writeString(object.get("id").getAsString());
+  }
+
+  private void writeExecutionDeleteContextParams(JsonObject object) {
+    checkMemberCount(object, 1);
+    writeString(object.get("id").getAsString());
+  }
+
+  private void writeExecutionLaunchDataParams(JsonObject object) {
+    int mask = 0;
+    if (isPresent(object, "kind")) {
+      mask |= 1;
+    }
+    if (isPresent(object, "referencedFiles")) {
+      mask |= 2;
+    }
+    writeVarint(mask);
+    checkMemberCount(object, 1 + Integer.bitCount(mask));
+    writeString(object.get("file").getAsString());
+    if ((mask & 1) != 0) {
+      writeString(object.get("kind").getAsString());
+    }
+    if ((mask & 2) != 0) {
+      JsonArray array = object.get("referencedFiles").getAsJsonArray();
+      writeVarint(array.size());
+      for (JsonElement element : array) {
+        writeString(element.getAsString());
+      }
+    }
+  }
+
+  private void writeExecutionMapUriParams(JsonObject object) {
+    int mask = 0;
+    if (isPresent(object, "file")) {
+      mask |= 1;
+    }
+    if (isPresent(object, "uri")) {
+      mask |= 2;
+    }
+    writeVarint(mask);
+    checkMemberCount(object, 1 + Integer.bitCount(mask));
+    writeString(object.get("id").getAsString());
+    if ((mask & 1) != 0) {
+      writeString(object.get("file").getAsString());
+    }
+    if ((mask & 2) != 0) {
+      writeString(object.get("uri").getAsString());
+    }
+  }
+
+  private void writeExecutionMapUriResult(JsonObject object) {
+    int mask = 0;
+    if (isPresent(object, "file")) {
+      mask |= 1;
+    }
+    if (isPresent(object, "uri")) {
+      mask |= 2;
+    }
+    writeVarint(mask);
+    checkMemberCount(object, 0 + Integer.bitCount(mask));
+    if ((mask & 1) != 0) {
+      writeString(object.get("file").getAsString());
+    }
+    if ((mask & 2) != 0) {
+      writeString(object.get("uri").getAsString());
+    }
+  }
+
+  private void writeExecutionSetSubscriptionsParams(JsonObject object) {
+    checkMemberCount(object, 1);
+    JsonArray array = object.get("subscriptions").getAsJsonArray();
+    writeVarint(array.size());
+    for (JsonElement element : array) {
+      writeString(element.getAsString());
+    }
+  }
+
+  private void writeFoldingRegion(JsonObject object) {
+    checkMemberCount(object, 3);
+    writeString(object.get("kind").getAsString());
+    writeInt(object.get("offset").getAsInt());
+    writeInt(object.get("length").getAsInt());
+  }
+
+  private void writeHighlightRegion(JsonObject object) {
+    checkMemberCount(object, 3);
+    writeString(object.get("type").getAsString());
+    writeInt(object.get("offset").getAsInt());
+    writeInt(object.get("length").getAsInt());
+  }
+
+  private void writeHoverInformation(JsonObject object) {
+    int mask = 0;
+    if (isPresent(object, "containingLibraryPath")) {
+      mask |= 1;
+    }
+    if (isPresent(object, "containingLibraryName")) {
+      mask |= 2;
+    }
+    if (isPresent(object, "containingClassDescription")) {
+      mask |= 4;
+    }
+    if (isPresent(object, "dartdoc")) {
+      mask |= 8;
+    }
+    if (isPresent(object, "elementDescription")) {
+      mask |= 16;
+    }
+    if (isPresent(object, "elementKind")) {
+      mask |= 32;
+    }
+    if (isPresent(object, "parameter")) {
+      mask |= 64;
+    }
+    if (isPresent(object, "propagatedType")) {
+      mask |= 128;
+    }
+    if (isPresent(object, "staticType")) {
+      mask |= 256;
+    }
+    writeVarint(mask);
+    checkMemberCount(object, 2 + Integer.bitCount(mask));
+    writeInt(object.get("offset").getAsInt());
+    writeInt(object.get("length").getAsInt());
+    if ((mask & 1) != 0) {
+      writeString(object.get("containingLibraryPath").getAsString());
+    }
+    if ((mask & 2) != 0) {
+      writeString(object.get("containingLibraryName").getAsString());
+    }
+    if ((mask & 4) != 0) {
+      writeString(object.get("containingClassDescription").getAsString());
+    }
+    if ((mask & 8) != 0) {
+      writeString(object.get("dartdoc").getAsString());
+    }
+    if ((mask & 16) != 0) {
+      writeString(object.get("elementDescription").getAsString());
+    }
+    if ((mask & 32) != 0) {
+      writeString(object.get("elementKind").getAsString());
+    }
+    if ((mask & 64) != 0) {
+      writeString(object.get("parameter").getAsString());
+    }
+    if ((mask & 128) != 0) {
+      writeString(object.get("propagatedType").getAsString());
+    }
+    if ((mask & 256) != 0) {
+      writeString(object.get("staticType").getAsString());
+    }
+  }
+
+  private void writeInt(int value) {
+    writeVarint(value << 1 ^ value >> 31);
+  }
+
+  private void writeIntArray(JsonArray array) {
+    writeVarint(array.size());
+    int previous = 0;
+    for (JsonElement element : array) {
+      int value = element.getAsInt();
+      writeInt(value - previous);
+      previous = value;
+    }
+  }
+
+  private void writeJson(JsonElement element) {
+    if (element == null || element.isJsonNull()) {
+      writeByte(TAG_NULL);
+    } else if (element.isJsonArray()) {
+      JsonArray array = element.getAsJsonArray();
+      writeByte(TAG_ARRAY);
+      writeVarint(array.size());
+      for (JsonElement child : array) {
+        writeJson(child);
+      }
+    } else if (element.isJsonObject()) {
+      JsonObject object = element.getAsJsonObject();
+      writeByte(TAG_OBJECT);
+      writeVarint(object.entrySet().size());
+      for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+        writeString(entry.getKey());
+        writeJson(entry.getValue());
+      }
+    } else {
+      JsonPrimitive primitive = element.getAsJsonPrimitive();
+      if (primitive.isBoolean()) {
+        writeByte(primitive.getAsBoolean() ? TAG_TRUE : TAG_FALSE);
+      } else if (primitive.isNumber()) {
+        long value;
+        try {
+          value = Long.parseLong(primitive.getAsString());
+        } catch (NumberFormatException exception) {
+          writeByte(TAG_DOUBLE);
+          writeLong(Double.doubleToLongBits(primitive.getAsDouble()));
+          return;
+        }
+        writeByte(TAG_INTEGER);
+        writeLong(value);
+      } else {
+        writeByte(TAG_STRING);
+        writeString(primitive.getAsString());
+      }
+    }
+  }
+
+  private void writeLinkedEditGroup(JsonObject object) {
+    checkMemberCount(object, 3);
+    JsonArray array = object.get("positions").getAsJsonArray();
+    writeVarint(array.size());
+    for (JsonElement element : array) {
+      writePosition(element.getAsJsonObject());
+    }
+    writeInt(object.get("length").getAsInt());
+    JsonArray array2 = object.get("suggestions").getAsJsonArray();
+    writeVarint(array2.size());
+    for (JsonElement element2 : array2) {
+      writeLinkedEditSuggestion(element2.getAsJsonObject());
+    }
+  }
+
+  private void writeLinkedEditSuggestion(JsonObject object) {
+    checkMemberCount(object, 2);
+    writeString(object.get("value").getAsString());
+    writeString(object.get("kind").getAsString());
+  }
+
+  private void writeLocation(JsonObject object) {
+    checkMemberCount(object, 5);
+    writeString(object.get("file").getAsString());
+    writeInt(object.get("offset").getAsInt());
+    writeInt(object.get("length").getAsInt());
+    writeInt(object.get("startLine").getAsInt());
+    writeInt(object.get("startColumn").getAsInt());
+  }
+
+  private void writeLong(long value) {
+    value = value << 1 ^ value >> 63;
+    ensureCapacity(10);
+    while ((value & ~0x7FL) != 0) {
+      bytes[position++] = (byte) (value & 0x7F | 0x80);
+      value >>>= 7;
+    }
+    bytes[position++] = (byte) value;
+  }
+
+  private void writeNavigationRegion(JsonObject object) {
+    checkMemberCount(object, 3);
+    writeInt(object.get("offset").getAsInt());
+    writeInt(object.get("length").getAsInt());
+    writeIntArray(object.get("targets").getAsJsonArray());
+  }
+
+  private void writeNavigationTarget(JsonObject object) {
+    checkMemberCount(object, 6);
+    writeString(object.get("kind").getAsString());
+    writeInt(object.get("fileIndex").getAsInt());
+    writeInt(object.get("offset").getAsInt());
+    writeInt(object.get("length").getAsInt());
+    writeInt(object.get("startLine").getAsInt());
+    writeInt(object.get("startColumn").getAsInt());
+  }
+
+  private void writeNotificationParams(String event, JsonObject params) {
+    switch (event) {
+      case "server.connected":
+        writeServerConnectedParams(params);
+        break;
+      case "server.error":
+        writeServerErrorParams(params);
+        break;
+      case "server.status":
+        writeServerStatusParams(params);
+        break;
+      case "analysis.errors":
+        writeAnalysisErrorsParams(params);
+        break;
+      case "analysis.flushResults":
+        writeAnalysisFlushResultsParams(params);
+        break;
+      case "analysis.folding":
+        writeAnalysisFoldingParams(params);
+        break;
+      case "analysis.highlights":
+        writeAnalysisHighlightsParams(params);
+        break;
+      case "analysis.invalidate":
+        writeAnalysisInvalidateParams(params);
+        break;
+      case "analysis.navigation":
+        writeAnalysisNavigationParams(params);
+        break;
+      case "analysis.occurrences":
+        writeAnalysisOccurrencesParams(params);
+        break;
+      case "analysis.outline":
+        writeAnalysisOutlineParams(params);
+        break;
+      case "analysis.overrides":
+        writeAnalysisOverridesParams(params);
+        break;
+      case "completion.results":
+        writeCompletionResultsParams(params);
+        break;
+      case "search.results":
+        writeSearchResultsParams(params);
+        break;
+      case "execution.launchData":
+        writeExecutionLaunchDataParams(params);
+        break;
+      default:
+        if (params != null) {
+          throw new IllegalArgumentException("Unexpected params: " + event);
+        }
+    }
+  }
+
+  private void writeOccurrences(JsonObject object) {
+    checkMemberCount(object, 3);
+    writeElement(object.get("element").getAsJsonObject());
+    writeIntArray(object.get("offsets").getAsJsonArray());
+    writeInt(object.get("length").getAsInt());
+  }
+
+  private void writeOutline(JsonObject object) {
+    int mask = 0;
+    if (isPresent(object, "children")) {
+      mask |= 1;
+    }
+    writeVarint(mask);
+    checkMemberCount(object, 3 + Integer.bitCount(mask));
+    writeElement(object.get("element").getAsJsonObject());
+    writeInt(object.get("offset").getAsInt());
+    writeInt(object.get("length").getAsInt());
+    if ((mask & 1) != 0) {
+      JsonArray array = object.get("children").getAsJsonArray();
+      writeVarint(array.size());
+      for (JsonElement element : array) {
+        writeOutline(element.getAsJsonObject());
+      }
+    }
+  }
+
+  private void writeOverriddenMember(JsonObject object) {
+    checkMemberCount(object, 2);
+    writeElement(object.get("element").getAsJsonObject());
+    writeString(object.get("className").getAsString());
+  }
+
+  private void writeOverride(JsonObject object) {
+    int mask = 0;
+    if (isPresent(object, "superclassMember")) {
+      mask |= 1;
+    }
+    if (isPresent(object, "interfaceMembers")) {
+      mask |= 2;
+    }
+    writeVarint(mask);
+    checkMemberCount(object, 2 + Integer.bitCount(mask));
+    writeInt(object.get("offset").getAsInt());
+    writeInt(object.get("length").getAsInt());
+    if ((mask & 1) != 0) {
+      writeOverriddenMember(object.get("superclassMember").getAsJsonObject());
+    }
+    if ((mask & 2) != 0) {
+      JsonArray array = object.get("interfaceMembers").getAsJsonArray();
+      writeVarint(array.size());
+      for (JsonElement element : array) {
+        writeOverriddenMember(element.getAsJsonObject());
+      }
+    }
+  }
+
+  private void writeParams(String method, JsonObject params) {
+    switch (method) {
+      case "server.setSubscriptions":
+        writeServerSetSubscriptionsParams(params);
+        break;
+      case "analysis.getErrors":
+        writeAnalysisGetErrorsParams(params);
+        break;
+      case "analysis.getHover":
+        writeAnalysisGetHoverParams(params);
+        break;
+      case "analysis.getNavigation":
+        writeAnalysisGetNavigationParams(params);
+        break;
+      case "analysis.reanalyze":
+        writeAnalysisReanalyzeParams(params);
+        break;
+      case "analysis.setAnalysisRoots":
+        writeAnalysisSetAnalysisRootsParams(params);
+        break;
+      case "analysis.setPriorityFiles":
+        writeAnalysisSetPriorityFilesParams(params);
+        break;
+      case "analysis.setSubscriptions":
+        writeAnalysisSetSubscriptionsParams(params);
+        break;
+      case "analysis.updateContent":
+        writeAnalysisUpdateContentParams(params);
+        break;
+      case "analysis.updateOptions":
+        writeAnalysisUpdateOptionsParams(params);
+        break;
+      case "completion.getSuggestions":
+        writeCompletionGetSuggestionsParams(params);
+        break;
+      case "search.findElementReferences":
+        writeSearchFindElementReferencesParams(params);
+        break;
+      case "search.findMemberDeclarations":
+        writeSearchFindMemberDeclarationsParams(params);
+        break;
+      case "search.findMemberReferences":
+        writeSearchFindMemberReferencesParams(params);
+        break;
+      case "search.findTopLevelDeclarations":
+        writeSearchFindTopLevelDeclarationsParams(params);
+        break;
+      case "search.getTypeHierarchy":
+        writeSearchGetTypeHierarchyParams(params);
+        break;
+      case "edit.format":
+        writeEditFormatParams(params);
+        break;
+      case "edit.getAssists":
+        writeEditGetAssistsParams(params);
+        break;
+      case "edit.getAvailableRefactorings":
+        writeEditGetAvailableRefactoringsParams(params);
+        break;
+      case "edit.getFixes":
+        writeEditGetFixesParams(params);
+        break;
+      case "edit.getRefactoring":
+        writeEditGetRefactoringParams(params);
+        break;
+      case "edit.sortMembers":
+        writeEditSortMembersParams(params);
+        break;
+      case "execution.createContext":
+        writeExecutionCreateContextParams(params);
+        break;
+      case "execution.deleteContext":
+        writeExecutionDeleteContextParams(params);
+        break;
+      case "execution.mapUri":
+        writeExecutionMapUriParams(params);
+        break;
+      case "execution.setSubscriptions":
+        writeExecutionSetSubscriptionsParams(params);
+        break;
+      default:
+        if (params != null) {
+          throw new IllegalArgumentException("Unexpected params: " + method);
+        }
+    }
+  }
+
+  private void writePosition(JsonObject object) {
+    checkMemberCount(object, 2);
+    writeString(object.get("file").getAsString());
+    writeInt(object.get("offset").getAsInt());
+  }
+
+  private void writePubStatus(JsonObject object) {
+    checkMemberCount(object, 1);
+    writeBoolean(object.get("isListingPackageDirs").getAsBoolean());
+  }
+
+  private void writeRefactoringMethodParameter(JsonObject object) {
+    int mask = 0;
+    if (isPresent(object, "id")) {
+      mask |= 1;
+    }
+    if (isPresent(object, "parameters")) {
+      mask |= 2;
+    }
+    writeVarint(mask);
+    checkMemberCount(object, 3 + Integer.bitCount(mask));
+    if ((mask & 1) != 0) {
+      writeString(object.get("id").getAsString());
+    }
+    writeString(object.get("kind").getAsString());
+    writeString(object.get("type").getAsString());
+    writeString(object.get("name").getAsString());
+    if ((mask & 2) != 0) {
+      writeString(object.get("parameters").getAsString());
+    }
+  }
+
+  private void writeRefactoringProblem(JsonObject object) {
+    int mask = 0;
+    if (isPresent(object, "location")) {
+      mask |= 1;
+    }
+    writeVarint(mask);
+    checkMemberCount(object, 2 + Integer.bitCount(mask));
+    writeString(object.get("severity").getAsString());
+    writeString(object.get("message").getAsString());
+    if ((mask & 1) != 0) {
+      writeLocation(object.get("location").getAsJsonObject());
+    }
+  }
+
+  private void writeRemoveContentOverlay(JsonObject object) {
+    checkMemberCount(object, 1);
+  }
+
+  private void writeRequestError(JsonObject object) {
+    int mask = 0;
+    if (isPresent(object, "stackTrace")) {
+      mask |= 1;
+    }
+    writeVarint(mask);
+    checkMemberCount(object, 2 + Integer.bitCount(mask));
+    writeString(object.get("code").getAsString());
+    writeString(object.get("message").getAsString());
+    if ((mask & 1) != 0) {
+      writeString(object.get("stackTrace").getAsString());
+    }
+  }
+
+  private void writeResult(String method, JsonObject result) {
+    switch (method) {
+      case "server.getVersion":
+        writeServerGetVersionResult(result);
+        break;
+      case "analysis.getErrors":
+        writeAnalysisGetErrorsResult(result);
+        break;
+      case "analysis.getHover":
+        writeAnalysisGetHoverResult(result);
+        break;
+      case "analysis.getLibraryDependencies":
+        writeAnalysisGetLibraryDependenciesResult(result);
+        break;
+      case "analysis.getNavigation":
+        writeAnalysisGetNavigationResult(result);
+        break;
+      case "analysis.updateContent":
+        writeAnalysisUpdateContentResult(result);
+        break;
+      case "completion.getSuggestions":
+        writeCompletionGetSuggestionsResult(result);
+        break;
+      case "search.findElementReferences":
+        writeSearchFindElementReferencesResult(result);
+        break;
+      case "search.findMemberDeclarations":
+        writeSearchFindMemberDeclarationsResult(result);
+        break;
+      case "search.findMemberReferences":
+        writeSearchFindMemberReferencesResult(result);
+        break;
+      case "search.findTopLevelDeclarations":
+        writeSearchFindTopLevelDeclarationsResult(result);
+        break;
+      case "search.getTypeHierarchy":
+        writeSearchGetTypeHierarchyResult(result);
+        break;
+      case "edit.format":
+        writeEditFormatResult(result);
+        break;
+      case "edit.getAssists":
+        writeEditGetAssistsResult(result);
+        break;
+      case "edit.getAvailableRefactorings":
+        writeEditGetAvailableRefactoringsResult(result);
+        break;
+      case "edit.getFixes":
+        writeEditGetFixesResult(result);
+        break;
+      case "edit.getRefactoring":
+        writeEditGetRefactoringResult(result);
+        break;
+      case "edit.sortMembers":
+        writeEditSortMembersResult(result);
+        break;
+      case "execution.createContext":
+        writeExecutionCreateContextResult(result);
+        break;
+      case "execution.mapUri":
+        writeExecutionMapUriResult(result);
+        break;
+      default:
+        if (result != null) {
+          throw new IllegalArgumentException("Unexpected result: " + method);
+        }
+    }
+  }
+
+  private void writeSearchFindElementReferencesParams(JsonObject object) {
+    checkMemberCount(object, 3);
+    writeString(object.get("file").getAsString());
+    writeInt(object.get("offset").getAsInt());
+    writeBoolean(object.get("includePotential").getAsBoolean());
+  }
+
+  private void writeSearchFindElementReferencesResult(JsonObject object) {
+    int mask = 0;
+    if (isPresent(object, "id")) {
+      mask |= 1;
+    }
+    if (isPresent(object, "element")) {
+      mask |= 2;
+    }
+    writeVarint(mask);
+    checkMemberCount(object, 0 + Integer.bitCount(mask));
+    if ((mask & 1) != 0) {
+      writeString(object.get("id").getAsString());
+    }
+    if ((mask & 2) != 0) {
+      writeElement(object.get("element").getAsJsonObject());
+    }
+  }
+
+  private void writeSearchFindMemberDeclarationsParams(JsonObject object) {
+    checkMemberCount(object, 1);
+    writeString(object.get("name").getAsString());
+  }
+
+  private void writeSearchFindMemberDeclarationsResult(JsonObject object) {
+    checkMemberCount(object, 1);
+    writeString(object.get("id").getAsString());
+  }
+
+  private void writeSearchFindMemberReferencesParams(JsonObject object) {
+    checkMemberCount(object, 1);
+    writeString(object.get("name").getAsString());
+  }
+
+  private void writeSearchFindMemberReferencesResult(JsonObject object) {
+    checkMemberCount(object, 1);
+    writeString(object.get("id").getAsString());
+  }
+
+  private void writeSearchFindTopLevelDeclarationsParams(JsonObject object) {
+    checkMemberCount(object, 1);
+    writeString(object.get("pattern").getAsString());
+  }
+
+  private void writeSearchFindTopLevelDeclarationsResult(JsonObject object) {
+    checkMemberCount(object, 1);
+    writeString(object.get("id").getAsString());
+  }
+
+  private void writeSearchGetTypeHierarchyParams(JsonObject object) {
+    checkMemberCount(object, 2);
+    writeString(object.get("file").getAsString());
+    writeInt(object.get("offset").getAsInt());
+  }
+
+  private void writeSearchGetTypeHierarchyResult(JsonObject object) {
+    int mask = 0;
+    if (isPresent(object, "hierarchyItems")) {
+      mask |= 1;
+    }
+    writeVarint(mask);
+    checkMemberCount(object, 0 + Integer.bitCount(mask));
+    if ((mask & 1) != 0) {
+      JsonArray array = object.get("hierarchyItems").getAsJsonArray();
+      writeVarint(array.size());
+      for (JsonElement element : array) {
+        writeTypeHierarchyItem(element.getAsJsonObject());
+      }
+    }
+  }
+
+  private void writeSearchResult(JsonObject object) {
+    checkMemberCount(object, 4);
+    writeLocation(object.get("location").getAsJsonObject());
+    writeString(object.get("kind").getAsString());
+    writeBoolean(object.get("isPotential").getAsBoolean());
+    JsonArray array = object.get("path").getAsJsonArray();
+    writeVarint(array.size());
+    for (JsonElement element : array) {
+      writeElement(element.getAsJsonObject());
+    }
+  }
+
+  private void writeSearchResultsParams(JsonObject object) {
+    checkMemberCount(object, 3);
+    writeString(object.get("id").getAsString());
+    JsonArray array = object.get("results").getAsJsonArray();
+    writeVarint(array.size());
+    for (JsonElement element : array) {
+      writeSearchResult(element.getAsJsonObject());
+    }
+    writeBoolean(object.get("isLast").getAsBoolean());
+  }
+
+  private void writeServerConnectedParams(JsonObject object) {
+    checkMemberCount(object, 1);
+    writeString(object.get("version").getAsString());
+  }
+
+  private void writeServerErrorParams(JsonObject object) {
+    checkMemberCount(object, 3);
+    writeBoolean(object.get("isFatal").getAsBoolean());
+    writeString(object.get("message").getAsString());
+    writeString(object.get("stackTrace").getAsString());
+  }
+
+  private void writeServerGetVersionResult(JsonObject object) {
+    checkMemberCount(object, 1);
+    writeString(object.get("version").getAsString());
+  }
+
+  private void writeServerSetSubscriptionsParams(JsonObject object) {
+    checkMemberCount(object, 1);
+    JsonArray array = object.get("subscriptions").getAsJsonArray();
+    writeVarint(array.size());
+    for (JsonElement element : array) {
+      writeString(element.getAsString());
+    }
+  }
+
+  private void writeServerStatusParams(JsonObject object) {
+    int mask = 0;
+    if (isPresent(object, "analysis")) {
+      mask |= 1;
+    }
+    if (isPresent(object, "pub")) {
+      mask |= 2;
+    }
+    writeVarint(mask);
+    checkMemberCount(object, 0 + Integer.bitCount(mask));
+    if ((mask & 1) != 0) {
+      writeAnalysisStatus(object.get("analysis").getAsJsonObject());
+    }
+    if ((mask & 2) != 0) {
+      writePubStatus(object.get("pub").getAsJsonObject());
+    }
+  }
+
+  private void writeSourceChange(JsonObject object) {
+    int mask = 0;
+    if (isPresent(object, "selection")) {
+      mask |= 1;
+    }
+    writeVarint(mask);
+    checkMemberCount(object, 3 + Integer.bitCount(mask));
+    writeString(object.get("message").getAsString());
+    JsonArray array = object.get("edits").getAsJsonArray();
+    writeVarint(array.size());
+    for (JsonElement element : array) {
+      writeSourceFileEdit(element.getAsJsonObject());
+    }
+    JsonArray array2 = object.get("linkedEditGroups").getAsJsonArray();
+    writeVarint(array2.size());
+    for (JsonElement element2 : array2) {
+      writeLinkedEditGroup(element2.getAsJsonObject());
+    }
+    if ((mask & 1) != 0) {
+      writePosition(object.get("selection").getAsJsonObject());
+    }
+  }
+
+  private void writeSourceEdit(JsonObject object) {
+    int mask = 0;
+    if (isPresent(object, "id")) {
+      mask |= 1;
+    }
+    writeVarint(mask);
+    checkMemberCount(object, 3 + Integer.bitCount(mask));
+    writeInt(object.get("offset").getAsInt());
+    writeInt(object.get("length").getAsInt());
+    writeString(object.get("replacement").getAsString());
+    if ((mask & 1) != 0) {
+      writeString(object.get("id").getAsString());
+    }
+  }
+
+  private void writeSourceFileEdit(JsonObject object) {
+    checkMemberCount(object, 3);
+    writeString(object.get("file").getAsString());
+    writeLong(object.get("fileStamp").getAsLong());
+    JsonArray array = object.get("edits").getAsJsonArray();
+    writeVarint(array.size());
+    for (JsonElement element : array) {
+      writeSourceEdit(element.getAsJsonObject());
+    }
+  }
+
+  private void writeString(String value) {
+    Integer index = stringIndices.get(value);
+    if (index != null) {
+      writeVarint(index + 1);
+      return;
+    }
+    stringIndices.put(value, stringIndices.size());
+    byte[] utf8 = value.getBytes(UTF8);
+    writeVarint(0);
+    writeVarint(utf8.length);
+    ensureCapacity(utf8.length);
+    System.arraycopy(utf8, 0, bytes, position, utf8.length);
+    position += utf8.length;
+  }
+
+  private void writeTypeHierarchyItem(JsonObject object) {
+    int mask = 0;
+    if (isPresent(object, "displayName")) {
+      mask |= 1;
+    }
+    if (isPresent(object, "memberElement")) {
+      mask |= 2;
+    }
+    if (isPresent(object, "superclass")) {
+      mask |= 4;
+    }
+    writeVarint(mask);
+    checkMemberCount(object, 4 + Integer.bitCount(mask));
+    writeElement(object.get("classElement").getAsJsonObject());
+    if ((mask & 1) != 0) {
+      writeString(object.get("displayName").getAsString());
+    }
+    if ((mask & 2) != 0) {
+      writeElement(object.get("memberElement").getAsJsonObject());
+    }
+    if ((mask & 4) != 0) {
+      writeInt(object.get("superclass").getAsInt());
+    }
+    writeIntArray(object.get("interfaces").getAsJsonArray());
+    writeIntArray(object.get("mixins").getAsJsonArray());
+    writeIntArray(object.get("subclasses").getAsJsonArray());
+  }
+
+  private void writeVarint(int value) {
+    ensureCapacity(5);
+    while ((value & ~0x7F) != 0) {
+      bytes[position++] = (byte) (value & 0x7F | 0x80);
+      value >>>= 7;
+    }
+    bytes[position++] = (byte) value;
+  }
+
+}
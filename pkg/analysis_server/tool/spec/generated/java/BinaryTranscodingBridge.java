@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * This file has been automatically generated.  Please do not edit it manually.
+ * To regenerate the file, use the script "pkg/analysis_server/tool/spec/generate_files".
+ */
+package com.google.dart.server.generated;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The class {@code BinaryTranscodingBridge} stands between a client using the {@link BinaryCodec}
+ * encoding and an analysis server using JSON, so that the binary encoding can be used end to end
+ * with an unmodified server. Requests read from the client as frames are written to the server as
+ * JSON lines, and the responses and notifications read from the server are written to the client as
+ * frames, each response being encoded given the method of the request it answers.
+ * <p>
+ * Run as a program, the bridge starts the server command given as arguments and bridges its
+ * standard input and output with its own, which is then the binary mode of the server.
+ *
+ * @coverage dart.server
+ */
+public class BinaryTranscodingBridge {
+
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  /**
+   * The stream from which the frames of the client are read.
+   */
+  private final InputStream clientInput;
+
+  /**
+   * The stream to which the frames for the client are written.
+   */
+  private final OutputStream clientOutput;
+
+  /**
+   * The reader from which the JSON lines of the server are read.
+   */
+  private final BufferedReader serverOutput;
+
+  /**
+   * The writer to which the JSON lines for the server are written.
+   */
+  private final Writer serverInput;
+
+  /**
+   * The methods of the requests which have not been answered yet, keyed by their ids.
+   */
+  private final Map<String, String> pendingMethods = new ConcurrentHashMap<String, String>();
+
+  /**
+   * Initialize a newly created bridge between a client using the given streams and a server using the
+   * given streams.
+   */
+  public BinaryTranscodingBridge(InputStream clientInput, OutputStream clientOutput,
+      InputStream serverOutput, OutputStream serverInput) {
+    this.clientInput = clientInput;
+    this.clientOutput = clientOutput;
+    this.serverOutput = new BufferedReader(new InputStreamReader(serverOutput, UTF8));
+    this.serverInput = new OutputStreamWriter(serverInput, UTF8);
+  }
+
+  /**
+   * Start the server command given as arguments and bridge it with the standard input and output.
+   */
+  public static void main(String[] args) throws Exception {
+    if (args.length == 0) {
+      System.err.println("Usage: BinaryTranscodingBridge <server command>");
+      System.exit(1);
+    }
+    ProcessBuilder builder = new ProcessBuilder(args);
+    builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+    Process process = builder.start();
+    new BinaryTranscodingBridge(
+        System.in,
+        System.out,
+        process.getInputStream(),
+        process.getOutputStream()).run();
+    System.exit(process.waitFor());
+  }
+
+  /**
+   * Forward the messages in both directions until the server closes its output. The requests are
+   * forwarded on a daemon thread, which closes the input of the server once the client has closed its
+   * output.
+   */
+  public void run() throws IOException {
+    Thread thread = new Thread("BinaryTranscodingBridge") {
+      @Override
+      public void run() {
+        try {
+          forwardRequests();
+        } catch (IOException exception) {
+          // the client or the server has gone
+        }
+      }
+    };
+    thread.setDaemon(true);
+    thread.start();
+    forwardResponses();
+  }
+
+  private void forwardRequests() throws IOException {
+    while (true) {
+      byte[] frame = BinaryCodec.readFrame(clientInput);
+      if (frame == null) {
+        serverInput.close();
+        return;
+      }
+      JsonObject request = BinaryCodec.decode(frame);
+      JsonElement id = request.get("id");
+      JsonElement method = request.get("method");
+      if (id != null && method != null) {
+        pendingMethods.put(id.getAsString(), method.getAsString());
+      }
+      serverInput.write(request.toString());
+      serverInput.write('\n');
+      serverInput.flush();
+    }
+  }
+
+  private void forwardResponses() throws IOException {
+    JsonParser parser = new JsonParser();
+    String line;
+    while ((line = serverOutput.readLine()) != null) {
+      if (line.trim().length() == 0) {
+        continue;
+      }
+      JsonObject message = parser.parse(line).getAsJsonObject();
+      byte[] frame;
+      if (message.has("event")) {
+        frame = BinaryCodec.encodeNotification(message);
+      } else {
+        JsonElement id = message.get("id");
+        String method = id != null ? pendingMethods.remove(id.getAsString()) : null;
+        frame = BinaryCodec.encodeResponse(message, method);
+      }
+      BinaryCodec.writeFrame(clientOutput, frame);
+      clientOutput.flush();
+    }
+  }
+
+}
@@ -0,0 +1,1122 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * This file has been automatically generated.  Please do not edit it manually.
+ * To regenerate the file, use the script "pkg/analysis_server/tool/spec/generate_files".
+ */
+package com.google.dart.server.generated;
+
+import com.google.dart.server.*;
+import com.google.dart.server.generated.callbacks.*;
+import org.dartlang.analysis.server.protocol.*;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The class {@code ClientCallbacks} converts the callbacks used by the classes built on top of
+ * {@link AnalysisServer} to and from the consumers and the listener of the client, which are
+ * declared in {@code com.google.dart.server}. The adapters only depend on the shape of the
+ * interfaces of the client, not on the names of their methods.
+ * <p>
+ * The client declares one consumer interface per request, named after the request. One of its
+ * methods takes a single {@link RequestError} and is invoked if the request fails. The other one
+ * receives the fields of the result of the request in the order of the specification, each list
+ * being passed either as a {@link List} or as an array. Each method of
+ * {@link AnalysisServerListener} receives the parameters of one notification in the order of the
+ * specification, which identify the notification unless another one has the same types.
+ *
+ * @coverage dart.server
+ */
+public final class ClientCallbacks {
+
+  /**
+   * A table mapping the signatures of the notifications to their events. A signature shared by
+   * several notifications is mapped to {@code null}.
+   */
+  private static final Map<String, String> EVENTS = new HashMap<String, String>();
+
+  static {
+    addEvent("server.connected", "String");
+    addEvent("server.error", "Boolean, String, String");
+    addEvent("server.status", "AnalysisStatus, PubStatus");
+    addEvent("analysis.errors", "String, List<AnalysisError>");
+    addEvent("analysis.flushResults", "List<String>");
+    addEvent("analysis.folding", "String, List<FoldingRegion>");
+    addEvent("analysis.highlights", "String, List<HighlightRegion>");
+    addEvent("analysis.invalidate", "String, Integer, Integer, Integer");
+    addEvent("analysis.navigation", "String, List<NavigationRegion>, List<NavigationTarget>, List<String>");
+    addEvent("analysis.occurrences", "String, List<Occurrences>");
+    addEvent("analysis.outline", "String, Outline");
+    addEvent("analysis.overrides", "String, List<OverrideMember>");
+    addEvent("completion.results", "String, Integer, Integer, List<CompletionSuggestion>, Boolean");
+    addEvent("search.results", "String, List<SearchResult>, Boolean");
+    addEvent("execution.launchData", "String, String, List<String>");
+  }
+
+  /**
+   * A table mapping the consumer interfaces of the client to their methods.
+   */
+  private static final Map<Class<?>, ConsumerMethods> CONSUMER_METHODS = new ConcurrentHashMap<Class<?>, ConsumerMethods>();
+
+  /**
+   * The methods of a consumer interface of the client.
+   */
+  private static class ConsumerMethods {
+    /**
+     * The method receiving the result of the request.
+     */
+    private final Method result;
+
+    /**
+     * The method receiving the error of the request, or {@code null} if the consumer does not
+     * receive errors.
+     */
+    private final Method error;
+
+    ConsumerMethods(Method result, Method error) {
+      this.result = result;
+      this.error = error;
+    }
+
+    /**
+     * Pass the given error to the given consumer, unless it is {@code null}.
+     */
+    void deliverError(Object consumer, RequestError requestError) {
+      if (consumer != null && error != null) {
+        invoke(error, consumer, new Object[] {requestError});
+      }
+    }
+
+    /**
+     * Pass the given result values to the given consumer, unless it is {@code null}, converting
+     * the lists passed as arrays.
+     */
+    void deliverResult(Object consumer, Object... values) {
+      if (consumer != null) {
+        Class<?>[] types = result.getParameterTypes();
+        for (int i = 0; i < values.length; i++) {
+          if (types[i].isArray() && values[i] instanceof List) {
+            values[i] = toArray((List<?>) values[i], types[i].getComponentType());
+          }
+        }
+        invoke(result, consumer, values);
+      }
+    }
+  }
+
+  /**
+   * The handler of the result values passed to a consumer created by {@link #newConsumer}.
+   */
+  private interface ResultHandler {
+    /**
+     * Handle the given result values, in which the lists passed as arrays have been converted.
+     */
+    void handle(Object[] values);
+  }
+
+  /**
+   * The handler of the invocations of a consumer created by {@link #newConsumer}.
+   */
+  private static class ConsumerHandler implements InvocationHandler {
+    /**
+     * The callback the errors are passed to.
+     */
+    private final RequestCallback callback;
+
+    /**
+     * The handler the result values are passed to.
+     */
+    private final ResultHandler handler;
+
+    ConsumerHandler(RequestCallback callback, ResultHandler handler) {
+      this.callback = callback;
+      this.handler = handler;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] arguments) {
+      if (isErrorMethod(method)) {
+        callback.onError((RequestError) arguments[0]);
+        return null;
+      }
+      Object[] values = arguments != null ? arguments : new Object[0];
+      for (int i = 0; i < values.length; i++) {
+        Object value = values[i];
+        if (value instanceof Object[]) {
+          values[i] = Arrays.asList((Object[]) value);
+        }
+      }
+      handler.handle(values);
+      return null;
+    }
+  }
+
+  /**
+   * The handler of the invocations of an instance created by {@link #newProxy}, which
+   * implements the methods of {@link Object} itself.
+   */
+  private static class ProxyHandler implements InvocationHandler {
+    /**
+     * The handler the other invocations are passed to.
+     */
+    private final InvocationHandler handler;
+
+    ProxyHandler(InvocationHandler handler) {
+      this.handler = handler;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] arguments) throws Throwable {
+      if (method.getDeclaringClass() == Object.class) {
+        if (method.getName().equals("equals")) {
+          return proxy == arguments[0];
+        }
+        if (method.getName().equals("hashCode")) {
+          return System.identityHashCode(proxy);
+        }
+        return handler.toString();
+      }
+      return handler.invoke(proxy, method, arguments);
+    }
+  }
+
+  private ClientCallbacks() {
+  }
+
+  /**
+   * Return the event of the notification handled by the given method of a listener of the
+   * client, or {@code null} if the types of its parameters do not identify a single notification.
+   */
+  public static String getEvent(Method method) {
+    StringBuilder signature = new StringBuilder();
+    for (Type type : method.getGenericParameterTypes()) {
+      if (signature.length() != 0) {
+        signature.append(", ");
+      }
+      signature.append(getTypeName(type));
+    }
+    return EVENTS.get(signature.toString());
+  }
+
+  /**
+   * Invoke the given method of a consumer or a listener of the client with the given arguments. An
+   * exception thrown by the method is rethrown, wrapped if it is checked.
+   */
+  public static void invoke(Method method, Object target, Object[] arguments) {
+    try {
+      method.invoke(target, arguments);
+    } catch (InvocationTargetException exception) {
+      Throwable cause = exception.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new RuntimeException(cause);
+    } catch (IllegalAccessException exception) {
+      throw new IllegalArgumentException("method: " + method, exception);
+    }
+  }
+
+  /**
+   * Return a listener of the client which passes each notification to the given handler, along
+   * with the method of the listener it was delivered to. Use {@link #getEvent} to identify the
+   * notification.
+   */
+  public static AnalysisServerListener newListener(InvocationHandler handler) {
+    return newProxy(AnalysisServerListener.class, handler);
+  }
+
+  /**
+   * Return a callback passing the responses to {@code execution.createContext} requests
+   * to the given consumer of the client, or the callback the consumer was
+   * created for if it was returned by {@link #toConsumer}.
+   */
+  public static CreateContextCallback toCallback(final CreateContextConsumer consumer) {
+    RequestCallback callback = getCallback(consumer);
+    if (callback instanceof CreateContextCallback) {
+      return (CreateContextCallback) callback;
+    }
+    final ConsumerMethods methods = getConsumerMethods(CreateContextConsumer.class, 1);
+    return new CreateContextCallback() {
+      @Override
+      public void onError(RequestError requestError) {
+        methods.deliverError(consumer, requestError);
+      }
+
+      @Override
+      public void onResponse(String id) {
+        methods.deliverResult(consumer, id);
+      }
+    };
+  }
+
+  /**
+   * Return a callback passing the responses to {@code search.findElementReferences} requests
+   * to the given consumer of the client, or the callback the consumer was
+   * created for if it was returned by {@link #toConsumer}.
+   */
+  public static FindElementReferencesCallback toCallback(final FindElementReferencesConsumer consumer) {
+    RequestCallback callback = getCallback(consumer);
+    if (callback instanceof FindElementReferencesCallback) {
+      return (FindElementReferencesCallback) callback;
+    }
+    final ConsumerMethods methods = getConsumerMethods(FindElementReferencesConsumer.class, 2);
+    return new FindElementReferencesCallback() {
+      @Override
+      public void onError(RequestError requestError) {
+        methods.deliverError(consumer, requestError);
+      }
+
+      @Override
+      public void onResponse(String id, Element element) {
+        methods.deliverResult(consumer, id, element);
+      }
+    };
+  }
+
+  /**
+   * Return a callback passing the responses to {@code search.findMemberDeclarations} requests
+   * to the given consumer of the client, or the callback the consumer was
+   * created for if it was returned by {@link #toConsumer}.
+   */
+  public static FindMemberDeclarationsCallback toCallback(final FindMemberDeclarationsConsumer consumer) {
+    RequestCallback callback = getCallback(consumer);
+    if (callback instanceof FindMemberDeclarationsCallback) {
+      return (FindMemberDeclarationsCallback) callback;
+    }
+    final ConsumerMethods methods = getConsumerMethods(FindMemberDeclarationsConsumer.class, 1);
+    return new FindMemberDeclarationsCallback() {
+      @Override
+      public void onError(RequestError requestError) {
+        methods.deliverError(consumer, requestError);
+      }
+
+      @Override
+      public void onResponse(String id) {
+        methods.deliverResult(consumer, id);
+      }
+    };
+  }
+
+  /**
+   * Return a callback passing the responses to {@code search.findMemberReferences} requests
+   * to the given consumer of the client, or the callback the consumer was
+   * created for if it was returned by {@link #toConsumer}.
+   */
+  public static FindMemberReferencesCallback toCallback(final FindMemberReferencesConsumer consumer) {
+    RequestCallback callback = getCallback(consumer);
+    if (callback instanceof FindMemberReferencesCallback) {
+      return (FindMemberReferencesCallback) callback;
+    }
+    final ConsumerMethods methods = getConsumerMethods(FindMemberReferencesConsumer.class, 1);
+    return new FindMemberReferencesCallback() {
+      @Override
+      public void onError(RequestError requestError) {
+        methods.deliverError(consumer, requestError);
+      }
+
+      @Override
+      public void onResponse(String id) {
+        methods.deliverResult(consumer, id);
+      }
+    };
+  }
+
+  /**
+   * Return a callback passing the responses to {@code search.findTopLevelDeclarations} requests
+   * to the given consumer of the client, or the callback the consumer was
+   * created for if it was returned by {@link #toConsumer}.
+   */
+  public static FindTopLevelDeclarationsCallback toCallback(final FindTopLevelDeclarationsConsumer consumer) {
+    RequestCallback callback = getCallback(consumer);
+    if (callback instanceof FindTopLevelDeclarationsCallback) {
+      return (FindTopLevelDeclarationsCallback) callback;
+    }
+    final ConsumerMethods methods = getConsumerMethods(FindTopLevelDeclarationsConsumer.class, 1);
+    return new FindTopLevelDeclarationsCallback() {
+      @Override
+      public void onError(RequestError requestError) {
+        methods.deliverError(consumer, requestError);
+      }
+
+      @Override
+      public void onResponse(String id) {
+        methods.deliverResult(consumer, id);
+      }
+    };
+  }
+
+  /**
+   * Return a callback passing the responses to {@code edit.format} requests
+   * to the given consumer of the client, or the callback the consumer was
+   * created for if it was returned by {@link #toConsumer}.
+   */
+  public static FormatCallback toCallback(final FormatConsumer consumer) {
+    RequestCallback callback = getCallback(consumer);
+    if (callback instanceof FormatCallback) {
+      return (FormatCallback) callback;
+    }
+    final ConsumerMethods methods = getConsumerMethods(FormatConsumer.class, 3);
+    return new FormatCallback() {
+      @Override
+      public void onError(RequestError requestError) {
+        methods.deliverError(consumer, requestError);
+      }
+
+      @Override
+      public void onResponse(List<SourceEdit> edits, int selectionOffset, int selectionLength) {
+        methods.deliverResult(consumer, edits, selectionOffset, selectionLength);
+      }
+    };
+  }
+
+  /**
+   * Return a callback passing the responses to {@code edit.getAssists} requests
+   * to the given consumer of the client, or the callback the consumer was
+   * created for if it was returned by {@link #toConsumer}.
+   */
+  public static GetAssistsCallback toCallback(final GetAssistsConsumer consumer) {
+    RequestCallback callback = getCallback(consumer);
+    if (callback instanceof GetAssistsCallback) {
+      return (GetAssistsCallback) callback;
+    }
+    final ConsumerMethods methods = getConsumerMethods(GetAssistsConsumer.class, 1);
+    return new GetAssistsCallback() {
+      @Override
+      public void onError(RequestError requestError) {
+        methods.deliverError(consumer, requestError);
+      }
+
+      @Override
+      public void onResponse(List<SourceChange> assists) {
+        methods.deliverResult(consumer, assists);
+      }
+    };
+  }
+
+  /**
+   * Return a callback passing the responses to {@code edit.getAvailableRefactorings} requests
+   * to the given consumer of the client, or the callback the consumer was
+   * created for if it was returned by {@link #toConsumer}.
+   */
+  public static GetAvailableRefactoringsCallback toCallback(final GetAvailableRefactoringsConsumer consumer) {
+    RequestCallback callback = getCallback(consumer);
+    if (callback instanceof GetAvailableRefactoringsCallback) {
+      return (GetAvailableRefactoringsCallback) callback;
+    }
+    final ConsumerMethods methods = getConsumerMethods(GetAvailableRefactoringsConsumer.class, 1);
+    return new GetAvailableRefactoringsCallback() {
+      @Override
+      public void onError(RequestError requestError) {
+        methods.deliverError(consumer, requestError);
+      }
+
+      @Override
+      public void onResponse(List<String> kinds) {
+        methods.deliverResult(consumer, kinds);
+      }
+    };
+  }
+
+  /**
+   * Return a callback passing the responses to {@code analysis.getErrors} requests
+   * to the given consumer of the client, or the callback the consumer was
+   * created for if it was returned by {@link #toConsumer}.
+   */
+  public static GetErrorsCallback toCallback(final GetErrorsConsumer consumer) {
+    RequestCallback callback = getCallback(consumer);
+    if (callback instanceof GetErrorsCallback) {
+      return (GetErrorsCallback) callback;
+    }
+    final ConsumerMethods methods = getConsumerMethods(GetErrorsConsumer.class, 1);
+    return new GetErrorsCallback() {
+      @Override
+      public void onError(RequestError requestError) {
+        methods.deliverError(consumer, requestError);
+      }
+
+      @Override
+      public void onResponse(List<AnalysisError> errors) {
+        methods.deliverResult(consumer, errors);
+      }
+    };
+  }
+
+  /**
+   * Return a callback passing the responses to {@code edit.getFixes} requests
+   * to the given consumer of the client, or the callback the consumer was
+   * created for if it was returned by {@link #toConsumer}.
+   */
+  public static GetFixesCallback toCallback(final GetFixesConsumer consumer) {
+    RequestCallback callback = getCallback(consumer);
+    if (callback instanceof GetFixesCallback) {
+      return (GetFixesCallback) callback;
+    }
+    final ConsumerMethods methods = getConsumerMethods(GetFixesConsumer.class, 1);
+    return new GetFixesCallback() {
+      @Override
+      public void onError(RequestError requestError) {
+        methods.deliverError(consumer, requestError);
+      }
+
+      @Override
+      public void onResponse(List<AnalysisErrorFixes> fixes) {
+        methods.deliverResult(consumer, fixes);
+      }
+    };
+  }
+
+  /**
+   * Return a callback passing the responses to {@code analysis.getHover} requests
+   * to the given consumer of the client, or the callback the consumer was
+   * created for if it was returned by {@link #toConsumer}.
+   */
+  public static GetHoverCallback toCallback(final GetHoverConsumer consumer) {
+    RequestCallback callback = getCallback(consumer);
+    if (callback instanceof GetHoverCallback) {
+      return (GetHoverCallback) callback;
+    }
+    final ConsumerMethods methods = getConsumerMethods(GetHoverConsumer.class, 1);
+    return new GetHoverCallback() {
+      @Override
+      public void onError(RequestError requestError) {
+        methods.deliverError(consumer, requestError);
+      }
+
+      @Override
+      public void onResponse(List<HoverInformation> hovers) {
+        methods.deliverResult(consumer, hovers);
+      }
+    };
+  }
+
+  /**
+   * Return a callback passing the responses to {@code analysis.getLibraryDependencies} requests
+   * to the given consumer of the client, or the callback the consumer was
+   * created for if it was returned by {@link #toConsumer}.
+   */
+  public static GetLibraryDependenciesCallback toCallback(final GetLibraryDependenciesConsumer consumer) {
+    RequestCallback callback = getCallback(consumer);
+    if (callback instanceof GetLibraryDependenciesCallback) {
+      return (GetLibraryDependenciesCallback) callback;
+    }
+    final ConsumerMethods methods = getConsumerMethods(GetLibraryDependenciesConsumer.class, 2);
+    return new GetLibraryDependenciesCallback() {
+      @Override
+      public void onError(RequestError requestError) {
+        methods.deliverError(consumer, requestError);
+      }
+
+      @Override
+      public void onResponse(List<String> libraries, Map<String, Map<String, List<String>>> packageMap) {
+        methods.deliverResult(consumer, libraries, packageMap);
+      }
+    };
+  }
+
+  /**
+   * Return a callback passing the responses to {@code analysis.getNavigation} requests
+   * to the given consumer of the client, or the callback the consumer was
+   * created for if it was returned by {@link #toConsumer}.
+   */
+  public static GetNavigationCallback toCallback(final GetNavigationConsumer consumer) {
+    RequestCallback callback = getCallback(consumer);
+    if (callback instanceof GetNavigationCallback) {
+      return (GetNavigationCallback) callback;
+    }
+    final ConsumerMethods methods = getConsumerMethods(GetNavigationConsumer.class, 3);
+    return new GetNavigationCallback() {
+      @Override
+      public void onError(RequestError requestError) {
+        methods.deliverError(consumer, requestError);
+      }
+
+      @Override
+      public void onResponse(List<String> files, List<NavigationTarget> targets, List<NavigationRegion> regions) {
+        methods.deliverResult(consumer, files, targets, regions);
+      }
+    };
+  }
+
+  /**
+   * Return a callback passing the responses to {@code edit.getRefactoring} requests
+   * to the given consumer of the client, or the callback the consumer was
+   * created for if it was returned by {@link #toConsumer}.
+   */
+  public static GetRefactoringCallback toCallback(final GetRefactoringConsumer consumer) {
+    RequestCallback callback = getCallback(consumer);
+    if (callback instanceof GetRefactoringCallback) {
+      return (GetRefactoringCallback) callback;
+    }
+    final ConsumerMethods methods = getConsumerMethods(GetRefactoringConsumer.class, 6);
+    return new GetRefactoringCallback() {
+      @Override
+      public void onError(RequestError requestError) {
+        methods.deliverError(consumer, requestError);
+      }
+
+      @Override
+      public void onResponse(List<RefactoringProblem> initialProblems, List<RefactoringProblem> optionsProblems, List<RefactoringProblem> finalProblems, RefactoringFeedback feedback, SourceChange change, List<String> potentialEdits) {
+        methods.deliverResult(consumer, initialProblems, optionsProblems, finalProblems, feedback, change, potentialEdits);
+      }
+    };
+  }
+
+  /**
+   * Return a callback passing the responses to {@code completion.getSuggestions} requests
+   * to the given consumer of the client, or the callback the consumer was
+   * created for if it was returned by {@link #toConsumer}.
+   */
+  public static GetSuggestionsCallback toCallback(final GetSuggestionsConsumer consumer) {
+    RequestCallback callback = getCallback(consumer);
+    if (callback instanceof GetSuggestionsCallback) {
+      return (GetSuggestionsCallback) callback;
+    }
+    final ConsumerMethods methods = getConsumerMethods(GetSuggestionsConsumer.class, 1);
+    return new GetSuggestionsCallback() {
+      @Override
+      public void onError(RequestError requestError) {
+        methods.deliverError(consumer, requestError);
+      }
+
+      @Override
+      public void onResponse(String id) {
+        methods.deliverResult(consumer, id);
+      }
+    };
+  }
+
+  /**
+   * Return a callback passing the responses to {@code search.getTypeHierarchy} requests
+   * to the given consumer of the client, or the callback the consumer was
+   * created for if it was returned by {@link #toConsumer}.
+   */
+  public static GetTypeHierarchyCallback toCallback(final GetTypeHierarchyConsumer consumer) {
+    RequestCallback callback = getCallback(consumer);
+    if (callback instanceof GetTypeHierarchyCallback) {
+      return (GetTypeHierarchyCallback) callback;
+    }
+    final ConsumerMethods methods = getConsumerMethods(GetTypeHierarchyConsumer.class, 1);
+    return new GetTypeHierarchyCallback() {
+      @Override
+      public void onError(RequestError requestError) {
+        methods.deliverError(consumer, requestError);
+      }
+
+      @Override
+      public void onResponse(List<TypeHierarchyItem> hierarchyItems) {
+        methods.deliverResult(consumer, hierarchyItems);
+      }
+    };
+  }
+
+  /**
+   * Return a callback passing the responses to {@code server.getVersion} requests
+   * to the given consumer of the client, or the callback the consumer was
+   * created for if it was returned by {@link #toConsumer}.
+   */
+  public static GetVersionCallback toCallback(final GetVersionConsumer consumer) {
+    RequestCallback callback = getCallback(consumer);
+    if (callback instanceof GetVersionCallback) {
+      return (GetVersionCallback) callback;
+    }
+    final ConsumerMethods methods = getConsumerMethods(GetVersionConsumer.class, 1);
+    return new GetVersionCallback() {
+      @Override
+      public void onError(RequestError requestError) {
+        methods.deliverError(consumer, requestError);
+      }
+
+      @Override
+      public void onResponse(String version) {
+        methods.deliverResult(consumer, version);
+      }
+    };
+  }
+
+  /**
+   * Return a callback passing the responses to {@code execution.mapUri} requests
+   * to the given consumer of the client, or the callback the consumer was
+   * created for if it was returned by {@link #toConsumer}.
+   */
+  public static MapUriCallback toCallback(final MapUriConsumer consumer) {
+    RequestCallback callback = getCallback(consumer);
+    if (callback instanceof MapUriCallback) {
+      return (MapUriCallback) callback;
+    }
+    final ConsumerMethods methods = getConsumerMethods(MapUriConsumer.class, 2);
+    return new MapUriCallback() {
+      @Override
+      public void onError(RequestError requestError) {
+        methods.deliverError(consumer, requestError);
+      }
+
+      @Override
+      public void onResponse(String file, String uri) {
+        methods.deliverResult(consumer, file, uri);
+      }
+    };
+  }
+
+  /**
+   * Return a callback passing the responses to {@code edit.sortMembers} requests
+   * to the given consumer of the client, or the callback the consumer was
+   * created for if it was returned by {@link #toConsumer}.
+   */
+  public static SortMembersCallback toCallback(final SortMembersConsumer consumer) {
+    RequestCallback callback = getCallback(consumer);
+    if (callback instanceof SortMembersCallback) {
+      return (SortMembersCallback) callback;
+    }
+    final ConsumerMethods methods = getConsumerMethods(SortMembersConsumer.class, 1);
+    return new SortMembersCallback() {
+      @Override
+      public void onError(RequestError requestError) {
+        methods.deliverError(consumer, requestError);
+      }
+
+      @Override
+      public void onResponse(SourceFileEdit edit) {
+        methods.deliverResult(consumer, edit);
+      }
+    };
+  }
+
+  /**
+   * Return a callback passing the responses to {@code analysis.updateContent} requests
+   * to the given consumer of the client, or the callback the consumer was
+   * created for if it was returned by {@link #toConsumer}.
+   */
+  public static UpdateContentCallback toCallback(final UpdateContentConsumer consumer) {
+    RequestCallback callback = getCallback(consumer);
+    if (callback instanceof UpdateContentCallback) {
+      return (UpdateContentCallback) callback;
+    }
+    final ConsumerMethods methods = getConsumerMethods(UpdateContentConsumer.class, 0);
+    return new UpdateContentCallback() {
+      @Override
+      public void onError(RequestError requestError) {
+        methods.deliverError(consumer, requestError);
+      }
+
+      @Override
+      public void onResponse() {
+        methods.deliverResult(consumer);
+      }
+    };
+  }
+
+  /**
+   * Return a consumer of the client passing the responses to
+   * {@code execution.createContext} requests to the given callback.
+   */
+  public static CreateContextConsumer toConsumer(final CreateContextCallback callback) {
+    return newConsumer(CreateContextConsumer.class, callback, new ResultHandler() {
+      @Override
+      public void handle(Object[] values) {
+        callback.onResponse((String) values[0]);
+      }
+    });
+  }
+
+  /**
+   * Return a consumer of the client passing the responses to
+   * {@code search.findElementReferences} requests to the given callback.
+   */
+  public static FindElementReferencesConsumer toConsumer(final FindElementReferencesCallback callback) {
+    return newConsumer(FindElementReferencesConsumer.class, callback, new ResultHandler() {
+      @Override
+      public void handle(Object[] values) {
+        callback.onResponse((String) values[0], (Element) values[1]);
+      }
+    });
+  }
+
+  /**
+   * Return a consumer of the client passing the responses to
+   * {@code search.findMemberDeclarations} requests to the given callback.
+   */
+  public static FindMemberDeclarationsConsumer toConsumer(final FindMemberDeclarationsCallback callback) {
+    return newConsumer(FindMemberDeclarationsConsumer.class, callback, new ResultHandler() {
+      @Override
+      public void handle(Object[] values) {
+        callback.onResponse((String) values[0]);
+      }
+    });
+  }
+
+  /**
+   * Return a consumer of the client passing the responses to
+   * {@code search.findMemberReferences} requests to the given callback.
+   */
+  public static FindMemberReferencesConsumer toConsumer(final FindMemberReferencesCallback callback) {
+    return newConsumer(FindMemberReferencesConsumer.class, callback, new ResultHandler() {
+      @Override
+      public void handle(Object[] values) {
+        callback.onResponse((String) values[0]);
+      }
+    });
+  }
+
+  /**
+   * Return a consumer of the client passing the responses to
+   * {@code search.findTopLevelDeclarations} requests to the given callback.
+   */
+  public static FindTopLevelDeclarationsConsumer toConsumer(final FindTopLevelDeclarationsCallback callback) {
+    return newConsumer(FindTopLevelDeclarationsConsumer.class, callback, new ResultHandler() {
+      @Override
+      public void handle(Object[] values) {
+        callback.onResponse((String) values[0]);
+      }
+    });
+  }
+
+  /**
+   * Return a consumer of the client passing the responses to
+   * {@code edit.format} requests to the given callback.
+   */
+  public static FormatConsumer toConsumer(final FormatCallback callback) {
+    return newConsumer(FormatConsumer.class, callback, new ResultHandler() {
+      @Override
+      @SuppressWarnings("unchecked")
+      public void handle(Object[] values) {
+        callback.onResponse((List<SourceEdit>) values[0], (Integer) values[1], (Integer) values[2]);
+      }
+    });
+  }
+
+  /**
+   * Return a consumer of the client passing the responses to
+   * {@code edit.getAssists} requests to the given callback.
+   */
+  public static GetAssistsConsumer toConsumer(final GetAssistsCallback callback) {
+    return newConsumer(GetAssistsConsumer.class, callback, new ResultHandler() {
+      @Override
+      @SuppressWarnings("unchecked")
+      public void handle(Object[] values) {
+        callback.onResponse((List<SourceChange>) values[0]);
+      }
+    });
+  }
+
+  /**
+   * Return a consumer of the client passing the responses to
+   * {@code edit.getAvailableRefactorings} requests to the given callback.
+   */
+  public static GetAvailableRefactoringsConsumer toConsumer(final GetAvailableRefactoringsCallback callback) {
+    return newConsumer(GetAvailableRefactoringsConsumer.class, callback, new ResultHandler() {
+      @Override
+      @SuppressWarnings("unchecked")
+      public void handle(Object[] values) {
+        callback.onResponse((List<String>) values[0]);
+      }
+    });
+  }
+
+  /**
+   * Return a consumer of the client passing the responses to
+   * {@code analysis.getErrors} requests to the given callback.
+   */
+  public static GetErrorsConsumer toConsumer(final GetErrorsCallback callback) {
+    return newConsumer(GetErrorsConsumer.class, callback, new ResultHandler() {
+      @Override
+      @SuppressWarnings("unchecked")
+      public void handle(Object[] values) {
+        callback.onResponse((List<AnalysisError>) values[0]);
+      }
+    });
+  }
+
+  /**
+   * Return a consumer of the client passing the responses to
+   * {@code edit.getFixes} requests to the given callback.
+   */
+  public static GetFixesConsumer toConsumer(final GetFixesCallback callback) {
+    return newConsumer(GetFixesConsumer.class, callback, new ResultHandler() {
+      @Override
+      @SuppressWarnings("unchecked")
+      public void handle(Object[] values) {
+        callback.onResponse((List<AnalysisErrorFixes>) values[0]);
+      }
+    });
+  }
+
+  /**
+   * Return a consumer of the client passing the responses to
+   * {@code analysis.getHover} requests to the given callback.
+   */
+  public static GetHoverConsumer toConsumer(final GetHoverCallback callback) {
+    return newConsumer(GetHoverConsumer.class, callback, new ResultHandler() {
+      @Override
+      @SuppressWarnings("unchecked")
+      public void handle(Object[] values) {
+        callback.onResponse((List<HoverInformation>) values[0]);
+      }
+    });
+  }
+
+  /**
+   * Return a consumer of the client passing the responses to
+   * {@code analysis.getLibraryDependencies} requests to the given callback.
+   */
+  public static GetLibraryDependenciesConsumer toConsumer(final GetLibraryDependenciesCallback callback) {
+    return newConsumer(GetLibraryDependenciesConsumer.class, callback, new ResultHandler() {
+      @Override
+      @SuppressWarnings("unchecked")
+      public void handle(Object[] values) {
+        callback.onResponse((List<String>) values[0], (Map<String, Map<String, List<String>>>) values[1]);
+      }
+    });
+  }
+
+  /**
+   * Return a consumer of the client passing the responses to
+   * {@code analysis.getNavigation} requests to the given callback.
+   */
+  public static GetNavigationConsumer toConsumer(final GetNavigationCallback callback) {
+    return newConsumer(GetNavigationConsumer.class, callback, new ResultHandler() {
+      @Override
+      @SuppressWarnings("unchecked")
+      public void handle(Object[] values) {
+        callback.onResponse((List<String>) values[0], (List<NavigationTarget>) values[1], (List<NavigationRegion>) values[2]);
+      }
+    });
+  }
+
+  /**
+   * Return a consumer of the client passing the responses to
+   * {@code edit.getRefactoring} requests to the given callback.
+   */
+  public static GetRefactoringConsumer toConsumer(final GetRefactoringCallback callback) {
+    return newConsumer(GetRefactoringConsumer.class, callback, new ResultHandler() {
+      @Override
+      @SuppressWarnings("unchecked")
+      public void handle(Object[] values) {
+        callback.onResponse((List<RefactoringProblem>) values[0], (List<RefactoringProblem>) values[1], (List<RefactoringProblem>) values[2], (RefactoringFeedback) values[3], (SourceChange) values[4], (List<String>) values[5]);
+      }
+    });
+  }
+
+  /**
+   * Return a consumer of the client passing the responses to
+   * {@code completion.getSuggestions} requests to the given callback.
+   */
+  public static GetSuggestionsConsumer toConsumer(final GetSuggestionsCallback callback) {
+    return newConsumer(GetSuggestionsConsumer.class, callback, new ResultHandler() {
+      @Override
+      public void handle(Object[] values) {
+        callback.onResponse((String) values[0]);
+      }
+    });
+  }
+
+  /**
+   * Return a consumer of the client passing the responses to
+   * {@code search.getTypeHierarchy} requests to the given callback.
+   */
+  public static GetTypeHierarchyConsumer toConsumer(final GetTypeHierarchyCallback callback) {
+    return newConsumer(GetTypeHierarchyConsumer.class, callback, new ResultHandler() {
+      @Override
+      @SuppressWarnings("unchecked")
+      public void handle(Object[] values) {
+        callback.onResponse((List<TypeHierarchyItem>) values[0]);
+      }
+    });
+  }
+
+  /**
+   * Return a consumer of the client passing the responses to
+   * {@code server.getVersion} requests to the given callback.
+   */
+  public static GetVersionConsumer toConsumer(final GetVersionCallback callback) {
+    return newConsumer(GetVersionConsumer.class, callback, new ResultHandler() {
+      @Override
+      public void handle(Object[] values) {
+        callback.onResponse((String) values[0]);
+      }
+    });
+  }
+
+  /**
+   * Return a consumer of the client passing the responses to
+   * {@code execution.mapUri} requests to the given callback.
+   */
+  public static MapUriConsumer toConsumer(final MapUriCallback callback) {
+    return newConsumer(MapUriConsumer.class, callback, new ResultHandler() {
+      @Override
+      public void handle(Object[] values) {
+        callback.onResponse((String) values[0], (String) values[1]);
+      }
+    });
+  }
+
+  /**
+   * Return a consumer of the client passing the responses to
+   * {@code edit.sortMembers} requests to the given callback.
+   */
+  public static SortMembersConsumer toConsumer(final SortMembersCallback callback) {
+    return newConsumer(SortMembersConsumer.class, callback, new ResultHandler() {
+      @Override
+      public void handle(Object[] values) {
+        callback.onResponse((SourceFileEdit) values[0]);
+      }
+    });
+  }
+
+  /**
+   * Return a consumer of the client passing the responses to
+   * {@code analysis.updateContent} requests to the given callback.
+   */
+  public static UpdateContentConsumer toConsumer(final UpdateContentCallback callback) {
+    return newConsumer(UpdateContentConsumer.class, callback, new ResultHandler() {
+      @Override
+      public void handle(Object[] values) {
+        callback.onResponse();
+      }
+    });
+  }
+
+  private static void addEvent(String event, String signature) {
+    EVENTS.put(signature, EVENTS.containsKey(signature) ? null : event);
+  }
+
+  /**
+   * Return the callback the given consumer of the client passes the responses to, or {@code null}
+   * if the consumer was not created by {@link #newConsumer}.
+   */
+  private static RequestCallback getCallback(Object consumer) {
+    if (consumer == null || !Proxy.isProxyClass(consumer.getClass())) {
+      return null;
+    }
+    InvocationHandler handler = Proxy.getInvocationHandler(consumer);
+    if (handler instanceof ProxyHandler) {
+      handler = ((ProxyHandler) handler).handler;
+      if (handler instanceof ConsumerHandler) {
+        return ((ConsumerHandler) handler).callback;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Return the methods of the given consumer interface of the client, whose result method has the
+   * given number of parameters.
+   */
+  private static ConsumerMethods getConsumerMethods(Class<?> type, int resultCount) {
+    ConsumerMethods methods = CONSUMER_METHODS.get(type);
+    if (methods == null) {
+      Method result = null;
+      Method error = null;
+      for (Method method : type.getMethods()) {
+        if (isErrorMethod(method)) {
+          error = method;
+        } else if (method.getParameterTypes().length == resultCount) {
+          if (result != null) {
+            throw new IllegalArgumentException("type: " + type.getName());
+          }
+          result = method;
+        }
+      }
+      if (result == null) {
+        throw new IllegalArgumentException("type: " + type.getName());
+      }
+      methods = new ConsumerMethods(result, error);
+      CONSUMER_METHODS.put(type, methods);
+    }
+    return methods;
+  }
+
+  /**
+   * Return the name of the given type in a signature of {@link #EVENTS}.
+   */
+  private static String getTypeName(Type type) {
+    if (type instanceof ParameterizedType) {
+      ParameterizedType parameterizedType = (ParameterizedType) type;
+      StringBuilder name = new StringBuilder(getTypeName(parameterizedType.getRawType()));
+      name.append('<');
+      Type[] arguments = parameterizedType.getActualTypeArguments();
+      for (int i = 0; i < arguments.length; i++) {
+        if (i != 0) {
+          name.append(", ");
+        }
+        name.append(getTypeName(arguments[i]));
+      }
+      return name.append('>').toString();
+    }
+    if (type instanceof GenericArrayType) {
+      return "List<" + getTypeName(((GenericArrayType) type).getGenericComponentType()) + ">";
+    }
+    if (type instanceof Class) {
+      Class<?> typeClass = (Class<?>) type;
+      if (typeClass.isArray()) {
+        return "List<" + getTypeName(typeClass.getComponentType()) + ">";
+      }
+      if (typeClass == boolean.class) {
+        return "Boolean";
+      }
+      if (typeClass == int.class) {
+        return "Integer";
+      }
+      return typeClass.getSimpleName();
+    }
+    return type.toString();
+  }
+
+  private static boolean isErrorMethod(Method method) {
+    Class<?>[] types = method.getParameterTypes();
+    return types.length == 1 && types[0] == RequestError.class;
+  }
+
+  /**
+   * Return a consumer of the client of the given type, which passes an error to the given callback
+   * and the result values to the given handler.
+   */
+  private static <T> T newConsumer(Class<T> type, RequestCallback callback, ResultHandler handler) {
+    return newProxy(type, new ConsumerHandler(callback, handler));
+  }
+
+  /**
+   * Return an instance of the given interface passing the invocations of its methods to the given
+   * handler. The methods of {@link Object} are implemented by the instance itself.
+   */
+  private static <T> T newProxy(Class<T> type, InvocationHandler handler) {
+    Object proxy = Proxy.newProxyInstance(
+        type.getClassLoader(),
+        new Class<?>[] {type},
+        new ProxyHandler(handler));
+    return type.cast(proxy);
+  }
+
+  private static Object toArray(List<?> list, Class<?> componentType) {
+    Object array = Array.newInstance(componentType, list.size());
+    for (int i = 0; i < list.size(); i++) {
+      Array.set(array, i, list.get(i));
+    }
+    return array;
+  }
+
+}
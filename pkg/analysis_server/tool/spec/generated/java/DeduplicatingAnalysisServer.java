@@ -0,0 +1,717 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * This file has been automatically generated.  Please do not edit it manually.
+ * To regenerate the file, use the script "pkg/analysis_server/tool/spec/generate_files".
+ */
+package com.google.dart.server.generated;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.dart.server.*;
+import com.google.dart.server.generated.callbacks.*;
+import org.dartlang.analysis.server.protocol.*;
+
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The class {@code DeduplicatingAnalysisServer} implements {@link AnalysisServer} on top of another
+ * server, sending a single request when identical query requests, such as
+ * {@code analysis.getHover} or {@code search.getTypeHierarchy}, are made while a previous one is
+ * waiting for a response. The response is decoded once, and forwarded to the consumers of all the
+ * identical requests, in the order in which they were made. When there are several consumers, the
+ * lists and maps of the result are copied once into immutable collections shared by all of them.
+ * <p>
+ * Two requests are identical if they have the same method and equal parameters, the file paths
+ * being normalized. Requests changing the state of the server, completion requests, whose results
+ * are notified for each request, and {@code edit.getRefactoring} requests, which the server tracks
+ * across requests, are always sent. A request made after the response to an identical request has
+ * been received is sent again, and so is a request made after the content of its file, or the
+ * analysis roots or options, have changed since an identical request was sent.
+ *
+ * @coverage dart.server
+ */
+public class DeduplicatingAnalysisServer implements AnalysisServer {
+
+  /**
+   * The server the requests are sent to.
+   */
+  private final AnalysisServer server;
+
+  /**
+   * The requests waiting for a response which identical requests can join, keyed by the method and
+   * the normalized parameters of the requests.
+   */
+  private final Map<List<Object>, FanOut> inFlight = new HashMap<List<Object>, FanOut>();
+
+  /**
+   * The number of requests which have not been sent because an identical request was waiting for a
+   * response, guarded by {@link #inFlight}.
+   */
+  private int deduplicatedRequestCount = 0;
+
+  /**
+   * A callback forwarding the response to a request to the callbacks of the identical requests made
+   * while it was waiting for a response.
+   */
+  private abstract class FanOut implements RequestCallback {
+    /**
+     * The method and the normalized parameters of the request.
+     */
+    final List<Object> key;
+
+    /**
+     * The normalized path of the file the request is about, or {@code null} if it is about no
+     * particular file.
+     */
+    final String file;
+
+    /**
+     * The callbacks of the identical requests, in the order in which they were made, guarded by
+     * {@link #inFlight}.
+     */
+    final List<RequestCallback> callbacks = new ArrayList<RequestCallback>();
+
+    FanOut(List<Object> key, String file, RequestCallback callback) {
+      this.key = key;
+      this.file = file;
+      callbacks.add(callback);
+    }
+
+    @Override
+    public void onError(RequestError requestError) {
+      RuntimeException exception = null;
+      for (RequestCallback callback : complete()) {
+        try {
+          callback.onError(requestError);
+        } catch (RuntimeException e) {
+          if (exception == null) {
+            exception = e;
+          }
+        }
+      }
+      if (exception != null) {
+        throw exception;
+      }
+    }
+
+    /**
+     * Stop accepting identical requests, and return the callbacks to forward the response to, which
+     * are none if the response has already been forwarded.
+     */
+    List<RequestCallback> complete() {
+      synchronized (inFlight) {
+        if (inFlight.get(key) == this) {
+          inFlight.remove(key);
+        }
+        List<RequestCallback> result = new ArrayList<RequestCallback>(callbacks);
+        callbacks.clear();
+        return result;
+      }
+    }
+  }
+
+  /**
+   * A callback forwarding the response to an {@code server.getVersion} request.
+   */
+  private class GetVersionFanOut extends FanOut implements GetVersionCallback {
+    GetVersionFanOut(List<Object> key, String file, GetVersionCallback callback) {
+      super(key, file, callback);
+    }
+
+    @Override
+    public void onResponse(String version) {
+      List<RequestCallback> callbacks = complete();
+      RuntimeException exception = null;
+      for (RequestCallback callback : callbacks) {
+        try {
+          ((GetVersionCallback) callback).onResponse(version);
+        } catch (RuntimeException e) {
+          if (exception == null) {
+            exception = e;
+          }
+        }
+      }
+      if (exception != null) {
+        throw exception;
+      }
+    }
+  }
+
+  /**
+   * A callback forwarding the response to an {@code analysis.getErrors} request.
+   */
+  private class GetErrorsFanOut extends FanOut implements GetErrorsCallback {
+    GetErrorsFanOut(List<Object> key, String file, GetErrorsCallback callback) {
+      super(key, file, callback);
+    }
+
+    @Override
+    public void onResponse(List<AnalysisError> errors) {
+      List<RequestCallback> callbacks = complete();
+      if (callbacks.size() > 1) {
+        errors = freeze(errors);
+      }
+      RuntimeException exception = null;
+      for (RequestCallback callback : callbacks) {
+        try {
+          ((GetErrorsCallback) callback).onResponse(errors);
+        } catch (RuntimeException e) {
+          if (exception == null) {
+            exception = e;
+          }
+        }
+      }
+      if (exception != null) {
+        throw exception;
+      }
+    }
+  }
+
+  /**
+   * A callback forwarding the response to an {@code analysis.getHover} request.
+   */
+  private class GetHoverFanOut extends FanOut implements GetHoverCallback {
+    GetHoverFanOut(List<Object> key, String file, GetHoverCallback callback) {
+      super(key, file, callback);
+    }
+
+    @Override
+    public void onResponse(List<HoverInformation> hovers) {
+      List<RequestCallback> callbacks = complete();
+      if (callbacks.size() > 1) {
+        hovers = freeze(hovers);
+      }
+      RuntimeException exception = null;
+      for (RequestCallback callback : callbacks) {
+        try {
+          ((GetHoverCallback) callback).onResponse(hovers);
+        } catch (RuntimeException e) {
+          if (exception == null) {
+            exception = e;
+          }
+        }
+      }
+      if (exception != null) {
+        throw exception;
+      }
+    }
+  }
+
+  /**
+   * A callback forwarding the response to an {@code analysis.getLibraryDependencies} request.
+   */
+  private class GetLibraryDependenciesFanOut extends FanOut implements GetLibraryDependenciesCallback {
+    GetLibraryDependenciesFanOut(List<Object> key, String file, GetLibraryDependenciesCallback callback) {
+      super(key, file, callback);
+    }
+
+    @Override
+    public void onResponse(List<String> libraries, Map<String, Map<String, List<String>>> packageMap) {
+      List<RequestCallback> callbacks = complete();
+      if (callbacks.size() > 1) {
+        libraries = freeze(libraries);
+        packageMap = freeze(packageMap);
+      }
+      RuntimeException exception = null;
+      for (RequestCallback callback : callbacks) {
+        try {
+          ((GetLibraryDependenciesCallback) callback).onResponse(libraries, packageMap);
+        } catch (RuntimeException e) {
+          if (exception == null) {
+            exception = e;
+          }
+        }
+      }
+      if (exception != null) {
+        throw exception;
+      }
+    }
+  }
+
+  /**
+   * A callback forwarding the response to an {@code analysis.getNavigation} request.
+   */
+  private class GetNavigationFanOut extends FanOut implements GetNavigationCallback {
+    GetNavigationFanOut(List<Object> key, String file, GetNavigationCallback callback) {
+      super(key, file, callback);
+    }
+
+    @Override
+    public void onResponse(List<String> files, List<NavigationTarget> targets, List<NavigationRegion> regions) {
+      List<RequestCallback> callbacks = complete();
+      if (callbacks.size() > 1) {
+        files = freeze(files);
+        targets = freeze(targets);
+        regions = freeze(regions);
+      }
+      RuntimeException exception = null;
+      for (RequestCallback callback : callbacks) {
+        try {
+          ((GetNavigationCallback) callback).onResponse(files, targets, regions);
+        } catch (RuntimeException e) {
+          if (exception == null) {
+            exception = e;
+          }
+        }
+      }
+      if (exception != null) {
+        throw exception;
+      }
+    }
+  }
+
+  /**
+   * A callback forwarding the response to an {@code search.getTypeHierarchy} request.
+   */
+  private class GetTypeHierarchyFanOut extends FanOut implements GetTypeHierarchyCallback {
+    GetTypeHierarchyFanOut(List<Object> key, String file, GetTypeHierarchyCallback callback) {
+      super(key, file, callback);
+    }
+
+    @Override
+    public void onResponse(List<TypeHierarchyItem> hierarchyItems) {
+      List<RequestCallback> callbacks = complete();
+      if (callbacks.size() > 1) {
+        hierarchyItems = freeze(hierarchyItems);
+      }
+      RuntimeException exception = null;
+      for (RequestCallback callback : callbacks) {
+        try {
+          ((GetTypeHierarchyCallback) callback).onResponse(hierarchyItems);
+        } catch (RuntimeException e) {
+          if (exception == null) {
+            exception = e;
+          }
+        }
+      }
+      if (exception != null) {
+        throw exception;
+      }
+    }
+  }
+
+  /**
+   * A callback forwarding the response to an {@code edit.getAssists} request.
+   */
+  private class GetAssistsFanOut extends FanOut implements GetAssistsCallback {
+    GetAssistsFanOut(List<Object> key, String file, GetAssistsCallback callback) {
+      super(key, file, callback);
+    }
+
+    @Override
+    public void onResponse(List<SourceChange> assists) {
+      List<RequestCallback> callbacks = complete();
+      if (callbacks.size() > 1) {
+        assists = freeze(assists);
+      }
+      RuntimeException exception = null;
+      for (RequestCallback callback : callbacks) {
+        try {
+          ((GetAssistsCallback) callback).onResponse(assists);
+        } catch (RuntimeException e) {
+          if (exception == null) {
+            exception = e;
+          }
+        }
+      }
+      if (exception != null) {
+        throw exception;
+      }
+    }
+  }
+
+  /**
+   * A callback forwarding the response to an {@code edit.getAvailableRefactorings} request.
+   */
+  private class GetAvailableRefactoringsFanOut extends FanOut implements GetAvailableRefactoringsCallback {
+    GetAvailableRefactoringsFanOut(List<Object> key, String file, GetAvailableRefactoringsCallback callback) {
+      super(key, file, callback);
+    }
+
+    @Override
+    public void onResponse(List<String> kinds) {
+      List<RequestCallback> callbacks = complete();
+      if (callbacks.size() > 1) {
+        kinds = freeze(kinds);
+      }
+      RuntimeException exception = null;
+      for (RequestCallback callback : callbacks) {
+        try {
+          ((GetAvailableRefactoringsCallback) callback).onResponse(kinds);
+        } catch (RuntimeException e) {
+          if (exception == null) {
+            exception = e;
+          }
+        }
+      }
+      if (exception != null) {
+        throw exception;
+      }
+    }
+  }
+
+  /**
+   * A callback forwarding the response to an {@code edit.getFixes} request.
+   */
+  private class GetFixesFanOut extends FanOut implements GetFixesCallback {
+    GetFixesFanOut(List<Object> key, String file, GetFixesCallback callback) {
+      super(key, file, callback);
+    }
+
+    @Override
+    public void onResponse(List<AnalysisErrorFixes> fixes) {
+      List<RequestCallback> callbacks = complete();
+      if (callbacks.size() > 1) {
+        fixes = freeze(fixes);
+      }
+      RuntimeException exception = null;
+      for (RequestCallback callback : callbacks) {
+        try {
+          ((GetFixesCallback) callback).onResponse(fixes);
+        } catch (RuntimeException e) {
+          if (exception == null) {
+            exception = e;
+          }
+        }
+      }
+      if (exception != null) {
+        throw exception;
+      }
+    }
+  }
+
+  /**
+   * Initialize a newly created server to send the requests to the given server.
+   */
+  public DeduplicatingAnalysisServer(AnalysisServer server) {
+    this.server = server;
+  }
+
+  @Override
+  public void addAnalysisServerListener(AnalysisServerListener listener) {
+    server.addAnalysisServerListener(listener);
+  }
+
+  @Override
+  public void addStatusListener(AnalysisServerStatusListener listener) {
+    server.addStatusListener(listener);
+  }
+
+  @Override
+  public void analysis_getErrors(String file, GetErrorsConsumer consumer) {
+    String path = normalizePath(file);
+    List<Object> key = Arrays.<Object>asList("analysis.getErrors", path);
+    GetErrorsFanOut fanOut = new GetErrorsFanOut(key, path, ClientCallbacks.toCallback(consumer));
+    if (join(fanOut)) {
+      server.analysis_getErrors(file, ClientCallbacks.toConsumer(fanOut));
+    }
+  }
+
+  @Override
+  public void analysis_getHover(String file, int offset, GetHoverConsumer consumer) {
+    String path = normalizePath(file);
+    List<Object> key = Arrays.<Object>asList("analysis.getHover", path, offset);
+    GetHoverFanOut fanOut = new GetHoverFanOut(key, path, ClientCallbacks.toCallback(consumer));
+    if (join(fanOut)) {
+      server.analysis_getHover(file, offset, ClientCallbacks.toConsumer(fanOut));
+    }
+  }
+
+  @Override
+  public void analysis_getLibraryDependencies(GetLibraryDependenciesConsumer consumer) {
+    List<Object> key = Arrays.<Object>asList("analysis.getLibraryDependencies");
+    GetLibraryDependenciesFanOut fanOut = new GetLibraryDependenciesFanOut(key, null, ClientCallbacks.toCallback(consumer));
+    if (join(fanOut)) {
+      server.analysis_getLibraryDependencies(ClientCallbacks.toConsumer(fanOut));
+    }
+  }
+
+  @Override
+  public void analysis_getNavigation(String file, int offset, int length, GetNavigationConsumer consumer) {
+    String path = normalizePath(file);
+    List<Object> key = Arrays.<Object>asList("analysis.getNavigation", path, offset, length);
+    GetNavigationFanOut fanOut = new GetNavigationFanOut(key, path, ClientCallbacks.toCallback(consumer));
+    if (join(fanOut)) {
+      server.analysis_getNavigation(file, offset, length, ClientCallbacks.toConsumer(fanOut));
+    }
+  }
+
+  @Override
+  public void analysis_reanalyze(List<String> roots) {
+    server.analysis_reanalyze(roots);
+  }
+
+  @Override
+  public void analysis_setAnalysisRoots(List<String> included, List<String> excluded, Map<String, String> packageRoots) {
+    invalidate(null);
+    server.analysis_setAnalysisRoots(included, excluded, packageRoots);
+  }
+
+  @Override
+  public void analysis_setPriorityFiles(List<String> files) {
+    server.analysis_setPriorityFiles(files);
+  }
+
+  @Override
+  public void analysis_setSubscriptions(Map<String, List<String>> subscriptions) {
+    server.analysis_setSubscriptions(subscriptions);
+  }
+
+  @Override
+  public void analysis_updateContent(Map<String, Object> files, UpdateContentConsumer consumer) {
+    invalidate(files.keySet());
+    server.analysis_updateContent(files, consumer);
+  }
+
+  @Override
+  public void analysis_updateOptions(AnalysisOptions options) {
+    invalidate(null);
+    server.analysis_updateOptions(options);
+  }
+
+  @Override
+  public void completion_getSuggestions(String file, int offset, GetSuggestionsConsumer consumer) {
+    server.completion_getSuggestions(file, offset, consumer);
+  }
+
+  @Override
+  public void edit_format(String file, int selectionOffset, int selectionLength, int lineLength, FormatConsumer consumer) {
+    server.edit_format(file, selectionOffset, selectionLength, lineLength, consumer);
+  }
+
+  @Override
+  public void edit_getAssists(String file, int offset, int length, GetAssistsConsumer consumer) {
+    String path = normalizePath(file);
+    List<Object> key = Arrays.<Object>asList("edit.getAssists", path, offset, length);
+    GetAssistsFanOut fanOut = new GetAssistsFanOut(key, path, ClientCallbacks.toCallback(consumer));
+    if (join(fanOut)) {
+      server.edit_getAssists(file, offset, length, ClientCallbacks.toConsumer(fanOut));
+    }
+  }
+
+  @Override
+  public void edit_getAvailableRefactorings(String file, int offset, int length, GetAvailableRefactoringsConsumer consumer) {
+    String path = normalizePath(file);
+    List<Object> key = Arrays.<Object>asList("edit.getAvailableRefactorings", path, offset, length);
+    GetAvailableRefactoringsFanOut fanOut = new GetAvailableRefactoringsFanOut(key, path, ClientCallbacks.toCallback(consumer));
+    if (join(fanOut)) {
+      server.edit_getAvailableRefactorings(file, offset, length, ClientCallbacks.toConsumer(fanOut));
+    }
+  }
+
+  @Override
+  public void edit_getFixes(String file, int offset, GetFixesConsumer consumer) {
+    String path = normalizePath(file);
+    List<Object> key = Arrays.<Object>asList("edit.getFixes", path, offset);
+    GetFixesFanOut fanOut = new GetFixesFanOut(key, path, ClientCallbacks.toCallback(consumer));
+    if (join(fanOut)) {
+      server.edit_getFixes(file, offset, ClientCallbacks.toConsumer(fanOut));
+    }
+  }
+
+  @Override
+  public void edit_getRefactoring(String kind, String file, int offset, int length, boolean validateOnly, RefactoringOptions options, GetRefactoringConsumer consumer) {
+    server.edit_getRefactoring(kind, file, offset, length, validateOnly, options, consumer);
+  }
+
+  @Override
+  public void edit_sortMembers(String file, SortMembersConsumer consumer) {
+    server.edit_sortMembers(file, consumer);
+  }
+
+  @Override
+  public void execution_createContext(String contextRoot, CreateContextConsumer consumer) {
+    server.execution_createContext(contextRoot, consumer);
+  }
+
+  @Override
+  public void execution_deleteContext(String id) {
+    server.execution_deleteContext(id);
+  }
+
+  @Override
+  public void execution_mapUri(String id, String file, String uri, MapUriConsumer consumer) {
+    server.execution_mapUri(id, file, uri, consumer);
+  }
+
+  @Override
+  public void execution_setSubscriptions(List<String> subscriptions) {
+    server.execution_setSubscriptions(subscriptions);
+  }
+
+  /**
+   * Return the number of requests which have not been sent because an identical request was waiting
+   * for a response.
+   */
+  public int getDeduplicatedRequestCount() {
+    synchronized (inFlight) {
+      return deduplicatedRequestCount;
+    }
+  }
+
+  @Override
+  public boolean isSocketOpen() {
+    return server.isSocketOpen();
+  }
+
+  @Override
+  public void removeAnalysisServerListener(AnalysisServerListener listener) {
+    server.removeAnalysisServerListener(listener);
+  }
+
+  @Override
+  public void search_findElementReferences(String file, int offset, boolean includePotential, FindElementReferencesConsumer consumer) {
+    server.search_findElementReferences(file, offset, includePotential, consumer);
+  }
+
+  @Override
+  public void search_findMemberDeclarations(String name, FindMemberDeclarationsConsumer consumer) {
+    server.search_findMemberDeclarations(name, consumer);
+  }
+
+  @Override
+  public void search_findMemberReferences(String name, FindMemberReferencesConsumer consumer) {
+    server.search_findMemberReferences(name, consumer);
+  }
+
+  @Override
+  public void search_findTopLevelDeclarations(String pattern, FindTopLevelDeclarationsConsumer consumer) {
+    server.search_findTopLevelDeclarations(pattern, consumer);
+  }
+
+  @Override
+  public void search_getTypeHierarchy(String file, int offset, GetTypeHierarchyConsumer consumer) {
+    String path = normalizePath(file);
+    List<Object> key = Arrays.<Object>asList("search.getTypeHierarchy", path, offset);
+    GetTypeHierarchyFanOut fanOut = new GetTypeHierarchyFanOut(key, path, ClientCallbacks.toCallback(consumer));
+    if (join(fanOut)) {
+      server.search_getTypeHierarchy(file, offset, ClientCallbacks.toConsumer(fanOut));
+    }
+  }
+
+  @Override
+  public void server_getVersion(GetVersionConsumer consumer) {
+    List<Object> key = Arrays.<Object>asList("server.getVersion");
+    GetVersionFanOut fanOut = new GetVersionFanOut(key, null, ClientCallbacks.toCallback(consumer));
+    if (join(fanOut)) {
+      server.server_getVersion(ClientCallbacks.toConsumer(fanOut));
+    }
+  }
+
+  @Override
+  public void server_setSubscriptions(List<String> subscriptions) {
+    server.server_setSubscriptions(subscriptions);
+  }
+
+  @Override
+  public void server_shutdown() {
+    server.server_shutdown();
+  }
+
+  @Override
+  public void start() throws Exception {
+    server.start();
+  }
+
+  /**
+   * Return an immutable copy of the given value of a result, copying the lists and the maps it
+   * contains, so that consumers sharing the result cannot modify it.
+   */
+  @SuppressWarnings("unchecked")
+  private static <T> T freeze(T value) {
+    if (value instanceof List<?>) {
+      ImmutableList.Builder<Object> builder = ImmutableList.builder();
+      for (Object element : (List<?>) value) {
+        builder.add(freeze(element));
+      }
+      return (T) builder.build();
+    }
+    if (value instanceof Map<?, ?>) {
+      ImmutableMap.Builder<Object, Object> builder = ImmutableMap.builder();
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+        builder.put(entry.getKey(), freeze(entry.getValue()));
+      }
+      return (T) builder.build();
+    }
+    return value;
+  }
+
+  /**
+   * Stop sharing the responses to the requests waiting for a response about the given files, and
+   * about no particular file, or to all the requests if {@code files} is {@code null}, so that the
+   * identical requests made from now on are sent again.
+   */
+  private void invalidate(Collection<String> files) {
+    Set<String> paths = null;
+    if (files != null) {
+      paths = new HashSet<String>();
+      for (String file : files) {
+        paths.add(normalizePath(file));
+      }
+    }
+    synchronized (inFlight) {
+      Iterator<FanOut> iterator = inFlight.values().iterator();
+      while (iterator.hasNext()) {
+        FanOut fanOut = iterator.next();
+        if (paths == null || fanOut.file == null || paths.contains(fanOut.file)) {
+          iterator.remove();
+        }
+      }
+    }
+  }
+
+  /**
+   * Add the callbacks of the given request to an identical request waiting for a response, and
+   * return {@code false}, or record the given request as waiting for a response and return
+   * {@code true} if there is no such request, so that the request is to be sent.
+   */
+  private boolean join(FanOut fanOut) {
+    synchronized (inFlight) {
+      FanOut existing = inFlight.get(fanOut.key);
+      if (existing != null) {
+        existing.callbacks.addAll(fanOut.callbacks);
+        deduplicatedRequestCount++;
+        return false;
+      }
+      inFlight.put(fanOut.key, fanOut);
+      return true;
+    }
+  }
+
+  /**
+   * Return the given file path without redundant name elements, such as {@code .}, or the path
+   * itself if it is not a valid path.
+   */
+  private static String normalizePath(String file) {
+    if (file == null) {
+      return null;
+    }
+    try {
+      return Paths.get(file).normalize().toString();
+    } catch (InvalidPathException e) {
+      return file;
+    }
+  }
+
+}
@@ -0,0 +1,423 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * This file has been automatically generated.  Please do not edit it manually.
+ * To regenerate the file, use the script "pkg/analysis_server/tool/spec/generate_files".
+ */
+package com.google.dart.server.generated;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.dartlang.analysis.server.protocol.AnalysisService;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The class {@code NotificationMetrics} records, for every notification defined by the analysis
+ * server protocol, the number of bytes received, the time spent decoding, the number of objects
+ * produced and the time spent in each listener. Statistics are kept per event and per file size
+ * bucket, so that expensive subscriptions can be identified for large files.
+ *
+ * @coverage dart.server
+ */
+public class NotificationMetrics {
+
+  /**
+   * The names of the notifications for which metrics are recorded.
+   */
+  public static final String[] EVENTS = {
+    "server.connected",
+    "server.error",
+    "server.status",
+    "analysis.errors",
+    "analysis.flushResults",
+    "analysis.folding",
+    "analysis.highlights",
+    "analysis.invalidate",
+    "analysis.navigation",
+    "analysis.occurrences",
+    "analysis.outline",
+    "analysis.overrides",
+    "completion.results",
+    "search.results",
+    "execution.launchData",
+  };
+
+  /**
+   * The upper bounds (exclusive, in characters) of all but the last file size bucket.
+   */
+  public static final int[] FILE_SIZE_LIMITS = {16 * 1024, 64 * 1024, 256 * 1024, 1024 * 1024};
+
+  /**
+   * The index of the bucket of the notifications which are not about a single file, which follows
+   * the file size buckets.
+   */
+  public static final int NO_FILE_BUCKET = FILE_SIZE_LIMITS.length + 1;
+
+  /**
+   * The number of buckets, including {@link #NO_FILE_BUCKET}.
+   */
+  public static final int FILE_SIZE_BUCKET_COUNT = FILE_SIZE_LIMITS.length + 2;
+
+  /**
+   * The number of buckets in each histogram. Bucket {@code i} counts the values whose highest set
+   * bit is {@code i - 1}, bucket {@code 0} counts zero values.
+   */
+  public static final int HISTOGRAM_SIZE = 64;
+
+  /**
+   * A table mapping the names of the notifications to their index in {@link #EVENTS}.
+   */
+  private static final Map<String, Integer> EVENT_INDEX = createEventIndex();
+
+  /**
+   * The number of notifications received, per event and file size bucket.
+   */
+  private final AtomicLongArray counts = new AtomicLongArray(EVENTS.length * FILE_SIZE_BUCKET_COUNT);
+
+  /**
+   * The total number of bytes received, per event and file size bucket.
+   */
+  private final AtomicLongArray bytes = new AtomicLongArray(EVENTS.length * FILE_SIZE_BUCKET_COUNT);
+
+  /**
+   * The total time spent decoding, per event and file size bucket.
+   */
+  private final AtomicLongArray decodeNanos = new AtomicLongArray(EVENTS.length
+      * FILE_SIZE_BUCKET_COUNT);
+
+  /**
+   * The total number of objects produced by decoding, per event and file size bucket.
+   */
+  private final AtomicLongArray objects = new AtomicLongArray(EVENTS.length * FILE_SIZE_BUCKET_COUNT);
+
+  /**
+   * The distribution of payload sizes, per event and file size bucket.
+   */
+  private final AtomicLongArray bytesHistogram = new AtomicLongArray(EVENTS.length
+      * FILE_SIZE_BUCKET_COUNT * HISTOGRAM_SIZE);
+
+  /**
+   * The distribution of decoding times in nanoseconds, per event and file size bucket.
+   */
+  private final AtomicLongArray decodeHistogram = new AtomicLongArray(EVENTS.length
+      * FILE_SIZE_BUCKET_COUNT * HISTOGRAM_SIZE);
+
+  /**
+   * A table mapping event and listener names to the listener statistics, which are the number of
+   * invocations, the total time and the distribution of times spent in the listener.
+   */
+  private final ConcurrentHashMap<String, AtomicLongArray> listenerStatistics = new ConcurrentHashMap<String, AtomicLongArray>();
+
+  /**
+   * Return the number of protocol objects that decoding the parameters of the given notification
+   * produces, including the objects nested in other objects, such as the children of an outline or
+   * the locations of search results. Strings, such as file paths or ids, are not counted.
+   *
+   * @param event the name of the notification, such as {@code analysis.highlights}
+   * @param params the parameters of the notification
+   */
+  public static int countObjects(String event, JsonObject params) {
+    if (params == null) {
+      return 0;
+    }
+    if (event.equals("server.status")) {
+      return objectCount(params.get("analysis")) + objectCount(params.get("pub"));
+    }
+    if (event.equals("analysis.errors")) {
+      return objectCount(params.get("errors"));
+    }
+    if (event.equals("analysis.folding")) {
+      return objectCount(params.get("regions"));
+    }
+    if (event.equals("analysis.highlights")) {
+      return objectCount(params.get("regions"));
+    }
+    if (event.equals("analysis.navigation")) {
+      return objectCount(params.get("regions")) + objectCount(params.get("targets"));
+    }
+    if (event.equals("analysis.occurrences")) {
+      return objectCount(params.get("occurrences"));
+    }
+    if (event.equals("analysis.outline")) {
+      return objectCount(params.get("outline"));
+    }
+    if (event.equals("analysis.overrides")) {
+      return objectCount(params.get("overrides"));
+    }
+    if (event.equals("completion.results")) {
+      return objectCount(params.get("results"));
+    }
+    if (event.equals("search.results")) {
+      return objectCount(params.get("results"));
+    }
+    return 0;
+  }
+
+  /**
+   * Return the index of the file size bucket for a file with the given number of characters, or
+   * {@link #NO_FILE_BUCKET} if the size is {@code -1}.
+   */
+  public static int fileSizeBucket(long fileSize) {
+    if (fileSize < 0) {
+      return NO_FILE_BUCKET;
+    }
+    int bucket = 0;
+    while (bucket < FILE_SIZE_LIMITS.length && fileSize >= FILE_SIZE_LIMITS[bucket]) {
+      bucket++;
+    }
+    return bucket;
+  }
+
+  /**
+   * Return the {@link AnalysisService} which must be subscribed to in order to receive the given
+   * notification, or {@code null} if the notification cannot be turned off by
+   * {@code analysis.setSubscriptions}.
+   *
+   * @param event the name of the notification, such as {@code analysis.highlights}
+   */
+  public static String getAnalysisService(String event) {
+    if (event.equals("analysis.folding")) {
+      return AnalysisService.FOLDING;
+    }
+    if (event.equals("analysis.highlights")) {
+      return AnalysisService.HIGHLIGHTS;
+    }
+    if (event.equals("analysis.invalidate")) {
+      return AnalysisService.INVALIDATE;
+    }
+    if (event.equals("analysis.navigation")) {
+      return AnalysisService.NAVIGATION;
+    }
+    if (event.equals("analysis.occurrences")) {
+      return AnalysisService.OCCURRENCES;
+    }
+    if (event.equals("analysis.outline")) {
+      return AnalysisService.OUTLINE;
+    }
+    if (event.equals("analysis.overrides")) {
+      return AnalysisService.OVERRIDES;
+    }
+    return null;
+  }
+
+  /**
+   * Return the total number of bytes received for the given event and file size bucket.
+   */
+  public long getBytes(String event, int bucket) {
+    return get(bytes, event, bucket);
+  }
+
+  /**
+   * Return the distribution of payload sizes for the given event and file size bucket.
+   */
+  public long[] getBytesHistogram(String event, int bucket) {
+    return getHistogram(bytesHistogram, event, bucket);
+  }
+
+  /**
+   * Return the number of notifications received for the given event and file size bucket.
+   */
+  public long getCount(String event, int bucket) {
+    return get(counts, event, bucket);
+  }
+
+  /**
+   * Return the distribution of decoding times for the given event and file size bucket.
+   */
+  public long[] getDecodeHistogram(String event, int bucket) {
+    return getHistogram(decodeHistogram, event, bucket);
+  }
+
+  /**
+   * Return the total time spent decoding the given event for the given file size bucket.
+   */
+  public long getDecodeNanos(String event, int bucket) {
+    return get(decodeNanos, event, bucket);
+  }
+
+  /**
+   * Return the number of times the listener with the given name has been invoked for the event.
+   */
+  public long getListenerCount(String event, String listenerName) {
+    AtomicLongArray statistics = listenerStatistics.get(listenerKey(event, listenerName));
+    return statistics != null ? statistics.get(0) : 0;
+  }
+
+  /**
+   * Return the distribution of the times spent by the listener with the given name in the event.
+   */
+  public long[] getListenerHistogram(String event, String listenerName) {
+    long[] histogram = new long[HISTOGRAM_SIZE];
+    AtomicLongArray statistics = listenerStatistics.get(listenerKey(event, listenerName));
+    if (statistics != null) {
+      for (int i = 0; i < HISTOGRAM_SIZE; i++) {
+        histogram[i] = statistics.get(2 + i);
+      }
+    }
+    return histogram;
+  }
+
+  /**
+   * Return the total time spent by the listener with the given name processing the event.
+   */
+  public long getListenerNanos(String event, String listenerName) {
+    AtomicLongArray statistics = listenerStatistics.get(listenerKey(event, listenerName));
+    return statistics != null ? statistics.get(1) : 0;
+  }
+
+  /**
+   * Return the total number of objects produced by decoding the given event for the given file size
+   * bucket.
+   */
+  public long getObjects(String event, int bucket) {
+    return get(objects, event, bucket);
+  }
+
+  /**
+   * Record that a notification has been received and decoded.
+   *
+   * @param event the name of the notification, such as {@code analysis.navigation}
+   * @param fileSize the number of characters in the file the notification is about, or {@code -1}
+   *          if the notification is not about a single file, in which case it is counted in
+   *          {@link #NO_FILE_BUCKET}
+   * @param byteCount the number of bytes in the notification
+   * @param nanos the time spent decoding the notification
+   * @param objectCount the number of objects produced by decoding the notification
+   */
+  public void recordDecode(String event, long fileSize, int byteCount, long nanos, int objectCount) {
+    Integer index = EVENT_INDEX.get(event);
+    if (index == null) {
+      return;
+    }
+    int slot = index * FILE_SIZE_BUCKET_COUNT + fileSizeBucket(fileSize);
+    counts.incrementAndGet(slot);
+    bytes.addAndGet(slot, byteCount);
+    decodeNanos.addAndGet(slot, nanos);
+    objects.addAndGet(slot, objectCount);
+    bytesHistogram.incrementAndGet(slot * HISTOGRAM_SIZE + histogramBucket(byteCount));
+    decodeHistogram.incrementAndGet(slot * HISTOGRAM_SIZE + histogramBucket(nanos));
+  }
+
+  /**
+   * Record that a listener has processed a notification.
+   *
+   * @param event the name of the notification, such as {@code analysis.navigation}
+   * @param listener the listener that processed the notification
+   * @param nanos the time spent in the listener
+   */
+  public void recordListener(String event, Object listener, long nanos) {
+    String key = listenerKey(event, listener.getClass().getName());
+    AtomicLongArray statistics = listenerStatistics.get(key);
+    if (statistics == null) {
+      statistics = new AtomicLongArray(2 + HISTOGRAM_SIZE);
+      AtomicLongArray previous = listenerStatistics.putIfAbsent(key, statistics);
+      if (previous != null) {
+        statistics = previous;
+      }
+    }
+    statistics.incrementAndGet(0);
+    statistics.addAndGet(1, nanos);
+    statistics.incrementAndGet(2 + histogramBucket(nanos));
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder();
+    for (int index = 0; index < EVENTS.length; index++) {
+      for (int bucket = 0; bucket < FILE_SIZE_BUCKET_COUNT; bucket++) {
+        int slot = index * FILE_SIZE_BUCKET_COUNT + bucket;
+        long count = counts.get(slot);
+        if (count != 0) {
+          builder.append(EVENTS[index]);
+          builder.append(" [bucket=" + bucket + "]");
+          builder.append(" count=" + count);
+          builder.append(", bytes=" + bytes.get(slot));
+          builder.append(", decodeNanos=" + decodeNanos.get(slot));
+          builder.append(", objects=" + objects.get(slot));
+          builder.append("\n");
+        }
+      }
+    }
+    for (Map.Entry<String, AtomicLongArray> entry : listenerStatistics.entrySet()) {
+      builder.append(entry.getKey());
+      builder.append(" count=" + entry.getValue().get(0));
+      builder.append(", nanos=" + entry.getValue().get(1));
+      builder.append("\n");
+    }
+    return builder.toString();
+  }
+
+  private static Map<String, Integer> createEventIndex() {
+    Map<String, Integer> index = new HashMap<String, Integer>();
+    for (int i = 0; i < EVENTS.length; i++) {
+      index.put(EVENTS[i], i);
+    }
+    return index;
+  }
+
+  private long get(AtomicLongArray array, String event, int bucket) {
+    Integer index = EVENT_INDEX.get(event);
+    if (index == null) {
+      return 0;
+    }
+    return array.get(index * FILE_SIZE_BUCKET_COUNT + bucket);
+  }
+
+  private long[] getHistogram(AtomicLongArray array, String event, int bucket) {
+    long[] histogram = new long[HISTOGRAM_SIZE];
+    Integer index = EVENT_INDEX.get(event);
+    if (index != null) {
+      int offset = (index * FILE_SIZE_BUCKET_COUNT + bucket) * HISTOGRAM_SIZE;
+      for (int i = 0; i < HISTOGRAM_SIZE; i++) {
+        histogram[i] = array.get(offset + i);
+      }
+    }
+    return histogram;
+  }
+
+  private static int histogramBucket(long value) {
+    if (value <= 0) {
+      return 0;
+    }
+    return Math.min(HISTOGRAM_SIZE - 1, 64 - Long.numberOfLeadingZeros(value));
+  }
+
+  private static String listenerKey(String event, String listenerName) {
+    return event + " " + listenerName;
+  }
+
+  /**
+   * Return the number of JSON objects in the given element, including the element itself and the
+   * objects nested in it. Each JSON object is decoded into a protocol object.
+   */
+  private static int objectCount(JsonElement element) {
+    int count = 0;
+    if (element instanceof JsonObject) {
+      count++;
+      for (Map.Entry<String, JsonElement> entry : ((JsonObject) element).entrySet()) {
+        count += objectCount(entry.getValue());
+      }
+    } else if (element instanceof JsonArray) {
+      for (JsonElement child : (JsonArray) element) {
+        count += objectCount(child);
+      }
+    }
+    return count;
+  }
+
+}
@@ -0,0 +1,980 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * This file has been automatically generated.  Please do not edit it manually.
+ * To regenerate the file, use the script "pkg/analysis_server/tool/spec/generate_files".
+ */
+package com.google.dart.server.generated;
+
+import com.google.dart.server.*;
+import com.google.dart.server.generated.callbacks.*;
+import org.dartlang.analysis.server.protocol.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The class {@code PrioritizedAnalysisServer} implements {@link AnalysisServer} on top of another
+ * server, sending interactive requests immediately and holding back background requests so that
+ * no more than a fixed number of them are waiting for a response at any time.
+ * <p>
+ * Requests about one of the files passed to {@link #analysis_setPriorityFiles}, completion and
+ * server requests, and requests changing the state of the server (such as
+ * {@code analysis.updateContent}) are interactive. All the other requests, such as
+ * {@code analysis.getErrors} for a file which is not a priority file or
+ * {@code search.findMemberReferences}, are background requests, which are sent in the order in
+ * which they were made. A background request which is still queued when its file becomes a
+ * priority file is moved to the front of the queue.
+ * <p>
+ * A background request is considered complete when its response or error is received, or once it
+ * has been waiting for longer than a timeout, so that requests whose response is lost, for example
+ * because the server has disconnected, do not hold back the other requests forever. The
+ * notifications following the response of some requests, such as search results, are not waited
+ * for.
+ * <p>
+ * A queued background request about a file changed by {@code analysis.updateContent} is not sent,
+ * and fails with {@link RequestErrorCode#CONTENT_MODIFIED} like a request overtaken by a change in
+ * the server, so that no response describes content which changed after the request was made.
+ * <p>
+ * Speculative requests, such as the {@code analysis.getHover} requests of a prefetcher, are
+ * sent through the server returned by {@link #getLowPriorityServer}, which holds them back like
+ * background requests even if they are about priority files, and sends them after the other
+ * queued background requests.
+ *
+ * @coverage dart.server
+ */
+public class PrioritizedAnalysisServer implements AnalysisServer {
+
+  /**
+   * The default time after which a background request which is still waiting for a response is
+   * considered complete, in milliseconds.
+   */
+  private static final long DEFAULT_TIMEOUT_MILLIS = 60000;
+
+  /**
+   * The server the requests are sent to.
+   */
+  private final AnalysisServer server;
+
+  /**
+   * The maximum number of background requests waiting for a response.
+   */
+  private final int maxBackgroundRequests;
+
+  /**
+   * The time after which a background request which is still waiting for a response is considered
+   * complete, in nanoseconds.
+   */
+  private final long timeout;
+
+  /**
+   * The background requests which have not been sent yet, in the order in which they were made.
+   */
+  private final LinkedList<BackgroundRequest> queue;
+
+  /**
+   * The files passed to the last invocation of {@link #analysis_setPriorityFiles}, guarded by
+   * {@link #queue}.
+   */
+  private final Set<String> priorityFiles;
+
+  /**
+   * The background requests waiting for a response, in the order in which they were sent, guarded
+   * by {@link #queue}.
+   */
+  private final LinkedList<BackgroundRequest> sent;
+
+  /**
+   * {@code true} if this server is the low priority server of another server, with which it shares
+   * its queue, its priority files and its sent requests.
+   */
+  private final boolean lowPriority;
+
+  /**
+   * The server sending its requests through this server as low priority requests.
+   */
+  private final PrioritizedAnalysisServer lowPriorityServer;
+
+  /**
+   * A background request.
+   */
+  private abstract class BackgroundRequest {
+    /**
+     * The file the request is about, or {@code null} if the request is not about a file.
+     */
+    final String file;
+
+    /**
+     * {@code true} if the request was made through the low priority server.
+     */
+    final boolean lowPriority;
+
+    /**
+     * The value of {@link System#nanoTime} when the request was sent, guarded by {@link #queue}.
+     */
+    long sendTime;
+
+    BackgroundRequest(String file) {
+      this.file = file;
+      this.lowPriority = PrioritizedAnalysisServer.this.lowPriority;
+    }
+
+    /**
+     * Record that the response or the error of the request has been received, and send the queued
+     * requests which were held back by it.
+     */
+    void complete() {
+      synchronized (queue) {
+        if (!sent.remove(this)) {
+          return;
+        }
+      }
+      sendQueued();
+    }
+
+    /**
+     * Invoke the callback of the request with the given error instead of sending the request.
+     */
+    abstract void fail(RequestError requestError);
+
+    /**
+     * Send the request to the server, invoking {@link #complete} once it has been answered.
+     */
+    abstract void send();
+  }
+
+  /**
+   * Initialize a newly created server to send the requests to the given server, allowing the given
+   * number of background requests to wait for a response at any time.
+   */
+  public PrioritizedAnalysisServer(AnalysisServer server, int maxBackgroundRequests) {
+    this(server, maxBackgroundRequests, DEFAULT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Initialize a newly created server to send the requests to the given server, allowing the given
+   * number of background requests to wait for a response at any time, and considering a background
+   * request as complete once it has been waiting for a response for the given time.
+   */
+  public PrioritizedAnalysisServer(AnalysisServer server, int maxBackgroundRequests, long timeout,
+      TimeUnit unit) {
+    if (maxBackgroundRequests < 1) {
+      throw new IllegalArgumentException("maxBackgroundRequests: " + maxBackgroundRequests);
+    }
+    if (timeout <= 0) {
+      throw new IllegalArgumentException("timeout: " + timeout);
+    }
+    this.server = server;
+    this.maxBackgroundRequests = maxBackgroundRequests;
+    this.timeout = unit.toNanos(timeout);
+    queue = new LinkedList<BackgroundRequest>();
+    priorityFiles = new HashSet<String>();
+    sent = new LinkedList<BackgroundRequest>();
+    lowPriority = false;
+    lowPriorityServer = new PrioritizedAnalysisServer(this);
+  }
+
+  /**
+   * Initialize a newly created server to be the low priority server of the given server.
+   */
+  private PrioritizedAnalysisServer(PrioritizedAnalysisServer server) {
+    this.server = server.server;
+    maxBackgroundRequests = server.maxBackgroundRequests;
+    timeout = server.timeout;
+    queue = server.queue;
+    priorityFiles = server.priorityFiles;
+    sent = server.sent;
+    lowPriority = true;
+    lowPriorityServer = this;
+  }
+
+  @Override
+  public void addAnalysisServerListener(AnalysisServerListener listener) {
+    server.addAnalysisServerListener(listener);
+  }
+
+  @Override
+  public void addStatusListener(AnalysisServerStatusListener listener) {
+    server.addStatusListener(listener);
+  }
+
+  @Override
+  public void analysis_getErrors(final String file, GetErrorsConsumer consumer) {
+    if (isPriorityFile(file)) {
+      server.analysis_getErrors(file, consumer);
+      return;
+    }
+    final GetErrorsCallback callback = ClientCallbacks.toCallback(consumer);
+    enqueue(new BackgroundRequest(file) {
+      @Override
+      void fail(RequestError requestError) {
+        callback.onError(requestError);
+      }
+
+      @Override
+      void send() {
+        GetErrorsCallback completing = new GetErrorsCallback() {
+          @Override
+          public void onError(RequestError requestError) {
+            complete();
+            callback.onError(requestError);
+          }
+
+          @Override
+          public void onResponse(List<AnalysisError> errors) {
+            complete();
+            callback.onResponse(errors);
+          }
+        };
+        server.analysis_getErrors(file, ClientCallbacks.toConsumer(completing));
+      }
+    });
+  }
+
+  @Override
+  public void analysis_getHover(final String file, final int offset, GetHoverConsumer consumer) {
+    if (isPriorityFile(file)) {
+      server.analysis_getHover(file, offset, consumer);
+      return;
+    }
+    final GetHoverCallback callback = ClientCallbacks.toCallback(consumer);
+    enqueue(new BackgroundRequest(file) {
+      @Override
+      void fail(RequestError requestError) {
+        callback.onError(requestError);
+      }
+
+      @Override
+      void send() {
+        GetHoverCallback completing = new GetHoverCallback() {
+          @Override
+          public void onError(RequestError requestError) {
+            complete();
+            callback.onError(requestError);
+          }
+
+          @Override
+          public void onResponse(List<HoverInformation> hovers) {
+            complete();
+            callback.onResponse(hovers);
+          }
+        };
+        server.analysis_getHover(file, offset, ClientCallbacks.toConsumer(completing));
+      }
+    });
+  }
+
+  @Override
+  public void analysis_getLibraryDependencies(GetLibraryDependenciesConsumer consumer) {
+    final GetLibraryDependenciesCallback callback = ClientCallbacks.toCallback(consumer);
+    enqueue(new BackgroundRequest(null) {
+      @Override
+      void fail(RequestError requestError) {
+        callback.onError(requestError);
+      }
+
+      @Override
+      void send() {
+        GetLibraryDependenciesCallback completing = new GetLibraryDependenciesCallback() {
+          @Override
+          public void onError(RequestError requestError) {
+            complete();
+            callback.onError(requestError);
+          }
+
+          @Override
+          public void onResponse(List<String> libraries, Map<String, Map<String, List<String>>> packageMap) {
+            complete();
+            callback.onResponse(libraries, packageMap);
+          }
+        };
+        server.analysis_getLibraryDependencies(ClientCallbacks.toConsumer(completing));
+      }
+    });
+  }
+
+  @Override
+  public void analysis_getNavigation(final String file, final int offset, final int length, GetNavigationConsumer consumer) {
+    if (isPriorityFile(file)) {
+      server.analysis_getNavigation(file, offset, length, consumer);
+      return;
+    }
+    final GetNavigationCallback callback = ClientCallbacks.toCallback(consumer);
+    enqueue(new BackgroundRequest(file) {
+      @Override
+      void fail(RequestError requestError) {
+        callback.onError(requestError);
+      }
+
+      @Override
+      void send() {
+        GetNavigationCallback completing = new GetNavigationCallback() {
+          @Override
+          public void onError(RequestError requestError) {
+            complete();
+            callback.onError(requestError);
+          }
+
+          @Override
+          public void onResponse(List<String> files, List<NavigationTarget> targets, List<NavigationRegion> regions) {
+            complete();
+            callback.onResponse(files, targets, regions);
+          }
+        };
+        server.analysis_getNavigation(file, offset, length, ClientCallbacks.toConsumer(completing));
+      }
+    });
+  }
+
+  @Override
+  public void analysis_reanalyze(List<String> roots) {
+    server.analysis_reanalyze(roots);
+  }
+
+  @Override
+  public void analysis_setAnalysisRoots(List<String> included, List<String> excluded, Map<String, String> packageRoots) {
+    server.analysis_setAnalysisRoots(included, excluded, packageRoots);
+  }
+
+  @Override
+  public void analysis_setPriorityFiles(List<String> files) {
+    server.analysis_setPriorityFiles(files);
+    setPriorityFiles(files);
+  }
+
+  @Override
+  public void analysis_setSubscriptions(Map<String, List<String>> subscriptions) {
+    server.analysis_setSubscriptions(subscriptions);
+  }
+
+  @Override
+  public void analysis_updateContent(Map<String, Object> files, UpdateContentConsumer consumer) {
+    List<BackgroundRequest> modified = removeModified(files.keySet());
+    server.analysis_updateContent(files, consumer);
+    for (BackgroundRequest request : modified) {
+      request.fail(new RequestError(
+          RequestErrorCode.CONTENT_MODIFIED,
+          "The content of " + request.file + " has changed",
+          null));
+    }
+  }
+
+  @Override
+  public void analysis_updateOptions(AnalysisOptions options) {
+    server.analysis_updateOptions(options);
+  }
+
+  @Override
+  public void completion_getSuggestions(String file, int offset, GetSuggestionsConsumer consumer) {
+    server.completion_getSuggestions(file, offset, consumer);
+  }
+
+  @Override
+  public void edit_format(final String file, final int selectionOffset, final int selectionLength, final int lineLength, FormatConsumer consumer) {
+    if (isPriorityFile(file)) {
+      server.edit_format(file, selectionOffset, selectionLength, lineLength, consumer);
+      return;
+    }
+    final FormatCallback callback = ClientCallbacks.toCallback(consumer);
+    enqueue(new BackgroundRequest(file) {
+      @Override
+      void fail(RequestError requestError) {
+        callback.onError(requestError);
+      }
+
+      @Override
+      void send() {
+        FormatCallback completing = new FormatCallback() {
+          @Override
+          public void onError(RequestError requestError) {
+            complete();
+            callback.onError(requestError);
+          }
+
+          @Override
+          public void onResponse(List<SourceEdit> edits, int selectionOffset, int selectionLength) {
+            complete();
+            callback.onResponse(edits, selectionOffset, selectionLength);
+          }
+        };
+        server.edit_format(file, selectionOffset, selectionLength, lineLength, ClientCallbacks.toConsumer(completing));
+      }
+    });
+  }
+
+  @Override
+  public void edit_getAssists(final String file, final int offset, final int length, GetAssistsConsumer consumer) {
+    if (isPriorityFile(file)) {
+      server.edit_getAssists(file, offset, length, consumer);
+      return;
+    }
+    final GetAssistsCallback callback = ClientCallbacks.toCallback(consumer);
+    enqueue(new BackgroundRequest(file) {
+      @Override
+      void fail(RequestError requestError) {
+        callback.onError(requestError);
+      }
+
+      @Override
+      void send() {
+        GetAssistsCallback completing = new GetAssistsCallback() {
+          @Override
+          public void onError(RequestError requestError) {
+            complete();
+            callback.onError(requestError);
+          }
+
+          @Override
+          public void onResponse(List<SourceChange> assists) {
+            complete();
+            callback.onResponse(assists);
+          }
+        };
+        server.edit_getAssists(file, offset, length, ClientCallbacks.toConsumer(completing));
+      }
+    });
+  }
+
+  @Override
+  public void edit_getAvailableRefactorings(final String file, final int offset, final int length, GetAvailableRefactoringsConsumer consumer) {
+    if (isPriorityFile(file)) {
+      server.edit_getAvailableRefactorings(file, offset, length, consumer);
+      return;
+    }
+    final GetAvailableRefactoringsCallback callback = ClientCallbacks.toCallback(consumer);
+    enqueue(new BackgroundRequest(file) {
+      @Override
+      void fail(RequestError requestError) {
+        callback.onError(requestError);
+      }
+
+      @Override
+      void send() {
+        GetAvailableRefactoringsCallback completing = new GetAvailableRefactoringsCallback() {
+          @Override
+          public void onError(RequestError requestError) {
+            complete();
+            callback.onError(requestError);
+          }
+
+          @Override
+          public void onResponse(List<String> kinds) {
+            complete();
+            callback.onResponse(kinds);
+          }
+        };
+        server.edit_getAvailableRefactorings(file, offset, length, ClientCallbacks.toConsumer(completing));
+      }
+    });
+  }
+
+  @Override
+  public void edit_getFixes(final String file, final int offset, GetFixesConsumer consumer) {
+    if (isPriorityFile(file)) {
+      server.edit_getFixes(file, offset, consumer);
+      return;
+    }
+    final GetFixesCallback callback = ClientCallbacks.toCallback(consumer);
+    enqueue(new BackgroundRequest(file) {
+      @Override
+      void fail(RequestError requestError) {
+        callback.onError(requestError);
+      }
+
+      @Override
+      void send() {
+        GetFixesCallback completing = new GetFixesCallback() {
+          @Override
+          public void onError(RequestError requestError) {
+            complete();
+            callback.onError(requestError);
+          }
+
+          @Override
+          public void onResponse(List<AnalysisErrorFixes> fixes) {
+            complete();
+            callback.onResponse(fixes);
+          }
+        };
+        server.edit_getFixes(file, offset, ClientCallbacks.toConsumer(completing));
+      }
+    });
+  }
+
+  @Override
+  public void edit_getRefactoring(final String kind, final String file, final int offset, final int length, final boolean validateOnly, final RefactoringOptions options, GetRefactoringConsumer consumer) {
+    if (isPriorityFile(file)) {
+      server.edit_getRefactoring(kind, file, offset, length, validateOnly, options, consumer);
+      return;
+    }
+    final GetRefactoringCallback callback = ClientCallbacks.toCallback(consumer);
+    enqueue(new BackgroundRequest(file) {
+      @Override
+      void fail(RequestError requestError) {
+        callback.onError(requestError);
+      }
+
+      @Override
+      void send() {
+        GetRefactoringCallback completing = new GetRefactoringCallback() {
+          @Override
+          public void onError(RequestError requestError) {
+            complete();
+            callback.onError(requestError);
+          }
+
+          @Override
+          public void onResponse(List<RefactoringProblem> initialProblems, List<RefactoringProblem> optionsProblems, List<RefactoringProblem> finalProblems, RefactoringFeedback feedback, SourceChange change, List<String> potentialEdits) {
+            complete();
+            callback.onResponse(initialProblems, optionsProblems, finalProblems, feedback, change, potentialEdits);
+          }
+        };
+        server.edit_getRefactoring(kind, file, offset, length, validateOnly, options, ClientCallbacks.toConsumer(completing));
+      }
+    });
+  }
+
+  @Override
+  public void edit_sortMembers(final String file, SortMembersConsumer consumer) {
+    if (isPriorityFile(file)) {
+      server.edit_sortMembers(file, consumer);
+      return;
+    }
+    final SortMembersCallback callback = ClientCallbacks.toCallback(consumer);
+    enqueue(new BackgroundRequest(file) {
+      @Override
+      void fail(RequestError requestError) {
+        callback.onError(requestError);
+      }
+
+      @Override
+      void send() {
+        SortMembersCallback completing = new SortMembersCallback() {
+          @Override
+          public void onError(RequestError requestError) {
+            complete();
+            callback.onError(requestError);
+          }
+
+          @Override
+          public void onResponse(SourceFileEdit edit) {
+            complete();
+            callback.onResponse(edit);
+          }
+        };
+        server.edit_sortMembers(file, ClientCallbacks.toConsumer(completing));
+      }
+    });
+  }
+
+  @Override
+  public void execution_createContext(final String contextRoot, CreateContextConsumer consumer) {
+    if (isPriorityFile(contextRoot)) {
+      server.execution_createContext(contextRoot, consumer);
+      return;
+    }
+    final CreateContextCallback callback = ClientCallbacks.toCallback(consumer);
+    enqueue(new BackgroundRequest(contextRoot) {
+      @Override
+      void fail(RequestError requestError) {
+        callback.onError(requestError);
+      }
+
+      @Override
+      void send() {
+        CreateContextCallback completing = new CreateContextCallback() {
+          @Override
+          public void onError(RequestError requestError) {
+            complete();
+            callback.onError(requestError);
+          }
+
+          @Override
+          public void onResponse(String id) {
+            complete();
+            callback.onResponse(id);
+          }
+        };
+        server.execution_createContext(contextRoot, ClientCallbacks.toConsumer(completing));
+      }
+    });
+  }
+
+  @Override
+  public void execution_deleteContext(String id) {
+    server.execution_deleteContext(id);
+  }
+
+  @Override
+  public void execution_mapUri(final String id, final String file, final String uri, MapUriConsumer consumer) {
+    if (isPriorityFile(file)) {
+      server.execution_mapUri(id, file, uri, consumer);
+      return;
+    }
+    final MapUriCallback callback = ClientCallbacks.toCallback(consumer);
+    enqueue(new BackgroundRequest(file) {
+      @Override
+      void fail(RequestError requestError) {
+        callback.onError(requestError);
+      }
+
+      @Override
+      void send() {
+        MapUriCallback completing = new MapUriCallback() {
+          @Override
+          public void onError(RequestError requestError) {
+            complete();
+            callback.onError(requestError);
+          }
+
+          @Override
+          public void onResponse(String file, String uri) {
+            complete();
+            callback.onResponse(file, uri);
+          }
+        };
+        server.execution_mapUri(id, file, uri, ClientCallbacks.toConsumer(completing));
+      }
+    });
+  }
+
+  @Override
+  public void execution_setSubscriptions(List<String> subscriptions) {
+    server.execution_setSubscriptions(subscriptions);
+  }
+
+  /**
+   * Return the number of background requests which have been sent and are waiting for a response.
+   */
+  public int getBackgroundRequestCount() {
+    synchronized (queue) {
+      expireSent();
+      return sent.size();
+    }
+  }
+
+  /**
+   * Return a server sending its requests through this server as low priority requests. The
+   * requests which would be background requests if they were made through this server, including
+   * the requests about priority files, are held back, and are sent after the other queued
+   * background requests.
+   */
+  public AnalysisServer getLowPriorityServer() {
+    return lowPriorityServer;
+  }
+
+  /**
+   * Return the number of background requests which have not been sent yet.
+   */
+  public int getQueuedRequestCount() {
+    synchronized (queue) {
+      return queue.size();
+    }
+  }
+
+  @Override
+  public boolean isSocketOpen() {
+    return server.isSocketOpen();
+  }
+
+  @Override
+  public void removeAnalysisServerListener(AnalysisServerListener listener) {
+    server.removeAnalysisServerListener(listener);
+  }
+
+  @Override
+  public void search_findElementReferences(final String file, final int offset, final boolean includePotential, FindElementReferencesConsumer consumer) {
+    if (isPriorityFile(file)) {
+      server.search_findElementReferences(file, offset, includePotential, consumer);
+      return;
+    }
+    final FindElementReferencesCallback callback = ClientCallbacks.toCallback(consumer);
+    enqueue(new BackgroundRequest(file) {
+      @Override
+      void fail(RequestError requestError) {
+        callback.onError(requestError);
+      }
+
+      @Override
+      void send() {
+        FindElementReferencesCallback completing = new FindElementReferencesCallback() {
+          @Override
+          public void onError(RequestError requestError) {
+            complete();
+            callback.onError(requestError);
+          }
+
+          @Override
+          public void onResponse(String id, Element element) {
+            complete();
+            callback.onResponse(id, element);
+          }
+        };
+        server.search_findElementReferences(file, offset, includePotential, ClientCallbacks.toConsumer(completing));
+      }
+    });
+  }
+
+  @Override
+  public void search_findMemberDeclarations(final String name, FindMemberDeclarationsConsumer consumer) {
+    final FindMemberDeclarationsCallback callback = ClientCallbacks.toCallback(consumer);
+    enqueue(new BackgroundRequest(null) {
+      @Override
+      void fail(RequestError requestError) {
+        callback.onError(requestError);
+      }
+
+      @Override
+      void send() {
+        FindMemberDeclarationsCallback completing = new FindMemberDeclarationsCallback() {
+          @Override
+          public void onError(RequestError requestError) {
+            complete();
+            callback.onError(requestError);
+          }
+
+          @Override
+          public void onResponse(String id) {
+            complete();
+            callback.onResponse(id);
+          }
+        };
+        server.search_findMemberDeclarations(name, ClientCallbacks.toConsumer(completing));
+      }
+    });
+  }
+
+  @Override
+  public void search_findMemberReferences(final String name, FindMemberReferencesConsumer consumer) {
+    final FindMemberReferencesCallback callback = ClientCallbacks.toCallback(consumer);
+    enqueue(new BackgroundRequest(null) {
+      @Override
+      void fail(RequestError requestError) {
+        callback.onError(requestError);
+      }
+
+      @Override
+      void send() {
+        FindMemberReferencesCallback completing = new FindMemberReferencesCallback() {
+          @Override
+          public void onError(RequestError requestError) {
+            complete();
+            callback.onError(requestError);
+          }
+
+          @Override
+          public void onResponse(String id) {
+            complete();
+            callback.onResponse(id);
+          }
+        };
+        server.search_findMemberReferences(name, ClientCallbacks.toConsumer(completing));
+      }
+    });
+  }
+
+  @Override
+  public void search_findTopLevelDeclarations(final String pattern, FindTopLevelDeclarationsConsumer consumer) {
+    final FindTopLevelDeclarationsCallback callback = ClientCallbacks.toCallback(consumer);
+    enqueue(new BackgroundRequest(null) {
+      @Override
+      void fail(RequestError requestError) {
+        callback.onError(requestError);
+      }
+
+      @Override
+      void send() {
+        FindTopLevelDeclarationsCallback completing = new FindTopLevelDeclarationsCallback() {
+          @Override
+          public void onError(RequestError requestError) {
+            complete();
+            callback.onError(requestError);
+          }
+
+          @Override
+          public void onResponse(String id) {
+            complete();
+            callback.onResponse(id);
+          }
+        };
+        server.search_findTopLevelDeclarations(pattern, ClientCallbacks.toConsumer(completing));
+      }
+    });
+  }
+
+  @Override
+  public void search_getTypeHierarchy(final String file, final int offset, GetTypeHierarchyConsumer consumer) {
+    if (isPriorityFile(file)) {
+      server.search_getTypeHierarchy(file, offset, consumer);
+      return;
+    }
+    final GetTypeHierarchyCallback callback = ClientCallbacks.toCallback(consumer);
+    enqueue(new BackgroundRequest(file) {
+      @Override
+      void fail(RequestError requestError) {
+        callback.onError(requestError);
+      }
+
+      @Override
+      void send() {
+        GetTypeHierarchyCallback completing = new GetTypeHierarchyCallback() {
+          @Override
+          public void onError(RequestError requestError) {
+            complete();
+            callback.onError(requestError);
+          }
+
+          @Override
+          public void onResponse(List<TypeHierarchyItem> hierarchyItems) {
+            complete();
+            callback.onResponse(hierarchyItems);
+          }
+        };
+        server.search_getTypeHierarchy(file, offset, ClientCallbacks.toConsumer(completing));
+      }
+    });
+  }
+
+  @Override
+  public void server_getVersion(GetVersionConsumer consumer) {
+    server.server_getVersion(consumer);
+  }
+
+  @Override
+  public void server_setSubscriptions(List<String> subscriptions) {
+    server.server_setSubscriptions(subscriptions);
+  }
+
+  @Override
+  public void server_shutdown() {
+    server.server_shutdown();
+  }
+
+  @Override
+  public void start() throws Exception {
+    server.start();
+  }
+
+  /**
+   * Queue the given request, after the queued low priority requests if it is a low priority
+   * request, or before them otherwise.
+   */
+  private void enqueue(BackgroundRequest request) {
+    synchronized (queue) {
+      ListIterator<BackgroundRequest> iterator = queue.listIterator(queue.size());
+      if (!request.lowPriority) {
+        while (iterator.hasPrevious()) {
+          if (!iterator.previous().lowPriority) {
+            iterator.next();
+            break;
+          }
+        }
+      }
+      iterator.add(request);
+    }
+    sendQueued();
+  }
+
+  /**
+   * Consider as complete the background requests which have been waiting for a response for longer
+   * than the timeout. Must be invoked while holding the lock on {@link #queue}.
+   */
+  private void expireSent() {
+    long now = System.nanoTime();
+    while (!sent.isEmpty() && now - sent.getFirst().sendTime >= timeout) {
+      sent.removeFirst();
+    }
+  }
+
+  /**
+   * Return {@code true} if the requests about the given file are interactive, which is never the
+   * case for the low priority server.
+   */
+  private boolean isPriorityFile(String file) {
+    if (lowPriority) {
+      return false;
+    }
+    synchronized (queue) {
+      return priorityFiles.contains(file);
+    }
+  }
+
+  /**
+   * Remove the queued background requests about the given files, whose content is being changed,
+   * and return them.
+   */
+  private List<BackgroundRequest> removeModified(Collection<String> files) {
+    List<BackgroundRequest> modified = new ArrayList<BackgroundRequest>();
+    synchronized (queue) {
+      Iterator<BackgroundRequest> iterator = queue.iterator();
+      while (iterator.hasNext()) {
+        BackgroundRequest request = iterator.next();
+        if (request.file != null && files.contains(request.file)) {
+          iterator.remove();
+          modified.add(request);
+        }
+      }
+    }
+    return modified;
+  }
+
+  /**
+   * Send the queued background requests allowed by the limit on the number of background requests.
+   */
+  private void sendQueued() {
+    while (true) {
+      BackgroundRequest request;
+      synchronized (queue) {
+        expireSent();
+        if (sent.size() >= maxBackgroundRequests || queue.isEmpty()) {
+          return;
+        }
+        request = queue.removeFirst();
+        request.sendTime = System.nanoTime();
+        sent.addLast(request);
+      }
+      request.send();
+    }
+  }
+
+  /**
+   * Record the given priority files, and move the queued requests about them to the front of the
+   * queue, except for the low priority requests.
+   */
+  private void setPriorityFiles(List<String> files) {
+    synchronized (queue) {
+      priorityFiles.clear();
+      priorityFiles.addAll(files);
+      List<BackgroundRequest> promoted = new ArrayList<BackgroundRequest>();
+      Iterator<BackgroundRequest> iterator = queue.iterator();
+      while (iterator.hasNext()) {
+        BackgroundRequest request = iterator.next();
+        if (request.file != null && !request.lowPriority && priorityFiles.contains(request.file)) {
+          iterator.remove();
+          promoted.add(request);
+        }
+      }
+      queue.addAll(0, promoted);
+    }
+    sendQueued();
+  }
+
+}
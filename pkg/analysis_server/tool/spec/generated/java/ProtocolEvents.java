@@ -0,0 +1,429 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * This file has been automatically generated.  Please do not edit it manually.
+ * To regenerate the file, use the script "pkg/analysis_server/tool/spec/generate_files".
+ */
+package com.google.dart.server.generated;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The class {@code ProtocolEvents} defines the Java Flight Recorder events emitted for the
+ * lifecycle of analysis server requests and notifications: request sent, response received,
+ * decoding and listener dispatch. Each helper checks whether its event is enabled before doing any
+ * work, so the events cost nothing unless a recording is running.
+ *
+ * @coverage dart.server
+ */
+public class ProtocolEvents {
+
+  /**
+   * The event emitted when a request has been written to the server.
+   */
+  @Name("org.dartlang.analysis.server.RequestSent")
+  @Label("Request Sent")
+  @Category({"Dart", "Analysis Server"})
+  public static class RequestSent extends Event {
+    @Label("Request Id")
+    String id;
+
+    @Label("Method")
+    String method;
+
+    @Label("File")
+    String file;
+
+    @Label("Offset")
+    int offset;
+
+    @Label("Size")
+    @DataAmount
+    int bytes;
+  }
+
+  /**
+   * The event emitted when the response to a request has been read from the server.
+   */
+  @Name("org.dartlang.analysis.server.ResponseReceived")
+  @Label("Response Received")
+  @Category({"Dart", "Analysis Server"})
+  public static class ResponseReceived extends Event {
+    @Label("Request Id")
+    String id;
+
+    @Label("Method")
+    String method;
+
+    @Label("File")
+    String file;
+
+    @Label("Offset")
+    int offset;
+
+    @Label("Error")
+    boolean error;
+
+    @Label("Size")
+    @DataAmount
+    int bytes;
+  }
+
+  /**
+   * The event spanning the decoding of a response or notification into protocol objects.
+   */
+  @Name("org.dartlang.analysis.server.Decode")
+  @Label("Decode")
+  @Description("Decoding of a response or notification into protocol objects")
+  @Category({"Dart", "Analysis Server"})
+  public static class Decode extends Event {
+    @Label("Request Id")
+    String id;
+
+    @Label("Method or Event")
+    String name;
+
+    @Label("File")
+    String file;
+
+    @Label("Offset")
+    int offset;
+
+    @Label("Size")
+    @DataAmount
+    int bytes;
+  }
+
+  /**
+   * The event spanning the invocation of a listener with a decoded notification.
+   */
+  @Name("org.dartlang.analysis.server.ListenerDispatch")
+  @Label("Listener Dispatch")
+  @Category({"Dart", "Analysis Server"})
+  public static class ListenerDispatch extends Event {
+    @Label("Event")
+    String name;
+
+    @Label("Id")
+    @Description("The id of the search or completion whose results are notified")
+    String id;
+
+    @Label("File")
+    String file;
+
+    @Label("Offset")
+    int offset;
+
+    @Label("Size")
+    @DataAmount
+    int bytes;
+
+    @Label("Listener")
+    String listener;
+  }
+
+  /**
+   * Finish the given decode event, which was returned by {@link #decodeStarted}.
+   *
+   * @param event the event to finish, may be {@code null}
+   */
+  public static void decodeFinished(Decode event) {
+    if (event == null) {
+      return;
+    }
+    event.end();
+    if (event.shouldCommit()) {
+      event.commit();
+    }
+  }
+
+  /**
+   * Start a decode event for the given response or notification. Return the event which must be
+   * passed to {@link #decodeFinished}, or {@code null} if the event is not enabled.
+   *
+   * @param id the id of the request, or {@code null} for a notification
+   * @param name the name of the method or notification, such as {@code analysis.navigation}
+   * @param params the parameters of the notification, or of the request the response answers, which
+   *          hold the file and the offset the event is about, may be {@code null}
+   * @param byteCount the number of bytes in the response or notification
+   */
+  public static Decode decodeStarted(String id, String name, JsonObject params, int byteCount) {
+    Decode event = new Decode();
+    if (!event.isEnabled()) {
+      return null;
+    }
+    event.id = id;
+    event.name = name;
+    event.file = getString(params, getFileParameterName(name));
+    event.offset = getInt(params, getOffsetParameterName(name));
+    event.bytes = byteCount;
+    event.begin();
+    return event;
+  }
+
+  /**
+   * Return the name of the parameter holding the file the request or notification with the given
+   * name is about, or {@code null} if there is no such parameter.
+   */
+  public static String getFileParameterName(String name) {
+    if ("analysis.getErrors".equals(name)) {
+      return "file";
+    }
+    if ("analysis.getHover".equals(name)) {
+      return "file";
+    }
+    if ("analysis.getNavigation".equals(name)) {
+      return "file";
+    }
+    if ("analysis.errors".equals(name)) {
+      return "file";
+    }
+    if ("analysis.folding".equals(name)) {
+      return "file";
+    }
+    if ("analysis.highlights".equals(name)) {
+      return "file";
+    }
+    if ("analysis.invalidate".equals(name)) {
+      return "file";
+    }
+    if ("analysis.navigation".equals(name)) {
+      return "file";
+    }
+    if ("analysis.occurrences".equals(name)) {
+      return "file";
+    }
+    if ("analysis.outline".equals(name)) {
+      return "file";
+    }
+    if ("analysis.overrides".equals(name)) {
+      return "file";
+    }
+    if ("completion.getSuggestions".equals(name)) {
+      return "file";
+    }
+    if ("search.findElementReferences".equals(name)) {
+      return "file";
+    }
+    if ("search.getTypeHierarchy".equals(name)) {
+      return "file";
+    }
+    if ("edit.format".equals(name)) {
+      return "file";
+    }
+    if ("edit.getAssists".equals(name)) {
+      return "file";
+    }
+    if ("edit.getAvailableRefactorings".equals(name)) {
+      return "file";
+    }
+    if ("edit.getFixes".equals(name)) {
+      return "file";
+    }
+    if ("edit.getRefactoring".equals(name)) {
+      return "file";
+    }
+    if ("edit.sortMembers".equals(name)) {
+      return "file";
+    }
+    if ("execution.createContext".equals(name)) {
+      return "contextRoot";
+    }
+    if ("execution.mapUri".equals(name)) {
+      return "file";
+    }
+    if ("execution.launchData".equals(name)) {
+      return "file";
+    }
+    return null;
+  }
+
+  /**
+   * Return the name of the parameter holding the id of the object the request or notification with
+   * the given name is about, such as a search, or {@code null} if there is no such parameter.
+   */
+  public static String getIdParameterName(String name) {
+    if ("completion.results".equals(name)) {
+      return "id";
+    }
+    if ("search.results".equals(name)) {
+      return "id";
+    }
+    if ("execution.deleteContext".equals(name)) {
+      return "id";
+    }
+    if ("execution.mapUri".equals(name)) {
+      return "id";
+    }
+    return null;
+  }
+
+  /**
+   * Return the name of the parameter holding the offset the request or notification with the given
+   * name is about, or {@code null} if there is no such parameter.
+   */
+  public static String getOffsetParameterName(String name) {
+    if ("analysis.getHover".equals(name)) {
+      return "offset";
+    }
+    if ("analysis.getNavigation".equals(name)) {
+      return "offset";
+    }
+    if ("analysis.invalidate".equals(name)) {
+      return "offset";
+    }
+    if ("completion.getSuggestions".equals(name)) {
+      return "offset";
+    }
+    if ("completion.results".equals(name)) {
+      return "replacementOffset";
+    }
+    if ("search.findElementReferences".equals(name)) {
+      return "offset";
+    }
+    if ("search.getTypeHierarchy".equals(name)) {
+      return "offset";
+    }
+    if ("edit.format".equals(name)) {
+      return "selectionOffset";
+    }
+    if ("edit.getAssists".equals(name)) {
+      return "offset";
+    }
+    if ("edit.getAvailableRefactorings".equals(name)) {
+      return "offset";
+    }
+    if ("edit.getFixes".equals(name)) {
+      return "offset";
+    }
+    if ("edit.getRefactoring".equals(name)) {
+      return "offset";
+    }
+    return null;
+  }
+
+  /**
+   * Finish the given listener dispatch event, which was returned by {@link #listenerStarted}.
+   *
+   * @param event the event to finish, may be {@code null}
+   */
+  public static void listenerFinished(ListenerDispatch event) {
+    if (event == null) {
+      return;
+    }
+    event.end();
+    if (event.shouldCommit()) {
+      event.commit();
+    }
+  }
+
+  /**
+   * Start a listener dispatch event. Return the event which must be passed to
+   * {@link #listenerFinished}, or {@code null} if the event is not enabled.
+   *
+   * @param name the name of the notification, such as {@code analysis.navigation}
+   * @param params the parameters of the notification, may be {@code null}
+   * @param byteCount the number of bytes in the notification
+   * @param listener the listener being invoked
+   */
+  public static ListenerDispatch listenerStarted(String name, JsonObject params, int byteCount,
+      Object listener) {
+    ListenerDispatch event = new ListenerDispatch();
+    if (!event.isEnabled()) {
+      return null;
+    }
+    event.name = name;
+    event.id = getString(params, getIdParameterName(name));
+    event.file = getString(params, getFileParameterName(name));
+    event.offset = getInt(params, getOffsetParameterName(name));
+    event.bytes = byteCount;
+    event.listener = listener.getClass().getName();
+    event.begin();
+    return event;
+  }
+
+  /**
+   * Emit a request sent event.
+   *
+   * @param id the id of the request
+   * @param method the name of the method, such as {@code completion.getSuggestions}
+   * @param params the parameters of the request, may be {@code null}
+   * @param byteCount the number of bytes in the request
+   */
+  public static void requestSent(String id, String method, JsonObject params, int byteCount) {
+    RequestSent event = new RequestSent();
+    if (event.shouldCommit()) {
+      event.id = id;
+      event.method = method;
+      event.file = getString(params, getFileParameterName(method));
+      event.offset = getInt(params, getOffsetParameterName(method));
+      event.bytes = byteCount;
+      event.commit();
+    }
+  }
+
+  /**
+   * Emit a response received event.
+   *
+   * @param id the id of the request
+   * @param method the name of the method of the request, may be {@code null} if unknown
+   * @param requestParams the parameters of the request, may be {@code null}
+   * @param error {@code true} if the response reports an error
+   * @param byteCount the number of bytes in the response
+   */
+  public static void responseReceived(String id, String method, JsonObject requestParams,
+      boolean error, int byteCount) {
+    ResponseReceived event = new ResponseReceived();
+    if (event.shouldCommit()) {
+      event.id = id;
+      event.method = method;
+      event.file = getString(requestParams, getFileParameterName(method));
+      event.offset = getInt(requestParams, getOffsetParameterName(method));
+      event.error = error;
+      event.bytes = byteCount;
+      event.commit();
+    }
+  }
+
+  private static int getInt(JsonObject params, String name) {
+    if (params == null || name == null) {
+      return -1;
+    }
+    JsonElement element = params.get(name);
+    if (element instanceof JsonPrimitive && ((JsonPrimitive) element).isNumber()) {
+      return element.getAsInt();
+    }
+    return -1;
+  }
+
+  private static String getString(JsonObject params, String name) {
+    if (params == null || name == null) {
+      return null;
+    }
+    JsonElement element = params.get(name);
+    if (element instanceof JsonPrimitive && ((JsonPrimitive) element).isString()) {
+      return element.getAsString();
+    }
+    return null;
+  }
+
+}
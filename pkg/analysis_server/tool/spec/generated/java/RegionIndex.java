@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * This file has been automatically generated.  Please do not edit it manually.
+ * To regenerate the file, use the script "pkg/analysis_server/tool/spec/generate_files".
+ */
+package com.google.dart.server.generated;
+
+import com.google.dart.server.utilities.source.LineIndex;
+import org.dartlang.analysis.server.protocol.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The class {@code RegionIndex} indexes the regions reported for a file by a notification, such as
+ * {@link FoldingRegion}s or {@link OverrideMember}s, so that the regions intersecting the visible
+ * lines, or the nesting depth at an offset, can be computed without scanning every region.
+ * <p>
+ * The regions are sorted by offset and form an implicit balanced binary search tree, the root of a
+ * range of the sorted regions being its middle element. Each node records the greatest end of the
+ * regions in its range, so that a query skips the subtrees which end before the queried range. An
+ * index is built in {@code O(n log n)} once per notification, and answers a query in
+ * {@code O(log n + k)} where {@code k} is the number of regions found. Indices are immutable, so
+ * they can be shared between threads.
+ * <p>
+ * A region covers the offsets from its offset, inclusive, to its offset plus its length, exclusive.
+ * A region of length zero covers its offset.
+ *
+ * @coverage dart.server
+ */
+public class RegionIndex<R> {
+
+  /**
+   * The regions, in the order in which they were given.
+   */
+  private final List<R> regions;
+
+  /**
+   * The indices of the regions in {@link #regions}, sorted by offset.
+   */
+  private final int[] order;
+
+  /**
+   * The offsets of the regions, sorted.
+   */
+  private final int[] starts;
+
+  /**
+   * The ends of the regions, in the order of {@link #starts}.
+   */
+  private final int[] ends;
+
+  /**
+   * For each node, the greatest end of the regions in the range of which it is the middle element.
+   */
+  private final int[] maxEnds;
+
+  /**
+   * Initialize a newly created index of the given regions, whose offsets and lengths are given in the
+   * same order.
+   */
+  public RegionIndex(List<R> regions, int[] offsets, int[] lengths) {
+    this.regions = regions;
+    int count = offsets.length;
+    long[] keys = new long[count];
+    for (int i = 0; i < count; i++) {
+      keys[i] = (long) offsets[i] << 32 | i;
+    }
+    Arrays.sort(keys);
+    order = new int[count];
+    starts = new int[count];
+    ends = new int[count];
+    for (int i = 0; i < count; i++) {
+      int index = (int) keys[i];
+      order[i] = index;
+      starts[i] = offsets[index];
+      ends[i] = offsets[index] + Math.max(lengths[index], 1);
+    }
+    maxEnds = new int[count];
+    computeMaxEnds(0, count);
+  }
+
+  /**
+   * Return an index of the given regions, as reported by
+   * {@code analysis.folding}.
+   */
+  public static RegionIndex<FoldingRegion> forFoldingRegions(List<FoldingRegion> regions) {
+    int count = regions.size();
+    int[] offsets = new int[count];
+    int[] lengths = new int[count];
+    for (int i = 0; i < count; i++) {
+      FoldingRegion region = regions.get(i);
+      offsets[i] = region.getOffset();
+      lengths[i] = region.getLength();
+    }
+    return new RegionIndex<FoldingRegion>(regions, offsets, lengths);
+  }
+
+  /**
+   * Return an index of the given regions, as reported by
+   * {@code analysis.highlights}.
+   */
+  public static RegionIndex<HighlightRegion> forHighlightRegions(List<HighlightRegion> regions) {
+    int count = regions.size();
+    int[] offsets = new int[count];
+    int[] lengths = new int[count];
+    for (int i = 0; i < count; i++) {
+      HighlightRegion region = regions.get(i);
+      offsets[i] = region.getOffset();
+      lengths[i] = region.getLength();
+    }
+    return new RegionIndex<HighlightRegion>(regions, offsets, lengths);
+  }
+
+  /**
+   * Return an index of the given regions, as reported by
+   * {@code analysis.navigation}.
+   */
+  public static RegionIndex<NavigationRegion> forNavigationRegions(List<NavigationRegion> regions) {
+    int count = regions.size();
+    int[] offsets = new int[count];
+    int[] lengths = new int[count];
+    for (int i = 0; i < count; i++) {
+      NavigationRegion region = regions.get(i);
+      offsets[i] = region.getOffset();
+      lengths[i] = region.getLength();
+    }
+    return new RegionIndex<NavigationRegion>(regions, offsets, lengths);
+  }
+
+  /**
+   * Return an index of the given regions, as reported by
+   * {@code analysis.overrides}.
+   */
+  public static RegionIndex<OverrideMember> forOverrideMembers(List<OverrideMember> regions) {
+    int count = regions.size();
+    int[] offsets = new int[count];
+    int[] lengths = new int[count];
+    for (int i = 0; i < count; i++) {
+      OverrideMember region = regions.get(i);
+      offsets[i] = region.getOffset();
+      lengths[i] = region.getLength();
+    }
+    return new RegionIndex<OverrideMember>(regions, offsets, lengths);
+  }
+
+  /**
+   * Return the number of regions covering the given offset, which is the nesting depth of the offset
+   * when the regions are nested, as folding regions are.
+   */
+  public int getDepth(int offset) {
+    return count(0, starts.length, offset);
+  }
+
+  /**
+   * Return the regions given to the constructor.
+   */
+  public List<R> getRegions() {
+    return regions;
+  }
+
+  /**
+   * Return the regions covering at least one offset from {@code start}, inclusive, to {@code end},
+   * exclusive, sorted by offset.
+   */
+  public List<R> getRegions(int start, int end) {
+    List<R> result = new ArrayList<R>();
+    collect(0, starts.length, start, end, result);
+    return result;
+  }
+
+  /**
+   * Return the regions covering at least one offset of the lines from {@code firstLine} to
+   * {@code lastLine}, both inclusive and one-based, of the content indexed by the given line index,
+   * sorted by offset.
+   */
+  public List<R> getRegionsOnLines(LineIndex lineIndex, int firstLine, int lastLine) {
+    int start = lineIndex.getLineStart(firstLine);
+    int end = lastLine < lineIndex.getLineCount()
+        ? lineIndex.getLineStart(lastLine + 1) : lineIndex.getLength() + 1;
+    return getRegions(start, end);
+  }
+
+  /**
+   * Return the number of regions.
+   */
+  public int size() {
+    return starts.length;
+  }
+
+  /**
+   * Add to the given list the regions of the range from {@code low} to {@code high} of the sorted
+   * regions which cover at least one offset from {@code start} to {@code end}.
+   */
+  private void collect(int low, int high, int start, int end, List<R> result) {
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (maxEnds[middle] <= start) {
+        return;
+      }
+      collect(low, middle, start, end, result);
+      if (starts[middle] >= end) {
+        return;
+      }
+      if (ends[middle] > start) {
+        result.add(regions.get(order[middle]));
+      }
+      low = middle + 1;
+    }
+  }
+
+  /**
+   * Compute the greatest ends of the nodes of the range from {@code low} to {@code high} of the sorted
+   * regions, and return the greatest end of the range.
+   */
+  private int computeMaxEnds(int low, int high) {
+    if (low >= high) {
+      return Integer.MIN_VALUE;
+    }
+    int middle = (low + high) >>> 1;
+    int max = Math.max(ends[middle], computeMaxEnds(low, middle));
+    max = Math.max(max, computeMaxEnds(middle + 1, high));
+    maxEnds[middle] = max;
+    return max;
+  }
+
+  /**
+   * Return the number of regions of the range from {@code low} to {@code high} of the sorted regions
+   * which cover the given offset.
+   */
+  private int count(int low, int high, int offset) {
+    int result = 0;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (maxEnds[middle] <= offset) {
+        break;
+      }
+      result += count(low, middle, offset);
+      if (starts[middle] > offset) {
+        break;
+      }
+      if (ends[middle] > offset) {
+        result++;
+      }
+      low = middle + 1;
+    }
+    return result;
+  }
+
+}
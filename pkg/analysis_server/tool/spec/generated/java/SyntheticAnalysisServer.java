@@ -0,0 +1,972 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * This file has been automatically generated.  Please do not edit it manually.
+ * To regenerate the file, use the script "pkg/analysis_server/tool/spec/generate_files".
+ */
+package com.google.dart.server.generated;
+
+import com.google.dart.server.internal.transport.MappedRingBuffer;
+import com.google.dart.server.internal.transport.SharedMemoryTransport;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import org.dartlang.analysis.server.protocol.RequestErrorCode;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The class {@code SyntheticAnalysisServer} is a stand-in for the analysis server which speaks the
+ * same protocol over stdin and stdout, and answers every request with synthetic, but well-formed,
+ * results. The number of elements in results and notifications, the latency of responses and the
+ * rate of notifications are configurable, which makes it a hermetic target for throughput and
+ * stress benchmarks of the client.
+ * <p>
+ * Supported arguments are {@code --latency=<ms>}, {@code --regions=<n>} (elements per analysis
+ * notification), {@code --suggestions=<n>} (completion suggestions), {@code --results=<n>} (search
+ * results and elements of other results), {@code --nested=<n>} (elements of nested lists),
+ * {@code --notification-rate=<n>} (notifications per second for the subscribed files) and
+ * {@code --ring=<path>} (the {@link MappedRingBuffer} to which responses and notifications are
+ * written, those longer than the ring being written to stdout after an empty message, as expected
+ * by {@link SharedMemoryTransport}).
+ *
+ * @coverage dart.server
+ */
+public class SyntheticAnalysisServer {
+
+  /**
+   * The version of the protocol implemented by this server.
+   */
+  public static final String VERSION = "1.7.0";
+
+  private static final String[] ANALYSIS_ERROR_SEVERITY = {"INFO", "WARNING", "ERROR"};
+
+  private static final String[] ANALYSIS_ERROR_TYPE = {"CHECKED_MODE_COMPILE_TIME_ERROR", "COMPILE_TIME_ERROR", "HINT", "LINT", "STATIC_TYPE_WARNING", "STATIC_WARNING", "SYNTACTIC_ERROR", "TODO"};
+
+  private static final String[] COMPLETION_SUGGESTION_KIND = {"ARGUMENT_LIST", "IMPORT", "IDENTIFIER", "INVOCATION", "KEYWORD", "NAMED_ARGUMENT", "OPTIONAL_ARGUMENT", "PARAMETER"};
+
+  private static final String[] ELEMENT_KIND = {"CLASS", "CLASS_TYPE_ALIAS", "COMPILATION_UNIT", "CONSTRUCTOR", "ENUM", "ENUM_CONSTANT", "FIELD", "FUNCTION", "FUNCTION_TYPE_ALIAS", "GETTER", "LABEL", "LIBRARY", "LOCAL_VARIABLE", "METHOD", "PARAMETER", "PREFIX", "SETTER", "TOP_LEVEL_VARIABLE", "TYPE_PARAMETER", "UNIT_TEST_GROUP", "UNIT_TEST_TEST", "UNKNOWN"};
+
+  private static final String[] EXECUTABLE_KIND = {"CLIENT", "EITHER", "NOT_EXECUTABLE", "SERVER"};
+
+  private static final String[] FOLDING_KIND = {"COMMENT", "CLASS_MEMBER", "DIRECTIVES", "DOCUMENTATION_COMMENT", "TOP_LEVEL_DECLARATION"};
+
+  private static final String[] HIGHLIGHT_REGION_TYPE = {"ANNOTATION", "BUILT_IN", "CLASS", "COMMENT_BLOCK", "COMMENT_DOCUMENTATION", "COMMENT_END_OF_LINE", "CONSTRUCTOR", "DIRECTIVE", "DYNAMIC_TYPE", "ENUM", "ENUM_CONSTANT", "FIELD", "FIELD_STATIC", "FUNCTION", "FUNCTION_DECLARATION", "FUNCTION_TYPE_ALIAS", "GETTER_DECLARATION", "IDENTIFIER_DEFAULT", "IMPORT_PREFIX", "KEYWORD", "LABEL", "LITERAL_BOOLEAN", "LITERAL_DOUBLE", "LITERAL_INTEGER", "LITERAL_LIST", "LITERAL_MAP", "LITERAL_STRING", "LOCAL_VARIABLE", "LOCAL_VARIABLE_DECLARATION", "METHOD", "METHOD_DECLARATION", "METHOD_DECLARATION_STATIC", "METHOD_STATIC", "PARAMETER", "SETTER_DECLARATION", "TOP_LEVEL_VARIABLE", "TYPE_NAME_DYNAMIC", "TYPE_PARAMETER"};
+
+  private static final String[] LINKED_EDIT_SUGGESTION_KIND = {"METHOD", "PARAMETER", "TYPE", "VARIABLE"};
+
+  private static final String[] REFACTORING_KIND = {"CONVERT_GETTER_TO_METHOD", "CONVERT_METHOD_TO_GETTER", "EXTRACT_LOCAL_VARIABLE", "EXTRACT_METHOD", "INLINE_LOCAL_VARIABLE", "INLINE_METHOD", "MOVE_FILE", "RENAME", "SORT_MEMBERS"};
+
+  private static final String[] REFACTORING_PROBLEM_SEVERITY = {"INFO", "WARNING", "ERROR", "FATAL"};
+
+  private static final String[] SEARCH_RESULT_KIND = {"DECLARATION", "INVOCATION", "READ", "READ_WRITE", "REFERENCE", "UNKNOWN", "WRITE"};
+
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  /**
+   * The number of seconds to wait for free space in the ring buffer before giving up on a client
+   * which no longer reads it.
+   */
+  private static final long RING_TIMEOUT_SECONDS = 60;
+
+  /**
+   * The stream responses and notifications are written to.
+   */
+  private final PrintStream out;
+
+  /**
+   * The ring buffer responses and notifications are written to, or {@code null} if they are written
+   * to {@link #out}.
+   */
+  private MappedRingBuffer ring;
+
+  /**
+   * The executor used to delay responses and to send notifications.
+   */
+  private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+
+  /**
+   * The (service, file) pairs for which notifications are sent, as set by
+   * {@code analysis.setSubscriptions}.
+   */
+  private final List<String[]> subscriptions = new ArrayList<String[]>();
+
+  /**
+   * The number of milliseconds to wait before sending a response.
+   */
+  private int latency = 0;
+
+  /**
+   * The number of elements in the lists of analysis notifications.
+   */
+  private int regions = 100;
+
+  /**
+   * The number of suggestions in completion notifications.
+   */
+  private int suggestions = 50;
+
+  /**
+   * The number of elements in search notifications and in the lists of results.
+   */
+  private int results = 50;
+
+  /**
+   * The number of elements in the lists of nested objects.
+   */
+  private int nested = 1;
+
+  /**
+   * The number of notifications per second sent for the subscribed files.
+   */
+  private int notificationRate = 0;
+
+  /**
+   * The number of requests received so far.
+   */
+  private int requestCount = 0;
+
+  /**
+   * The number of subscription notifications sent so far.
+   */
+  private int notificationCount = 0;
+
+  /**
+   * Initialize a newly created server to write responses and notifications to the given stream.
+   */
+  public SyntheticAnalysisServer(PrintStream out) {
+    this.out = out;
+  }
+
+  /**
+   * Configure this server from the given command line arguments.
+   */
+  public void configure(String[] args) {
+    for (String arg : args) {
+      int index = arg.indexOf('=');
+      if (!arg.startsWith("--") || index == -1) {
+        throw new IllegalArgumentException("Invalid argument: " + arg);
+      }
+      String name = arg.substring(2, index);
+      if (name.equals("ring")) {
+        String path = arg.substring(index + 1);
+        try {
+          ring = MappedRingBuffer.open(new File(path));
+        } catch (IOException exception) {
+          throw new IllegalArgumentException("Invalid ring buffer: " + path, exception);
+        }
+        continue;
+      }
+      int value = Integer.parseInt(arg.substring(index + 1));
+      if (name.equals("latency")) {
+        latency = value;
+      } else if (name.equals("regions")) {
+        regions = value;
+      } else if (name.equals("suggestions")) {
+        suggestions = value;
+      } else if (name.equals("results")) {
+        results = value;
+      } else if (name.equals("nested")) {
+        nested = value;
+      } else if (name.equals("notification-rate")) {
+        notificationRate = value;
+      } else {
+        throw new IllegalArgumentException("Unknown argument: " + arg);
+      }
+    }
+  }
+
+  /**
+   * Handle the given request, scheduling its response and any notifications that follow it.
+   */
+  public void handleRequest(String line) {
+    JsonObject request = new JsonParser().parse(line).getAsJsonObject();
+    final String id = request.get("id").getAsString();
+    final String method = request.get("method").getAsString();
+    JsonObject params = request.has("params") ? request.getAsJsonObject("params") : new JsonObject();
+    String file = params.has("file") ? params.get("file").getAsString() : "/synthetic/file.dart";
+    int index = requestCount++;
+    if (method.equals("analysis.setSubscriptions")) {
+      setSubscriptions(params.getAsJsonObject("subscriptions"));
+    }
+    final JsonObject response = new JsonObject();
+    response.addProperty("id", id);
+    if (isKnownRequest(method)) {
+      JsonObject result = computeResult(method, file, "id" + index, index);
+      if (result != null) {
+        response.add("result", result);
+      }
+    } else {
+      JsonObject error = new JsonObject();
+      error.addProperty("code", RequestErrorCode.UNKNOWN_REQUEST);
+      error.addProperty("message", "Unknown request: " + method);
+      response.add("error", error);
+    }
+    schedule(response, latency);
+    String event = getResultNotification(method);
+    if (event != null && response.has("result")) {
+      JsonElement resultId = response.getAsJsonObject("result").get("id");
+      if (resultId != null) {
+        JsonObject notification = new JsonObject();
+        notification.addProperty("event", event);
+        notification.add("params", synthesizeNotification(event, file, resultId.getAsString(), index));
+        schedule(notification, latency);
+      }
+    }
+    if (method.equals("server.shutdown")) {
+      executor.schedule(new Runnable() {
+        @Override
+        public void run() {
+          out.flush();
+          if (ring != null) {
+            ring.close();
+          }
+          System.exit(0);
+        }
+      }, latency, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Run a synthetic server on stdin and stdout.
+   */
+  public static void main(String[] args) throws Exception {
+    SyntheticAnalysisServer server = new SyntheticAnalysisServer(System.out);
+    server.configure(args);
+    server.run(System.in);
+  }
+
+  /**
+   * Send the {@code server.connected} notification, then handle the requests read from the given
+   * stream until it is closed.
+   */
+  public void run(InputStream in) throws Exception {
+    JsonObject connected = new JsonObject();
+    connected.addProperty("event", "server.connected");
+    connected.add("params", synthesizeNotification("server.connected", null, null, 0));
+    schedule(connected, 0);
+    if (notificationRate > 0) {
+      executor.scheduleAtFixedRate(new Runnable() {
+        @Override
+        public void run() {
+          sendSubscribedNotification();
+        }
+      }, 0, Math.max(1, 1000000 / notificationRate), TimeUnit.MICROSECONDS);
+    }
+    BufferedReader reader = new BufferedReader(new InputStreamReader(in, "UTF-8"));
+    String line;
+    while ((line = reader.readLine()) != null) {
+      if (line.trim().length() != 0) {
+        handleRequest(line);
+      }
+    }
+    executor.shutdown();
+    if (ring != null) {
+      executor.awaitTermination(1, TimeUnit.MINUTES);
+      ring.close();
+    }
+  }
+
+  private JsonObject computeResult(String method, String file, String id, int index) {
+    if (method.equals("server.getVersion")) {
+      JsonObject result = new JsonObject();
+      result.add("version", new JsonPrimitive(VERSION));
+      return result;
+    }
+    if (method.equals("analysis.getErrors")) {
+      JsonObject result = new JsonObject();
+      JsonArray jsonArrayErrors = new JsonArray();
+      for (int i = 0; i < results; i++) {
+        jsonArrayErrors.add(synthesizeAnalysisError(file, i));
+      }
+      result.add("errors", jsonArrayErrors);
+      return result;
+    }
+    if (method.equals("analysis.getHover")) {
+      JsonObject result = new JsonObject();
+      JsonArray jsonArrayHovers = new JsonArray();
+      for (int i = 0; i < results; i++) {
+        jsonArrayHovers.add(synthesizeHoverInformation(file, i));
+      }
+      result.add("hovers", jsonArrayHovers);
+      return result;
+    }
+    if (method.equals("analysis.getLibraryDependencies")) {
+      JsonObject result = new JsonObject();
+      JsonArray jsonArrayLibraries = new JsonArray();
+      for (int i = 0; i < results; i++) {
+        jsonArrayLibraries.add(new JsonPrimitive(file));
+      }
+      result.add("libraries", jsonArrayLibraries);
+      result.add("packageMap", new JsonObject());
+      return result;
+    }
+    if (method.equals("analysis.getNavigation")) {
+      JsonObject result = new JsonObject();
+      JsonArray jsonArrayFiles = new JsonArray();
+      for (int i = 0; i < results; i++) {
+        jsonArrayFiles.add(new JsonPrimitive(file));
+      }
+      result.add("files", jsonArrayFiles);
+      JsonArray jsonArrayTargets = new JsonArray();
+      for (int i = 0; i < results; i++) {
+        jsonArrayTargets.add(synthesizeNavigationTarget(file, i));
+      }
+      result.add("targets", jsonArrayTargets);
+      JsonArray jsonArrayRegions = new JsonArray();
+      for (int i = 0; i < results; i++) {
+        jsonArrayRegions.add(synthesizeNavigationRegion(file, i));
+      }
+      result.add("regions", jsonArrayRegions);
+      return result;
+    }
+    if (method.equals("analysis.updateContent")) {
+      JsonObject result = new JsonObject();
+      return result;
+    }
+    if (method.equals("completion.getSuggestions")) {
+      JsonObject result = new JsonObject();
+      result.add("id", new JsonPrimitive(id));
+      return result;
+    }
+    if (method.equals("search.findElementReferences")) {
+      JsonObject result = new JsonObject();
+      result.add("id", new JsonPrimitive(id));
+      result.add("element", synthesizeElement(file, index));
+      return result;
+    }
+    if (method.equals("search.findMemberDeclarations")) {
+      JsonObject result = new JsonObject();
+      result.add("id", new JsonPrimitive(id));
+      return result;
+    }
+    if (method.equals("search.findMemberReferences")) {
+      JsonObject result = new JsonObject();
+      result.add("id", new JsonPrimitive(id));
+      return result;
+    }
+    if (method.equals("search.findTopLevelDeclarations")) {
+      JsonObject result = new JsonObject();
+      result.add("id", new JsonPrimitive(id));
+      return result;
+    }
+    if (method.equals("search.getTypeHierarchy")) {
+      JsonObject result = new JsonObject();
+      JsonArray jsonArrayHierarchyItems = new JsonArray();
+      for (int i = 0; i < results; i++) {
+        jsonArrayHierarchyItems.add(synthesizeTypeHierarchyItem(file, i));
+      }
+      result.add("hierarchyItems", jsonArrayHierarchyItems);
+      return result;
+    }
+    if (method.equals("edit.format")) {
+      JsonObject result = new JsonObject();
+      JsonArray jsonArrayEdits = new JsonArray();
+      for (int i = results - 1; i >= 0; i--) {
+        jsonArrayEdits.add(synthesizeSourceEdit(file, i));
+      }
+      result.add("edits", jsonArrayEdits);
+      result.add("selectionOffset", new JsonPrimitive(index * 10));
+      result.add("selectionLength", new JsonPrimitive(5));
+      return result;
+    }
+    if (method.equals("edit.getAssists")) {
+      JsonObject result = new JsonObject();
+      JsonArray jsonArrayAssists = new JsonArray();
+      for (int i = 0; i < results; i++) {
+        jsonArrayAssists.add(synthesizeSourceChange(file, i));
+      }
+      result.add("assists", jsonArrayAssists);
+      return result;
+    }
+    if (method.equals("edit.getAvailableRefactorings")) {
+      JsonObject result = new JsonObject();
+      JsonArray jsonArrayKinds = new JsonArray();
+      for (int i = 0; i < results; i++) {
+        jsonArrayKinds.add(new JsonPrimitive(REFACTORING_KIND[i % REFACTORING_KIND.length]));
+      }
+      result.add("kinds", jsonArrayKinds);
+      return result;
+    }
+    if (method.equals("edit.getFixes")) {
+      JsonObject result = new JsonObject();
+      JsonArray jsonArrayFixes = new JsonArray();
+      for (int i = 0; i < results; i++) {
+        jsonArrayFixes.add(synthesizeAnalysisErrorFixes(file, i));
+      }
+      result.add("fixes", jsonArrayFixes);
+      return result;
+    }
+    if (method.equals("edit.getRefactoring")) {
+      JsonObject result = new JsonObject();
+      JsonArray jsonArrayInitialProblems = new JsonArray();
+      for (int i = 0; i < results; i++) {
+        jsonArrayInitialProblems.add(synthesizeRefactoringProblem(file, i));
+      }
+      result.add("initialProblems", jsonArrayInitialProblems);
+      JsonArray jsonArrayOptionsProblems = new JsonArray();
+      for (int i = 0; i < results; i++) {
+        jsonArrayOptionsProblems.add(synthesizeRefactoringProblem(file, i));
+      }
+      result.add("optionsProblems", jsonArrayOptionsProblems);
+      JsonArray jsonArrayFinalProblems = new JsonArray();
+      for (int i = 0; i < results; i++) {
+        jsonArrayFinalProblems.add(synthesizeRefactoringProblem(file, i));
+      }
+      result.add("finalProblems", jsonArrayFinalProblems);
+      result.add("feedback", synthesizeRefactoringFeedback(file, index));
+      result.add("change", synthesizeSourceChange(file, index));
+      JsonArray jsonArrayPotentialEdits = new JsonArray();
+      for (int i = 0; i < results; i++) {
+        jsonArrayPotentialEdits.add(new JsonPrimitive("potentialEdits" + i));
+      }
+      result.add("potentialEdits", jsonArrayPotentialEdits);
+      return result;
+    }
+    if (method.equals("edit.sortMembers")) {
+      JsonObject result = new JsonObject();
+      result.add("edit", synthesizeSourceFileEdit(file, index));
+      return result;
+    }
+    if (method.equals("execution.createContext")) {
+      JsonObject result = new JsonObject();
+      result.add("id", new JsonPrimitive(id));
+      return result;
+    }
+    if (method.equals("execution.mapUri")) {
+      JsonObject result = new JsonObject();
+      result.add("file", new JsonPrimitive(file));
+      result.add("uri", new JsonPrimitive("uri" + index));
+      return result;
+    }
+    return null;
+  }
+
+  private static String getResultNotification(String method) {
+    if (method.equals("completion.getSuggestions")) {
+      return "completion.results";
+    }
+    if (method.equals("search.findElementReferences")) {
+      return "search.results";
+    }
+    if (method.equals("search.findMemberDeclarations")) {
+      return "search.results";
+    }
+    if (method.equals("search.findMemberReferences")) {
+      return "search.results";
+    }
+    if (method.equals("search.findTopLevelDeclarations")) {
+      return "search.results";
+    }
+    return null;
+  }
+
+  private static boolean isKnownRequest(String method) {
+    return method.equals("server.getVersion") ||
+        method.equals("server.shutdown") ||
+        method.equals("server.setSubscriptions") ||
+        method.equals("analysis.getErrors") ||
+        method.equals("analysis.getHover") ||
+        method.equals("analysis.getLibraryDependencies") ||
+        method.equals("analysis.getNavigation") ||
+        method.equals("analysis.reanalyze") ||
+        method.equals("analysis.setAnalysisRoots") ||
+        method.equals("analysis.setPriorityFiles") ||
+        method.equals("analysis.setSubscriptions") ||
+        method.equals("analysis.updateContent") ||
+        method.equals("analysis.updateOptions") ||
+        method.equals("completion.getSuggestions") ||
+        method.equals("search.findElementReferences") ||
+        method.equals("search.findMemberDeclarations") ||
+        method.equals("search.findMemberReferences") ||
+        method.equals("search.findTopLevelDeclarations") ||
+        method.equals("search.getTypeHierarchy") ||
+        method.equals("edit.format") ||
+        method.equals("edit.getAssists") ||
+        method.equals("edit.getAvailableRefactorings") ||
+        method.equals("edit.getFixes") ||
+        method.equals("edit.getRefactoring") ||
+        method.equals("edit.sortMembers") ||
+        method.equals("execution.createContext") ||
+        method.equals("execution.deleteContext") ||
+        method.equals("execution.mapUri") ||
+        method.equals("execution.setSubscriptions");
+  }
+
+  private void schedule(final JsonObject message, int delay) {
+    executor.schedule(new Runnable() {
+      @Override
+      public void run() {
+        send(message);
+      }
+    }, delay, TimeUnit.MILLISECONDS);
+  }
+
+  private void send(JsonObject message) {
+    String text = message.toString();
+    synchronized (out) {
+      if (ring != null) {
+        byte[] bytes = text.getBytes(UTF8);
+        boolean fits = bytes.length <= ring.getMaxMessageLength();
+        // an empty message signals that the message is written to the pipe
+        if (!ring.write(fits ? bytes : new byte[0], RING_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+          System.err.println("The ring buffer is no longer read");
+          System.exit(1);
+        }
+        if (fits) {
+          return;
+        }
+      }
+      out.println(text);
+      out.flush();
+    }
+  }
+
+  private void sendSubscribedNotification() {
+    String[] subscription;
+    synchronized (subscriptions) {
+      if (subscriptions.isEmpty()) {
+        return;
+      }
+      subscription = subscriptions.get(notificationCount++ % subscriptions.size());
+    }
+    String event = "analysis." + subscription[0].toLowerCase();
+    JsonObject notification = new JsonObject();
+    notification.addProperty("event", event);
+    notification.add("params", synthesizeNotification(event, subscription[1], null, notificationCount));
+    send(notification);
+  }
+
+  private void setSubscriptions(JsonObject services) {
+    synchronized (subscriptions) {
+      subscriptions.clear();
+      for (Map.Entry<String, JsonElement> entry : services.entrySet()) {
+        for (JsonElement file : entry.getValue().getAsJsonArray()) {
+          subscriptions.add(new String[] {entry.getKey(), file.getAsString()});
+        }
+      }
+    }
+  }
+
+  private JsonObject synthesizeAnalysisError(String file, int index) {
+    JsonObject object = new JsonObject();
+    object.add("severity", new JsonPrimitive(ANALYSIS_ERROR_SEVERITY[index % ANALYSIS_ERROR_SEVERITY.length]));
+    object.add("type", new JsonPrimitive(ANALYSIS_ERROR_TYPE[index % ANALYSIS_ERROR_TYPE.length]));
+    object.add("location", synthesizeLocation(file, index));
+    object.add("message", new JsonPrimitive("message" + index));
+    return object;
+  }
+
+  private JsonObject synthesizeAnalysisErrorFixes(String file, int index) {
+    JsonObject object = new JsonObject();
+    object.add("error", synthesizeAnalysisError(file, index));
+    JsonArray jsonArrayFixes = new JsonArray();
+    for (int i = 0; i < nested; i++) {
+      jsonArrayFixes.add(synthesizeSourceChange(file, i));
+    }
+    object.add("fixes", jsonArrayFixes);
+    return object;
+  }
+
+  private JsonObject synthesizeAnalysisStatus(String file, int index) {
+    JsonObject object = new JsonObject();
+    object.add("isAnalyzing", new JsonPrimitive(index % 2 == 0));
+    return object;
+  }
+
+  private JsonObject synthesizeCompletionSuggestion(String file, int index) {
+    JsonObject object = new JsonObject();
+    object.add("kind", new JsonPrimitive(COMPLETION_SUGGESTION_KIND[index % COMPLETION_SUGGESTION_KIND.length]));
+    object.add("relevance", new JsonPrimitive(index));
+    object.add("completion", new JsonPrimitive("completion" + index));
+    object.add("selectionOffset", new JsonPrimitive(index * 10));
+    object.add("selectionLength", new JsonPrimitive(5));
+    object.add("isDeprecated", new JsonPrimitive(index % 2 == 0));
+    object.add("isPotential", new JsonPrimitive(index % 2 == 0));
+    return object;
+  }
+
+  private JsonObject synthesizeElement(String file, int index) {
+    JsonObject object = new JsonObject();
+    object.add("kind", new JsonPrimitive(ELEMENT_KIND[index % ELEMENT_KIND.length]));
+    object.add("name", new JsonPrimitive("name" + index));
+    object.add("flags", new JsonPrimitive(index));
+    return object;
+  }
+
+  private JsonObject synthesizeFoldingRegion(String file, int index) {
+    JsonObject object = new JsonObject();
+    object.add("kind", new JsonPrimitive(FOLDING_KIND[index % FOLDING_KIND.length]));
+    object.add("offset", new JsonPrimitive(index * 10));
+    object.add("length", new JsonPrimitive(5));
+    return object;
+  }
+
+  private JsonObject synthesizeHighlightRegion(String file, int index) {
+    JsonObject object = new JsonObject();
+    object.add("type", new JsonPrimitive(HIGHLIGHT_REGION_TYPE[index % HIGHLIGHT_REGION_TYPE.length]));
+    object.add("offset", new JsonPrimitive(index * 10));
+    object.add("length", new JsonPrimitive(5));
+    return object;
+  }
+
+  private JsonObject synthesizeHoverInformation(String file, int index) {
+    JsonObject object = new JsonObject();
+    object.add("offset", new JsonPrimitive(index * 10));
+    object.add("length", new JsonPrimitive(5));
+    return object;
+  }
+
+  private JsonObject synthesizeLinkedEditGroup(String file, int index) {
+    JsonObject object = new JsonObject();
+    JsonArray jsonArrayPositions = new JsonArray();
+    for (int i = 0; i < nested; i++) {
+      jsonArrayPositions.add(synthesizePosition(file, i));
+    }
+    object.add("positions", jsonArrayPositions);
+    object.add("length", new JsonPrimitive(5));
+    JsonArray jsonArraySuggestions = new JsonArray();
+    for (int i = 0; i < nested; i++) {
+      jsonArraySuggestions.add(synthesizeLinkedEditSuggestion(file, i));
+    }
+    object.add("suggestions", jsonArraySuggestions);
+    return object;
+  }
+
+  private JsonObject synthesizeLinkedEditSuggestion(String file, int index) {
+    JsonObject object = new JsonObject();
+    object.add("value", new JsonPrimitive("value" + index));
+    object.add("kind", new JsonPrimitive(LINKED_EDIT_SUGGESTION_KIND[index % LINKED_EDIT_SUGGESTION_KIND.length]));
+    return object;
+  }
+
+  private JsonObject synthesizeLocation(String file, int index) {
+    JsonObject object = new JsonObject();
+    object.add("file", new JsonPrimitive(file));
+    object.add("offset", new JsonPrimitive(index * 10));
+    object.add("length", new JsonPrimitive(5));
+    object.add("startLine", new JsonPrimitive(index + 1));
+    object.add("startColumn", new JsonPrimitive(1));
+    return object;
+  }
+
+  private JsonObject synthesizeNavigationRegion(String file, int index) {
+    JsonObject object = new JsonObject();
+    object.add("offset", new JsonPrimitive(index * 10));
+    object.add("length", new JsonPrimitive(5));
+    JsonArray jsonArrayTargets = new JsonArray();
+    for (int i = 0; i < nested; i++) {
+      jsonArrayTargets.add(new JsonPrimitive(i));
+    }
+    object.add("targets", jsonArrayTargets);
+    return object;
+  }
+
+  private JsonObject synthesizeNavigationTarget(String file, int index) {
+    JsonObject object = new JsonObject();
+    object.add("kind", new JsonPrimitive(ELEMENT_KIND[index % ELEMENT_KIND.length]));
+    object.add("fileIndex", new JsonPrimitive(index));
+    object.add("offset", new JsonPrimitive(index * 10));
+    object.add("length", new JsonPrimitive(5));
+    object.add("startLine", new JsonPrimitive(index + 1));
+    object.add("startColumn", new JsonPrimitive(1));
+    return object;
+  }
+
+  private JsonObject synthesizeNotification(String event, String file, String id, int index) {
+    if (event.equals("server.connected")) {
+      JsonObject params = new JsonObject();
+      params.add("version", new JsonPrimitive(VERSION));
+      return params;
+    }
+    if (event.equals("server.error")) {
+      JsonObject params = new JsonObject();
+      params.add("isFatal", new JsonPrimitive(index % 2 == 0));
+      params.add("message", new JsonPrimitive("message" + index));
+      params.add("stackTrace", new JsonPrimitive("stackTrace" + index));
+      return params;
+    }
+    if (event.equals("server.status")) {
+      JsonObject params = new JsonObject();
+      params.add("analysis", synthesizeAnalysisStatus(file, index));
+      params.add("pub", synthesizePubStatus(file, index));
+      return params;
+    }
+    if (event.equals("analysis.errors")) {
+      JsonObject params = new JsonObject();
+      params.add("file", new JsonPrimitive(file));
+      JsonArray jsonArrayErrors = new JsonArray();
+      for (int i = 0; i < regions; i++) {
+        jsonArrayErrors.add(synthesizeAnalysisError(file, i));
+      }
+      params.add("errors", jsonArrayErrors);
+      return params;
+    }
+    if (event.equals("analysis.flushResults")) {
+      JsonObject params = new JsonObject();
+      JsonArray jsonArrayFiles = new JsonArray();
+      for (int i = 0; i < regions; i++) {
+        jsonArrayFiles.add(new JsonPrimitive(file));
+      }
+      params.add("files", jsonArrayFiles);
+      return params;
+    }
+    if (event.equals("analysis.folding")) {
+      JsonObject params = new JsonObject();
+      params.add("file", new JsonPrimitive(file));
+      JsonArray jsonArrayRegions = new JsonArray();
+      for (int i = 0; i < regions; i++) {
+        jsonArrayRegions.add(synthesizeFoldingRegion(file, i));
+      }
+      params.add("regions", jsonArrayRegions);
+      return params;
+    }
+    if (event.equals("analysis.highlights")) {
+      JsonObject params = new JsonObject();
+      params.add("file", new JsonPrimitive(file));
+      JsonArray jsonArrayRegions = new JsonArray();
+      for (int i = 0; i < regions; i++) {
+        jsonArrayRegions.add(synthesizeHighlightRegion(file, i));
+      }
+      params.add("regions", jsonArrayRegions);
+      return params;
+    }
+    if (event.equals("analysis.invalidate")) {
+      JsonObject params = new JsonObject();
+      params.add("file", new JsonPrimitive(file));
+      params.add("offset", new JsonPrimitive(index * 10));
+      params.add("length", new JsonPrimitive(5));
+      params.add("delta", new JsonPrimitive(index));
+      return params;
+    }
+    if (event.equals("analysis.navigation")) {
+      JsonObject params = new JsonObject();
+      params.add("file", new JsonPrimitive(file));
+      JsonArray jsonArrayRegions = new JsonArray();
+      for (int i = 0; i < regions; i++) {
+        jsonArrayRegions.add(synthesizeNavigationRegion(file, i));
+      }
+      params.add("regions", jsonArrayRegions);
+      JsonArray jsonArrayTargets = new JsonArray();
+      for (int i = 0; i < regions; i++) {
+        jsonArrayTargets.add(synthesizeNavigationTarget(file, i));
+      }
+      params.add("targets", jsonArrayTargets);
+      JsonArray jsonArrayFiles = new JsonArray();
+      for (int i = 0; i < regions; i++) {
+        jsonArrayFiles.add(new JsonPrimitive(file));
+      }
+      params.add("files", jsonArrayFiles);
+      return params;
+    }
+    if (event.equals("analysis.occurrences")) {
+      JsonObject params = new JsonObject();
+      params.add("file", new JsonPrimitive(file));
+      JsonArray jsonArrayOccurrences = new JsonArray();
+      for (int i = 0; i < regions; i++) {
+        jsonArrayOccurrences.add(synthesizeOccurrences(file, i));
+      }
+      params.add("occurrences", jsonArrayOccurrences);
+      return params;
+    }
+    if (event.equals("analysis.outline")) {
+      JsonObject params = new JsonObject();
+      params.add("file", new JsonPrimitive(file));
+      params.add("outline", synthesizeOutline(file, index));
+      return params;
+    }
+    if (event.equals("analysis.overrides")) {
+      JsonObject params = new JsonObject();
+      params.add("file", new JsonPrimitive(file));
+      JsonArray jsonArrayOverrides = new JsonArray();
+      for (int i = 0; i < regions; i++) {
+        jsonArrayOverrides.add(synthesizeOverride(file, i));
+      }
+      params.add("overrides", jsonArrayOverrides);
+      return params;
+    }
+    if (event.equals("completion.results")) {
+      JsonObject params = new JsonObject();
+      params.add("id", new JsonPrimitive(id));
+      params.add("replacementOffset", new JsonPrimitive(index * 10));
+      params.add("replacementLength", new JsonPrimitive(5));
+      JsonArray jsonArrayResults = new JsonArray();
+      for (int i = 0; i < suggestions; i++) {
+        jsonArrayResults.add(synthesizeCompletionSuggestion(file, i));
+      }
+      params.add("results", jsonArrayResults);
+      params.add("isLast", new JsonPrimitive(true));
+      return params;
+    }
+    if (event.equals("search.results")) {
+      JsonObject params = new JsonObject();
+      params.add("id", new JsonPrimitive(id));
+      JsonArray jsonArrayResults = new JsonArray();
+      for (int i = 0; i < results; i++) {
+        jsonArrayResults.add(synthesizeSearchResult(file, i));
+      }
+      params.add("results", jsonArrayResults);
+      params.add("isLast", new JsonPrimitive(true));
+      return params;
+    }
+    if (event.equals("execution.launchData")) {
+      JsonObject params = new JsonObject();
+      params.add("file", new JsonPrimitive(file));
+      params.add("kind", new JsonPrimitive(EXECUTABLE_KIND[index % EXECUTABLE_KIND.length]));
+      JsonArray jsonArrayReferencedFiles = new JsonArray();
+      for (int i = 0; i < regions; i++) {
+        jsonArrayReferencedFiles.add(new JsonPrimitive(file));
+      }
+      params.add("referencedFiles", jsonArrayReferencedFiles);
+      return params;
+    }
+    return new JsonObject();
+  }
+
+  private JsonObject synthesizeOccurrences(String file, int index) {
+    JsonObject object = new JsonObject();
+    object.add("element", synthesizeElement(file, index));
+    JsonArray jsonArrayOffsets = new JsonArray();
+    for (int i = 0; i < nested; i++) {
+      jsonArrayOffsets.add(new JsonPrimitive(i));
+    }
+    object.add("offsets", jsonArrayOffsets);
+    object.add("length", new JsonPrimitive(5));
+    return object;
+  }
+
+  private JsonObject synthesizeOutline(String file, int index) {
+    JsonObject object = new JsonObject();
+    object.add("element", synthesizeElement(file, index));
+    object.add("offset", new JsonPrimitive(index * 10));
+    object.add("length", new JsonPrimitive(5));
+    return object;
+  }
+
+  private JsonObject synthesizeOverride(String file, int index) {
+    JsonObject object = new JsonObject();
+    object.add("offset", new JsonPrimitive(index * 10));
+    object.add("length", new JsonPrimitive(5));
+    return object;
+  }
+
+  private JsonObject synthesizePosition(String file, int index) {
+    JsonObject object = new JsonObject();
+    object.add("file", new JsonPrimitive(file));
+    object.add("offset", new JsonPrimitive(index * 10));
+    return object;
+  }
+
+  private JsonObject synthesizePubStatus(String file, int index) {
+    JsonObject object = new JsonObject();
+    object.add("isListingPackageDirs", new JsonPrimitive(index % 2 == 0));
+    return object;
+  }
+
+  private JsonObject synthesizeRefactoringFeedback(String file, int index) {
+    JsonObject object = new JsonObject();
+    return object;
+  }
+
+  private JsonObject synthesizeRefactoringProblem(String file, int index) {
+    JsonObject object = new JsonObject();
+    object.add("severity", new JsonPrimitive(REFACTORING_PROBLEM_SEVERITY[index % REFACTORING_PROBLEM_SEVERITY.length]));
+    object.add("message", new JsonPrimitive("message" + index));
+    return object;
+  }
+
+  private JsonObject synthesizeSearchResult(String file, int index) {
+    JsonObject object = new JsonObject();
+    object.add("location", synthesizeLocation(file, index));
+    object.add("kind", new JsonPrimitive(SEARCH_RESULT_KIND[index % SEARCH_RESULT_KIND.length]));
+    object.add("isPotential", new JsonPrimitive(index % 2 == 0));
+    JsonArray jsonArrayPath = new JsonArray();
+    for (int i = 0; i < nested; i++) {
+      jsonArrayPath.add(synthesizeElement(file, i));
+    }
+    object.add("path", jsonArrayPath);
+    return object;
+  }
+
+  private JsonObject synthesizeSourceChange(String file, int index) {
+    JsonObject object = new JsonObject();
+    object.add("message", new JsonPrimitive("message" + index));
+    JsonArray jsonArrayEdits = new JsonArray();
+    for (int i = 0; i < nested; i++) {
+      jsonArrayEdits.add(synthesizeSourceFileEdit(file, i));
+    }
+    object.add("edits", jsonArrayEdits);
+    JsonArray jsonArrayLinkedEditGroups = new JsonArray();
+    for (int i = 0; i < nested; i++) {
+      jsonArrayLinkedEditGroups.add(synthesizeLinkedEditGroup(file, i));
+    }
+    object.add("linkedEditGroups", jsonArrayLinkedEditGroups);
+    return object;
+  }
+
+  private JsonObject synthesizeSourceEdit(String file, int index) {
+    JsonObject object = new JsonObject();
+    object.add("offset", new JsonPrimitive(index * 10));
+    object.add("length", new JsonPrimitive(5));
+    object.add("replacement", new JsonPrimitive("replacement" + index));
+    return object;
+  }
+
+  private JsonObject synthesizeSourceFileEdit(String file, int index) {
+    JsonObject object = new JsonObject();
+    object.add("file", new JsonPrimitive(file));
+    object.add("fileStamp", new JsonPrimitive((long) index));
+    JsonArray jsonArrayEdits = new JsonArray();
+    for (int i = nested - 1; i >= 0; i--) {
+      jsonArrayEdits.add(synthesizeSourceEdit(file, i));
+    }
+    object.add("edits", jsonArrayEdits);
+    return object;
+  }
+
+  private JsonObject synthesizeTypeHierarchyItem(String file, int index) {
+    JsonObject object = new JsonObject();
+    object.add("classElement", synthesizeElement(file, index));
+    JsonArray jsonArrayInterfaces = new JsonArray();
+    for (int i = 0; i < nested; i++) {
+      jsonArrayInterfaces.add(new JsonPrimitive(i));
+    }
+    object.add("interfaces", jsonArrayInterfaces);
+    JsonArray jsonArrayMixins = new JsonArray();
+    for (int i = 0; i < nested; i++) {
+      jsonArrayMixins.add(new JsonPrimitive(i));
+    }
+    object.add("mixins", jsonArrayMixins);
+    JsonArray jsonArraySubclasses = new JsonArray();
+    for (int i = 0; i < nested; i++) {
+      jsonArraySubclasses.add(new JsonPrimitive(i));
+    }
+    object.add("subclasses", jsonArraySubclasses);
+    return object;
+  }
+
+}
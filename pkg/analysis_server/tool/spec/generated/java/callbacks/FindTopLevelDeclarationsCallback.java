@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * This file has been automatically generated.  Please do not edit it manually.
+ * To regenerate the file, use the script "pkg/analysis_server/tool/spec/generate_files".
+ */
+package com.google.dart.server.generated.callbacks;
+
+/**
+ * The interface {@code FindTopLevelDeclarationsCallback} defines the behavior of objects that
+ * receive the responses to {@code search.findTopLevelDeclarations} requests.
+ *
+ * @coverage dart.server
+ */
+public interface FindTopLevelDeclarationsCallback extends RequestCallback {
+
+  /**
+   * The request has succeeded with the given result.
+   */
+  public void onResponse(String id);
+
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * This file has been automatically generated.  Please do not edit it manually.
+ * To regenerate the file, use the script "pkg/analysis_server/tool/spec/generate_files".
+ */
+package com.google.dart.server.generated.callbacks;
+
+import org.dartlang.analysis.server.protocol.RequestError;
+
+/**
+ * The interface {@code RequestCallback} defines the behavior common to the objects that receive the
+ * response to a request sent by the classes built on top of {@code AnalysisServer}. Exactly one of
+ * the methods of a callback is invoked for each request: {@code onResponse} with the result of the
+ * request if it succeeds, or {@link #onError} if it fails. Callbacks are converted to and from the
+ * consumers of the client by {@code ClientCallbacks}.
+ *
+ * @coverage dart.server
+ */
+public interface RequestCallback {
+
+  /**
+   * The request has failed with the given error.
+   */
+  public void onError(RequestError requestError);
+
+}
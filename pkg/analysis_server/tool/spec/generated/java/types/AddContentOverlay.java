@@ -19,6 +19,7 @@ package org.dartlang.analysis.server.protocol;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.dart.server.utilities.general.JsonUtilities;
 import com.google.dart.server.utilities.general.ObjectUtilities;
@@ -26,7 +27,6 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -45,7 +45,7 @@ public class AddContentOverlay {
 
   public static final AddContentOverlay[] EMPTY_ARRAY = new AddContentOverlay[0];
 
-  public static final List<AddContentOverlay> EMPTY_LIST = Lists.newArrayList();
+  public static final List<AddContentOverlay> EMPTY_LIST = ImmutableList.of();
 
   private final String type;
 
@@ -54,6 +54,11 @@ public class AddContentOverlay {
    */
   private final String content;
 
+  /**
+   * The hash code of this object, or {@code 0} if it has not been computed yet.
+   */
+  private int cachedHashCode;
+
   /**
    * Constructor for {@link AddContentOverlay}.
    */
@@ -66,6 +71,9 @@ public class AddContentOverlay {
   public boolean equals(Object obj) {
     if (obj instanceof AddContentOverlay) {
       AddContentOverlay other = (AddContentOverlay) obj;
+      if (cachedHashCode != 0 && other.cachedHashCode != 0 && cachedHashCode != other.cachedHashCode) {
+        return false;
+      }
       return
         ObjectUtilities.equals(other.type, type) &&
         ObjectUtilities.equals(other.content, content);
@@ -80,15 +88,14 @@ public class AddContentOverlay {
   }
 
   public static List<AddContentOverlay> fromJsonArray(JsonArray jsonArray) {
-    if (jsonArray == null) {
+    if (jsonArray == null || jsonArray.size() == 0) {
       return EMPTY_LIST;
     }
-    ArrayList<AddContentOverlay> list = new ArrayList<AddContentOverlay>(jsonArray.size());
-    Iterator<JsonElement> iterator = jsonArray.iterator();
-    while (iterator.hasNext()) {
-      list.add(fromJson(iterator.next().getAsJsonObject()));
+    ImmutableList.Builder<AddContentOverlay> builder = ImmutableList.builder();
+    for (JsonElement element : jsonArray) {
+      builder.add(fromJson(element.getAsJsonObject()));
     }
-    return list;
+    return builder.build();
   }
 
   /**
@@ -104,10 +111,14 @@ public class AddContentOverlay {
 
   @Override
   public int hashCode() {
-    HashCodeBuilder builder = new HashCodeBuilder();
-    builder.append(type);
-    builder.append(content);
-    return builder.toHashCode();
+    int hash = cachedHashCode;
+    if (hash == 0) {
+      hash = 1;
+      hash = hash * 31 + (type == null ? 0 : type.hashCode());
+      hash = hash * 31 + (content == null ? 0 : content.hashCode());
+      cachedHashCode = hash;
+    }
+    return hash;
   }
 
   public JsonObject toJson() {
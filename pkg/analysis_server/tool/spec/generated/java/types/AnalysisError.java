@@ -19,6 +19,7 @@ package org.dartlang.analysis.server.protocol;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.dart.server.utilities.general.JsonUtilities;
 import com.google.dart.server.utilities.general.ObjectUtilities;
@@ -26,7 +27,6 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -41,7 +41,7 @@ public class AnalysisError {
 
   public static final AnalysisError[] EMPTY_ARRAY = new AnalysisError[0];
 
-  public static final List<AnalysisError> EMPTY_LIST = Lists.newArrayList();
+  public static final List<AnalysisError> EMPTY_LIST = ImmutableList.of();
 
   /**
    * The severity of the error.
@@ -71,6 +71,11 @@ public class AnalysisError {
    */
   private final String correction;
 
+  /**
+   * The hash code of this object, or {@code 0} if it has not been computed yet.
+   */
+  private int cachedHashCode;
+
   /**
    * Constructor for {@link AnalysisError}.
    */
@@ -86,6 +91,9 @@ public class AnalysisError {
   public boolean equals(Object obj) {
     if (obj instanceof AnalysisError) {
       AnalysisError other = (AnalysisError) obj;
+      if (cachedHashCode != 0 && other.cachedHashCode != 0 && cachedHashCode != other.cachedHashCode) {
+        return false;
+      }
       return
         ObjectUtilities.equals(other.severity, severity) &&
         ObjectUtilities.equals(other.type, type) &&
@@ -106,15 +114,14 @@ public class AnalysisError {
   }
 
   public static List<AnalysisError> fromJsonArray(JsonArray jsonArray) {
-    if (jsonArray == null) {
+    if (jsonArray == null || jsonArray.size() == 0) {
       return EMPTY_LIST;
     }
-    ArrayList<AnalysisError> list = new ArrayList<AnalysisError>(jsonArray.size());
-    Iterator<JsonElement> iterator = jsonArray.iterator();
-    while (iterator.hasNext()) {
-      list.add(fromJson(iterator.next().getAsJsonObject()));
+    ImmutableList.Builder<AnalysisError> builder = ImmutableList.builder();
+    for (JsonElement element : jsonArray) {
+      builder.add(fromJson(element.getAsJsonObject()));
     }
-    return list;
+    return builder.build();
   }
 
   /**
@@ -157,13 +164,17 @@ public class AnalysisError {
 
   @Override
   public int hashCode() {
-    HashCodeBuilder builder = new HashCodeBuilder();
-    builder.append(severity);
-    builder.append(type);
-    builder.append(location);
-    builder.append(message);
-    builder.append(correction);
-    return builder.toHashCode();
+    int hash = cachedHashCode;
+    if (hash == 0) {
+      hash = 1;
+      hash = hash * 31 + (severity == null ? 0 : severity.hashCode());
+      hash = hash * 31 + (type == null ? 0 : type.hashCode());
+      hash = hash * 31 + (location == null ? 0 : location.hashCode());
+      hash = hash * 31 + (message == null ? 0 : message.hashCode());
+      hash = hash * 31 + (correction == null ? 0 : correction.hashCode());
+      cachedHashCode = hash;
+    }
+    return hash;
   }
 
   public JsonObject toJson() {
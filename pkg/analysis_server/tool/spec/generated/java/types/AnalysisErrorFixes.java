@@ -19,6 +19,7 @@ package org.dartlang.analysis.server.protocol;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.dart.server.utilities.general.JsonUtilities;
 import com.google.dart.server.utilities.general.ObjectUtilities;
@@ -26,7 +27,6 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -41,7 +41,7 @@ public class AnalysisErrorFixes {
 
   public static final AnalysisErrorFixes[] EMPTY_ARRAY = new AnalysisErrorFixes[0];
 
-  public static final List<AnalysisErrorFixes> EMPTY_LIST = Lists.newArrayList();
+  public static final List<AnalysisErrorFixes> EMPTY_LIST = ImmutableList.of();
 
   /**
    * The error with which the fixes are associated.
@@ -79,15 +79,14 @@ public class AnalysisErrorFixes {
   }
 
   public static List<AnalysisErrorFixes> fromJsonArray(JsonArray jsonArray) {
-    if (jsonArray == null) {
+    if (jsonArray == null || jsonArray.size() == 0) {
       return EMPTY_LIST;
     }
-    ArrayList<AnalysisErrorFixes> list = new ArrayList<AnalysisErrorFixes>(jsonArray.size());
-    Iterator<JsonElement> iterator = jsonArray.iterator();
-    while (iterator.hasNext()) {
-      list.add(fromJson(iterator.next().getAsJsonObject()));
+    ImmutableList.Builder<AnalysisErrorFixes> builder = ImmutableList.builder();
+    for (JsonElement element : jsonArray) {
+      builder.add(fromJson(element.getAsJsonObject()));
     }
-    return list;
+    return builder.build();
   }
 
   /**
@@ -106,10 +105,10 @@ public class AnalysisErrorFixes {
 
   @Override
   public int hashCode() {
-    HashCodeBuilder builder = new HashCodeBuilder();
-    builder.append(error);
-    builder.append(fixes);
-    return builder.toHashCode();
+    int hash = 1;
+    hash = hash * 31 + (error == null ? 0 : error.hashCode());
+    hash = hash * 31 + (fixes == null ? 0 : fixes.hashCode());
+    return hash;
   }
 
   public JsonObject toJson() {
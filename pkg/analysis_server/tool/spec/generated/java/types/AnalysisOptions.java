@@ -19,6 +19,7 @@ package org.dartlang.analysis.server.protocol;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.dart.server.utilities.general.JsonUtilities;
 import com.google.dart.server.utilities.general.ObjectUtilities;
@@ -26,7 +27,6 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -42,7 +42,7 @@ public class AnalysisOptions {
 
   public static final AnalysisOptions[] EMPTY_ARRAY = new AnalysisOptions[0];
 
-  public static final List<AnalysisOptions> EMPTY_LIST = Lists.newArrayList();
+  public static final List<AnalysisOptions> EMPTY_LIST = ImmutableList.of();
 
   /**
    * Deprecated
@@ -86,6 +86,11 @@ public class AnalysisOptions {
    */
   private final Boolean generateLints;
 
+  /**
+   * The hash code of this object, or {@code 0} if it has not been computed yet.
+   */
+  private int cachedHashCode;
+
   /**
    * Constructor for {@link AnalysisOptions}.
    */
@@ -103,6 +108,9 @@ public class AnalysisOptions {
   public boolean equals(Object obj) {
     if (obj instanceof AnalysisOptions) {
       AnalysisOptions other = (AnalysisOptions) obj;
+      if (cachedHashCode != 0 && other.cachedHashCode != 0 && cachedHashCode != other.cachedHashCode) {
+        return false;
+      }
       return
         ObjectUtilities.equals(other.enableAsync, enableAsync) &&
         ObjectUtilities.equals(other.enableDeferredLoading, enableDeferredLoading) &&
@@ -127,15 +135,14 @@ public class AnalysisOptions {
   }
 
   public static List<AnalysisOptions> fromJsonArray(JsonArray jsonArray) {
-    if (jsonArray == null) {
+    if (jsonArray == null || jsonArray.size() == 0) {
       return EMPTY_LIST;
     }
-    ArrayList<AnalysisOptions> list = new ArrayList<AnalysisOptions>(jsonArray.size());
-    Iterator<JsonElement> iterator = jsonArray.iterator();
-    while (iterator.hasNext()) {
-      list.add(fromJson(iterator.next().getAsJsonObject()));
+    ImmutableList.Builder<AnalysisOptions> builder = ImmutableList.builder();
+    for (JsonElement element : jsonArray) {
+      builder.add(fromJson(element.getAsJsonObject()));
     }
-    return list;
+    return builder.build();
   }
 
   /**
@@ -196,15 +203,19 @@ public class AnalysisOptions {
 
   @Override
   public int hashCode() {
-    HashCodeBuilder builder = new HashCodeBuilder();
-    builder.append(enableAsync);
-    builder.append(enableDeferredLoading);
-    builder.append(enableEnums);
-    builder.append(enableNullAwareOperators);
-    builder.append(generateDart2jsHints);
-    builder.append(generateHints);
-    builder.append(generateLints);
-    return builder.toHashCode();
+    int hash = cachedHashCode;
+    if (hash == 0) {
+      hash = 1;
+      hash = hash * 31 + (enableAsync == null ? 0 : enableAsync.hashCode());
+      hash = hash * 31 + (enableDeferredLoading == null ? 0 : enableDeferredLoading.hashCode());
+      hash = hash * 31 + (enableEnums == null ? 0 : enableEnums.hashCode());
+      hash = hash * 31 + (enableNullAwareOperators == null ? 0 : enableNullAwareOperators.hashCode());
+      hash = hash * 31 + (generateDart2jsHints == null ? 0 : generateDart2jsHints.hashCode());
+      hash = hash * 31 + (generateHints == null ? 0 : generateHints.hashCode());
+      hash = hash * 31 + (generateLints == null ? 0 : generateLints.hashCode());
+      cachedHashCode = hash;
+    }
+    return hash;
   }
 
   public JsonObject toJson() {
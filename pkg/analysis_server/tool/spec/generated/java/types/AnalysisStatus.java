@@ -19,6 +19,7 @@ package org.dartlang.analysis.server.protocol;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.dart.server.utilities.general.JsonUtilities;
 import com.google.dart.server.utilities.general.ObjectUtilities;
@@ -26,7 +27,6 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -41,7 +41,7 @@ public class AnalysisStatus {
 
   public static final AnalysisStatus[] EMPTY_ARRAY = new AnalysisStatus[0];
 
-  public static final List<AnalysisStatus> EMPTY_LIST = Lists.newArrayList();
+  public static final List<AnalysisStatus> EMPTY_LIST = ImmutableList.of();
 
   /**
    * True if analysis is currently being performed.
@@ -53,6 +53,11 @@ public class AnalysisStatus {
    */
   private final String analysisTarget;
 
+  /**
+   * The hash code of this object, or {@code 0} if it has not been computed yet.
+   */
+  private int cachedHashCode;
+
   /**
    * Constructor for {@link AnalysisStatus}.
    */
@@ -65,6 +70,9 @@ public class AnalysisStatus {
   public boolean equals(Object obj) {
     if (obj instanceof AnalysisStatus) {
       AnalysisStatus other = (AnalysisStatus) obj;
+      if (cachedHashCode != 0 && other.cachedHashCode != 0 && cachedHashCode != other.cachedHashCode) {
+        return false;
+      }
       return
         other.isAnalyzing == isAnalyzing &&
         ObjectUtilities.equals(other.analysisTarget, analysisTarget);
@@ -79,15 +87,14 @@ public class AnalysisStatus {
   }
 
   public static List<AnalysisStatus> fromJsonArray(JsonArray jsonArray) {
-    if (jsonArray == null) {
+    if (jsonArray == null || jsonArray.size() == 0) {
       return EMPTY_LIST;
     }
-    ArrayList<AnalysisStatus> list = new ArrayList<AnalysisStatus>(jsonArray.size());
-    Iterator<JsonElement> iterator = jsonArray.iterator();
-    while (iterator.hasNext()) {
-      list.add(fromJson(iterator.next().getAsJsonObject()));
+    ImmutableList.Builder<AnalysisStatus> builder = ImmutableList.builder();
+    for (JsonElement element : jsonArray) {
+      builder.add(fromJson(element.getAsJsonObject()));
     }
-    return list;
+    return builder.build();
   }
 
   /**
@@ -106,10 +113,14 @@ public class AnalysisStatus {
 
   @Override
   public int hashCode() {
-    HashCodeBuilder builder = new HashCodeBuilder();
-    builder.append(isAnalyzing);
-    builder.append(analysisTarget);
-    return builder.toHashCode();
+    int hash = cachedHashCode;
+    if (hash == 0) {
+      hash = 1;
+      hash = hash * 31 + (isAnalyzing ? 1231 : 1237);
+      hash = hash * 31 + (analysisTarget == null ? 0 : analysisTarget.hashCode());
+      cachedHashCode = hash;
+    }
+    return hash;
   }
 
   public JsonObject toJson() {
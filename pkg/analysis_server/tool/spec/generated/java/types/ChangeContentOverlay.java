@@ -19,6 +19,7 @@ package org.dartlang.analysis.server.protocol;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.dart.server.utilities.general.JsonUtilities;
 import com.google.dart.server.utilities.general.ObjectUtilities;
@@ -26,7 +27,6 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -51,7 +51,7 @@ public class ChangeContentOverlay {
 
   public static final ChangeContentOverlay[] EMPTY_ARRAY = new ChangeContentOverlay[0];
 
-  public static final List<ChangeContentOverlay> EMPTY_LIST = Lists.newArrayList();
+  public static final List<ChangeContentOverlay> EMPTY_LIST = ImmutableList.of();
 
   private final String type;
 
@@ -86,15 +86,14 @@ public class ChangeContentOverlay {
   }
 
   public static List<ChangeContentOverlay> fromJsonArray(JsonArray jsonArray) {
-    if (jsonArray == null) {
+    if (jsonArray == null || jsonArray.size() == 0) {
       return EMPTY_LIST;
     }
-    ArrayList<ChangeContentOverlay> list = new ArrayList<ChangeContentOverlay>(jsonArray.size());
-    Iterator<JsonElement> iterator = jsonArray.iterator();
-    while (iterator.hasNext()) {
-      list.add(fromJson(iterator.next().getAsJsonObject()));
+    ImmutableList.Builder<ChangeContentOverlay> builder = ImmutableList.builder();
+    for (JsonElement element : jsonArray) {
+      builder.add(fromJson(element.getAsJsonObject()));
     }
-    return list;
+    return builder.build();
   }
 
   /**
@@ -110,10 +109,10 @@ public class ChangeContentOverlay {
 
   @Override
   public int hashCode() {
-    HashCodeBuilder builder = new HashCodeBuilder();
-    builder.append(type);
-    builder.append(edits);
-    return builder.toHashCode();
+    int hash = 1;
+    hash = hash * 31 + (type == null ? 0 : type.hashCode());
+    hash = hash * 31 + (edits == null ? 0 : edits.hashCode());
+    return hash;
   }
 
   public JsonObject toJson() {
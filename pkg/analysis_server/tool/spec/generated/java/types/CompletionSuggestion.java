@@ -19,6 +19,7 @@ package org.dartlang.analysis.server.protocol;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.dart.server.utilities.general.JsonUtilities;
 import com.google.dart.server.utilities.general.ObjectUtilities;
@@ -26,7 +27,6 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -42,7 +42,7 @@ public class CompletionSuggestion {
 
   public static final CompletionSuggestion[] EMPTY_ARRAY = new CompletionSuggestion[0];
 
-  public static final List<CompletionSuggestion> EMPTY_LIST = Lists.newArrayList();
+  public static final List<CompletionSuggestion> EMPTY_LIST = ImmutableList.of();
 
   /**
    * The kind of element being suggested.
@@ -220,8 +220,8 @@ public class CompletionSuggestion {
     String declaringType = jsonObject.get("declaringType") == null ? null : jsonObject.get("declaringType").getAsString();
     Element element = jsonObject.get("element") == null ? null : Element.fromJson(jsonObject.get("element").getAsJsonObject());
     String returnType = jsonObject.get("returnType") == null ? null : jsonObject.get("returnType").getAsString();
-    List<String> parameterNames = jsonObject.get("parameterNames") == null ? null : JsonUtilities.decodeStringList(jsonObject.get("parameterNames").getAsJsonArray());
-    List<String> parameterTypes = jsonObject.get("parameterTypes") == null ? null : JsonUtilities.decodeStringList(jsonObject.get("parameterTypes").getAsJsonArray());
+    List<String> parameterNames = jsonObject.get("parameterNames") == null ? null : decodeStringList(jsonObject.get("parameterNames").getAsJsonArray());
+    List<String> parameterTypes = jsonObject.get("parameterTypes") == null ? null : decodeStringList(jsonObject.get("parameterTypes").getAsJsonArray());
     Integer requiredParameterCount = jsonObject.get("requiredParameterCount") == null ? null : jsonObject.get("requiredParameterCount").getAsInt();
     Boolean hasNamedParameters = jsonObject.get("hasNamedParameters") == null ? null : jsonObject.get("hasNamedParameters").getAsBoolean();
     String parameterName = jsonObject.get("parameterName") == null ? null : jsonObject.get("parameterName").getAsString();
@@ -231,15 +231,14 @@ public class CompletionSuggestion {
   }
 
   public static List<CompletionSuggestion> fromJsonArray(JsonArray jsonArray) {
-    if (jsonArray == null) {
+    if (jsonArray == null || jsonArray.size() == 0) {
       return EMPTY_LIST;
     }
-    ArrayList<CompletionSuggestion> list = new ArrayList<CompletionSuggestion>(jsonArray.size());
-    Iterator<JsonElement> iterator = jsonArray.iterator();
-    while (iterator.hasNext()) {
-      list.add(fromJson(iterator.next().getAsJsonObject()));
+    ImmutableList.Builder<CompletionSuggestion> builder = ImmutableList.builder();
+    for (JsonElement element : jsonArray) {
+      builder.add(fromJson(element.getAsJsonObject()));
     }
-    return list;
+    return builder.build();
   }
 
   /**
@@ -392,27 +391,27 @@ public class CompletionSuggestion {
 
   @Override
   public int hashCode() {
-    HashCodeBuilder builder = new HashCodeBuilder();
-    builder.append(kind);
-    builder.append(relevance);
-    builder.append(completion);
-    builder.append(selectionOffset);
-    builder.append(selectionLength);
-    builder.append(isDeprecated);
-    builder.append(isPotential);
-    builder.append(docSummary);
-    builder.append(docComplete);
-    builder.append(declaringType);
-    builder.append(element);
-    builder.append(returnType);
-    builder.append(parameterNames);
-    builder.append(parameterTypes);
-    builder.append(requiredParameterCount);
-    builder.append(hasNamedParameters);
-    builder.append(parameterName);
-    builder.append(parameterType);
-    builder.append(importUri);
-    return builder.toHashCode();
+    int hash = 1;
+    hash = hash * 31 + (kind == null ? 0 : kind.hashCode());
+    hash = hash * 31 + relevance;
+    hash = hash * 31 + (completion == null ? 0 : completion.hashCode());
+    hash = hash * 31 + selectionOffset;
+    hash = hash * 31 + selectionLength;
+    hash = hash * 31 + (isDeprecated ? 1231 : 1237);
+    hash = hash * 31 + (isPotential ? 1231 : 1237);
+    hash = hash * 31 + (docSummary == null ? 0 : docSummary.hashCode());
+    hash = hash * 31 + (docComplete == null ? 0 : docComplete.hashCode());
+    hash = hash * 31 + (declaringType == null ? 0 : declaringType.hashCode());
+    hash = hash * 31 + (element == null ? 0 : element.hashCode());
+    hash = hash * 31 + (returnType == null ? 0 : returnType.hashCode());
+    hash = hash * 31 + (parameterNames == null ? 0 : parameterNames.hashCode());
+    hash = hash * 31 + (parameterTypes == null ? 0 : parameterTypes.hashCode());
+    hash = hash * 31 + (requiredParameterCount == null ? 0 : requiredParameterCount.hashCode());
+    hash = hash * 31 + (hasNamedParameters == null ? 0 : hasNamedParameters.hashCode());
+    hash = hash * 31 + (parameterName == null ? 0 : parameterName.hashCode());
+    hash = hash * 31 + (parameterType == null ? 0 : parameterType.hashCode());
+    hash = hash * 31 + (importUri == null ? 0 : importUri.hashCode());
+    return hash;
   }
 
   public JsonObject toJson() {
@@ -517,4 +516,15 @@ public class CompletionSuggestion {
     return builder.toString();
   }
 
+  /**
+   * Return the strings of the given array as an immutable list.
+   */
+  private static List<String> decodeStringList(JsonArray jsonArray) {
+    ImmutableList.Builder<String> builder = ImmutableList.builder();
+    for (JsonElement element : jsonArray) {
+      builder.add(element.getAsString());
+    }
+    return builder.build();
+  }
+
 }
@@ -19,6 +19,7 @@ package org.dartlang.analysis.server.protocol;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.dart.server.utilities.general.JsonUtilities;
 import com.google.dart.server.utilities.general.ObjectUtilities;
@@ -26,7 +27,6 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -41,7 +41,7 @@ public class Element {
 
   public static final Element[] EMPTY_ARRAY = new Element[0];
 
-  public static final List<Element> EMPTY_LIST = Lists.newArrayList();
+  public static final List<Element> EMPTY_LIST = ImmutableList.of();
 
   private static final int ABSTRACT = 0x01;
 
@@ -102,6 +102,11 @@ public class Element {
    */
   private final String typeParameters;
 
+  /**
+   * The hash code of this object, or {@code 0} if it has not been computed yet.
+   */
+  private int cachedHashCode;
+
   /**
    * Constructor for {@link Element}.
    */
@@ -119,6 +124,9 @@ public class Element {
   public boolean equals(Object obj) {
     if (obj instanceof Element) {
       Element other = (Element) obj;
+      if (cachedHashCode != 0 && other.cachedHashCode != 0 && cachedHashCode != other.cachedHashCode) {
+        return false;
+      }
       return
         ObjectUtilities.equals(other.kind, kind) &&
         ObjectUtilities.equals(other.name, name) &&
@@ -143,15 +151,14 @@ public class Element {
   }
 
   public static List<Element> fromJsonArray(JsonArray jsonArray) {
-    if (jsonArray == null) {
+    if (jsonArray == null || jsonArray.size() == 0) {
       return EMPTY_LIST;
     }
-    ArrayList<Element> list = new ArrayList<Element>(jsonArray.size());
-    Iterator<JsonElement> iterator = jsonArray.iterator();
-    while (iterator.hasNext()) {
-      list.add(fromJson(iterator.next().getAsJsonObject()));
+    ImmutableList.Builder<Element> builder = ImmutableList.builder();
+    for (JsonElement element : jsonArray) {
+      builder.add(fromJson(element.getAsJsonObject()));
     }
-    return list;
+    return builder.build();
   }
 
   /**
@@ -217,15 +224,19 @@ public class Element {
 
   @Override
   public int hashCode() {
-    HashCodeBuilder builder = new HashCodeBuilder();
-    builder.append(kind);
-    builder.append(name);
-    builder.append(location);
-    builder.append(flags);
-    builder.append(parameters);
-    builder.append(returnType);
-    builder.append(typeParameters);
-    return builder.toHashCode();
+    int hash = cachedHashCode;
+    if (hash == 0) {
+      hash = 1;
+      hash = hash * 31 + (kind == null ? 0 : kind.hashCode());
+      hash = hash * 31 + (name == null ? 0 : name.hashCode());
+      hash = hash * 31 + (location == null ? 0 : location.hashCode());
+      hash = hash * 31 + flags;
+      hash = hash * 31 + (parameters == null ? 0 : parameters.hashCode());
+      hash = hash * 31 + (returnType == null ? 0 : returnType.hashCode());
+      hash = hash * 31 + (typeParameters == null ? 0 : typeParameters.hashCode());
+      cachedHashCode = hash;
+    }
+    return hash;
   }
 
   public boolean isAbstract() {
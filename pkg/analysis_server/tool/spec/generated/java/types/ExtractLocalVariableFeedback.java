@@ -19,6 +19,7 @@ package org.dartlang.analysis.server.protocol;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.dart.server.utilities.general.JsonUtilities;
 import com.google.dart.server.utilities.general.ObjectUtilities;
@@ -26,7 +27,6 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -39,7 +39,7 @@ public class ExtractLocalVariableFeedback extends RefactoringFeedback {
 
   public static final ExtractLocalVariableFeedback[] EMPTY_ARRAY = new ExtractLocalVariableFeedback[0];
 
-  public static final List<ExtractLocalVariableFeedback> EMPTY_LIST = Lists.newArrayList();
+  public static final List<ExtractLocalVariableFeedback> EMPTY_LIST = ImmutableList.of();
 
   /**
    * The proposed names for the local variable.
@@ -80,22 +80,21 @@ public class ExtractLocalVariableFeedback extends RefactoringFeedback {
   }
 
   public static ExtractLocalVariableFeedback fromJson(JsonObject jsonObject) {
-    List<String> names = JsonUtilities.decodeStringList(jsonObject.get("names").getAsJsonArray());
+    List<String> names = decodeStringList(jsonObject.get("names").getAsJsonArray());
     int[] offsets = JsonUtilities.decodeIntArray(jsonObject.get("offsets").getAsJsonArray());
     int[] lengths = JsonUtilities.decodeIntArray(jsonObject.get("lengths").getAsJsonArray());
     return new ExtractLocalVariableFeedback(names, offsets, lengths);
   }
 
   public static List<ExtractLocalVariableFeedback> fromJsonArray(JsonArray jsonArray) {
-    if (jsonArray == null) {
+    if (jsonArray == null || jsonArray.size() == 0) {
       return EMPTY_LIST;
     }
-    ArrayList<ExtractLocalVariableFeedback> list = new ArrayList<ExtractLocalVariableFeedback>(jsonArray.size());
-    Iterator<JsonElement> iterator = jsonArray.iterator();
-    while (iterator.hasNext()) {
-      list.add(fromJson(iterator.next().getAsJsonObject()));
+    ImmutableList.Builder<ExtractLocalVariableFeedback> builder = ImmutableList.builder();
+    for (JsonElement element : jsonArray) {
+      builder.add(fromJson(element.getAsJsonObject()));
     }
-    return list;
+    return builder.build();
   }
 
   /**
@@ -123,11 +122,11 @@ public class ExtractLocalVariableFeedback extends RefactoringFeedback {
 
   @Override
   public int hashCode() {
-    HashCodeBuilder builder = new HashCodeBuilder();
-    builder.append(names);
-    builder.append(offsets);
-    builder.append(lengths);
-    return builder.toHashCode();
+    int hash = 1;
+    hash = hash * 31 + (names == null ? 0 : names.hashCode());
+    hash = hash * 31 + Arrays.hashCode(offsets);
+    hash = hash * 31 + Arrays.hashCode(lengths);
+    return hash;
   }
 
   public JsonObject toJson() {
@@ -164,4 +163,15 @@ public class ExtractLocalVariableFeedback extends RefactoringFeedback {
     return builder.toString();
   }
 
+  /**
+   * Return the strings of the given array as an immutable list.
+   */
+  private static List<String> decodeStringList(JsonArray jsonArray) {
+    ImmutableList.Builder<String> builder = ImmutableList.builder();
+    for (JsonElement element : jsonArray) {
+      builder.add(element.getAsString());
+    }
+    return builder.build();
+  }
+
 }
@@ -19,6 +19,7 @@ package org.dartlang.analysis.server.protocol;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.dart.server.utilities.general.JsonUtilities;
 import com.google.dart.server.utilities.general.ObjectUtilities;
@@ -26,7 +27,6 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -39,7 +39,7 @@ public class ExtractMethodFeedback extends RefactoringFeedback {
 
   public static final ExtractMethodFeedback[] EMPTY_ARRAY = new ExtractMethodFeedback[0];
 
-  public static final List<ExtractMethodFeedback> EMPTY_LIST = Lists.newArrayList();
+  public static final List<ExtractMethodFeedback> EMPTY_LIST = ImmutableList.of();
 
   /**
    * The offset to the beginning of the expression or statements that will be extracted.
@@ -121,7 +121,7 @@ public class ExtractMethodFeedback extends RefactoringFeedback {
     int offset = jsonObject.get("offset").getAsInt();
     int length = jsonObject.get("length").getAsInt();
     String returnType = jsonObject.get("returnType").getAsString();
-    List<String> names = JsonUtilities.decodeStringList(jsonObject.get("names").getAsJsonArray());
+    List<String> names = decodeStringList(jsonObject.get("names").getAsJsonArray());
     boolean canCreateGetter = jsonObject.get("canCreateGetter").getAsBoolean();
     List<RefactoringMethodParameter> parameters = RefactoringMethodParameter.fromJsonArray(jsonObject.get("parameters").getAsJsonArray());
     int[] offsets = JsonUtilities.decodeIntArray(jsonObject.get("offsets").getAsJsonArray());
@@ -130,15 +130,14 @@ public class ExtractMethodFeedback extends RefactoringFeedback {
   }
 
   public static List<ExtractMethodFeedback> fromJsonArray(JsonArray jsonArray) {
-    if (jsonArray == null) {
+    if (jsonArray == null || jsonArray.size() == 0) {
       return EMPTY_LIST;
     }
-    ArrayList<ExtractMethodFeedback> list = new ArrayList<ExtractMethodFeedback>(jsonArray.size());
-    Iterator<JsonElement> iterator = jsonArray.iterator();
-    while (iterator.hasNext()) {
-      list.add(fromJson(iterator.next().getAsJsonObject()));
+    ImmutableList.Builder<ExtractMethodFeedback> builder = ImmutableList.builder();
+    for (JsonElement element : jsonArray) {
+      builder.add(fromJson(element.getAsJsonObject()));
     }
-    return list;
+    return builder.build();
   }
 
   /**
@@ -204,16 +203,16 @@ public class ExtractMethodFeedback extends RefactoringFeedback {
 
   @Override
   public int hashCode() {
-    HashCodeBuilder builder = new HashCodeBuilder();
-    builder.append(offset);
-    builder.append(length);
-    builder.append(returnType);
-    builder.append(names);
-    builder.append(canCreateGetter);
-    builder.append(parameters);
-    builder.append(offsets);
-    builder.append(lengths);
-    return builder.toHashCode();
+    int hash = 1;
+    hash = hash * 31 + offset;
+    hash = hash * 31 + length;
+    hash = hash * 31 + (returnType == null ? 0 : returnType.hashCode());
+    hash = hash * 31 + (names == null ? 0 : names.hashCode());
+    hash = hash * 31 + (canCreateGetter ? 1231 : 1237);
+    hash = hash * 31 + (parameters == null ? 0 : parameters.hashCode());
+    hash = hash * 31 + Arrays.hashCode(offsets);
+    hash = hash * 31 + Arrays.hashCode(lengths);
+    return hash;
   }
 
   public JsonObject toJson() {
@@ -269,4 +268,15 @@ public class ExtractMethodFeedback extends RefactoringFeedback {
     return builder.toString();
   }
 
+  /**
+   * Return the strings of the given array as an immutable list.
+   */
+  private static List<String> decodeStringList(JsonArray jsonArray) {
+    ImmutableList.Builder<String> builder = ImmutableList.builder();
+    for (JsonElement element : jsonArray) {
+      builder.add(element.getAsString());
+    }
+    return builder.build();
+  }
+
 }
@@ -19,6 +19,7 @@ package org.dartlang.analysis.server.protocol;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.dart.server.utilities.general.JsonUtilities;
 import com.google.dart.server.utilities.general.ObjectUtilities;
@@ -26,7 +27,6 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -39,7 +39,7 @@ public class ExtractMethodOptions extends RefactoringOptions {
 
   public static final ExtractMethodOptions[] EMPTY_ARRAY = new ExtractMethodOptions[0];
 
-  public static final List<ExtractMethodOptions> EMPTY_LIST = Lists.newArrayList();
+  public static final List<ExtractMethodOptions> EMPTY_LIST = ImmutableList.of();
 
   /**
    * The return type that should be defined for the method.
@@ -112,15 +112,14 @@ public class ExtractMethodOptions extends RefactoringOptions {
   }
 
   public static List<ExtractMethodOptions> fromJsonArray(JsonArray jsonArray) {
-    if (jsonArray == null) {
+    if (jsonArray == null || jsonArray.size() == 0) {
       return EMPTY_LIST;
     }
-    ArrayList<ExtractMethodOptions> list = new ArrayList<ExtractMethodOptions>(jsonArray.size());
-    Iterator<JsonElement> iterator = jsonArray.iterator();
-    while (iterator.hasNext()) {
-      list.add(fromJson(iterator.next().getAsJsonObject()));
+    ImmutableList.Builder<ExtractMethodOptions> builder = ImmutableList.builder();
+    for (JsonElement element : jsonArray) {
+      builder.add(fromJson(element.getAsJsonObject()));
     }
-    return list;
+    return builder.build();
   }
 
   /**
@@ -171,13 +170,13 @@ public class ExtractMethodOptions extends RefactoringOptions {
 
   @Override
   public int hashCode() {
-    HashCodeBuilder builder = new HashCodeBuilder();
-    builder.append(returnType);
-    builder.append(createGetter);
-    builder.append(name);
-    builder.append(parameters);
-    builder.append(extractAll);
-    return builder.toHashCode();
+    int hash = 1;
+    hash = hash * 31 + (returnType == null ? 0 : returnType.hashCode());
+    hash = hash * 31 + (createGetter ? 1231 : 1237);
+    hash = hash * 31 + (name == null ? 0 : name.hashCode());
+    hash = hash * 31 + (parameters == null ? 0 : parameters.hashCode());
+    hash = hash * 31 + (extractAll ? 1231 : 1237);
+    return hash;
   }
 
   /**
@@ -19,6 +19,7 @@ package org.dartlang.analysis.server.protocol;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.dart.server.utilities.general.JsonUtilities;
 import com.google.dart.server.utilities.general.ObjectUtilities;
@@ -26,7 +27,6 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -41,7 +41,7 @@ public class FoldingRegion {
 
   public static final FoldingRegion[] EMPTY_ARRAY = new FoldingRegion[0];
 
-  public static final List<FoldingRegion> EMPTY_LIST = Lists.newArrayList();
+  public static final List<FoldingRegion> EMPTY_LIST = ImmutableList.of();
 
   /**
    * The kind of the region.
@@ -58,6 +58,11 @@ public class FoldingRegion {
    */
   private final int length;
 
+  /**
+   * The hash code of this object, or {@code 0} if it has not been computed yet.
+   */
+  private int cachedHashCode;
+
   /**
    * Constructor for {@link FoldingRegion}.
    */
@@ -71,6 +76,9 @@ public class FoldingRegion {
   public boolean equals(Object obj) {
     if (obj instanceof FoldingRegion) {
       FoldingRegion other = (FoldingRegion) obj;
+      if (cachedHashCode != 0 && other.cachedHashCode != 0 && cachedHashCode != other.cachedHashCode) {
+        return false;
+      }
       return
         ObjectUtilities.equals(other.kind, kind) &&
         other.offset == offset &&
@@ -87,15 +95,14 @@ public class FoldingRegion {
   }
 
   public static List<FoldingRegion> fromJsonArray(JsonArray jsonArray) {
-    if (jsonArray == null) {
+    if (jsonArray == null || jsonArray.size() == 0) {
       return EMPTY_LIST;
     }
-    ArrayList<FoldingRegion> list = new ArrayList<FoldingRegion>(jsonArray.size());
-    Iterator<JsonElement> iterator = jsonArray.iterator();
-    while (iterator.hasNext()) {
-      list.add(fromJson(iterator.next().getAsJsonObject()));
+    ImmutableList.Builder<FoldingRegion> builder = ImmutableList.builder();
+    for (JsonElement element : jsonArray) {
+      builder.add(fromJson(element.getAsJsonObject()));
     }
-    return list;
+    return builder.build();
   }
 
   /**
@@ -121,11 +128,15 @@ public class FoldingRegion {
 
   @Override
   public int hashCode() {
-    HashCodeBuilder builder = new HashCodeBuilder();
-    builder.append(kind);
-    builder.append(offset);
-    builder.append(length);
-    return builder.toHashCode();
+    int hash = cachedHashCode;
+    if (hash == 0) {
+      hash = 1;
+      hash = hash * 31 + (kind == null ? 0 : kind.hashCode());
+      hash = hash * 31 + offset;
+      hash = hash * 31 + length;
+      cachedHashCode = hash;
+    }
+    return hash;
   }
 
   public JsonObject toJson() {
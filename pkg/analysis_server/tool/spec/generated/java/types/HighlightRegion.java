@@ -19,6 +19,7 @@ package org.dartlang.analysis.server.protocol;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.dart.server.utilities.general.JsonUtilities;
 import com.google.dart.server.utilities.general.ObjectUtilities;
@@ -26,7 +27,6 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -41,7 +41,7 @@ public class HighlightRegion {
 
   public static final HighlightRegion[] EMPTY_ARRAY = new HighlightRegion[0];
 
-  public static final List<HighlightRegion> EMPTY_LIST = Lists.newArrayList();
+  public static final List<HighlightRegion> EMPTY_LIST = ImmutableList.of();
 
   /**
    * The type of highlight associated with the region.
@@ -58,6 +58,11 @@ public class HighlightRegion {
    */
   private final int length;
 
+  /**
+   * The hash code of this object, or {@code 0} if it has not been computed yet.
+   */
+  private int cachedHashCode;
+
   /**
    * Constructor for {@link HighlightRegion}.
    */
@@ -75,6 +80,9 @@ public class HighlightRegion {
   public boolean equals(Object obj) {
     if (obj instanceof HighlightRegion) {
       HighlightRegion other = (HighlightRegion) obj;
+      if (cachedHashCode != 0 && other.cachedHashCode != 0 && cachedHashCode != other.cachedHashCode) {
+        return false;
+      }
       return
         ObjectUtilities.equals(other.type, type) &&
         other.offset == offset &&
@@ -91,15 +99,14 @@ public class HighlightRegion {
   }
 
   public static List<HighlightRegion> fromJsonArray(JsonArray jsonArray) {
-    if (jsonArray == null) {
+    if (jsonArray == null || jsonArray.size() == 0) {
       return EMPTY_LIST;
     }
-    ArrayList<HighlightRegion> list = new ArrayList<HighlightRegion>(jsonArray.size());
-    Iterator<JsonElement> iterator = jsonArray.iterator();
-    while (iterator.hasNext()) {
-      list.add(fromJson(iterator.next().getAsJsonObject()));
+    ImmutableList.Builder<HighlightRegion> builder = ImmutableList.builder();
+    for (JsonElement element : jsonArray) {
+      builder.add(fromJson(element.getAsJsonObject()));
     }
-    return list;
+    return builder.build();
   }
 
   /**
@@ -125,11 +132,15 @@ public class HighlightRegion {
 
   @Override
   public int hashCode() {
-    HashCodeBuilder builder = new HashCodeBuilder();
-    builder.append(type);
-    builder.append(offset);
-    builder.append(length);
-    return builder.toHashCode();
+    int hash = cachedHashCode;
+    if (hash == 0) {
+      hash = 1;
+      hash = hash * 31 + (type == null ? 0 : type.hashCode());
+      hash = hash * 31 + offset;
+      hash = hash * 31 + length;
+      cachedHashCode = hash;
+    }
+    return hash;
   }
 
   public JsonObject toJson() {
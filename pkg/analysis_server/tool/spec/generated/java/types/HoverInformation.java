@@ -19,6 +19,7 @@ package org.dartlang.analysis.server.protocol;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.dart.server.utilities.general.JsonUtilities;
 import com.google.dart.server.utilities.general.ObjectUtilities;
@@ -26,7 +27,6 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -41,7 +41,7 @@ public class HoverInformation {
 
   public static final HoverInformation[] EMPTY_ARRAY = new HoverInformation[0];
 
-  public static final List<HoverInformation> EMPTY_LIST = Lists.newArrayList();
+  public static final List<HoverInformation> EMPTY_LIST = ImmutableList.of();
 
   /**
    * The offset of the range of characters that encompases the cursor position and has the same hover
@@ -112,6 +112,11 @@ public class HoverInformation {
    */
   private final String staticType;
 
+  /**
+   * The hash code of this object, or {@code 0} if it has not been computed yet.
+   */
+  private int cachedHashCode;
+
   /**
    * Constructor for {@link HoverInformation}.
    */
@@ -133,6 +138,9 @@ public class HoverInformation {
   public boolean equals(Object obj) {
     if (obj instanceof HoverInformation) {
       HoverInformation other = (HoverInformation) obj;
+      if (cachedHashCode != 0 && other.cachedHashCode != 0 && cachedHashCode != other.cachedHashCode) {
+        return false;
+      }
       return
         other.offset == offset &&
         other.length == length &&
@@ -165,15 +173,14 @@ public class HoverInformation {
   }
 
   public static List<HoverInformation> fromJsonArray(JsonArray jsonArray) {
-    if (jsonArray == null) {
+    if (jsonArray == null || jsonArray.size() == 0) {
       return EMPTY_LIST;
     }
-    ArrayList<HoverInformation> list = new ArrayList<HoverInformation>(jsonArray.size());
-    Iterator<JsonElement> iterator = jsonArray.iterator();
-    while (iterator.hasNext()) {
-      list.add(fromJson(iterator.next().getAsJsonObject()));
+    ImmutableList.Builder<HoverInformation> builder = ImmutableList.builder();
+    for (JsonElement element : jsonArray) {
+      builder.add(fromJson(element.getAsJsonObject()));
     }
-    return list;
+    return builder.build();
   }
 
   /**
@@ -269,19 +276,23 @@ public class HoverInformation {
 
   @Override
   public int hashCode() {
-    HashCodeBuilder builder = new HashCodeBuilder();
-    builder.append(offset);
-    builder.append(length);
-    builder.append(containingLibraryPath);
-    builder.append(containingLibraryName);
-    builder.append(containingClassDescription);
-    builder.append(dartdoc);
-    builder.append(elementDescription);
-    builder.append(elementKind);
-    builder.append(parameter);
-    builder.append(propagatedType);
-    builder.append(staticType);
-    return builder.toHashCode();
+    int hash = cachedHashCode;
+    if (hash == 0) {
+      hash = 1;
+      hash = hash * 31 + offset;
+      hash = hash * 31 + length;
+      hash = hash * 31 + (containingLibraryPath == null ? 0 : containingLibraryPath.hashCode());
+      hash = hash * 31 + (containingLibraryName == null ? 0 : containingLibraryName.hashCode());
+      hash = hash * 31 + (containingClassDescription == null ? 0 : containingClassDescription.hashCode());
+      hash = hash * 31 + (dartdoc == null ? 0 : dartdoc.hashCode());
+      hash = hash * 31 + (elementDescription == null ? 0 : elementDescription.hashCode());
+      hash = hash * 31 + (elementKind == null ? 0 : elementKind.hashCode());
+      hash = hash * 31 + (parameter == null ? 0 : parameter.hashCode());
+      hash = hash * 31 + (propagatedType == null ? 0 : propagatedType.hashCode());
+      hash = hash * 31 + (staticType == null ? 0 : staticType.hashCode());
+      cachedHashCode = hash;
+    }
+    return hash;
   }
 
   public JsonObject toJson() {
@@ -19,6 +19,7 @@ package org.dartlang.analysis.server.protocol;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.dart.server.utilities.general.JsonUtilities;
 import com.google.dart.server.utilities.general.ObjectUtilities;
@@ -26,7 +27,6 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -39,7 +39,7 @@ public class InlineLocalVariableFeedback extends RefactoringFeedback {
 
   public static final InlineLocalVariableFeedback[] EMPTY_ARRAY = new InlineLocalVariableFeedback[0];
 
-  public static final List<InlineLocalVariableFeedback> EMPTY_LIST = Lists.newArrayList();
+  public static final List<InlineLocalVariableFeedback> EMPTY_LIST = ImmutableList.of();
 
   /**
    * The name of the variable being inlined.
@@ -51,6 +51,11 @@ public class InlineLocalVariableFeedback extends RefactoringFeedback {
    */
   private final int occurrences;
 
+  /**
+   * The hash code of this object, or {@code 0} if it has not been computed yet.
+   */
+  private int cachedHashCode;
+
   /**
    * Constructor for {@link InlineLocalVariableFeedback}.
    */
@@ -63,6 +68,9 @@ public class InlineLocalVariableFeedback extends RefactoringFeedback {
   public boolean equals(Object obj) {
     if (obj instanceof InlineLocalVariableFeedback) {
       InlineLocalVariableFeedback other = (InlineLocalVariableFeedback) obj;
+      if (cachedHashCode != 0 && other.cachedHashCode != 0 && cachedHashCode != other.cachedHashCode) {
+        return false;
+      }
       return
         ObjectUtilities.equals(other.name, name) &&
         other.occurrences == occurrences;
@@ -77,15 +85,14 @@ public class InlineLocalVariableFeedback extends RefactoringFeedback {
   }
 
   public static List<InlineLocalVariableFeedback> fromJsonArray(JsonArray jsonArray) {
-    if (jsonArray == null) {
+    if (jsonArray == null || jsonArray.size() == 0) {
       return EMPTY_LIST;
     }
-    ArrayList<InlineLocalVariableFeedback> list = new ArrayList<InlineLocalVariableFeedback>(jsonArray.size());
-    Iterator<JsonElement> iterator = jsonArray.iterator();
-    while (iterator.hasNext()) {
-      list.add(fromJson(iterator.next().getAsJsonObject()));
+    ImmutableList.Builder<InlineLocalVariableFeedback> builder = ImmutableList.builder();
+    for (JsonElement element : jsonArray) {
+      builder.add(fromJson(element.getAsJsonObject()));
     }
-    return list;
+    return builder.build();
   }
 
   /**
@@ -104,10 +111,14 @@ public class InlineLocalVariableFeedback extends RefactoringFeedback {
 
   @Override
   public int hashCode() {
-    HashCodeBuilder builder = new HashCodeBuilder();
-    builder.append(name);
-    builder.append(occurrences);
-    return builder.toHashCode();
+    int hash = cachedHashCode;
+    if (hash == 0) {
+      hash = 1;
+      hash = hash * 31 + (name == null ? 0 : name.hashCode());
+      hash = hash * 31 + occurrences;
+      cachedHashCode = hash;
+    }
+    return hash;
   }
 
   public JsonObject toJson() {
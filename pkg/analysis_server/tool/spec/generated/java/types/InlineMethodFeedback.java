@@ -19,6 +19,7 @@ package org.dartlang.analysis.server.protocol;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.dart.server.utilities.general.JsonUtilities;
 import com.google.dart.server.utilities.general.ObjectUtilities;
@@ -26,7 +27,6 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -39,7 +39,7 @@ public class InlineMethodFeedback extends RefactoringFeedback {
 
   public static final InlineMethodFeedback[] EMPTY_ARRAY = new InlineMethodFeedback[0];
 
-  public static final List<InlineMethodFeedback> EMPTY_LIST = Lists.newArrayList();
+  public static final List<InlineMethodFeedback> EMPTY_LIST = ImmutableList.of();
 
   /**
    * The name of the class enclosing the method being inlined. If not a class member is being
@@ -57,6 +57,11 @@ public class InlineMethodFeedback extends RefactoringFeedback {
    */
   private final boolean isDeclaration;
 
+  /**
+   * The hash code of this object, or {@code 0} if it has not been computed yet.
+   */
+  private int cachedHashCode;
+
   /**
    * Constructor for {@link InlineMethodFeedback}.
    */
@@ -70,6 +75,9 @@ public class InlineMethodFeedback extends RefactoringFeedback {
   public boolean equals(Object obj) {
     if (obj instanceof InlineMethodFeedback) {
       InlineMethodFeedback other = (InlineMethodFeedback) obj;
+      if (cachedHashCode != 0 && other.cachedHashCode != 0 && cachedHashCode != other.cachedHashCode) {
+        return false;
+      }
       return
         ObjectUtilities.equals(other.className, className) &&
         ObjectUtilities.equals(other.methodName, methodName) &&
@@ -86,15 +94,14 @@ public class InlineMethodFeedback extends RefactoringFeedback {
   }
 
   public static List<InlineMethodFeedback> fromJsonArray(JsonArray jsonArray) {
-    if (jsonArray == null) {
+    if (jsonArray == null || jsonArray.size() == 0) {
       return EMPTY_LIST;
     }
-    ArrayList<InlineMethodFeedback> list = new ArrayList<InlineMethodFeedback>(jsonArray.size());
-    Iterator<JsonElement> iterator = jsonArray.iterator();
-    while (iterator.hasNext()) {
-      list.add(fromJson(iterator.next().getAsJsonObject()));
+    ImmutableList.Builder<InlineMethodFeedback> builder = ImmutableList.builder();
+    for (JsonElement element : jsonArray) {
+      builder.add(fromJson(element.getAsJsonObject()));
     }
-    return list;
+    return builder.build();
   }
 
   /**
@@ -121,11 +128,15 @@ public class InlineMethodFeedback extends RefactoringFeedback {
 
   @Override
   public int hashCode() {
-    HashCodeBuilder builder = new HashCodeBuilder();
-    builder.append(className);
-    builder.append(methodName);
-    builder.append(isDeclaration);
-    return builder.toHashCode();
+    int hash = cachedHashCode;
+    if (hash == 0) {
+      hash = 1;
+      hash = hash * 31 + (className == null ? 0 : className.hashCode());
+      hash = hash * 31 + (methodName == null ? 0 : methodName.hashCode());
+      hash = hash * 31 + (isDeclaration ? 1231 : 1237);
+      cachedHashCode = hash;
+    }
+    return hash;
   }
 
   public JsonObject toJson() {
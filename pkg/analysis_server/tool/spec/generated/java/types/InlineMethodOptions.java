@@ -19,6 +19,7 @@ package org.dartlang.analysis.server.protocol;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.dart.server.utilities.general.JsonUtilities;
 import com.google.dart.server.utilities.general.ObjectUtilities;
@@ -26,7 +27,6 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -39,7 +39,7 @@ public class InlineMethodOptions extends RefactoringOptions {
 
   public static final InlineMethodOptions[] EMPTY_ARRAY = new InlineMethodOptions[0];
 
-  public static final List<InlineMethodOptions> EMPTY_LIST = Lists.newArrayList();
+  public static final List<InlineMethodOptions> EMPTY_LIST = ImmutableList.of();
 
   /**
    * True if the method being inlined should be removed. It is an error if this field is true and
@@ -79,15 +79,14 @@ public class InlineMethodOptions extends RefactoringOptions {
   }
 
   public static List<InlineMethodOptions> fromJsonArray(JsonArray jsonArray) {
-    if (jsonArray == null) {
+    if (jsonArray == null || jsonArray.size() == 0) {
       return EMPTY_LIST;
     }
-    ArrayList<InlineMethodOptions> list = new ArrayList<InlineMethodOptions>(jsonArray.size());
-    Iterator<JsonElement> iterator = jsonArray.iterator();
-    while (iterator.hasNext()) {
-      list.add(fromJson(iterator.next().getAsJsonObject()));
+    ImmutableList.Builder<InlineMethodOptions> builder = ImmutableList.builder();
+    for (JsonElement element : jsonArray) {
+      builder.add(fromJson(element.getAsJsonObject()));
     }
-    return list;
+    return builder.build();
   }
 
   /**
@@ -108,10 +107,10 @@ public class InlineMethodOptions extends RefactoringOptions {
 
   @Override
   public int hashCode() {
-    HashCodeBuilder builder = new HashCodeBuilder();
-    builder.append(deleteSource);
-    builder.append(inlineAll);
-    return builder.toHashCode();
+    int hash = 1;
+    hash = hash * 31 + (deleteSource ? 1231 : 1237);
+    hash = hash * 31 + (inlineAll ? 1231 : 1237);
+    return hash;
   }
 
   /**
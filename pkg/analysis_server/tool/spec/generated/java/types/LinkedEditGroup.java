@@ -19,6 +19,7 @@ package org.dartlang.analysis.server.protocol;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.dart.server.utilities.general.JsonUtilities;
 import com.google.dart.server.utilities.general.ObjectUtilities;
@@ -26,7 +27,6 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -45,7 +45,7 @@ public class LinkedEditGroup {
 
   public static final LinkedEditGroup[] EMPTY_ARRAY = new LinkedEditGroup[0];
 
-  public static final List<LinkedEditGroup> EMPTY_LIST = Lists.newArrayList();
+  public static final List<LinkedEditGroup> EMPTY_LIST = ImmutableList.of();
 
   /**
    * The positions of the regions that should be edited simultaneously.
@@ -91,15 +91,14 @@ public class LinkedEditGroup {
   }
 
   public static List<LinkedEditGroup> fromJsonArray(JsonArray jsonArray) {
-    if (jsonArray == null) {
+    if (jsonArray == null || jsonArray.size() == 0) {
       return EMPTY_LIST;
     }
-    ArrayList<LinkedEditGroup> list = new ArrayList<LinkedEditGroup>(jsonArray.size());
-    Iterator<JsonElement> iterator = jsonArray.iterator();
-    while (iterator.hasNext()) {
-      list.add(fromJson(iterator.next().getAsJsonObject()));
+    ImmutableList.Builder<LinkedEditGroup> builder = ImmutableList.builder();
+    for (JsonElement element : jsonArray) {
+      builder.add(fromJson(element.getAsJsonObject()));
     }
-    return list;
+    return builder.build();
   }
 
   /**
@@ -125,11 +124,11 @@ public class LinkedEditGroup {
 
   @Override
   public int hashCode() {
-    HashCodeBuilder builder = new HashCodeBuilder();
-    builder.append(positions);
-    builder.append(length);
-    builder.append(suggestions);
-    return builder.toHashCode();
+    int hash = 1;
+    hash = hash * 31 + (positions == null ? 0 : positions.hashCode());
+    hash = hash * 31 + length;
+    hash = hash * 31 + (suggestions == null ? 0 : suggestions.hashCode());
+    return hash;
   }
 
   public JsonObject toJson() {
@@ -19,6 +19,7 @@ package org.dartlang.analysis.server.protocol;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.dart.server.utilities.general.JsonUtilities;
 import com.google.dart.server.utilities.general.ObjectUtilities;
@@ -26,7 +27,6 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -42,7 +42,7 @@ public class LinkedEditSuggestion {
 
   public static final LinkedEditSuggestion[] EMPTY_ARRAY = new LinkedEditSuggestion[0];
 
-  public static final List<LinkedEditSuggestion> EMPTY_LIST = Lists.newArrayList();
+  public static final List<LinkedEditSuggestion> EMPTY_LIST = ImmutableList.of();
 
   /**
    * The value that could be used to replace all of the linked edit regions.
@@ -54,6 +54,11 @@ public class LinkedEditSuggestion {
    */
   private final String kind;
 
+  /**
+   * The hash code of this object, or {@code 0} if it has not been computed yet.
+   */
+  private int cachedHashCode;
+
   /**
    * Constructor for {@link LinkedEditSuggestion}.
    */
@@ -66,6 +71,9 @@ public class LinkedEditSuggestion {
   public boolean equals(Object obj) {
     if (obj instanceof LinkedEditSuggestion) {
       LinkedEditSuggestion other = (LinkedEditSuggestion) obj;
+      if (cachedHashCode != 0 && other.cachedHashCode != 0 && cachedHashCode != other.cachedHashCode) {
+        return false;
+      }
       return
         ObjectUtilities.equals(other.value, value) &&
         ObjectUtilities.equals(other.kind, kind);
@@ -80,15 +88,14 @@ public class LinkedEditSuggestion {
   }
 
   public static List<LinkedEditSuggestion> fromJsonArray(JsonArray jsonArray) {
-    if (jsonArray == null) {
+    if (jsonArray == null || jsonArray.size() == 0) {
       return EMPTY_LIST;
     }
-    ArrayList<LinkedEditSuggestion> list = new ArrayList<LinkedEditSuggestion>(jsonArray.size());
-    Iterator<JsonElement> iterator = jsonArray.iterator();
-    while (iterator.hasNext()) {
-      list.add(fromJson(iterator.next().getAsJsonObject()));
+    ImmutableList.Builder<LinkedEditSuggestion> builder = ImmutableList.builder();
+    for (JsonElement element : jsonArray) {
+      builder.add(fromJson(element.getAsJsonObject()));
     }
-    return list;
+    return builder.build();
   }
 
   /**
@@ -107,10 +114,14 @@ public class LinkedEditSuggestion {
 
   @Override
   public int hashCode() {
-    HashCodeBuilder builder = new HashCodeBuilder();
-    builder.append(value);
-    builder.append(kind);
-    return builder.toHashCode();
+    int hash = cachedHashCode;
+    if (hash == 0) {
+      hash = 1;
+      hash = hash * 31 + (value == null ? 0 : value.hashCode());
+      hash = hash * 31 + (kind == null ? 0 : kind.hashCode());
+      cachedHashCode = hash;
+    }
+    return hash;
   }
 
   public JsonObject toJson() {
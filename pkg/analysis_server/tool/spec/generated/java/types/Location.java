@@ -19,6 +19,7 @@ package org.dartlang.analysis.server.protocol;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.dart.server.utilities.general.JsonUtilities;
 import com.google.dart.server.utilities.general.ObjectUtilities;
@@ -26,7 +27,6 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -41,7 +41,7 @@ public class Location {
 
   public static final Location[] EMPTY_ARRAY = new Location[0];
 
-  public static final List<Location> EMPTY_LIST = Lists.newArrayList();
+  public static final List<Location> EMPTY_LIST = ImmutableList.of();
 
   /**
    * The file containing the range.
@@ -68,6 +68,11 @@ public class Location {
    */
   private final int startColumn;
 
+  /**
+   * The hash code of this object, or {@code 0} if it has not been computed yet.
+   */
+  private int cachedHashCode;
+
   /**
    * Constructor for {@link Location}.
    */
@@ -83,6 +88,9 @@ public class Location {
   public boolean equals(Object obj) {
     if (obj instanceof Location) {
       Location other = (Location) obj;
+      if (cachedHashCode != 0 && other.cachedHashCode != 0 && cachedHashCode != other.cachedHashCode) {
+        return false;
+      }
       return
         ObjectUtilities.equals(other.file, file) &&
         other.offset == offset &&
@@ -103,15 +111,14 @@ public class Location {
   }
 
   public static List<Location> fromJsonArray(JsonArray jsonArray) {
-    if (jsonArray == null) {
+    if (jsonArray == null || jsonArray.size() == 0) {
       return EMPTY_LIST;
     }
-    ArrayList<Location> list = new ArrayList<Location>(jsonArray.size());
-    Iterator<JsonElement> iterator = jsonArray.iterator();
-    while (iterator.hasNext()) {
-      list.add(fromJson(iterator.next().getAsJsonObject()));
+    ImmutableList.Builder<Location> builder = ImmutableList.builder();
+    for (JsonElement element : jsonArray) {
+      builder.add(fromJson(element.getAsJsonObject()));
     }
-    return list;
+    return builder.build();
   }
 
   /**
@@ -151,13 +158,17 @@ public class Location {
 
   @Override
   public int hashCode() {
-    HashCodeBuilder builder = new HashCodeBuilder();
-    builder.append(file);
-    builder.append(offset);
-    builder.append(length);
-    builder.append(startLine);
-    builder.append(startColumn);
-    return builder.toHashCode();
+    int hash = cachedHashCode;
+    if (hash == 0) {
+      hash = 1;
+      hash = hash * 31 + (file == null ? 0 : file.hashCode());
+      hash = hash * 31 + offset;
+      hash = hash * 31 + length;
+      hash = hash * 31 + startLine;
+      hash = hash * 31 + startColumn;
+      cachedHashCode = hash;
+    }
+    return hash;
   }
 
   public JsonObject toJson() {
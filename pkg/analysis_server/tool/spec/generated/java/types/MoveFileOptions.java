@@ -19,6 +19,7 @@ package org.dartlang.analysis.server.protocol;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.dart.server.utilities.general.JsonUtilities;
 import com.google.dart.server.utilities.general.ObjectUtilities;
@@ -26,7 +27,6 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -39,7 +39,7 @@ public class MoveFileOptions extends RefactoringOptions {
 
   public static final MoveFileOptions[] EMPTY_ARRAY = new MoveFileOptions[0];
 
-  public static final List<MoveFileOptions> EMPTY_LIST = Lists.newArrayList();
+  public static final List<MoveFileOptions> EMPTY_LIST = ImmutableList.of();
 
   /**
    * The new file path to which the given file is being moved.
@@ -69,15 +69,14 @@ public class MoveFileOptions extends RefactoringOptions {
   }
 
   public static List<MoveFileOptions> fromJsonArray(JsonArray jsonArray) {
-    if (jsonArray == null) {
+    if (jsonArray == null || jsonArray.size() == 0) {
       return EMPTY_LIST;
     }
-    ArrayList<MoveFileOptions> list = new ArrayList<MoveFileOptions>(jsonArray.size());
-    Iterator<JsonElement> iterator = jsonArray.iterator();
-    while (iterator.hasNext()) {
-      list.add(fromJson(iterator.next().getAsJsonObject()));
+    ImmutableList.Builder<MoveFileOptions> builder = ImmutableList.builder();
+    for (JsonElement element : jsonArray) {
+      builder.add(fromJson(element.getAsJsonObject()));
     }
-    return list;
+    return builder.build();
   }
 
   /**
@@ -89,9 +88,9 @@ public class MoveFileOptions extends RefactoringOptions {
 
   @Override
   public int hashCode() {
-    HashCodeBuilder builder = new HashCodeBuilder();
-    builder.append(newFile);
-    return builder.toHashCode();
+    int hash = 1;
+    hash = hash * 31 + (newFile == null ? 0 : newFile.hashCode());
+    return hash;
   }
 
   /**
@@ -0,0 +1,435 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * This file has been automatically generated.  Please do not edit it manually.
+ * To regenerate the file, use the script "pkg/analysis_server/tool/spec/generate_files".
+ */
+package org.dartlang.analysis.server.protocol;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.dart.server.utilities.general.JsonUtilities;
+import com.google.dart.server.utilities.general.ObjectUtilities;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import java.util.ArrayList;
+import java.util.Iterator;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * A mutable variant of {@link CompletionSuggestion}, whose fields are decoded into an existing instance by
+ * {@link #decodeInto(JsonObject)}. Listeners which only process instances transiently, such as
+ * exporters and metrics, can reuse an instance, or the instances of a {@link Pool}, instead of
+ * allocating one for each element of a notification. The lists of an instance are reused too, so
+ * they are only valid until the instance is decoded into again or reset. An instance which needs to
+ * be kept is converted by {@link #toImmutable()}.
+ *
+ * @coverage dart.server.generated.types
+ */
+@SuppressWarnings("unused")
+public class MutableCompletionSuggestion {
+
+  /**
+   * A pool of instances, which are decoded into again once they are released. A pool is not
+   * thread-safe.
+   */
+  public static class Pool {
+    private final ArrayList<MutableCompletionSuggestion> free = new ArrayList<MutableCompletionSuggestion>();
+
+    /**
+     * Return an instance decoded from the given object, which should be released once processed.
+     */
+    public MutableCompletionSuggestion decode(JsonObject jsonObject) {
+      int size = free.size();
+      MutableCompletionSuggestion instance = size == 0 ? new MutableCompletionSuggestion() : free.remove(size - 1);
+      return instance.decodeInto(jsonObject);
+    }
+
+    /**
+     * Add to the given list the instances decoded from the given array, which should be released once
+     * processed.
+     */
+    public void decodeArray(JsonArray jsonArray, List<MutableCompletionSuggestion> instances) {
+      for (JsonElement element : jsonArray) {
+        instances.add(decode(element.getAsJsonObject()));
+      }
+    }
+
+    /**
+     * Release the given instance, which must not be used anymore.
+     */
+    public void release(MutableCompletionSuggestion instance) {
+      instance.reset();
+      free.add(instance);
+    }
+
+    /**
+     * Release the given instances, which must not be used anymore, and clear the given list.
+     */
+    public void releaseAll(List<MutableCompletionSuggestion> instances) {
+      for (MutableCompletionSuggestion instance : instances) {
+        release(instance);
+      }
+      instances.clear();
+    }
+  }
+
+  /**
+   * The kind of element being suggested.
+   */
+  private String kind;
+
+  /**
+   * The relevance of this completion suggestion where a higher number indicates a higher relevance.
+   */
+  private int relevance;
+
+  /**
+   * The identifier to be inserted if the suggestion is selected. If the suggestion is for a method
+   * or function, the client might want to additionally insert a template for the parameters. The
+   * information required in order to do so is contained in other fields.
+   */
+  private String completion;
+
+  /**
+   * The offset, relative to the beginning of the completion, of where the selection should be placed
+   * after insertion.
+   */
+  private int selectionOffset;
+
+  /**
+   * The number of characters that should be selected after insertion.
+   */
+  private int selectionLength;
+
+  /**
+   * True if the suggested element is deprecated.
+   */
+  private boolean isDeprecated;
+
+  /**
+   * True if the element is not known to be valid for the target. This happens if the type of the
+   * target is dynamic.
+   */
+  private boolean isPotential;
+
+  /**
+   * An abbreviated version of the Dartdoc associated with the element being suggested, This field is
+   * omitted if there is no Dartdoc associated with the element.
+   */
+  private String docSummary;
+
+  /**
+   * The Dartdoc associated with the element being suggested, This field is omitted if there is no
+   * Dartdoc associated with the element.
+   */
+  private String docComplete;
+
+  /**
+   * The class that declares the element being suggested. This field is omitted if the suggested
+   * element is not a member of a class.
+   */
+  private String declaringType;
+
+  /**
+   * Information about the element reference being suggested.
+   */
+  private Element element;
+
+  /**
+   * The return type of the getter, function or method or the type of the field being suggested. This
+   * field is omitted if the suggested element is not a getter, function or method.
+   */
+  private String returnType;
+
+  /**
+   * The names of the parameters of the function or method being suggested. This field is omitted if
+   * the suggested element is not a setter, function or method.
+   */
+  private List<String> parameterNames;
+
+  /**
+   * The list {@link #parameterNames} is decoded into, which is reused.
+   */
+  private final ArrayList<String> parameterNamesBuffer = new ArrayList<String>();
+
+  /**
+   * The types of the parameters of the function or method being suggested. This field is omitted if
+   * the parameterNames field is omitted.
+   */
+  private List<String> parameterTypes;
+
+  /**
+   * The list {@link #parameterTypes} is decoded into, which is reused.
+   */
+  private final ArrayList<String> parameterTypesBuffer = new ArrayList<String>();
+
+  /**
+   * The number of required parameters for the function or method being suggested. This field is
+   * omitted if the parameterNames field is omitted.
+   */
+  private Integer requiredParameterCount;
+
+  /**
+   * True if the function or method being suggested has at least one named parameter. This field is
+   * omitted if the parameterNames field is omitted.
+   */
+  private Boolean hasNamedParameters;
+
+  /**
+   * The name of the optional parameter being suggested. This field is omitted if the suggestion is
+   * not the addition of an optional argument within an argument list.
+   */
+  private String parameterName;
+
+  /**
+   * The type of the options parameter being suggested. This field is omitted if the parameterName
+   * field is omitted.
+   */
+  private String parameterType;
+
+  /**
+   * The import to be added if the suggestion is out of scope and needs an import to be added to be
+   * in scope.
+   */
+  private String importUri;
+
+  /**
+   * Decode the fields of this instance from the given object, and return this instance.
+   */
+  public MutableCompletionSuggestion decodeInto(JsonObject jsonObject) {
+    kind = jsonObject.get("kind").getAsString();
+    relevance = jsonObject.get("relevance").getAsInt();
+    completion = jsonObject.get("completion").getAsString();
+    selectionOffset = jsonObject.get("selectionOffset").getAsInt();
+    selectionLength = jsonObject.get("selectionLength").getAsInt();
+    isDeprecated = jsonObject.get("isDeprecated").getAsBoolean();
+    isPotential = jsonObject.get("isPotential").getAsBoolean();
+    docSummary = jsonObject.get("docSummary") == null ? null : jsonObject.get("docSummary").getAsString();
+    docComplete = jsonObject.get("docComplete") == null ? null : jsonObject.get("docComplete").getAsString();
+    declaringType = jsonObject.get("declaringType") == null ? null : jsonObject.get("declaringType").getAsString();
+    element = jsonObject.get("element") == null ? null : Element.fromJson(jsonObject.get("element").getAsJsonObject());
+    returnType = jsonObject.get("returnType") == null ? null : jsonObject.get("returnType").getAsString();
+    parameterNames = decodeStringList(jsonObject.get("parameterNames"), parameterNamesBuffer);
+    parameterTypes = decodeStringList(jsonObject.get("parameterTypes"), parameterTypesBuffer);
+    requiredParameterCount = jsonObject.get("requiredParameterCount") == null ? null : jsonObject.get("requiredParameterCount").getAsInt();
+    hasNamedParameters = jsonObject.get("hasNamedParameters") == null ? null : jsonObject.get("hasNamedParameters").getAsBoolean();
+    parameterName = jsonObject.get("parameterName") == null ? null : jsonObject.get("parameterName").getAsString();
+    parameterType = jsonObject.get("parameterType") == null ? null : jsonObject.get("parameterType").getAsString();
+    importUri = jsonObject.get("importUri") == null ? null : jsonObject.get("importUri").getAsString();
+    return this;
+  }
+
+  /**
+   * The identifier to be inserted if the suggestion is selected. If the suggestion is for a method
+   * or function, the client might want to additionally insert a template for the parameters. The
+   * information required in order to do so is contained in other fields.
+   */
+  public String getCompletion() {
+    return completion;
+  }
+
+  /**
+   * The class that declares the element being suggested. This field is omitted if the suggested
+   * element is not a member of a class.
+   */
+  public String getDeclaringType() {
+    return declaringType;
+  }
+
+  /**
+   * The Dartdoc associated with the element being suggested, This field is omitted if there is no
+   * Dartdoc associated with the element.
+   */
+  public String getDocComplete() {
+    return docComplete;
+  }
+
+  /**
+   * An abbreviated version of the Dartdoc associated with the element being suggested, This field is
+   * omitted if there is no Dartdoc associated with the element.
+   */
+  public String getDocSummary() {
+    return docSummary;
+  }
+
+  /**
+   * Information about the element reference being suggested.
+   */
+  public Element getElement() {
+    return element;
+  }
+
+  /**
+   * True if the function or method being suggested has at least one named parameter. This field is
+   * omitted if the parameterNames field is omitted.
+   */
+  public Boolean getHasNamedParameters() {
+    return hasNamedParameters;
+  }
+
+  /**
+   * The import to be added if the suggestion is out of scope and needs an import to be added to be
+   * in scope.
+   */
+  public String getImportUri() {
+    return importUri;
+  }
+
+  /**
+   * True if the suggested element is deprecated.
+   */
+  public boolean isDeprecated() {
+    return isDeprecated;
+  }
+
+  /**
+   * True if the element is not known to be valid for the target. This happens if the type of the
+   * target is dynamic.
+   */
+  public boolean isPotential() {
+    return isPotential;
+  }
+
+  /**
+   * The kind of element being suggested.
+   */
+  public String getKind() {
+    return kind;
+  }
+
+  /**
+   * The name of the optional parameter being suggested. This field is omitted if the suggestion is
+   * not the addition of an optional argument within an argument list.
+   */
+  public String getParameterName() {
+    return parameterName;
+  }
+
+  /**
+   * The names of the parameters of the function or method being suggested. This field is omitted if
+   * the suggested element is not a setter, function or method.
+   */
+  public List<String> getParameterNames() {
+    return parameterNames;
+  }
+
+  /**
+   * The type of the options parameter being suggested. This field is omitted if the parameterName
+   * field is omitted.
+   */
+  public String getParameterType() {
+    return parameterType;
+  }
+
+  /**
+   * The types of the parameters of the function or method being suggested. This field is omitted if
+   * the parameterNames field is omitted.
+   */
+  public List<String> getParameterTypes() {
+    return parameterTypes;
+  }
+
+  /**
+   * The relevance of this completion suggestion where a higher number indicates a higher relevance.
+   */
+  public int getRelevance() {
+    return relevance;
+  }
+
+  /**
+   * The number of required parameters for the function or method being suggested. This field is
+   * omitted if the parameterNames field is omitted.
+   */
+  public Integer getRequiredParameterCount() {
+    return requiredParameterCount;
+  }
+
+  /**
+   * The return type of the getter, function or method or the type of the field being suggested. This
+   * field is omitted if the suggested element is not a getter, function or method.
+   */
+  public String getReturnType() {
+    return returnType;
+  }
+
+  /**
+   * The number of characters that should be selected after insertion.
+   */
+  public int getSelectionLength() {
+    return selectionLength;
+  }
+
+  /**
+   * The offset, relative to the beginning of the completion, of where the selection should be placed
+   * after insertion.
+   */
+  public int getSelectionOffset() {
+    return selectionOffset;
+  }
+
+  /**
+   * Clear the fields of this instance, so that it does not retain the objects it was decoded from.
+   */
+  public void reset() {
+    kind = null;
+    relevance = 0;
+    completion = null;
+    selectionOffset = 0;
+    selectionLength = 0;
+    isDeprecated = false;
+    isPotential = false;
+    docSummary = null;
+    docComplete = null;
+    declaringType = null;
+    element = null;
+    returnType = null;
+    parameterNames = null;
+    parameterNamesBuffer.clear();
+    parameterTypes = null;
+    parameterTypesBuffer.clear();
+    requiredParameterCount = null;
+    hasNamedParameters = null;
+    parameterName = null;
+    parameterType = null;
+    importUri = null;
+  }
+
+  /**
+   * Return an immutable copy of this instance.
+   */
+  public CompletionSuggestion toImmutable() {
+    return new CompletionSuggestion(kind, relevance, completion, selectionOffset, selectionLength, isDeprecated, isPotential, docSummary, docComplete, declaringType, element, returnType, parameterNames == null ? null : ImmutableList.copyOf(parameterNames), parameterTypes == null ? null : ImmutableList.copyOf(parameterTypes), requiredParameterCount, hasNamedParameters, parameterName, parameterType, importUri);
+  }
+
+  /**
+   * Decode the given array into the given list, which is cleared first, and return the list, or
+   * return {@code null} if there is no array.
+   */
+  private static List<String> decodeStringList(JsonElement jsonElement, ArrayList<String> list) {
+    list.clear();
+    if (jsonElement == null) {
+      return null;
+    }
+    for (JsonElement element : jsonElement.getAsJsonArray()) {
+      list.add(element.getAsString());
+    }
+    return list;
+  }
+
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * This file has been automatically generated.  Please do not edit it manually.
+ * To regenerate the file, use the script "pkg/analysis_server/tool/spec/generate_files".
+ */
+package org.dartlang.analysis.server.protocol;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.dart.server.utilities.general.JsonUtilities;
+import com.google.dart.server.utilities.general.ObjectUtilities;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import java.util.ArrayList;
+import java.util.Iterator;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * A mutable variant of {@link HighlightRegion}, whose fields are decoded into an existing instance by
+ * {@link #decodeInto(JsonObject)}. Listeners which only process instances transiently, such as
+ * exporters and metrics, can reuse an instance, or the instances of a {@link Pool}, instead of
+ * allocating one for each element of a notification. The lists of an instance are reused too, so
+ * they are only valid until the instance is decoded into again or reset. An instance which needs to
+ * be kept is converted by {@link #toImmutable()}.
+ *
+ * @coverage dart.server.generated.types
+ */
+@SuppressWarnings("unused")
+public class MutableHighlightRegion {
+
+  /**
+   * A pool of instances, which are decoded into again once they are released. A pool is not
+   * thread-safe.
+   */
+  public static class Pool {
+    private final ArrayList<MutableHighlightRegion> free = new ArrayList<MutableHighlightRegion>();
+
+    /**
+     * Return an instance decoded from the given object, which should be released once processed.
+     */
+    public MutableHighlightRegion decode(JsonObject jsonObject) {
+      int size = free.size();
+      MutableHighlightRegion instance = size == 0 ? new MutableHighlightRegion() : free.remove(size - 1);
+      return instance.decodeInto(jsonObject);
+    }
+
+    /**
+     * Add to the given list the instances decoded from the given array, which should be released once
+     * processed.
+     */
+    public void decodeArray(JsonArray jsonArray, List<MutableHighlightRegion> instances) {
+      for (JsonElement element : jsonArray) {
+        instances.add(decode(element.getAsJsonObject()));
+      }
+    }
+
+    /**
+     * Release the given instance, which must not be used anymore.
+     */
+    public void release(MutableHighlightRegion instance) {
+      instance.reset();
+      free.add(instance);
+    }
+
+    /**
+     * Release the given instances, which must not be used anymore, and clear the given list.
+     */
+    public void releaseAll(List<MutableHighlightRegion> instances) {
+      for (MutableHighlightRegion instance : instances) {
+        release(instance);
+      }
+      instances.clear();
+    }
+  }
+
+  /**
+   * The type of highlight associated with the region.
+   */
+  private String type;
+
+  /**
+   * The offset of the region to be highlighted.
+   */
+  private int offset;
+
+  /**
+   * The length of the region to be highlighted.
+   */
+  private int length;
+
+  /**
+   * Decode the fields of this instance from the given object, and return this instance.
+   */
+  public MutableHighlightRegion decodeInto(JsonObject jsonObject) {
+    type = jsonObject.get("type").getAsString();
+    offset = jsonObject.get("offset").getAsInt();
+    length = jsonObject.get("length").getAsInt();
+    return this;
+  }
+
+  /**
+   * The length of the region to be highlighted.
+   */
+  public int getLength() {
+    return length;
+  }
+
+  /**
+   * The offset of the region to be highlighted.
+   */
+  public int getOffset() {
+    return offset;
+  }
+
+  /**
+   * The type of highlight associated with the region.
+   */
+  public String getType() {
+    return type;
+  }
+
+  /**
+   * Clear the fields of this instance, so that it does not retain the objects it was decoded from.
+   */
+  public void reset() {
+    type = null;
+    offset = 0;
+    length = 0;
+  }
+
+  /**
+   * Return an immutable copy of this instance.
+   */
+  public HighlightRegion toImmutable() {
+    return new HighlightRegion(type, offset, length);
+  }
+
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * This file has been automatically generated.  Please do not edit it manually.
+ * To regenerate the file, use the script "pkg/analysis_server/tool/spec/generate_files".
+ */
+package org.dartlang.analysis.server.protocol;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.dart.server.utilities.general.JsonUtilities;
+import com.google.dart.server.utilities.general.ObjectUtilities;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import java.util.ArrayList;
+import java.util.Iterator;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * A mutable variant of {@link Location}, whose fields are decoded into an existing instance by
+ * {@link #decodeInto(JsonObject)}. Listeners which only process instances transiently, such as
+ * exporters and metrics, can reuse an instance, or the instances of a {@link Pool}, instead of
+ * allocating one for each element of a notification. The lists of an instance are reused too, so
+ * they are only valid until the instance is decoded into again or reset. An instance which needs to
+ * be kept is converted by {@link #toImmutable()}.
+ *
+ * @coverage dart.server.generated.types
+ */
+@SuppressWarnings("unused")
+public class MutableLocation {
+
+  /**
+   * A pool of instances, which are decoded into again once they are released. A pool is not
+   * thread-safe.
+   */
+  public static class Pool {
+    private final ArrayList<MutableLocation> free = new ArrayList<MutableLocation>();
+
+    /**
+     * Return an instance decoded from the given object, which should be released once processed.
+     */
+    public MutableLocation decode(JsonObject jsonObject) {
+      int size = free.size();
+      MutableLocation instance = size == 0 ? new MutableLocation() : free.remove(size - 1);
+      return instance.decodeInto(jsonObject);
+    }
+
+    /**
+     * Add to the given list the instances decoded from the given array, which should be released once
+     * processed.
+     */
+    public void decodeArray(JsonArray jsonArray, List<MutableLocation> instances) {
+      for (JsonElement element : jsonArray) {
+        instances.add(decode(element.getAsJsonObject()));
+      }
+    }
+
+    /**
+     * Release the given instance, which must not be used anymore.
+     */
+    public void release(MutableLocation instance) {
+      instance.reset();
+      free.add(instance);
+    }
+
+    /**
+     * Release the given instances, which must not be used anymore, and clear the given list.
+     */
+    public void releaseAll(List<MutableLocation> instances) {
+      for (MutableLocation instance : instances) {
+        release(instance);
+      }
+      instances.clear();
+    }
+  }
+
+  /**
+   * The file containing the range.
+   */
+  private String file;
+
+  /**
+   * The offset of the range.
+   */
+  private int offset;
+
+  /**
+   * The length of the range.
+   */
+  private int length;
+
+  /**
+   * The one-based index of the line containing the first character of the range.
+   */
+  private int startLine;
+
+  /**
+   * The one-based index of the column containing the first character of the range.
+   */
+  private int startColumn;
+
+  /**
+   * Decode the fields of this instance from the given object, and return this instance.
+   */
+  public MutableLocation decodeInto(JsonObject jsonObject) {
+    file = jsonObject.get("file").getAsString();
+    offset = jsonObject.get("offset").getAsInt();
+    length = jsonObject.get("length").getAsInt();
+    startLine = jsonObject.get("startLine").getAsInt();
+    startColumn = jsonObject.get("startColumn").getAsInt();
+    return this;
+  }
+
+  /**
+   * The file containing the range.
+   */
+  public String getFile() {
+    return file;
+  }
+
+  /**
+   * The length of the range.
+   */
+  public int getLength() {
+    return length;
+  }
+
+  /**
+   * The offset of the range.
+   */
+  public int getOffset() {
+    return offset;
+  }
+
+  /**
+   * The one-based index of the column containing the first character of the range.
+   */
+  public int getStartColumn() {
+    return startColumn;
+  }
+
+  /**
+   * The one-based index of the line containing the first character of the range.
+   */
+  public int getStartLine() {
+    return startLine;
+  }
+
+  /**
+   * Clear the fields of this instance, so that it does not retain the objects it was decoded from.
+   */
+  public void reset() {
+    file = null;
+    offset = 0;
+    length = 0;
+    startLine = 0;
+    startColumn = 0;
+  }
+
+  /**
+   * Return an immutable copy of this instance.
+   */
+  public Location toImmutable() {
+    return new Location(file, offset, length, startLine, startColumn);
+  }
+
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * This file has been automatically generated.  Please do not edit it manually.
+ * To regenerate the file, use the script "pkg/analysis_server/tool/spec/generate_files".
+ */
+package org.dartlang.analysis.server.protocol;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.dart.server.utilities.general.JsonUtilities;
+import com.google.dart.server.utilities.general.ObjectUtilities;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import java.util.ArrayList;
+import java.util.Iterator;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * A mutable variant of {@link SearchResult}, whose fields are decoded into an existing instance by
+ * {@link #decodeInto(JsonObject)}. Listeners which only process instances transiently, such as
+ * exporters and metrics, can reuse an instance, or the instances of a {@link Pool}, instead of
+ * allocating one for each element of a notification. The lists of an instance are reused too, so
+ * they are only valid until the instance is decoded into again or reset. An instance which needs to
+ * be kept is converted by {@link #toImmutable()}.
+ *
+ * @coverage dart.server.generated.types
+ */
+@SuppressWarnings("unused")
+public class MutableSearchResult {
+
+  /**
+   * A pool of instances, which are decoded into again once they are released. A pool is not
+   * thread-safe.
+   */
+  public static class Pool {
+    private final ArrayList<MutableSearchResult> free = new ArrayList<MutableSearchResult>();
+
+    /**
+     * Return an instance decoded from the given object, which should be released once processed.
+     */
+    public MutableSearchResult decode(JsonObject jsonObject) {
+      int size = free.size();
+      MutableSearchResult instance = size == 0 ? new MutableSearchResult() : free.remove(size - 1);
+      return instance.decodeInto(jsonObject);
+    }
+
+    /**
+     * Add to the given list the instances decoded from the given array, which should be released once
+     * processed.
+     */
+    public void decodeArray(JsonArray jsonArray, List<MutableSearchResult> instances) {
+      for (JsonElement element : jsonArray) {
+        instances.add(decode(element.getAsJsonObject()));
+      }
+    }
+
+    /**
+     * Release the given instance, which must not be used anymore.
+     */
+    public void release(MutableSearchResult instance) {
+      instance.reset();
+      free.add(instance);
+    }
+
+    /**
+     * Release the given instances, which must not be used anymore, and clear the given list.
+     */
+    public void releaseAll(List<MutableSearchResult> instances) {
+      for (MutableSearchResult instance : instances) {
+        release(instance);
+      }
+      instances.clear();
+    }
+  }
+
+  /**
+   * The location of the code that matched the search criteria.
+   */
+  private final MutableLocation location = new MutableLocation();
+
+  /**
+   * The kind of element that was found or the kind of reference that was found.
+   */
+  private String kind;
+
+  /**
+   * True if the result is a potential match but cannot be confirmed to be a match. For example, if
+   * all references to a method m defined in some class were requested, and a reference to a method m
+   * from an unknown class were found, it would be marked as being a potential match.
+   */
+  private boolean isPotential;
+
+  /**
+   * The elements that contain the result, starting with the most immediately enclosing ancestor and
+   * ending with the library.
+   */
+  private List<Element> path;
+
+  /**
+   * The list {@link #path} is decoded into, which is reused.
+   */
+  private final ArrayList<Element> pathBuffer = new ArrayList<Element>();
+
+  /**
+   * Decode the fields of this instance from the given object, and return this instance.
+   */
+  public MutableSearchResult decodeInto(JsonObject jsonObject) {
+    location.decodeInto(jsonObject.get("location").getAsJsonObject());
+    kind = jsonObject.get("kind").getAsString();
+    isPotential = jsonObject.get("isPotential").getAsBoolean();
+    path = decodeElementList(jsonObject.get("path"), pathBuffer);
+    return this;
+  }
+
+  /**
+   * True if the result is a potential match but cannot be confirmed to be a match. For example, if
+   * all references to a method m defined in some class were requested, and a reference to a method m
+   * from an unknown class were found, it would be marked as being a potential match.
+   */
+  public boolean isPotential() {
+    return isPotential;
+  }
+
+  /**
+   * The kind of element that was found or the kind of reference that was found.
+   */
+  public String getKind() {
+    return kind;
+  }
+
+  /**
+   * The location of the code that matched the search criteria.
+   */
+  public MutableLocation getLocation() {
+    return location;
+  }
+
+  /**
+   * The elements that contain the result, starting with the most immediately enclosing ancestor and
+   * ending with the library.
+   */
+  public List<Element> getPath() {
+    return path;
+  }
+
+  /**
+   * Clear the fields of this instance, so that it does not retain the objects it was decoded from.
+   */
+  public void reset() {
+    location.reset();
+    kind = null;
+    isPotential = false;
+    path = null;
+    pathBuffer.clear();
+  }
+
+  /**
+   * Return an immutable copy of this instance.
+   */
+  public SearchResult toImmutable() {
+    return new SearchResult(location.toImmutable(), kind, isPotential, path == null ? null : ImmutableList.copyOf(path));
+  }
+
+  /**
+   * Decode the given array into the given list, which is cleared first, and return the list, or
+   * return {@code null} if there is no array.
+   */
+  private static List<Element> decodeElementList(JsonElement jsonElement, ArrayList<Element> list) {
+    list.clear();
+    if (jsonElement == null) {
+      return null;
+    }
+    for (JsonElement element : jsonElement.getAsJsonArray()) {
+      list.add(Element.fromJson(element.getAsJsonObject()));
+    }
+    return list;
+  }
+
+}
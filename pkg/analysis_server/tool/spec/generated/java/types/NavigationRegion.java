@@ -19,6 +19,7 @@ package org.dartlang.analysis.server.protocol;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.dart.server.utilities.general.JsonUtilities;
 import com.google.dart.server.utilities.general.ObjectUtilities;
@@ -26,7 +27,6 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -41,7 +41,7 @@ public class NavigationRegion {
 
   public static final NavigationRegion[] EMPTY_ARRAY = new NavigationRegion[0];
 
-  public static final List<NavigationRegion> EMPTY_LIST = Lists.newArrayList();
+  public static final List<NavigationRegion> EMPTY_LIST = ImmutableList.of();
 
   /**
    * The offset of the region from which the user can navigate.
@@ -94,15 +94,14 @@ public class NavigationRegion {
   }
 
   public static List<NavigationRegion> fromJsonArray(JsonArray jsonArray) {
-    if (jsonArray == null) {
+    if (jsonArray == null || jsonArray.size() == 0) {
       return EMPTY_LIST;
     }
-    ArrayList<NavigationRegion> list = new ArrayList<NavigationRegion>(jsonArray.size());
-    Iterator<JsonElement> iterator = jsonArray.iterator();
-    while (iterator.hasNext()) {
-      list.add(fromJson(iterator.next().getAsJsonObject()));
+    ImmutableList.Builder<NavigationRegion> builder = ImmutableList.builder();
+    for (JsonElement element : jsonArray) {
+      builder.add(fromJson(element.getAsJsonObject()));
     }
-    return list;
+    return builder.build();
   }
 
   public List<NavigationTarget> getTargetObjects() {
@@ -133,11 +132,11 @@ public class NavigationRegion {
 
   @Override
   public int hashCode() {
-    HashCodeBuilder builder = new HashCodeBuilder();
-    builder.append(offset);
-    builder.append(length);
-    builder.append(targets);
-    return builder.toHashCode();
+    int hash = 1;
+    hash = hash * 31 + offset;
+    hash = hash * 31 + length;
+    hash = hash * 31 + Arrays.hashCode(targets);
+    return hash;
   }
 
   public void lookupTargets(List<NavigationTarget> allTargets) {
@@ -19,6 +19,7 @@ package org.dartlang.analysis.server.protocol;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.dart.server.utilities.general.JsonUtilities;
 import com.google.dart.server.utilities.general.ObjectUtilities;
@@ -26,7 +27,6 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -41,7 +41,7 @@ public class NavigationTarget {
 
   public static final NavigationTarget[] EMPTY_ARRAY = new NavigationTarget[0];
 
-  public static final List<NavigationTarget> EMPTY_LIST = Lists.newArrayList();
+  public static final List<NavigationTarget> EMPTY_LIST = ImmutableList.of();
 
   /**
    * The kind of the element.
@@ -75,6 +75,11 @@ public class NavigationTarget {
 
   private String file;
 
+  /**
+   * The hash code of this object, or {@code 0} if it has not been computed yet.
+   */
+  private int cachedHashCode;
+
   /**
    * Constructor for {@link NavigationTarget}.
    */
@@ -91,6 +96,9 @@ public class NavigationTarget {
   public boolean equals(Object obj) {
     if (obj instanceof NavigationTarget) {
       NavigationTarget other = (NavigationTarget) obj;
+      if (cachedHashCode != 0 && other.cachedHashCode != 0 && cachedHashCode != other.cachedHashCode) {
+        return false;
+      }
       return
         ObjectUtilities.equals(other.kind, kind) &&
         other.fileIndex == fileIndex &&
@@ -113,15 +121,14 @@ public class NavigationTarget {
   }
 
   public static List<NavigationTarget> fromJsonArray(JsonArray jsonArray) {
-    if (jsonArray == null) {
+    if (jsonArray == null || jsonArray.size() == 0) {
       return EMPTY_LIST;
     }
-    ArrayList<NavigationTarget> list = new ArrayList<NavigationTarget>(jsonArray.size());
-    Iterator<JsonElement> iterator = jsonArray.iterator();
-    while (iterator.hasNext()) {
-      list.add(fromJson(iterator.next().getAsJsonObject()));
+    ImmutableList.Builder<NavigationTarget> builder = ImmutableList.builder();
+    for (JsonElement element : jsonArray) {
+      builder.add(fromJson(element.getAsJsonObject()));
     }
-    return list;
+    return builder.build();
   }
 
   public String getFile() {
@@ -172,14 +179,18 @@ public class NavigationTarget {
 
   @Override
   public int hashCode() {
-    HashCodeBuilder builder = new HashCodeBuilder();
-    builder.append(kind);
-    builder.append(fileIndex);
-    builder.append(offset);
-    builder.append(length);
-    builder.append(startLine);
-    builder.append(startColumn);
-    return builder.toHashCode();
+    int hash = cachedHashCode;
+    if (hash == 0) {
+      hash = 1;
+      hash = hash * 31 + (kind == null ? 0 : kind.hashCode());
+      hash = hash * 31 + fileIndex;
+      hash = hash * 31 + offset;
+      hash = hash * 31 + length;
+      hash = hash * 31 + startLine;
+      hash = hash * 31 + startColumn;
+      cachedHashCode = hash;
+    }
+    return hash;
   }
 
   public void lookupFile(String[] allTargetFiles) {
@@ -19,6 +19,7 @@ package org.dartlang.analysis.server.protocol;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.dart.server.utilities.general.JsonUtilities;
 import com.google.dart.server.utilities.general.ObjectUtilities;
@@ -26,7 +27,6 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -41,7 +41,7 @@ public class Occurrences {
 
   public static final Occurrences[] EMPTY_ARRAY = new Occurrences[0];
 
-  public static final List<Occurrences> EMPTY_LIST = Lists.newArrayList();
+  public static final List<Occurrences> EMPTY_LIST = ImmutableList.of();
 
   /**
    * The element that was referenced.
@@ -96,15 +96,14 @@ public class Occurrences {
   }
 
   public static List<Occurrences> fromJsonArray(JsonArray jsonArray) {
-    if (jsonArray == null) {
+    if (jsonArray == null || jsonArray.size() == 0) {
       return EMPTY_LIST;
     }
-    ArrayList<Occurrences> list = new ArrayList<Occurrences>(jsonArray.size());
-    Iterator<JsonElement> iterator = jsonArray.iterator();
-    while (iterator.hasNext()) {
-      list.add(fromJson(iterator.next().getAsJsonObject()));
+    ImmutableList.Builder<Occurrences> builder = ImmutableList.builder();
+    for (JsonElement element : jsonArray) {
+      builder.add(fromJson(element.getAsJsonObject()));
     }
-    return list;
+    return builder.build();
   }
 
   /**
@@ -130,11 +129,11 @@ public class Occurrences {
 
   @Override
   public int hashCode() {
-    HashCodeBuilder builder = new HashCodeBuilder();
-    builder.append(element);
-    builder.append(offsets);
-    builder.append(length);
-    return builder.toHashCode();
+    int hash = 1;
+    hash = hash * 31 + (element == null ? 0 : element.hashCode());
+    hash = hash * 31 + Arrays.hashCode(offsets);
+    hash = hash * 31 + length;
+    return hash;
   }
 
   public JsonObject toJson() {
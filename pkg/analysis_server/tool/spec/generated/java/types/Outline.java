@@ -19,6 +19,7 @@ package org.dartlang.analysis.server.protocol;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.dart.server.utilities.general.JsonUtilities;
 import com.google.dart.server.utilities.general.ObjectUtilities;
@@ -26,7 +27,6 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -41,7 +41,7 @@ public class Outline {
 
   public static final Outline[] EMPTY_ARRAY = new Outline[0];
 
-  public static final List<Outline> EMPTY_LIST = Lists.newArrayList();
+  public static final List<Outline> EMPTY_LIST = ImmutableList.of();
 
   /**
    * A description of the element represented by this node.
@@ -101,16 +101,16 @@ public class Outline {
     Outline outline = new Outline(parent, element, offset, length);
 
     // compute children recursively
-    List<Outline> childrenList = Lists.newArrayList();
+    ImmutableList.Builder<Outline> childrenBuilder = ImmutableList.builder();
     JsonElement childrenJsonArray = outlineObject.get("children");
     if (childrenJsonArray instanceof JsonArray) {
       Iterator<JsonElement> childrenElementIterator = ((JsonArray) childrenJsonArray).iterator();
       while (childrenElementIterator.hasNext()) {
         JsonObject childObject = childrenElementIterator.next().getAsJsonObject();
-        childrenList.add(fromJson(outline, childObject));
+        childrenBuilder.add(fromJson(outline, childObject));
       }
     }
-    outline.setChildren(childrenList);
+    outline.setChildren(childrenBuilder.build());
     return outline;
   }
 
@@ -150,12 +150,12 @@ public class Outline {
 
   @Override
   public int hashCode() {
-    HashCodeBuilder builder = new HashCodeBuilder();
-    builder.append(element);
-    builder.append(offset);
-    builder.append(length);
-    builder.append(children);
-    return builder.toHashCode();
+    int hash = 1;
+    hash = hash * 31 + (element == null ? 0 : element.hashCode());
+    hash = hash * 31 + offset;
+    hash = hash * 31 + length;
+    hash = hash * 31 + (children == null ? 0 : children.hashCode());
+    return hash;
   }
 
   /**
@@ -19,6 +19,7 @@ package org.dartlang.analysis.server.protocol;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.dart.server.utilities.general.JsonUtilities;
 import com.google.dart.server.utilities.general.ObjectUtilities;
@@ -26,7 +27,6 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -41,7 +41,7 @@ public class OverriddenMember {
 
   public static final OverriddenMember[] EMPTY_ARRAY = new OverriddenMember[0];
 
-  public static final List<OverriddenMember> EMPTY_LIST = Lists.newArrayList();
+  public static final List<OverriddenMember> EMPTY_LIST = ImmutableList.of();
 
   /**
    * The element that is being overridden.
@@ -53,6 +53,11 @@ public class OverriddenMember {
    */
   private final String className;
 
+  /**
+   * The hash code of this object, or {@code 0} if it has not been computed yet.
+   */
+  private int cachedHashCode;
+
   /**
    * Constructor for {@link OverriddenMember}.
    */
@@ -65,6 +70,9 @@ public class OverriddenMember {
   public boolean equals(Object obj) {
     if (obj instanceof OverriddenMember) {
       OverriddenMember other = (OverriddenMember) obj;
+      if (cachedHashCode != 0 && other.cachedHashCode != 0 && cachedHashCode != other.cachedHashCode) {
+        return false;
+      }
       return
         ObjectUtilities.equals(other.element, element) &&
         ObjectUtilities.equals(other.className, className);
@@ -79,15 +87,14 @@ public class OverriddenMember {
   }
 
   public static List<OverriddenMember> fromJsonArray(JsonArray jsonArray) {
-    if (jsonArray == null) {
+    if (jsonArray == null || jsonArray.size() == 0) {
       return EMPTY_LIST;
     }
-    ArrayList<OverriddenMember> list = new ArrayList<OverriddenMember>(jsonArray.size());
-    Iterator<JsonElement> iterator = jsonArray.iterator();
-    while (iterator.hasNext()) {
-      list.add(fromJson(iterator.next().getAsJsonObject()));
+    ImmutableList.Builder<OverriddenMember> builder = ImmutableList.builder();
+    for (JsonElement element : jsonArray) {
+      builder.add(fromJson(element.getAsJsonObject()));
     }
-    return list;
+    return builder.build();
   }
 
   /**
@@ -106,10 +113,14 @@ public class OverriddenMember {
 
   @Override
   public int hashCode() {
-    HashCodeBuilder builder = new HashCodeBuilder();
-    builder.append(element);
-    builder.append(className);
-    return builder.toHashCode();
+    int hash = cachedHashCode;
+    if (hash == 0) {
+      hash = 1;
+      hash = hash * 31 + (element == null ? 0 : element.hashCode());
+      hash = hash * 31 + (className == null ? 0 : className.hashCode());
+      cachedHashCode = hash;
+    }
+    return hash;
   }
 
   public JsonObject toJson() {
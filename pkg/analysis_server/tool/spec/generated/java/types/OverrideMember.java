@@ -19,6 +19,7 @@ package org.dartlang.analysis.server.protocol;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.dart.server.utilities.general.JsonUtilities;
 import com.google.dart.server.utilities.general.ObjectUtilities;
@@ -26,7 +27,6 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -41,7 +41,7 @@ public class OverrideMember {
 
   public static final OverrideMember[] EMPTY_ARRAY = new OverrideMember[0];
 
-  public static final List<OverrideMember> EMPTY_LIST = Lists.newArrayList();
+  public static final List<OverrideMember> EMPTY_LIST = ImmutableList.of();
 
   /**
    * The offset of the name of the overriding member.
@@ -98,15 +98,14 @@ public class OverrideMember {
   }
 
   public static List<OverrideMember> fromJsonArray(JsonArray jsonArray) {
-    if (jsonArray == null) {
+    if (jsonArray == null || jsonArray.size() == 0) {
       return EMPTY_LIST;
     }
-    ArrayList<OverrideMember> list = new ArrayList<OverrideMember>(jsonArray.size());
-    Iterator<JsonElement> iterator = jsonArray.iterator();
-    while (iterator.hasNext()) {
-      list.add(fromJson(iterator.next().getAsJsonObject()));
+    ImmutableList.Builder<OverrideMember> builder = ImmutableList.builder();
+    for (JsonElement element : jsonArray) {
+      builder.add(fromJson(element.getAsJsonObject()));
     }
-    return list;
+    return builder.build();
   }
 
   /**
@@ -142,12 +141,12 @@ public class OverrideMember {
 
   @Override
   public int hashCode() {
-    HashCodeBuilder builder = new HashCodeBuilder();
-    builder.append(offset);
-    builder.append(length);
-    builder.append(superclassMember);
-    builder.append(interfaceMembers);
-    return builder.toHashCode();
+    int hash = 1;
+    hash = hash * 31 + offset;
+    hash = hash * 31 + length;
+    hash = hash * 31 + (superclassMember == null ? 0 : superclassMember.hashCode());
+    hash = hash * 31 + (interfaceMembers == null ? 0 : interfaceMembers.hashCode());
+    return hash;
   }
 
   public JsonObject toJson() {
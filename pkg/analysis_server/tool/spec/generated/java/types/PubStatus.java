@@ -19,6 +19,7 @@ package org.dartlang.analysis.server.protocol;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.dart.server.utilities.general.JsonUtilities;
 import com.google.dart.server.utilities.general.ObjectUtilities;
@@ -26,7 +27,6 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -41,13 +41,18 @@ public class PubStatus {
 
   public static final PubStatus[] EMPTY_ARRAY = new PubStatus[0];
 
-  public static final List<PubStatus> EMPTY_LIST = Lists.newArrayList();
+  public static final List<PubStatus> EMPTY_LIST = ImmutableList.of();
 
   /**
    * True if the server is currently running pub to produce a list of package directories.
    */
   private final boolean isListingPackageDirs;
 
+  /**
+   * The hash code of this object, or {@code 0} if it has not been computed yet.
+   */
+  private int cachedHashCode;
+
   /**
    * Constructor for {@link PubStatus}.
    */
@@ -59,6 +64,9 @@ public class PubStatus {
   public boolean equals(Object obj) {
     if (obj instanceof PubStatus) {
       PubStatus other = (PubStatus) obj;
+      if (cachedHashCode != 0 && other.cachedHashCode != 0 && cachedHashCode != other.cachedHashCode) {
+        return false;
+      }
       return
         other.isListingPackageDirs == isListingPackageDirs;
     }
@@ -71,15 +79,14 @@ public class PubStatus {
   }
 
   public static List<PubStatus> fromJsonArray(JsonArray jsonArray) {
-    if (jsonArray == null) {
+    if (jsonArray == null || jsonArray.size() == 0) {
       return EMPTY_LIST;
     }
-    ArrayList<PubStatus> list = new ArrayList<PubStatus>(jsonArray.size());
-    Iterator<JsonElement> iterator = jsonArray.iterator();
-    while (iterator.hasNext()) {
-      list.add(fromJson(iterator.next().getAsJsonObject()));
+    ImmutableList.Builder<PubStatus> builder = ImmutableList.builder();
+    for (JsonElement element : jsonArray) {
+      builder.add(fromJson(element.getAsJsonObject()));
     }
-    return list;
+    return builder.build();
   }
 
   /**
@@ -91,9 +98,13 @@ public class PubStatus {
 
   @Override
   public int hashCode() {
-    HashCodeBuilder builder = new HashCodeBuilder();
-    builder.append(isListingPackageDirs);
-    return builder.toHashCode();
+    int hash = cachedHashCode;
+    if (hash == 0) {
+      hash = 1;
+      hash = hash * 31 + (isListingPackageDirs ? 1231 : 1237);
+      cachedHashCode = hash;
+    }
+    return hash;
   }
 
   public JsonObject toJson() {
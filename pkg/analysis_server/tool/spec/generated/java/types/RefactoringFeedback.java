@@ -19,6 +19,7 @@ package org.dartlang.analysis.server.protocol;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.dart.server.utilities.general.JsonUtilities;
 import com.google.dart.server.utilities.general.ObjectUtilities;
@@ -26,7 +27,6 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -41,7 +41,7 @@ public class RefactoringFeedback {
 
   public static final RefactoringFeedback[] EMPTY_ARRAY = new RefactoringFeedback[0];
 
-  public static final List<RefactoringFeedback> EMPTY_LIST = Lists.newArrayList();
+  public static final List<RefactoringFeedback> EMPTY_LIST = ImmutableList.of();
 
   /**
    * Constructor for {@link RefactoringFeedback}.
@@ -65,8 +65,8 @@ public class RefactoringFeedback {
 
   @Override
   public int hashCode() {
-    HashCodeBuilder builder = new HashCodeBuilder();
-    return builder.toHashCode();
+    int hash = 1;
+    return hash;
   }
 
   public JsonObject toJson() {
@@ -19,6 +19,7 @@ package org.dartlang.analysis.server.protocol;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.dart.server.utilities.general.JsonUtilities;
 import com.google.dart.server.utilities.general.ObjectUtilities;
@@ -26,7 +27,6 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -41,7 +41,7 @@ public class RefactoringMethodParameter {
 
   public static final RefactoringMethodParameter[] EMPTY_ARRAY = new RefactoringMethodParameter[0];
 
-  public static final List<RefactoringMethodParameter> EMPTY_LIST = Lists.newArrayList();
+  public static final List<RefactoringMethodParameter> EMPTY_LIST = ImmutableList.of();
 
   /**
    * The unique identifier of the parameter. Clients may omit this field for the parameters they want
@@ -107,15 +107,14 @@ public class RefactoringMethodParameter {
   }
 
   public static List<RefactoringMethodParameter> fromJsonArray(JsonArray jsonArray) {
-    if (jsonArray == null) {
+    if (jsonArray == null || jsonArray.size() == 0) {
       return EMPTY_LIST;
     }
-    ArrayList<RefactoringMethodParameter> list = new ArrayList<RefactoringMethodParameter>(jsonArray.size());
-    Iterator<JsonElement> iterator = jsonArray.iterator();
-    while (iterator.hasNext()) {
-      list.add(fromJson(iterator.next().getAsJsonObject()));
+    ImmutableList.Builder<RefactoringMethodParameter> builder = ImmutableList.builder();
+    for (JsonElement element : jsonArray) {
+      builder.add(fromJson(element.getAsJsonObject()));
     }
-    return list;
+    return builder.build();
   }
 
   /**
@@ -159,13 +158,13 @@ public class RefactoringMethodParameter {
 
   @Override
   public int hashCode() {
-    HashCodeBuilder builder = new HashCodeBuilder();
-    builder.append(id);
-    builder.append(kind);
-    builder.append(type);
-    builder.append(name);
-    builder.append(parameters);
-    return builder.toHashCode();
+    int hash = 1;
+    hash = hash * 31 + (id == null ? 0 : id.hashCode());
+    hash = hash * 31 + (kind == null ? 0 : kind.hashCode());
+    hash = hash * 31 + (type == null ? 0 : type.hashCode());
+    hash = hash * 31 + (name == null ? 0 : name.hashCode());
+    hash = hash * 31 + (parameters == null ? 0 : parameters.hashCode());
+    return hash;
   }
 
   /**
@@ -19,6 +19,7 @@ package org.dartlang.analysis.server.protocol;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.dart.server.utilities.general.JsonUtilities;
 import com.google.dart.server.utilities.general.ObjectUtilities;
@@ -26,7 +27,6 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -41,7 +41,7 @@ public class RefactoringProblem {
 
   public static final RefactoringProblem[] EMPTY_ARRAY = new RefactoringProblem[0];
 
-  public static final List<RefactoringProblem> EMPTY_LIST = Lists.newArrayList();
+  public static final List<RefactoringProblem> EMPTY_LIST = ImmutableList.of();
 
   /**
    * The severity of the problem being represented.
@@ -60,6 +60,11 @@ public class RefactoringProblem {
    */
   private final Location location;
 
+  /**
+   * The hash code of this object, or {@code 0} if it has not been computed yet.
+   */
+  private int cachedHashCode;
+
   /**
    * Constructor for {@link RefactoringProblem}.
    */
@@ -73,6 +78,9 @@ public class RefactoringProblem {
   public boolean equals(Object obj) {
     if (obj instanceof RefactoringProblem) {
       RefactoringProblem other = (RefactoringProblem) obj;
+      if (cachedHashCode != 0 && other.cachedHashCode != 0 && cachedHashCode != other.cachedHashCode) {
+        return false;
+      }
       return
         ObjectUtilities.equals(other.severity, severity) &&
         ObjectUtilities.equals(other.message, message) &&
@@ -89,15 +97,14 @@ public class RefactoringProblem {
   }
 
   public static List<RefactoringProblem> fromJsonArray(JsonArray jsonArray) {
-    if (jsonArray == null) {
+    if (jsonArray == null || jsonArray.size() == 0) {
       return EMPTY_LIST;
     }
-    ArrayList<RefactoringProblem> list = new ArrayList<RefactoringProblem>(jsonArray.size());
-    Iterator<JsonElement> iterator = jsonArray.iterator();
-    while (iterator.hasNext()) {
-      list.add(fromJson(iterator.next().getAsJsonObject()));
+    ImmutableList.Builder<RefactoringProblem> builder = ImmutableList.builder();
+    for (JsonElement element : jsonArray) {
+      builder.add(fromJson(element.getAsJsonObject()));
     }
-    return list;
+    return builder.build();
   }
 
   /**
@@ -125,11 +132,15 @@ public class RefactoringProblem {
 
   @Override
   public int hashCode() {
-    HashCodeBuilder builder = new HashCodeBuilder();
-    builder.append(severity);
-    builder.append(message);
-    builder.append(location);
-    return builder.toHashCode();
+    int hash = cachedHashCode;
+    if (hash == 0) {
+      hash = 1;
+      hash = hash * 31 + (severity == null ? 0 : severity.hashCode());
+      hash = hash * 31 + (message == null ? 0 : message.hashCode());
+      hash = hash * 31 + (location == null ? 0 : location.hashCode());
+      cachedHashCode = hash;
+    }
+    return hash;
   }
 
   public JsonObject toJson() {
@@ -19,6 +19,7 @@ package org.dartlang.analysis.server.protocol;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.dart.server.utilities.general.JsonUtilities;
 import com.google.dart.server.utilities.general.ObjectUtilities;
@@ -26,7 +27,6 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -39,7 +39,7 @@ public class RenameFeedback extends RefactoringFeedback {
 
   public static final RenameFeedback[] EMPTY_ARRAY = new RenameFeedback[0];
 
-  public static final List<RenameFeedback> EMPTY_LIST = Lists.newArrayList();
+  public static final List<RenameFeedback> EMPTY_LIST = ImmutableList.of();
 
   /**
    * The offset to the beginning of the name selected to be renamed.
@@ -62,6 +62,11 @@ public class RenameFeedback extends RefactoringFeedback {
    */
   private final String oldName;
 
+  /**
+   * The hash code of this object, or {@code 0} if it has not been computed yet.
+   */
+  private int cachedHashCode;
+
   /**
    * Constructor for {@link RenameFeedback}.
    */
@@ -76,6 +81,9 @@ public class RenameFeedback extends RefactoringFeedback {
   public boolean equals(Object obj) {
     if (obj instanceof RenameFeedback) {
       RenameFeedback other = (RenameFeedback) obj;
+      if (cachedHashCode != 0 && other.cachedHashCode != 0 && cachedHashCode != other.cachedHashCode) {
+        return false;
+      }
       return
         other.offset == offset &&
         other.length == length &&
@@ -94,15 +102,14 @@ public class RenameFeedback extends RefactoringFeedback {
   }
 
   public static List<RenameFeedback> fromJsonArray(JsonArray jsonArray) {
-    if (jsonArray == null) {
+    if (jsonArray == null || jsonArray.size() == 0) {
       return EMPTY_LIST;
     }
-    ArrayList<RenameFeedback> list = new ArrayList<RenameFeedback>(jsonArray.size());
-    Iterator<JsonElement> iterator = jsonArray.iterator();
-    while (iterator.hasNext()) {
-      list.add(fromJson(iterator.next().getAsJsonObject()));
+    ImmutableList.Builder<RenameFeedback> builder = ImmutableList.builder();
+    for (JsonElement element : jsonArray) {
+      builder.add(fromJson(element.getAsJsonObject()));
     }
-    return list;
+    return builder.build();
   }
 
   /**
@@ -136,12 +143,16 @@ public class RenameFeedback extends RefactoringFeedback {
 
   @Override
   public int hashCode() {
-    HashCodeBuilder builder = new HashCodeBuilder();
-    builder.append(offset);
-    builder.append(length);
-    builder.append(elementKindName);
-    builder.append(oldName);
-    return builder.toHashCode();
+    int hash = cachedHashCode;
+    if (hash == 0) {
+      hash = 1;
+      hash = hash * 31 + offset;
+      hash = hash * 31 + length;
+      hash = hash * 31 + (elementKindName == null ? 0 : elementKindName.hashCode());
+      hash = hash * 31 + (oldName == null ? 0 : oldName.hashCode());
+      cachedHashCode = hash;
+    }
+    return hash;
   }
 
   public JsonObject toJson() {
@@ -19,6 +19,7 @@ package org.dartlang.analysis.server.protocol;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.dart.server.utilities.general.JsonUtilities;
 import com.google.dart.server.utilities.general.ObjectUtilities;
@@ -26,7 +27,6 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -41,7 +41,7 @@ public class RequestError {
 
   public static final RequestError[] EMPTY_ARRAY = new RequestError[0];
 
-  public static final List<RequestError> EMPTY_LIST = Lists.newArrayList();
+  public static final List<RequestError> EMPTY_LIST = ImmutableList.of();
 
   /**
    * A code that uniquely identifies the error that occurred.
@@ -58,6 +58,11 @@ public class RequestError {
    */
   private final String stackTrace;
 
+  /**
+   * The hash code of this object, or {@code 0} if it has not been computed yet.
+   */
+  private int cachedHashCode;
+
   /**
    * Constructor for {@link RequestError}.
    */
@@ -71,6 +76,9 @@ public class RequestError {
   public boolean equals(Object obj) {
     if (obj instanceof RequestError) {
       RequestError other = (RequestError) obj;
+      if (cachedHashCode != 0 && other.cachedHashCode != 0 && cachedHashCode != other.cachedHashCode) {
+        return false;
+      }
       return
         ObjectUtilities.equals(other.code, code) &&
         ObjectUtilities.equals(other.message, message) &&
@@ -87,15 +95,14 @@ public class RequestError {
   }
 
   public static List<RequestError> fromJsonArray(JsonArray jsonArray) {
-    if (jsonArray == null) {
+    if (jsonArray == null || jsonArray.size() == 0) {
       return EMPTY_LIST;
     }
-    ArrayList<RequestError> list = new ArrayList<RequestError>(jsonArray.size());
-    Iterator<JsonElement> iterator = jsonArray.iterator();
-    while (iterator.hasNext()) {
-      list.add(fromJson(iterator.next().getAsJsonObject()));
+    ImmutableList.Builder<RequestError> builder = ImmutableList.builder();
+    for (JsonElement element : jsonArray) {
+      builder.add(fromJson(element.getAsJsonObject()));
     }
-    return list;
+    return builder.build();
   }
 
   /**
@@ -121,11 +128,15 @@ public class RequestError {
 
   @Override
   public int hashCode() {
-    HashCodeBuilder builder = new HashCodeBuilder();
-    builder.append(code);
-    builder.append(message);
-    builder.append(stackTrace);
-    return builder.toHashCode();
+    int hash = cachedHashCode;
+    if (hash == 0) {
+      hash = 1;
+      hash = hash * 31 + (code == null ? 0 : code.hashCode());
+      hash = hash * 31 + (message == null ? 0 : message.hashCode());
+      hash = hash * 31 + (stackTrace == null ? 0 : stackTrace.hashCode());
+      cachedHashCode = hash;
+    }
+    return hash;
   }
 
   public JsonObject toJson() {
@@ -19,6 +19,7 @@ package org.dartlang.analysis.server.protocol;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.dart.server.utilities.general.JsonUtilities;
 import com.google.dart.server.utilities.general.ObjectUtilities;
@@ -26,7 +27,6 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -41,7 +41,7 @@ public class SearchResult {
 
   public static final SearchResult[] EMPTY_ARRAY = new SearchResult[0];
 
-  public static final List<SearchResult> EMPTY_LIST = Lists.newArrayList();
+  public static final List<SearchResult> EMPTY_LIST = ImmutableList.of();
 
   /**
    * The location of the code that matched the search criteria.
@@ -98,15 +98,14 @@ public class SearchResult {
   }
 
   public static List<SearchResult> fromJsonArray(JsonArray jsonArray) {
-    if (jsonArray == null) {
+    if (jsonArray == null || jsonArray.size() == 0) {
       return EMPTY_LIST;
     }
-    ArrayList<SearchResult> list = new ArrayList<SearchResult>(jsonArray.size());
-    Iterator<JsonElement> iterator = jsonArray.iterator();
-    while (iterator.hasNext()) {
-      list.add(fromJson(iterator.next().getAsJsonObject()));
+    ImmutableList.Builder<SearchResult> builder = ImmutableList.builder();
+    for (JsonElement element : jsonArray) {
+      builder.add(fromJson(element.getAsJsonObject()));
     }
-    return list;
+    return builder.build();
   }
 
   /**
@@ -142,12 +141,12 @@ public class SearchResult {
 
   @Override
   public int hashCode() {
-    HashCodeBuilder builder = new HashCodeBuilder();
-    builder.append(location);
-    builder.append(kind);
-    builder.append(isPotential);
-    builder.append(path);
-    return builder.toHashCode();
+    int hash = 1;
+    hash = hash * 31 + (location == null ? 0 : location.hashCode());
+    hash = hash * 31 + (kind == null ? 0 : kind.hashCode());
+    hash = hash * 31 + (isPotential ? 1231 : 1237);
+    hash = hash * 31 + (path == null ? 0 : path.hashCode());
+    return hash;
   }
 
   public JsonObject toJson() {
@@ -19,6 +19,7 @@ package org.dartlang.analysis.server.protocol;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.dart.server.utilities.general.JsonUtilities;
 import com.google.dart.server.utilities.general.ObjectUtilities;
@@ -26,7 +27,6 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -41,7 +41,7 @@ public class SourceChange {
 
   public static final SourceChange[] EMPTY_ARRAY = new SourceChange[0];
 
-  public static final List<SourceChange> EMPTY_LIST = Lists.newArrayList();
+  public static final List<SourceChange> EMPTY_LIST = ImmutableList.of();
 
   /**
    * A human-readable description of the change to be applied.
@@ -95,15 +95,14 @@ public class SourceChange {
   }
 
   public static List<SourceChange> fromJsonArray(JsonArray jsonArray) {
-    if (jsonArray == null) {
+    if (jsonArray == null || jsonArray.size() == 0) {
       return EMPTY_LIST;
     }
-    ArrayList<SourceChange> list = new ArrayList<SourceChange>(jsonArray.size());
-    Iterator<JsonElement> iterator = jsonArray.iterator();
-    while (iterator.hasNext()) {
-      list.add(fromJson(iterator.next().getAsJsonObject()));
+    ImmutableList.Builder<SourceChange> builder = ImmutableList.builder();
+    for (JsonElement element : jsonArray) {
+      builder.add(fromJson(element.getAsJsonObject()));
     }
-    return list;
+    return builder.build();
   }
 
   /**
@@ -136,12 +135,12 @@ public class SourceChange {
 
   @Override
   public int hashCode() {
-    HashCodeBuilder builder = new HashCodeBuilder();
-    builder.append(message);
-    builder.append(edits);
-    builder.append(linkedEditGroups);
-    builder.append(selection);
-    return builder.toHashCode();
+    int hash = 1;
+    hash = hash * 31 + (message == null ? 0 : message.hashCode());
+    hash = hash * 31 + (edits == null ? 0 : edits.hashCode());
+    hash = hash * 31 + (linkedEditGroups == null ? 0 : linkedEditGroups.hashCode());
+    hash = hash * 31 + (selection == null ? 0 : selection.hashCode());
+    return hash;
   }
 
   public JsonObject toJson() {
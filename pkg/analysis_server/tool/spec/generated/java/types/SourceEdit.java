@@ -19,6 +19,7 @@ package org.dartlang.analysis.server.protocol;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.dart.server.utilities.general.JsonUtilities;
 import com.google.dart.server.utilities.general.ObjectUtilities;
@@ -26,7 +27,6 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -41,7 +41,7 @@ public class SourceEdit {
 
   public static final SourceEdit[] EMPTY_ARRAY = new SourceEdit[0];
 
-  public static final List<SourceEdit> EMPTY_LIST = Lists.newArrayList();
+  public static final List<SourceEdit> EMPTY_LIST = ImmutableList.of();
 
   /**
    * The offset of the region to be modified.
@@ -69,6 +69,11 @@ public class SourceEdit {
    */
   private final String id;
 
+  /**
+   * The hash code of this object, or {@code 0} if it has not been computed yet.
+   */
+  private int cachedHashCode;
+
   /**
    * Constructor for {@link SourceEdit}.
    */
@@ -83,6 +88,9 @@ public class SourceEdit {
   public boolean equals(Object obj) {
     if (obj instanceof SourceEdit) {
       SourceEdit other = (SourceEdit) obj;
+      if (cachedHashCode != 0 && other.cachedHashCode != 0 && cachedHashCode != other.cachedHashCode) {
+        return false;
+      }
       return
         other.offset == offset &&
         other.length == length &&
@@ -101,15 +109,14 @@ public class SourceEdit {
   }
 
   public static List<SourceEdit> fromJsonArray(JsonArray jsonArray) {
-    if (jsonArray == null) {
+    if (jsonArray == null || jsonArray.size() == 0) {
       return EMPTY_LIST;
     }
-    ArrayList<SourceEdit> list = new ArrayList<SourceEdit>(jsonArray.size());
-    Iterator<JsonElement> iterator = jsonArray.iterator();
-    while (iterator.hasNext()) {
-      list.add(fromJson(iterator.next().getAsJsonObject()));
+    ImmutableList.Builder<SourceEdit> builder = ImmutableList.builder();
+    for (JsonElement element : jsonArray) {
+      builder.add(fromJson(element.getAsJsonObject()));
     }
-    return list;
+    return builder.build();
   }
 
   /**
@@ -148,12 +155,16 @@ public class SourceEdit {
 
   @Override
   public int hashCode() {
-    HashCodeBuilder builder = new HashCodeBuilder();
-    builder.append(offset);
-    builder.append(length);
-    builder.append(replacement);
-    builder.append(id);
-    return builder.toHashCode();
+    int hash = cachedHashCode;
+    if (hash == 0) {
+      hash = 1;
+      hash = hash * 31 + offset;
+      hash = hash * 31 + length;
+      hash = hash * 31 + (replacement == null ? 0 : replacement.hashCode());
+      hash = hash * 31 + (id == null ? 0 : id.hashCode());
+      cachedHashCode = hash;
+    }
+    return hash;
   }
 
   public JsonObject toJson() {
@@ -19,6 +19,7 @@ package org.dartlang.analysis.server.protocol;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.dart.server.utilities.general.JsonUtilities;
 import com.google.dart.server.utilities.general.ObjectUtilities;
@@ -26,7 +27,6 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -41,7 +41,7 @@ public class SourceFileEdit {
 
   public static final SourceFileEdit[] EMPTY_ARRAY = new SourceFileEdit[0];
 
-  public static final List<SourceFileEdit> EMPTY_LIST = Lists.newArrayList();
+  public static final List<SourceFileEdit> EMPTY_LIST = ImmutableList.of();
 
   /**
    * The file containing the code to be modified.
@@ -90,15 +90,14 @@ public class SourceFileEdit {
   }
 
   public static List<SourceFileEdit> fromJsonArray(JsonArray jsonArray) {
-    if (jsonArray == null) {
+    if (jsonArray == null || jsonArray.size() == 0) {
       return EMPTY_LIST;
     }
-    ArrayList<SourceFileEdit> list = new ArrayList<SourceFileEdit>(jsonArray.size());
-    Iterator<JsonElement> iterator = jsonArray.iterator();
-    while (iterator.hasNext()) {
-      list.add(fromJson(iterator.next().getAsJsonObject()));
+    ImmutableList.Builder<SourceFileEdit> builder = ImmutableList.builder();
+    for (JsonElement element : jsonArray) {
+      builder.add(fromJson(element.getAsJsonObject()));
     }
-    return list;
+    return builder.build();
   }
 
   /**
@@ -127,11 +126,11 @@ public class SourceFileEdit {
 
   @Override
   public int hashCode() {
-    HashCodeBuilder builder = new HashCodeBuilder();
-    builder.append(file);
-    builder.append(fileStamp);
-    builder.append(edits);
-    return builder.toHashCode();
+    int hash = 1;
+    hash = hash * 31 + (file == null ? 0 : file.hashCode());
+    hash = hash * 31 + (int) (fileStamp ^ (fileStamp >>> 32));
+    hash = hash * 31 + (edits == null ? 0 : edits.hashCode());
+    return hash;
   }
 
   public JsonObject toJson() {
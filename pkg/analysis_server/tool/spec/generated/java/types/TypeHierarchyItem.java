@@ -19,6 +19,7 @@ package org.dartlang.analysis.server.protocol;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.dart.server.utilities.general.JsonUtilities;
 import com.google.dart.server.utilities.general.ObjectUtilities;
@@ -26,7 +27,6 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import java.util.ArrayList;
 import java.util.Iterator;
 import org.apache.commons.lang3.StringUtils;
@@ -41,7 +41,7 @@ public class TypeHierarchyItem {
 
   public static final TypeHierarchyItem[] EMPTY_ARRAY = new TypeHierarchyItem[0];
 
-  public static final List<TypeHierarchyItem> EMPTY_LIST = Lists.newArrayList();
+  public static final List<TypeHierarchyItem> EMPTY_LIST = ImmutableList.of();
 
   /**
    * The class element represented by this item.
@@ -127,15 +127,14 @@ public class TypeHierarchyItem {
   }
 
   public static List<TypeHierarchyItem> fromJsonArray(JsonArray jsonArray) {
-    if (jsonArray == null) {
+    if (jsonArray == null || jsonArray.size() == 0) {
       return EMPTY_LIST;
     }
-    ArrayList<TypeHierarchyItem> list = new ArrayList<TypeHierarchyItem>(jsonArray.size());
-    Iterator<JsonElement> iterator = jsonArray.iterator();
-    while (iterator.hasNext()) {
-      list.add(fromJson(iterator.next().getAsJsonObject()));
+    ImmutableList.Builder<TypeHierarchyItem> builder = ImmutableList.builder();
+    for (JsonElement element : jsonArray) {
+      builder.add(fromJson(element.getAsJsonObject()));
     }
-    return list;
+    return builder.build();
   }
 
   public String getBestName() {
@@ -205,15 +204,15 @@ public class TypeHierarchyItem {
 
   @Override
   public int hashCode() {
-    HashCodeBuilder builder = new HashCodeBuilder();
-    builder.append(classElement);
-    builder.append(displayName);
-    builder.append(memberElement);
-    builder.append(superclass);
-    builder.append(interfaces);
-    builder.append(mixins);
-    builder.append(subclasses);
-    return builder.toHashCode();
+    int hash = 1;
+    hash = hash * 31 + (classElement == null ? 0 : classElement.hashCode());
+    hash = hash * 31 + (displayName == null ? 0 : displayName.hashCode());
+    hash = hash * 31 + (memberElement == null ? 0 : memberElement.hashCode());
+    hash = hash * 31 + (superclass == null ? 0 : superclass.hashCode());
+    hash = hash * 31 + Arrays.hashCode(interfaces);
+    hash = hash * 31 + Arrays.hashCode(mixins);
+    hash = hash * 31 + Arrays.hashCode(subclasses);
+    return hash;
   }
 
   public JsonObject toJson() {
@@ -0,0 +1,336 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.server.internal.transport;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The class {@code MappedRingBuffer} is a ring buffer of messages in a memory-mapped file, shared
+ * by a process writing messages and a process reading them, so that messages are exchanged without
+ * system calls or copies through the kernel. A message is read as a view of the mapping, which is
+ * valid until the next message is read.
+ * <p>
+ * The file starts with a header holding the capacity of the ring, whether the writer has closed it,
+ * whether the reader has detached from it, and the positions of the writer and of the reader, which
+ * only increase and are each written by a single process. Each message is stored as its length
+ * followed by its bytes, aligned on four bytes, and never wraps around the end of the ring: a
+ * message which would is preceded by a padding record filling the end of the ring. A writer waits
+ * while the ring is full, and a reader while it is empty, each for at most a given time, a writer
+ * also giving up as soon as the reader has detached.
+ * <p>
+ * Positions and flags are published with release stores and read with acquire loads through a
+ * {@link VarHandle} viewing the mapping, so that a position is never seen before the messages it
+ * covers.
+ *
+ * @coverage dart.server
+ */
+public class MappedRingBuffer {
+
+  /**
+   * The first four bytes of a ring buffer file.
+   */
+  private static final int MAGIC = 0x52494E47;
+
+  /**
+   * The offsets of the fields of the header, the positions being on separate cache lines.
+   */
+  private static final int CAPACITY_OFFSET = 4;
+
+  private static final int CLOSED_OFFSET = 8;
+
+  private static final int DETACHED_OFFSET = 12;
+
+  private static final int WRITE_POSITION_OFFSET = 64;
+
+  private static final int READ_POSITION_OFFSET = 128;
+
+  private static final int DATA_OFFSET = 192;
+
+  /**
+   * The length of the record filling the end of the ring.
+   */
+  private static final int PADDING = -1;
+
+  /**
+   * The number of times a process yields while waiting, before parking for {@link #PARK_NANOS}.
+   */
+  private static final int SPIN_COUNT = 100;
+
+  private static final long PARK_NANOS = 50000;
+
+  /**
+   * The views of the mapping through which the flags and the positions of the header are accessed,
+   * in the byte order of the mapping.
+   */
+  private static final VarHandle INT_VIEW =
+      MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+  private static final VarHandle LONG_VIEW =
+      MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+  /**
+   * The mapping of the file.
+   */
+  private final MappedByteBuffer buffer;
+
+  /**
+   * The number of bytes of the ring, which is a multiple of four.
+   */
+  private final int capacity;
+
+  /**
+   * The position of the next message written by this process.
+   */
+  private long writePosition;
+
+  /**
+   * The position of the last message read by this process.
+   */
+  private long readPosition;
+
+  /**
+   * The position following the last message read by this process, which becomes the read position
+   * when the next message is read.
+   */
+  private long nextReadPosition;
+
+  /**
+   * {@code true} if the ring has been closed and all of its messages have been read.
+   */
+  private boolean finished;
+
+  private MappedRingBuffer(MappedByteBuffer buffer) {
+    this.buffer = buffer;
+    capacity = buffer.getInt(CAPACITY_OFFSET);
+    writePosition = loadPosition(WRITE_POSITION_OFFSET);
+    readPosition = loadPosition(READ_POSITION_OFFSET);
+    nextReadPosition = readPosition;
+  }
+
+  /**
+   * Mark the ring as closed by its writer, so that the reader finishes once it has read all of the
+   * messages.
+   */
+  public void close() {
+    INT_VIEW.setRelease(buffer, CLOSED_OFFSET, 1);
+  }
+
+  /**
+   * Create the given file, replacing any existing one, as an empty ring buffer of the given capacity,
+   * rounded up to a multiple of four bytes.
+   */
+  public static MappedRingBuffer create(File file, int capacity) throws IOException {
+    capacity = (capacity + 3) & ~3;
+    MappedByteBuffer buffer = map(file, DATA_OFFSET + capacity, true);
+    buffer.putInt(CAPACITY_OFFSET, capacity);
+    buffer.putInt(0, MAGIC);
+    return new MappedRingBuffer(buffer);
+  }
+
+  /**
+   * Mark the ring as detached by its reader, so that the writer stops waiting for space and fails to
+   * write any further message.
+   */
+  public void detach() {
+    INT_VIEW.setRelease(buffer, DETACHED_OFFSET, 1);
+  }
+
+  /**
+   * Return the number of bytes of the longest message which fits in the ring.
+   */
+  public int getMaxMessageLength() {
+    return capacity - 4;
+  }
+
+  /**
+   * Return {@code true} if the ring has been closed by its writer and all of its messages have been
+   * read.
+   */
+  public boolean isFinished() {
+    return finished;
+  }
+
+  /**
+   * Open the ring buffer created in the given file by another process.
+   *
+   * @throws IOException if the file is not a ring buffer
+   */
+  public static MappedRingBuffer open(File file) throws IOException {
+    MappedByteBuffer buffer = map(file, file.length(), false);
+    if (buffer.capacity() < DATA_OFFSET || buffer.getInt(0) != MAGIC) {
+      throw new IOException("Not a ring buffer: " + file);
+    }
+    return new MappedRingBuffer(buffer);
+  }
+
+  /**
+   * Return a read-only view of the next message, waiting for at most the given time, or {@code null}
+   * if no message was written in time or if the ring is finished. The view is valid until the next
+   * call, which releases the space of the message to the writer.
+   */
+  public ByteBuffer read(long timeout, TimeUnit unit) {
+    if (nextReadPosition != readPosition) {
+      readPosition = nextReadPosition;
+      storePosition(READ_POSITION_OFFSET, readPosition);
+    }
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    int spins = 0;
+    while (true) {
+      if (readPosition < loadPosition(WRITE_POSITION_OFFSET)) {
+        int index = (int) (readPosition % capacity);
+        int length = buffer.getInt(DATA_OFFSET + index);
+        if (length == PADDING) {
+          readPosition += capacity - index;
+          nextReadPosition = readPosition;
+          storePosition(READ_POSITION_OFFSET, readPosition);
+          continue;
+        }
+        ByteBuffer message = buffer.duplicate();
+        message.limit(DATA_OFFSET + index + 4 + length);
+        message.position(DATA_OFFSET + index + 4);
+        nextReadPosition = readPosition + align(4 + length);
+        return message.slice().asReadOnlyBuffer();
+      }
+      if (loadFlag(CLOSED_OFFSET) && readPosition == loadPosition(WRITE_POSITION_OFFSET)) {
+        finished = true;
+        return null;
+      }
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        return null;
+      }
+      spins = pause(spins, remaining);
+    }
+  }
+
+  /**
+   * Write the given message, waiting for at most the given time while the ring does not have enough
+   * free space, and return {@code true}, or return {@code false} without writing the message if the
+   * ring still does not have enough free space once the time has elapsed, or if the reader has
+   * detached.
+   *
+   * @throws IllegalArgumentException if the message is longer than {@link #getMaxMessageLength()}
+   */
+  public boolean write(byte[] message, long timeout, TimeUnit unit) {
+    int length = message.length;
+    int size = align(4 + length);
+    if (size > capacity) {
+      throw new IllegalArgumentException("Message too long: " + length);
+    }
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    int index = (int) (writePosition % capacity);
+    int tail = capacity - index;
+    if (tail < size) {
+      if (!awaitSpace(4, deadline)) {
+        return false;
+      }
+      buffer.putInt(DATA_OFFSET + index, PADDING);
+      writePosition += tail;
+      storePosition(WRITE_POSITION_OFFSET, writePosition);
+      index = 0;
+    }
+    if (!awaitSpace(size, deadline)) {
+      return false;
+    }
+    buffer.putInt(DATA_OFFSET + index, length);
+    ByteBuffer target = buffer.duplicate();
+    target.position(DATA_OFFSET + index + 4);
+    target.put(message);
+    writePosition += size;
+    storePosition(WRITE_POSITION_OFFSET, writePosition);
+    return true;
+  }
+
+  private static int align(int size) {
+    return (size + 3) & ~3;
+  }
+
+  /**
+   * Wait until the given number of bytes following the write position are free and return
+   * {@code true}, or return {@code false} if they are still not free at the given deadline, as
+   * returned by {@link System#nanoTime()}, or if the reader has detached.
+   */
+  private boolean awaitSpace(int size, long deadline) {
+    int spins = 0;
+    while (writePosition + size - loadPosition(READ_POSITION_OFFSET) > capacity) {
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0 || loadFlag(DETACHED_OFFSET)) {
+        return false;
+      }
+      spins = pause(spins, remaining);
+    }
+    return !loadFlag(DETACHED_OFFSET);
+  }
+
+  /**
+   * Return {@code true} if the flag at the given offset of the header is set, ordered before the
+   * following accesses to the mapping.
+   */
+  private boolean loadFlag(int offset) {
+    return (int) INT_VIEW.getAcquire(buffer, offset) != 0;
+  }
+
+  /**
+   * Return the position at the given offset of the header, ordered before the following accesses to
+   * the mapping.
+   */
+  private long loadPosition(int offset) {
+    return (long) LONG_VIEW.getAcquire(buffer, offset);
+  }
+
+  private static MappedByteBuffer map(File file, long size, boolean create) throws IOException {
+    RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+    try {
+      if (create) {
+        randomAccessFile.setLength(0);
+        randomAccessFile.setLength(size);
+      }
+      return randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+    } finally {
+      randomAccessFile.close();
+    }
+  }
+
+  /**
+   * Wait for the other process, for at most the given number of nanoseconds, and return the number of
+   * times the calling process has waited.
+   */
+  private static int pause(int spins, long nanos) {
+    if (spins < SPIN_COUNT) {
+      Thread.yield();
+    } else {
+      LockSupport.parkNanos(Math.min(nanos, PARK_NANOS));
+    }
+    return spins + 1;
+  }
+
+  /**
+   * Store the given position at the given offset of the header, ordered after the previous accesses
+   * to the mapping.
+   */
+  private void storePosition(int offset, long position) {
+    LONG_VIEW.setRelease(buffer, offset, position);
+  }
+
+}
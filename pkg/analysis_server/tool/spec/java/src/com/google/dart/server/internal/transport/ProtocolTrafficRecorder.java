@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.server.internal.transport;
+
+import com.google.dart.server.generated.AnalysisServer;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The class {@code ProtocolTrafficRecorder} captures the JSON-RPC stream exchanged with an analysis
+ * server so that it can be replayed by a {@link ProtocolTrafficReplayer}.
+ * <p>
+ * The recording is a GZIP stream starting with {@link #MAGIC}, the format version, the protocol
+ * version and the wall clock time at which the recording started. It is followed by one entry
+ * per message: the direction ({@link #REQUEST} or {@link #SERVER}), the number of microseconds
+ * since the previous entry and the UTF-8 bytes of the message. Integers are written as unsigned
+ * variable length quantities.
+ *
+ * @coverage dart.server
+ */
+public class ProtocolTrafficRecorder {
+
+  /**
+   * The bytes at the start of every recording.
+   */
+  public static final int MAGIC = 0x44525043;
+
+  /**
+   * The version of the recording format.
+   */
+  public static final int VERSION = 1;
+
+  /**
+   * The version of the analysis server protocol recorded in the header.
+   */
+  public static final String PROTOCOL_VERSION = AnalysisServer.PROTOCOL_VERSION;
+
+  /**
+   * The direction of a message sent by the client to the server.
+   */
+  public static final int REQUEST = 0;
+
+  /**
+   * The direction of a message (response or notification) sent by the server to the client.
+   */
+  public static final int SERVER = 1;
+
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  /**
+   * The stream the recording is written to.
+   */
+  private final DataOutputStream output;
+
+  /**
+   * The time at which the previous entry was recorded.
+   */
+  private long lastNanos;
+
+  /**
+   * Initialize a newly created recorder to write to the given stream, which will be closed when the
+   * recorder is closed.
+   */
+  public ProtocolTrafficRecorder(OutputStream stream) throws IOException {
+    output = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(stream)));
+    output.writeInt(MAGIC);
+    writeUnsigned(VERSION);
+    output.writeUTF(PROTOCOL_VERSION);
+    output.writeLong(System.currentTimeMillis());
+    lastNanos = System.nanoTime();
+  }
+
+  /**
+   * Finish the recording and close the underlying stream.
+   */
+  public synchronized void close() throws IOException {
+    output.close();
+  }
+
+  /**
+   * Flush the entries recorded so far to the underlying stream.
+   */
+  public synchronized void flush() throws IOException {
+    output.flush();
+  }
+
+  /**
+   * Record a message sent by the client to the server.
+   */
+  public void recordRequest(String json) throws IOException {
+    record(REQUEST, json);
+  }
+
+  /**
+   * Record a message (response or notification) sent by the server to the client.
+   */
+  public void recordServerLine(String json) throws IOException {
+    record(SERVER, json);
+  }
+
+  private synchronized void record(int direction, String json) throws IOException {
+    long nanos = System.nanoTime();
+    byte[] bytes = json.getBytes(UTF8);
+    output.writeByte(direction);
+    writeUnsigned((nanos - lastNanos) / 1000);
+    writeUnsigned(bytes.length);
+    output.write(bytes);
+    lastNanos = nanos;
+  }
+
+  private void writeUnsigned(long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      output.writeByte((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    output.writeByte((int) value);
+  }
+
+}
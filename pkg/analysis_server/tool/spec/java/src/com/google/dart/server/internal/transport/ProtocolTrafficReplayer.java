@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.server.internal.transport;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * The class {@code ProtocolTrafficReplayer} reads a recording written by a
+ * {@link ProtocolTrafficRecorder} and drives a {@link ProtocolTrafficReplayer.Handler} with the
+ * recorded messages, either with the original timing, a multiple of it, or as fast as possible.
+ * The handler typically feeds the server messages to the same code that decodes the output of a
+ * real server, so that listeners, consumers and decoders can be exercised without a server.
+ *
+ * @coverage dart.server
+ */
+public class ProtocolTrafficReplayer {
+
+  /**
+   * The interface {@code Handler} defines the behavior of objects that receive replayed messages.
+   */
+  public interface Handler {
+    /**
+     * Handle a recorded message sent by the client to the server.
+     *
+     * @param micros the number of microseconds since the start of the recording
+     * @param json the message
+     */
+    void requestSent(long micros, String json) throws Exception;
+
+    /**
+     * Handle a recorded message sent by the server to the client.
+     *
+     * @param micros the number of microseconds since the start of the recording
+     * @param json the message
+     */
+    void serverLine(long micros, String json) throws Exception;
+  }
+
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  /**
+   * The stream the recording is read from.
+   */
+  private final DataInputStream input;
+
+  /**
+   * The version of the analysis server protocol spoken by the recorded client.
+   */
+  private final String protocolVersion;
+
+  /**
+   * The wall clock time at which the recording was started.
+   */
+  private final long startMillis;
+
+  /**
+   * The factor by which the replay is accelerated, or {@code 0} to replay as fast as possible.
+   */
+  private double speed = 1.0;
+
+  /**
+   * Initialize a newly created replayer to read the recording from the given stream, which will be
+   * closed when the replay is complete.
+   *
+   * @throws IOException if the stream does not contain a recording
+   */
+  public ProtocolTrafficReplayer(InputStream stream) throws IOException {
+    input = new DataInputStream(new BufferedInputStream(new GZIPInputStream(stream)));
+    if (input.readInt() != ProtocolTrafficRecorder.MAGIC) {
+      throw new IOException("Not a protocol traffic recording");
+    }
+    long version = readUnsigned();
+    if (version != ProtocolTrafficRecorder.VERSION) {
+      throw new IOException("Unsupported recording version: " + version);
+    }
+    protocolVersion = input.readUTF();
+    startMillis = input.readLong();
+  }
+
+  /**
+   * Return the version of the analysis server protocol spoken by the recorded client.
+   */
+  public String getProtocolVersion() {
+    return protocolVersion;
+  }
+
+  /**
+   * Return the wall clock time at which the recording was started.
+   */
+  public long getStartMillis() {
+    return startMillis;
+  }
+
+  /**
+   * Replay the recording, invoking the given handler for each recorded message, and close the
+   * underlying stream. Return the number of messages replayed.
+   */
+  public int replay(Handler handler) throws Exception {
+    int count = 0;
+    long recordedMicros = 0;
+    long startNanos = System.nanoTime();
+    try {
+      while (true) {
+        int direction = input.read();
+        if (direction == -1) {
+          break;
+        }
+        recordedMicros += readUnsigned();
+        byte[] bytes = new byte[(int) readUnsigned()];
+        input.readFully(bytes);
+        String json = new String(bytes, UTF8);
+        if (speed > 0) {
+          long dueNanos = startNanos + (long) (recordedMicros * 1000 / speed);
+          long delayNanos = dueNanos - System.nanoTime();
+          if (delayNanos > 0) {
+            Thread.sleep(delayNanos / 1000000, (int) (delayNanos % 1000000));
+          }
+        }
+        if (direction == ProtocolTrafficRecorder.REQUEST) {
+          handler.requestSent(recordedMicros, json);
+        } else {
+          handler.serverLine(recordedMicros, json);
+        }
+        count++;
+      }
+    } finally {
+      input.close();
+    }
+    return count;
+  }
+
+  /**
+   * Set the factor by which the replay is accelerated: {@code 1} replays with the original timing,
+   * {@code 10} ten times faster, and {@code 0} as fast as possible.
+   */
+  public void setSpeed(double speed) {
+    this.speed = speed;
+  }
+
+  private long readUnsigned() throws IOException {
+    long value = 0;
+    int shift = 0;
+    while (true) {
+      int b = input.read();
+      if (b == -1) {
+        throw new EOFException();
+      }
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+      shift += 7;
+    }
+  }
+
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.server.internal.transport;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.BufferedReader;
+import java.io.CharArrayReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The class {@code SharedMemoryTransport} starts an analysis server process and exchanges messages
+ * with it, the responses and notifications being read from a {@link MappedRingBuffer} shared with
+ * the server rather than from its standard output, which avoids copying large notifications such as
+ * {@code analysis.navigation} or {@code search.results} through a pipe. Requests are still written
+ * to the standard input of the server.
+ * <p>
+ * The ring is passed to the server as a {@code --ring=<path>} argument. The standard output remains
+ * the fallback: the server writes there the messages which are longer than the ring, signaling each
+ * of them with an empty message in the ring to preserve the order of the messages, and all of the
+ * messages are read from it when the ring cannot be created. The first message of the server, its
+ * {@code server.connected} notification, is awaited on both, so that the messages of a server which
+ * does not support the ring, and writes that notification to its standard output, are all read from
+ * its standard output.
+ *
+ * @coverage dart.server
+ */
+public class SharedMemoryTransport {
+
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  /**
+   * The number of milliseconds to wait for a message before checking whether the server has exited.
+   */
+  private static final long POLL_MILLIS = 100;
+
+  /**
+   * The number of milliseconds to wait for the first message in the ring before checking whether it
+   * was written to the standard output.
+   */
+  private static final long CONNECT_POLL_MILLIS = 10;
+
+  /**
+   * The server process.
+   */
+  private final Process process;
+
+  /**
+   * The ring from which messages are read, or {@code null} if they are read from the standard output
+   * of the server.
+   */
+  private MappedRingBuffer ring;
+
+  /**
+   * The file of the ring, or {@code null} if there is no ring.
+   */
+  private File ringFile;
+
+  /**
+   * {@code true} once the first message of the server has been read, and the channel from which
+   * messages are read is known.
+   */
+  private boolean connected;
+
+  /**
+   * The writer to the standard input of the server.
+   */
+  private final Writer requests;
+
+  /**
+   * The reader from the standard output of the server.
+   */
+  private final BufferedReader responses;
+
+  private final JsonParser parser = new JsonParser();
+
+  private SharedMemoryTransport(Process process, MappedRingBuffer ring, File ringFile) {
+    this.process = process;
+    this.ring = ring;
+    this.ringFile = ringFile;
+    requests = new OutputStreamWriter(process.getOutputStream(), UTF8);
+    responses = new BufferedReader(new InputStreamReader(process.getInputStream(), UTF8));
+  }
+
+  /**
+   * Close the standard input of the server, which lets it exit, and delete the file of the ring.
+   */
+  public void close() throws IOException {
+    requests.close();
+    if (ring != null) {
+      ring.detach();
+      ringFile.delete();
+    }
+  }
+
+  /**
+   * Return {@code true} if the messages of the server are read from a ring, which is only known once
+   * the first message has been read.
+   */
+  public boolean isUsingRing() {
+    return ring != null;
+  }
+
+  /**
+   * Return the next response or notification of the server, waiting for it, or {@code null} if the
+   * server has exited.
+   */
+  public JsonObject readMessage() throws IOException {
+    if (!connected) {
+      connected = true;
+      if (ring != null) {
+        return readFirstMessage();
+      }
+    }
+    if (ring == null) {
+      return readLine();
+    }
+    boolean exited = false;
+    while (true) {
+      ByteBuffer message = ring.read(exited ? 0 : POLL_MILLIS, TimeUnit.MILLISECONDS);
+      if (message != null) {
+        return parse(message);
+      }
+      if (exited || ring.isFinished()) {
+        return null;
+      }
+      exited = hasExited();
+    }
+  }
+
+  /**
+   * Send the given request to the server.
+   */
+  public void sendRequest(JsonObject request) throws IOException {
+    synchronized (requests) {
+      requests.write(request.toString());
+      requests.write('\n');
+      requests.flush();
+    }
+  }
+
+  /**
+   * Start the server with the given command, sharing with it a ring of the given capacity in bytes,
+   * or none if the capacity is zero.
+   */
+  public static SharedMemoryTransport start(List<String> command, int ringCapacity)
+      throws IOException {
+    File ringFile = null;
+    MappedRingBuffer ring = null;
+    if (ringCapacity > 0) {
+      try {
+        ringFile = File.createTempFile("analysis_server", ".ring");
+        ringFile.deleteOnExit();
+        ring = MappedRingBuffer.create(ringFile, ringCapacity);
+      } catch (IOException exception) {
+        // fall back to the standard output
+        ringFile = null;
+      }
+    }
+    List<String> arguments = new ArrayList<String>(command);
+    if (ring != null) {
+      arguments.add("--ring=" + ringFile.getPath());
+    }
+    ProcessBuilder builder = new ProcessBuilder(arguments);
+    builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+    return new SharedMemoryTransport(builder.start(), ring, ringFile);
+  }
+
+  /**
+   * Detach from the ring, and read all of the messages of the server from its standard output.
+   */
+  private void abandonRing() {
+    ring.detach();
+    ring = null;
+    ringFile.delete();
+    ringFile = null;
+  }
+
+  private boolean hasExited() {
+    try {
+      process.exitValue();
+      return true;
+    } catch (IllegalThreadStateException exception) {
+      return false;
+    }
+  }
+
+  /**
+   * Return the given message of the ring, or the next message written to the standard output of the
+   * server if the message is empty.
+   */
+  private JsonObject parse(ByteBuffer message) throws IOException {
+    if (!message.hasRemaining()) {
+      return readLine();
+    }
+    CharBuffer chars = UTF8.decode(message);
+    return parser.parse(
+        new CharArrayReader(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining()))
+        .getAsJsonObject();
+  }
+
+  /**
+   * Return the first message of the server, waiting for it in both the ring and the standard output,
+   * and abandoning the ring if the message is written to the standard output, or {@code null} if the
+   * server has exited without writing any message.
+   */
+  private JsonObject readFirstMessage() throws IOException {
+    boolean exited = false;
+    while (true) {
+      ByteBuffer message = ring.read(exited ? 0 : CONNECT_POLL_MILLIS, TimeUnit.MILLISECONDS);
+      if (message != null) {
+        return parse(message);
+      }
+      if (exited || responses.ready()) {
+        abandonRing();
+        return readLine();
+      }
+      exited = hasExited();
+    }
+  }
+
+  /**
+   * Return the next message written to the standard output of the server, or {@code null} if the
+   * server has exited.
+   */
+  private JsonObject readLine() throws IOException {
+    String line;
+    do {
+      line = responses.readLine();
+      if (line == null) {
+        return null;
+      }
+    } while (line.trim().length() == 0);
+    return parser.parse(line).getAsJsonObject();
+  }
+
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.server.internal.transport;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.dartlang.analysis.server.protocol.MutableCompletionSuggestion;
+import org.dartlang.analysis.server.protocol.MutableHighlightRegion;
+import org.dartlang.analysis.server.protocol.MutableSearchResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The class {@code TransientNotificationDecoder} decodes the high-volume notifications of the
+ * analysis server, {@code analysis.highlights}, {@code completion.results} and
+ * {@code search.results}, into pooled mutable instances for a {@link Listener} which only
+ * processes them transiently, such as a streaming exporter or a metrics collector. The instances
+ * and the lists passed to the listener are released and reused once the listener returns, so that
+ * decoding a long stream of notifications allocates almost nothing for their elements. A listener
+ * which needs to keep an instance converts it with {@code toImmutable()}.
+ * <p>
+ * The decoder is a {@link ProtocolTrafficReplayer.Handler}, so that a recording can be replayed
+ * into it directly. It is not thread-safe, and the listener must not retain the instances or lists
+ * it is passed.
+ *
+ * @coverage dart.server
+ */
+public class TransientNotificationDecoder implements ProtocolTrafficReplayer.Handler {
+
+  /**
+   * The interface {@code Listener} defines the behavior of objects that process the decoded
+   * notifications transiently.
+   */
+  public interface Listener {
+    /**
+     * Process the results of a code completion, which are only valid until this method returns.
+     */
+    void computedCompletion(String completionId, int replacementOffset, int replacementLength,
+        List<MutableCompletionSuggestion> completions, boolean isLast);
+
+    /**
+     * Process the highlight regions of the given file, which are only valid until this method
+     * returns.
+     */
+    void computedHighlights(String file, List<MutableHighlightRegion> highlights);
+
+    /**
+     * Process the results of a search, which are only valid until this method returns.
+     */
+    void computedSearchResults(String searchId, List<MutableSearchResult> results, boolean isLast);
+  }
+
+  private final JsonParser parser = new JsonParser();
+
+  /**
+   * The listener the decoded notifications are passed to.
+   */
+  private final Listener listener;
+
+  private final MutableCompletionSuggestion.Pool completionPool =
+      new MutableCompletionSuggestion.Pool();
+  private final MutableHighlightRegion.Pool highlightPool = new MutableHighlightRegion.Pool();
+  private final MutableSearchResult.Pool searchResultPool = new MutableSearchResult.Pool();
+
+  /**
+   * The lists the elements of the notifications are decoded into, which are reused.
+   */
+  private final List<MutableCompletionSuggestion> completions =
+      new ArrayList<MutableCompletionSuggestion>();
+  private final List<MutableHighlightRegion> highlights = new ArrayList<MutableHighlightRegion>();
+  private final List<MutableSearchResult> searchResults = new ArrayList<MutableSearchResult>();
+
+  /**
+   * Initialize a newly created decoder to pass the decoded notifications to the given listener.
+   */
+  public TransientNotificationDecoder(Listener listener) {
+    if (listener == null) {
+      throw new IllegalArgumentException("listener: " + listener);
+    }
+    this.listener = listener;
+  }
+
+  /**
+   * Decode the given message sent by the server and pass it to the listener if it is one of the
+   * notifications it processes. Return {@code true} if the message has been passed to the
+   * listener.
+   */
+  public boolean decode(JsonObject message) {
+    JsonElement event = message.get("event");
+    if (event == null) {
+      return false;
+    }
+    String name = event.getAsString();
+    JsonObject params = message.getAsJsonObject("params");
+    if ("analysis.highlights".equals(name)) {
+      try {
+        highlightPool.decodeArray(params.getAsJsonArray("regions"), highlights);
+        listener.computedHighlights(params.get("file").getAsString(), highlights);
+      } finally {
+        highlightPool.releaseAll(highlights);
+      }
+      return true;
+    }
+    if ("completion.results".equals(name)) {
+      try {
+        completionPool.decodeArray(params.getAsJsonArray("results"), completions);
+        listener.computedCompletion(
+            params.get("id").getAsString(),
+            params.get("replacementOffset").getAsInt(),
+            params.get("replacementLength").getAsInt(),
+            completions,
+            params.get("isLast").getAsBoolean());
+      } finally {
+        completionPool.releaseAll(completions);
+      }
+      return true;
+    }
+    if ("search.results".equals(name)) {
+      try {
+        searchResultPool.decodeArray(params.getAsJsonArray("results"), searchResults);
+        listener.computedSearchResults(
+            params.get("id").getAsString(),
+            searchResults,
+            params.get("isLast").getAsBoolean());
+      } finally {
+        searchResultPool.releaseAll(searchResults);
+      }
+      return true;
+    }
+    return false;
+  }
+
+  @Override
+  public void requestSent(long micros, String json) {
+  }
+
+  @Override
+  public void serverLine(long micros, String json) {
+    decode(parser.parse(json).getAsJsonObject());
+  }
+}
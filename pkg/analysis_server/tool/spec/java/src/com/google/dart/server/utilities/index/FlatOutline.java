@@ -0,0 +1,568 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.server.utilities.index;
+
+import com.google.common.collect.ImmutableList;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import org.dartlang.analysis.server.protocol.Element;
+import org.dartlang.analysis.server.protocol.Location;
+import org.dartlang.analysis.server.protocol.Outline;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The class {@code FlatOutline} represents an {@link Outline} as parallel arrays indexed by node
+ * rather than as a tree of objects, which takes several times less memory for large files and makes
+ * scanning the whole outline cache-friendly.
+ * <p>
+ * The nodes are numbered in pre-order, the root being node {@code 0}, so that the descendants of a
+ * node immediately follow it. Each node has an offset, a length, a parent, a first child and a next
+ * sibling, {@code -1} standing for no node. The strings of the elements, such as their kinds and
+ * names, are stored once in a shared pool. A flat outline can be decoded directly from the
+ * {@code outline} of an {@code analysis.outline} notification, without creating any {@link Outline}
+ * or {@link Element}, and traversed with a {@link Cursor}.
+ * <p>
+ * Flat outlines are immutable once decoded, so they can be shared between threads.
+ *
+ * @coverage dart.server
+ */
+public class FlatOutline {
+
+  /**
+   * A cursor moving over the nodes of a flat outline. A new cursor is at the root.
+   */
+  public class Cursor {
+    private int node;
+
+    /**
+     * Return the element of the current node.
+     */
+    public Element getElement() {
+      return FlatOutline.this.getElement(node);
+    }
+
+    /**
+     * Return the flags of the element of the current node.
+     */
+    public int getFlags() {
+      return flags[node];
+    }
+
+    /**
+     * Return the kind of the element of the current node.
+     */
+    public String getKind() {
+      return strings[kinds[node]];
+    }
+
+    /**
+     * Return the length of the current node.
+     */
+    public int getLength() {
+      return lengths[node];
+    }
+
+    /**
+     * Return the name of the element of the current node.
+     */
+    public String getName() {
+      return strings[names[node]];
+    }
+
+    /**
+     * Return the current node.
+     */
+    public int getNode() {
+      return node;
+    }
+
+    /**
+     * Return the offset of the current node.
+     */
+    public int getOffset() {
+      return offsets[node];
+    }
+
+    /**
+     * Move to the given node.
+     */
+    public void moveTo(int node) {
+      if (node < 0 || node >= nodeCount) {
+        throw new IndexOutOfBoundsException("node: " + node);
+      }
+      this.node = node;
+    }
+
+    /**
+     * Move to the first child of the current node and return {@code true}, or return {@code false}
+     * if the current node has no children.
+     */
+    public boolean moveToFirstChild() {
+      return move(firstChildren[node]);
+    }
+
+    /**
+     * Move to the next sibling of the current node and return {@code true}, or return {@code false}
+     * if the current node is the last child of its parent.
+     */
+    public boolean moveToNextSibling() {
+      return move(nextSiblings[node]);
+    }
+
+    /**
+     * Move to the parent of the current node and return {@code true}, or return {@code false} if the
+     * current node is the root.
+     */
+    public boolean moveToParent() {
+      return move(parents[node]);
+    }
+
+    private boolean move(int target) {
+      if (target == -1) {
+        return false;
+      }
+      node = target;
+      return true;
+    }
+  }
+
+  /**
+   * The nodes and strings of an outline being decoded, in arrays growing as nodes are added.
+   */
+  private static class Builder {
+    private int nodeCount;
+
+    private int[] offsets;
+
+    private int[] lengths;
+
+    private int[] parents;
+
+    private int[] firstChildren;
+
+    private int[] nextSiblings;
+
+    private int[] kinds;
+
+    private int[] names;
+
+    private int[] flags;
+
+    private int[] parameters;
+
+    private int[] returnTypes;
+
+    private int[] typeParameters;
+
+    private int[] locationFiles;
+
+    private int[] locationOffsets;
+
+    private int[] locationLengths;
+
+    private int[] locationStartLines;
+
+    private int[] locationStartColumns;
+
+    private String[] strings = new String[16];
+
+    /**
+     * The indices of the strings in {@link #strings}.
+     */
+    private final Map<String, Integer> stringIndices = new HashMap<String, Integer>();
+
+    Builder() {
+      allocate(16);
+    }
+
+    private int addJson(int parent, JsonObject outlineObject) {
+      int node = addNode(
+          parent,
+          outlineObject.get("offset").getAsInt(),
+          outlineObject.get("length").getAsInt());
+      JsonObject elementObject = outlineObject.get("element").getAsJsonObject();
+      kinds[node] = intern(elementObject.get("kind").getAsString());
+      names[node] = intern(elementObject.get("name").getAsString());
+      flags[node] = elementObject.get("flags").getAsInt();
+      parameters[node] = intern(getString(elementObject, "parameters"));
+      returnTypes[node] = intern(getString(elementObject, "returnType"));
+      typeParameters[node] = intern(getString(elementObject, "typeParameters"));
+      JsonElement locationElement = elementObject.get("location");
+      if (locationElement instanceof JsonObject) {
+        JsonObject locationObject = (JsonObject) locationElement;
+        locationFiles[node] = intern(locationObject.get("file").getAsString());
+        locationOffsets[node] = locationObject.get("offset").getAsInt();
+        locationLengths[node] = locationObject.get("length").getAsInt();
+        locationStartLines[node] = locationObject.get("startLine").getAsInt();
+        locationStartColumns[node] = locationObject.get("startColumn").getAsInt();
+      } else {
+        locationFiles[node] = -1;
+      }
+      JsonElement childrenElement = outlineObject.get("children");
+      if (childrenElement instanceof JsonArray) {
+        int previous = -1;
+        for (JsonElement childElement : (JsonArray) childrenElement) {
+          int child = addJson(node, childElement.getAsJsonObject());
+          if (previous == -1) {
+            firstChildren[node] = child;
+          } else {
+            nextSiblings[previous] = child;
+          }
+          previous = child;
+        }
+      }
+      return node;
+    }
+
+    private int addNode(int parent, int offset, int length) {
+      if (nodeCount == offsets.length) {
+        allocate(nodeCount * 2);
+      }
+      int node = nodeCount++;
+      offsets[node] = offset;
+      lengths[node] = length;
+      parents[node] = parent;
+      firstChildren[node] = -1;
+      nextSiblings[node] = -1;
+      return node;
+    }
+
+    private int addOutline(int parent, Outline outline) {
+      int node = addNode(parent, outline.getOffset(), outline.getLength());
+      Element element = outline.getElement();
+      kinds[node] = intern(element.getKind());
+      names[node] = intern(element.getName());
+      flags[node] = element.getFlags();
+      parameters[node] = intern(element.getParameters());
+      returnTypes[node] = intern(element.getReturnType());
+      typeParameters[node] = intern(element.getTypeParameters());
+      Location location = element.getLocation();
+      if (location != null) {
+        locationFiles[node] = intern(location.getFile());
+        locationOffsets[node] = location.getOffset();
+        locationLengths[node] = location.getLength();
+        locationStartLines[node] = location.getStartLine();
+        locationStartColumns[node] = location.getStartColumn();
+      } else {
+        locationFiles[node] = -1;
+      }
+      List<Outline> children = outline.getChildren();
+      if (children != null) {
+        int previous = -1;
+        for (Outline childOutline : children) {
+          int child = addOutline(node, childOutline);
+          if (previous == -1) {
+            firstChildren[node] = child;
+          } else {
+            nextSiblings[previous] = child;
+          }
+          previous = child;
+        }
+      }
+      return node;
+    }
+
+    /**
+     * Resize the arrays of the nodes to the given capacity.
+     */
+    private void allocate(int capacity) {
+      offsets = resize(offsets, capacity);
+      lengths = resize(lengths, capacity);
+      parents = resize(parents, capacity);
+      firstChildren = resize(firstChildren, capacity);
+      nextSiblings = resize(nextSiblings, capacity);
+      kinds = resize(kinds, capacity);
+      names = resize(names, capacity);
+      flags = resize(flags, capacity);
+      parameters = resize(parameters, capacity);
+      returnTypes = resize(returnTypes, capacity);
+      typeParameters = resize(typeParameters, capacity);
+      locationFiles = resize(locationFiles, capacity);
+      locationOffsets = resize(locationOffsets, capacity);
+      locationLengths = resize(locationLengths, capacity);
+      locationStartLines = resize(locationStartLines, capacity);
+      locationStartColumns = resize(locationStartColumns, capacity);
+    }
+
+    private static String getString(JsonObject jsonObject, String name) {
+      JsonElement element = jsonObject.get(name);
+      return element == null || element.isJsonNull() ? null : element.getAsString();
+    }
+
+    /**
+     * Return the index of the given string in the pool, adding it if necessary, or {@code -1} if the
+     * string is {@code null}.
+     */
+    private int intern(String string) {
+      if (string == null) {
+        return -1;
+      }
+      Integer index = stringIndices.get(string);
+      if (index != null) {
+        return index;
+      }
+      int stringCount = stringIndices.size();
+      if (stringCount == strings.length) {
+        strings = Arrays.copyOf(strings, stringCount * 2);
+      }
+      strings[stringCount] = string;
+      stringIndices.put(string, stringCount);
+      return stringCount;
+    }
+
+    private static int[] resize(int[] array, int capacity) {
+      return array == null ? new int[capacity] : Arrays.copyOf(array, capacity);
+    }
+  }
+
+  /**
+   * The number of nodes.
+   */
+  private final int nodeCount;
+
+  private final int[] offsets;
+
+  private final int[] lengths;
+
+  private final int[] parents;
+
+  private final int[] firstChildren;
+
+  private final int[] nextSiblings;
+
+  /**
+   * The indices in {@link #strings} of the kinds of the elements of the nodes. The same holds for the
+   * names, parameters, return types, type parameters and location files, {@code -1} standing for an
+   * absent string or location.
+   */
+  private final int[] kinds;
+
+  private final int[] names;
+
+  private final int[] flags;
+
+  private final int[] parameters;
+
+  private final int[] returnTypes;
+
+  private final int[] typeParameters;
+
+  private final int[] locationFiles;
+
+  private final int[] locationOffsets;
+
+  private final int[] locationLengths;
+
+  private final int[] locationStartLines;
+
+  private final int[] locationStartColumns;
+
+  /**
+   * The pool of the strings of the elements.
+   */
+  private final String[] strings;
+
+  /**
+   * Initialize a newly created outline with the nodes and strings of the given builder, trimming its
+   * arrays to their lengths.
+   */
+  private FlatOutline(Builder builder) {
+    nodeCount = builder.nodeCount;
+    offsets = Arrays.copyOf(builder.offsets, nodeCount);
+    lengths = Arrays.copyOf(builder.lengths, nodeCount);
+    parents = Arrays.copyOf(builder.parents, nodeCount);
+    firstChildren = Arrays.copyOf(builder.firstChildren, nodeCount);
+    nextSiblings = Arrays.copyOf(builder.nextSiblings, nodeCount);
+    kinds = Arrays.copyOf(builder.kinds, nodeCount);
+    names = Arrays.copyOf(builder.names, nodeCount);
+    flags = Arrays.copyOf(builder.flags, nodeCount);
+    parameters = Arrays.copyOf(builder.parameters, nodeCount);
+    returnTypes = Arrays.copyOf(builder.returnTypes, nodeCount);
+    typeParameters = Arrays.copyOf(builder.typeParameters, nodeCount);
+    locationFiles = Arrays.copyOf(builder.locationFiles, nodeCount);
+    locationOffsets = Arrays.copyOf(builder.locationOffsets, nodeCount);
+    locationLengths = Arrays.copyOf(builder.locationLengths, nodeCount);
+    locationStartLines = Arrays.copyOf(builder.locationStartLines, nodeCount);
+    locationStartColumns = Arrays.copyOf(builder.locationStartColumns, nodeCount);
+    strings = Arrays.copyOf(builder.strings, builder.stringIndices.size());
+  }
+
+  /**
+   * Return a new cursor at the root of this outline.
+   */
+  public Cursor createCursor() {
+    return new Cursor();
+  }
+
+  /**
+   * Return the flat outline of the given JSON outline, as found in an {@code analysis.outline}
+   * notification.
+   */
+  public static FlatOutline fromJson(JsonObject outlineObject) {
+    Builder builder = new Builder();
+    builder.addJson(-1, outlineObject);
+    return new FlatOutline(builder);
+  }
+
+  /**
+   * Return the flat outline of the given outline.
+   */
+  public static FlatOutline fromOutline(Outline outline) {
+    Builder builder = new Builder();
+    builder.addOutline(-1, outline);
+    return new FlatOutline(builder);
+  }
+
+  /**
+   * Return a new element with the data of the element of the given node.
+   */
+  public Element getElement(int node) {
+    return new Element(
+        strings[kinds[node]],
+        strings[names[node]],
+        getLocation(node),
+        flags[node],
+        getString(parameters[node]),
+        getString(returnTypes[node]),
+        getString(typeParameters[node]));
+  }
+
+  /**
+   * Return the first child of the given node, or {@code -1} if it has no children.
+   */
+  public int getFirstChild(int node) {
+    return firstChildren[node];
+  }
+
+  /**
+   * Return the flags of the element of the given node.
+   */
+  public int getFlags(int node) {
+    return flags[node];
+  }
+
+  /**
+   * Return the kind of the element of the given node.
+   */
+  public String getKind(int node) {
+    return strings[kinds[node]];
+  }
+
+  /**
+   * Return the length of the given node.
+   */
+  public int getLength(int node) {
+    return lengths[node];
+  }
+
+  /**
+   * Return a new location with the data of the location of the element of the given node, or
+   * {@code null} if the element has no location.
+   */
+  public Location getLocation(int node) {
+    if (locationFiles[node] == -1) {
+      return null;
+    }
+    return new Location(
+        strings[locationFiles[node]],
+        locationOffsets[node],
+        locationLengths[node],
+        locationStartLines[node],
+        locationStartColumns[node]);
+  }
+
+  /**
+   * Return the name of the element of the given node.
+   */
+  public String getName(int node) {
+    return strings[names[node]];
+  }
+
+  /**
+   * Return the next sibling of the given node, or {@code -1} if it is the last child of its parent.
+   */
+  public int getNextSibling(int node) {
+    return nextSiblings[node];
+  }
+
+  /**
+   * Return the number of nodes.
+   */
+  public int getNodeCount() {
+    return nodeCount;
+  }
+
+  /**
+   * Return the offset of the given node.
+   */
+  public int getOffset(int node) {
+    return offsets[node];
+  }
+
+  /**
+   * Return the parameters of the element of the given node, or {@code null} if it has none.
+   */
+  public String getParameters(int node) {
+    return getString(parameters[node]);
+  }
+
+  /**
+   * Return the parent of the given node, or {@code -1} if it is the root.
+   */
+  public int getParent(int node) {
+    return parents[node];
+  }
+
+  /**
+   * Return the return type of the element of the given node, or {@code null} if it has none.
+   */
+  public String getReturnType(int node) {
+    return getString(returnTypes[node]);
+  }
+
+  /**
+   * Return the type parameters of the element of the given node, or {@code null} if it has none.
+   */
+  public String getTypeParameters(int node) {
+    return getString(typeParameters[node]);
+  }
+
+  /**
+   * Return a new outline with the data of this flat outline.
+   */
+  public Outline toOutline() {
+    return toOutline(null, 0);
+  }
+
+  private String getString(int index) {
+    return index == -1 ? null : strings[index];
+  }
+
+  private Outline toOutline(Outline parent, int node) {
+    Outline outline = new Outline(parent, getElement(node), offsets[node], lengths[node]);
+    ImmutableList.Builder<Outline> children = ImmutableList.builder();
+    for (int child = firstChildren[node]; child != -1; child = nextSiblings[child]) {
+      children.add(toOutline(outline, child));
+    }
+    outline.setChildren(children.build());
+    return outline;
+  }
+
+}
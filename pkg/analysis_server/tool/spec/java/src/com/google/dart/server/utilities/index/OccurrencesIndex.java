@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.server.utilities.index;
+
+import org.dartlang.analysis.server.protocol.Element;
+import org.dartlang.analysis.server.protocol.Occurrences;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The class {@code OccurrencesIndex} maps the offsets of a file to the {@link Occurrences} reported
+ * for it by an {@code analysis.occurrences} notification, so that the occurrences of the
+ * {@link Element} under the caret can be found without scanning every group.
+ * <p>
+ * Every occurrence is stored as a single {@code long}, the offset in the high 32 bits and the index
+ * of its group in the low 32 bits, in one sorted array which is searched by binary search. An index
+ * is built once per notification and is immutable, so it can be shared between threads.
+ *
+ * @coverage dart.server
+ */
+public class OccurrencesIndex {
+
+  /**
+   * The groups of occurrences, in the order of the notification.
+   */
+  private final List<Occurrences> occurrences;
+
+  /**
+   * The occurrences, each one encoded as its offset shifted left by 32 bits and combined with the
+   * index of its group, sorted.
+   */
+  private final long[] entries;
+
+  /**
+   * The length of the occurrences of each group.
+   */
+  private final int[] lengths;
+
+  /**
+   * The greatest length of an occurrence, which bounds how far before an offset an occurrence
+   * containing it can start.
+   */
+  private final int maxLength;
+
+  /**
+   * Initialize a newly created index of the given groups of occurrences.
+   */
+  public OccurrencesIndex(List<Occurrences> occurrences) {
+    this.occurrences = occurrences;
+    int groupCount = occurrences.size();
+    int count = 0;
+    for (int i = 0; i < groupCount; i++) {
+      count += occurrences.get(i).getOffsets().length;
+    }
+    entries = new long[count];
+    lengths = new int[groupCount];
+    int max = 0;
+    count = 0;
+    for (int i = 0; i < groupCount; i++) {
+      Occurrences group = occurrences.get(i);
+      for (int offset : group.getOffsets()) {
+        entries[count++] = (long) offset << 32 | i;
+      }
+      lengths[i] = group.getLength();
+      max = Math.max(max, lengths[i]);
+    }
+    maxLength = max;
+    Arrays.sort(entries);
+  }
+
+  /**
+   * Return the element of the occurrence containing the given offset, or {@code null} if there is no
+   * such occurrence.
+   */
+  public Element getElement(int offset) {
+    int group = getGroupIndex(offset);
+    return group == -1 ? null : occurrences.get(group).getElement();
+  }
+
+  /**
+   * Return the index in the list of groups given to the constructor of the group of the occurrence
+   * containing the given offset, or {@code -1} if there is no such occurrence. An occurrence contains
+   * the offsets from its start to its end, both inclusive, so that a caret placed just after a name
+   * still finds it. If several occurrences contain the offset, the one starting last is chosen.
+   */
+  public int getGroupIndex(int offset) {
+    // the index of the first entry starting after the offset
+    long key = (long) offset << 32 | 0xFFFFFFFFL;
+    int low = 0;
+    int high = entries.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (entries[middle] <= key) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    for (int i = low - 1; i >= 0; i--) {
+      int start = (int) (entries[i] >>> 32);
+      if (start < offset - maxLength) {
+        break;
+      }
+      int group = (int) entries[i];
+      if (offset <= start + lengths[group]) {
+        return group;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Return the groups of occurrences given to the constructor.
+   */
+  public List<Occurrences> getOccurrences() {
+    return occurrences;
+  }
+
+  /**
+   * Return the group of the occurrence containing the given offset, or {@code null} if there is no
+   * such occurrence.
+   *
+   * @see #getGroupIndex(int)
+   */
+  public Occurrences getOccurrences(int offset) {
+    int group = getGroupIndex(offset);
+    return group == -1 ? null : occurrences.get(group);
+  }
+
+  /**
+   * Return the total number of occurrences.
+   */
+  public int size() {
+    return entries.length;
+  }
+
+}
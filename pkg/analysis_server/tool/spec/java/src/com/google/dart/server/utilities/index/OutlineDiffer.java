@@ -0,0 +1,337 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.server.utilities.index;
+
+import com.google.dart.server.utilities.general.ObjectUtilities;
+
+import org.dartlang.analysis.server.protocol.Element;
+import org.dartlang.analysis.server.protocol.Outline;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The class {@code OutlineDiffer} computes the differences between two consecutive
+ * {@link Outline}s of a file, as reported by {@code analysis.outline}, so that a tree view can
+ * update the nodes which changed rather than rebuilding the whole tree.
+ * <p>
+ * A node of the new outline is matched with a child of the node matched with its parent which has
+ * an element of the same kind and name, the roots being matched with each other. Children with the
+ * same kind and name are matched in order. The differences are reported in a pre-order traversal of
+ * the new outline: for each pair of matched parents, the removed children are reported by
+ * decreasing index, followed by the inserted, moved, changed and shifted children by increasing
+ * index, each one followed by the differences within it. The children of an inserted or removed node
+ * are not reported. A child is moved if it is not part of a longest sequence of matched children
+ * whose order is preserved.
+ *
+ * @coverage dart.server
+ */
+public class OutlineDiffer {
+
+  /**
+   * The kinds of differences.
+   */
+  public static enum Kind {
+    /**
+     * A node was inserted, with all its children.
+     */
+    INSERTED,
+
+    /**
+     * A node was removed, with all its children.
+     */
+    REMOVED,
+
+    /**
+     * A node was moved among the children of its parent. Its element, offset or length may also have
+     * changed.
+     */
+    MOVED,
+
+    /**
+     * The element of a node has changed, ignoring its location. Its offset or length may also have
+     * changed.
+     */
+    CHANGED,
+
+    /**
+     * Only the offset or the length of a node has changed.
+     */
+    SHIFTED
+  }
+
+  /**
+   * A difference between two outlines.
+   */
+  public static class Difference {
+    private final Kind kind;
+    private final Outline oldParent;
+    private final Outline oldOutline;
+    private final int oldIndex;
+    private final Outline newOutline;
+    private final int newIndex;
+    private final boolean elementChanged;
+
+    Difference(Kind kind, Outline oldParent, Outline oldOutline, int oldIndex, Outline newOutline,
+        int newIndex, boolean elementChanged) {
+      this.kind = kind;
+      this.oldParent = oldParent;
+      this.oldOutline = oldOutline;
+      this.oldIndex = oldIndex;
+      this.newOutline = newOutline;
+      this.newIndex = newIndex;
+      this.elementChanged = elementChanged;
+    }
+
+    /**
+     * Return the kind of this difference.
+     */
+    public Kind getKind() {
+      return kind;
+    }
+
+    /**
+     * Return the index of the node among the children of its new parent, or {@code -1} if the node
+     * was removed or is the root.
+     */
+    public int getNewIndex() {
+      return newIndex;
+    }
+
+    /**
+     * Return the node in the new outline, or {@code null} if the node was removed.
+     */
+    public Outline getNewOutline() {
+      return newOutline;
+    }
+
+    /**
+     * Return the difference between the offsets of the node in the new and old outlines, or
+     * {@code 0} if the node was inserted or removed.
+     */
+    public int getOffsetDelta() {
+      if (oldOutline == null || newOutline == null) {
+        return 0;
+      }
+      return newOutline.getOffset() - oldOutline.getOffset();
+    }
+
+    /**
+     * Return the index of the node among the children of its old parent, or {@code -1} if the node
+     * was inserted or is the root.
+     */
+    public int getOldIndex() {
+      return oldIndex;
+    }
+
+    /**
+     * Return the node in the old outline, or {@code null} if the node was inserted.
+     */
+    public Outline getOldOutline() {
+      return oldOutline;
+    }
+
+    /**
+     * Return the node of the old outline matched with the parent of the node, under which the node
+     * was inserted, removed or moved, or {@code null} if the node is the root.
+     */
+    public Outline getOldParent() {
+      return oldParent;
+    }
+
+    /**
+     * Return {@code true} if the element of the node has changed, ignoring its location.
+     */
+    public boolean isElementChanged() {
+      return elementChanged;
+    }
+
+    @Override
+    public String toString() {
+      Outline outline = newOutline != null ? newOutline : oldOutline;
+      return kind + " " + outline.getElement().getKind() + " " + outline.getElement().getName();
+    }
+  }
+
+  private static final List<Outline> NO_CHILDREN = Collections.emptyList();
+
+  /**
+   * Return the differences between the given old and new outlines of a file.
+   */
+  public static List<Difference> diff(Outline oldOutline, Outline newOutline) {
+    List<Difference> differences = new ArrayList<Difference>();
+    diffNode(null, oldOutline, -1, newOutline, -1, false, differences);
+    return differences;
+  }
+
+  private static void diffChildren(Outline oldParent, Outline newParent,
+      List<Difference> differences) {
+    List<Outline> oldChildren = getChildren(oldParent);
+    List<Outline> newChildren = getChildren(newParent);
+    int oldCount = oldChildren.size();
+    int newCount = newChildren.size();
+    // for each new child, the index of the matched old child, or -1
+    int[] matches = new int[newCount];
+    int prefix = 0;
+    while (prefix < oldCount && prefix < newCount
+        && sameKey(oldChildren.get(prefix), newChildren.get(prefix))) {
+      matches[prefix] = prefix;
+      prefix++;
+    }
+    boolean[] matched = null;
+    if (prefix < oldCount || prefix < newCount) {
+      Map<String, ArrayDeque<Integer>> oldIndices = new HashMap<String, ArrayDeque<Integer>>();
+      for (int i = prefix; i < oldCount; i++) {
+        String key = getKey(oldChildren.get(i));
+        ArrayDeque<Integer> indices = oldIndices.get(key);
+        if (indices == null) {
+          indices = new ArrayDeque<Integer>();
+          oldIndices.put(key, indices);
+        }
+        indices.add(i);
+      }
+      matched = new boolean[oldCount];
+      for (int i = prefix; i < newCount; i++) {
+        ArrayDeque<Integer> indices = oldIndices.get(getKey(newChildren.get(i)));
+        if (indices == null || indices.isEmpty()) {
+          matches[i] = -1;
+        } else {
+          matches[i] = indices.poll();
+          matched[matches[i]] = true;
+        }
+      }
+      for (int i = oldCount - 1; i >= prefix; i--) {
+        if (!matched[i]) {
+          differences.add(new Difference(
+              Kind.REMOVED,
+              oldParent,
+              oldChildren.get(i),
+              i,
+              null,
+              -1,
+              false));
+        }
+      }
+    }
+    boolean[] moved = matched == null ? null : getMoved(matches, prefix);
+    for (int i = 0; i < newCount; i++) {
+      Outline newChild = newChildren.get(i);
+      if (matches[i] == -1) {
+        differences.add(new Difference(Kind.INSERTED, oldParent, null, -1, newChild, i, false));
+      } else {
+        Outline oldChild = oldChildren.get(matches[i]);
+        diffNode(oldParent, oldChild, matches[i], newChild, i, moved != null && moved[i], differences);
+      }
+    }
+  }
+
+  private static void diffNode(Outline oldParent, Outline oldOutline, int oldIndex,
+      Outline newOutline, int newIndex, boolean moved, List<Difference> differences) {
+    boolean elementChanged = !sameElement(oldOutline.getElement(), newOutline.getElement());
+    Kind kind = null;
+    if (moved) {
+      kind = Kind.MOVED;
+    } else if (elementChanged) {
+      kind = Kind.CHANGED;
+    } else if (oldOutline.getOffset() != newOutline.getOffset()
+        || oldOutline.getLength() != newOutline.getLength()) {
+      kind = Kind.SHIFTED;
+    }
+    if (kind != null) {
+      differences.add(new Difference(
+          kind,
+          oldParent,
+          oldOutline,
+          oldIndex,
+          newOutline,
+          newIndex,
+          elementChanged));
+    }
+    diffChildren(oldOutline, newOutline, differences);
+  }
+
+  private static List<Outline> getChildren(Outline outline) {
+    List<Outline> children = outline.getChildren();
+    return children != null ? children : NO_CHILDREN;
+  }
+
+  private static String getKey(Outline outline) {
+    Element element = outline.getElement();
+    return element.getKind() + " " + element.getName();
+  }
+
+  /**
+   * Return, for each matched new child after the given prefix, whether it is not part of a longest
+   * increasing subsequence of the indices of the old children it is matched with.
+   */
+  private static boolean[] getMoved(int[] matches, int prefix) {
+    int count = matches.length;
+    // tails[k] is the index of the new child ending the best increasing subsequence of length k + 1
+    int[] tails = new int[count];
+    int[] previous = new int[count];
+    int length = 0;
+    for (int i = prefix; i < count; i++) {
+      if (matches[i] == -1) {
+        continue;
+      }
+      int low = 0;
+      int high = length;
+      while (low < high) {
+        int middle = (low + high) >>> 1;
+        if (matches[tails[middle]] < matches[i]) {
+          low = middle + 1;
+        } else {
+          high = middle;
+        }
+      }
+      previous[i] = low > 0 ? tails[low - 1] : -1;
+      tails[low] = i;
+      if (low == length) {
+        length++;
+      }
+    }
+    boolean[] moved = new boolean[count];
+    for (int i = prefix; i < count; i++) {
+      moved[i] = matches[i] != -1;
+    }
+    for (int i = length > 0 ? tails[length - 1] : -1; i != -1; i = previous[i]) {
+      moved[i] = false;
+    }
+    return moved;
+  }
+
+  /**
+   * Return {@code true} if the given elements are the same, ignoring their locations.
+   */
+  private static boolean sameElement(Element first, Element second) {
+    return ObjectUtilities.equals(first.getKind(), second.getKind())
+        && ObjectUtilities.equals(first.getName(), second.getName())
+        && first.getFlags() == second.getFlags()
+        && ObjectUtilities.equals(first.getParameters(), second.getParameters())
+        && ObjectUtilities.equals(first.getReturnType(), second.getReturnType())
+        && ObjectUtilities.equals(first.getTypeParameters(), second.getTypeParameters());
+  }
+
+  private static boolean sameKey(Outline first, Outline second) {
+    Element firstElement = first.getElement();
+    Element secondElement = second.getElement();
+    return ObjectUtilities.equals(firstElement.getKind(), secondElement.getKind())
+        && ObjectUtilities.equals(firstElement.getName(), secondElement.getName());
+  }
+
+}
@@ -0,0 +1,365 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.server.utilities.index;
+
+import org.dartlang.analysis.server.protocol.AnalysisError;
+import org.dartlang.analysis.server.protocol.AnalysisErrorSeverity;
+import org.dartlang.analysis.server.protocol.AnalysisErrorType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * The class {@code ProblemIndex} holds the errors reported by the {@code analysis.errors}
+ * notifications of all the files of a workspace, and maintains the number of errors of each
+ * severity, of each type and in each directory as the errors of a file are replaced, so that a
+ * problems view reads them in constant time instead of iterating over the errors of every file.
+ * <p>
+ * Replacing the errors of a file takes a time proportional to the number of its previous and new
+ * errors, times the logarithm of the total number of errors for the sorted set of the problems,
+ * plus the depth of the file for the counts of its directories. The sorted problems are read
+ * through a live view, or a page at a time, rather than copied on every read.
+ * <p>
+ * The severities and the types are the ones of the protocol; an error of an unknown severity or
+ * type is only counted in the total and directory counts.
+ *
+ * @coverage dart.server
+ */
+public class ProblemIndex {
+
+  /**
+   * The severities of errors, from the least to the most severe.
+   */
+  public static final List<String> SEVERITIES = Collections.unmodifiableList(Arrays.asList(
+      AnalysisErrorSeverity.INFO,
+      AnalysisErrorSeverity.WARNING,
+      AnalysisErrorSeverity.ERROR));
+
+  /**
+   * The types of errors.
+   */
+  public static final List<String> TYPES = Collections.unmodifiableList(Arrays.asList(
+      AnalysisErrorType.CHECKED_MODE_COMPILE_TIME_ERROR,
+      AnalysisErrorType.COMPILE_TIME_ERROR,
+      AnalysisErrorType.HINT,
+      AnalysisErrorType.LINT,
+      AnalysisErrorType.STATIC_TYPE_WARNING,
+      AnalysisErrorType.STATIC_WARNING,
+      AnalysisErrorType.SYNTACTIC_ERROR,
+      AnalysisErrorType.TODO));
+
+  /**
+   * An error reported for a file.
+   */
+  public static class Problem {
+    private final String file;
+    private final AnalysisError error;
+    private final int severity;
+    private final long sequence;
+
+    Problem(String file, AnalysisError error, int severity, long sequence) {
+      this.file = file;
+      this.error = error;
+      this.severity = severity;
+      this.sequence = sequence;
+    }
+
+    /**
+     * Return the error.
+     */
+    public AnalysisError getError() {
+      return error;
+    }
+
+    /**
+     * Return the file the error was reported for.
+     */
+    public String getFile() {
+      return file;
+    }
+  }
+
+  /**
+   * The indices of the severities in {@link #SEVERITIES}.
+   */
+  private static final Map<String, Integer> SEVERITY_INDICES = indices(SEVERITIES);
+
+  /**
+   * The indices of the types in {@link #TYPES}.
+   */
+  private static final Map<String, Integer> TYPE_INDICES = indices(TYPES);
+
+  /**
+   * The order of the problems: the most severe first, then by file, by offset and in the order in
+   * which they were reported.
+   */
+  private static final Comparator<Problem> ORDER = new Comparator<Problem>() {
+    @Override
+    public int compare(Problem first, Problem second) {
+      if (first.severity != second.severity) {
+        return first.severity > second.severity ? -1 : 1;
+      }
+      int result = first.file.compareTo(second.file);
+      if (result != 0) {
+        return result;
+      }
+      int firstOffset = first.error.getLocation().getOffset();
+      int secondOffset = second.error.getLocation().getOffset();
+      if (firstOffset != secondOffset) {
+        return firstOffset < secondOffset ? -1 : 1;
+      }
+      return first.sequence < second.sequence ? -1 : first.sequence == second.sequence ? 0 : 1;
+    }
+  };
+
+  /**
+   * The problems of each file.
+   */
+  private final Map<String, List<Problem>> fileProblems = new HashMap<String, List<Problem>>();
+
+  /**
+   * The problems of all the files, sorted by {@link #ORDER}.
+   */
+  private final TreeSet<Problem> problems = new TreeSet<Problem>(ORDER);
+
+  /**
+   * The read-only view of {@link #problems} returned by {@link #getProblems()}.
+   */
+  private final SortedSet<Problem> problemsView = Collections.unmodifiableSortedSet(problems);
+
+  /**
+   * The number of problems of each severity, indexed as {@link #SEVERITIES}.
+   */
+  private final int[] severityCounts = new int[SEVERITIES.size()];
+
+  /**
+   * The number of problems of each type, indexed as {@link #TYPES}.
+   */
+  private final int[] typeCounts = new int[TYPES.size()];
+
+  /**
+   * For each directory containing a file with problems, the number of problems of each severity in
+   * the directory and its subdirectories, indexed as {@link #SEVERITIES}, followed by the total
+   * number of problems.
+   */
+  private final Map<String, int[]> directoryCounts = new HashMap<String, int[]>();
+
+  /**
+   * The sequence number of the next problem.
+   */
+  private long nextSequence = 0;
+
+  /**
+   * Remove the problems of all the files.
+   */
+  public synchronized void clear() {
+    fileProblems.clear();
+    problems.clear();
+    Arrays.fill(severityCounts, 0);
+    Arrays.fill(typeCounts, 0);
+    directoryCounts.clear();
+  }
+
+  /**
+   * Return the number of problems in the given directory and its subdirectories.
+   */
+  public synchronized int getDirectoryCount(String directory) {
+    int[] counts = directoryCounts.get(directory);
+    return counts == null ? 0 : counts[SEVERITIES.size()];
+  }
+
+  /**
+   * Return the number of problems of the given severity in the given directory and its
+   * subdirectories.
+   */
+  public synchronized int getDirectoryCount(String directory, String severity) {
+    int[] counts = directoryCounts.get(directory);
+    Integer index = SEVERITY_INDICES.get(severity);
+    return counts == null || index == null ? 0 : counts[index];
+  }
+
+  /**
+   * Return the errors of the given file, in the order in which they were reported.
+   */
+  public synchronized List<AnalysisError> getErrors(String file) {
+    List<Problem> list = fileProblems.get(file);
+    if (list == null) {
+      return AnalysisError.EMPTY_LIST;
+    }
+    List<AnalysisError> errors = new ArrayList<AnalysisError>(list.size());
+    for (Problem problem : list) {
+      errors.add(problem.error);
+    }
+    return errors;
+  }
+
+  /**
+   * Return the number of problems of all the files.
+   */
+  public synchronized int getProblemCount() {
+    return problems.size();
+  }
+
+  /**
+   * Return a read-only view of the problems of all the files, the most severe first, then by file
+   * and by offset. The view is live: it reflects later changes to the errors of files instead of
+   * being copied. It must only be read, including by iterating over it or over its subsets, while
+   * holding the lock of this index, as in {@code synchronized (index) {...}}, so that it does not
+   * change during the read.
+   */
+  public SortedSet<Problem> getProblems() {
+    return problemsView;
+  }
+
+  /**
+   * Return at most the given number of problems, in the order of {@link #getProblems()}, which
+   * follow the given problem, even if it has since been removed, or the first ones if it is
+   * {@code null}. This reads the problems one page at a time without holding the lock of this index
+   * between the pages, the last problem of a page being passed to read the next one.
+   */
+  public synchronized List<Problem> getProblems(Problem after, int count) {
+    if (count < 0) {
+      throw new IllegalArgumentException("count: " + count);
+    }
+    List<Problem> page = new ArrayList<Problem>(Math.min(count, problems.size()));
+    for (Problem problem : after == null ? problems : problems.tailSet(after, false)) {
+      if (page.size() == count) {
+        break;
+      }
+      page.add(problem);
+    }
+    return page;
+  }
+
+  /**
+   * Return the number of problems of the given severity.
+   */
+  public synchronized int getSeverityCount(String severity) {
+    Integer index = SEVERITY_INDICES.get(severity);
+    return index == null ? 0 : severityCounts[index];
+  }
+
+  /**
+   * Return the number of problems of the given type.
+   */
+  public synchronized int getTypeCount(String type) {
+    Integer index = TYPE_INDICES.get(type);
+    return index == null ? 0 : typeCounts[index];
+  }
+
+  /**
+   * Replace the errors of the given file, such as when an {@code analysis.errors} notification is
+   * received for it. An empty list of errors removes the file.
+   */
+  public synchronized void setErrors(String file, List<AnalysisError> errors) {
+    int[] delta = new int[SEVERITIES.size() + 1];
+    List<Problem> previous = fileProblems.remove(file);
+    if (previous != null) {
+      for (Problem problem : previous) {
+        problems.remove(problem);
+        count(problem, delta, -1);
+      }
+    }
+    if (!errors.isEmpty()) {
+      List<Problem> current = new ArrayList<Problem>(errors.size());
+      for (AnalysisError error : errors) {
+        Integer severity = SEVERITY_INDICES.get(error.getSeverity());
+        Problem problem = new Problem(
+            file,
+            error,
+            severity == null ? -1 : severity.intValue(),
+            nextSequence++);
+        current.add(problem);
+        problems.add(problem);
+        count(problem, delta, 1);
+      }
+      fileProblems.put(file, current);
+    }
+    if (!isZero(delta)) {
+      updateDirectories(file, delta);
+    }
+  }
+
+  /**
+   * Add the given increment to the counts of the severity and type of the given problem, and to the
+   * given counts of the directories of its file.
+   */
+  private void count(Problem problem, int[] delta, int increment) {
+    if (problem.severity != -1) {
+      severityCounts[problem.severity] += increment;
+      delta[problem.severity] += increment;
+    }
+    Integer type = TYPE_INDICES.get(problem.error.getType());
+    if (type != null) {
+      typeCounts[type] += increment;
+    }
+    delta[SEVERITIES.size()] += increment;
+  }
+
+  /**
+   * Return the indices of the given values in the given list.
+   */
+  private static Map<String, Integer> indices(List<String> values) {
+    Map<String, Integer> indices = new HashMap<String, Integer>();
+    for (int i = 0; i < values.size(); i++) {
+      indices.put(values.get(i), i);
+    }
+    return indices;
+  }
+
+  /**
+   * Return {@code true} if all the given counts are zero.
+   */
+  private static boolean isZero(int[] counts) {
+    for (int count : counts) {
+      if (count != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Add the given counts to the counts of the directories containing the given file.
+   */
+  private void updateDirectories(String file, int[] delta) {
+    int end = file.length();
+    while (true) {
+      end = Math.max(file.lastIndexOf('/', end - 1), file.lastIndexOf('\\', end - 1));
+      if (end <= 0) {
+        return;
+      }
+      String directory = file.substring(0, end);
+      int[] counts = directoryCounts.get(directory);
+      if (counts == null) {
+        counts = new int[delta.length];
+        directoryCounts.put(directory, counts);
+      }
+      for (int i = 0; i < delta.length; i++) {
+        counts[i] += delta[i];
+      }
+      if (counts[SEVERITIES.size()] == 0) {
+        directoryCounts.remove(directory);
+      }
+    }
+  }
+
+}
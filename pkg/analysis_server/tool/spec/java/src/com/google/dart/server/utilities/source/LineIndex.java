@@ -0,0 +1,313 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.server.utilities.source;
+
+import org.dartlang.analysis.server.protocol.SourceEdit;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The class {@code LineIndex} holds the offsets at which the lines of a file start, so that the
+ * offsets carried by protocol objects can be converted to lines and columns by binary search rather
+ * than by scanning the content of the file. Lines and columns are one-based, as in
+ * {@code Location}. Lines are terminated by {@code "\n"}, {@code "\r\n"} or {@code "\r"}.
+ * <p>
+ * Indices are immutable. Applying an edit returns a new index computed from the replacement of the
+ * edit and the kinds of the line terminators surrounding it, without the content of the file.
+ *
+ * @coverage dart.server
+ */
+public class LineIndex {
+
+  /**
+   * The kind of a line starting after {@code "\n"}.
+   */
+  private static final byte LF = 1;
+
+  /**
+   * The kind of a line starting after a {@code "\r"} which is not followed by {@code "\n"}.
+   */
+  private static final byte CR = 2;
+
+  /**
+   * The kind of a line starting after {@code "\r\n"}.
+   */
+  private static final byte CRLF = 3;
+
+  /**
+   * The offsets at which the lines start, the first one being {@code 0}.
+   */
+  private final int[] starts;
+
+  /**
+   * For each line, the kind of the line terminator preceding it, or {@code 0} for the first line.
+   */
+  private final byte[] kinds;
+
+  /**
+   * The number of lines.
+   */
+  private final int lineCount;
+
+  /**
+   * The length of the content.
+   */
+  private final int length;
+
+  private LineIndex(int[] starts, byte[] kinds, int lineCount, int length) {
+    this.starts = starts;
+    this.kinds = kinds;
+    this.lineCount = lineCount;
+    this.length = length;
+  }
+
+  /**
+   * Return the index of the content resulting from applying the given edit to the content of this
+   * index.
+   *
+   * @throws IllegalArgumentException if the range of the edit is not within the content
+   */
+  public LineIndex applyEdit(SourceEdit edit) {
+    int offset = edit.getOffset();
+    int end = offset + edit.getLength();
+    String replacement = edit.getReplacement();
+    if (offset < 0 || edit.getLength() < 0 || end > length) {
+      throw new IllegalArgumentException("Invalid edit: " + edit + " in content of length " + length);
+    }
+    // The window of the old content which is rescanned: the replaced range, extended by a preceding
+    // "\r" and a following "\n" which may form a "\r\n" with the replacement.
+    StringBuilder window = new StringBuilder(replacement.length() + 2);
+    int windowStart = offset;
+    if (isCarriageReturn(offset - 1)) {
+      windowStart--;
+      window.append('\r');
+    }
+    window.append(replacement);
+    int windowEnd = end;
+    if (isLineFeed(end)) {
+      windowEnd++;
+      window.append('\n');
+    }
+    int delta = replacement.length() - edit.getLength();
+    // lines [0, first) are unchanged, lines [first, last) are replaced, lines [last, lineCount) are
+    // shifted by delta
+    int first = upperBound(windowStart);
+    int last = upperBound(windowEnd);
+    int[] newStarts = new int[first + window.length() + lineCount - last];
+    byte[] newKinds = new byte[newStarts.length];
+    System.arraycopy(starts, 0, newStarts, 0, first);
+    System.arraycopy(kinds, 0, newKinds, 0, first);
+    int count = first;
+    for (int i = 0; i < window.length(); i++) {
+      char c = window.charAt(i);
+      if (c == '\n') {
+        newStarts[count] = windowStart + i + 1;
+        newKinds[count++] = i > 0 && window.charAt(i - 1) == '\r' ? CRLF : LF;
+      } else if (c == '\r' && (i + 1 == window.length() || window.charAt(i + 1) != '\n')) {
+        newStarts[count] = windowStart + i + 1;
+        newKinds[count++] = CR;
+      }
+    }
+    for (int i = last; i < lineCount; i++) {
+      newStarts[count] = starts[i] + delta;
+      newKinds[count++] = kinds[i];
+    }
+    return new LineIndex(newStarts, newKinds, count, length + delta);
+  }
+
+  /**
+   * Return the index of the content resulting from applying the given edits to the content of this
+   * index, in the order in which they occur in the list.
+   */
+  public LineIndex applyEdits(List<SourceEdit> edits) {
+    LineIndex index = this;
+    for (SourceEdit edit : edits) {
+      index = index.applyEdit(edit);
+    }
+    return index;
+  }
+
+  /**
+   * Return the index of the given content.
+   */
+  public static LineIndex create(CharSequence content) {
+    int length = content.length();
+    int[] starts = new int[16];
+    byte[] kinds = new byte[16];
+    int count = 1;
+    for (int i = 0; i < length; i++) {
+      char c = content.charAt(i);
+      byte kind;
+      if (c == '\n') {
+        kind = i > 0 && content.charAt(i - 1) == '\r' ? CRLF : LF;
+      } else if (c == '\r' && (i + 1 == length || content.charAt(i + 1) != '\n')) {
+        kind = CR;
+      } else {
+        continue;
+      }
+      if (count == starts.length) {
+        starts = Arrays.copyOf(starts, count * 2);
+        kinds = Arrays.copyOf(kinds, count * 2);
+      }
+      starts[count] = i + 1;
+      kinds[count++] = kind;
+    }
+    return new LineIndex(starts, kinds, count, length);
+  }
+
+  /**
+   * Return the one-based column of the given offset.
+   *
+   * @throws IndexOutOfBoundsException if the offset is not within the content or at its end
+   */
+  public int getColumn(int offset) {
+    return offset - starts[getLine(offset) - 1] + 1;
+  }
+
+  /**
+   * Return the length of the content.
+   */
+  public int getLength() {
+    return length;
+  }
+
+  /**
+   * Return the one-based line containing the given offset.
+   *
+   * @throws IndexOutOfBoundsException if the offset is not within the content or at its end
+   */
+  public int getLine(int offset) {
+    checkOffset(offset);
+    return upperBound(offset);
+  }
+
+  /**
+   * Return the number of lines.
+   */
+  public int getLineCount() {
+    return lineCount;
+  }
+
+  /**
+   * Return the offset at which the given one-based line starts.
+   */
+  public int getLineStart(int line) {
+    if (line < 1 || line > lineCount) {
+      throw new IndexOutOfBoundsException("line: " + line);
+    }
+    return starts[line - 1];
+  }
+
+  /**
+   * Store in {@code lines} the one-based lines of the given offsets and, if {@code columns} is not
+   * {@code null}, store in it their one-based columns. Offsets sorted in increasing order, as in most
+   * notifications, are converted in a time proportional to the number of offsets plus the number of
+   * lines they span.
+   *
+   * @throws IndexOutOfBoundsException if an offset is not within the content or at its end
+   */
+  public void getLines(int[] offsets, int[] lines, int[] columns) {
+    int line = 0;
+    for (int i = 0; i < offsets.length; i++) {
+      int offset = offsets[i];
+      checkOffset(offset);
+      if (line > 0 && offset >= starts[line - 1]) {
+        // gallop forward from the line of the previous offset
+        int low = line;
+        int high = low + 1;
+        while (high < lineCount && starts[high] <= offset) {
+          int step = high - low;
+          low = high;
+          high = low + 2 * step;
+        }
+        line = upperBound(offset, low, Math.min(high, lineCount));
+      } else {
+        line = upperBound(offset);
+      }
+      lines[i] = line;
+      if (columns != null) {
+        columns[i] = offset - starts[line - 1] + 1;
+      }
+    }
+  }
+
+  /**
+   * Return the offset of the given one-based line and column.
+   *
+   * @throws IndexOutOfBoundsException if the line does not exist, or the column is before the start
+   *           of the line or after the end of the content
+   */
+  public int getOffset(int line, int column) {
+    int offset = getLineStart(line) + column - 1;
+    if (column < 1 || offset > length) {
+      throw new IndexOutOfBoundsException("column: " + column);
+    }
+    return offset;
+  }
+
+  /**
+   * Throw an {@link IndexOutOfBoundsException} if the given offset is neither within the content nor
+   * at its end.
+   */
+  private void checkOffset(int offset) {
+    if (offset < 0 || offset > length) {
+      throw new IndexOutOfBoundsException("offset: " + offset);
+    }
+  }
+
+  /**
+   * Return {@code true} if the character at the given offset is {@code '\r'}.
+   */
+  private boolean isCarriageReturn(int offset) {
+    int line = upperBound(offset + 1);
+    if (line > 1 && starts[line - 1] == offset + 1 && kinds[line - 1] == CR) {
+      return true;
+    }
+    line = upperBound(offset + 2);
+    return line > 1 && starts[line - 1] == offset + 2 && kinds[line - 1] == CRLF;
+  }
+
+  /**
+   * Return {@code true} if the character at the given offset is {@code '\n'}.
+   */
+  private boolean isLineFeed(int offset) {
+    int line = upperBound(offset + 1);
+    return line > 1 && starts[line - 1] == offset + 1 && kinds[line - 1] != CR;
+  }
+
+  /**
+   * Return the number of lines starting at or before the given offset.
+   */
+  private int upperBound(int offset) {
+    return upperBound(offset, 0, lineCount);
+  }
+
+  /**
+   * Return the number of lines starting at or before the given offset, given that it is between
+   * {@code low} and {@code high}.
+   */
+  private int upperBound(int offset, int low, int high) {
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (starts[middle] <= offset) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+}
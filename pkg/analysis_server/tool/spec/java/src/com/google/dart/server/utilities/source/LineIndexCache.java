@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.server.utilities.source;
+
+import org.dartlang.analysis.server.protocol.SourceEdit;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiFunction;
+
+/**
+ * The class {@code LineIndexCache} shares the {@link LineIndex} of the current version of each file,
+ * so that the index is built once per version of the file (such as the version of its content
+ * overlay) and updated from the edits of the next version rather than rebuilt. It is safe to use
+ * from multiple threads. The versions of a file are expected to increase, and the index of an older
+ * version never replaces the index of a newer one.
+ *
+ * @coverage dart.server
+ */
+public class LineIndexCache {
+
+  /**
+   * The index of a version of a file.
+   */
+  private static final class Entry {
+    final long version;
+    final LineIndex index;
+
+    Entry(long version, LineIndex index) {
+      this.version = version;
+      this.index = index;
+    }
+  }
+
+  /**
+   * A table mapping files to the index of their current version.
+   */
+  private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+
+  /**
+   * Forget the indices of all the files.
+   */
+  public void clear() {
+    entries.clear();
+  }
+
+  /**
+   * Return the index of the given version of the given file, building it from the given content if
+   * it is not cached.
+   */
+  public LineIndex get(String file, final long version, CharSequence content) {
+    Entry entry = entries.get(file);
+    if (entry != null && entry.version == version) {
+      return entry.index;
+    }
+    final LineIndex index = LineIndex.create(content);
+    entries.compute(file, new BiFunction<String, Entry, Entry>() {
+      @Override
+      public Entry apply(String file, Entry entry) {
+        if (entry != null && entry.version >= version) {
+          return entry;
+        }
+        return new Entry(version, index);
+      }
+    });
+    return index;
+  }
+
+  /**
+   * Return the index of the given version of the given file, or {@code null} if it is not cached.
+   */
+  public LineIndex get(String file, long version) {
+    Entry entry = entries.get(file);
+    if (entry != null && entry.version == version) {
+      return entry.index;
+    }
+    return null;
+  }
+
+  /**
+   * Forget the index of the given file.
+   */
+  public void remove(String file) {
+    entries.remove(file);
+  }
+
+  /**
+   * Record that the given version of the given file was produced by applying the given edits, in the
+   * order in which they occur in the list, to its previous version. Return the index of the new
+   * version, or {@code null} if the index of the previous version is not cached, in which case the
+   * index of the new version must be built with {@link #get(String, long, CharSequence)}.
+   */
+  public LineIndex update(String file, final long previousVersion, final long version,
+      final List<SourceEdit> edits) {
+    final LineIndex[] index = new LineIndex[1];
+    entries.computeIfPresent(file, new BiFunction<String, Entry, Entry>() {
+      @Override
+      public Entry apply(String file, Entry entry) {
+        if (entry.version == version) {
+          // Another thread has already applied the edits.
+          index[0] = entry.index;
+          return entry;
+        }
+        if (entry.version != previousVersion) {
+          return entry;
+        }
+        index[0] = entry.index.applyEdits(edits);
+        return new Entry(version, index[0]);
+      }
+    });
+    return index[0];
+  }
+
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.server.utilities.source;
+
+import org.dartlang.analysis.server.protocol.LinkedEditGroup;
+import org.dartlang.analysis.server.protocol.Position;
+import org.dartlang.analysis.server.protocol.SourceEdit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The class {@code PositionTracker} keeps a set of {@link Position}s, such as the positions of a
+ * {@link LinkedEditGroup}, up to date while {@link SourceEdit}s are applied to their file.
+ * <p>
+ * The positions are kept sorted by offset, as their original offset plus a delta. The deltas are
+ * stored in a Fenwick tree, so that shifting all the positions after an edit is a single update,
+ * and applying an edit or reading an offset takes a logarithmic time in the number of positions.
+ * <p>
+ * A position after the range replaced by an edit is shifted by the difference between the length of
+ * the replacement and the length of the range. A position within the range is moved to the start of
+ * the range. A position at the offset of an insertion is not moved, so that text inserted at the
+ * start of a linked position becomes part of it. Positions in other files are never moved.
+ * <p>
+ * Trackers are not thread-safe.
+ *
+ * @coverage dart.server
+ */
+public class PositionTracker {
+
+  /**
+   * The file whose positions are updated.
+   */
+  private final String file;
+
+  /**
+   * The positions, in the order in which they were given.
+   */
+  private final List<Position> positions;
+
+  /**
+   * For each position, the index of its offset in {@link #offsets}, or {@code -1} if the position is
+   * in another file.
+   */
+  private final int[] slots;
+
+  /**
+   * The original offsets of the positions in the file, sorted.
+   */
+  private final int[] offsets;
+
+  /**
+   * The Fenwick tree of the differences between the deltas of consecutive entries of
+   * {@link #offsets}, indexed from {@code 1}.
+   */
+  private final int[] deltas;
+
+  /**
+   * Initialize a newly created tracker to update those of the given positions which are in the given
+   * file.
+   */
+  public PositionTracker(String file, List<Position> positions) {
+    this.file = file;
+    this.positions = positions;
+    int size = positions.size();
+    Integer[] indices = new Integer[size];
+    int count = 0;
+    for (int i = 0; i < size; i++) {
+      if (file.equals(positions.get(i).getFile())) {
+        indices[count++] = i;
+      }
+    }
+    final List<Position> allPositions = positions;
+    Arrays.sort(indices, 0, count, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer first, Integer second) {
+        return allPositions.get(first).getOffset() - allPositions.get(second).getOffset();
+      }
+    });
+    slots = new int[size];
+    Arrays.fill(slots, -1);
+    offsets = new int[count];
+    for (int i = 0; i < count; i++) {
+      slots[indices[i]] = i;
+      offsets[i] = positions.get(indices[i]).getOffset();
+    }
+    deltas = new int[count + 1];
+  }
+
+  /**
+   * Update the positions to account for the given edit having been applied to the file.
+   */
+  public void applyEdit(SourceEdit edit) {
+    int offset = edit.getOffset();
+    int length = edit.getLength();
+    int delta = edit.getReplacement().length() - length;
+    int end = length == 0 ? offset + 1 : offset + length;
+    int first = lowerBound(offset + 1);
+    int shifted = lowerBound(end);
+    for (int i = first; i < shifted; i++) {
+      int current = getCurrentOffset(i);
+      add(i, offset - current);
+      add(i + 1, current - offset);
+    }
+    if (delta != 0) {
+      add(shifted, delta);
+    }
+  }
+
+  /**
+   * Update the positions to account for the given edits having been applied to the file, in the order
+   * in which they occur in the list.
+   */
+  public void applyEdits(List<SourceEdit> edits) {
+    for (SourceEdit edit : edits) {
+      applyEdit(edit);
+    }
+  }
+
+  /**
+   * Return the file whose positions are updated.
+   */
+  public String getFile() {
+    return file;
+  }
+
+  /**
+   * Return the current offset of the position with the given index in the list of positions given to
+   * the constructor.
+   */
+  public int getOffset(int index) {
+    int slot = slots[index];
+    if (slot == -1) {
+      return positions.get(index).getOffset();
+    }
+    return getCurrentOffset(slot);
+  }
+
+  /**
+   * Return the current position with the given index in the list of positions given to the
+   * constructor.
+   */
+  public Position getPosition(int index) {
+    Position position = positions.get(index);
+    int offset = getOffset(index);
+    if (offset == position.getOffset()) {
+      return position;
+    }
+    return new Position(position.getFile(), offset);
+  }
+
+  /**
+   * Return the current positions, in the order of the list of positions given to the constructor.
+   */
+  public List<Position> getPositions() {
+    List<Position> result = new ArrayList<Position>(positions.size());
+    for (int i = 0; i < positions.size(); i++) {
+      result.add(getPosition(i));
+    }
+    return result;
+  }
+
+  /**
+   * Return the number of positions given to the constructor.
+   */
+  public int size() {
+    return positions.size();
+  }
+
+  /**
+   * Add the given value to the deltas of the entry with the given index and all the following ones.
+   */
+  private void add(int index, int value) {
+    for (int i = index + 1; i < deltas.length; i += i & -i) {
+      deltas[i] += value;
+    }
+  }
+
+  private int getCurrentOffset(int index) {
+    int offset = offsets[index];
+    for (int i = index + 1; i > 0; i -= i & -i) {
+      offset += deltas[i];
+    }
+    return offset;
+  }
+
+  /**
+   * Return the index of the first entry whose current offset is greater than or equal to the given
+   * offset, or the number of entries if there is no such entry.
+   */
+  private int lowerBound(int offset) {
+    int low = 0;
+    int high = offsets.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (getCurrentOffset(middle) < offset) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+}
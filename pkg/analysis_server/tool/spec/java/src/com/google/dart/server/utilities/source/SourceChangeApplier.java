@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.server.utilities.source;
+
+import org.dartlang.analysis.server.protocol.SourceChange;
+import org.dartlang.analysis.server.protocol.SourceFileEdit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The class {@code SourceChangeApplier} applies the edits of a {@link SourceChange} to the files on
+ * disk, processing the files in parallel on a {@link ForkJoinPool}.
+ * <p>
+ * The change is applied in two phases. In the first phase, each file is read, its modification
+ * stamp is compared with the {@code fileStamp} of its {@link SourceFileEdit}, the edits are applied
+ * to a {@link SourceDocument} and the result is written to a temporary file in the same directory,
+ * with the POSIX permissions of the file. If any file fails, the temporary files are deleted and no
+ * file is modified. Otherwise, in the second phase, each temporary file is atomically moved over
+ * its file. The temporary files which have not been moved are always deleted.
+ *
+ * @coverage dart.server
+ */
+public class SourceChangeApplier {
+
+  /**
+   * The exception thrown when a file has been modified since the change was created.
+   */
+  @SuppressWarnings("serial")
+  public static class StaleFileException extends IOException {
+    private final String file;
+
+    public StaleFileException(String file) {
+      super("File modified since the change was created: " + file);
+      this.file = file;
+    }
+
+    /**
+     * Return the file which has been modified.
+     */
+    public String getFile() {
+      return file;
+    }
+  }
+
+  /**
+   * The permissions of the new files, which would be the permissions of a file created with the
+   * usual umask, rather than the owner-only permissions of a temporary file.
+   */
+  private static final Set<PosixFilePermission> NEW_FILE_PERMISSIONS =
+      PosixFilePermissions.fromString("rw-r--r--");
+
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  /**
+   * The task preparing the new content of a single file.
+   */
+  @SuppressWarnings("serial")
+  private class FileTask extends RecursiveAction {
+    private final String file;
+    private final List<SourceFileEdit> fileEdits;
+    private Path temporaryFile;
+    private Exception exception;
+
+    FileTask(String file, List<SourceFileEdit> fileEdits) {
+      this.file = file;
+      this.fileEdits = fileEdits;
+    }
+
+    @Override
+    protected void compute() {
+      // Catch all the exceptions, so that every task completes before the temporary files are
+      // deleted.
+      try {
+        temporaryFile = prepare(Paths.get(file), fileEdits);
+      } catch (IOException exception) {
+        this.exception = exception;
+      } catch (RuntimeException exception) {
+        this.exception = exception;
+      }
+    }
+  }
+
+  /**
+   * The pool the files are processed on.
+   */
+  private final ForkJoinPool pool;
+
+  /**
+   * {@code true} if the modification stamps of the files are compared with the stamps of the edits.
+   */
+  private final boolean verifyFileStamps;
+
+  /**
+   * Initialize a newly created applier to process the files on the given pool. If
+   * {@code verifyFileStamps} is {@code true}, a file whose modification time differs from the
+   * {@code fileStamp} of its edits is reported as a {@link StaleFileException}.
+   */
+  public SourceChangeApplier(ForkJoinPool pool, boolean verifyFileStamps) {
+    this.pool = pool;
+    this.verifyFileStamps = verifyFileStamps;
+  }
+
+  /**
+   * Apply the edits of the given change to the files on disk. Return the files which were modified.
+   *
+   * @throws StaleFileException if a file has been modified since the change was created
+   * @throws IOException if a file could not be read or written, in which case no file was modified
+   *           unless the failure happened while moving the new contents into place
+   */
+  public List<String> apply(SourceChange change) throws IOException {
+    return apply(change.getEdits());
+  }
+
+  /**
+   * Apply the given edits to the files on disk. Return the files which were modified.
+   *
+   * @see #apply(SourceChange)
+   */
+  public List<String> apply(List<SourceFileEdit> fileEdits) throws IOException {
+    Map<String, List<SourceFileEdit>> editsByFile = new LinkedHashMap<String, List<SourceFileEdit>>();
+    for (SourceFileEdit fileEdit : fileEdits) {
+      List<SourceFileEdit> edits = editsByFile.get(fileEdit.getFile());
+      if (edits == null) {
+        edits = new ArrayList<SourceFileEdit>();
+        editsByFile.put(fileEdit.getFile(), edits);
+      }
+      edits.add(fileEdit);
+    }
+    final List<FileTask> tasks = new ArrayList<FileTask>();
+    for (Map.Entry<String, List<SourceFileEdit>> entry : editsByFile.entrySet()) {
+      tasks.add(new FileTask(entry.getKey(), entry.getValue()));
+    }
+    try {
+      pool.invoke(new RecursiveAction() {
+        @Override
+        protected void compute() {
+          ForkJoinTask.invokeAll(tasks);
+        }
+      });
+      for (FileTask task : tasks) {
+        if (task.exception instanceof IOException) {
+          throw (IOException) task.exception;
+        }
+        if (task.exception != null) {
+          throw (RuntimeException) task.exception;
+        }
+      }
+      List<String> files = new ArrayList<String>();
+      for (FileTask task : tasks) {
+        move(task.temporaryFile, Paths.get(task.file));
+        task.temporaryFile = null;
+        files.add(task.file);
+      }
+      return files;
+    } finally {
+      deleteTemporaryFiles(tasks);
+    }
+  }
+
+  /**
+   * Copy the POSIX permissions of the given file to the given temporary file, or give it the
+   * permissions of a new file if the file does not exist.
+   */
+  private static void copyPermissions(Path path, boolean exists, Path temporaryFile)
+      throws IOException {
+    if (Files.getFileAttributeView(temporaryFile, PosixFileAttributeView.class) == null) {
+      return;
+    }
+    Files.setPosixFilePermissions(
+        temporaryFile,
+        exists ? Files.getPosixFilePermissions(path) : NEW_FILE_PERMISSIONS);
+  }
+
+  /**
+   * Delete the temporary files of the given tasks which have not been moved over their file,
+   * ignoring the failures so that they do not hide the original exception.
+   */
+  private static void deleteTemporaryFiles(List<FileTask> tasks) {
+    for (FileTask task : tasks) {
+      if (task.temporaryFile != null) {
+        try {
+          Files.deleteIfExists(task.temporaryFile);
+        } catch (IOException exception) {
+          // Leave the file, there is nothing else to do.
+        }
+      }
+    }
+  }
+
+  private static void move(Path source, Path target) throws IOException {
+    try {
+      Files.move(
+          source,
+          target,
+          StandardCopyOption.ATOMIC_MOVE,
+          StandardCopyOption.REPLACE_EXISTING);
+    } catch (AtomicMoveNotSupportedException exception) {
+      Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  /**
+   * Verify the given file, apply the given edits to its content and write the result to a temporary
+   * file in the same directory. Return the temporary file.
+   */
+  private Path prepare(Path path, List<SourceFileEdit> fileEdits) throws IOException {
+    long fileStamp = fileEdits.get(0).getFileStamp();
+    boolean exists = Files.exists(path);
+    if (verifyFileStamps) {
+      boolean stale = fileStamp == -1
+          ? exists
+          : !exists || Files.getLastModifiedTime(path).toMillis() != fileStamp;
+      if (stale) {
+        throw new StaleFileException(path.toString());
+      }
+    }
+    SourceDocument document = new SourceDocument(
+        path.toString(),
+        exists ? new String(Files.readAllBytes(path), UTF8) : "");
+    for (SourceFileEdit fileEdit : fileEdits) {
+      try {
+        document.applyEdits(fileEdit.getEdits());
+      } catch (IllegalArgumentException exception) {
+        throw new IOException(exception.getMessage() + " in " + path, exception);
+      }
+    }
+    Path directory = path.toAbsolutePath().getParent();
+    Files.createDirectories(directory);
+    Path temporaryFile = Files.createTempFile(directory, "." + path.getFileName(), ".tmp");
+    try {
+      copyPermissions(path, exists, temporaryFile);
+      write(temporaryFile, document.getContent());
+    } catch (IOException exception) {
+      Files.deleteIfExists(temporaryFile);
+      throw exception;
+    }
+    return temporaryFile;
+  }
+
+  private static void write(Path path, String content) throws IOException {
+    ByteBuffer bytes = UTF8.encode(content);
+    FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE);
+    try {
+      while (bytes.hasRemaining()) {
+        channel.write(bytes);
+      }
+      channel.force(false);
+    } finally {
+      channel.close();
+    }
+  }
+
+}
@@ -0,0 +1,374 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.server.utilities.source;
+
+import org.dartlang.analysis.server.protocol.Position;
+import org.dartlang.analysis.server.protocol.SourceChange;
+import org.dartlang.analysis.server.protocol.SourceEdit;
+import org.dartlang.analysis.server.protocol.SourceFileEdit;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The class {@code SourceDocument} holds the content of a file as a piece table, so that the edits
+ * of a {@link SourceFileEdit} can be applied in a single pass over the document, rather than by
+ * copying the whole content for each {@link SourceEdit}.
+ * <p>
+ * The content is described by a sequence of pieces, each of them a range of either the original
+ * content or of an append-only buffer holding the replacements of the edits. Applying edits creates
+ * a new sequence of pieces and leaves the previous one untouched, so that a {@link Snapshot} of the
+ * document can be taken and restored in constant time, which is used to undo edits.
+ * <p>
+ * Documents are not thread-safe.
+ *
+ * @coverage dart.server
+ */
+public class SourceDocument {
+
+  /**
+   * The content of a document at some point in time.
+   */
+  public static final class Snapshot {
+    /**
+     * For each piece, {@code true} if it is a range of the buffer of replacements, {@code false} if
+     * it is a range of the original content.
+     */
+    private final boolean[] added;
+
+    /**
+     * For each piece, the offset of its range in its buffer.
+     */
+    private final int[] starts;
+
+    /**
+     * For each piece, the offset in the document of the end of the piece.
+     */
+    private final int[] ends;
+
+    /**
+     * The number of pieces.
+     */
+    private final int count;
+
+    private Snapshot(boolean[] added, int[] starts, int[] ends, int count) {
+      this.added = added;
+      this.starts = starts;
+      this.ends = ends;
+      this.count = count;
+    }
+
+    /**
+     * Return the length of the content.
+     */
+    public int getLength() {
+      return count == 0 ? 0 : ends[count - 1];
+    }
+
+    /**
+     * Return the number of pieces describing the content.
+     */
+    public int getPieceCount() {
+      return count;
+    }
+  }
+
+  /**
+   * A builder of the pieces of a snapshot, which merges adjacent ranges of the same buffer.
+   */
+  private static final class PieceBuilder {
+    private boolean[] added;
+    private int[] starts;
+    private int[] ends;
+    private int count = 0;
+    private int length = 0;
+
+    PieceBuilder(int capacity) {
+      capacity = Math.max(capacity, 4);
+      added = new boolean[capacity];
+      starts = new int[capacity];
+      ends = new int[capacity];
+    }
+
+    void add(boolean pieceAdded, int start, int pieceLength) {
+      if (pieceLength == 0) {
+        return;
+      }
+      length += pieceLength;
+      if (count > 0 && added[count - 1] == pieceAdded
+          && starts[count - 1] + pieceLength(count - 1) == start) {
+        ends[count - 1] = length;
+        return;
+      }
+      if (count == added.length) {
+        int capacity = count * 2;
+        added = Arrays.copyOf(added, capacity);
+        starts = Arrays.copyOf(starts, capacity);
+        ends = Arrays.copyOf(ends, capacity);
+      }
+      added[count] = pieceAdded;
+      starts[count] = start;
+      ends[count] = length;
+      count++;
+    }
+
+    Snapshot build() {
+      return new Snapshot(added, starts, ends, count);
+    }
+
+    private int pieceLength(int index) {
+      return ends[index] - (index == 0 ? 0 : ends[index - 1]);
+    }
+  }
+
+  /**
+   * The file whose content is held by this document.
+   */
+  private final String file;
+
+  /**
+   * The content of the document when it was created.
+   */
+  private final String original;
+
+  /**
+   * The replacements of all the edits applied to this document, in the order in which they were
+   * applied. Text is only ever appended to it, so that all the snapshots remain valid.
+   */
+  private final StringBuilder buffer = new StringBuilder();
+
+  /**
+   * The current content of the document.
+   */
+  private Snapshot snapshot;
+
+  /**
+   * Initialize a newly created document to hold the given content of the given file.
+   */
+  public SourceDocument(String file, String content) {
+    this.file = file;
+    this.original = content;
+    PieceBuilder builder = new PieceBuilder(1);
+    builder.add(false, 0, content.length());
+    snapshot = builder.build();
+  }
+
+  /**
+   * Apply the edits of the given change to this document which are for the file of this document.
+   * Return the snapshot of the document before the edits were applied.
+   */
+  public Snapshot apply(SourceChange change) {
+    Snapshot previous = snapshot;
+    for (SourceFileEdit fileEdit : change.getEdits()) {
+      if (fileEdit.getFile().equals(file)) {
+        applyEdits(fileEdit.getEdits());
+      }
+    }
+    return previous;
+  }
+
+  /**
+   * Apply the given edits to this document. The edits are applied in the order in which they occur
+   * in the list, which means that the offset of each edit must be correct under the assumption that
+   * all previous edits have been applied. Edits sorted by descending offset, such as those of a
+   * {@link SourceFileEdit}, are applied in a single pass. Return the snapshot of the document before
+   * the edits were applied.
+   *
+   * @throws IllegalArgumentException if the range of an edit is not within the document
+   */
+  public Snapshot applyEdits(List<SourceEdit> edits) {
+    Snapshot previous = snapshot;
+    int start = 0;
+    while (start < edits.size()) {
+      // find the longest run of edits which do not overlap and are sorted by descending offset
+      int end = start + 1;
+      while (end < edits.size()) {
+        SourceEdit edit = edits.get(end);
+        if (edit.getOffset() + edit.getLength() > edits.get(end - 1).getOffset()) {
+          break;
+        }
+        end++;
+      }
+      snapshot = applyRun(snapshot, edits, start, end);
+      start = end;
+    }
+    return previous;
+  }
+
+  /**
+   * Return the character at the given offset.
+   */
+  public char charAt(int offset) {
+    if (offset < 0 || offset >= snapshot.getLength()) {
+      throw new IndexOutOfBoundsException("offset: " + offset);
+    }
+    int index = findPiece(snapshot, offset);
+    int pieceStart = index == 0 ? 0 : snapshot.ends[index - 1];
+    int bufferOffset = snapshot.starts[index] + offset - pieceStart;
+    return snapshot.added[index] ? buffer.charAt(bufferOffset) : original.charAt(bufferOffset);
+  }
+
+  /**
+   * Return the content of the document.
+   */
+  public String getContent() {
+    return getContent(0, snapshot.getLength());
+  }
+
+  /**
+   * Return the given range of the content of the document.
+   */
+  public String getContent(int offset, int length) {
+    if (offset < 0 || length < 0 || offset + length > snapshot.getLength()) {
+      throw new IndexOutOfBoundsException("offset: " + offset + ", length: " + length);
+    }
+    StringBuilder builder = new StringBuilder(length);
+    int end = offset + length;
+    int index = length == 0 ? snapshot.count : findPiece(snapshot, offset);
+    while (offset < end) {
+      int pieceStart = index == 0 ? 0 : snapshot.ends[index - 1];
+      int pieceEnd = Math.min(end, snapshot.ends[index]);
+      int bufferOffset = snapshot.starts[index] + offset - pieceStart;
+      int bufferEnd = bufferOffset + pieceEnd - offset;
+      if (snapshot.added[index]) {
+        builder.append(buffer, bufferOffset, bufferEnd);
+      } else {
+        builder.append(original, bufferOffset, bufferEnd);
+      }
+      offset = pieceEnd;
+      index++;
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Return the file whose content is held by this document.
+   */
+  public String getFile() {
+    return file;
+  }
+
+  /**
+   * Return the length of the content of the document.
+   */
+  public int getLength() {
+    return snapshot.getLength();
+  }
+
+  /**
+   * Return the offset in this document of the selection of the given change, which is expressed in
+   * terms of the content after the edits of the change have been applied, or {@code -1} if the change
+   * has no selection in the file of this document.
+   */
+  public int getSelectionOffset(SourceChange change) {
+    Position selection = change.getSelection();
+    if (selection == null || !file.equals(selection.getFile())) {
+      return -1;
+    }
+    return Math.max(0, Math.min(selection.getOffset(), snapshot.getLength()));
+  }
+
+  /**
+   * Return a snapshot of the current content of the document.
+   */
+  public Snapshot getSnapshot() {
+    return snapshot;
+  }
+
+  /**
+   * Return the offset, after the given edits have been applied, of the character at the given offset
+   * before they were applied. An offset within the range replaced by an edit is mapped to the start of
+   * the replacement. The edits are interpreted as by {@link #applyEdits}.
+   */
+  public static int mapOffset(List<SourceEdit> edits, int offset) {
+    for (SourceEdit edit : edits) {
+      int editOffset = edit.getOffset();
+      int editEnd = editOffset + edit.getLength();
+      if (offset >= editEnd) {
+        offset += edit.getReplacement().length() - edit.getLength();
+      } else if (offset > editOffset) {
+        offset = editOffset;
+      }
+    }
+    return offset;
+  }
+
+  /**
+   * Restore the content of the document to the given snapshot, which must have been returned by this
+   * document.
+   */
+  public void restore(Snapshot snapshot) {
+    this.snapshot = snapshot;
+  }
+
+  /**
+   * Apply the edits with the given indices, which do not overlap and are sorted by descending offset,
+   * to the given snapshot, in a single pass. Return the resulting snapshot.
+   */
+  private Snapshot applyRun(Snapshot source, List<SourceEdit> edits, int start, int end) {
+    int length = source.getLength();
+    PieceBuilder builder = new PieceBuilder(source.count + 2 * (end - start));
+    int position = 0;
+    for (int i = end - 1; i >= start; i--) {
+      SourceEdit edit = edits.get(i);
+      int offset = edit.getOffset();
+      if (offset < position || edit.getLength() < 0 || offset + edit.getLength() > length) {
+        throw new IllegalArgumentException("Invalid edit: " + edit + " in document of length "
+            + length);
+      }
+      copyRange(source, position, offset, builder);
+      String replacement = edit.getReplacement();
+      builder.add(true, buffer.length(), replacement.length());
+      buffer.append(replacement);
+      position = offset + edit.getLength();
+    }
+    copyRange(source, position, length, builder);
+    return builder.build();
+  }
+
+  /**
+   * Add to the given builder the pieces of the given snapshot covering the given range.
+   */
+  private static void copyRange(Snapshot source, int offset, int end, PieceBuilder builder) {
+    if (offset >= end) {
+      return;
+    }
+    int index = findPiece(source, offset);
+    while (offset < end) {
+      int pieceStart = index == 0 ? 0 : source.ends[index - 1];
+      int pieceEnd = Math.min(end, source.ends[index]);
+      builder.add(source.added[index], source.starts[index] + offset - pieceStart, pieceEnd - offset);
+      offset = pieceEnd;
+      index++;
+    }
+  }
+
+  /**
+   * Return the index of the piece of the given snapshot containing the character at the given offset.
+   */
+  private static int findPiece(Snapshot source, int offset) {
+    int low = 0;
+    int high = source.count - 1;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (source.ends[middle] <= offset) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+}
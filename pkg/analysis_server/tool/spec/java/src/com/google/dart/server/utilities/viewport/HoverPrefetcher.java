@@ -0,0 +1,427 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.server.utilities.viewport;
+
+import com.google.dart.server.generated.AnalysisServer;
+import com.google.dart.server.generated.ClientCallbacks;
+import com.google.dart.server.generated.PrioritizedAnalysisServer;
+import com.google.dart.server.generated.callbacks.GetHoverCallback;
+
+import org.dartlang.analysis.server.protocol.HoverInformation;
+import org.dartlang.analysis.server.protocol.NavigationRegion;
+import org.dartlang.analysis.server.protocol.RequestError;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * The class {@code HoverPrefetcher} speculatively requests the hover information of the
+ * identifiers visible in an editor, so that a hover can usually be shown as soon as the mouse
+ * settles instead of after an {@code analysis.getHover} round trip.
+ * <p>
+ * The client reports the visible range of a file, together with the navigation regions reported
+ * for the file by the last {@code analysis.navigation} notification, with {@link #setViewport}.
+ * The prefetcher then requests the hover information at the offset of each navigation region
+ * intersecting the visible range, nearest to the middle of the range first. No more than a fixed
+ * number of prefetch requests wait for a response at any time, so that they do not delay the
+ * interactive requests of the client. The responses fill a bounded cache, the least recently used
+ * entries being evicted first, which is queried with {@link #getHovers}.
+ * <p>
+ * Moving the viewport cancels the prefetch requests which have not been sent yet. Changing the
+ * version of the content of a file, with {@link #setViewport} or {@link #setVersion}, also discards
+ * the hovers cached for the file and the responses to the requests sent for the previous version.
+ * The client calls {@link #closeFile} when a file is closed, so that nothing is kept about it.
+ * <p>
+ * A prefetcher created with a {@link PrioritizedAnalysisServer} sends its requests through the
+ * low priority server of that server, so that prefetches never overtake the requests of the
+ * client, even for priority files. An error response caches nothing.
+ *
+ * @coverage dart.server
+ */
+public class HoverPrefetcher {
+
+  /**
+   * The server the requests are sent to.
+   */
+  private final AnalysisServer server;
+
+  /**
+   * The maximum number of cached entries.
+   */
+  private final int maxEntries;
+
+  /**
+   * The maximum number of prefetch requests waiting for a response.
+   */
+  private final int maxRequests;
+
+  /**
+   * The hover information of a navigation region, or a prefetch request for it.
+   */
+  private static class Entry {
+    final String file;
+    final long version;
+    final int offset;
+    final int length;
+    HoverInformation[] hovers;
+
+    Entry(String file, long version, int offset, int length) {
+      this.file = file;
+      this.version = version;
+      this.offset = offset;
+      this.length = length;
+    }
+
+    /**
+     * Return {@code true} if the given offset is within the region of this entry.
+     */
+    boolean contains(int x) {
+      return offset <= x && (x < offset + length || x == offset);
+    }
+  }
+
+  /**
+   * The cached entries, keyed by file and then by the offset of their region, guarded by
+   * {@code this}.
+   */
+  private final Map<String, TreeMap<Integer, Entry>> entries = new HashMap<String, TreeMap<Integer, Entry>>();
+
+  /**
+   * The cached entries, least recently used first, guarded by {@code this}.
+   */
+  private final LinkedHashMap<Entry, Entry> recentEntries = new LinkedHashMap<Entry, Entry>(16, 0.75f, true);
+
+  /**
+   * The current version of the content of each file having cached entries, queued requests or
+   * requests waiting for a response, guarded by {@code this}.
+   */
+  private final Map<String, Long> versions = new HashMap<String, Long>();
+
+  /**
+   * The prefetch requests which have not been sent yet, in the order in which they are to be sent,
+   * guarded by {@code this}.
+   */
+  private final LinkedList<Entry> queue = new LinkedList<Entry>();
+
+  /**
+   * The prefetch requests waiting for a response, guarded by {@code this}.
+   */
+  private final List<Entry> requests = new ArrayList<Entry>();
+
+  /**
+   * Initialize a newly created prefetcher to send requests to the given server, caching the hover
+   * information of no more than the given number of regions, and allowing the given number of
+   * prefetch requests to wait for a response at any time.
+   */
+  public HoverPrefetcher(AnalysisServer server, int maxEntries, int maxRequests) {
+    if (maxEntries < 1) {
+      throw new IllegalArgumentException("maxEntries: " + maxEntries);
+    }
+    if (maxRequests < 1) {
+      throw new IllegalArgumentException("maxRequests: " + maxRequests);
+    }
+    this.server = server;
+    this.maxEntries = maxEntries;
+    this.maxRequests = maxRequests;
+  }
+
+  /**
+   * Initialize a newly created prefetcher to send low priority requests to the given server,
+   * caching the hover information of no more than the given number of regions, and allowing the
+   * given number of prefetch requests to wait for a response at any time.
+   */
+  public HoverPrefetcher(PrioritizedAnalysisServer server, int maxEntries, int maxRequests) {
+    this(server.getLowPriorityServer(), maxEntries, maxRequests);
+  }
+
+  /**
+   * Discard all the cached hovers, and cancel the prefetch requests which have not been sent yet.
+   */
+  public synchronized void clear() {
+    entries.clear();
+    recentEntries.clear();
+    versions.clear();
+    queue.clear();
+  }
+
+  /**
+   * Discard the cached hovers and the version of the given file, and cancel the prefetch requests
+   * for it which have not been sent yet. The responses to the requests already sent for the file
+   * are discarded.
+   */
+  public synchronized void closeFile(String file) {
+    removeEntries(file);
+    removeQueued(file);
+    versions.remove(file);
+  }
+
+  /**
+   * Return the cached hover information at the given offset in the given file, or {@code null} if
+   * it has not been prefetched. An empty array is returned if the server reported no hover
+   * information for the navigation region containing the offset.
+   */
+  public synchronized HoverInformation[] getHovers(String file, int offset) {
+    TreeMap<Integer, Entry> fileEntries = entries.get(file);
+    if (fileEntries == null) {
+      return null;
+    }
+    Map.Entry<Integer, Entry> floor = fileEntries.floorEntry(offset);
+    if (floor == null || !floor.getValue().contains(offset)) {
+      return null;
+    }
+    Entry entry = floor.getValue();
+    recentEntries.get(entry);
+    return entry.hovers;
+  }
+
+  /**
+   * Record the version of the content of the given file. If it is not the previous version, the
+   * cached hovers of the file, and the responses to the requests sent for the previous version, are
+   * discarded.
+   */
+  public void setVersion(String file, long version) {
+    synchronized (this) {
+      updateVersion(file, version);
+      pruneVersion(file);
+    }
+    sendQueued();
+  }
+
+  /**
+   * Record that the given range of the given version of the content of the given file is visible,
+   * the file having the given navigation regions. The prefetch requests which have not been sent
+   * yet are cancelled, and the hover information of the regions intersecting the range which is
+   * neither cached nor requested is prefetched.
+   */
+  public void setViewport(String file, long version, int offset, int length, List<NavigationRegion> regions) {
+    synchronized (this) {
+      updateVersion(file, version);
+      Set<String> cancelledFiles = new HashSet<String>();
+      for (Entry request : queue) {
+        cancelledFiles.add(request.file);
+      }
+      queue.clear();
+      TreeMap<Integer, Entry> fileEntries = entries.get(file);
+      List<Entry> prefetches = new ArrayList<Entry>();
+      for (NavigationRegion region : regions) {
+        int regionOffset = region.getOffset();
+        int regionLength = region.getLength();
+        if (regionOffset >= offset + length || regionOffset + Math.max(regionLength, 1) <= offset) {
+          continue;
+        }
+        if (fileEntries != null && fileEntries.containsKey(regionOffset)) {
+          continue;
+        }
+        if (isRequested(file, version, regionOffset)) {
+          continue;
+        }
+        prefetches.add(new Entry(file, version, regionOffset, regionLength));
+      }
+      final int middle = offset + length / 2;
+      Collections.sort(prefetches, new Comparator<Entry>() {
+        @Override
+        public int compare(Entry first, Entry second) {
+          return Math.abs(first.offset - middle) - Math.abs(second.offset - middle);
+        }
+      });
+      queue.addAll(prefetches);
+      cancelledFiles.add(file);
+      for (String cancelledFile : cancelledFiles) {
+        pruneVersion(cancelledFile);
+      }
+    }
+    sendQueued();
+  }
+
+  /**
+   * Cache the given entry, evicting the least recently used entry if the cache is full.
+   */
+  private void cache(Entry entry) {
+    TreeMap<Integer, Entry> fileEntries = entries.get(entry.file);
+    if (fileEntries == null) {
+      fileEntries = new TreeMap<Integer, Entry>();
+      entries.put(entry.file, fileEntries);
+    }
+    Entry previous = fileEntries.put(entry.offset, entry);
+    if (previous != null) {
+      recentEntries.remove(previous);
+    }
+    recentEntries.put(entry, entry);
+    if (recentEntries.size() > maxEntries) {
+      Iterator<Entry> iterator = recentEntries.keySet().iterator();
+      Entry eldest = iterator.next();
+      iterator.remove();
+      fileEntries = entries.get(eldest.file);
+      fileEntries.remove(eldest.offset);
+      if (fileEntries.isEmpty()) {
+        entries.remove(eldest.file);
+        pruneVersion(eldest.file);
+      }
+    }
+  }
+
+  /**
+   * Record the response to the given request, caching the given hover information unless it is
+   * {@code null} or the version of the file has changed since the request was sent.
+   */
+  private void complete(Entry request, HoverInformation[] hovers) {
+    synchronized (this) {
+      requests.remove(request);
+      Long version = versions.get(request.file);
+      if (hovers != null && version != null && version.longValue() == request.version) {
+        request.hovers = hovers;
+        cache(request);
+      } else {
+        pruneVersion(request.file);
+      }
+    }
+    sendQueued();
+  }
+
+  /**
+   * Return a callback caching the hover information of the response to the given request.
+   */
+  private GetHoverCallback createCallback(final Entry request) {
+    return new GetHoverCallback() {
+      private boolean completed = false;
+
+      @Override
+      public void onError(RequestError requestError) {
+        if (start()) {
+          complete(request, null);
+        }
+      }
+
+      @Override
+      public void onResponse(List<HoverInformation> hovers) {
+        if (start()) {
+          complete(request, hovers.toArray(new HoverInformation[hovers.size()]));
+        }
+      }
+
+      /**
+       * Return {@code true} if this is the first response to the request.
+       */
+      private synchronized boolean start() {
+        if (completed) {
+          return false;
+        }
+        completed = true;
+        return true;
+      }
+    };
+  }
+
+  /**
+   * Return {@code true} if a request for the hover information at the given offset in the given
+   * version of the given file is waiting for a response.
+   */
+  private boolean isRequested(String file, long version, int offset) {
+    for (Entry request : requests) {
+      if (request.offset == offset && request.version == version && request.file.equals(file)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Forget the version of the given file if nothing is cached, queued or requested for it.
+   */
+  private void pruneVersion(String file) {
+    if (entries.containsKey(file)) {
+      return;
+    }
+    for (Entry request : queue) {
+      if (request.file.equals(file)) {
+        return;
+      }
+    }
+    for (Entry request : requests) {
+      if (request.file.equals(file)) {
+        return;
+      }
+    }
+    versions.remove(file);
+  }
+
+  /**
+   * Discard the cached hovers of the given file.
+   */
+  private void removeEntries(String file) {
+    TreeMap<Integer, Entry> fileEntries = entries.remove(file);
+    if (fileEntries != null) {
+      for (Entry entry : fileEntries.values()) {
+        recentEntries.remove(entry);
+      }
+    }
+  }
+
+  /**
+   * Cancel the prefetch requests for the given file which have not been sent yet.
+   */
+  private void removeQueued(String file) {
+    Iterator<Entry> iterator = queue.iterator();
+    while (iterator.hasNext()) {
+      if (iterator.next().file.equals(file)) {
+        iterator.remove();
+      }
+    }
+  }
+
+  /**
+   * Send the queued prefetch requests as long as fewer than the maximum number of prefetch requests
+   * are waiting for a response.
+   */
+  private void sendQueued() {
+    while (true) {
+      Entry request;
+      synchronized (this) {
+        if (queue.isEmpty() || requests.size() >= maxRequests) {
+          return;
+        }
+        request = queue.removeFirst();
+        requests.add(request);
+      }
+      server.analysis_getHover(
+          request.file,
+          request.offset,
+          ClientCallbacks.toConsumer(createCallback(request)));
+    }
+  }
+
+  /**
+   * Record the version of the content of the given file, discarding the cached hovers and the queued
+   * prefetch requests of the file if it is not the previous version.
+   */
+  private void updateVersion(String file, long version) {
+    Long previous = versions.put(file, version);
+    if (previous == null || previous.longValue() == version) {
+      return;
+    }
+    removeEntries(file);
+    removeQueued(file);
+  }
+
+}
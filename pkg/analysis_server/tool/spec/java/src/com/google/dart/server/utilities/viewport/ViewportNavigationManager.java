@@ -0,0 +1,342 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.server.utilities.viewport;
+
+import com.google.dart.server.generated.AnalysisServer;
+import com.google.dart.server.generated.ClientCallbacks;
+import com.google.dart.server.generated.RegionIndex;
+import com.google.dart.server.generated.callbacks.GetNavigationCallback;
+import com.google.dart.server.utilities.source.LineIndex;
+
+import org.dartlang.analysis.server.protocol.NavigationRegion;
+import org.dartlang.analysis.server.protocol.NavigationTarget;
+import org.dartlang.analysis.server.protocol.RequestError;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * The class {@code ViewportNavigationManager} keeps the navigation regions of the visible part of
+ * the files open in an editor, requesting them with {@code analysis.getNavigation} instead of
+ * subscribing to the {@code analysis.navigation} notifications of the whole files.
+ * <p>
+ * The lines of a file are divided into windows of a fixed number of lines. When the visible lines
+ * of a file are reported with {@link #setViewport}, the navigation regions of the windows containing
+ * them, and of the adjacent windows, are requested unless they have already been. The regions of
+ * the responses are merged into a single index per file, the regions reported by the responses of
+ * two windows, which have the same offset and length, being kept once, and the windows farthest
+ * from the visible lines are evicted once a file has more than a fixed number of windows.
+ * <p>
+ * The targets of the regions of a response are indexes into the tables of that response, so they
+ * are resolved before the regions are merged: {@link NavigationRegion#getTargetObjects} of a kept
+ * region, and {@link NavigationTarget#getFile} of its targets, are valid, while the indexes
+ * returned by {@link NavigationRegion#getTargets} are not.
+ * <p>
+ * The regions are invalidated when the version of the content of a file changes, the responses to
+ * the requests sent for the previous version being ignored. An error response makes the window be
+ * requested again the next time it is visible.
+ *
+ * @coverage dart.server
+ */
+public class ViewportNavigationManager {
+
+  /**
+   * The server the requests are sent to.
+   */
+  private final AnalysisServer server;
+
+  /**
+   * The number of lines of a window.
+   */
+  private final int windowLines;
+
+  /**
+   * The maximum number of windows kept for a file.
+   */
+  private final int maxWindows;
+
+  /**
+   * A range of lines of a file whose navigation regions are requested together.
+   */
+  private static class Window {
+    final int index;
+    final int start;
+    final int end;
+    boolean loaded = false;
+
+    Window(int index, int start, int end) {
+      this.index = index;
+      this.start = start;
+      this.end = end;
+    }
+
+    /**
+     * Return {@code true} if the given region covers at least one offset of this window.
+     */
+    boolean intersects(NavigationRegion region) {
+      return region.getOffset() < end && region.getOffset() + region.getLength() >= start;
+    }
+  }
+
+  /**
+   * The windows and the navigation regions of a version of a file.
+   */
+  private static class FileState {
+    final String file;
+    final long version;
+    final TreeMap<Integer, Window> windows = new TreeMap<Integer, Window>();
+    final TreeMap<Long, NavigationRegion> regions = new TreeMap<Long, NavigationRegion>();
+    int maxRegionLength = 0;
+    RegionIndex<NavigationRegion> index;
+
+    FileState(String file, long version) {
+      this.file = file;
+      this.version = version;
+    }
+  }
+
+  /**
+   * The state of each file, guarded by {@code this}.
+   */
+  private final Map<String, FileState> files = new HashMap<String, FileState>();
+
+  /**
+   * Initialize a newly created manager to send requests to the given server, requesting the
+   * navigation regions of windows of the given number of lines, and keeping no more than the given
+   * number of windows for a file.
+   */
+  public ViewportNavigationManager(AnalysisServer server, int windowLines, int maxWindows) {
+    if (windowLines < 1) {
+      throw new IllegalArgumentException("windowLines: " + windowLines);
+    }
+    if (maxWindows < 1) {
+      throw new IllegalArgumentException("maxWindows: " + maxWindows);
+    }
+    this.server = server;
+    this.windowLines = windowLines;
+    this.maxWindows = maxWindows;
+  }
+
+  /**
+   * Return an index of the navigation regions known for the given file, or {@code null} if the file
+   * has no window. The index is rebuilt only when the regions of the file have changed.
+   */
+  public synchronized RegionIndex<NavigationRegion> getIndex(String file) {
+    FileState state = files.get(file);
+    if (state == null) {
+      return null;
+    }
+    if (state.index == null) {
+      state.index = RegionIndex.forNavigationRegions(
+          new ArrayList<NavigationRegion>(state.regions.values()));
+    }
+    return state.index;
+  }
+
+  /**
+   * Return the navigation region containing the given offset of the given file, or {@code null} if
+   * there is none, or if the window containing the offset has not been loaded.
+   */
+  public synchronized NavigationRegion getRegion(String file, int offset) {
+    FileState state = files.get(file);
+    if (state == null) {
+      return null;
+    }
+    for (NavigationRegion region : getRegions(state, offset, offset + 1).descendingMap().values()) {
+      if (region.containsInclusive(offset)) {
+        return region;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Forget the windows and the navigation regions of the given file, such as when it is closed.
+   */
+  public synchronized void removeFile(String file) {
+    files.remove(file);
+  }
+
+  /**
+   * Record that the lines from {@code firstLine} to {@code lastLine}, both inclusive and one-based,
+   * of the given version of the content of the given file are visible, the lines of the content
+   * being indexed by the given line index. The windows containing the lines, and the adjacent
+   * windows, which are neither loaded nor requested are requested.
+   */
+  public void setViewport(String file, long version, LineIndex lineIndex, int firstLine, int lastLine) {
+    List<Window> requests = new ArrayList<Window>();
+    FileState state;
+    synchronized (this) {
+      state = files.get(file);
+      if (state == null || state.version != version) {
+        state = new FileState(file, version);
+        files.put(file, state);
+      }
+      int lineCount = lineIndex.getLineCount();
+      int firstWindow = Math.max((firstLine - 1) / windowLines - 1, 0);
+      int lastWindow = Math.min((lastLine - 1) / windowLines + 1, (lineCount - 1) / windowLines);
+      for (int index = firstWindow; index <= lastWindow; index++) {
+        if (!state.windows.containsKey(index)) {
+          int startLine = index * windowLines + 1;
+          int endLine = startLine + windowLines;
+          int start = lineIndex.getLineStart(startLine);
+          int end = endLine <= lineCount ? lineIndex.getLineStart(endLine) : lineIndex.getLength();
+          Window window = new Window(index, start, end);
+          state.windows.put(index, window);
+          requests.add(window);
+        }
+      }
+      evict(state, firstWindow, lastWindow);
+    }
+    for (Window window : requests) {
+      server.analysis_getNavigation(
+          file,
+          window.start,
+          window.end - window.start,
+          ClientCallbacks.toConsumer(createCallback(state, window)));
+    }
+  }
+
+  /**
+   * Return the key of the navigation regions having the given offset and length.
+   */
+  private static long getKey(int offset, int length) {
+    return ((long) offset << 32) | (length & 0xFFFFFFFFL);
+  }
+
+  /**
+   * Return the navigation regions of the given file starting before {@code end} which are not too
+   * short to end at or after {@code start}, in the order of their offsets. Every region starting
+   * before {@code end} and ending at or after {@code start} is included.
+   */
+  private static NavigableMap<Long, NavigationRegion> getRegions(FileState state, int start,
+      int end) {
+    long from = getKey(start - state.maxRegionLength, 0);
+    return state.regions.subMap(from, true, getKey(end, 0), false);
+  }
+
+  /**
+   * Return a callback merging the navigation regions of the response to the request for the given
+   * window of the given file.
+   */
+  private GetNavigationCallback createCallback(final FileState state, final Window window) {
+    return new GetNavigationCallback() {
+      private boolean completed = false;
+
+      @Override
+      public void onError(RequestError requestError) {
+        synchronized (ViewportNavigationManager.this) {
+          if (start()) {
+            state.windows.remove(window.index);
+          }
+        }
+      }
+
+      @Override
+      public void onResponse(List<String> files, List<NavigationTarget> targets,
+          List<NavigationRegion> regions) {
+        synchronized (ViewportNavigationManager.this) {
+          if (!start()) {
+            return;
+          }
+          lookupTargets(files, targets, regions);
+          for (NavigationRegion region : regions) {
+            state.regions.put(getKey(region.getOffset(), region.getLength()), region);
+            state.maxRegionLength = Math.max(state.maxRegionLength, region.getLength());
+          }
+          window.loaded = true;
+          state.index = null;
+        }
+      }
+
+      /**
+       * Return {@code true} if this is the first response to the request, and the window is still
+       * kept for the version of the file it was requested for.
+       */
+      private boolean start() {
+        if (completed) {
+          return false;
+        }
+        completed = true;
+        return ViewportNavigationManager.this.files.get(state.file) == state
+            && state.windows.get(window.index) == window;
+      }
+    };
+  }
+
+  /**
+   * Evict the windows of the given file farthest from the windows from {@code firstWindow} to
+   * {@code lastWindow}, which are never evicted, until no more than the maximum number of windows are
+   * kept, together with the regions which intersect no remaining window.
+   */
+  private void evict(FileState state, int firstWindow, int lastWindow) {
+    while (state.windows.size() > maxWindows) {
+      Window first = state.windows.firstEntry().getValue();
+      Window last = state.windows.lastEntry().getValue();
+      Window window = firstWindow - first.index > last.index - lastWindow ? first : last;
+      if (window.index >= firstWindow && window.index <= lastWindow) {
+        return;
+      }
+      state.windows.remove(window.index);
+      if (!window.loaded) {
+        continue;
+      }
+      Iterator<NavigationRegion> iterator =
+          getRegions(state, window.start, window.end).values().iterator();
+      while (iterator.hasNext()) {
+        NavigationRegion region = iterator.next();
+        if (window.intersects(region) && !isKept(state, region)) {
+          iterator.remove();
+          state.index = null;
+        }
+      }
+    }
+  }
+
+  /**
+   * Return {@code true} if the given region intersects a loaded window of the given file.
+   */
+  private static boolean isKept(FileState state, NavigationRegion region) {
+    for (Window window : state.windows.values()) {
+      if (window.loaded && window.intersects(region)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Resolve the targets of the given regions, and the files of the given targets, against the
+   * given tables of the response reporting them. Regions whose targets have already been resolved,
+   * such as the regions of a response shared with another callback, are left unchanged.
+   */
+  private static void lookupTargets(List<String> files, List<NavigationTarget> targets,
+      List<NavigationRegion> regions) {
+    String[] targetFiles = files.toArray(new String[files.size()]);
+    for (NavigationTarget target : targets) {
+      target.lookupFile(targetFiles);
+    }
+    for (NavigationRegion region : regions) {
+      if (region.getTargetObjects().isEmpty()) {
+        region.lookupTargets(targets);
+      }
+    }
+  }
+
+}
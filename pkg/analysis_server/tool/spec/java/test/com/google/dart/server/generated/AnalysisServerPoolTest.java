@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.server.generated;
+
+import com.google.dart.server.AnalysisServerListener;
+import com.google.dart.server.CreateContextConsumer;
+import com.google.dart.server.FindElementReferencesConsumer;
+import com.google.dart.server.FindMemberReferencesConsumer;
+import com.google.dart.server.generated.callbacks.CreateContextCallback;
+import com.google.dart.server.generated.callbacks.FindElementReferencesCallback;
+import com.google.dart.server.generated.callbacks.FindMemberReferencesCallback;
+
+import junit.framework.TestCase;
+
+import org.dartlang.analysis.server.protocol.Element;
+import org.dartlang.analysis.server.protocol.RequestError;
+import org.dartlang.analysis.server.protocol.SearchResult;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class AnalysisServerPoolTest extends TestCase {
+
+  private final RecordingAnalysisServer first = new RecordingAnalysisServer();
+  private final RecordingAnalysisServer second = new RecordingAnalysisServer();
+  private final AnalysisServerPool pool = new AnalysisServerPool(Arrays.asList(
+      first.server,
+      second.server));
+  private final List<String> responses = new ArrayList<String>();
+  private final List<String> results = new ArrayList<String>();
+
+  public void test_createContext_sameShardIds() throws Exception {
+    pool.analysis_setAnalysisRoots(Arrays.asList("/a", "/b"), new ArrayList<String>(), null);
+    pool.execution_createContext("/a", context());
+    pool.execution_createContext("/b", context());
+    getContextCallback(first, 0).onResponse("1");
+    getContextCallback(second, 0).onResponse("1");
+    assertEquals(2, responses.size());
+    assertFalse(responses.get(0).equals(responses.get(1)));
+    // each pool id is routed to the shard which returned the context, with the id of that shard
+    pool.execution_mapUri(responses.get(1), "/b/c.dart", null, null);
+    pool.execution_deleteContext(responses.get(0));
+    assertEquals(
+        Arrays.<Object>asList("1", "/b/c.dart", null, null),
+        Arrays.asList(second.getRequests("execution_mapUri").get(0).arguments));
+    assertEquals("1", first.getRequests("execution_deleteContext").get(0).arguments[0]);
+    assertTrue(first.getRequests("execution_mapUri").isEmpty());
+    assertTrue(second.getRequests("execution_deleteContext").isEmpty());
+  }
+
+  public void test_findElementReferences() throws Exception {
+    pool.analysis_setAnalysisRoots(Arrays.asList("/a", "/b"), new ArrayList<String>(), null);
+    pool.search_findMemberReferences("m", memberReferences());
+    getSearchCallback(first, 0).onResponse("1");
+    getSearchCallback(second, 0).onResponse("1");
+    pool.search_findElementReferences("/b/c.dart", 3, false, elementReferences());
+    FindElementReferencesCallback callback = ClientCallbacks.toCallback(
+        second.getRequests("search_findElementReferences").get(0).getConsumer(
+            FindElementReferencesConsumer.class));
+    callback.onResponse("2", new Element("CLASS", "C", null, 0, null, null, null));
+    assertEquals(2, responses.size());
+    assertFalse(responses.get(0).equals(responses.get(1)));
+    // the results of each search are reported under the id assigned by the pool
+    notifyResults(second, "2", true);
+    notifyResults(second, "1", true);
+    assertEquals(
+        Arrays.asList(responses.get(1) + ":true", responses.get(0) + ":false"),
+        results);
+  }
+
+  public void test_findElementReferences_noElement() throws Exception {
+    pool.search_findElementReferences("/a.dart", 3, false, elementReferences());
+    RecordingAnalysisServer shard =
+        first.getRequests("search_findElementReferences").isEmpty() ? second : first;
+    ClientCallbacks.toCallback(
+        shard.getRequests("search_findElementReferences").get(0).getConsumer(
+            FindElementReferencesConsumer.class)).onResponse(null, null);
+    assertEquals(Arrays.asList((String) null), responses);
+  }
+
+  public void test_findMemberReferences_bufferedResults() throws Exception {
+    pool.search_findMemberReferences("m", memberReferences());
+    getSearchCallback(first, 0).onResponse("1");
+    notifyResults(first, "1", true);
+    assertTrue(results.isEmpty());
+    getSearchCallback(second, 0).onResponse("2");
+    notifyResults(second, "2", true);
+    String id = responses.get(0);
+    assertEquals(Arrays.asList(id + ":false", id + ":true"), results);
+  }
+
+  public void test_findMemberReferences_error() throws Exception {
+    pool.search_findMemberReferences("m", memberReferences());
+    getSearchCallback(first, 0).onResponse("1");
+    getSearchCallback(second, 0).onError(new RequestError("SERVER_ERROR", "message", null));
+    notifyResults(first, "1", true);
+    assertEquals(Arrays.asList("message"), responses);
+    assertTrue(results.isEmpty());
+  }
+
+  public void test_findMemberReferences_sameShardIds() throws Exception {
+    pool.search_findMemberReferences("m", memberReferences());
+    pool.search_findMemberReferences("n", memberReferences());
+    // the shards return the same ids for different searches
+    getSearchCallback(first, 0).onResponse("1");
+    getSearchCallback(second, 0).onResponse("2");
+    getSearchCallback(first, 1).onResponse("2");
+    getSearchCallback(second, 1).onResponse("1");
+    assertEquals(2, responses.size());
+    String m = responses.get(0);
+    String n = responses.get(1);
+    assertFalse(m.equals(n));
+    notifyResults(first, "2", false);
+    notifyResults(second, "2", true);
+    notifyResults(first, "1", true);
+    notifyResults(second, "1", true);
+    notifyResults(first, "2", true);
+    assertEquals(
+        Arrays.asList(n + ":false", m + ":false", m + ":true", n + ":false", n + ":true"),
+        results);
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    pool.addAnalysisServerListener(ClientCallbacks.newListener(new InvocationHandler() {
+      @Override
+      public Object invoke(Object proxy, Method method, Object[] arguments) {
+        if ("search.results".equals(ClientCallbacks.getEvent(method))) {
+          results.add(arguments[0] + ":" + arguments[2]);
+        }
+        return null;
+      }
+    }));
+  }
+
+  private CreateContextConsumer context() {
+    return ClientCallbacks.toConsumer(new CreateContextCallback() {
+      @Override
+      public void onError(RequestError requestError) {
+        responses.add(requestError.getMessage());
+      }
+
+      @Override
+      public void onResponse(String id) {
+        responses.add(id);
+      }
+    });
+  }
+
+  private FindElementReferencesConsumer elementReferences() {
+    return ClientCallbacks.toConsumer(new FindElementReferencesCallback() {
+      @Override
+      public void onError(RequestError requestError) {
+        responses.add(requestError.getMessage());
+      }
+
+      @Override
+      public void onResponse(String id, Element element) {
+        responses.add(id);
+      }
+    });
+  }
+
+  /**
+   * Return the callback of the request to create an execution context with the given index which
+   * has been sent to the given shard.
+   */
+  private static CreateContextCallback getContextCallback(RecordingAnalysisServer shard,
+      int index) {
+    RecordingAnalysisServer.Request request =
+        shard.getRequests("execution_createContext").get(index);
+    return ClientCallbacks.toCallback(request.getConsumer(CreateContextConsumer.class));
+  }
+
+  /**
+   * Return the callback of the search for member references with the given index which has been
+   * sent to the given shard.
+   */
+  private static FindMemberReferencesCallback getSearchCallback(RecordingAnalysisServer shard,
+      int index) {
+    RecordingAnalysisServer.Request request =
+        shard.getRequests("search_findMemberReferences").get(index);
+    return ClientCallbacks.toCallback(request.getConsumer(FindMemberReferencesConsumer.class));
+  }
+
+  private FindMemberReferencesConsumer memberReferences() {
+    return ClientCallbacks.toConsumer(new FindMemberReferencesCallback() {
+      @Override
+      public void onError(RequestError requestError) {
+        responses.add(requestError.getMessage());
+      }
+
+      @Override
+      public void onResponse(String id) {
+        responses.add(id);
+      }
+    });
+  }
+
+  /**
+   * Send a notification of search results with the given shard id from the given shard.
+   */
+  private static void notifyResults(RecordingAnalysisServer shard, String id, boolean isLast) {
+    AnalysisServerListener listener =
+        shard.getRequests("addAnalysisServerListener").get(0).getConsumer(
+            AnalysisServerListener.class);
+    listener.computedSearchResults(id, Collections.<SearchResult> emptyList(), isLast);
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.server.generated;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.Set;
+
+public class AnalysisSnapshotStoreTest extends TestCase {
+
+  private File file;
+
+  public void test_getFiles_copy() throws Exception {
+    AnalysisSnapshotStore store = AnalysisSnapshotStore.open(file);
+    store.put(errors("/a.dart", 1), 1);
+    Set<String> files = store.getFiles();
+    store.put(errors("/b.dart", 1), 1);
+    assertEquals(ImmutableSet.of("/a.dart"), files);
+    assertEquals(ImmutableSet.of("/a.dart", "/b.dart"), store.getFiles());
+    store.close();
+  }
+
+  public void test_open_corruptIndex() throws Exception {
+    assertTruncatedAt(12, 99);
+  }
+
+  public void test_open_corruptPathLength() throws Exception {
+    assertTruncatedAt(13, 0xFF);
+  }
+
+  public void test_open_reopen() throws Exception {
+    AnalysisSnapshotStore store = AnalysisSnapshotStore.open(file);
+    assertTrue(store.put(errors("/a.dart", 2), 1));
+    assertTrue(store.put(highlights("/a.dart", 3), 1));
+    assertTrue(store.put(errors("/b.dart", 1), 2));
+    assertFalse(store.put(parse("{'event':'server.connected','params':{}}"), 1));
+    store.remove("/b.dart");
+    store.close();
+    store = AnalysisSnapshotStore.open(file);
+    assertEquals(ImmutableSet.of("/a.dart"), store.getFiles());
+    assertEquals(errors("/a.dart", 2), store.getNotification("analysis.errors", "/a.dart", 1));
+    assertNull(store.getNotification("analysis.errors", "/a.dart", 2));
+    assertEquals(2, store.getNotifications("/a.dart", 1).size());
+    store.close();
+  }
+
+  public void test_put_compact() throws Exception {
+    AnalysisSnapshotStore store = AnalysisSnapshotStore.open(file);
+    for (int i = 0; i < 2000; i++) {
+      store.put(highlights("/a.dart", 200), i);
+      store.put(errors("/b.dart", i % 5), i);
+    }
+    // without compaction, the log would hold several megabytes
+    assertTrue(file.length() <= 2 << 20);
+    store.close();
+    store = AnalysisSnapshotStore.open(file);
+    assertEquals(highlights("/a.dart", 200), store.getNotification("analysis.highlights",
+        "/a.dart", 1999));
+    assertEquals(errors("/b.dart", 1999 % 5), store.getNotification("analysis.errors", "/b.dart",
+        1999));
+    store.close();
+  }
+
+  /**
+   * Write two records, overwrite the byte at the given offset in the header of the second one with
+   * the given value, and check that reopening the store keeps only the first one.
+   */
+  private void assertTruncatedAt(int headerOffset, int value) throws Exception {
+    AnalysisSnapshotStore store = AnalysisSnapshotStore.open(file);
+    store.put(errors("/a.dart", 1), 1);
+    store.put(errors("/b.dart", 1), 1);
+    store.close();
+    RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+    try {
+      randomAccessFile.seek(16);
+      int secondOffset = 16 + randomAccessFile.readInt() + 4;
+      randomAccessFile.seek(secondOffset + headerOffset);
+      randomAccessFile.write(value);
+    } finally {
+      randomAccessFile.close();
+    }
+    store = AnalysisSnapshotStore.open(file);
+    assertEquals(ImmutableSet.of("/a.dart"), store.getFiles());
+    // the log is truncated, and can still be appended to
+    store.put(errors("/c.dart", 1), 1);
+    store.close();
+    store = AnalysisSnapshotStore.open(file);
+    assertEquals(ImmutableSet.of("/a.dart", "/c.dart"), store.getFiles());
+    store.close();
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    file = File.createTempFile("snapshot", ".bin");
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    file.delete();
+    super.tearDown();
+  }
+
+  private static JsonObject errors(String file, int count) {
+    StringBuilder json = new StringBuilder();
+    json.append("{'event':'analysis.errors','params':{'file':'").append(file);
+    json.append("','errors':[");
+    for (int i = 0; i < count; i++) {
+      json.append(i == 0 ? "" : ",");
+      json.append("{'severity':'ERROR','type':'SYNTACTIC_ERROR','location':{'file':'");
+      json.append(file).append("','offset':").append(i).append(",'length':1");
+      json.append(",'startLine':1,'startColumn':").append(i + 1).append("}");
+      json.append(",'message':'error ").append(i).append("'}");
+    }
+    return parse(json.append("]}}").toString());
+  }
+
+  private static JsonObject highlights(String file, int count) {
+    StringBuilder json = new StringBuilder();
+    json.append("{'event':'analysis.highlights','params':{'file':'").append(file);
+    json.append("','regions':[");
+    for (int i = 0; i < count; i++) {
+      json.append(i == 0 ? "" : ",");
+      json.append("{'type':'IDENTIFIER_DEFAULT','offset':").append(i).append(",'length':1}");
+    }
+    return parse(json.append("]}}").toString());
+  }
+
+  private static JsonObject parse(String json) {
+    return new JsonParser().parse(json.replace('\'', '"')).getAsJsonObject();
+  }
+}
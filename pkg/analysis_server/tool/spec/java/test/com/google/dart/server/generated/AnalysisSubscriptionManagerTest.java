@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.server.generated;
+
+import junit.framework.TestCase;
+
+import org.dartlang.analysis.server.protocol.AnalysisService;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+public class AnalysisSubscriptionManagerTest extends TestCase {
+
+  private final RecordingAnalysisServer recorder = new RecordingAnalysisServer();
+  private final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1);
+  private final AnalysisSubscriptionManager manager = new AnalysisSubscriptionManager(
+      recorder.server,
+      Arrays.asList(AnalysisService.HIGHLIGHTS, AnalysisService.NAVIGATION),
+      executor,
+      1,
+      TimeUnit.HOURS);
+
+  public void test_flush() throws Exception {
+    manager.setVisibleFiles(Arrays.asList("/b.dart", "/a.dart"));
+    manager.setSubscribedFiles(AnalysisService.OUTLINE, Arrays.asList("/c.dart"));
+    manager.setSubscribedFiles(AnalysisService.NAVIGATION, Arrays.asList("/c.dart"));
+    manager.flush();
+    Map<String, List<String>> expected = new TreeMap<String, List<String>>();
+    expected.put(AnalysisService.HIGHLIGHTS, Arrays.asList("/a.dart", "/b.dart"));
+    expected.put(AnalysisService.NAVIGATION, Arrays.asList("/a.dart", "/b.dart", "/c.dart"));
+    expected.put(AnalysisService.OUTLINE, Arrays.asList("/c.dart"));
+    assertEquals(2, recorder.requests.size());
+    assertEquals(expected, getSubscriptions(0));
+    assertEquals(Arrays.asList("/a.dart", "/b.dart"), getPriorityFiles(0));
+    // the pending sending has been cancelled
+    assertEquals(0, executor.getQueue().size());
+  }
+
+  public void test_flush_unchanged() throws Exception {
+    manager.setVisibleFiles(Arrays.asList("/a.dart"));
+    manager.flush();
+    int count = recorder.requests.size();
+    // the same visible files and no subscribed file do not change the subscriptions
+    manager.setVisibleFiles(Arrays.asList("/a.dart"));
+    manager.setSubscribedFiles(AnalysisService.OUTLINE, Collections.<String>emptyList());
+    manager.flush();
+    assertEquals(count, recorder.requests.size());
+    // a subscribed file which is also visible does not change the subscriptions
+    manager.setSubscribedFiles(AnalysisService.HIGHLIGHTS, Arrays.asList("/a.dart"));
+    manager.flush();
+    assertEquals(count, recorder.requests.size());
+    // a file which is no longer visible changes the priority files only
+    manager.setSubscribedFiles(AnalysisService.NAVIGATION, Arrays.asList("/a.dart"));
+    manager.setVisibleFiles(Collections.<String>emptyList());
+    manager.flush();
+    assertEquals(count + 1, recorder.requests.size());
+    assertEquals(Collections.<String>emptyList(), getPriorityFiles(1));
+  }
+
+  public void test_new_invalidService() throws Exception {
+    try {
+      new AnalysisSubscriptionManager(
+          recorder.server,
+          Arrays.asList("UNKNOWN"),
+          executor,
+          1,
+          TimeUnit.HOURS);
+      fail();
+    } catch (IllegalArgumentException exception) {
+      // expected
+    }
+    try {
+      manager.setSubscribedFiles("UNKNOWN", Arrays.asList("/a.dart"));
+      fail();
+    } catch (IllegalArgumentException exception) {
+      // expected
+    }
+  }
+
+  public void test_schedule() throws Exception {
+    AnalysisSubscriptionManager manager = new AnalysisSubscriptionManager(
+        recorder.server,
+        Arrays.asList(AnalysisService.HIGHLIGHTS),
+        executor,
+        50,
+        TimeUnit.MILLISECONDS);
+    // a burst of changes is coalesced
+    manager.setVisibleFiles(Arrays.asList("/a.dart"));
+    manager.setVisibleFiles(Arrays.asList("/b.dart"));
+    manager.setVisibleFiles(Arrays.asList("/c.dart"));
+    assertEquals(1, executor.getQueue().size());
+    assertTrue(recorder.requests.isEmpty());
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    assertEquals(2, recorder.requests.size());
+    Map<String, List<String>> expected = new TreeMap<String, List<String>>();
+    expected.put(AnalysisService.HIGHLIGHTS, Arrays.asList("/c.dart"));
+    assertEquals(expected, getSubscriptions(0));
+    assertEquals(Arrays.asList("/c.dart"), getPriorityFiles(0));
+    assertEquals(1, manager.getSubscriptions().size());
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    executor.setRemoveOnCancelPolicy(true);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    executor.shutdownNow();
+    super.tearDown();
+  }
+
+  /**
+   * Return the priority files of the given {@code analysis.setPriorityFiles} request.
+   */
+  @SuppressWarnings("unchecked")
+  private List<String> getPriorityFiles(int index) {
+    return (List<String>) recorder.getRequests("analysis_setPriorityFiles").get(index).arguments[0];
+  }
+
+  /**
+   * Return the subscriptions of the given {@code analysis.setSubscriptions} request.
+   */
+  @SuppressWarnings("unchecked")
+  private Map<String, List<String>> getSubscriptions(int index) {
+    return (Map<String, List<String>>) recorder.getRequests("analysis_setSubscriptions").get(
+        index).arguments[0];
+  }
+}
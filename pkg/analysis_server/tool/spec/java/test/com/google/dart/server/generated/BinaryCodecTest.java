@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.server.generated;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.util.Arrays;
+
+public class BinaryCodecTest extends TestCase {
+
+  public void test_decode_invalid() throws Exception {
+    try {
+      BinaryCodec.decode(new byte[] {(byte) 0x7F});
+      fail();
+    } catch (IllegalArgumentException exception) {
+      // expected
+    }
+  }
+
+  public void test_encodeJson() throws Exception {
+    JsonObject message = parse("{'id':'1','result':{'a':[1,2.5,true,null,'x'],'b':{}}}");
+    assertEquals(message, BinaryCodec.decode(BinaryCodec.encodeJson(message)));
+  }
+
+  public void test_encodeNotification() throws Exception {
+    JsonObject notification = parse("{'event':'analysis.errors','params':{'file':'/a.dart',"
+        + "'errors':[{'severity':'ERROR','type':'SYNTACTIC_ERROR','location':{'file':'/a.dart',"
+        + "'offset':10,'length':3,'startLine':2,'startColumn':4},'message':'Expected ;'},"
+        + "{'severity':'INFO','type':'TODO','location':{'file':'/a.dart','offset':20,'length':4,"
+        + "'startLine':3,'startColumn':1},'message':'TODO','correction':'Do it'}]}}");
+    assertCompactRoundTrip(BinaryCodec.encodeNotification(notification), notification);
+  }
+
+  public void test_encodeNotification_unknown() throws Exception {
+    JsonObject notification = parse("{'event':'analysis.unknown','params':{'file':'/a.dart'}}");
+    byte[] bytes = BinaryCodec.encodeNotification(notification);
+    assertTrue(Arrays.equals(BinaryCodec.encodeJson(notification), bytes));
+    assertEquals(notification, BinaryCodec.decode(bytes));
+  }
+
+  public void test_encodeRequest() throws Exception {
+    JsonObject request = parse(
+        "{'id':'7','method':'analysis.getHover','params':{'file':'/a.dart','offset':42}}");
+    assertCompactRoundTrip(BinaryCodec.encodeRequest(request), request);
+  }
+
+  public void test_encodeResponse() throws Exception {
+    JsonObject response = parse("{'id':'7','result':{'hovers':[{'offset':40,'length':5,"
+        + "'elementKind':'method','dartdoc':'Doc.'}]}}");
+    assertCompactRoundTrip(BinaryCodec.encodeResponse(response, "analysis.getHover"), response);
+  }
+
+  public void test_encodeResponse_error() throws Exception {
+    JsonObject response = parse(
+        "{'id':'7','error':{'code':'INVALID_PARAMETER','message':'Bad offset'}}");
+    assertCompactRoundTrip(BinaryCodec.encodeResponse(response, "analysis.getHover"), response);
+  }
+
+  public void test_writeFrame_readFrame() throws Exception {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    byte[] first = new byte[300];
+    Arrays.fill(first, (byte) 1);
+    BinaryCodec.writeFrame(output, first);
+    BinaryCodec.writeFrame(output, new byte[0]);
+    byte[] frames = output.toByteArray();
+    ByteArrayInputStream input = new ByteArrayInputStream(frames);
+    assertTrue(Arrays.equals(first, BinaryCodec.readFrame(input)));
+    assertEquals(0, BinaryCodec.readFrame(input).length);
+    assertNull(BinaryCodec.readFrame(input));
+    try {
+      BinaryCodec.readFrame(new ByteArrayInputStream(Arrays.copyOf(frames, 100)));
+      fail();
+    } catch (EOFException exception) {
+      // expected
+    }
+  }
+
+  private static void assertCompactRoundTrip(byte[] bytes, JsonObject message) {
+    assertTrue(bytes.length < BinaryCodec.encodeJson(message).length);
+    assertEquals(message, BinaryCodec.decode(bytes));
+  }
+
+  private static JsonObject parse(String json) {
+    return new JsonParser().parse(json.replace('\'', '"')).getAsJsonObject();
+  }
+}
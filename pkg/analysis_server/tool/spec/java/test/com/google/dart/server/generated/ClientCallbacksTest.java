@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.server.generated;
+
+import com.google.dart.server.AnalysisServerListener;
+import com.google.dart.server.GetHoverConsumer;
+import com.google.dart.server.generated.callbacks.GetHoverCallback;
+
+import junit.framework.TestCase;
+
+import org.dartlang.analysis.server.protocol.HoverInformation;
+import org.dartlang.analysis.server.protocol.RequestError;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ClientCallbacksTest extends TestCase {
+
+  private final List<Object> responses = new ArrayList<Object>();
+
+  public void test_getEvent() throws Exception {
+    List<String> events = new ArrayList<String>();
+    for (Method method : AnalysisServerListener.class.getMethods()) {
+      String event = ClientCallbacks.getEvent(method);
+      assertNotNull(event);
+      assertFalse(events.contains(event));
+      events.add(event);
+    }
+    assertTrue(events.contains("search.results"));
+    assertTrue(events.contains("analysis.navigation"));
+  }
+
+  public void test_newListener() throws Exception {
+    AnalysisServerListener listener = ClientCallbacks.newListener(new InvocationHandler() {
+      @Override
+      public Object invoke(Object proxy, Method method, Object[] arguments) {
+        responses.add(ClientCallbacks.getEvent(method));
+        responses.add(arguments[0]);
+        return null;
+      }
+    });
+    for (Method method : AnalysisServerListener.class.getMethods()) {
+      if ("server.connected".equals(ClientCallbacks.getEvent(method))) {
+        method.invoke(listener, "1.0.0");
+      }
+    }
+    assertEquals(Arrays.<Object>asList("server.connected", "1.0.0"), responses);
+    assertEquals(listener, listener);
+    assertFalse(listener.equals(ClientCallbacks.newListener(null)));
+  }
+
+  public void test_toCallback() throws Exception {
+    GetHoverConsumer consumer = ClientCallbacks.toConsumer(new HoverRecorder());
+    GetHoverCallback callback = ClientCallbacks.toCallback(consumer);
+    List<HoverInformation> hovers = new ArrayList<HoverInformation>();
+    callback.onResponse(hovers);
+    // the callback the consumer was created for is used, so the list is passed unchanged
+    assertEquals(1, responses.size());
+    assertSame(hovers, responses.get(0));
+  }
+
+  public void test_toCallback_null() throws Exception {
+    GetHoverCallback callback = ClientCallbacks.toCallback((GetHoverConsumer) null);
+    callback.onResponse(new ArrayList<HoverInformation>());
+    callback.onError(new RequestError("SERVER_ERROR", "message", null));
+  }
+
+  public void test_toCallback_toConsumer() throws Exception {
+    HoverRecorder recorder = new HoverRecorder();
+    assertSame(recorder, ClientCallbacks.toCallback(ClientCallbacks.toConsumer(recorder)));
+  }
+
+  public void test_toConsumer_onError() throws Exception {
+    GetHoverConsumer consumer = ClientCallbacks.toConsumer(new HoverRecorder());
+    RequestError error = new RequestError("SERVER_ERROR", "message", null);
+    for (Method method : GetHoverConsumer.class.getMethods()) {
+      Class<?>[] types = method.getParameterTypes();
+      if (types.length == 1 && types[0] == RequestError.class) {
+        method.invoke(consumer, error);
+      }
+    }
+    assertEquals(1, responses.size());
+    assertSame(error, responses.get(0));
+  }
+
+  private class HoverRecorder implements GetHoverCallback {
+    @Override
+    public void onError(RequestError requestError) {
+      responses.add(requestError);
+    }
+
+    @Override
+    public void onResponse(List<HoverInformation> hovers) {
+      responses.add(hovers);
+    }
+  }
+}
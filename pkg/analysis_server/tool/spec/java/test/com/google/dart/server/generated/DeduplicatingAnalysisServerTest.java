@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.server.generated;
+
+import com.google.dart.server.GetErrorsConsumer;
+import com.google.dart.server.GetHoverConsumer;
+import com.google.dart.server.generated.callbacks.GetErrorsCallback;
+import com.google.dart.server.generated.callbacks.GetHoverCallback;
+
+import junit.framework.TestCase;
+
+import org.dartlang.analysis.server.protocol.AnalysisError;
+import org.dartlang.analysis.server.protocol.HoverInformation;
+import org.dartlang.analysis.server.protocol.RequestError;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class DeduplicatingAnalysisServerTest extends TestCase {
+
+  private final RecordingAnalysisServer recorder = new RecordingAnalysisServer();
+  private final DeduplicatingAnalysisServer server =
+      new DeduplicatingAnalysisServer(recorder.server);
+  private final List<Object> responses = new ArrayList<Object>();
+
+  public void test_getHover_afterResponse() throws Exception {
+    server.analysis_getHover("/a.dart", 3, hover());
+    getCallback(recorder.requests.get(0)).onResponse(
+        new ArrayList<HoverInformation>());
+    server.analysis_getHover("/a.dart", 3, hover());
+    assertEquals(2, recorder.requests.size());
+    assertEquals(0, server.getDeduplicatedRequestCount());
+  }
+
+  public void test_getHover_differentParameters() throws Exception {
+    server.analysis_getHover("/a.dart", 3, hover());
+    server.analysis_getHover("/a.dart", 4, hover());
+    server.analysis_getHover("/b.dart", 3, hover());
+    assertEquals(3, recorder.requests.size());
+  }
+
+  public void test_getHover_error() throws Exception {
+    server.analysis_getHover("/a.dart", 3, hover());
+    server.analysis_getHover("/a.dart", 3, hover());
+    RequestError error = new RequestError("SERVER_ERROR", "message", null);
+    getCallback(recorder.requests.get(0)).onError(error);
+    assertEquals(2, responses.size());
+    assertSame(error, responses.get(0));
+    assertSame(error, responses.get(1));
+  }
+
+  public void test_getHover_identical() throws Exception {
+    server.analysis_getHover("/a/b.dart", 3, hover());
+    server.analysis_getHover("/a/./b.dart", 3, hover());
+    assertEquals(1, recorder.requests.size());
+    assertEquals(1, server.getDeduplicatedRequestCount());
+    List<HoverInformation> hovers = new ArrayList<HoverInformation>();
+    GetHoverCallback callback = getCallback(recorder.requests.get(0));
+    callback.onResponse(hovers);
+    assertEquals(2, responses.size());
+    assertSame(responses.get(0), responses.get(1));
+    assertNotSame(hovers, responses.get(0));
+    try {
+      ((List<?>) responses.get(0)).clear();
+      fail();
+    } catch (UnsupportedOperationException exception) {
+      // expected
+    }
+    // a second response is ignored
+    callback.onResponse(hovers);
+    assertEquals(2, responses.size());
+  }
+
+  public void test_getHover_single() throws Exception {
+    server.analysis_getHover("/a.dart", 3, hover());
+    List<HoverInformation> hovers = new ArrayList<HoverInformation>();
+    getCallback(recorder.requests.get(0)).onResponse(hovers);
+    assertEquals(1, responses.size());
+    assertSame(hovers, responses.get(0));
+  }
+
+  public void test_updateContent() throws Exception {
+    server.analysis_getHover("/a.dart", 3, hover());
+    server.analysis_getErrors("/b.dart", errors());
+    Map<String, Object> files = new HashMap<String, Object>();
+    files.put("/a.dart", "content");
+    server.analysis_updateContent(files, null);
+    server.analysis_getHover("/a.dart", 3, hover());
+    server.analysis_getErrors("/b.dart", errors());
+    assertEquals(2, recorder.getRequests("analysis_getHover").size());
+    assertEquals(1, recorder.getRequests("analysis_getErrors").size());
+    // the callbacks of the request sent before the change still get its response
+    getCallback(recorder.getRequests("analysis_getHover").get(0)).onResponse(
+        new ArrayList<HoverInformation>());
+    assertEquals(1, responses.size());
+    server.analysis_getHover("/a.dart", 3, hover());
+    assertEquals(2, recorder.getRequests("analysis_getHover").size());
+  }
+
+  public void test_updateOptions() throws Exception {
+    server.analysis_getErrors("/b.dart", errors());
+    server.analysis_updateOptions(null);
+    server.analysis_getErrors("/b.dart", errors());
+    assertEquals(2, recorder.getRequests("analysis_getErrors").size());
+    assertEquals(Collections.emptyList(), responses);
+  }
+
+  private GetErrorsConsumer errors() {
+    return ClientCallbacks.toConsumer(new ErrorsRecorder());
+  }
+
+  private GetHoverCallback getCallback(RecordingAnalysisServer.Request request) {
+    return ClientCallbacks.toCallback(request.getConsumer(GetHoverConsumer.class));
+  }
+
+  private GetHoverConsumer hover() {
+    return ClientCallbacks.toConsumer(new HoverRecorder());
+  }
+
+  private class ErrorsRecorder implements GetErrorsCallback {
+    @Override
+    public void onError(RequestError requestError) {
+      responses.add(requestError);
+    }
+
+    @Override
+    public void onResponse(List<AnalysisError> errors) {
+      responses.add(errors);
+    }
+  }
+
+  private class HoverRecorder implements GetHoverCallback {
+    @Override
+    public void onError(RequestError requestError) {
+      responses.add(requestError);
+    }
+
+    @Override
+    public void onResponse(List<HoverInformation> hovers) {
+      responses.add(hovers);
+    }
+  }
+}
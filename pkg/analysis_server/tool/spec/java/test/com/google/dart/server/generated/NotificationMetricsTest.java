@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.server.generated;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import junit.framework.TestCase;
+
+public class NotificationMetricsTest extends TestCase {
+
+  public void test_countObjects() throws Exception {
+    // 1 outline, 1 element and 1 location, with 2 children of 2 objects each
+    JsonObject outline = parse("{'file':'/a.dart','outline':{'element':{'kind':'LIBRARY',"
+        + "'name':'a','flags':0,'location':{'file':'/a.dart','offset':0,'length':1}},"
+        + "'offset':0,'length':10,'children':[{'element':{'kind':'CLASS','name':'A','flags':0},"
+        + "'offset':0,'length':5},{'element':{'kind':'CLASS','name':'B','flags':0},"
+        + "'offset':5,'length':5}]}}");
+    assertEquals(7, NotificationMetrics.countObjects("analysis.outline", outline));
+    // regions and targets are counted, but not the list of files
+    JsonObject navigation = parse("{'file':'/a.dart','files':['/b.dart'],"
+        + "'regions':[{'offset':0,'length':1,'targets':[0]}],"
+        + "'targets':[{'kind':'CLASS','fileIndex':0,'offset':0,'length':1,'startLine':1,"
+        + "'startColumn':1},{'kind':'CLASS','fileIndex':0,'offset':2,'length':1,'startLine':1,"
+        + "'startColumn':3}]}");
+    assertEquals(3, NotificationMetrics.countObjects("analysis.navigation", navigation));
+    assertEquals(0, NotificationMetrics.countObjects("server.connected", parse("{}")));
+    assertEquals(0, NotificationMetrics.countObjects("analysis.outline", null));
+  }
+
+  public void test_fileSizeBucket() throws Exception {
+    assertEquals(0, NotificationMetrics.fileSizeBucket(0));
+    assertEquals(0, NotificationMetrics.fileSizeBucket(16 * 1024 - 1));
+    assertEquals(1, NotificationMetrics.fileSizeBucket(16 * 1024));
+    assertEquals(4, NotificationMetrics.fileSizeBucket(Long.MAX_VALUE));
+    assertEquals(NotificationMetrics.NO_FILE_BUCKET, NotificationMetrics.fileSizeBucket(-1));
+    assertEquals(
+        NotificationMetrics.FILE_SIZE_BUCKET_COUNT - 1,
+        NotificationMetrics.NO_FILE_BUCKET);
+  }
+
+  public void test_recordDecode() throws Exception {
+    NotificationMetrics metrics = new NotificationMetrics();
+    metrics.recordDecode("analysis.highlights", 100, 200, 1000, 5);
+    metrics.recordDecode("analysis.highlights", 200, 300, 3000, 7);
+    metrics.recordDecode("analysis.highlights", 100000, 50, 10, 1);
+    assertEquals(2, metrics.getCount("analysis.highlights", 0));
+    assertEquals(500, metrics.getBytes("analysis.highlights", 0));
+    assertEquals(4000, metrics.getDecodeNanos("analysis.highlights", 0));
+    assertEquals(12, metrics.getObjects("analysis.highlights", 0));
+    assertEquals(1, metrics.getCount("analysis.highlights", 2));
+    assertEquals(0, metrics.getCount("analysis.errors", 0));
+    // the highest set bits of 200 and 300 are 2^7 and 2^8
+    long[] histogram = metrics.getBytesHistogram("analysis.highlights", 0);
+    assertEquals(1, histogram[8]);
+    assertEquals(1, histogram[9]);
+  }
+
+  public void test_recordDecode_noFile() throws Exception {
+    NotificationMetrics metrics = new NotificationMetrics();
+    metrics.recordDecode("search.results", -1, 100, 10, 2);
+    assertEquals(0, metrics.getCount("search.results", 0));
+    assertEquals(1, metrics.getCount("search.results", NotificationMetrics.NO_FILE_BUCKET));
+    assertEquals(2, metrics.getObjects("search.results", NotificationMetrics.NO_FILE_BUCKET));
+  }
+
+  public void test_recordDecode_unknownEvent() throws Exception {
+    NotificationMetrics metrics = new NotificationMetrics();
+    metrics.recordDecode("unknown.event", 0, 100, 10, 2);
+    assertEquals(0, metrics.getCount("unknown.event", 0));
+    assertEquals("", metrics.toString());
+  }
+
+  public void test_recordListener() throws Exception {
+    NotificationMetrics metrics = new NotificationMetrics();
+    Object listener = new Object();
+    metrics.recordListener("analysis.errors", listener, 10);
+    metrics.recordListener("analysis.errors", listener, 30);
+    assertEquals(2, metrics.getListenerCount("analysis.errors", "java.lang.Object"));
+    assertEquals(40, metrics.getListenerNanos("analysis.errors", "java.lang.Object"));
+    assertEquals(0, metrics.getListenerCount("analysis.outline", "java.lang.Object"));
+  }
+
+  private static JsonObject parse(String json) {
+    return new JsonParser().parse(json.replace('\'', '"')).getAsJsonObject();
+  }
+}
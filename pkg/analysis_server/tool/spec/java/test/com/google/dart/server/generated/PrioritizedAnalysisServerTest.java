@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.server.generated;
+
+import com.google.dart.server.GetErrorsConsumer;
+import com.google.dart.server.GetHoverConsumer;
+import com.google.dart.server.generated.callbacks.GetErrorsCallback;
+import com.google.dart.server.generated.callbacks.GetHoverCallback;
+
+import junit.framework.TestCase;
+
+import org.dartlang.analysis.server.protocol.AnalysisError;
+import org.dartlang.analysis.server.protocol.HoverInformation;
+import org.dartlang.analysis.server.protocol.RequestError;
+import org.dartlang.analysis.server.protocol.RequestErrorCode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class PrioritizedAnalysisServerTest extends TestCase {
+
+  private final RecordingAnalysisServer recorder = new RecordingAnalysisServer();
+  private final PrioritizedAnalysisServer server = new PrioritizedAnalysisServer(
+      recorder.server,
+      1,
+      10,
+      TimeUnit.SECONDS);
+  private final List<String> responses = new ArrayList<String>();
+
+  public void test_background_limit() throws Exception {
+    server.analysis_getErrors("/a.dart", errors("a"));
+    server.analysis_getErrors("/b.dart", errors("b"));
+    server.analysis_getErrors("/c.dart", errors("c"));
+    assertEquals(1, recorder.requests.size());
+    assertEquals(1, server.getBackgroundRequestCount());
+    assertEquals(2, server.getQueuedRequestCount());
+    respond(0);
+    assertEquals(2, recorder.requests.size());
+    assertEquals("/b.dart", recorder.requests.get(1).arguments[0]);
+    respond(1);
+    respond(2);
+    assertEquals(Arrays.asList("a", "b", "c"), responses);
+    assertEquals(0, server.getBackgroundRequestCount());
+  }
+
+  public void test_background_timeout() throws Exception {
+    PrioritizedAnalysisServer server = new PrioritizedAnalysisServer(
+        recorder.server,
+        1,
+        10,
+        TimeUnit.MILLISECONDS);
+    server.analysis_getErrors("/a.dart", errors("a"));
+    server.analysis_getErrors("/b.dart", errors("b"));
+    assertEquals(1, recorder.requests.size());
+    Thread.sleep(50);
+    server.analysis_getErrors("/c.dart", errors("c"));
+    assertEquals(2, recorder.requests.size());
+    assertEquals("/b.dart", recorder.requests.get(1).arguments[0]);
+  }
+
+  public void test_lowPriority() throws Exception {
+    AnalysisServer lowPriorityServer = server.getLowPriorityServer();
+    server.analysis_setPriorityFiles(Arrays.asList("/a.dart"));
+    server.analysis_getErrors("/b.dart", errors("b"));
+    lowPriorityServer.analysis_getHover("/a.dart", 1, hover("hover"));
+    server.analysis_getErrors("/c.dart", errors("c"));
+    // the low priority request about a priority file is held back, after the background requests
+    assertEquals(1, recorder.getRequests("analysis_getErrors").size());
+    assertEquals(0, recorder.getRequests("analysis_getHover").size());
+    server.analysis_setPriorityFiles(Arrays.asList("/a.dart"));
+    assertEquals(0, recorder.getRequests("analysis_getHover").size());
+    respond(recorder.getRequests("analysis_getErrors").get(0));
+    assertEquals(2, recorder.getRequests("analysis_getErrors").size());
+    respond(recorder.getRequests("analysis_getErrors").get(1));
+    assertEquals(1, recorder.getRequests("analysis_getHover").size());
+  }
+
+  public void test_priorityFile() throws Exception {
+    server.analysis_getErrors("/a.dart", errors("a"));
+    server.analysis_getErrors("/b.dart", errors("b"));
+    server.analysis_getErrors("/c.dart", errors("c"));
+    server.analysis_setPriorityFiles(Arrays.asList("/c.dart"));
+    respond(recorder.getRequests("analysis_getErrors").get(0));
+    assertEquals("/c.dart", recorder.getRequests("analysis_getErrors").get(1).arguments[0]);
+    // an interactive request is sent immediately
+    server.analysis_getHover("/c.dart", 1, hover("hover"));
+    assertEquals(1, recorder.getRequests("analysis_getHover").size());
+  }
+
+  public void test_updateContent() throws Exception {
+    server.analysis_getErrors("/a.dart", errors("a"));
+    server.analysis_getErrors("/b.dart", errors("b"));
+    Map<String, Object> files = new HashMap<String, Object>();
+    files.put("/b.dart", "content");
+    server.analysis_updateContent(files, null);
+    assertEquals(Arrays.asList("b: " + RequestErrorCode.CONTENT_MODIFIED), responses);
+    assertEquals(0, server.getQueuedRequestCount());
+  }
+
+  private void respond(int index) {
+    respond(recorder.requests.get(index));
+  }
+
+  private void respond(RecordingAnalysisServer.Request request) {
+    GetErrorsConsumer consumer = request.getConsumer(GetErrorsConsumer.class);
+    ClientCallbacks.toCallback(consumer).onResponse(new ArrayList<AnalysisError>());
+  }
+
+  private GetErrorsConsumer errors(String name) {
+    return ClientCallbacks.toConsumer(new ErrorsRecorder(name));
+  }
+
+  private GetHoverConsumer hover(String name) {
+    return ClientCallbacks.toConsumer(new HoverRecorder(name));
+  }
+
+  private class ErrorsRecorder implements GetErrorsCallback {
+    private final String name;
+
+    ErrorsRecorder(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public void onError(RequestError requestError) {
+      responses.add(name + ": " + requestError.getCode());
+    }
+
+    @Override
+    public void onResponse(List<AnalysisError> errors) {
+      responses.add(name);
+    }
+  }
+
+  private class HoverRecorder implements GetHoverCallback {
+    private final String name;
+
+    HoverRecorder(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public void onError(RequestError requestError) {
+      responses.add(name + ": " + requestError.getCode());
+    }
+
+    @Override
+    public void onResponse(List<HoverInformation> hovers) {
+      responses.add(name);
+    }
+  }
+}
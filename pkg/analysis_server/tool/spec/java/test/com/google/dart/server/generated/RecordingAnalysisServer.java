@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.server.generated;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An {@link AnalysisServer} recording the requests sent to it, whose consumers are invoked by the
+ * tests.
+ */
+public class RecordingAnalysisServer implements InvocationHandler {
+  /**
+   * A request sent to the server.
+   */
+  public static class Request {
+    public final String method;
+    public final Object[] arguments;
+
+    Request(String method, Object[] arguments) {
+      this.method = method;
+      this.arguments = arguments != null ? arguments : new Object[0];
+    }
+
+    /**
+     * Return the consumer of the request, which is its last argument.
+     */
+    public <T> T getConsumer(Class<T> type) {
+      return type.cast(arguments[arguments.length - 1]);
+    }
+  }
+
+  public final List<Request> requests = new ArrayList<Request>();
+
+  public final AnalysisServer server = (AnalysisServer) Proxy.newProxyInstance(
+      AnalysisServer.class.getClassLoader(),
+      new Class<?>[] {AnalysisServer.class},
+      this);
+
+  /**
+   * Return the requests with the given method which have been sent.
+   */
+  public List<Request> getRequests(String method) {
+    List<Request> result = new ArrayList<Request>();
+    for (Request request : requests) {
+      if (request.method.equals(method)) {
+        result.add(request);
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+    if (method.getDeclaringClass() == Object.class) {
+      return method.invoke(this, args);
+    }
+    requests.add(new Request(method.getName(), args));
+    return method.getReturnType() == boolean.class ? Boolean.FALSE : null;
+  }
+}
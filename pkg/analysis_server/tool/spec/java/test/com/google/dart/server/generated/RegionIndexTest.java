@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.server.generated;
+
+import com.google.dart.server.utilities.source.LineIndex;
+
+import junit.framework.TestCase;
+
+import org.dartlang.analysis.server.protocol.HighlightRegion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class RegionIndexTest extends TestCase {
+
+  public void test_getDepth() throws Exception {
+    RegionIndex<HighlightRegion> index = RegionIndex.forHighlightRegions(Arrays.asList(
+        region(0, 100),
+        region(10, 20),
+        region(15, 5)));
+    assertEquals(1, index.getDepth(5));
+    assertEquals(3, index.getDepth(15));
+    assertEquals(2, index.getDepth(20));
+    assertEquals(0, index.getDepth(100));
+  }
+
+  public void test_getRegions() throws Exception {
+    HighlightRegion first = region(0, 5);
+    HighlightRegion second = region(5, 5);
+    HighlightRegion empty = region(12, 0);
+    RegionIndex<HighlightRegion> index = RegionIndex.forHighlightRegions(
+        Arrays.asList(empty, second, first));
+    assertEquals(3, index.size());
+    assertEquals(Arrays.asList(empty, second, first), index.getRegions());
+    assertEquals(Arrays.asList(first), index.getRegions(4, 5));
+    assertEquals(Arrays.asList(first, second), index.getRegions(4, 6));
+    assertEquals(Arrays.asList(empty), index.getRegions(12, 13));
+    assertEquals(0, index.getRegions(10, 12).size());
+  }
+
+  public void test_getRegions_random() throws Exception {
+    Random random = new Random(0);
+    List<HighlightRegion> regions = new ArrayList<HighlightRegion>();
+    for (int i = 0; i < 300; i++) {
+      regions.add(region(random.nextInt(1000), random.nextInt(50)));
+    }
+    RegionIndex<HighlightRegion> index = RegionIndex.forHighlightRegions(regions);
+    for (int i = 0; i < 300; i++) {
+      int start = random.nextInt(1100);
+      int end = start + random.nextInt(100);
+      List<HighlightRegion> expected = new ArrayList<HighlightRegion>();
+      for (HighlightRegion region : regions) {
+        int regionEnd = region.getOffset() + Math.max(region.getLength(), 1);
+        if (region.getOffset() < end && regionEnd > start) {
+          expected.add(region);
+        }
+      }
+      List<HighlightRegion> actual = index.getRegions(start, end);
+      assertEquals(expected.size(), actual.size());
+      for (int j = 1; j < actual.size(); j++) {
+        assertTrue(actual.get(j - 1).getOffset() <= actual.get(j).getOffset());
+      }
+      assertTrue(actual.containsAll(expected));
+    }
+  }
+
+  public void test_getRegionsOnLines() throws Exception {
+    LineIndex lineIndex = LineIndex.create("ab\ncd\nef");
+    HighlightRegion first = region(0, 2);
+    HighlightRegion second = region(4, 3);
+    HighlightRegion last = region(8, 0);
+    RegionIndex<HighlightRegion> index = RegionIndex.forHighlightRegions(
+        Arrays.asList(first, second, last));
+    assertEquals(Arrays.asList(first), index.getRegionsOnLines(lineIndex, 1, 1));
+    assertEquals(Arrays.asList(second), index.getRegionsOnLines(lineIndex, 2, 2));
+    assertEquals(Arrays.asList(second, last), index.getRegionsOnLines(lineIndex, 3, 3));
+  }
+
+  private static HighlightRegion region(int offset, int length) {
+    return new HighlightRegion("IDENTIFIER_DEFAULT", offset, length);
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.server.generated;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SyntheticAnalysisServerTest extends TestCase {
+
+  private ByteArrayOutputStream output;
+
+  private SyntheticAnalysisServer server;
+
+  public void test_configure_invalid() throws Exception {
+    try {
+      server.configure(new String[] {"--unknown=1"});
+      fail();
+    } catch (IllegalArgumentException exception) {
+      // expected
+    }
+    try {
+      server.configure(new String[] {"results=1"});
+      fail();
+    } catch (IllegalArgumentException exception) {
+      // expected
+    }
+  }
+
+  public void test_run_descendingEdits() throws Exception {
+    server.configure(new String[] {"--results=5", "--nested=4"});
+    List<JsonObject> messages = run(
+        3,
+        "{'id':'0','method':'edit.format','params':{'file':'/a.dart'}}",
+        "{'id':'1','method':'edit.getFixes','params':{'file':'/a.dart'}}");
+    JsonObject format = messages.get(1).getAsJsonObject("result");
+    assertDescending(format.getAsJsonArray("edits"), 5);
+    JsonObject fixes = messages.get(2).getAsJsonObject("result");
+    JsonObject fix = fixes.getAsJsonArray("fixes").get(0).getAsJsonObject();
+    JsonObject change = fix.getAsJsonArray("fixes").get(0).getAsJsonObject();
+    JsonObject fileEdit = change.getAsJsonArray("edits").get(0).getAsJsonObject();
+    assertDescending(fileEdit.getAsJsonArray("edits"), 4);
+  }
+
+  public void test_run_resultNotification() throws Exception {
+    server.configure(new String[] {"--results=3"});
+    List<JsonObject> messages = run(
+        3,
+        "{'id':'7','method':'search.findTopLevelDeclarations','params':{'pattern':'A'}}");
+    assertEquals("7", messages.get(1).get("id").getAsString());
+    String searchId = messages.get(1).getAsJsonObject("result").get("id").getAsString();
+    JsonObject notification = messages.get(2);
+    assertEquals("search.results", notification.get("event").getAsString());
+    JsonObject params = notification.getAsJsonObject("params");
+    assertEquals(searchId, params.get("id").getAsString());
+    assertEquals(3, params.getAsJsonArray("results").size());
+  }
+
+  public void test_run_unknown() throws Exception {
+    JsonObject response = run(2, "{'id':'3','method':'server.unknown'}").get(1);
+    assertEquals("3", response.get("id").getAsString());
+    assertFalse(response.has("result"));
+    assertEquals("UNKNOWN_REQUEST", response.getAsJsonObject("error").get("code").getAsString());
+  }
+
+  public void test_run_version() throws Exception {
+    List<JsonObject> messages = run(2, "{'id':'0','method':'server.getVersion'}", "");
+    assertEquals("server.connected", messages.get(0).get("event").getAsString());
+    JsonObject result = messages.get(1).getAsJsonObject("result");
+    assertEquals(SyntheticAnalysisServer.VERSION, result.get("version").getAsString());
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    output = new ByteArrayOutputStream();
+    server = new SyntheticAnalysisServer(new PrintStream(output, true, "UTF-8"));
+  }
+
+  /**
+   * Assert that the given edits are in descending order of offset, as a server sends them.
+   */
+  private static void assertDescending(JsonArray edits, int count) {
+    assertEquals(count, edits.size());
+    int previous = Integer.MAX_VALUE;
+    for (JsonElement edit : edits) {
+      int offset = edit.getAsJsonObject().get("offset").getAsInt();
+      assertTrue(offset < previous);
+      previous = offset;
+    }
+  }
+
+  /**
+   * Run the server on the given requests, wait for it to write the given number of messages,
+   * including the {@code server.connected} notification, and return them.
+   */
+  private List<JsonObject> run(int count, String... requests) throws Exception {
+    StringBuilder input = new StringBuilder();
+    for (String request : requests) {
+      input.append(request.replace('\'', '"')).append('\n');
+    }
+    server.run(new ByteArrayInputStream(input.toString().getBytes("UTF-8")));
+    long deadline = System.currentTimeMillis() + 5000;
+    while (true) {
+      String text = output.toString("UTF-8");
+      String[] lines = text.split("\n");
+      if (text.endsWith("\n") && lines.length >= count
+          || System.currentTimeMillis() > deadline) {
+        List<JsonObject> messages = new ArrayList<JsonObject>();
+        for (String line : lines) {
+          if (line.trim().length() != 0) {
+            messages.add(new JsonParser().parse(line).getAsJsonObject());
+          }
+        }
+        assertEquals(count, messages.size());
+        return messages;
+      }
+      Thread.sleep(10);
+    }
+  }
+}
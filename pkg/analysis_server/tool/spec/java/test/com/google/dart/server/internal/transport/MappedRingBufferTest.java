@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.server.internal.transport;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+public class MappedRingBufferTest extends TestCase {
+
+  private File file;
+
+  public void test_read_timeout() throws Exception {
+    MappedRingBuffer.create(file, 64);
+    MappedRingBuffer reader = MappedRingBuffer.open(file);
+    assertNull(reader.read(10, TimeUnit.MILLISECONDS));
+    assertFalse(reader.isFinished());
+  }
+
+  public void test_write_detached() throws Exception {
+    MappedRingBuffer writer = MappedRingBuffer.create(file, 16);
+    MappedRingBuffer reader = MappedRingBuffer.open(file);
+    assertTrue(writer.write(new byte[8], 1, TimeUnit.SECONDS));
+    reader.detach();
+    long start = System.nanoTime();
+    assertFalse(writer.write(new byte[8], 10, TimeUnit.SECONDS));
+    assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+  }
+
+  public void test_write_full() throws Exception {
+    MappedRingBuffer writer = MappedRingBuffer.create(file, 16);
+    MappedRingBuffer reader = MappedRingBuffer.open(file);
+    assertEquals(12, writer.getMaxMessageLength());
+    assertTrue(writer.write(new byte[8], 1, TimeUnit.SECONDS));
+    assertFalse(writer.write(new byte[8], 10, TimeUnit.MILLISECONDS));
+    assertEquals(8, reader.read(1, TimeUnit.SECONDS).remaining());
+    // the space of a message is released by the next read
+    assertFalse(writer.write(new byte[8], 10, TimeUnit.MILLISECONDS));
+    assertNull(reader.read(10, TimeUnit.MILLISECONDS));
+    assertTrue(writer.write(new byte[8], 1, TimeUnit.SECONDS));
+  }
+
+  public void test_write_wraparound() throws Exception {
+    final MappedRingBuffer writer = MappedRingBuffer.create(file, 100);
+    MappedRingBuffer reader = MappedRingBuffer.open(file);
+    final int count = 20000;
+    final boolean[] written = {false};
+    Thread thread = new Thread() {
+      @Override
+      public void run() {
+        for (int i = 0; i < count; i++) {
+          byte[] message = new byte[i % 37];
+          Arrays.fill(message, (byte) i);
+          if (!writer.write(message, 10, TimeUnit.SECONDS)) {
+            return;
+          }
+        }
+        writer.close();
+        written[0] = true;
+      }
+    };
+    thread.start();
+    int read = 0;
+    while (true) {
+      ByteBuffer message = reader.read(10, TimeUnit.SECONDS);
+      if (message == null) {
+        break;
+      }
+      assertEquals(read % 37, message.remaining());
+      while (message.hasRemaining()) {
+        assertEquals((byte) read, message.get());
+      }
+      read++;
+    }
+    thread.join();
+    assertTrue(written[0]);
+    assertEquals(count, read);
+    assertTrue(reader.isFinished());
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    file = File.createTempFile("ring", ".bin");
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    file.delete();
+    super.tearDown();
+  }
+}
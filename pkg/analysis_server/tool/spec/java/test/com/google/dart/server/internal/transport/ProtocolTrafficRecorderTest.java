@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.server.internal.transport;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+public class ProtocolTrafficRecorderTest extends TestCase {
+
+  private final List<String> messages = new ArrayList<String>();
+  private final List<Long> times = new ArrayList<Long>();
+
+  public void test_replay() throws Exception {
+    StringBuilder large = new StringBuilder("{'event':'analysis.highlights','params':'");
+    for (int i = 0; i < 1000; i++) {
+      large.append('x');
+    }
+    large.append("'}");
+    long before = System.currentTimeMillis();
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ProtocolTrafficRecorder recorder = new ProtocolTrafficRecorder(bytes);
+    recorder.recordRequest("{'id':'0','method':'server.getVersion'}");
+    recorder.recordServerLine("{'id':'0','result':{'version':'\u00e9\u4e2d'}}");
+    Thread.sleep(2);
+    recorder.recordServerLine(large.toString());
+    recorder.close();
+    ProtocolTrafficReplayer replayer =
+        new ProtocolTrafficReplayer(new ByteArrayInputStream(bytes.toByteArray()));
+    replayer.setSpeed(0);
+    assertEquals(ProtocolTrafficRecorder.PROTOCOL_VERSION, replayer.getProtocolVersion());
+    assertTrue(replayer.getStartMillis() >= before);
+    assertTrue(replayer.getStartMillis() <= System.currentTimeMillis());
+    assertEquals(3, replayer.replay(new ProtocolTrafficReplayer.Handler() {
+      @Override
+      public void requestSent(long micros, String json) {
+        messages.add("request " + json);
+        times.add(micros);
+      }
+
+      @Override
+      public void serverLine(long micros, String json) {
+        messages.add("server " + json);
+        times.add(micros);
+      }
+    }));
+    assertEquals(
+        Arrays.asList(
+            "request {'id':'0','method':'server.getVersion'}",
+            "server {'id':'0','result':{'version':'\u00e9\u4e2d'}}",
+            "server " + large),
+        messages);
+    // the times are relative to the start of the recording and do not decrease
+    assertTrue(times.get(0) >= 0);
+    assertTrue(times.get(1) >= times.get(0));
+    assertTrue(times.get(2) >= times.get(1) + 2000);
+  }
+
+  public void test_replay_notRecording() throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    GZIPOutputStream output = new GZIPOutputStream(bytes);
+    output.write(new byte[] {1, 2, 3, 4, 5});
+    output.close();
+    try {
+      new ProtocolTrafficReplayer(new ByteArrayInputStream(bytes.toByteArray()));
+      fail();
+    } catch (IOException exception) {
+      // expected
+    }
+  }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.server.internal.transport;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import junit.framework.TestCase;
+
+import org.dartlang.analysis.server.protocol.CompletionSuggestion;
+import org.dartlang.analysis.server.protocol.MutableCompletionSuggestion;
+import org.dartlang.analysis.server.protocol.MutableHighlightRegion;
+import org.dartlang.analysis.server.protocol.MutableSearchResult;
+import org.dartlang.analysis.server.protocol.SearchResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class TransientNotificationDecoderTest extends TestCase {
+
+  private final List<Object> instances = new ArrayList<Object>();
+  private final List<Object> values = new ArrayList<Object>();
+  private RuntimeException exception;
+  private final TransientNotificationDecoder decoder = new TransientNotificationDecoder(
+      new TransientNotificationDecoder.Listener() {
+        @Override
+        public void computedCompletion(String completionId, int replacementOffset,
+            int replacementLength, List<MutableCompletionSuggestion> completions,
+            boolean isLast) {
+          for (MutableCompletionSuggestion completion : completions) {
+            instances.add(completion);
+            values.add(completion.toImmutable());
+          }
+        }
+
+        @Override
+        public void computedHighlights(String file, List<MutableHighlightRegion> highlights) {
+          for (MutableHighlightRegion highlight : highlights) {
+            instances.add(highlight);
+            values.add(file + ":" + highlight.getType() + ":" + highlight.getOffset());
+          }
+          if (exception != null) {
+            throw exception;
+          }
+        }
+
+        @Override
+        public void computedSearchResults(String searchId, List<MutableSearchResult> results,
+            boolean isLast) {
+          for (MutableSearchResult result : results) {
+            instances.add(result);
+            values.add(result.toImmutable());
+          }
+        }
+      });
+
+  public void test_completion_optionalLists() throws Exception {
+    String withParameters = "{'kind':'INVOCATION','relevance':1000,'completion':'m',"
+        + "'selectionOffset':1,'selectionLength':0,'isDeprecated':false,'isPotential':false,"
+        + "'parameterNames':['a','b'],'parameterTypes':['int','String']}";
+    String withoutParameters = "{'kind':'IDENTIFIER','relevance':500,'completion':'v',"
+        + "'selectionOffset':1,'selectionLength':0,'isDeprecated':false,'isPotential':false}";
+    assertTrue(decoder.decode(completion(withParameters)));
+    assertTrue(decoder.decode(completion(withoutParameters)));
+    // the instance and its lists are reused, but an absent list is still decoded as null
+    assertSame(instances.get(0), instances.get(1));
+    assertEquals(
+        Arrays.asList(
+            CompletionSuggestion.fromJson(parse(withParameters)),
+            CompletionSuggestion.fromJson(parse(withoutParameters))),
+        values);
+    CompletionSuggestion suggestion = (CompletionSuggestion) values.get(0);
+    assertEquals(Arrays.asList("a", "b"), suggestion.getParameterNames());
+    assertNull(((CompletionSuggestion) values.get(1)).getParameterNames());
+  }
+
+  public void test_highlights_listenerFails() throws Exception {
+    exception = new IllegalStateException();
+    try {
+      decoder.decode(highlights(1, 2));
+      fail();
+    } catch (IllegalStateException expected) {
+      // expected
+    }
+    exception = null;
+    decoder.decode(highlights(3, 4));
+    // the instances have been released although the listener has failed
+    assertSame(instances.get(0), instances.get(3));
+    assertSame(instances.get(1), instances.get(2));
+  }
+
+  public void test_highlights_reused() throws Exception {
+    assertTrue(decoder.decode(highlights(1, 2)));
+    assertTrue(decoder.decode(highlights(3, 4, 5)));
+    assertEquals(
+        Arrays.<Object>asList(
+            "/a.dart:CLASS:1",
+            "/a.dart:CLASS:2",
+            "/a.dart:CLASS:3",
+            "/a.dart:CLASS:4",
+            "/a.dart:CLASS:5"),
+        values);
+    // the released instances are reused, the last released first
+    assertSame(instances.get(1), instances.get(2));
+    assertSame(instances.get(0), instances.get(3));
+    assertNotSame(instances.get(0), instances.get(4));
+    assertNotSame(instances.get(1), instances.get(4));
+  }
+
+  public void test_new_invalid() throws Exception {
+    try {
+      new TransientNotificationDecoder(null);
+      fail();
+    } catch (IllegalArgumentException exception) {
+      // expected
+    }
+  }
+
+  public void test_searchResults() throws Exception {
+    String result = "{'location':{'file':'/a.dart','offset':10,'length':3,'startLine':2,"
+        + "'startColumn':4},'kind':'REFERENCE','isPotential':false,"
+        + "'path':[{'kind':'CLASS','name':'A','flags':0}]}";
+    decoder.serverLine(0, "{'event':'search.results','params':{'id':'1','results':[" + result
+        + "],'isLast':true}}");
+    assertEquals(Arrays.<Object>asList(SearchResult.fromJson(parse(result))), values);
+  }
+
+  public void test_serverLine_otherMessages() throws Exception {
+    decoder.serverLine(0, "{'id':'1','result':{'version':'1.0'}}");
+    decoder.serverLine(0, "{'event':'server.connected','params':{'version':'1.0'}}");
+    decoder.requestSent(0, "{'id':'2','method':'server.getVersion'}");
+    assertFalse(decoder.decode(parse("{'event':'analysis.outline','params':{}}")));
+    assertTrue(values.isEmpty());
+  }
+
+  private static JsonObject completion(String suggestion) {
+    return parse("{'event':'completion.results','params':{'id':'1','replacementOffset':0,"
+        + "'replacementLength':0,'results':[" + suggestion + "],'isLast':true}}");
+  }
+
+  private static JsonObject highlights(int... offsets) {
+    StringBuilder regions = new StringBuilder();
+    for (int offset : offsets) {
+      if (regions.length() != 0) {
+        regions.append(',');
+      }
+      regions.append("{'type':'CLASS','offset':" + offset + ",'length':1}");
+    }
+    return parse("{'event':'analysis.highlights','params':{'file':'/a.dart','regions':["
+        + regions + "]}}");
+  }
+
+  private static JsonObject parse(String json) {
+    return new JsonParser().parse(json).getAsJsonObject();
+  }
+}
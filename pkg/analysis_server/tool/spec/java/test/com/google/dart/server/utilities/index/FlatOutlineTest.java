@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.server.utilities.index;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import junit.framework.TestCase;
+
+import org.dartlang.analysis.server.protocol.Element;
+import org.dartlang.analysis.server.protocol.Location;
+import org.dartlang.analysis.server.protocol.Outline;
+
+public class FlatOutlineTest extends TestCase {
+
+  /**
+   * An outline of a unit declaring the class "A", with the field "f" and the method "m", and the
+   * function "main".
+   */
+  private static final String OUTLINE = "{'element':{'kind':'COMPILATION_UNIT','name':'',"
+      + "'flags':0},'offset':0,'length':100,'children':["
+      + "{'element':{'kind':'CLASS','name':'A','flags':1,'location':{'file':'/a.dart',"
+      + "'offset':6,'length':1,'startLine':1,'startColumn':7},'typeParameters':'<T>'},"
+      + "'offset':0,'length':60,'children':["
+      + "{'element':{'kind':'FIELD','name':'f','flags':8,'returnType':'int'},"
+      + "'offset':12,'length':6},"
+      + "{'element':{'kind':'METHOD','name':'m','flags':16,'parameters':'(int a)',"
+      + "'returnType':'void'},'offset':20,'length':30}]},"
+      + "{'element':{'kind':'FUNCTION','name':'main','flags':0,'parameters':'()'},"
+      + "'offset':62,'length':20}]}";
+
+  public void test_createCursor() throws Exception {
+    FlatOutline.Cursor cursor = FlatOutline.fromJson(parse(OUTLINE)).createCursor();
+    assertEquals(0, cursor.getNode());
+    assertEquals("COMPILATION_UNIT", cursor.getKind());
+    assertFalse(cursor.moveToParent());
+    assertFalse(cursor.moveToNextSibling());
+    assertTrue(cursor.moveToFirstChild());
+    assertEquals("A", cursor.getName());
+    assertEquals(1, cursor.getFlags());
+    assertTrue(cursor.moveToFirstChild());
+    assertEquals("f", cursor.getName());
+    assertFalse(cursor.moveToFirstChild());
+    assertTrue(cursor.moveToNextSibling());
+    assertEquals("m", cursor.getName());
+    assertEquals(20, cursor.getOffset());
+    assertEquals(30, cursor.getLength());
+    assertEquals("(int a)", cursor.getElement().getParameters());
+    assertFalse(cursor.moveToNextSibling());
+    assertTrue(cursor.moveToParent());
+    assertTrue(cursor.moveToNextSibling());
+    assertEquals("main", cursor.getName());
+    assertEquals(4, cursor.getNode());
+    assertFalse(cursor.moveToNextSibling());
+    // the current node is kept when a move fails
+    assertEquals(4, cursor.getNode());
+  }
+
+  public void test_createCursor_moveTo() throws Exception {
+    FlatOutline.Cursor cursor = FlatOutline.fromJson(parse(OUTLINE)).createCursor();
+    cursor.moveTo(2);
+    assertEquals("f", cursor.getName());
+    try {
+      cursor.moveTo(5);
+      fail();
+    } catch (IndexOutOfBoundsException exception) {
+      // expected
+    }
+    try {
+      cursor.moveTo(-1);
+      fail();
+    } catch (IndexOutOfBoundsException exception) {
+      // expected
+    }
+    assertEquals(2, cursor.getNode());
+  }
+
+  public void test_fromJson() throws Exception {
+    FlatOutline outline = FlatOutline.fromJson(parse(OUTLINE));
+    assertEquals(5, outline.getNodeCount());
+    // the nodes are numbered in pre-order
+    assertEquals("", outline.getName(0));
+    assertEquals("A", outline.getName(1));
+    assertEquals("f", outline.getName(2));
+    assertEquals("m", outline.getName(3));
+    assertEquals("main", outline.getName(4));
+    assertEquals(-1, outline.getParent(0));
+    assertEquals(0, outline.getParent(1));
+    assertEquals(1, outline.getParent(3));
+    assertEquals(0, outline.getParent(4));
+    assertEquals(1, outline.getFirstChild(0));
+    assertEquals(2, outline.getFirstChild(1));
+    assertEquals(-1, outline.getFirstChild(2));
+    assertEquals(4, outline.getNextSibling(1));
+    assertEquals(3, outline.getNextSibling(2));
+    assertEquals(-1, outline.getNextSibling(3));
+    // element data
+    assertEquals("CLASS", outline.getKind(1));
+    assertEquals(1, outline.getFlags(1));
+    assertEquals(0, outline.getOffset(1));
+    assertEquals(60, outline.getLength(1));
+    assertEquals("<T>", outline.getTypeParameters(1));
+    assertNull(outline.getParameters(1));
+    assertEquals("int", outline.getReturnType(2));
+    assertEquals("()", outline.getParameters(4));
+    assertNull(outline.getReturnType(4));
+    assertEquals(new Location("/a.dart", 6, 1, 1, 7), outline.getLocation(1));
+    assertNull(outline.getLocation(2));
+    assertEquals(
+        new Element("METHOD", "m", null, 16, "(int a)", "void", null),
+        outline.getElement(3));
+  }
+
+  public void test_fromOutline() throws Exception {
+    Outline outline = Outline.fromJson(null, parse(OUTLINE));
+    FlatOutline flatOutline = FlatOutline.fromOutline(outline);
+    assertEquals(5, flatOutline.getNodeCount());
+    assertEquals(FlatOutline.fromJson(parse(OUTLINE)).toOutline(), flatOutline.toOutline());
+    assertEquals(outline, flatOutline.toOutline());
+  }
+
+  public void test_toOutline() throws Exception {
+    Outline outline = FlatOutline.fromJson(parse(OUTLINE)).toOutline();
+    assertEquals(Outline.fromJson(null, parse(OUTLINE)), outline);
+    // the parents are set
+    assertNull(outline.getParent());
+    Outline classOutline = outline.getChildren().get(0);
+    assertSame(outline, classOutline.getParent());
+    assertSame(classOutline, classOutline.getChildren().get(1).getParent());
+  }
+
+  private static JsonObject parse(String json) {
+    return new JsonParser().parse(json).getAsJsonObject();
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.server.utilities.index;
+
+import junit.framework.TestCase;
+
+import org.dartlang.analysis.server.protocol.Element;
+import org.dartlang.analysis.server.protocol.Occurrences;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class OccurrencesIndexTest extends TestCase {
+
+  public void test_empty() throws Exception {
+    OccurrencesIndex index = new OccurrencesIndex(new ArrayList<Occurrences>());
+    assertEquals(0, index.size());
+    assertEquals(-1, index.getGroupIndex(0));
+    assertNull(index.getElement(0));
+    assertNull(index.getOccurrences(0));
+  }
+
+  public void test_getGroupIndex() throws Exception {
+    Occurrences a = occurrences("a", 3, 50, 10);
+    Occurrences b = occurrences("b", 5, 20);
+    Occurrences c = occurrences("c", 1, 12);
+    OccurrencesIndex index = new OccurrencesIndex(Arrays.asList(a, b, c));
+    assertEquals(4, index.size());
+    assertEquals(Arrays.asList(a, b, c), index.getOccurrences());
+    assertEquals(-1, index.getGroupIndex(9));
+    assertEquals(0, index.getGroupIndex(10));
+    assertEquals(0, index.getGroupIndex(11));
+    // "c" is nested in the first occurrence of "a", and starts last
+    assertEquals(2, index.getGroupIndex(12));
+    assertEquals(2, index.getGroupIndex(13));
+    assertEquals(-1, index.getGroupIndex(14));
+    // the end of an occurrence is included
+    assertEquals(1, index.getGroupIndex(20));
+    assertEquals(1, index.getGroupIndex(25));
+    assertEquals(-1, index.getGroupIndex(26));
+    assertSame(a, index.getOccurrences(52));
+    assertEquals("a", index.getElement(53).getName());
+    assertNull(index.getElement(54));
+  }
+
+  public void test_getGroupIndex_random() throws Exception {
+    Random random = new Random(0);
+    List<Occurrences> groups = new ArrayList<Occurrences>();
+    for (int i = 0; i < 50; i++) {
+      int[] offsets = new int[1 + random.nextInt(5)];
+      for (int j = 0; j < offsets.length; j++) {
+        offsets[j] = random.nextInt(1000);
+      }
+      groups.add(occurrences("e" + i, random.nextInt(20), offsets));
+    }
+    OccurrencesIndex index = new OccurrencesIndex(groups);
+    for (int offset = -1; offset < 1030; offset++) {
+      assertEquals(getGroupIndex(groups, offset), index.getGroupIndex(offset));
+    }
+  }
+
+  /**
+   * Return the group of the occurrence containing the given offset and starting last, as found by
+   * scanning every occurrence, or {@code -1}. Of several such occurrences starting at the same
+   * offset, the one of the last group is chosen, as the index does.
+   */
+  private static int getGroupIndex(List<Occurrences> groups, int offset) {
+    int result = -1;
+    int resultStart = Integer.MIN_VALUE;
+    for (int i = 0; i < groups.size(); i++) {
+      Occurrences group = groups.get(i);
+      for (int start : group.getOffsets()) {
+        if (start <= offset && offset <= start + group.getLength() && start >= resultStart) {
+          result = i;
+          resultStart = start;
+        }
+      }
+    }
+    return result;
+  }
+
+  private static Occurrences occurrences(String name, int length, int... offsets) {
+    Element element = new Element("CLASS", name, null, 0, null, null, null);
+    return new Occurrences(element, offsets, length);
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.server.utilities.index;
+
+import com.google.dart.server.utilities.index.OutlineDiffer.Difference;
+import com.google.dart.server.utilities.index.OutlineDiffer.Kind;
+
+import junit.framework.TestCase;
+
+import org.dartlang.analysis.server.protocol.Element;
+import org.dartlang.analysis.server.protocol.ElementKind;
+import org.dartlang.analysis.server.protocol.Outline;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class OutlineDifferTest extends TestCase {
+
+  public void test_diff_changed() throws Exception {
+    Outline oldOutline = unit(node("a", 0, "int"));
+    Outline newOutline = unit(node("a", 0, "String"));
+    List<Difference> differences = OutlineDiffer.diff(oldOutline, newOutline);
+    assertEquals(1, differences.size());
+    Difference difference = differences.get(0);
+    assertEquals(Kind.CHANGED, difference.getKind());
+    assertTrue(difference.isElementChanged());
+    assertSame(oldOutline, difference.getOldParent());
+    assertEquals(0, difference.getOldIndex());
+    assertEquals(0, difference.getNewIndex());
+  }
+
+  public void test_diff_inserted() throws Exception {
+    Outline newOutline = unit(node("a", 0, null), node("b", 10, null), node("c", 20, null));
+    List<Difference> differences = OutlineDiffer.diff(
+        unit(node("a", 0, null), node("c", 10, null)),
+        newOutline);
+    assertEquals(2, differences.size());
+    assertEquals(Kind.INSERTED, differences.get(0).getKind());
+    assertEquals(-1, differences.get(0).getOldIndex());
+    assertEquals(1, differences.get(0).getNewIndex());
+    assertSame(newOutline.getChildren().get(1), differences.get(0).getNewOutline());
+    assertEquals(Kind.SHIFTED, differences.get(1).getKind());
+    assertEquals(2, differences.get(1).getNewIndex());
+    assertEquals(10, differences.get(1).getOffsetDelta());
+  }
+
+  public void test_diff_moved() throws Exception {
+    List<Difference> differences = OutlineDiffer.diff(
+        unit(node("a", 0, null), node("b", 10, null), node("c", 20, null)),
+        unit(node("c", 0, null), node("a", 10, null), node("b", 20, null)));
+    assertEquals(3, differences.size());
+    assertEquals(Kind.MOVED, differences.get(0).getKind());
+    assertEquals("c", differences.get(0).getNewOutline().getElement().getName());
+    assertEquals(2, differences.get(0).getOldIndex());
+    assertEquals(0, differences.get(0).getNewIndex());
+    assertEquals(Kind.SHIFTED, differences.get(1).getKind());
+    assertEquals(Kind.SHIFTED, differences.get(2).getKind());
+  }
+
+  public void test_diff_nested() throws Exception {
+    Outline oldClass = node("A", 0, null);
+    setChildren(oldClass, node("f", 5, null));
+    Outline newClass = node("A", 0, null);
+    setChildren(newClass, node("f", 5, null), node("g", 10, null));
+    List<Difference> differences = OutlineDiffer.diff(unit(oldClass), unit(newClass));
+    assertEquals(1, differences.size());
+    assertEquals(Kind.INSERTED, differences.get(0).getKind());
+    assertSame(oldClass, differences.get(0).getOldParent());
+  }
+
+  public void test_diff_removed() throws Exception {
+    Outline oldOutline = unit(node("a", 0, null), node("b", 10, null), node("c", 20, null));
+    List<Difference> differences = OutlineDiffer.diff(
+        oldOutline,
+        unit(node("a", 0, null), node("c", 20, null)));
+    assertEquals(1, differences.size());
+    assertEquals(Kind.REMOVED, differences.get(0).getKind());
+    assertEquals(1, differences.get(0).getOldIndex());
+    assertEquals(-1, differences.get(0).getNewIndex());
+    assertSame(oldOutline.getChildren().get(1), differences.get(0).getOldOutline());
+    assertNull(differences.get(0).getNewOutline());
+  }
+
+  public void test_diff_same() throws Exception {
+    List<Difference> differences = OutlineDiffer.diff(
+        unit(node("a", 0, "int"), node("b", 10, null)),
+        unit(node("a", 0, "int"), node("b", 10, null)));
+    assertEquals(0, differences.size());
+  }
+
+  private static Outline node(String name, int offset, String returnType) {
+    Element element = new Element(ElementKind.FUNCTION, name, null, 0, null, returnType, null);
+    return new Outline(null, element, offset, 5);
+  }
+
+  private static void setChildren(Outline parent, Outline... children) {
+    List<Outline> list = new ArrayList<Outline>();
+    for (Outline child : children) {
+      list.add(child);
+    }
+    parent.setChildren(list);
+  }
+
+  private static Outline unit(Outline... children) {
+    Element element = new Element(ElementKind.COMPILATION_UNIT, "", null, 0, null, null, null);
+    Outline unit = new Outline(null, element, 0, 100);
+    setChildren(unit, children);
+    return unit;
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.server.utilities.index;
+
+import com.google.dart.server.utilities.index.ProblemIndex.Problem;
+
+import junit.framework.TestCase;
+
+import org.dartlang.analysis.server.protocol.AnalysisError;
+import org.dartlang.analysis.server.protocol.AnalysisErrorSeverity;
+import org.dartlang.analysis.server.protocol.AnalysisErrorType;
+import org.dartlang.analysis.server.protocol.Location;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.SortedSet;
+
+public class ProblemIndexTest extends TestCase {
+
+  private final ProblemIndex index = new ProblemIndex();
+
+  public void test_clear() throws Exception {
+    index.setErrors("/p/a.dart", Arrays.asList(error("/p/a.dart", AnalysisErrorSeverity.ERROR, 0)));
+    index.clear();
+    assertEquals(0, index.getProblemCount());
+    assertEquals(0, index.getSeverityCount(AnalysisErrorSeverity.ERROR));
+    assertEquals(0, index.getDirectoryCount("/p"));
+    assertEquals(0, index.getErrors("/p/a.dart").size());
+  }
+
+  public void test_getProblems_order() throws Exception {
+    AnalysisError info = error("/p/a.dart", AnalysisErrorSeverity.INFO, 0);
+    AnalysisError laterError = error("/p/a.dart", AnalysisErrorSeverity.ERROR, 20);
+    AnalysisError error = error("/p/a.dart", AnalysisErrorSeverity.ERROR, 10);
+    AnalysisError otherError = error("/p/b.dart", AnalysisErrorSeverity.ERROR, 0);
+    index.setErrors("/p/b.dart", Arrays.asList(otherError));
+    index.setErrors("/p/a.dart", Arrays.asList(info, laterError, error));
+    assertEquals(
+        Arrays.asList(error, laterError, otherError, info),
+        getErrors(index.getProblems()));
+  }
+
+  public void test_getProblems_live() throws Exception {
+    SortedSet<Problem> problems = index.getProblems();
+    index.setErrors("/p/a.dart", Arrays.asList(error("/p/a.dart", AnalysisErrorSeverity.ERROR, 0)));
+    synchronized (index) {
+      assertEquals(1, problems.size());
+      assertEquals("/p/a.dart", problems.first().getFile());
+    }
+    index.setErrors("/p/a.dart", new ArrayList<AnalysisError>());
+    synchronized (index) {
+      assertTrue(problems.isEmpty());
+    }
+    try {
+      problems.clear();
+      fail();
+    } catch (UnsupportedOperationException exception) {
+      // expected
+    }
+  }
+
+  public void test_getProblems_page() throws Exception {
+    List<AnalysisError> errors = new ArrayList<AnalysisError>();
+    for (int i = 0; i < 5; i++) {
+      errors.add(error("/p/a.dart", AnalysisErrorSeverity.ERROR, i));
+    }
+    index.setErrors("/p/a.dart", errors);
+    List<Problem> first = index.getProblems(null, 2);
+    assertEquals(errors.subList(0, 2), getErrors(first));
+    List<Problem> second = index.getProblems(first.get(1), 2);
+    assertEquals(errors.subList(2, 4), getErrors(second));
+    List<Problem> last = index.getProblems(second.get(1), 2);
+    assertEquals(errors.subList(4, 5), getErrors(last));
+    assertEquals(0, index.getProblems(last.get(0), 2).size());
+    assertEquals(0, index.getProblems(null, 0).size());
+  }
+
+  public void test_setErrors_counts() throws Exception {
+    index.setErrors("/p/a/x.dart", Arrays.asList(
+        error("/p/a/x.dart", AnalysisErrorSeverity.ERROR, 0),
+        error("/p/a/x.dart", AnalysisErrorSeverity.WARNING, 10)));
+    index.setErrors("/p/b/y.dart", Arrays.asList(
+        error("/p/b/y.dart", AnalysisErrorSeverity.ERROR, 0)));
+    assertEquals(3, index.getProblemCount());
+    assertEquals(2, index.getSeverityCount(AnalysisErrorSeverity.ERROR));
+    assertEquals(1, index.getSeverityCount(AnalysisErrorSeverity.WARNING));
+    assertEquals(0, index.getSeverityCount(AnalysisErrorSeverity.INFO));
+    assertEquals(3, index.getTypeCount(AnalysisErrorType.STATIC_WARNING));
+    assertEquals(0, index.getTypeCount(AnalysisErrorType.HINT));
+    assertEquals(3, index.getDirectoryCount("/p"));
+    assertEquals(2, index.getDirectoryCount("/p/a"));
+    assertEquals(1, index.getDirectoryCount("/p/a", AnalysisErrorSeverity.WARNING));
+    assertEquals(1, index.getDirectoryCount("/p/b"));
+    assertEquals(0, index.getDirectoryCount("/q"));
+  }
+
+  public void test_setErrors_replace() throws Exception {
+    index.setErrors("/p/a/x.dart", Arrays.asList(
+        error("/p/a/x.dart", AnalysisErrorSeverity.ERROR, 0),
+        error("/p/a/x.dart", AnalysisErrorSeverity.ERROR, 10)));
+    AnalysisError warning = error("/p/a/x.dart", AnalysisErrorSeverity.WARNING, 5);
+    index.setErrors("/p/a/x.dart", Arrays.asList(warning));
+    assertEquals(1, index.getProblemCount());
+    assertEquals(0, index.getSeverityCount(AnalysisErrorSeverity.ERROR));
+    assertEquals(1, index.getSeverityCount(AnalysisErrorSeverity.WARNING));
+    assertEquals(1, index.getDirectoryCount("/p/a"));
+    assertEquals(0, index.getDirectoryCount("/p/a", AnalysisErrorSeverity.ERROR));
+    assertEquals(Arrays.asList(warning), index.getErrors("/p/a/x.dart"));
+    index.setErrors("/p/a/x.dart", new ArrayList<AnalysisError>());
+    assertEquals(0, index.getProblemCount());
+    assertEquals(0, index.getDirectoryCount("/p"));
+  }
+
+  public void test_setErrors_unknownSeverity() throws Exception {
+    index.setErrors("/p/a.dart", Arrays.asList(error("/p/a.dart", "UNKNOWN", 0)));
+    assertEquals(1, index.getProblemCount());
+    assertEquals(1, index.getDirectoryCount("/p"));
+    assertEquals(0, index.getSeverityCount("UNKNOWN"));
+  }
+
+  private static AnalysisError error(String file, String severity, int offset) {
+    Location location = new Location(file, offset, 1, 1, offset + 1);
+    return new AnalysisError(severity, AnalysisErrorType.STATIC_WARNING, location, "message", null);
+  }
+
+  private static List<AnalysisError> getErrors(Collection<Problem> problems) {
+    List<AnalysisError> errors = new ArrayList<AnalysisError>();
+    for (Problem problem : problems) {
+      errors.add(problem.getError());
+    }
+    return errors;
+  }
+}
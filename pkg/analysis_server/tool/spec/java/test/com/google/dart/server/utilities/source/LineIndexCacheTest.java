@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.server.utilities.source;
+
+import junit.framework.TestCase;
+
+import org.dartlang.analysis.server.protocol.SourceEdit;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+public class LineIndexCacheTest extends TestCase {
+
+  private final LineIndexCache cache = new LineIndexCache();
+
+  public void test_get() throws Exception {
+    LineIndex index = cache.get("/a.dart", 1, "a\nb\n");
+    assertSame(index, cache.get("/a.dart", 1, "ignored"));
+    assertSame(index, cache.get("/a.dart", 1));
+    assertNull(cache.get("/a.dart", 2));
+    assertNull(cache.get("/b.dart", 1));
+    assertEquals(3, index.getLineCount());
+  }
+
+  public void test_get_olderVersion() throws Exception {
+    LineIndex newer = cache.get("/a.dart", 2, "a\nb\n");
+    LineIndex older = cache.get("/a.dart", 1, "a\n");
+    // the index of the older version is returned, but does not replace the newer one
+    assertEquals(2, older.getLineCount());
+    assertSame(newer, cache.get("/a.dart", 2));
+    assertNull(cache.get("/a.dart", 1));
+  }
+
+  public void test_remove_clear() throws Exception {
+    cache.get("/a.dart", 1, "a");
+    cache.get("/b.dart", 1, "b");
+    cache.remove("/a.dart");
+    assertNull(cache.get("/a.dart", 1));
+    assertNotNull(cache.get("/b.dart", 1));
+    cache.clear();
+    assertNull(cache.get("/b.dart", 1));
+  }
+
+  public void test_update() throws Exception {
+    cache.get("/a.dart", 1, "a\nb\nc\n");
+    LineIndex index = cache.update("/a.dart", 1, 2, edits());
+    assertSame(index, cache.get("/a.dart", 2));
+    assertLines(LineIndex.create("a\nX\nY\nc\n"), index);
+    // the edits of a version which has already been applied are not applied again
+    assertSame(index, cache.update("/a.dart", 1, 2, edits()));
+  }
+
+  public void test_update_concurrent() throws Exception {
+    cache.get("/a.dart", 1, "a\nb\nc\n");
+    final LineIndex[] indexes = new LineIndex[8];
+    final CountDownLatch start = new CountDownLatch(1);
+    Thread[] threads = new Thread[indexes.length];
+    for (int i = 0; i < threads.length; i++) {
+      final int thread = i;
+      threads[i] = new Thread() {
+        @Override
+        public void run() {
+          try {
+            start.await();
+          } catch (InterruptedException exception) {
+            return;
+          }
+          indexes[thread] = cache.update("/a.dart", 1, 2, edits());
+        }
+      };
+      threads[i].start();
+    }
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    // every thread gets the index of the single application of the edits
+    for (LineIndex index : indexes) {
+      assertSame(cache.get("/a.dart", 2), index);
+    }
+    assertLines(LineIndex.create("a\nX\nY\nc\n"), indexes[0]);
+  }
+
+  public void test_update_notCached() throws Exception {
+    assertNull(cache.update("/a.dart", 1, 2, edits()));
+    cache.get("/a.dart", 3, "a\nb\nc\n");
+    // the previous version is not the cached one, so the cached index is kept
+    assertNull(cache.update("/a.dart", 1, 2, edits()));
+    assertNotNull(cache.get("/a.dart", 3));
+    assertNull(cache.get("/a.dart", 2));
+  }
+
+  private static void assertLines(LineIndex expected, LineIndex actual) {
+    assertEquals(expected.getLength(), actual.getLength());
+    assertEquals(expected.getLineCount(), actual.getLineCount());
+    for (int line = 1; line <= expected.getLineCount(); line++) {
+      assertEquals(expected.getLineStart(line), actual.getLineStart(line));
+    }
+  }
+
+  /**
+   * Return the edits replacing the line "b" with the lines "X" and "Y".
+   */
+  private static List<SourceEdit> edits() {
+    return Arrays.asList(new SourceEdit(2, 1, "X\nY", null));
+  }
+}
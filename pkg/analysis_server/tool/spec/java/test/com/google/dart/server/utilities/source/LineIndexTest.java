@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.server.utilities.source;
+
+import junit.framework.TestCase;
+
+import org.dartlang.analysis.server.protocol.SourceEdit;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class LineIndexTest extends TestCase {
+
+  public void test_applyEdit_crlf_join() throws Exception {
+    assertApplyEdit("a\rb\nc", new SourceEdit(2, 1, "", null));
+  }
+
+  public void test_applyEdit_crlf_split() throws Exception {
+    assertApplyEdit("a\r\nb", new SourceEdit(2, 0, "x", null));
+  }
+
+  public void test_applyEdit_insertLines() throws Exception {
+    assertApplyEdit("ab\ncd\n", new SourceEdit(1, 0, "1\n2\r\n3\r", null));
+  }
+
+  public void test_applyEdit_invalid() throws Exception {
+    LineIndex index = LineIndex.create("abc");
+    try {
+      index.applyEdit(new SourceEdit(2, 2, "", null));
+      fail();
+    } catch (IllegalArgumentException exception) {
+      // expected
+    }
+  }
+
+  public void test_applyEdit_random() throws Exception {
+    Random random = new Random(0);
+    String content = "a\nbc\r\nd\re";
+    LineIndex index = LineIndex.create(content);
+    for (int i = 0; i < 1000; i++) {
+      int offset = random.nextInt(content.length() + 1);
+      int length = random.nextInt(Math.min(4, content.length() - offset) + 1);
+      StringBuilder replacement = new StringBuilder();
+      for (int j = random.nextInt(4); j > 0; j--) {
+        replacement.append("\r\nx".charAt(random.nextInt(3)));
+      }
+      index = index.applyEdit(new SourceEdit(offset, length, replacement.toString(), null));
+      content = content.substring(0, offset) + replacement + content.substring(offset + length);
+      assertSameLines(LineIndex.create(content), index);
+    }
+  }
+
+  public void test_applyEdits() throws Exception {
+    LineIndex index = LineIndex.create("a\nb\nc");
+    index = index.applyEdits(Arrays.asList(
+        new SourceEdit(4, 1, "d\ne", null),
+        new SourceEdit(0, 2, "", null)));
+    assertSameLines(LineIndex.create("b\nd\ne"), index);
+  }
+
+  public void test_getLine_getColumn() throws Exception {
+    LineIndex index = LineIndex.create("ab\r\ncd\ne");
+    assertEquals(3, index.getLineCount());
+    assertEquals(1, index.getLine(1));
+    assertEquals(2, index.getColumn(1));
+    assertEquals(2, index.getLine(4));
+    assertEquals(1, index.getColumn(4));
+    assertEquals(3, index.getLine(8));
+    try {
+      index.getLine(9);
+      fail();
+    } catch (IndexOutOfBoundsException exception) {
+      // expected
+    }
+  }
+
+  private static void assertApplyEdit(String content, SourceEdit edit) {
+    String expected = content.substring(0, edit.getOffset()) + edit.getReplacement()
+        + content.substring(edit.getOffset() + edit.getLength());
+    assertSameLines(LineIndex.create(expected), LineIndex.create(content).applyEdit(edit));
+  }
+
+  private static void assertSameLines(LineIndex expected, LineIndex actual) {
+    assertEquals(expected.getLength(), actual.getLength());
+    assertEquals(expected.getLineCount(), actual.getLineCount());
+    for (int line = 1; line <= expected.getLineCount(); line++) {
+      assertEquals(expected.getLineStart(line), actual.getLineStart(line));
+    }
+  }
+}
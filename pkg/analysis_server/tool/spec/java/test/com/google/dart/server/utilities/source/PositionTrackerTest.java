@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.server.utilities.source;
+
+import junit.framework.TestCase;
+
+import org.dartlang.analysis.server.protocol.Position;
+import org.dartlang.analysis.server.protocol.SourceEdit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class PositionTrackerTest extends TestCase {
+
+  public void test_applyEdit_delete() throws Exception {
+    PositionTracker tracker = new PositionTracker("/a.dart", positions(2, 5, 10));
+    tracker.applyEdit(new SourceEdit(4, 3, "", null));
+    assertEquals(2, tracker.getOffset(0));
+    assertEquals(4, tracker.getOffset(1));
+    assertEquals(7, tracker.getOffset(2));
+  }
+
+  public void test_applyEdit_insert() throws Exception {
+    PositionTracker tracker = new PositionTracker("/a.dart", positions(0, 5, 10));
+    tracker.applyEdit(new SourceEdit(5, 0, "xx", null));
+    assertEquals(0, tracker.getOffset(0));
+    assertEquals(5, tracker.getOffset(1));
+    assertEquals(12, tracker.getOffset(2));
+  }
+
+  public void test_applyEdits_otherFile() throws Exception {
+    List<Position> positions = Arrays.asList(
+        new Position("/a.dart", 5),
+        new Position("/b.dart", 5));
+    PositionTracker tracker = new PositionTracker("/a.dart", positions);
+    tracker.applyEdits(Arrays.asList(new SourceEdit(0, 0, "abc", null)));
+    assertEquals(2, tracker.size());
+    assertEquals(new Position("/a.dart", 8), tracker.getPosition(0));
+    assertSame(positions.get(1), tracker.getPosition(1));
+    assertEquals(
+        Arrays.asList(new Position("/a.dart", 8), positions.get(1)),
+        tracker.getPositions());
+  }
+
+  public void test_applyEdits_random() throws Exception {
+    Random random = new Random(0);
+    int[] offsets = new int[50];
+    for (int i = 0; i < offsets.length; i++) {
+      offsets[i] = random.nextInt(1000);
+    }
+    PositionTracker tracker = new PositionTracker("/a.dart", positions(offsets));
+    for (int i = 0; i < 200; i++) {
+      int offset = random.nextInt(1000);
+      int length = random.nextInt(20);
+      int delta = random.nextInt(30) - length;
+      SourceEdit edit = new SourceEdit(offset, length, "xxxxxxxxxxxxxxxxxxxxxxxxxxxxxx".substring(
+          0, length + delta), null);
+      tracker.applyEdit(edit);
+      for (int j = 0; j < offsets.length; j++) {
+        if (offsets[j] >= offset + Math.max(length, 1)) {
+          offsets[j] += delta;
+        } else if (offsets[j] > offset) {
+          offsets[j] = offset;
+        }
+        assertEquals(offsets[j], tracker.getOffset(j));
+      }
+    }
+  }
+
+  private static List<Position> positions(int... offsets) {
+    List<Position> positions = new ArrayList<Position>();
+    for (int offset : offsets) {
+      positions.add(new Position("/a.dart", offset));
+    }
+    return positions;
+  }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.server.utilities.source;
+
+import junit.framework.TestCase;
+
+import org.dartlang.analysis.server.protocol.SourceEdit;
+import org.dartlang.analysis.server.protocol.SourceFileEdit;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+public class SourceChangeApplierTest extends TestCase {
+
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  private final ForkJoinPool pool = new ForkJoinPool(2);
+  private final SourceChangeApplier applier = new SourceChangeApplier(pool, true);
+  private Path directory;
+
+  public void test_apply() throws Exception {
+    Path a = createFile("a.dart", "abcdef");
+    Path b = createFile("b.dart", "012345");
+    assertEquals(
+        Arrays.asList(a.toString(), b.toString()),
+        applier.apply(Arrays.asList(
+            fileEdit(a, edit(4, 1, "XY"), edit(1, 2, "")),
+            fileEdit(b, edit(0, 1, "z")),
+            fileEdit(a, edit(0, 1, "A")))));
+    assertEquals("AdXYf", read(a));
+    assertEquals("z12345", read(b));
+    assertFiles("a.dart", "b.dart");
+  }
+
+  public void test_apply_invalidEdit() throws Exception {
+    Path a = createFile("a.dart", "abcdef");
+    Path b = createFile("b.dart", "012345");
+    try {
+      applier.apply(Arrays.asList(fileEdit(a, edit(0, 1, "A")), fileEdit(b, edit(5, 2, "z"))));
+      fail();
+    } catch (IOException exception) {
+      // expected
+    }
+    // no file has been modified, and the temporary file of the valid file has been deleted
+    assertEquals("abcdef", read(a));
+    assertEquals("012345", read(b));
+    assertFiles("a.dart", "b.dart");
+  }
+
+  public void test_apply_newFile() throws Exception {
+    Path a = directory.resolve("a.dart");
+    applier.apply(Arrays.asList(new SourceFileEdit(a.toString(), -1, Arrays.asList(edit(
+        0,
+        0,
+        "abc")))));
+    assertEquals("abc", read(a));
+    // a file which is expected to be new must not exist
+    try {
+      applier.apply(Arrays.asList(new SourceFileEdit(a.toString(), -1, Arrays.asList(edit(
+          0,
+          0,
+          "x")))));
+      fail();
+    } catch (SourceChangeApplier.StaleFileException exception) {
+      assertEquals(a.toString(), exception.getFile());
+    }
+    assertEquals("abc", read(a));
+  }
+
+  public void test_apply_permissions() throws Exception {
+    Path a = createFile("a.dart", "abcdef");
+    if (Files.getFileAttributeView(a, PosixFileAttributeView.class) == null) {
+      return;
+    }
+    Files.setPosixFilePermissions(a, PosixFilePermissions.fromString("rwxr-x---"));
+    applier.apply(Arrays.asList(fileEdit(a, edit(0, 1, "A"))));
+    assertEquals("Abcdef", read(a));
+    assertEquals(
+        PosixFilePermissions.fromString("rwxr-x---"),
+        Files.getPosixFilePermissions(a));
+  }
+
+  public void test_apply_staleFile() throws Exception {
+    Path a = createFile("a.dart", "abcdef");
+    Path b = createFile("b.dart", "012345");
+    SourceFileEdit staleEdit = new SourceFileEdit(
+        b.toString(),
+        Files.getLastModifiedTime(b).toMillis() - 5000,
+        Arrays.asList(edit(0, 1, "z")));
+    try {
+      applier.apply(Arrays.asList(fileEdit(a, edit(0, 1, "A")), staleEdit));
+      fail();
+    } catch (SourceChangeApplier.StaleFileException exception) {
+      assertEquals(b.toString(), exception.getFile());
+    }
+    assertEquals("abcdef", read(a));
+    assertEquals("012345", read(b));
+    assertFiles("a.dart", "b.dart");
+    // the stamps are not compared when they are not verified
+    new SourceChangeApplier(pool, false).apply(Arrays.asList(staleEdit));
+    assertEquals("z12345", read(b));
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    directory = Files.createTempDirectory("SourceChangeApplierTest");
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    pool.shutdown();
+    for (File file : directory.toFile().listFiles()) {
+      file.delete();
+    }
+    Files.delete(directory);
+    super.tearDown();
+  }
+
+  /**
+   * Assert that the directory contains exactly the given files, so that no temporary file was left.
+   */
+  private void assertFiles(String... names) {
+    String[] files = directory.toFile().list();
+    Arrays.sort(files);
+    assertEquals(Arrays.asList(names), Arrays.asList(files));
+  }
+
+  private Path createFile(String name, String content) throws IOException {
+    Path path = directory.resolve(name);
+    Files.write(path, content.getBytes(UTF8));
+    // use a stamp in whole seconds, which every file system can represent
+    Files.setLastModifiedTime(path, FileTime.fromMillis(1400000000000L));
+    return path;
+  }
+
+  private static SourceEdit edit(int offset, int length, String replacement) {
+    return new SourceEdit(offset, length, replacement, null);
+  }
+
+  private static SourceFileEdit fileEdit(Path path, SourceEdit... edits) throws IOException {
+    return new SourceFileEdit(
+        path.toString(),
+        Files.getLastModifiedTime(path).toMillis(),
+        Arrays.asList(edits));
+  }
+
+  private static String read(Path path) throws IOException {
+    return new String(Files.readAllBytes(path), UTF8);
+  }
+}
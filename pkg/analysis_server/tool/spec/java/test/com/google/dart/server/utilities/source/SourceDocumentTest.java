@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.server.utilities.source;
+
+import junit.framework.TestCase;
+
+import org.dartlang.analysis.server.protocol.LinkedEditGroup;
+import org.dartlang.analysis.server.protocol.Position;
+import org.dartlang.analysis.server.protocol.SourceChange;
+import org.dartlang.analysis.server.protocol.SourceEdit;
+import org.dartlang.analysis.server.protocol.SourceFileEdit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class SourceDocumentTest extends TestCase {
+
+  public void test_apply_otherFile() throws Exception {
+    SourceDocument document = new SourceDocument("/a.dart", "abcdef");
+    SourceChange change = new SourceChange(
+        "change",
+        Arrays.asList(
+            new SourceFileEdit("/b.dart", 0, Arrays.asList(edit(0, 1, "x"))),
+            new SourceFileEdit("/a.dart", 0, Arrays.asList(edit(2, 1, "XY")))),
+        new ArrayList<LinkedEditGroup>(),
+        new Position("/a.dart", 4));
+    document.apply(change);
+    assertEquals("abXYdef", document.getContent());
+    assertEquals(4, document.getSelectionOffset(change));
+  }
+
+  public void test_applyEdits_ascending() throws Exception {
+    SourceDocument document = new SourceDocument("/a.dart", "abcdef");
+    document.applyEdits(Arrays.asList(edit(0, 1, "12"), edit(3, 1, "Z")));
+    assertEquals("12bZdef", document.getContent());
+  }
+
+  public void test_applyEdits_descending() throws Exception {
+    SourceDocument document = new SourceDocument("/a.dart", "abcdef");
+    document.applyEdits(Arrays.asList(edit(4, 1, "XY"), edit(1, 2, "")));
+    assertEquals("adXYf", document.getContent());
+    assertEquals(5, document.getLength());
+    assertEquals('X', document.charAt(2));
+    assertEquals("dXY", document.getContent(1, 3));
+  }
+
+  public void test_applyEdits_invalid() throws Exception {
+    SourceDocument document = new SourceDocument("/a.dart", "abc");
+    try {
+      document.applyEdits(Arrays.asList(edit(2, 2, "")));
+      fail();
+    } catch (IllegalArgumentException exception) {
+      // expected
+    }
+    assertEquals("abc", document.getContent());
+  }
+
+  public void test_applyEdits_random() throws Exception {
+    Random random = new Random(0);
+    String content = "class A {\n  int f;\n}\n";
+    SourceDocument document = new SourceDocument("/a.dart", content);
+    for (int i = 0; i < 500; i++) {
+      int offset = random.nextInt(content.length() + 1);
+      int length = random.nextInt(Math.min(5, content.length() - offset) + 1);
+      String replacement = "xyz\n".substring(random.nextInt(4));
+      document.applyEdits(Arrays.asList(edit(offset, length, replacement)));
+      content = content.substring(0, offset) + replacement + content.substring(offset + length);
+      assertEquals(content, document.getContent());
+    }
+  }
+
+  public void test_charAt_outOfBounds() throws Exception {
+    SourceDocument document = new SourceDocument("/a.dart", "abc");
+    try {
+      document.charAt(3);
+      fail();
+    } catch (IndexOutOfBoundsException exception) {
+      // expected
+    }
+  }
+
+  public void test_mapOffset() throws Exception {
+    List<SourceEdit> edits = Arrays.asList(edit(6, 2, "xyz"), edit(1, 2, ""));
+    assertEquals(0, SourceDocument.mapOffset(edits, 0));
+    assertEquals(1, SourceDocument.mapOffset(edits, 2));
+    assertEquals(3, SourceDocument.mapOffset(edits, 5));
+    assertEquals(4, SourceDocument.mapOffset(edits, 7));
+    assertEquals(8, SourceDocument.mapOffset(edits, 9));
+  }
+
+  public void test_restore() throws Exception {
+    SourceDocument document = new SourceDocument("/a.dart", "abc");
+    SourceDocument.Snapshot snapshot = document.applyEdits(Arrays.asList(edit(1, 1, "XYZ")));
+    assertEquals("aXYZc", document.getContent());
+    document.restore(snapshot);
+    assertEquals("abc", document.getContent());
+    assertSame(snapshot, document.getSnapshot());
+  }
+
+  private static SourceEdit edit(int offset, int length, String replacement) {
+    return new SourceEdit(offset, length, replacement, null);
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.server.utilities.viewport;
+
+import com.google.dart.server.GetHoverConsumer;
+import com.google.dart.server.generated.ClientCallbacks;
+import com.google.dart.server.generated.RecordingAnalysisServer;
+
+import junit.framework.TestCase;
+
+import org.dartlang.analysis.server.protocol.HoverInformation;
+import org.dartlang.analysis.server.protocol.NavigationRegion;
+import org.dartlang.analysis.server.protocol.RequestError;
+import org.dartlang.analysis.server.protocol.RequestErrorCode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class HoverPrefetcherTest extends TestCase {
+
+  private final RecordingAnalysisServer recorder = new RecordingAnalysisServer();
+  private final HoverPrefetcher prefetcher = new HoverPrefetcher(recorder.server, 2, 1);
+
+  public void test_new_invalid() throws Exception {
+    try {
+      new HoverPrefetcher(recorder.server, 0, 1);
+      fail();
+    } catch (IllegalArgumentException exception) {
+      // expected
+    }
+    try {
+      new HoverPrefetcher(recorder.server, 1, 0);
+      fail();
+    } catch (IllegalArgumentException exception) {
+      // expected
+    }
+  }
+
+  public void test_setVersion_discardsResponse() throws Exception {
+    prefetcher.setViewport("/a.dart", 1, 0, 100, regions(10));
+    prefetcher.setVersion("/a.dart", 2);
+    respond(0, 10);
+    assertNull(prefetcher.getHovers("/a.dart", 10));
+    // the region is requested again for the new version
+    prefetcher.setViewport("/a.dart", 2, 0, 100, regions(10));
+    assertEquals(2, recorder.requests.size());
+    respond(1, 10);
+    assertEquals(1, prefetcher.getHovers("/a.dart", 12).length);
+  }
+
+  public void test_setViewport_cancelsQueued() throws Exception {
+    prefetcher.setViewport("/a.dart", 1, 0, 100, regions(10, 20, 30));
+    assertEquals(1, recorder.requests.size());
+    prefetcher.setViewport("/a.dart", 1, 200, 100, regions(10, 20, 30));
+    respond(0, 30);
+    assertEquals(1, recorder.requests.size());
+    assertNotNull(prefetcher.getHovers("/a.dart", 30));
+    assertNull(prefetcher.getHovers("/a.dart", 20));
+  }
+
+  public void test_setViewport_error() throws Exception {
+    prefetcher.setViewport("/a.dart", 1, 0, 100, regions(10, 20));
+    GetHoverConsumer consumer = recorder.requests.get(0).getConsumer(GetHoverConsumer.class);
+    ClientCallbacks.toCallback(consumer).onError(
+        new RequestError(RequestErrorCode.SERVER_ERROR, "error", null));
+    assertEquals(2, recorder.requests.size());
+    assertEquals(10, recorder.requests.get(1).arguments[1]);
+    assertNull(prefetcher.getHovers("/a.dart", 20));
+  }
+
+  public void test_setViewport_evictsLeastRecentlyUsed() throws Exception {
+    prefetcher.setViewport("/a.dart", 1, 0, 100, regions(40, 50, 60));
+    respond(0, 50);
+    respond(1, 40);
+    // using the first entry makes the second one the least recently used
+    assertNotNull(prefetcher.getHovers("/a.dart", 50));
+    respond(2, 60);
+    assertNotNull(prefetcher.getHovers("/a.dart", 50));
+    assertNull(prefetcher.getHovers("/a.dart", 40));
+    assertNotNull(prefetcher.getHovers("/a.dart", 60));
+  }
+
+  public void test_setViewport_nearestFirst() throws Exception {
+    prefetcher.setViewport("/a.dart", 1, 0, 100, regions(0, 45, 90, 150));
+    assertEquals(1, recorder.requests.size());
+    assertEquals(45, recorder.requests.get(0).arguments[1]);
+    respond(0, 45);
+    assertEquals(90, recorder.requests.get(1).arguments[1]);
+    respond(1, 90);
+    assertEquals(0, recorder.requests.get(2).arguments[1]);
+    respond(2, 0);
+    // the region outside the viewport is not requested
+    assertEquals(3, recorder.requests.size());
+    HoverInformation[] hovers = prefetcher.getHovers("/a.dart", 92);
+    assertEquals(1, hovers.length);
+    assertEquals(90, hovers[0].getOffset());
+    assertNull(prefetcher.getHovers("/a.dart", 150));
+  }
+
+  /**
+   * Respond to the request with the given index with a hover at the given offset.
+   */
+  private void respond(int index, int offset) {
+    RecordingAnalysisServer.Request request = recorder.requests.get(index);
+    assertEquals(offset, request.arguments[1]);
+    GetHoverConsumer consumer = request.getConsumer(GetHoverConsumer.class);
+    ClientCallbacks.toCallback(consumer).onResponse(Arrays.asList(new HoverInformation(
+        offset,
+        5,
+        null,
+        null,
+        null,
+        null,
+        "element",
+        "CLASS",
+        null,
+        null,
+        null)));
+  }
+
+  /**
+   * Return navigation regions of length 5 at the given offsets.
+   */
+  private static List<NavigationRegion> regions(int... offsets) {
+    List<NavigationRegion> regions = new ArrayList<NavigationRegion>();
+    for (int offset : offsets) {
+      regions.add(new NavigationRegion(offset, 5, new int[0]));
+    }
+    return regions;
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2014, the Dart project authors.
+ *
+ * Licensed under the Eclipse Public License v1.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.dart.server.utilities.viewport;
+
+import com.google.dart.server.GetNavigationConsumer;
+import com.google.dart.server.generated.ClientCallbacks;
+import com.google.dart.server.generated.RecordingAnalysisServer;
+import com.google.dart.server.generated.callbacks.GetNavigationCallback;
+import com.google.dart.server.utilities.source.LineIndex;
+
+import junit.framework.TestCase;
+
+import org.dartlang.analysis.server.protocol.NavigationRegion;
+import org.dartlang.analysis.server.protocol.NavigationTarget;
+import org.dartlang.analysis.server.protocol.RequestError;
+import org.dartlang.analysis.server.protocol.RequestErrorCode;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class ViewportNavigationManagerTest extends TestCase {
+
+  private final RecordingAnalysisServer recorder = new RecordingAnalysisServer();
+  private final ViewportNavigationManager manager = new ViewportNavigationManager(
+      recorder.server,
+      10,
+      3);
+  private LineIndex lineIndex;
+
+  public void test_new_invalid() throws Exception {
+    try {
+      new ViewportNavigationManager(recorder.server, 0, 1);
+      fail();
+    } catch (IllegalArgumentException exception) {
+      // expected
+    }
+    try {
+      new ViewportNavigationManager(recorder.server, 1, 0);
+      fail();
+    } catch (IllegalArgumentException exception) {
+      // expected
+    }
+  }
+
+  public void test_onError() throws Exception {
+    manager.setViewport("/a.dart", 1, lineIndex, 1, 5);
+    getCallback(0).onError(new RequestError(RequestErrorCode.SERVER_ERROR, "error", null));
+    manager.setViewport("/a.dart", 1, lineIndex, 1, 5);
+    // only the window of the error response is requested again
+    assertEquals(3, recorder.requests.size());
+    assertEquals(0, recorder.requests.get(2).arguments[1]);
+  }
+
+  public void test_onResponse_differentTargetTables() throws Exception {
+    manager.setViewport("/a.dart", 1, lineIndex, 1, 5);
+    getCallback(0).onResponse(
+        Arrays.asList("/b.dart"),
+        Arrays.asList(target(0, 7)),
+        Arrays.asList(new NavigationRegion(5, 3, new int[] {0})));
+    getCallback(1).onResponse(
+        Arrays.asList("/c.dart", "/d.dart"),
+        Arrays.asList(target(1, 11), target(0, 13)),
+        Arrays.asList(
+            new NavigationRegion(105, 3, new int[] {1}),
+            new NavigationRegion(110, 2, new int[] {0})));
+    assertEquals(3, manager.getIndex("/a.dart").size());
+    assertTarget(manager.getRegion("/a.dart", 6), "/b.dart", 7);
+    assertTarget(manager.getRegion("/a.dart", 106), "/c.dart", 13);
+    assertTarget(manager.getRegion("/a.dart", 111), "/d.dart", 11);
+    assertNull(manager.getRegion("/a.dart", 50));
+  }
+
+  public void test_onResponse_previousVersion() throws Exception {
+    manager.setViewport("/a.dart", 1, lineIndex, 1, 5);
+    GetNavigationCallback previous = getCallback(0);
+    manager.setViewport("/a.dart", 2, lineIndex, 1, 5);
+    assertEquals(4, recorder.requests.size());
+    previous.onResponse(
+        Arrays.asList("/b.dart"),
+        Arrays.asList(target(0, 7)),
+        Arrays.asList(new NavigationRegion(5, 3, new int[] {0})));
+    assertNull(manager.getRegion("/a.dart", 6));
+  }
+
+  public void test_setViewport_adjacentWindows() throws Exception {
+    manager.setViewport("/a.dart", 1, lineIndex, 15, 16);
+    assertEquals(3, recorder.requests.size());
+    assertRequest(0, 0, 100);
+    assertRequest(1, 100, 100);
+    assertRequest(2, 200, 100);
+    // the windows already requested are not requested again
+    manager.setViewport("/a.dart", 1, lineIndex, 11, 20);
+    assertEquals(3, recorder.requests.size());
+  }
+
+  public void test_setViewport_evict() throws Exception {
+    manager.setViewport("/a.dart", 1, lineIndex, 1, 5);
+    getCallback(0).onResponse(
+        Arrays.asList("/b.dart"),
+        Arrays.asList(target(0, 7)),
+        Arrays.asList(new NavigationRegion(5, 3, new int[] {0})));
+    getCallback(1).onResponse(
+        Arrays.asList("/b.dart"),
+        Arrays.asList(target(0, 7)),
+        Arrays.asList(new NavigationRegion(105, 3, new int[] {0})));
+    // the windows 2 and 3 are requested, and the window 0, the farthest, is evicted
+    manager.setViewport("/a.dart", 1, lineIndex, 25, 28);
+    assertEquals(4, recorder.requests.size());
+    assertRequest(2, 200, 100);
+    assertRequest(3, 300, 100);
+    assertNull(manager.getRegion("/a.dart", 6));
+    assertNotNull(manager.getRegion("/a.dart", 106));
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    StringBuilder content = new StringBuilder();
+    for (int line = 0; line < 40; line++) {
+      content.append("012345678\n");
+    }
+    lineIndex = LineIndex.create(content);
+  }
+
+  private void assertRequest(int index, int offset, int length) {
+    List<Object> arguments = Arrays.asList(recorder.requests.get(index).arguments);
+    assertEquals("/a.dart", arguments.get(0));
+    assertEquals(offset, arguments.get(1));
+    assertEquals(length, arguments.get(2));
+  }
+
+  private static void assertTarget(NavigationRegion region, String file, int offset) {
+    List<NavigationTarget> targets = region.getTargetObjects();
+    assertEquals(1, targets.size());
+    assertEquals(file, targets.get(0).getFile());
+    assertEquals(offset, targets.get(0).getOffset());
+  }
+
+  /**
+   * Return the callback of the request with the given index.
+   */
+  private GetNavigationCallback getCallback(int index) {
+    GetNavigationConsumer consumer =
+        recorder.requests.get(index).getConsumer(GetNavigationConsumer.class);
+    return ClientCallbacks.toCallback(consumer);
+  }
+
+  private static NavigationTarget target(int fileIndex, int offset) {
+    return new NavigationTarget("CLASS", fileIndex, offset, 1, 1, offset + 1);
+  }
+}